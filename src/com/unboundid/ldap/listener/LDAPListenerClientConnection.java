@@ -62,6 +62,7 @@ import com.unboundid.util.StaticUtils;
 import com.unboundid.util.ThreadSafety;
 import com.unboundid.util.ThreadSafetyLevel;
 import com.unboundid.util.Validator;
+import com.unboundid.util.metrics.MetricsRegistry;
 
 import static com.unboundid.ldap.listener.ListenerMessages.*;
 
@@ -124,6 +125,9 @@ public final class LDAPListenerClientConnection
   // The output stream used to write responses to the client.
   private volatile OutputStream outputStream;
 
+  // The scope to use when publishing metrics for this connection.
+  private final String metricsScope;
+
   // The socket used to communicate with the client.
   private volatile Socket socket;
 
@@ -171,6 +175,7 @@ public final class LDAPListenerClientConnection
     this.socket           = socket;
     this.exceptionHandler = exceptionHandler;
 
+    metricsScope         = "ldap-listener:" + socket.getLocalPort();
     asn1Buffer           = new ASN1Buffer();
     suppressNextResponse = new AtomicBoolean(false);
 
@@ -436,6 +441,19 @@ public final class LDAPListenerClientConnection
           return;
         }
 
+        final MetricsRegistry metrics = MetricsRegistry.getInstalledRegistry();
+        final long requestStartNanos;
+        if (metrics == null)
+        {
+          requestStartNanos = 0L;
+        }
+        else
+        {
+          requestStartNanos = System.nanoTime();
+          metrics.incrementCounter(metricsScope,
+               MetricsRegistry.METRIC_LISTENER_REQUESTS, 1L);
+        }
+
         try
         {
           final int messageID = requestMessage.getMessageID();
@@ -632,6 +650,15 @@ public final class LDAPListenerClientConnection
                     StaticUtils.getExceptionMessage(e))));
           return;
         }
+        finally
+        {
+          if (metrics != null)
+          {
+            metrics.recordValue(metricsScope,
+                 MetricsRegistry.METRIC_LISTENER_REQUEST_LATENCY_NANOS,
+                 (System.nanoTime() - requestStartNanos));
+          }
+        }
       }
     }
     finally
@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.unboundid.asn1.ASN1OctetString;
 import com.unboundid.ldap.sdk.extensions.StartTLSExtendedRequest;
@@ -55,6 +56,19 @@ import static com.unboundid.util.Validator.*;
 public abstract class AbstractConnectionPool
        implements LDAPInterface, Closeable
 {
+  /**
+   * The counter that will be used when assigning numbers to connection pools
+   * for use in the metrics scope of pools that do not have a name.
+   */
+  private static final AtomicLong NEXT_POOL_NUMBER = new AtomicLong(0L);
+
+
+
+  // The number that identifies this connection pool within the JVM.
+  private final long poolNumber = NEXT_POOL_NUMBER.getAndIncrement();
+
+
+
   /**
    * Closes this connection pool.  All connections currently held in the pool
    * that are not in use will be closed, and any outstanding connections will be
@@ -378,6 +392,28 @@ public abstract class AbstractConnectionPool
 
 
 
+  /**
+   * Retrieves the scope that should be used when publishing metrics for this
+   * connection pool and the connections that are part of it.
+   *
+   * @return  The scope that should be used when publishing metrics for this
+   *          connection pool and the connections that are part of it.
+   */
+  final String getMetricsScope()
+  {
+    final String name = getConnectionPoolName();
+    if (name == null)
+    {
+      return "ldap-connection-pool:#" + poolNumber;
+    }
+    else
+    {
+      return "ldap-connection-pool:" + name;
+    }
+  }
+
+
+
   /**
    * Specifies the user-friendly name that should be used for this connection
    * pool.  This name may be used in debugging to help identify the purpose of
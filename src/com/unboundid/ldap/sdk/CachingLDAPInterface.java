@@ -0,0 +1,1347 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.unboundid.ldap.sdk.schema.Schema;
+import com.unboundid.ldif.LDIFException;
+import com.unboundid.util.Mutable;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+import static com.unboundid.util.Debug.*;
+import static com.unboundid.util.StaticUtils.*;
+import static com.unboundid.util.Validator.*;
+
+
+
+/**
+ * This class provides an implementation of the {@link LDAPInterface} that wraps
+ * another {@code LDAPInterface} (for example, an {@link LDAPConnectionPool})
+ * and maintains a client-side cache of search results.  It is intended for
+ * applications that repeatedly issue identical searches for content that
+ * changes infrequently, like group membership or configuration entries.
+ * <BR><BR>
+ * Cached results are keyed on the normalized base DN, the scope, the
+ * dereference policy, the size and time limits, the typesOnly flag, the
+ * normalized filter, the (case-insensitive and unordered) set of requested
+ * attributes, and the set of request controls.  Only searches that complete
+ * with a result code of {@link ResultCode#SUCCESS}, that are not configured
+ * with a {@link SearchResultListener}, and that return no more than a
+ * configurable number of entries will be cached.  Cached results will be
+ * discarded when they have been in the cache for longer than the configured
+ * time to live, or when the cache is full and they are the least recently used
+ * results.
+ * <BR><BR>
+ * Any add, delete, modify, or modify DN operation processed through this
+ * interface will cause any cached results that could include the target entry
+ * to be invalidated.  Changes made by other clients may be detected by
+ * processing a persistent search or content synchronization search with a
+ * {@link CachingLDAPInterfaceInvalidator} as the search result listener.
+ * Cached results may also be invalidated explicitly by calling one of the
+ * {@code invalidate} methods.
+ * <BR><BR>
+ * Note that the {@code SearchResult} and {@code SearchResultEntry} objects
+ * returned from the cache are shared among all callers that issue the same
+ * search.
+ * <BR><BR>
+ * <H2>Example</H2>
+ * The following example demonstrates the process for creating a caching
+ * interface around a connection pool and using it to retrieve an entry:
+ * <PRE>
+ * CachingLDAPInterface cachingInterface =
+ *      new CachingLDAPInterface(connectionPool, 1000, 60000L);
+ * SearchResultEntry entry =
+ *      cachingInterface.getEntry("cn=config entry,dc=example,dc=com");
+ * CachingLDAPInterfaceStatistics stats = cachingInterface.getStatistics();
+ * </PRE>
+ */
+@Mutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class CachingLDAPInterface
+       implements LDAPInterface
+{
+  /**
+   * The default maximum number of entries that a search result may contain in
+   * order to be cached.
+   */
+  public static final int DEFAULT_MAX_ENTRIES_PER_RESULT = 100;
+
+
+
+  // The statistics maintained for this caching interface.
+  private final CachingLDAPInterfaceStatistics statistics;
+
+  // The maximum number of search results that may be held in the cache.
+  private final int maxCachedResults;
+
+  // The interface that will be used to actually process operations.
+  private final LDAPInterface ldapInterface;
+
+  // The cached search results, in least-recently-used order.
+  private final LinkedHashMap<String,CachedSearchResult> cache;
+
+  // The maximum number of entries that a result may contain to be cached.
+  private volatile int maxEntriesPerResult;
+
+  // The maximum length of time in milliseconds that a result may be cached.
+  private volatile long timeToLiveMillis;
+
+  // The number of times that the cache has been invalidated.  It is used to
+  // avoid caching a result if an invalidation may have occurred while the
+  // search was being processed.  It must only be accessed while holding the
+  // lock on the cache.
+  private long invalidationGeneration;
+
+
+
+  /**
+   * Creates a new caching LDAP interface with the provided information.
+   *
+   * @param  ldapInterface     The interface that will be used to process all
+   *                           operations that cannot be satisfied from the
+   *                           cache.  It must not be {@code null}.
+   * @param  maxCachedResults  The maximum number of search results that may be
+   *                           held in the cache at any time.  It must be
+   *                           greater than zero.
+   * @param  timeToLiveMillis  The maximum length of time in milliseconds that a
+   *                           search result may be held in the cache.  A value
+   *                           that is less than or equal to zero indicates that
+   *                           results will not expire, but will only be removed
+   *                           by eviction or invalidation.
+   */
+  public CachingLDAPInterface(final LDAPInterface ldapInterface,
+                              final int maxCachedResults,
+                              final long timeToLiveMillis)
+  {
+    ensureNotNull(ldapInterface);
+    ensureTrue(maxCachedResults > 0,
+         "CachingLDAPInterface.maxCachedResults must be greater than zero.");
+
+    this.ldapInterface    = ldapInterface;
+    this.maxCachedResults = maxCachedResults;
+    this.timeToLiveMillis = timeToLiveMillis;
+
+    maxEntriesPerResult    = DEFAULT_MAX_ENTRIES_PER_RESULT;
+    invalidationGeneration = 0L;
+    statistics             = new CachingLDAPInterfaceStatistics(this);
+    cache = new LinkedHashMap<String,CachedSearchResult>(
+         Math.min(maxCachedResults, 1024), 0.75f, true);
+  }
+
+
+
+  /**
+   * Retrieves the interface that will be used to process operations that
+   * cannot be satisfied from the cache.
+   *
+   * @return  The interface that will be used to process operations that cannot
+   *          be satisfied from the cache.
+   */
+  public LDAPInterface getWrappedInterface()
+  {
+    return ldapInterface;
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of search results that may be held in the
+   * cache.
+   *
+   * @return  The maximum number of search results that may be held in the
+   *          cache.
+   */
+  public int getMaxCachedResults()
+  {
+    return maxCachedResults;
+  }
+
+
+
+  /**
+   * Retrieves the number of search results currently held in the cache.  This
+   * may include results that have expired but have not yet been purged.
+   *
+   * @return  The number of search results currently held in the cache.
+   */
+  public int getCurrentCachedResults()
+  {
+    synchronized (cache)
+    {
+      return cache.size();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the maximum length of time in milliseconds that a search result
+   * may be held in the cache.
+   *
+   * @return  The maximum length of time in milliseconds that a search result
+   *          may be held in the cache, or a value less than or equal to zero if
+   *          cached results do not expire.
+   */
+  public long getTimeToLiveMillis()
+  {
+    return timeToLiveMillis;
+  }
+
+
+
+  /**
+   * Specifies the maximum length of time in milliseconds that a search result
+   * may be held in the cache.  The new value will only apply to results that
+   * are added to the cache after this method is called.
+   *
+   * @param  timeToLiveMillis  The maximum length of time in milliseconds that a
+   *                           search result may be held in the cache.  A value
+   *                           that is less than or equal to zero indicates that
+   *                           results will not expire.
+   */
+  public void setTimeToLiveMillis(final long timeToLiveMillis)
+  {
+    this.timeToLiveMillis = timeToLiveMillis;
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of entries that a search result may contain
+   * in order to be cached.
+   *
+   * @return  The maximum number of entries that a search result may contain in
+   *          order to be cached.
+   */
+  public int getMaxEntriesPerResult()
+  {
+    return maxEntriesPerResult;
+  }
+
+
+
+  /**
+   * Specifies the maximum number of entries that a search result may contain
+   * in order to be cached.  Results with a greater number of entries will be
+   * returned to the caller but will not be cached.
+   *
+   * @param  maxEntriesPerResult  The maximum number of entries that a search
+   *                              result may contain in order to be cached.  A
+   *                              value less than zero will be treated as zero.
+   */
+  public void setMaxEntriesPerResult(final int maxEntriesPerResult)
+  {
+    this.maxEntriesPerResult = Math.max(0, maxEntriesPerResult);
+  }
+
+
+
+  /**
+   * Retrieves the statistics maintained for this caching interface.
+   *
+   * @return  The statistics maintained for this caching interface.
+   */
+  public CachingLDAPInterfaceStatistics getStatistics()
+  {
+    return statistics;
+  }
+
+
+
+  /**
+   * Removes all results from the cache.
+   */
+  public void invalidateAll()
+  {
+    synchronized (cache)
+    {
+      invalidationGeneration++;
+      statistics.incrementNumInvalidations(cache.size());
+      cache.clear();
+    }
+  }
+
+
+
+  /**
+   * Removes any cached results whose base DN and scope could include the entry
+   * with the specified DN.  This should be used to reflect the addition,
+   * removal, or modification of a single entry.
+   *
+   * @param  dn  The DN of the entry that has been changed.  It must not be
+   *             {@code null}.
+   */
+  public void invalidate(final String dn)
+  {
+    final DN parsedDN;
+    try
+    {
+      parsedDN = new DN(dn);
+    }
+    catch (final LDAPException le)
+    {
+      // We can't tell which results might be impacted, so remove all of them.
+      debugException(le);
+      invalidateAll();
+      return;
+    }
+
+    invalidate(parsedDN, false);
+  }
+
+
+
+  /**
+   * Removes any cached results whose base DN and scope could include the entry
+   * with the specified DN or any of its subordinates, as well as any cached
+   * results with a base DN at or below the specified DN.  This should be used
+   * to reflect the renaming or moving of an entry.
+   *
+   * @param  dn  The DN of the base of the subtree that has been changed.  It
+   *             must not be {@code null}.
+   */
+  public void invalidateSubtree(final String dn)
+  {
+    final DN parsedDN;
+    try
+    {
+      parsedDN = new DN(dn);
+    }
+    catch (final LDAPException le)
+    {
+      debugException(le);
+      invalidateAll();
+      return;
+    }
+
+    invalidate(parsedDN, true);
+  }
+
+
+
+  /**
+   * Removes any cached results that could be impacted by a change to the entry
+   * with the specified DN.
+   *
+   * @param  dn            The DN of the entry that has been changed.
+   * @param  wholeSubtree  Indicates whether all entries below the specified DN
+   *                       should also be considered changed.
+   */
+  private void invalidate(final DN dn, final boolean wholeSubtree)
+  {
+    synchronized (cache)
+    {
+      invalidationGeneration++;
+
+      final Iterator<CachedSearchResult> iterator = cache.values().iterator();
+      while (iterator.hasNext())
+      {
+        final CachedSearchResult r = iterator.next();
+
+        boolean impacted;
+        try
+        {
+          impacted = dn.matchesBaseAndScope(r.baseDN, r.scope) ||
+               (wholeSubtree && dn.isAncestorOf(r.baseDN, true));
+        }
+        catch (final LDAPException le)
+        {
+          debugException(le);
+          impacted = true;
+        }
+
+        if (impacted)
+        {
+          iterator.remove();
+          statistics.incrementNumInvalidations(1);
+        }
+      }
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public RootDSE getRootDSE()
+         throws LDAPException
+  {
+    return ldapInterface.getRootDSE();
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public Schema getSchema()
+         throws LDAPException
+  {
+    return ldapInterface.getSchema();
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public Schema getSchema(final String entryDN)
+         throws LDAPException
+  {
+    return ldapInterface.getSchema(entryDN);
+  }
+
+
+
+  /**
+   * {@inheritDoc}  The entry may be retrieved from the cache.
+   */
+  @Override()
+  public SearchResultEntry getEntry(final String dn)
+         throws LDAPException
+  {
+    return getEntry(dn, (String[]) null);
+  }
+
+
+
+  /**
+   * {@inheritDoc}  The entry may be retrieved from the cache.
+   */
+  @Override()
+  public SearchResultEntry getEntry(final String dn, final String... attributes)
+         throws LDAPException
+  {
+    return searchForEntry(new SearchRequest(dn, SearchScope.BASE,
+         DereferencePolicy.NEVER, 1, 0, false,
+         Filter.createPresenceFilter("objectClass"), attributes));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Any cached results that could include the new entry will
+   * be invalidated.
+   */
+  @Override()
+  public LDAPResult add(final String dn, final Attribute... attributes)
+         throws LDAPException
+  {
+    return add(new AddRequest(dn, attributes));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Any cached results that could include the new entry will
+   * be invalidated.
+   */
+  @Override()
+  public LDAPResult add(final String dn, final Collection<Attribute> attributes)
+         throws LDAPException
+  {
+    return add(new AddRequest(dn, attributes));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Any cached results that could include the new entry will
+   * be invalidated.
+   */
+  @Override()
+  public LDAPResult add(final Entry entry)
+         throws LDAPException
+  {
+    return add(new AddRequest(entry));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Any cached results that could include the new entry will
+   * be invalidated.
+   */
+  @Override()
+  public LDAPResult add(final String... ldifLines)
+         throws LDIFException, LDAPException
+  {
+    return add(new AddRequest(ldifLines));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Any cached results that could include the new entry will
+   * be invalidated.
+   */
+  @Override()
+  public LDAPResult add(final AddRequest addRequest)
+         throws LDAPException
+  {
+    try
+    {
+      return ldapInterface.add(addRequest);
+    }
+    finally
+    {
+      invalidate(addRequest.getDN());
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Any cached results that could include the new entry will
+   * be invalidated.
+   */
+  @Override()
+  public LDAPResult add(final ReadOnlyAddRequest addRequest)
+         throws LDAPException
+  {
+    return add((AddRequest) addRequest);
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public CompareResult compare(final String dn, final String attributeName,
+                               final String assertionValue)
+         throws LDAPException
+  {
+    return ldapInterface.compare(dn, attributeName, assertionValue);
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public CompareResult compare(final CompareRequest compareRequest)
+         throws LDAPException
+  {
+    return ldapInterface.compare(compareRequest);
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public CompareResult compare(final ReadOnlyCompareRequest compareRequest)
+         throws LDAPException
+  {
+    return ldapInterface.compare(compareRequest);
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Any cached results that could include the target entry
+   * will be invalidated.
+   */
+  @Override()
+  public LDAPResult delete(final String dn)
+         throws LDAPException
+  {
+    return delete(new DeleteRequest(dn));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Any cached results that could include the target entry
+   * will be invalidated.
+   */
+  @Override()
+  public LDAPResult delete(final DeleteRequest deleteRequest)
+         throws LDAPException
+  {
+    try
+    {
+      return ldapInterface.delete(deleteRequest);
+    }
+    finally
+    {
+      invalidate(deleteRequest.getDN());
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Any cached results that could include the target entry
+   * will be invalidated.
+   */
+  @Override()
+  public LDAPResult delete(final ReadOnlyDeleteRequest deleteRequest)
+         throws LDAPException
+  {
+    return delete((DeleteRequest) deleteRequest);
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Any cached results that could include the target entry
+   * will be invalidated.
+   */
+  @Override()
+  public LDAPResult modify(final String dn, final Modification mod)
+         throws LDAPException
+  {
+    return modify(new ModifyRequest(dn, mod));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Any cached results that could include the target entry
+   * will be invalidated.
+   */
+  @Override()
+  public LDAPResult modify(final String dn, final Modification... mods)
+         throws LDAPException
+  {
+    return modify(new ModifyRequest(dn, mods));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Any cached results that could include the target entry
+   * will be invalidated.
+   */
+  @Override()
+  public LDAPResult modify(final String dn, final List<Modification> mods)
+         throws LDAPException
+  {
+    return modify(new ModifyRequest(dn, mods));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Any cached results that could include the target entry
+   * will be invalidated.
+   */
+  @Override()
+  public LDAPResult modify(final String... ldifModificationLines)
+         throws LDIFException, LDAPException
+  {
+    return modify(new ModifyRequest(ldifModificationLines));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Any cached results that could include the target entry
+   * will be invalidated.
+   */
+  @Override()
+  public LDAPResult modify(final ModifyRequest modifyRequest)
+         throws LDAPException
+  {
+    try
+    {
+      return ldapInterface.modify(modifyRequest);
+    }
+    finally
+    {
+      invalidate(modifyRequest.getDN());
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Any cached results that could include the target entry
+   * will be invalidated.
+   */
+  @Override()
+  public LDAPResult modify(final ReadOnlyModifyRequest modifyRequest)
+         throws LDAPException
+  {
+    return modify((ModifyRequest) modifyRequest);
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Any cached results that could include the target entry or
+   * its subordinates will be invalidated.
+   */
+  @Override()
+  public LDAPResult modifyDN(final String dn, final String newRDN,
+                             final boolean deleteOldRDN)
+         throws LDAPException
+  {
+    return modifyDN(new ModifyDNRequest(dn, newRDN, deleteOldRDN));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Any cached results that could include the target entry or
+   * its subordinates will be invalidated.
+   */
+  @Override()
+  public LDAPResult modifyDN(final String dn, final String newRDN,
+                             final boolean deleteOldRDN,
+                             final String newSuperiorDN)
+         throws LDAPException
+  {
+    return modifyDN(new ModifyDNRequest(dn, newRDN, deleteOldRDN,
+         newSuperiorDN));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Any cached results that could include the target entry or
+   * its subordinates will be invalidated.
+   */
+  @Override()
+  public LDAPResult modifyDN(final ModifyDNRequest modifyDNRequest)
+         throws LDAPException
+  {
+    try
+    {
+      return ldapInterface.modifyDN(modifyDNRequest);
+    }
+    finally
+    {
+      invalidateSubtree(modifyDNRequest.getDN());
+
+      try
+      {
+        final String newSuperiorDN = modifyDNRequest.getNewSuperiorDN();
+        final DN newParentDN;
+        if (newSuperiorDN == null)
+        {
+          newParentDN = new DN(modifyDNRequest.getDN()).getParent();
+        }
+        else
+        {
+          newParentDN = new DN(newSuperiorDN);
+        }
+
+        if (newParentDN == null)
+        {
+          invalidateSubtree(modifyDNRequest.getNewRDN());
+        }
+        else
+        {
+          invalidate(new DN(new RDN(modifyDNRequest.getNewRDN()),
+               newParentDN), true);
+        }
+      }
+      catch (final LDAPException le)
+      {
+        debugException(le);
+        invalidateAll();
+      }
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Any cached results that could include the target entry or
+   * its subordinates will be invalidated.
+   */
+  @Override()
+  public LDAPResult modifyDN(final ReadOnlyModifyDNRequest modifyDNRequest)
+         throws LDAPException
+  {
+    return modifyDN((ModifyDNRequest) modifyDNRequest);
+  }
+
+
+
+  /**
+   * {@inheritDoc}  The result may be retrieved from the cache.
+   */
+  @Override()
+  public SearchResult search(final String baseDN, final SearchScope scope,
+                             final String filter, final String... attributes)
+         throws LDAPSearchException
+  {
+    return search(new SearchRequest(baseDN, scope, parseFilter(filter),
+         attributes));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  The result may be retrieved from the cache.
+   */
+  @Override()
+  public SearchResult search(final String baseDN, final SearchScope scope,
+                             final Filter filter, final String... attributes)
+         throws LDAPSearchException
+  {
+    return search(new SearchRequest(baseDN, scope, filter, attributes));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Because a search result listener is provided, the search
+   * will always be processed by the wrapped interface.
+   */
+  @Override()
+  public SearchResult search(final SearchResultListener searchResultListener,
+                             final String baseDN, final SearchScope scope,
+                             final String filter, final String... attributes)
+         throws LDAPSearchException
+  {
+    return search(new SearchRequest(searchResultListener, baseDN, scope,
+         parseFilter(filter), attributes));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Because a search result listener is provided, the search
+   * will always be processed by the wrapped interface.
+   */
+  @Override()
+  public SearchResult search(final SearchResultListener searchResultListener,
+                             final String baseDN, final SearchScope scope,
+                             final Filter filter, final String... attributes)
+         throws LDAPSearchException
+  {
+    return search(new SearchRequest(searchResultListener, baseDN, scope,
+         filter, attributes));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  The result may be retrieved from the cache.
+   */
+  @Override()
+  public SearchResult search(final String baseDN, final SearchScope scope,
+                             final DereferencePolicy derefPolicy,
+                             final int sizeLimit, final int timeLimit,
+                             final boolean typesOnly, final String filter,
+                             final String... attributes)
+         throws LDAPSearchException
+  {
+    return search(new SearchRequest(baseDN, scope, derefPolicy, sizeLimit,
+         timeLimit, typesOnly, parseFilter(filter), attributes));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  The result may be retrieved from the cache.
+   */
+  @Override()
+  public SearchResult search(final String baseDN, final SearchScope scope,
+                             final DereferencePolicy derefPolicy,
+                             final int sizeLimit, final int timeLimit,
+                             final boolean typesOnly, final Filter filter,
+                             final String... attributes)
+         throws LDAPSearchException
+  {
+    return search(new SearchRequest(baseDN, scope, derefPolicy, sizeLimit,
+         timeLimit, typesOnly, filter, attributes));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Because a search result listener is provided, the search
+   * will always be processed by the wrapped interface.
+   */
+  @Override()
+  public SearchResult search(final SearchResultListener searchResultListener,
+                             final String baseDN, final SearchScope scope,
+                             final DereferencePolicy derefPolicy,
+                             final int sizeLimit, final int timeLimit,
+                             final boolean typesOnly, final String filter,
+                             final String... attributes)
+         throws LDAPSearchException
+  {
+    return search(new SearchRequest(searchResultListener, baseDN, scope,
+         derefPolicy, sizeLimit, timeLimit, typesOnly, parseFilter(filter),
+         attributes));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  Because a search result listener is provided, the search
+   * will always be processed by the wrapped interface.
+   */
+  @Override()
+  public SearchResult search(final SearchResultListener searchResultListener,
+                             final String baseDN, final SearchScope scope,
+                             final DereferencePolicy derefPolicy,
+                             final int sizeLimit, final int timeLimit,
+                             final boolean typesOnly, final Filter filter,
+                             final String... attributes)
+         throws LDAPSearchException
+  {
+    return search(new SearchRequest(searchResultListener, baseDN, scope,
+         derefPolicy, sizeLimit, timeLimit, typesOnly, filter, attributes));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  If the request is not configured with a search result
+   * listener, then the result may be retrieved from the cache.
+   */
+  @Override()
+  public SearchResult search(final SearchRequest searchRequest)
+         throws LDAPSearchException
+  {
+    if (searchRequest.getSearchResultListener() != null)
+    {
+      statistics.incrementNumUncacheable();
+      return ldapInterface.search(searchRequest);
+    }
+
+    final DN baseDN;
+    try
+    {
+      baseDN = new DN(searchRequest.getBaseDN());
+    }
+    catch (final LDAPException le)
+    {
+      debugException(le);
+      statistics.incrementNumUncacheable();
+      return ldapInterface.search(searchRequest);
+    }
+
+    final String key = getCacheKey(baseDN, searchRequest);
+    final CachedSearchResult cachedResult;
+    final long generationBeforeSearch;
+    synchronized (cache)
+    {
+      generationBeforeSearch = invalidationGeneration;
+      cachedResult = cache.get(key);
+      if (cachedResult != null)
+      {
+        if ((cachedResult.expirationTime > 0L) &&
+            (System.currentTimeMillis() > cachedResult.expirationTime))
+        {
+          cache.remove(key);
+          statistics.incrementNumExpirations();
+        }
+        else
+        {
+          statistics.incrementNumHits();
+          return cachedResult.result;
+        }
+      }
+    }
+
+    statistics.incrementNumMisses();
+    final SearchResult result = ldapInterface.search(searchRequest);
+    if ((result.getResultCode() != ResultCode.SUCCESS) ||
+        (result.getSearchEntries() == null) ||
+        (result.getEntryCount() > maxEntriesPerResult))
+    {
+      statistics.incrementNumUncacheable();
+      return result;
+    }
+
+    final long ttl = timeToLiveMillis;
+    final long expirationTime;
+    if (ttl > 0L)
+    {
+      expirationTime = System.currentTimeMillis() + ttl;
+    }
+    else
+    {
+      expirationTime = 0L;
+    }
+
+    synchronized (cache)
+    {
+      // If the cache was invalidated while the search was in progress, then
+      // the result may not reflect that change, so don't cache it.
+      if (invalidationGeneration != generationBeforeSearch)
+      {
+        statistics.incrementNumUncacheable();
+        return result;
+      }
+
+      cache.put(key, new CachedSearchResult(baseDN, searchRequest.getScope(),
+           result, expirationTime));
+
+      final Iterator<Map.Entry<String,CachedSearchResult>> iterator =
+           cache.entrySet().iterator();
+      while ((cache.size() > maxCachedResults) && iterator.hasNext())
+      {
+        iterator.next();
+        iterator.remove();
+        statistics.incrementNumEvictions();
+      }
+    }
+
+    return result;
+  }
+
+
+
+  /**
+   * {@inheritDoc}  If the request is not configured with a search result
+   * listener, then the result may be retrieved from the cache.
+   */
+  @Override()
+  public SearchResult search(final ReadOnlySearchRequest searchRequest)
+         throws LDAPSearchException
+  {
+    return search((SearchRequest) searchRequest);
+  }
+
+
+
+  /**
+   * {@inheritDoc}  The entry may be retrieved from the cache.
+   */
+  @Override()
+  public SearchResultEntry searchForEntry(final String baseDN,
+                                          final SearchScope scope,
+                                          final String filter,
+                                          final String... attributes)
+         throws LDAPSearchException
+  {
+    return searchForEntry(new SearchRequest(baseDN, scope,
+         DereferencePolicy.NEVER, 1, 0, false, parseFilter(filter),
+         attributes));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  The entry may be retrieved from the cache.
+   */
+  @Override()
+  public SearchResultEntry searchForEntry(final String baseDN,
+                                          final SearchScope scope,
+                                          final Filter filter,
+                                          final String... attributes)
+         throws LDAPSearchException
+  {
+    return searchForEntry(new SearchRequest(baseDN, scope,
+         DereferencePolicy.NEVER, 1, 0, false, filter, attributes));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  The entry may be retrieved from the cache.
+   */
+  @Override()
+  public SearchResultEntry searchForEntry(final String baseDN,
+                                          final SearchScope scope,
+                                          final DereferencePolicy derefPolicy,
+                                          final int timeLimit,
+                                          final boolean typesOnly,
+                                          final String filter,
+                                          final String... attributes)
+         throws LDAPSearchException
+  {
+    return searchForEntry(new SearchRequest(baseDN, scope, derefPolicy, 1,
+         timeLimit, typesOnly, parseFilter(filter), attributes));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  The entry may be retrieved from the cache.
+   */
+  @Override()
+  public SearchResultEntry searchForEntry(final String baseDN,
+                                          final SearchScope scope,
+                                          final DereferencePolicy derefPolicy,
+                                          final int timeLimit,
+                                          final boolean typesOnly,
+                                          final Filter filter,
+                                          final String... attributes)
+         throws LDAPSearchException
+  {
+    return searchForEntry(new SearchRequest(baseDN, scope, derefPolicy, 1,
+         timeLimit, typesOnly, filter, attributes));
+  }
+
+
+
+  /**
+   * {@inheritDoc}  The entry may be retrieved from the cache.
+   */
+  @Override()
+  public SearchResultEntry searchForEntry(final SearchRequest searchRequest)
+         throws LDAPSearchException
+  {
+    final SearchRequest r;
+    if ((searchRequest.getSearchResultListener() != null) ||
+        (searchRequest.getSizeLimit() != 1))
+    {
+      r = new SearchRequest(searchRequest.getBaseDN(), searchRequest.getScope(),
+           searchRequest.getDereferencePolicy(), 1,
+           searchRequest.getTimeLimitSeconds(), searchRequest.typesOnly(),
+           searchRequest.getFilter(), searchRequest.getAttributes());
+
+      r.setFollowReferrals(searchRequest.followReferralsInternal());
+      r.setResponseTimeoutMillis(searchRequest.getResponseTimeoutMillis(null));
+
+      if (searchRequest.hasControl())
+      {
+        r.setControlsInternal(searchRequest.getControls());
+      }
+    }
+    else
+    {
+      r = searchRequest;
+    }
+
+    final SearchResult result;
+    try
+    {
+      result = search(r);
+    }
+    catch (final LDAPSearchException lse)
+    {
+      debugException(lse);
+
+      if (lse.getResultCode() == ResultCode.NO_SUCH_OBJECT)
+      {
+        return null;
+      }
+
+      throw lse;
+    }
+
+    if (result.getEntryCount() == 0)
+    {
+      return null;
+    }
+    else
+    {
+      return result.getSearchEntries().get(0);
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}  The entry may be retrieved from the cache.
+   */
+  @Override()
+  public SearchResultEntry searchForEntry(
+                                final ReadOnlySearchRequest searchRequest)
+         throws LDAPSearchException
+  {
+    return searchForEntry((SearchRequest) searchRequest);
+  }
+
+
+
+  /**
+   * Constructs the key that will be used to cache the results of the provided
+   * search request.
+   *
+   * @param  baseDN         The parsed base DN for the search request.
+   * @param  searchRequest  The search request for which to construct the key.
+   *
+   * @return  The key that will be used to cache the results of the search.
+   */
+  static String getCacheKey(final DN baseDN, final SearchRequest searchRequest)
+  {
+    final StringBuilder buffer = new StringBuilder();
+    buffer.append(baseDN.toNormalizedString());
+    buffer.append('\u0000');
+    buffer.append(searchRequest.getScope().intValue());
+    buffer.append(',');
+    buffer.append(searchRequest.getDereferencePolicy().intValue());
+    buffer.append(',');
+    buffer.append(searchRequest.getSizeLimit());
+    buffer.append(',');
+    buffer.append(searchRequest.getTimeLimitSeconds());
+    buffer.append(',');
+    buffer.append(searchRequest.typesOnly());
+    buffer.append('\u0000');
+    searchRequest.getFilter().toNormalizedString(buffer);
+    buffer.append('\u0000');
+
+    final String[] attrs = searchRequest.getAttributes();
+    if (attrs.length > 0)
+    {
+      final String[] sortedAttrs = new String[attrs.length];
+      for (int i=0; i < attrs.length; i++)
+      {
+        sortedAttrs[i] = toLowerCase(attrs[i]);
+      }
+      Arrays.sort(sortedAttrs);
+
+      for (final String a : sortedAttrs)
+      {
+        buffer.append(a);
+        buffer.append(',');
+      }
+    }
+
+    for (final Control c : searchRequest.getControls())
+    {
+      buffer.append('\u0000');
+      buffer.append(c.getOID());
+      buffer.append(',');
+      buffer.append(c.isCritical());
+      if (c.hasValue())
+      {
+        buffer.append(',');
+        toHex(c.getValue().getValue(), buffer);
+      }
+    }
+
+    return buffer.toString();
+  }
+
+
+
+  /**
+   * Parses the provided string as a {@code Filter} object.
+   *
+   * @param  filterString  The string to parse as a {@code Filter}.
+   *
+   * @return  The parsed {@code Filter}.
+   *
+   * @throws  LDAPSearchException  If the provided string does not represent a
+   *                               valid search filter.
+   */
+  private static Filter parseFilter(final String filterString)
+          throws LDAPSearchException
+  {
+    try
+    {
+      return Filter.create(filterString);
+    }
+    catch (final LDAPException le)
+    {
+      debugException(le);
+      throw new LDAPSearchException(le);
+    }
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this caching LDAP interface.
+   *
+   * @return  A string representation of this caching LDAP interface.
+   */
+  @Override()
+  public String toString()
+  {
+    final StringBuilder buffer = new StringBuilder();
+    toString(buffer);
+    return buffer.toString();
+  }
+
+
+
+  /**
+   * Appends a string representation of this caching LDAP interface to the
+   * provided buffer.
+   *
+   * @param  buffer  The buffer to which the information should be appended.
+   */
+  public void toString(final StringBuilder buffer)
+  {
+    buffer.append("CachingLDAPInterface(maxCachedResults=");
+    buffer.append(maxCachedResults);
+    buffer.append(", timeToLiveMillis=");
+    buffer.append(timeToLiveMillis);
+    buffer.append(", maxEntriesPerResult=");
+    buffer.append(maxEntriesPerResult);
+    buffer.append(", statistics=");
+    statistics.toString(buffer);
+    buffer.append(')');
+  }
+
+
+
+  /**
+   * This class provides a data structure that holds a cached search result
+   * along with the information needed to determine when it should be removed
+   * from the cache.
+   */
+  private static final class CachedSearchResult
+  {
+    // The parsed base DN for the search request.
+    private final DN baseDN;
+
+    // The time that the result should expire, or zero if it should not expire.
+    private final long expirationTime;
+
+    // The cached search result.
+    private final SearchResult result;
+
+    // The scope for the search request.
+    private final SearchScope scope;
+
+
+
+    /**
+     * Creates a new cached search result with the provided information.
+     *
+     * @param  baseDN          The parsed base DN for the search request.
+     * @param  scope           The scope for the search request.
+     * @param  result          The search result to cache.
+     * @param  expirationTime  The time that the result should expire, or zero
+     *                         if it should not expire.
+     */
+    private CachedSearchResult(final DN baseDN, final SearchScope scope,
+                               final SearchResult result,
+                               final long expirationTime)
+    {
+      this.baseDN         = baseDN;
+      this.scope          = scope;
+      this.result         = result;
+      this.expirationTime = expirationTime;
+    }
+  }
+}
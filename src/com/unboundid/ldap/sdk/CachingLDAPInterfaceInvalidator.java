@@ -0,0 +1,444 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import com.unboundid.ldap.sdk.controls.ContentSyncInfoIntermediateResponse;
+import com.unboundid.ldap.sdk.controls.ContentSyncRequestControl;
+import com.unboundid.ldap.sdk.controls.ContentSyncRequestMode;
+import com.unboundid.ldap.sdk.controls.ContentSyncState;
+import com.unboundid.ldap.sdk.controls.ContentSyncStateControl;
+import com.unboundid.ldap.sdk.controls.EntryChangeNotificationControl;
+import com.unboundid.ldap.sdk.controls.PersistentSearchChangeType;
+import com.unboundid.ldap.sdk.controls.PersistentSearchRequestControl;
+import com.unboundid.util.NotMutable;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+import static com.unboundid.util.Debug.*;
+
+
+
+/**
+ * This class provides an asynchronous search result listener that may be used
+ * to invalidate results held in a {@link CachingLDAPInterface} based on changes
+ * reported by the directory server through a persistent search (as described
+ * in draft-ietf-ldapext-psearch) or a content synchronization operation in
+ * refreshAndPersist mode (as described in RFC 4533).  This makes it possible to
+ * keep the cache consistent with changes made by other clients.
+ * <BR><BR>
+ * For each entry returned by the server, any cached results that could include
+ * that entry will be invalidated.  If the entry has been renamed or moved, then
+ * results that could include the entry's old or new subtree will be
+ * invalidated.  The old DN is taken from the entry change notification control
+ * if it is available, or otherwise from the DN last seen for the entry with the
+ * same entryUUID (from the content synchronization state control, or from the
+ * entryUUID attribute requested by persistent searches).  If the entry may
+ * have been renamed but its old DN is not known, then all results that could
+ * include entries within the base of any search created by this invalidator
+ * will be invalidated.  Any content synchronization info intermediate response
+ * that could indicate the removal of entries that are only identified by their
+ * entryUUID, and the completion of the search itself (after which changes can
+ * no longer be detected), will cause the entire cache to be invalidated.
+ * <BR><BR>
+ * <H2>Example</H2>
+ * The following example demonstrates the process for using a persistent search
+ * to keep a caching interface up to date:
+ * <PRE>
+ * CachingLDAPInterfaceInvalidator invalidator =
+ *      new CachingLDAPInterfaceInvalidator(cachingInterface);
+ * AsyncRequestID asyncRequestID = connection.asyncSearch(
+ *      invalidator.createPersistentSearchRequest("dc=example,dc=com",
+ *           SearchScope.SUB));
+ *
+ * // Use the caching interface as desired.  When it is no longer needed,
+ * // abandon the persistent search.
+ * connection.abandon(asyncRequestID);
+ * </PRE>
+ */
+@NotMutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class CachingLDAPInterfaceInvalidator
+       implements AsyncSearchResultListener, IntermediateResponseListener
+{
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = -4406962768219751823L;
+
+
+
+  /**
+   * The maximum number of entries for which the last known DN will be
+   * remembered.
+   */
+  private static final int MAX_TRACKED_ENTRIES = 100000;
+
+
+
+  // The caching interface whose results should be invalidated.
+  private final CachingLDAPInterface cachingInterface;
+
+  // The last known DNs of entries returned by the server, indexed by entryUUID.
+  private final Map<UUID,DN> entryDNs;
+
+  // The base DNs of the searches created by this invalidator.
+  private final Set<String> searchBaseDNs;
+
+
+
+  /**
+   * Creates a new invalidator for the provided caching interface.
+   *
+   * @param  cachingInterface  The caching interface whose results should be
+   *                           invalidated.  It must not be {@code null}.
+   */
+  public CachingLDAPInterfaceInvalidator(
+              final CachingLDAPInterface cachingInterface)
+  {
+    this.cachingInterface = cachingInterface;
+
+    searchBaseDNs = new CopyOnWriteArraySet<String>();
+    entryDNs = new LinkedHashMap<UUID,DN>(16, 0.75f, true)
+    {
+      private static final long serialVersionUID = -7311040364264837619L;
+
+      @Override()
+      protected boolean removeEldestEntry(final Map.Entry<UUID,DN> e)
+      {
+        return (size() > MAX_TRACKED_ENTRIES);
+      }
+    };
+  }
+
+
+
+  /**
+   * Retrieves the caching interface whose results will be invalidated.
+   *
+   * @return  The caching interface whose results will be invalidated.
+   */
+  public CachingLDAPInterface getCachingInterface()
+  {
+    return cachingInterface;
+  }
+
+
+
+  /**
+   * Creates a search request that will use the persistent search request
+   * control to be notified of all changes to entries within the specified base
+   * and scope, using this invalidator as the search result listener.  The
+   * request should be processed with the {@code LDAPConnection.asyncSearch}
+   * method on a connection that is not part of a connection pool.
+   *
+   * @param  baseDN  The base DN for the persistent search.  It must not be
+   *                 {@code null}.
+   * @param  scope   The scope for the persistent search.  It must not be
+   *                 {@code null}.
+   *
+   * @return  The search request that was created.
+   */
+  public SearchRequest createPersistentSearchRequest(final String baseDN,
+                                                     final SearchScope scope)
+  {
+    final SearchRequest searchRequest = new SearchRequest(this, baseDN, scope,
+         Filter.createPresenceFilter("objectClass"), "entryUUID");
+    searchRequest.addControl(new PersistentSearchRequestControl(
+         PersistentSearchChangeType.allChangeTypes(), true, true));
+    searchBaseDNs.add(baseDN);
+    return searchRequest;
+  }
+
+
+
+  /**
+   * Creates a search request that will use the content synchronization request
+   * control in refreshAndPersist mode to be notified of all changes to entries
+   * within the specified base and scope, using this invalidator as both the
+   * search result listener and the intermediate response listener.  The
+   * request should be processed with the {@code LDAPConnection.asyncSearch}
+   * method on a connection that is not part of a connection pool.
+   *
+   * @param  baseDN  The base DN for the search.  It must not be {@code null}.
+   * @param  scope   The scope for the search.  It must not be {@code null}.
+   *
+   * @return  The search request that was created.
+   */
+  public SearchRequest createContentSyncSearchRequest(final String baseDN,
+                                                      final SearchScope scope)
+  {
+    final SearchRequest searchRequest = new SearchRequest(this, baseDN, scope,
+         Filter.createPresenceFilter("objectClass"),
+         SearchRequest.NO_ATTRIBUTES);
+    searchRequest.addControl(new ContentSyncRequestControl(
+         ContentSyncRequestMode.REFRESH_AND_PERSIST));
+    searchRequest.setIntermediateResponseListener(this);
+    searchBaseDNs.add(baseDN);
+    return searchRequest;
+  }
+
+
+
+  /**
+   * Invalidates any cached results that could include the provided entry.
+   *
+   * @param  searchEntry  The search result entry that has been returned.
+   */
+  @Override()
+  public void searchEntryReturned(final SearchResultEntry searchEntry)
+  {
+    try
+    {
+      final ContentSyncStateControl syncStateControl =
+           ContentSyncStateControl.get(searchEntry);
+      final EntryChangeNotificationControl ecn =
+           EntryChangeNotificationControl.get(searchEntry);
+
+      // Remember the DN for the entry's entryUUID, and get the DN that was
+      // previously seen for it, if any.
+      final UUID entryUUID;
+      final boolean deleted;
+      if (syncStateControl == null)
+      {
+        entryUUID = getEntryUUID(searchEntry);
+        deleted = ((ecn != null) &&
+             (ecn.getChangeType() == PersistentSearchChangeType.DELETE));
+      }
+      else
+      {
+        entryUUID = syncStateControl.getEntryUUID();
+        deleted = (syncStateControl.getState() == ContentSyncState.DELETE);
+      }
+
+      final DN dn = searchEntry.getParsedDN();
+      final DN lastKnownDN;
+      if (entryUUID == null)
+      {
+        lastKnownDN = null;
+      }
+      else
+      {
+        synchronized (entryDNs)
+        {
+          if (deleted)
+          {
+            lastKnownDN = entryDNs.remove(entryUUID);
+          }
+          else
+          {
+            lastKnownDN = entryDNs.put(entryUUID, dn);
+          }
+        }
+      }
+
+      if ((syncStateControl != null) &&
+          (syncStateControl.getState() == ContentSyncState.PRESENT))
+      {
+        // The entry has not changed.
+        return;
+      }
+
+      String previousDN = null;
+      if ((ecn != null) && (ecn.getPreviousDN() != null))
+      {
+        previousDN = ecn.getPreviousDN();
+      }
+      else if ((lastKnownDN != null) && (! lastKnownDN.equals(dn)))
+      {
+        previousDN = lastKnownDN.toString();
+      }
+
+      final boolean mayHaveBeenRenamed;
+      if (ecn != null)
+      {
+        mayHaveBeenRenamed =
+             (ecn.getChangeType() == PersistentSearchChangeType.MODIFY_DN);
+      }
+      else if (syncStateControl != null)
+      {
+        mayHaveBeenRenamed = (lastKnownDN == null) &&
+             (syncStateControl.getState() == ContentSyncState.MODIFY);
+      }
+      else
+      {
+        mayHaveBeenRenamed = false;
+      }
+
+      if (previousDN != null)
+      {
+        cachingInterface.invalidateSubtree(previousDN);
+        cachingInterface.invalidateSubtree(searchEntry.getDN());
+      }
+      else if (mayHaveBeenRenamed)
+      {
+        // The entry may have been renamed, but its old DN is not known, so
+        // invalidate everything that could include an entry within the scope
+        // of the searches.
+        invalidateSearchBases();
+      }
+      else
+      {
+        cachingInterface.invalidate(searchEntry.getDN());
+      }
+    }
+    catch (final LDAPException le)
+    {
+      debugException(le);
+      cachingInterface.invalidateAll();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the entryUUID from the provided entry, if it is present.
+   *
+   * @param  entry  The entry from which to retrieve the entryUUID.
+   *
+   * @return  The entryUUID from the provided entry, or {@code null} if it does
+   *          not have a valid entryUUID attribute.
+   */
+  private static UUID getEntryUUID(final Entry entry)
+  {
+    final String uuidString = entry.getAttributeValue("entryUUID");
+    if (uuidString == null)
+    {
+      return null;
+    }
+
+    try
+    {
+      return UUID.fromString(uuidString);
+    }
+    catch (final IllegalArgumentException iae)
+    {
+      debugException(iae);
+      return null;
+    }
+  }
+
+
+
+  /**
+   * Invalidates any cached results that could include entries within the base
+   * of any of the searches created by this invalidator.  If no such searches
+   * have been created, then the entire cache will be invalidated.
+   */
+  private void invalidateSearchBases()
+  {
+    if (searchBaseDNs.isEmpty())
+    {
+      cachingInterface.invalidateAll();
+      return;
+    }
+
+    for (final String baseDN : searchBaseDNs)
+    {
+      cachingInterface.invalidateSubtree(baseDN);
+    }
+  }
+
+
+
+  /**
+   * Indicates that the provided search result reference has been returned.
+   * References are ignored.
+   *
+   * @param  searchReference  The search result reference that has been
+   *                          returned.
+   */
+  @Override()
+  public void searchReferenceReturned(
+                   final SearchResultReference searchReference)
+  {
+    // No implementation is required.
+  }
+
+
+
+  /**
+   * Indicates that the search has completed.  Because changes can no longer be
+   * detected, the entire cache will be invalidated.
+   *
+   * @param  requestID     The async request ID of the request for which the
+   *                       response was received.
+   * @param  searchResult  The search result that has been received.
+   */
+  @Override()
+  public void searchResultReceived(final AsyncRequestID requestID,
+                                   final SearchResult searchResult)
+  {
+    cachingInterface.invalidateAll();
+  }
+
+
+
+  /**
+   * Invalidates the entire cache if the provided intermediate response is a
+   * content synchronization info message that could reflect the removal of
+   * entries identified only by entryUUID.
+   *
+   * @param  intermediateResponse  The intermediate response that has been
+   *                               returned.
+   */
+  @Override()
+  public void intermediateResponseReturned(
+                   final IntermediateResponse intermediateResponse)
+  {
+    if (! ContentSyncInfoIntermediateResponse.SYNC_INFO_OID.equals(
+         intermediateResponse.getOID()))
+    {
+      return;
+    }
+
+    try
+    {
+      final ContentSyncInfoIntermediateResponse syncInfo =
+           ContentSyncInfoIntermediateResponse.decode(intermediateResponse);
+      switch (syncInfo.getType())
+      {
+        case NEW_COOKIE:
+          // A new cookie does not indicate any change.
+          break;
+
+        case REFRESH_DELETE:
+        case REFRESH_PRESENT:
+        case SYNC_ID_SET:
+        default:
+          cachingInterface.invalidateAll();
+          break;
+      }
+    }
+    catch (final LDAPException le)
+    {
+      debugException(le);
+      cachingInterface.invalidateAll();
+    }
+  }
+}
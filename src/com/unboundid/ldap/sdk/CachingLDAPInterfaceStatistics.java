@@ -0,0 +1,332 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.unboundid.util.Mutable;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+
+
+/**
+ * This class provides a data structure with information about the use of the
+ * search result cache maintained by a {@link CachingLDAPInterface}.  Calls to
+ * update statistics maintained by this class are threadsafe, but attempts to
+ * access different statistics may not be consistent if operations may be in
+ * progress.
+ * <BR><BR>
+ * The set of statistics maintained includes:
+ * <UL>
+ *   <LI>The current and maximum number of results held in the cache.</LI>
+ *   <LI>The number of searches that were satisfied from the cache.</LI>
+ *   <LI>The number of searches that could not be satisfied from the
+ *       cache.</LI>
+ *   <LI>The number of searches whose results could not be cached (e.g.,
+ *       because they used a search result listener, did not complete
+ *       successfully, or returned too many entries).</LI>
+ *   <LI>The number of results removed from the cache to make room for new
+ *       results.</LI>
+ *   <LI>The number of results removed from the cache because they had been
+ *       cached for longer than the time to live.</LI>
+ *   <LI>The number of results removed from the cache because they may have
+ *       been impacted by a change.</LI>
+ * </UL>
+ */
+@Mutable()
+@ThreadSafety(level=ThreadSafetyLevel.MOSTLY_THREADSAFE)
+public final class CachingLDAPInterfaceStatistics
+{
+  // The number of results removed from the cache to make room for new results.
+  private final AtomicLong numEvictions;
+
+  // The number of results removed from the cache because they expired.
+  private final AtomicLong numExpirations;
+
+  // The number of searches satisfied from the cache.
+  private final AtomicLong numHits;
+
+  // The number of results removed from the cache because they were
+  // invalidated.
+  private final AtomicLong numInvalidations;
+
+  // The number of searches that could not be satisfied from the cache.
+  private final AtomicLong numMisses;
+
+  // The number of searches whose results could not be cached.
+  private final AtomicLong numUncacheable;
+
+  // The caching interface with which these statistics are associated.
+  private final CachingLDAPInterface cachingInterface;
+
+
+
+  /**
+   * Creates a new instance of this statistics object.  All of the counts will
+   * be initialized to zero.
+   *
+   * @param  cachingInterface  The caching interface with which these
+   *                           statistics are associated.
+   */
+  CachingLDAPInterfaceStatistics(final CachingLDAPInterface cachingInterface)
+  {
+    this.cachingInterface = cachingInterface;
+
+    numEvictions     = new AtomicLong(0L);
+    numExpirations   = new AtomicLong(0L);
+    numHits          = new AtomicLong(0L);
+    numInvalidations = new AtomicLong(0L);
+    numMisses        = new AtomicLong(0L);
+    numUncacheable   = new AtomicLong(0L);
+  }
+
+
+
+  /**
+   * Resets all counters back to zero.
+   */
+  public void reset()
+  {
+    numEvictions.set(0L);
+    numExpirations.set(0L);
+    numHits.set(0L);
+    numInvalidations.set(0L);
+    numMisses.set(0L);
+    numUncacheable.set(0L);
+  }
+
+
+
+  /**
+   * Retrieves the number of searches that were satisfied from the cache.
+   *
+   * @return  The number of searches that were satisfied from the cache.
+   */
+  public long getNumHits()
+  {
+    return numHits.get();
+  }
+
+
+
+  /**
+   * Increments the number of searches that were satisfied from the cache.
+   */
+  void incrementNumHits()
+  {
+    numHits.incrementAndGet();
+  }
+
+
+
+  /**
+   * Retrieves the number of searches that were eligible for caching but could
+   * not be satisfied from the cache.
+   *
+   * @return  The number of searches that were eligible for caching but could
+   *          not be satisfied from the cache.
+   */
+  public long getNumMisses()
+  {
+    return numMisses.get();
+  }
+
+
+
+  /**
+   * Increments the number of searches that could not be satisfied from the
+   * cache.
+   */
+  void incrementNumMisses()
+  {
+    numMisses.incrementAndGet();
+  }
+
+
+
+  /**
+   * Retrieves the number of searches whose results could not be cached,
+   * whether because the request itself could not be cached or because the
+   * result was not suitable for caching.
+   *
+   * @return  The number of searches whose results could not be cached.
+   */
+  public long getNumUncacheable()
+  {
+    return numUncacheable.get();
+  }
+
+
+
+  /**
+   * Increments the number of searches whose results could not be cached.
+   */
+  void incrementNumUncacheable()
+  {
+    numUncacheable.incrementAndGet();
+  }
+
+
+
+  /**
+   * Retrieves the number of results that have been removed from the cache to
+   * make room for newer results.
+   *
+   * @return  The number of results that have been removed from the cache to
+   *          make room for newer results.
+   */
+  public long getNumEvictions()
+  {
+    return numEvictions.get();
+  }
+
+
+
+  /**
+   * Increments the number of results that have been removed from the cache to
+   * make room for newer results.
+   */
+  void incrementNumEvictions()
+  {
+    numEvictions.incrementAndGet();
+  }
+
+
+
+  /**
+   * Retrieves the number of results that have been removed from the cache
+   * because they had been held for longer than the time to live.
+   *
+   * @return  The number of results that have been removed from the cache
+   *          because they had been held for longer than the time to live.
+   */
+  public long getNumExpirations()
+  {
+    return numExpirations.get();
+  }
+
+
+
+  /**
+   * Increments the number of results that have been removed from the cache
+   * because they had been held for longer than the time to live.
+   */
+  void incrementNumExpirations()
+  {
+    numExpirations.incrementAndGet();
+  }
+
+
+
+  /**
+   * Retrieves the number of results that have been removed from the cache
+   * because they may have been impacted by a change.
+   *
+   * @return  The number of results that have been removed from the cache
+   *          because they may have been impacted by a change.
+   */
+  public long getNumInvalidations()
+  {
+    return numInvalidations.get();
+  }
+
+
+
+  /**
+   * Increments the number of results that have been removed from the cache
+   * because they may have been impacted by a change.
+   *
+   * @param  count  The number of results that have been invalidated.
+   */
+  void incrementNumInvalidations(final long count)
+  {
+    numInvalidations.addAndGet(count);
+  }
+
+
+
+  /**
+   * Retrieves the percentage of cacheable searches that were satisfied from
+   * the cache.
+   *
+   * @return  The percentage of cacheable searches that were satisfied from the
+   *          cache, or zero if no cacheable searches have been processed.
+   */
+  public double getHitRatioPercent()
+  {
+    final long hits = numHits.get();
+    final long total = hits + numMisses.get();
+    if (total == 0L)
+    {
+      return 0.0d;
+    }
+
+    return 100.0d * hits / total;
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this statistics object.
+   *
+   * @return  A string representation of this statistics object.
+   */
+  @Override()
+  public String toString()
+  {
+    final StringBuilder buffer = new StringBuilder();
+    toString(buffer);
+    return buffer.toString();
+  }
+
+
+
+  /**
+   * Appends a string representation of this statistics object to the provided
+   * buffer.
+   *
+   * @param  buffer  The buffer to which the string representation should be
+   *                 appended.
+   */
+  public void toString(final StringBuilder buffer)
+  {
+    buffer.append("CachingLDAPInterfaceStatistics(numCachedResults=");
+    buffer.append(cachingInterface.getCurrentCachedResults());
+    buffer.append(", maxCachedResults=");
+    buffer.append(cachingInterface.getMaxCachedResults());
+    buffer.append(", numHits=");
+    buffer.append(numHits.get());
+    buffer.append(", numMisses=");
+    buffer.append(numMisses.get());
+    buffer.append(", numUncacheable=");
+    buffer.append(numUncacheable.get());
+    buffer.append(", numEvictions=");
+    buffer.append(numEvictions.get());
+    buffer.append(", numExpirations=");
+    buffer.append(numExpirations.get());
+    buffer.append(", numInvalidations=");
+    buffer.append(numInvalidations.get());
+    buffer.append(')');
+  }
+}
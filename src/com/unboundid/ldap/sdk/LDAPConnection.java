@@ -1277,6 +1277,35 @@ public final class LDAPConnection
 
 
 
+  /**
+   * Retrieves the scope that should be used when publishing metrics for this
+   * connection.  If the connection is part of a connection pool, then the scope
+   * for that pool will be used.
+   *
+   * @return  The scope that should be used when publishing metrics for this
+   *          connection.
+   */
+  String getMetricsScope()
+  {
+    final AbstractConnectionPool pool = connectionPool;
+    if (pool != null)
+    {
+      return pool.getMetricsScope();
+    }
+
+    final String name = connectionName;
+    if (name == null)
+    {
+      return "ldap-connection:#" + connectionID;
+    }
+    else
+    {
+      return "ldap-connection:" + name;
+    }
+  }
+
+
+
   /**
    * Retrieves the connection pool with which this connection is associated, if
    * any.
@@ -4240,6 +4269,128 @@ public final class LDAPConnection
 
 
 
+  /**
+   * Sends an add, delete, modify, or modify DN request created from the
+   * provided template as an asynchronous operation.
+   *
+   * @param  template         The template to use to create the request.  It
+   *                          must not be {@code null}, and it must be for an
+   *                          add, delete, modify, or modify DN operation.
+   * @param  resultListener   The async result listener to use to handle the
+   *                          response for the operation.  It may be
+   *                          {@code null} if the result is going to be obtained
+   *                          from the returned {@code AsyncRequestID} object
+   *                          via the {@code Future} API.
+   * @param  valueBytes       A byte array that contains the values for each of
+   *                          the placeholders in the template, one after the
+   *                          other and in the same order as the placeholders
+   *                          were provided when the template was created.  It
+   *                          must not be {@code null}.
+   * @param  valueEndOffsets  An array that holds the position in the
+   *                          {@code valueBytes} array immediately after the end
+   *                          of the value for each placeholder.  It must not
+   *                          be {@code null}, and it must have one element for
+   *                          each placeholder.
+   *
+   * @return  An async request ID that may be used to reference the operation.
+   *
+   * @throws  LDAPException  If the provided template is for a search operation,
+   *                         or if a problem occurs while sending the request.
+   */
+  public AsyncRequestID asyncProcessTemplate(final RequestTemplate template,
+                             final AsyncResultListener resultListener,
+                             final byte[] valueBytes,
+                             final int[] valueEndOffsets)
+         throws LDAPException
+  {
+    ensureNotNull(template, valueBytes, valueEndOffsets);
+
+    if (template.getOperationType() == OperationType.SEARCH)
+    {
+      final LDAPException le = new LDAPException(ResultCode.PARAM_ERROR,
+           ERR_REQUEST_TEMPLATE_SEARCH_NOT_ALLOWED.get());
+      debugCodingError(le);
+      throw le;
+    }
+
+    if (synchronousMode())
+    {
+      throw new LDAPException(ResultCode.NOT_SUPPORTED,
+           ERR_ASYNC_NOT_SUPPORTED_IN_SYNCHRONOUS_MODE.get());
+    }
+
+    final AsyncResultListener listener;
+    if (resultListener == null)
+    {
+      listener = DiscardAsyncListener.getInstance();
+    }
+    else
+    {
+      listener = resultListener;
+    }
+
+    return template.processAsync(this, listener, null, valueBytes,
+         valueEndOffsets);
+  }
+
+
+
+  /**
+   * Sends a search request created from the provided template as an
+   * asynchronous operation.
+   *
+   * @param  template         The template to use to create the request.  It
+   *                          must not be {@code null}, and it must be for a
+   *                          search operation.
+   * @param  resultListener   The async search result listener to be notified
+   *                          of the entries, references, and result for the
+   *                          search.  It must not be {@code null}.
+   * @param  valueBytes       A byte array that contains the values for each of
+   *                          the placeholders in the template, one after the
+   *                          other and in the same order as the placeholders
+   *                          were provided when the template was created.  It
+   *                          must not be {@code null}.
+   * @param  valueEndOffsets  An array that holds the position in the
+   *                          {@code valueBytes} array immediately after the end
+   *                          of the value for each placeholder.  It must not
+   *                          be {@code null}, and it must have one element for
+   *                          each placeholder.
+   *
+   * @return  An async request ID that may be used to reference the operation.
+   *
+   * @throws  LDAPException  If the provided template is not for a search
+   *                         operation, or if a problem occurs while sending the
+   *                         request.
+   */
+  public AsyncRequestID asyncSearchTemplate(final RequestTemplate template,
+                             final AsyncSearchResultListener resultListener,
+                             final byte[] valueBytes,
+                             final int[] valueEndOffsets)
+         throws LDAPException
+  {
+    ensureNotNull(template, resultListener, valueBytes, valueEndOffsets);
+
+    if (template.getOperationType() != OperationType.SEARCH)
+    {
+      final LDAPException le = new LDAPException(ResultCode.PARAM_ERROR,
+           ERR_REQUEST_TEMPLATE_NOT_SEARCH.get(
+                template.getOperationType().name()));
+      debugCodingError(le);
+      throw le;
+    }
+
+    if (synchronousMode())
+    {
+      throw new LDAPException(ResultCode.NOT_SUPPORTED,
+           ERR_ASYNC_NOT_SUPPORTED_IN_SYNCHRONOUS_MODE.get());
+    }
+
+    return template.processAsync(this, null, resultListener, valueBytes,
+         valueEndOffsets);
+  }
+
+
+
   /**
    * Processes the provided generic request and returns the result.  This may
    * be useful for cases in which it is not known what type of operation the
@@ -4337,6 +4488,48 @@ public final class LDAPConnection
 
 
 
+  /**
+   * Sends a request created from the provided template to the server over
+   * this connection.
+   *
+   * @param  template         The template to use to encode the request.
+   * @param  messageID        The message ID to use for the request.
+   * @param  valueBytes       A byte array that contains the values for each of
+   *                          the placeholders in the template.
+   * @param  valueEndOffsets  An array that holds the position in the
+   *                          {@code valueBytes} array immediately after the end
+   *                          of the value for each placeholder.
+   *
+   * @throws  LDAPException  If a problem occurs while sending the request.
+   */
+  void sendTemplateMessage(final RequestTemplate template,
+                           final int messageID, final byte[] valueBytes,
+                           final int[] valueEndOffsets)
+       throws LDAPException
+  {
+    if (needsReconnect.compareAndSet(true, false))
+    {
+      reconnect();
+    }
+
+    final LDAPConnectionInternals internals = connectionInternals;
+    if (internals == null)
+    {
+      throw new LDAPException(ResultCode.SERVER_DOWN,
+                              ERR_CONN_NOT_ESTABLISHED.get());
+    }
+    else
+    {
+      @SuppressWarnings("deprecation")
+      final boolean autoReconnect = connectionOptions.autoReconnect();
+      internals.sendTemplateMessage(template, messageID, valueBytes,
+           valueEndOffsets, autoReconnect);
+      lastCommunicationTime = System.currentTimeMillis();
+    }
+  }
+
+
+
   /**
    * Retrieves the message ID that should be used for the next request sent
    * over this connection.
@@ -38,8 +38,10 @@ import javax.security.sasl.SaslClient;
 
 import com.unboundid.asn1.ASN1Buffer;
 import com.unboundid.ldap.protocol.LDAPMessage;
+import com.unboundid.util.ByteStringBuffer;
 import com.unboundid.util.DebugType;
 import com.unboundid.util.InternalUseOnly;
+import com.unboundid.util.metrics.MetricsRegistry;
 
 import static com.unboundid.ldap.sdk.LDAPMessages.*;
 import static com.unboundid.util.Debug.*;
@@ -70,6 +72,16 @@ final class LDAPConnectionInternals
 
 
 
+  /**
+   * A set of thread-local buffers used to prepare messages created from
+   * request templates to be written.
+   */
+  private static final AtomicReference<ThreadLocal<ByteStringBuffer>>
+       TEMPLATE_BUFFERS = new AtomicReference<ThreadLocal<ByteStringBuffer>>(
+            new ThreadLocal<ByteStringBuffer>());
+
+
+
   // The counter that will be used to obtain the next message ID to use when
   // sending requests to the server.
   private final AtomicInteger nextMessageID;
@@ -527,27 +539,25 @@ final class LDAPConnectionInternals
     try
     {
       final OutputStream os = outputStream;
+      final long bytesWritten;
       if (saslClient == null)
       {
         buffer.writeTo(os);
+        bytesWritten = buffer.length();
       }
       else
       {
-        // We need to wrap the data that was read using the SASL client, but we
-        // also need to precede that wrapped data with four bytes that specify
-        // the number of bytes of wrapped data.
         final byte[] clearBytes = buffer.toByteArray();
-        final byte[] saslBytes =
-             saslClient.wrap(clearBytes, 0, clearBytes.length);
-        final byte[] lengthBytes = new byte[4];
-        lengthBytes[0] = (byte) ((saslBytes.length >> 24) & 0xFF);
-        lengthBytes[1] = (byte) ((saslBytes.length >> 16) & 0xFF);
-        lengthBytes[2] = (byte) ((saslBytes.length >> 8) & 0xFF);
-        lengthBytes[3] = (byte) (saslBytes.length & 0xFF);
-        os.write(lengthBytes);
-        os.write(saslBytes);
+        bytesWritten = writeSASLWrapped(os, clearBytes, clearBytes.length);
       }
       os.flush();
+
+      final MetricsRegistry metrics = MetricsRegistry.getInstalledRegistry();
+      if (metrics != null)
+      {
+        metrics.incrementCounter(connection.getMetricsScope(),
+             MetricsRegistry.METRIC_CONNECTION_BYTES_WRITTEN, bytesWritten);
+      }
     }
     catch (final IOException ioe)
     {
@@ -600,6 +610,135 @@ final class LDAPConnectionInternals
 
 
 
+  /**
+   * Sends a request created from the provided template to the directory
+   * server.
+   *
+   * @param  template         The template to use to encode the request.
+   * @param  messageID        The message ID to use for the request.
+   * @param  valueBytes       A byte array that contains the values for each of
+   *                          the placeholders in the template.
+   * @param  valueEndOffsets  An array that holds the position in the
+   *                          {@code valueBytes} array immediately after the end
+   *                          of the value for each placeholder.
+   * @param  allowRetry       Indicates whether to allow retrying the send after
+   *                          a reconnect.
+   *
+   * @throws  LDAPException  If a problem occurs while sending the message.
+   */
+  void sendTemplateMessage(final RequestTemplate template,
+                           final int messageID, final byte[] valueBytes,
+                           final int[] valueEndOffsets,
+                           final boolean allowRetry)
+       throws LDAPException
+  {
+    if (! isConnected())
+    {
+      throw new LDAPException(ResultCode.SERVER_DOWN,
+                              ERR_CONN_NOT_ESTABLISHED.get());
+    }
+
+    ByteStringBuffer buffer = TEMPLATE_BUFFERS.get().get();
+    if (buffer == null)
+    {
+      buffer = new ByteStringBuffer();
+      TEMPLATE_BUFFERS.get().set(buffer);
+    }
+
+    buffer.clear();
+    try
+    {
+      template.encode(messageID, valueBytes, valueEndOffsets, buffer);
+
+      final OutputStream os = outputStream;
+      final long bytesWritten;
+      if (saslClient == null)
+      {
+        os.write(buffer.getBackingArray(), 0, buffer.length());
+        bytesWritten = buffer.length();
+      }
+      else
+      {
+        bytesWritten = writeSASLWrapped(os, buffer.getBackingArray(),
+             buffer.length());
+      }
+      os.flush();
+
+      final MetricsRegistry metrics = MetricsRegistry.getInstalledRegistry();
+      if (metrics != null)
+      {
+        metrics.incrementCounter(connection.getMetricsScope(),
+             MetricsRegistry.METRIC_CONNECTION_BYTES_WRITTEN, bytesWritten);
+      }
+    }
+    catch (final IOException ioe)
+    {
+      debugException(ioe);
+
+      final boolean closeRequested = connection.closeRequested();
+      if (allowRetry && (! closeRequested) && (! connection.synchronousMode()))
+      {
+        connection.reconnect();
+
+        try
+        {
+          sendTemplateMessage(template, messageID, valueBytes, valueEndOffsets,
+               false);
+          return;
+        }
+        catch (final Exception e)
+        {
+          debugException(e);
+        }
+      }
+
+      throw new LDAPException(ResultCode.SERVER_DOWN,
+           ERR_CONN_SEND_ERROR.get(host + ':' + port, getExceptionMessage(ioe)),
+           ioe);
+    }
+    catch (final Exception e)
+    {
+      debugException(e);
+      throw new LDAPException(ResultCode.LOCAL_ERROR,
+           ERR_CONN_ENCODE_ERROR.get(host + ':' + port, getExceptionMessage(e)),
+           e);
+    }
+  }
+
+
+
+  /**
+   * Wraps the provided data using the SASL client and writes it to the given
+   * output stream, preceded by four bytes that specify the number of bytes of
+   * wrapped data.
+   *
+   * @param  os          The output stream to which the data should be written.
+   * @param  clearBytes  The array containing the data to be wrapped, starting
+   *                     at position zero.
+   * @param  length      The number of bytes of data to be wrapped.
+   *
+   * @return  The total number of bytes written to the output stream.
+   *
+   * @throws  IOException  If a problem occurs while wrapping or writing the
+   *                       data.
+   */
+  private long writeSASLWrapped(final OutputStream os, final byte[] clearBytes,
+                                final int length)
+          throws IOException
+  {
+    final byte[] saslBytes = saslClient.wrap(clearBytes, 0, length);
+    final byte[] lengthBytes = new byte[4];
+    lengthBytes[0] = (byte) ((saslBytes.length >> 24) & 0xFF);
+    lengthBytes[1] = (byte) ((saslBytes.length >> 16) & 0xFF);
+    lengthBytes[2] = (byte) ((saslBytes.length >> 8) & 0xFF);
+    lengthBytes[3] = (byte) (saslBytes.length & 0xFF);
+    os.write(lengthBytes);
+    os.write(saslBytes);
+    return lengthBytes.length + saslBytes.length;
+  }
+
+
+
   /**
    * Closes the connection associated with this connection internals.
    */
@@ -676,6 +815,7 @@ final class LDAPConnectionInternals
     if (remainingActiveConnections <= 0L)
     {
       ASN1_BUFFERS.set(new ThreadLocal<ASN1Buffer>());
+      TEMPLATE_BUFFERS.set(new ThreadLocal<ByteStringBuffer>());
 
       if (remainingActiveConnections < 0L)
       {
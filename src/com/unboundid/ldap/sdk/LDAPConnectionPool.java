@@ -27,19 +27,23 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import javax.net.ssl.SSLSession;
 
 import com.unboundid.ldap.protocol.LDAPResponse;
 import com.unboundid.ldap.sdk.schema.Schema;
 import com.unboundid.util.ObjectPair;
 import com.unboundid.util.ThreadSafety;
 import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.metrics.MetricsRegistry;
 
 import static com.unboundid.ldap.sdk.LDAPMessages.*;
 import static com.unboundid.util.Debug.*;
@@ -211,6 +215,15 @@ public final class LDAPConnectionPool
 
 
 
+  /**
+   * The maximum number of TLS session IDs that the pool will remember for the
+   * purpose of determining whether a new connection resumed an existing
+   * session.
+   */
+  private static final int MAX_TLS_SESSION_IDS = 1000;
+
+
+
   // A counter used to keep track of the number of times that the pool failed to
   // replace a defunct connection.  It may also be initialized to the difference
   // between the initial and maximum number of connections that should be
@@ -244,6 +257,10 @@ public final class LDAPConnectionPool
   // The number of connections to be held in this pool.
   private final int numConnections;
 
+  // The maximum number of connections that may be examined concurrently during
+  // a health check.
+  private volatile int healthCheckParallelism;
+
   // The minimum number of connections that the health check mechanism should
   // try to keep available for immediate use.
   private volatile int minConnectionGoal;
@@ -252,6 +269,10 @@ public final class LDAPConnectionPool
   // pool.
   private LDAPConnectionPoolHealthCheck healthCheck;
 
+  // The replenisher that will be used to create connections in the background,
+  // if background replenishment is enabled.
+  private volatile LDAPConnectionPoolReplenisher replenisher;
+
   // The thread that will be used to perform periodic background health checks
   // for this connection pool.
   private final LDAPConnectionPoolHealthCheckThread healthCheckThread;
@@ -262,10 +283,18 @@ public final class LDAPConnectionPool
   // The set of connections that are currently available for use.
   private final LinkedBlockingQueue<LDAPConnection> availableConnections;
 
+  // The hex-encoded IDs of the TLS sessions negotiated by connections created
+  // for this pool.
+  private final Set<String> tlsSessionIDs;
+
   // The length of time in milliseconds between periodic health checks against
   // the available connections in this pool.
   private volatile long healthCheckInterval;
 
+  // The minimum length of time in milliseconds that a connection must have been
+  // idle for it to be checked with the health check.
+  private volatile long healthCheckIdleThreshold;
+
   // The time that the last expired connection was closed.
   private volatile long lastExpiredDisconnectTime;
 
@@ -630,7 +659,10 @@ public final class LDAPConnectionPool
 
     trySynchronousReadDuringHealthCheck = true;
     healthCheckInterval       = DEFAULT_HEALTH_CHECK_INTERVAL;
+    healthCheckIdleThreshold  = 0L;
+    healthCheckParallelism    = 1;
     poolStatistics            = new LDAPConnectionPoolStatistics(this);
+    tlsSessionIDs             = createTLSSessionIDSet();
     pooledSchema              = null;
     connectionPoolName        = null;
     retryOperationTypes       = new AtomicReference<Set<OperationType>>(
@@ -656,6 +688,15 @@ public final class LDAPConnectionPool
     }
 
 
+    // Remember the TLS session used by the provided connection so that new
+    // connections that resume it will be recognized as such.
+    final SSLSession initialSSLSession = connection.getSSLSession();
+    if (initialSSLSession != null)
+    {
+      isResumedTLSSession(initialSSLSession);
+    }
+
+
     serverSet = new SingleServerSet(connection.getConnectedAddress(),
                                     connection.getConnectedPort(),
                                     connection.getLastUsedSocketFactory(),
@@ -1078,7 +1119,10 @@ public final class LDAPConnectionPool
 
     trySynchronousReadDuringHealthCheck = false;
     healthCheckInterval = DEFAULT_HEALTH_CHECK_INTERVAL;
+    healthCheckIdleThreshold = 0L;
+    healthCheckParallelism   = 1;
     poolStatistics      = new LDAPConnectionPoolStatistics(this);
+    tlsSessionIDs       = createTLSSessionIDSet();
     pooledSchema        = null;
     connectionPoolName  = null;
     retryOperationTypes = new AtomicReference<Set<OperationType>>(
@@ -1258,6 +1302,19 @@ public final class LDAPConnectionPool
     }
 
 
+    // If the connection is secured with TLS (whether through LDAPS or StartTLS
+    // in the pre-authentication post-connect processor), then keep track of
+    // whether the handshake was able to resume an existing session.  A session
+    // whose ID was already negotiated by an earlier connection must have been
+    // resumed.
+    final SSLSession sslSession = c.getSSLSession();
+    if (sslSession != null)
+    {
+      poolStatistics.incrementNumTLSHandshakes(
+           isResumedTLSSession(sslSession));
+    }
+
+
     // Authenticate the connection if appropriate.
     BindResult bindResult = null;
     try
@@ -1395,6 +1452,57 @@ public final class LDAPConnectionPool
   }
 
 
+  /**
+   * Creates the bounded set used to hold the IDs of the TLS sessions negotiated
+   * by connections in this pool.  Once the set is full, the ID of the session
+   * seen least recently will be discarded to make room for a new one.
+   *
+   * @return  The set that was created.
+   */
+  private static Set<String> createTLSSessionIDSet()
+  {
+    return Collections.synchronizedSet(Collections.newSetFromMap(
+         new LinkedHashMap<String,Boolean>(16, 0.75f, true)
+         {
+           private static final long serialVersionUID = 4395183722853129873L;
+
+           @Override()
+           protected boolean removeEldestEntry(
+                                  final Map.Entry<String,Boolean> e)
+           {
+             return (size() > MAX_TLS_SESSION_IDS);
+           }
+         }));
+  }
+
+
+
+  /**
+   * Indicates whether the provided TLS session was already negotiated by an
+   * earlier connection created for this pool, which means that the handshake
+   * for the new connection resumed it rather than establishing a new session.
+   * The session will be remembered so that later connections that resume it
+   * can be recognized.
+   *
+   * @param  sslSession  The TLS session for a newly-established connection.  It
+   *                     must not be {@code null}.
+   *
+   * @return  {@code true} if the provided session was negotiated by an earlier
+   *          connection, or {@code false} if it is a new session or does not
+   *          have a session ID.
+   */
+  private boolean isResumedTLSSession(final SSLSession sslSession)
+  {
+    final byte[] sessionID = sslSession.getId();
+    if ((sessionID == null) || (sessionID.length == 0))
+    {
+      return false;
+    }
+
+    return (! tlsSessionIDs.add(toHex(sessionID)));
+  }
+
+
 
   /**
    * {@inheritDoc}
@@ -1416,6 +1524,12 @@ public final class LDAPConnectionPool
     closed = true;
     healthCheckThread.stopRunning();
 
+    final LDAPConnectionPoolReplenisher r = replenisher;
+    if (r != null)
+    {
+      r.stopRunning(10000L);
+    }
+
     if (numThreads > 1)
     {
       final ArrayList<LDAPConnection> connList =
@@ -1695,7 +1809,21 @@ public final class LDAPConnectionPool
       }
     }
 
-    if (failedReplaceCount.get() > 0)
+    final LDAPConnectionPoolReplenisher r = replenisher;
+    if ((r != null) && (failedReplaceCount.get() > 0))
+    {
+      // Ask the replenisher to create the connection rather than creating it on
+      // this thread, and wait for it below.
+      if (failedReplaceCount.getAndDecrement() > 0)
+      {
+        r.requestConnections(1);
+      }
+      else
+      {
+        failedReplaceCount.incrementAndGet();
+      }
+    }
+    else if (failedReplaceCount.get() > 0)
     {
       final int newReplaceCount = failedReplaceCount.getAndDecrement();
       if (newReplaceCount > 0)
@@ -1727,7 +1855,16 @@ public final class LDAPConnectionPool
     {
       try
       {
+        final MetricsRegistry metrics = MetricsRegistry.getInstalledRegistry();
+        final long waitStartNanos = (metrics == null) ? 0L : System.nanoTime();
         conn = availableConnections.poll(maxWaitTime, TimeUnit.MILLISECONDS);
+        if (metrics != null)
+        {
+          metrics.recordValue(getMetricsScope(),
+               MetricsRegistry.METRIC_POOL_CHECKOUT_WAIT_NANOS,
+               (System.nanoTime() - waitStartNanos));
+        }
+
         if (conn != null)
         {
           try
@@ -1753,7 +1890,8 @@ public final class LDAPConnectionPool
       }
     }
 
-    if (createIfNecessary)
+    if (createIfNecessary &&
+        ((r == null) || (r.getPendingConnections() <= 0)))
     {
       try
       {
@@ -2079,6 +2217,13 @@ public final class LDAPConnectionPool
       return null;
     }
 
+    final LDAPConnectionPoolReplenisher r = replenisher;
+    if (r != null)
+    {
+      r.requestConnections(1);
+      return null;
+    }
+
     try
     {
       final LDAPConnection conn = createConnection();
@@ -2118,7 +2263,58 @@ public final class LDAPConnectionPool
 
 
   /**
-   * {@inheritDoc}
+   * Creates a new connection on behalf of the background replenisher and makes
+   * it available for use in the pool.
+   *
+   * @return  {@code true} if the pool no longer needs the connection (because
+   *          it was created and made available, or because the pool is closed
+   *          or already full), or {@code false} if a problem was encountered
+   *          while trying to establish the connection.
+   */
+  boolean addReplenishedConnection()
+  {
+    if (closed || (availableConnections.remainingCapacity() <= 0))
+    {
+      return true;
+    }
+
+    final LDAPConnection conn;
+    try
+    {
+      conn = createConnection();
+    }
+    catch (final LDAPException le)
+    {
+      debugException(le);
+      return false;
+    }
+
+    if (maxDefunctReplacementConnectionAge != null)
+    {
+      if (conn.getAttachment(ATTACHMENT_NAME_MAX_CONNECTION_AGE) == null)
+      {
+        conn.setAttachment(ATTACHMENT_NAME_MAX_CONNECTION_AGE,
+             maxDefunctReplacementConnectionAge);
+      }
+    }
+
+    if (closed || (! availableConnections.offer(conn)))
+    {
+      conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_UNNEEDED, null,
+                             null);
+      poolStatistics.incrementNumConnectionsClosedUnneeded();
+      conn.terminate(null);
+    }
+
+    return true;
+  }
+
+
+
+  /**
+   * {@inheritDoc}  If background replenishment is enabled, then the
+   * replacement connection will be created by the replenisher, and this method
+   * will wait up to the maximum wait time for a connection to become available.
    */
   @Override()
   public LDAPConnection replaceDefunctConnection(
@@ -2135,6 +2331,22 @@ public final class LDAPConnectionPool
       throw new LDAPException(ResultCode.CONNECT_ERROR, ERR_POOL_CLOSED.get());
     }
 
+    // If background replenishment is enabled, then ask the replenisher to
+    // create the replacement rather than creating it on this thread, and wait
+    // for a connection to become available.  This prevents a large number of
+    // threads from trying to establish connections at the same time after the
+    // server has become unavailable.  If the pool may create connections beyond
+    // its capacity and it is already full, then the replenisher would not be
+    // able to add the connection, so create it on this thread instead.
+    final LDAPConnectionPoolReplenisher r = replenisher;
+    if ((r != null) &&
+        ((! createIfNecessary) ||
+         (availableConnections.remainingCapacity() > 0)))
+    {
+      r.requestConnections(1);
+      return getConnection();
+    }
+
     try
     {
       return createConnection();
@@ -2640,6 +2852,86 @@ public final class LDAPConnectionPool
 
 
 
+  /**
+   * Retrieves the maximum number of available connections that may be examined
+   * concurrently during a health check.
+   *
+   * @return  The maximum number of available connections that may be examined
+   *          concurrently during a health check.
+   */
+  public int getHealthCheckParallelism()
+  {
+    return healthCheckParallelism;
+  }
+
+
+
+  /**
+   * Specifies the maximum number of available connections that may be examined
+   * concurrently during a health check.  By default, connections are examined
+   * one at a time, which may cause a health check pass over a large pool to
+   * take a long time if the health check needs to communicate with a slow
+   * server.  If a value greater than one is specified, then connections will be
+   * examined by a set of up to that many threads, and only that many
+   * connections will be unavailable for use while they are being examined.
+   *
+   * @param  healthCheckParallelism  The maximum number of available connections
+   *                                 that may be examined concurrently during a
+   *                                 health check.  A value less than or equal
+   *                                 to one indicates that connections should be
+   *                                 examined one at a time.
+   */
+  public void setHealthCheckParallelism(final int healthCheckParallelism)
+  {
+    this.healthCheckParallelism = Math.max(1, healthCheckParallelism);
+  }
+
+
+
+  /**
+   * Retrieves the minimum length of time in milliseconds that an available
+   * connection must have been idle for it to be checked with the health
+   * check's {@code ensureConnectionValidForContinuedUse} method during a health
+   * check pass.
+   *
+   * @return  The minimum length of time in milliseconds that an available
+   *          connection must have been idle for it to be checked during a
+   *          health check pass, or zero if all available connections will be
+   *          checked.
+   */
+  public long getHealthCheckIdleThresholdMillis()
+  {
+    return healthCheckIdleThreshold;
+  }
+
+
+
+  /**
+   * Specifies the minimum length of time in milliseconds that an available
+   * connection must have been idle for it to be checked with the health
+   * check's {@code ensureConnectionValidForContinuedUse} method during a health
+   * check pass.  A connection that has been used to communicate with the server
+   * more recently than this has demonstrated that it is still valid, so
+   * skipping it can substantially reduce the cost of health checking a busy
+   * pool.  Connections that have been used more recently than this threshold
+   * will still be checked to determine whether they are still established and
+   * whether they have exceeded the maximum connection age.
+   *
+   * @param  healthCheckIdleThreshold  The minimum length of time in
+   *                                   milliseconds that an available connection
+   *                                   must have been idle for it to be checked
+   *                                   during a health check pass.  A value less
+   *                                   than or equal to zero indicates that all
+   *                                   available connections should be checked.
+   */
+  public void setHealthCheckIdleThresholdMillis(
+                   final long healthCheckIdleThreshold)
+  {
+    this.healthCheckIdleThreshold = Math.max(0L, healthCheckIdleThreshold);
+  }
+
+
+
   /**
    * {@inheritDoc}
    */
@@ -2730,262 +3022,337 @@ public final class LDAPConnectionPool
     }
 
 
-    // Create a set used to hold connections that we've already examined.  If we
-    // encounter the same connection twice, then we know that we don't need to
-    // do any more work.
-    final HashSet<LDAPConnection> examinedConnections =
-         new HashSet<LDAPConnection>(numConnections);
-    int numExamined = 0;
-    int numDefunct = 0;
-    int numExpired = 0;
-
-    for (int i=0; i < numConnections; i++)
+    final long startTime = System.currentTimeMillis();
+    final HealthCheckPassState state = new HealthCheckPassState(numConnections);
+    final int parallelism = Math.min(healthCheckParallelism, numConnections);
+    if (parallelism > 1)
     {
-      LDAPConnection conn = availableConnections.poll();
-      if (conn == null)
+      final ParallelPoolHealthChecker checker = new ParallelPoolHealthChecker(
+           this, hc, checkForExpiration, state, parallelism);
+      checker.checkConnections();
+    }
+    else
+    {
+      while (examineNextConnection(hc, checkForExpiration, state))
       {
-        break;
+        // No implementation is required.
       }
-      else if (examinedConnections.contains(conn))
+    }
+
+
+    final LDAPConnectionPoolReplenisher r = replenisher;
+    if (checkMinConnectionGoal && (r != null))
+    {
+      r.requestConnections(minConnectionGoal - availableConnections.size() -
+           r.getPendingConnections());
+    }
+    else if (checkMinConnectionGoal)
+    {
+      try
       {
-        if (! availableConnections.offer(conn))
+        final int neededConnections =
+             minConnectionGoal - availableConnections.size();
+        for (int i=0; i < neededConnections; i++)
         {
-          conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_UNNEEDED,
-                                 null, null);
-          poolStatistics.incrementNumConnectionsClosedUnneeded();
-          conn.terminate(null);
+          final LDAPConnection conn = createConnection(hc);
+          if (! availableConnections.offer(conn))
+          {
+            conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_UNNEEDED,
+                                   null, null);
+            poolStatistics.incrementNumConnectionsClosedUnneeded();
+            conn.terminate(null);
+            break;
+          }
         }
-        break;
       }
+      catch (final Exception e)
+      {
+        debugException(e);
+      }
+    }
+
+    final long durationMillis = System.currentTimeMillis() - startTime;
+    poolStatistics.healthCheckCompleted(durationMillis);
+    return new LDAPConnectionPoolHealthCheckResult(state.getNumExamined(),
+         state.getNumExpired(), state.getNumDefunct(),
+         state.getNumSkipped(), durationMillis);
+  }
+
 
-      numExamined++;
-      if (! conn.isConnected())
+
+  /**
+   * Retrieves the next available connection and examines it as part of a
+   * health check pass.
+   *
+   * @param  hc                  The health check to use.
+   * @param  checkForExpiration  Indicates whether to check to see if the
+   *                             connection has been established for longer than
+   *                             the maximum connection age.
+   * @param  state               The state for the health check pass.
+   *
+   * @return  {@code true} if a connection was examined, or {@code false} if
+   *          there are no more connections to examine in this pass.
+   */
+  boolean examineNextConnection(final LDAPConnectionPoolHealthCheck hc,
+                                final boolean checkForExpiration,
+                                final HealthCheckPassState state)
+  {
+    if (! state.pollAllowed())
+    {
+      return false;
+    }
+
+    final LDAPConnection conn = availableConnections.poll();
+    if (conn == null)
+    {
+      return false;
+    }
+    else if (state.isExamined(conn))
+    {
+      if (! availableConnections.offer(conn))
       {
-        numDefunct++;
-        poolStatistics.incrementNumConnectionsClosedDefunct();
-        conn = handleDefunctConnection(conn);
-        if (conn != null)
-        {
-          examinedConnections.add(conn);
-        }
+        conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_UNNEEDED,
+                               null, null);
+        poolStatistics.incrementNumConnectionsClosedUnneeded();
+        conn.terminate(null);
       }
-      else
+      return false;
+    }
+
+    state.incrementNumExamined();
+    examineConnection(conn, hc, checkForExpiration, state);
+    return true;
+  }
+
+
+
+  /**
+   * Examines the provided connection as part of a health check pass, and either
+   * makes it available again or replaces it if it is not valid.
+   *
+   * @param  connection          The connection to examine.  It must have been
+   *                             removed from the set of available connections.
+   * @param  hc                  The health check to use.
+   * @param  checkForExpiration  Indicates whether to check to see if the
+   *                             connection has been established for longer than
+   *                             the maximum connection age.
+   * @param  state               The state for the health check pass.
+   */
+  private void examineConnection(final LDAPConnection connection,
+                                 final LDAPConnectionPoolHealthCheck hc,
+                                 final boolean checkForExpiration,
+                                 final HealthCheckPassState state)
+  {
+    LDAPConnection conn = connection;
+    if (! conn.isConnected())
+    {
+      state.incrementNumDefunct();
+      poolStatistics.incrementNumConnectionsClosedDefunct();
+      conn = handleDefunctConnection(conn);
+      if (conn != null)
       {
-        if (checkForExpiration && connectionIsExpired(conn))
-        {
-          numExpired++;
+        state.markExamined(conn);
+      }
+    }
+    else
+    {
+      if (checkForExpiration && connectionIsExpired(conn))
+      {
+        state.incrementNumExpired();
 
-          try
+        try
+        {
+          final LDAPConnection newConnection = createConnection();
+          if (availableConnections.offer(newConnection))
           {
-            final LDAPConnection newConnection = createConnection();
-            if (availableConnections.offer(newConnection))
-            {
-              examinedConnections.add(newConnection);
-              conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_EXPIRED,
-                   null, null);
-              conn.terminate(null);
-              poolStatistics.incrementNumConnectionsClosedExpired();
-              lastExpiredDisconnectTime = System.currentTimeMillis();
-              continue;
-            }
-            else
-            {
-              newConnection.setDisconnectInfo(
-                   DisconnectType.POOLED_CONNECTION_UNNEEDED, null, null);
-              newConnection.terminate(null);
-              poolStatistics.incrementNumConnectionsClosedUnneeded();
-            }
+            state.markExamined(newConnection);
+            conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_EXPIRED,
+                 null, null);
+            conn.terminate(null);
+            poolStatistics.incrementNumConnectionsClosedExpired();
+            lastExpiredDisconnectTime = System.currentTimeMillis();
+            return;
           }
-          catch (final LDAPException le)
+          else
           {
-            debugException(le);
+            newConnection.setDisconnectInfo(
+                 DisconnectType.POOLED_CONNECTION_UNNEEDED, null, null);
+            newConnection.terminate(null);
+            poolStatistics.incrementNumConnectionsClosedUnneeded();
           }
         }
+        catch (final LDAPException le)
+        {
+          debugException(le);
+        }
+      }
 
 
-        // If the connection is operating in synchronous mode, then try to read
-        // a message on it using an extremely short timeout.  This can help
-        // detect a connection closure or unsolicited notification in a more
-        // timely manner than if we had to wait for the client code to try to
-        // use the connection.
-        if (trySynchronousReadDuringHealthCheck && conn.synchronousMode())
+      // If the connection is operating in synchronous mode, then try to read
+      // a message on it using an extremely short timeout.  This can help
+      // detect a connection closure or unsolicited notification in a more
+      // timely manner than if we had to wait for the client code to try to
+      // use the connection.
+      if (trySynchronousReadDuringHealthCheck && conn.synchronousMode())
+      {
+        int previousTimeout = Integer.MIN_VALUE;
+        Socket s = null;
+        try
         {
-          int previousTimeout = Integer.MIN_VALUE;
-          Socket s = null;
-          try
-          {
-            s = conn.getConnectionInternals(true).getSocket();
-            previousTimeout = s.getSoTimeout();
-            s.setSoTimeout(1);
+          s = conn.getConnectionInternals(true).getSocket();
+          previousTimeout = s.getSoTimeout();
+          s.setSoTimeout(1);
 
-            final LDAPResponse response = conn.readResponse(0);
-            if (response instanceof ConnectionClosedResponse)
-            {
-              numDefunct++;
-              conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_DEFUNCT,
-                   ERR_POOL_HEALTH_CHECK_CONN_CLOSED.get(), null);
-              poolStatistics.incrementNumConnectionsClosedDefunct();
-              conn = handleDefunctConnection(conn);
-              if (conn != null)
-              {
-                examinedConnections.add(conn);
-              }
-              continue;
-            }
-            else if (response instanceof ExtendedResult)
-            {
-              // This means we got an unsolicited response.  It could be a
-              // notice of disconnection, or it could be something else, but in
-              // any case we'll send it to the connection's unsolicited
-              // notification handler (if one is defined).
-              final UnsolicitedNotificationHandler h = conn.
-                   getConnectionOptions().getUnsolicitedNotificationHandler();
-              if (h != null)
-              {
-                h.handleUnsolicitedNotification(conn,
-                     (ExtendedResult) response);
-              }
-            }
-            else if (response instanceof LDAPResult)
+          final LDAPResponse response = conn.readResponse(0);
+          if (response instanceof ConnectionClosedResponse)
+          {
+            state.incrementNumDefunct();
+            conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_DEFUNCT,
+                 ERR_POOL_HEALTH_CHECK_CONN_CLOSED.get(), null);
+            poolStatistics.incrementNumConnectionsClosedDefunct();
+            conn = handleDefunctConnection(conn);
+            if (conn != null)
             {
-              final LDAPResult r = (LDAPResult) response;
-              if (r.getResultCode() == ResultCode.SERVER_DOWN)
-              {
-                numDefunct++;
-                conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_DEFUNCT,
-                     ERR_POOL_HEALTH_CHECK_CONN_CLOSED.get(), null);
-                poolStatistics.incrementNumConnectionsClosedDefunct();
-                conn = handleDefunctConnection(conn);
-                if (conn != null)
-                {
-                  examinedConnections.add(conn);
-                }
-                continue;
-              }
+              state.markExamined(conn);
             }
+            return;
           }
-          catch (final LDAPException le)
+          else if (response instanceof ExtendedResult)
           {
-            if (le.getResultCode() == ResultCode.TIMEOUT)
+            // This means we got an unsolicited response.  It could be a
+            // notice of disconnection, or it could be something else, but in
+            // any case we'll send it to the connection's unsolicited
+            // notification handler (if one is defined).
+            final UnsolicitedNotificationHandler h = conn.
+                 getConnectionOptions().getUnsolicitedNotificationHandler();
+            if (h != null)
             {
-              debugException(Level.FINEST, le);
+              h.handleUnsolicitedNotification(conn,
+                   (ExtendedResult) response);
             }
-            else
+          }
+          else if (response instanceof LDAPResult)
+          {
+            final LDAPResult r = (LDAPResult) response;
+            if (r.getResultCode() == ResultCode.SERVER_DOWN)
             {
-              debugException(le);
-              numDefunct++;
+              state.incrementNumDefunct();
               conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_DEFUNCT,
-                   ERR_POOL_HEALTH_CHECK_READ_FAILURE.get(
-                        getExceptionMessage(le)), le);
+                   ERR_POOL_HEALTH_CHECK_CONN_CLOSED.get(), null);
               poolStatistics.incrementNumConnectionsClosedDefunct();
               conn = handleDefunctConnection(conn);
               if (conn != null)
               {
-                examinedConnections.add(conn);
+                state.markExamined(conn);
               }
-              continue;
+              return;
             }
           }
-          catch (final Exception e)
+        }
+        catch (final LDAPException le)
+        {
+          if (le.getResultCode() == ResultCode.TIMEOUT)
           {
-            debugException(e);
-            numDefunct++;
+            debugException(Level.FINEST, le);
+          }
+          else
+          {
+            debugException(le);
+            state.incrementNumDefunct();
             conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_DEFUNCT,
-                 ERR_POOL_HEALTH_CHECK_READ_FAILURE.get(getExceptionMessage(e)),
-                 e);
+                 ERR_POOL_HEALTH_CHECK_READ_FAILURE.get(
+                      getExceptionMessage(le)), le);
             poolStatistics.incrementNumConnectionsClosedDefunct();
             conn = handleDefunctConnection(conn);
             if (conn != null)
             {
-              examinedConnections.add(conn);
+              state.markExamined(conn);
             }
-            continue;
+            return;
           }
-          finally
+        }
+        catch (final Exception e)
+        {
+          debugException(e);
+          state.incrementNumDefunct();
+          conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_DEFUNCT,
+               ERR_POOL_HEALTH_CHECK_READ_FAILURE.get(getExceptionMessage(e)),
+               e);
+          poolStatistics.incrementNumConnectionsClosedDefunct();
+          conn = handleDefunctConnection(conn);
+          if (conn != null)
           {
-            if (previousTimeout != Integer.MIN_VALUE)
+            state.markExamined(conn);
+          }
+          return;
+        }
+        finally
+        {
+          if (previousTimeout != Integer.MIN_VALUE)
+          {
+            try
             {
-              try
+              if (s != null)
               {
-                if (s != null)
-                {
-                  s.setSoTimeout(previousTimeout);
-                }
+                s.setSoTimeout(previousTimeout);
               }
-              catch (final Exception e)
+            }
+            catch (final Exception e)
+            {
+              debugException(e);
+              state.incrementNumDefunct();
+              conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_DEFUNCT,
+                   null, e);
+              poolStatistics.incrementNumConnectionsClosedDefunct();
+              conn = handleDefunctConnection(conn);
+              if (conn != null)
               {
-                debugException(e);
-                numDefunct++;
-                conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_DEFUNCT,
-                     null, e);
-                poolStatistics.incrementNumConnectionsClosedDefunct();
-                conn = handleDefunctConnection(conn);
-                if (conn != null)
-                {
-                  examinedConnections.add(conn);
-                }
-                continue;
+                state.markExamined(conn);
               }
+              return;
             }
           }
         }
+      }
 
-        try
+      try
+      {
+        final long idleThreshold = healthCheckIdleThreshold;
+        if ((idleThreshold > 0L) &&
+            ((System.currentTimeMillis() - conn.getLastCommunicationTime()) <
+                 idleThreshold))
         {
-          hc.ensureConnectionValidForContinuedUse(conn);
-          if (availableConnections.offer(conn))
-          {
-            examinedConnections.add(conn);
-          }
-          else
-          {
-            conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_UNNEEDED,
-                                   null, null);
-            poolStatistics.incrementNumConnectionsClosedUnneeded();
-            conn.terminate(null);
-          }
+          state.incrementNumSkipped();
         }
-        catch (final Exception e)
+        else
         {
-          debugException(e);
-          numDefunct++;
-          poolStatistics.incrementNumConnectionsClosedDefunct();
-          conn = handleDefunctConnection(conn);
-          if (conn != null)
-          {
-            examinedConnections.add(conn);
-          }
+          hc.ensureConnectionValidForContinuedUse(conn);
         }
-      }
-    }
 
-    if (checkMinConnectionGoal)
-    {
-      try
-      {
-        final int neededConnections =
-             minConnectionGoal - availableConnections.size();
-        for (int i=0; i < neededConnections; i++)
+        if (availableConnections.offer(conn))
         {
-          final LDAPConnection conn = createConnection(hc);
-          if (! availableConnections.offer(conn))
-          {
-            conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_UNNEEDED,
-                                   null, null);
-            poolStatistics.incrementNumConnectionsClosedUnneeded();
-            conn.terminate(null);
-            break;
-          }
+          state.markExamined(conn);
+        }
+        else
+        {
+          conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_UNNEEDED,
+                                 null, null);
+          poolStatistics.incrementNumConnectionsClosedUnneeded();
+          conn.terminate(null);
         }
       }
       catch (final Exception e)
       {
         debugException(e);
+        state.incrementNumDefunct();
+        poolStatistics.incrementNumConnectionsClosedDefunct();
+        conn = handleDefunctConnection(conn);
+        if (conn != null)
+        {
+          state.markExamined(conn);
+        }
       }
     }
-
-    return new LDAPConnectionPoolHealthCheckResult(numExamined, numExpired,
-         numDefunct);
   }
 
 
@@ -3058,6 +3425,182 @@ public final class LDAPConnectionPool
 
 
 
+  /**
+   * Indicates whether connections that need to be created for this pool will be
+   * established in the background rather than on the thread that needs them.
+   *
+   * @return  {@code true} if background connection replenishment is enabled,
+   *          or {@code false} if not.
+   */
+  public boolean backgroundReplenishmentEnabled()
+  {
+    return (replenisher != null);
+  }
+
+
+
+  /**
+   * Retrieves the number of threads that will be used to create connections in
+   * the background.
+   *
+   * @return  The number of threads that will be used to create connections in
+   *          the background, or zero if background replenishment is disabled.
+   */
+  public int getBackgroundReplenishmentThreads()
+  {
+    final LDAPConnectionPoolReplenisher r = replenisher;
+    if (r == null)
+    {
+      return 0;
+    }
+    else
+    {
+      return r.getNumThreads();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of connections per second that will be
+   * established in the background.
+   *
+   * @return  The maximum number of connections per second that will be
+   *          established in the background, or zero if there is no limit or
+   *          background replenishment is disabled.
+   */
+  public int getBackgroundReplenishmentMaxConnectsPerSecond()
+  {
+    final LDAPConnectionPoolReplenisher r = replenisher;
+    if (r == null)
+    {
+      return 0;
+    }
+    else
+    {
+      return Math.max(0, r.getMaxConnectsPerSecond());
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of connections that have been requested from the
+   * background replenisher but have not yet been established.
+   *
+   * @return  The number of connections that have been requested from the
+   *          background replenisher but have not yet been established, or zero
+   *          if background replenishment is disabled.
+   */
+  public int getPendingReplenishmentConnections()
+  {
+    final LDAPConnectionPoolReplenisher r = replenisher;
+    if (r == null)
+    {
+      return 0;
+    }
+    else
+    {
+      return r.getPendingConnections();
+    }
+  }
+
+
+
+  /**
+   * Specifies whether connections that need to be created for this pool should
+   * be established in the background.  This is equivalent to calling
+   * {@link #setBackgroundReplenishment(int,int,long,long)} with an initial
+   * backoff of 100 milliseconds and a maximum backoff of ten seconds.
+   *
+   * @param  numThreads            The number of threads to use to establish
+   *                               connections in the background.  A value less
+   *                               than or equal to zero indicates that
+   *                               background replenishment should be disabled.
+   * @param  maxConnectsPerSecond  The maximum number of connections to
+   *                               establish per second.  A value less than or
+   *                               equal to zero indicates that there should be
+   *                               no limit.
+   */
+  public void setBackgroundReplenishment(final int numThreads,
+                                         final int maxConnectsPerSecond)
+  {
+    setBackgroundReplenishment(numThreads, maxConnectsPerSecond, 100L,
+         10000L);
+  }
+
+
+
+  /**
+   * Specifies whether connections that need to be created for this pool should
+   * be established in the background.  By default, a connection that is found
+   * to be defunct is replaced on the thread that discovered it, and a thread
+   * that cannot obtain a connection may create one itself, so if a server
+   * becomes unavailable, every thread using the pool may attempt to connect to
+   * it at the same time once it returns.  If background replenishment is
+   * enabled, then replacements for defunct connections (and any connections
+   * needed to reach the minimum available connection goal) will instead be
+   * created by a set of background threads at no more than the specified rate,
+   * with a randomized exponential backoff between failed attempts, and threads
+   * needing a connection will wait for one to become available.
+   * <BR><BR>
+   * When background replenishment is enabled, the pool will only create a
+   * connection on the checkout thread (if {@link #getCreateIfNecessary} returns
+   * {@code true}) when the background replenisher does not have any pending
+   * work, so applications using this feature should generally also configure
+   * a nonzero maximum wait time.
+   *
+   * @param  numThreads            The number of threads to use to establish
+   *                               connections in the background.  A value less
+   *                               than or equal to zero indicates that
+   *                               background replenishment should be disabled.
+   * @param  maxConnectsPerSecond  The maximum number of connections to
+   *                               establish per second.  A value less than or
+   *                               equal to zero indicates that there should be
+   *                               no limit.
+   * @param  initialBackoffMillis  The length of time in milliseconds to wait
+   *                               after the first failed attempt to establish a
+   *                               connection.  Each consecutive failure will
+   *                               double the backoff, and the actual time
+   *                               waited will be a random duration between half
+   *                               and all of the current backoff.
+   * @param  maxBackoffMillis      The maximum length of time in milliseconds to
+   *                               wait after a failed attempt to establish a
+   *                               connection.
+   */
+  public synchronized void setBackgroundReplenishment(final int numThreads,
+                                final int maxConnectsPerSecond,
+                                final long initialBackoffMillis,
+                                final long maxBackoffMillis)
+  {
+    final LDAPConnectionPoolReplenisher oldReplenisher = replenisher;
+    if (oldReplenisher != null)
+    {
+      replenisher = null;
+      oldReplenisher.stopRunning(10000L);
+    }
+
+    if (closed || (numThreads <= 0))
+    {
+      return;
+    }
+
+    final LDAPConnectionPoolReplenisher newReplenisher =
+         new LDAPConnectionPoolReplenisher(this, numThreads,
+              maxConnectsPerSecond, initialBackoffMillis, maxBackoffMillis);
+    replenisher = newReplenisher;
+
+    int needed = minConnectionGoal - availableConnections.size();
+    if (oldReplenisher != null)
+    {
+      needed = Math.max(needed, oldReplenisher.getPendingConnections());
+    }
+    newReplenisher.requestConnections(
+         Math.min(needed, availableConnections.remainingCapacity()));
+  }
+
+
+
   /**
    * {@inheritDoc}
    */
@@ -3145,4 +3688,186 @@ public final class LDAPConnectionPool
     buffer.append(numConnections);
     buffer.append(')');
   }
+
+
+
+  /**
+   * This class holds the state for a single health check pass, which may be
+   * shared across multiple threads examining connections concurrently.
+   */
+  static final class HealthCheckPassState
+  {
+    // The number of connections found to be defunct.
+    private final AtomicInteger numDefunct;
+
+    // The number of connections examined.
+    private final AtomicInteger numExamined;
+
+    // The number of connections found to be expired.
+    private final AtomicInteger numExpired;
+
+    // The number of connections not checked because they were used recently.
+    private final AtomicInteger numSkipped;
+
+    // The maximum number of additional connections to retrieve from the pool.
+    private final AtomicInteger remainingPolls;
+
+    // The connections that have already been examined.  If the same connection
+    // is encountered twice, then there is no more work to do.
+    private final Set<LDAPConnection> examinedConnections;
+
+
+
+    /**
+     * Creates a new health check pass state.
+     *
+     * @param  numConnections  The maximum number of connections in the pool.
+     */
+    HealthCheckPassState(final int numConnections)
+    {
+      numDefunct     = new AtomicInteger(0);
+      numExamined    = new AtomicInteger(0);
+      numExpired     = new AtomicInteger(0);
+      numSkipped     = new AtomicInteger(0);
+      remainingPolls = new AtomicInteger(numConnections);
+
+      examinedConnections = Collections.synchronizedSet(
+           new HashSet<LDAPConnection>(numConnections));
+    }
+
+
+
+    /**
+     * Indicates whether another connection may be retrieved from the pool
+     * during this pass.  Each call that returns {@code true} uses up one of the
+     * remaining polls.
+     *
+     * @return  {@code true} if another connection may be retrieved from the
+     *          pool, or {@code false} if not.
+     */
+    boolean pollAllowed()
+    {
+      return (remainingPolls.getAndDecrement() > 0);
+    }
+
+
+
+    /**
+     * Indicates whether the provided connection has already been examined
+     * during this pass.
+     *
+     * @param  conn  The connection for which to make the determination.
+     *
+     * @return  {@code true} if the provided connection has already been
+     *          examined, or {@code false} if not.
+     */
+    boolean isExamined(final LDAPConnection conn)
+    {
+      return examinedConnections.contains(conn);
+    }
+
+
+
+    /**
+     * Indicates that the provided connection has been examined during this
+     * pass.
+     *
+     * @param  conn  The connection that has been examined.
+     */
+    void markExamined(final LDAPConnection conn)
+    {
+      examinedConnections.add(conn);
+    }
+
+
+
+    /**
+     * Increments the number of connections found to be defunct.
+     */
+    void incrementNumDefunct()
+    {
+      numDefunct.incrementAndGet();
+    }
+
+
+
+    /**
+     * Increments the number of connections examined.
+     */
+    void incrementNumExamined()
+    {
+      numExamined.incrementAndGet();
+    }
+
+
+
+    /**
+     * Increments the number of connections found to be expired.
+     */
+    void incrementNumExpired()
+    {
+      numExpired.incrementAndGet();
+    }
+
+
+
+    /**
+     * Increments the number of connections not checked because they were used
+     * recently.
+     */
+    void incrementNumSkipped()
+    {
+      numSkipped.incrementAndGet();
+    }
+
+
+
+    /**
+     * Retrieves the number of connections found to be defunct.
+     *
+     * @return  The number of connections found to be defunct.
+     */
+    int getNumDefunct()
+    {
+      return numDefunct.get();
+    }
+
+
+
+    /**
+     * Retrieves the number of connections examined.
+     *
+     * @return  The number of connections examined.
+     */
+    int getNumExamined()
+    {
+      return numExamined.get();
+    }
+
+
+
+    /**
+     * Retrieves the number of connections found to be expired.
+     *
+     * @return  The number of connections found to be expired.
+     */
+    int getNumExpired()
+    {
+      return numExpired.get();
+    }
+
+
+
+    /**
+     * Retrieves the number of connections not checked because they were used
+     * recently.
+     *
+     * @return  The number of connections not checked because they were used
+     *          recently.
+     */
+    int getNumSkipped()
+    {
+      return numSkipped.get();
+    }
+  }
 }
@@ -55,6 +55,13 @@ public final class LDAPConnectionPoolHealthCheckResult
   // The number of connections found to be expired.
   private final int numExpired;
 
+  // The number of connections that were not checked with the health check
+  // because they had been used too recently.
+  private final int numSkipped;
+
+  // The length of time in milliseconds required to complete the health check.
+  private final long durationMillis;
+
 
 
   /**
@@ -73,9 +80,40 @@ public final class LDAPConnectionPoolHealthCheckResult
                                       final int numExpired,
                                       final int numDefunct)
   {
-    this.numExamined = numExamined;
-    this.numExpired  = numExpired;
-    this.numDefunct  = numDefunct;
+    this(numExamined, numExpired, numDefunct, 0, 0L);
+  }
+
+
+
+  /**
+   * Creates a new health check result with the provided information.
+   *
+   * @param  numExamined     The number of connections examined during the
+   *                         health check.
+   * @param  numExpired      The number of connections found to have been
+   *                         established for longer than the pool's maximum
+   *                         connection age and were attempted to be replaced
+   *                         as expired.
+   * @param  numDefunct      The number of connections found to be invalid and
+   *                         were attempted to be replaced as defunct.
+   * @param  numSkipped      The number of examined connections that were not
+   *                         checked with the health check because they had
+   *                         been used more recently than the pool's idle
+   *                         threshold.
+   * @param  durationMillis  The length of time in milliseconds required to
+   *                         complete the health check.
+   */
+  LDAPConnectionPoolHealthCheckResult(final int numExamined,
+                                      final int numExpired,
+                                      final int numDefunct,
+                                      final int numSkipped,
+                                      final long durationMillis)
+  {
+    this.numExamined    = numExamined;
+    this.numExpired     = numExpired;
+    this.numDefunct     = numDefunct;
+    this.numSkipped     = numSkipped;
+    this.durationMillis = durationMillis;
   }
 
 
@@ -125,6 +163,35 @@ public final class LDAPConnectionPoolHealthCheckResult
 
 
 
+  /**
+   * Retrieves the number of examined connections that were not checked with
+   * the health check because they had been used more recently than the pool's
+   * health check idle threshold.
+   *
+   * @return  The number of examined connections that were not checked with the
+   *          health check because they had been used too recently.
+   */
+  public int getNumSkipped()
+  {
+    return numSkipped;
+  }
+
+
+
+  /**
+   * Retrieves the length of time in milliseconds required to complete the
+   * health check.
+   *
+   * @return  The length of time in milliseconds required to complete the health
+   *          check, or zero if that information is not available.
+   */
+  public long getDurationMillis()
+  {
+    return durationMillis;
+  }
+
+
+
   /**
    * Retrieves a string representation of this connection pool health check
    * result.
@@ -156,6 +223,10 @@ public final class LDAPConnectionPoolHealthCheckResult
     buffer.append(numExpired);
     buffer.append(", numDefunct=");
     buffer.append(numDefunct);
+    buffer.append(", numSkipped=");
+    buffer.append(numSkipped);
+    buffer.append(", durationMillis=");
+    buffer.append(durationMillis);
     buffer.append(')');
   }
 }
@@ -0,0 +1,388 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.unboundid.util.FixedRateBarrier;
+import com.unboundid.util.ThreadLocalRandom;
+
+import static com.unboundid.util.Debug.*;
+
+
+
+/**
+ * This class provides a mechanism for creating replacement connections for an
+ * {@link LDAPConnectionPool} in the background, rather than on the thread that
+ * discovered that a connection was defunct.  One or more daemon threads will
+ * be used to establish the connections, the rate at which connections are
+ * established may be capped, and a jittered exponential backoff will be used
+ * after failed attempts so that a pool that cannot reach its servers does not
+ * hammer them with connection attempts.
+ */
+final class LDAPConnectionPoolReplenisher
+      implements Runnable
+{
+  // The number of attempts to create a connection that are currently in
+  // progress.
+  private final AtomicInteger activeAttempts;
+
+  // The number of connections that still need to be created, including those
+  // for which an attempt is in progress.
+  private final AtomicInteger pendingConnections;
+
+  // The length of time in milliseconds to wait after the next failed attempt.
+  private final AtomicLong currentBackoffMillis;
+
+  // The barrier used to cap the rate at which connections are established, if
+  // appropriate.
+  private final FixedRateBarrier rateBarrier;
+
+  // The maximum number of connections to establish per second.
+  private final int maxConnectsPerSecond;
+
+  // The connection pool for which connections will be created.
+  private final LDAPConnectionPool pool;
+
+  // The initial and maximum lengths of time to wait after a failed attempt.
+  private final long initialBackoffMillis;
+  private final long maxBackoffMillis;
+
+  // The object used to wait for work and to sleep between failed attempts.
+  private final Object lock;
+
+  // The threads that will be used to create connections.
+  private final Thread[] threads;
+
+  // Indicates whether a request has been made to stop the replenisher.
+  private volatile boolean stopRequested;
+
+
+
+  /**
+   * Creates a new replenisher for the provided pool, and starts its threads.
+   *
+   * @param  pool                  The connection pool for which to create
+   *                               connections.
+   * @param  numThreads            The number of threads to use to create
+   *                               connections.  It must be greater than zero.
+   * @param  maxConnectsPerSecond  The maximum number of connections to
+   *                               establish per second across all threads.  A
+   *                               value less than or equal to zero indicates
+   *                               that there should be no limit.
+   * @param  initialBackoffMillis  The length of time in milliseconds to wait
+   *                               after the first failed attempt to establish a
+   *                               connection.
+   * @param  maxBackoffMillis      The maximum length of time in milliseconds to
+   *                               wait after a failed attempt to establish a
+   *                               connection.
+   */
+  LDAPConnectionPoolReplenisher(final LDAPConnectionPool pool,
+                                final int numThreads,
+                                final int maxConnectsPerSecond,
+                                final long initialBackoffMillis,
+                                final long maxBackoffMillis)
+  {
+    this.pool                 = pool;
+    this.maxConnectsPerSecond = maxConnectsPerSecond;
+    this.initialBackoffMillis = Math.max(1L, initialBackoffMillis);
+    this.maxBackoffMillis     = Math.max(this.initialBackoffMillis,
+         maxBackoffMillis);
+
+    if (maxConnectsPerSecond > 0)
+    {
+      rateBarrier = new FixedRateBarrier(1000L, maxConnectsPerSecond);
+    }
+    else
+    {
+      rateBarrier = null;
+    }
+
+    activeAttempts       = new AtomicInteger(0);
+    pendingConnections   = new AtomicInteger(0);
+    currentBackoffMillis = new AtomicLong(this.initialBackoffMillis);
+    lock                 = new Object();
+    stopRequested        = false;
+
+    threads = new Thread[numThreads];
+    for (int i=0; i < numThreads; i++)
+    {
+      threads[i] = new Thread(this,
+           "Connection Replenisher Thread " + (i+1) + " for " +
+                pool.toString());
+      threads[i].setDaemon(true);
+      threads[i].start();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of threads used to create connections.
+   *
+   * @return  The number of threads used to create connections.
+   */
+  int getNumThreads()
+  {
+    return threads.length;
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of connections to establish per second.
+   *
+   * @return  The maximum number of connections to establish per second, or a
+   *          value less than or equal to zero if there is no limit.
+   */
+  int getMaxConnectsPerSecond()
+  {
+    return maxConnectsPerSecond;
+  }
+
+
+
+  /**
+   * Retrieves the length of time in milliseconds to wait after the first failed
+   * attempt to establish a connection.
+   *
+   * @return  The length of time in milliseconds to wait after the first failed
+   *          attempt to establish a connection.
+   */
+  long getInitialBackoffMillis()
+  {
+    return initialBackoffMillis;
+  }
+
+
+
+  /**
+   * Retrieves the maximum length of time in milliseconds to wait after a failed
+   * attempt to establish a connection.
+   *
+   * @return  The maximum length of time in milliseconds to wait after a failed
+   *          attempt to establish a connection.
+   */
+  long getMaxBackoffMillis()
+  {
+    return maxBackoffMillis;
+  }
+
+
+
+  /**
+   * Retrieves the number of connections that have been requested but not yet
+   * successfully established, including those for which an attempt is
+   * currently in progress.
+   *
+   * @return  The number of connections that have been requested but not yet
+   *          successfully established.
+   */
+  int getPendingConnections()
+  {
+    return pendingConnections.get();
+  }
+
+
+
+  /**
+   * Requests that the specified number of additional connections be created
+   * and added to the pool.
+   *
+   * @param  count  The number of additional connections to create.
+   */
+  void requestConnections(final int count)
+  {
+    if ((count <= 0) || stopRequested)
+    {
+      return;
+    }
+
+    pendingConnections.addAndGet(count);
+    synchronized (lock)
+    {
+      lock.notifyAll();
+    }
+  }
+
+
+
+  /**
+   * Creates connections as they are requested until a stop request is
+   * received.
+   */
+  @Override()
+  public void run()
+  {
+    while (! stopRequested)
+    {
+      // Wait until there is work to do.
+      if (! claimPendingConnection())
+      {
+        synchronized (lock)
+        {
+          if ((! stopRequested) &&
+              (pendingConnections.get() <= activeAttempts.get()))
+          {
+            try
+            {
+              lock.wait(1000L);
+            }
+            catch (final InterruptedException ie)
+            {
+              debugException(ie);
+            }
+          }
+        }
+        continue;
+      }
+
+      if ((rateBarrier != null) && rateBarrier.await())
+      {
+        // The barrier has been shut down.
+        activeAttempts.decrementAndGet();
+        break;
+      }
+
+      if (stopRequested || (! pool.addReplenishedConnection()))
+      {
+        activeAttempts.decrementAndGet();
+        if (stopRequested)
+        {
+          break;
+        }
+
+        backOff();
+      }
+      else
+      {
+        pendingConnections.decrementAndGet();
+        activeAttempts.decrementAndGet();
+        currentBackoffMillis.set(initialBackoffMillis);
+      }
+    }
+  }
+
+
+
+  /**
+   * Attempts to claim responsibility for creating one of the pending
+   * connections.
+   *
+   * @return  {@code true} if the caller should create a connection, or
+   *          {@code false} if there are no pending connections.
+   */
+  private boolean claimPendingConnection()
+  {
+    while (true)
+    {
+      final int active = activeAttempts.get();
+      if (active >= pendingConnections.get())
+      {
+        return false;
+      }
+
+      if (activeAttempts.compareAndSet(active, active + 1))
+      {
+        return true;
+      }
+    }
+  }
+
+
+
+  /**
+   * Waits after a failed connection attempt.  The length of time to wait will
+   * be a random duration between half and all of the current backoff, and the
+   * backoff will be doubled (up to the maximum) for subsequent failures.
+   */
+  private void backOff()
+  {
+    final long backoff = currentBackoffMillis.get();
+    currentBackoffMillis.compareAndSet(backoff,
+         Math.min(maxBackoffMillis, (backoff * 2L)));
+
+    final long halfBackoff = Math.max(1L, (backoff / 2L));
+    final long sleepMillis = halfBackoff +
+         (long) (ThreadLocalRandom.get().nextDouble() * halfBackoff);
+
+    synchronized (lock)
+    {
+      if (! stopRequested)
+      {
+        try
+        {
+          lock.wait(sleepMillis);
+        }
+        catch (final InterruptedException ie)
+        {
+          debugException(ie);
+        }
+      }
+    }
+  }
+
+
+
+  /**
+   * Stops the replenisher threads.  This method will not return until all of
+   * the threads have stopped running, or until the specified amount of time
+   * has elapsed.
+   *
+   * @param  maxWaitMillis  The maximum length of time in milliseconds to wait
+   *                        for each thread to stop.
+   */
+  void stopRunning(final long maxWaitMillis)
+  {
+    stopRequested = true;
+    if (rateBarrier != null)
+    {
+      rateBarrier.shutdownRequested();
+    }
+
+    synchronized (lock)
+    {
+      lock.notifyAll();
+    }
+
+    for (final Thread t : threads)
+    {
+      if (t == Thread.currentThread())
+      {
+        continue;
+      }
+
+      try
+      {
+        t.join(maxWaitMillis);
+      }
+      catch (final InterruptedException ie)
+      {
+        debugException(ie);
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+}
@@ -28,6 +28,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import com.unboundid.util.Mutable;
 import com.unboundid.util.ThreadSafety;
 import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.metrics.MetricsRegistry;
 
 
 
@@ -65,6 +66,12 @@ import com.unboundid.util.ThreadSafetyLevel;
  *       the pool.</LI>
  *   <LI>The number of failed attempts to create a new connection for use in the
  *       pool.</LI>
+ *   <LI>The number of TLS handshakes performed while establishing new
+ *       connections for use in the pool, and the number of those handshakes
+ *       that resumed an existing TLS session.</LI>
+ *   <LI>The number of background health check passes that have been completed,
+ *       along with the total, maximum, and most recent durations of those
+ *       passes.</LI>
  * </UL>
  */
 @Mutable()
@@ -95,9 +102,24 @@ public final class LDAPConnectionPoolStatistics
   // The number of failed attempts to create a connection for use in the pool.
   private final AtomicLong numFailedConnectionAttempts;
 
+  // The number of health check passes that have been completed.
+  private final AtomicLong numHealthChecks;
+
+  // The durations in milliseconds of the most recent and longest health check
+  // passes, and the total duration of all passes.
+  private final AtomicLong lastHealthCheckDurationMillis;
+  private final AtomicLong maxHealthCheckDurationMillis;
+  private final AtomicLong totalHealthCheckDurationMillis;
+
   // The number of valid connections released back to the pool.
   private final AtomicLong numReleasedValid;
 
+  // The number of TLS handshakes performed for new connections.
+  private final AtomicLong numTLSHandshakes;
+
+  // The number of TLS handshakes that resumed an existing session.
+  private final AtomicLong numTLSSessionsResumed;
+
   // The number of successful attempts to check out a connection from the pool.
   private final AtomicLong numSuccessfulCheckouts;
 
@@ -143,6 +165,12 @@ public final class LDAPConnectionPoolStatistics
     numSuccessfulCheckoutsWithoutWait   = new AtomicLong(0L);
     numFailedCheckouts                  = new AtomicLong(0L);
     numReleasedValid                    = new AtomicLong(0L);
+    numTLSHandshakes                    = new AtomicLong(0L);
+    numTLSSessionsResumed               = new AtomicLong(0L);
+    numHealthChecks                     = new AtomicLong(0L);
+    lastHealthCheckDurationMillis       = new AtomicLong(0L);
+    maxHealthCheckDurationMillis        = new AtomicLong(0L);
+    totalHealthCheckDurationMillis      = new AtomicLong(0L);
   }
 
 
@@ -163,6 +191,12 @@ public final class LDAPConnectionPoolStatistics
     numSuccessfulCheckoutsWithoutWait.set(0L);
     numFailedCheckouts.set(0L);
     numReleasedValid.set(0L);
+    numTLSHandshakes.set(0L);
+    numTLSSessionsResumed.set(0L);
+    numHealthChecks.set(0L);
+    lastHealthCheckDurationMillis.set(0L);
+    maxHealthCheckDurationMillis.set(0L);
+    totalHealthCheckDurationMillis.set(0L);
   }
 
 
@@ -405,7 +439,14 @@ public final class LDAPConnectionPoolStatistics
    */
   void incrementNumFailedCheckouts()
   {
-   numFailedCheckouts.incrementAndGet();
+    numFailedCheckouts.incrementAndGet();
+
+    final MetricsRegistry metrics = MetricsRegistry.getInstalledRegistry();
+    if (metrics != null)
+    {
+      metrics.incrementCounter(pool.getMetricsScope(),
+           MetricsRegistry.METRIC_POOL_FAILED_CHECKOUTS, 1L);
+    }
   }
 
 
@@ -436,6 +477,178 @@ public final class LDAPConnectionPoolStatistics
 
 
 
+  /**
+   * Retrieves the number of TLS handshakes that have been performed while
+   * establishing new connections for use in the pool, whether or not they
+   * resumed an existing TLS session.
+   *
+   * @return  The number of TLS handshakes that have been performed while
+   *          establishing new connections for use in the pool.
+   */
+  public long getNumTLSHandshakes()
+  {
+    return numTLSHandshakes.get();
+  }
+
+
+
+  /**
+   * Retrieves the number of TLS handshakes performed while establishing new
+   * connections for use in the pool that resumed an existing TLS session rather
+   * than negotiating a new one.
+   *
+   * @return  The number of TLS handshakes that resumed an existing TLS session.
+   */
+  public long getNumTLSSessionsResumed()
+  {
+    return numTLSSessionsResumed.get();
+  }
+
+
+
+  /**
+   * Retrieves the percentage of TLS handshakes performed while establishing new
+   * connections for use in the pool that resumed an existing TLS session.
+   *
+   * @return  The percentage of TLS handshakes that resumed an existing TLS
+   *          session, or zero if no TLS handshakes have been performed.
+   */
+  public double getTLSSessionResumptionPercent()
+  {
+    final long resumed = numTLSSessionsResumed.get();
+    final long total = numTLSHandshakes.get();
+    if (total == 0L)
+    {
+      return 0.0d;
+    }
+
+    return 100.0d * resumed / total;
+  }
+
+
+
+  /**
+   * Increments the number of TLS handshakes performed while establishing new
+   * connections for use in the pool.
+   *
+   * @param  resumed  Indicates whether the handshake resumed an existing TLS
+   *                  session.
+   */
+  void incrementNumTLSHandshakes(final boolean resumed)
+  {
+    numTLSHandshakes.incrementAndGet();
+    if (resumed)
+    {
+      numTLSSessionsResumed.incrementAndGet();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of health check passes that have been completed for
+   * the pool.
+   *
+   * @return  The number of health check passes that have been completed for
+   *          the pool.
+   */
+  public long getNumHealthChecks()
+  {
+    return numHealthChecks.get();
+  }
+
+
+
+  /**
+   * Retrieves the length of time in milliseconds required to complete the most
+   * recent health check pass.
+   *
+   * @return  The length of time in milliseconds required to complete the most
+   *          recent health check pass, or zero if no health check passes have
+   *          been completed.
+   */
+  public long getLastHealthCheckDurationMillis()
+  {
+    return lastHealthCheckDurationMillis.get();
+  }
+
+
+
+  /**
+   * Retrieves the length of time in milliseconds required to complete the
+   * longest health check pass.
+   *
+   * @return  The length of time in milliseconds required to complete the
+   *          longest health check pass, or zero if no health check passes have
+   *          been completed.
+   */
+  public long getMaxHealthCheckDurationMillis()
+  {
+    return maxHealthCheckDurationMillis.get();
+  }
+
+
+
+  /**
+   * Retrieves the total length of time in milliseconds spent in health check
+   * passes.
+   *
+   * @return  The total length of time in milliseconds spent in health check
+   *          passes.
+   */
+  public long getTotalHealthCheckDurationMillis()
+  {
+    return totalHealthCheckDurationMillis.get();
+  }
+
+
+
+  /**
+   * Retrieves the average length of time in milliseconds required to complete a
+   * health check pass.
+   *
+   * @return  The average length of time in milliseconds required to complete a
+   *          health check pass, or zero if no health check passes have been
+   *          completed.
+   */
+  public double getAverageHealthCheckDurationMillis()
+  {
+    final long num = numHealthChecks.get();
+    if (num == 0L)
+    {
+      return 0.0d;
+    }
+
+    return 1.0d * totalHealthCheckDurationMillis.get() / num;
+  }
+
+
+
+  /**
+   * Updates the health check statistics to reflect a completed pass.
+   *
+   * @param  durationMillis  The length of time in milliseconds required to
+   *                         complete the health check pass.
+   */
+  void healthCheckCompleted(final long durationMillis)
+  {
+    numHealthChecks.incrementAndGet();
+    lastHealthCheckDurationMillis.set(durationMillis);
+    totalHealthCheckDurationMillis.addAndGet(durationMillis);
+
+    while (true)
+    {
+      final long max = maxHealthCheckDurationMillis.get();
+      if ((durationMillis <= max) ||
+          maxHealthCheckDurationMillis.compareAndSet(max, durationMillis))
+      {
+        return;
+      }
+    }
+  }
+
+
+
   /**
    * Retrieves the number of connections currently available for use in the
    * pool, if that information is available.
@@ -502,6 +715,11 @@ public final class LDAPConnectionPoolStatistics
     final long successfulCheckouts = numSuccessfulCheckouts.get();
     final long failedCheckouts     = numFailedCheckouts.get();
     final long releasedValid       = numReleasedValid.get();
+    final long tlsHandshakes       = numTLSHandshakes.get();
+    final long tlsResumed          = numTLSSessionsResumed.get();
+    final long healthChecks        = numHealthChecks.get();
+    final long lastHealthCheck     = lastHealthCheckDurationMillis.get();
+    final long maxHealthCheck      = maxHealthCheckDurationMillis.get();
 
     buffer.append("LDAPConnectionPoolStatistics(numAvailableConnections=");
     buffer.append(availableConns);
@@ -523,6 +741,16 @@ public final class LDAPConnectionPoolStatistics
     buffer.append(failedCheckouts);
     buffer.append(", numReleasedValid=");
     buffer.append(releasedValid);
+    buffer.append(", numTLSHandshakes=");
+    buffer.append(tlsHandshakes);
+    buffer.append(", numTLSSessionsResumed=");
+    buffer.append(tlsResumed);
+    buffer.append(", numHealthChecks=");
+    buffer.append(healthChecks);
+    buffer.append(", lastHealthCheckDurationMillis=");
+    buffer.append(lastHealthCheck);
+    buffer.append(", maxHealthCheckDurationMillis=");
+    buffer.append(maxHealthCheck);
     buffer.append(')');
   }
 }
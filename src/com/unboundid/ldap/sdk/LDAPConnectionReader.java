@@ -47,6 +47,7 @@ import com.unboundid.ldap.sdk.unboundidds.extensions.
 import com.unboundid.util.DebugType;
 import com.unboundid.util.InternalUseOnly;
 import com.unboundid.util.WakeableSleeper;
+import com.unboundid.util.metrics.MetricsRegistry;
 
 import static com.unboundid.ldap.sdk.LDAPMessages.*;
 import static com.unboundid.util.Debug.*;
@@ -200,6 +201,14 @@ final class LDAPConnectionReader
            ERR_CONNREADER_MSGID_IN_USE.get(String.valueOf(acceptor), messageID,
                 String.valueOf(connection), String.valueOf(existingAcceptor)));
     }
+
+    final MetricsRegistry metrics = MetricsRegistry.getInstalledRegistry();
+    if (metrics != null)
+    {
+      metrics.recordValue(connection.getMetricsScope(),
+           MetricsRegistry.METRIC_CONNECTION_OPERATIONS_IN_FLIGHT,
+           acceptorMap.size());
+    }
   }
 
 
@@ -249,11 +258,20 @@ final class LDAPConnectionReader
     {
       try
       {
+        final MetricsRegistry metrics = MetricsRegistry.getInstalledRegistry();
+        final ASN1StreamReader reader = asn1StreamReader;
+        final long bytesReadBefore = ((metrics == null) ? 0L :
+             InternalASN1Helper.getTotalBytesRead(reader));
+
         final LDAPResponse response;
         try
         {
-          response = LDAPMessage.readLDAPResponseFrom(asn1StreamReader, true,
+          response = LDAPMessage.readLDAPResponseFrom(reader, true,
                connection.getCachedSchema());
+          if (metrics != null)
+          {
+            publishReadMetrics(metrics, reader, bytesReadBefore);
+          }
         }
         catch (final LDAPException le)
         {
@@ -296,14 +314,9 @@ final class LDAPConnectionReader
                   socket.setSoTimeout(0);
                 }
 
-                final SSLSocket sslSocket;
-                synchronized (sslSocketFactory)
-                {
-                  sslSocket = (SSLSocket) sslSocketFactory.createSocket(socket,
-                       connection.getConnectedAddress(), socket.getPort(),
-                       true);
-                  sslSocket.startHandshake();
-                }
+                final SSLSocket sslSocket = createStartTLSSocket(
+                     sslSocketFactory, connectionOptions);
+                sslSocket.startHandshake();
                 connectionOptions.getSSLSocketVerifier().verifySSLSocket(
                      connection.getConnectedAddress(), socket.getPort(),
                      sslSocket);
@@ -647,6 +660,27 @@ final class LDAPConnectionReader
 
 
 
+  /**
+   * Publishes metrics about the data that has been read from the server to the
+   * provided registry.
+   *
+   * @param  metrics          The registry to which the metrics should be
+   *                          published.
+   * @param  reader           The ASN.1 stream reader used to read the data.
+   * @param  bytesReadBefore  The total number of bytes that the reader had read
+   *                          before the most recent response.
+   */
+  private void publishReadMetrics(final MetricsRegistry metrics,
+                                  final ASN1StreamReader reader,
+                                  final long bytesReadBefore)
+  {
+    metrics.incrementCounter(connection.getMetricsScope(),
+         MetricsRegistry.METRIC_CONNECTION_BYTES_READ,
+         (InternalASN1Helper.getTotalBytesRead(reader) - bytesReadBefore));
+  }
+
+
+
   /**
    * Reads a response from the server, blocking if necessary until the response
    * has been received.  This should only be used for connections operating in
@@ -669,8 +703,18 @@ final class LDAPConnectionReader
     {
       try
       {
+        final MetricsRegistry metrics = MetricsRegistry.getInstalledRegistry();
+        final ASN1StreamReader reader = asn1StreamReader;
+        final long bytesReadBefore = ((metrics == null) ? 0L :
+             InternalASN1Helper.getTotalBytesRead(reader));
+
         final LDAPResponse response = LDAPMessage.readLDAPResponseFrom(
-             asn1StreamReader, false, connection.getCachedSchema());
+             reader, false, connection.getCachedSchema());
+        if (metrics != null)
+        {
+          publishReadMetrics(metrics, reader, bytesReadBefore);
+        }
+
         if (response == null)
         {
           return new ConnectionClosedResponse(ResultCode.SERVER_DOWN, null);
@@ -869,6 +913,42 @@ final class LDAPConnectionReader
 
 
 
+  /**
+   * Creates an SSL socket layered over the existing socket for use in StartTLS
+   * processing.  Unless the connection options allow concurrent use of socket
+   * factories, the socket factory will be locked while the socket is created,
+   * but the TLS handshake should be performed after this method returns so that
+   * a slow handshake for one connection will not block the creation of sockets
+   * for other connections using the same factory.
+   *
+   * @param  sslSocketFactory   The SSL socket factory to use to create the
+   *                            socket.
+   * @param  connectionOptions  The connection options for the connection.
+   *
+   * @return  The SSL socket that was created.
+   *
+   * @throws  IOException  If a problem occurs while creating the socket.
+   */
+  private SSLSocket createStartTLSSocket(
+                         final SSLSocketFactory sslSocketFactory,
+                         final LDAPConnectionOptions connectionOptions)
+          throws IOException
+  {
+    if (connectionOptions.allowConcurrentSocketFactoryUse())
+    {
+      return (SSLSocket) sslSocketFactory.createSocket(socket,
+           connection.getConnectedAddress(), socket.getPort(), true);
+    }
+
+    synchronized (sslSocketFactory)
+    {
+      return (SSLSocket) sslSocketFactory.createSocket(socket,
+           connection.getConnectedAddress(), socket.getPort(), true);
+    }
+  }
+
+
+
   /**
    * Converts this clear-text connection to one that uses TLS.
    *
@@ -916,13 +996,9 @@ final class LDAPConnectionReader
           socket.setSoTimeout(0);
         }
 
-        final SSLSocket sslSocket;
-        synchronized (sslSocketFactory)
-        {
-          sslSocket = (SSLSocket) sslSocketFactory.createSocket(socket,
-               connection.getConnectedAddress(), socket.getPort(), true);
-          sslSocket.startHandshake();
-        }
+        final SSLSocket sslSocket =
+             createStartTLSSocket(sslSocketFactory, connectionOptions);
+        sslSocket.startHandshake();
         connectionOptions.getSSLSocketVerifier().verifySSLSocket(
              connection.getConnectedAddress(), socket.getPort(), sslSocket);
         inputStream =
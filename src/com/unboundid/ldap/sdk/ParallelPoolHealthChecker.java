@@ -0,0 +1,124 @@
+/*
+ * Copyright 2012-2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2012-2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.ArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.unboundid.util.Debug;
+import com.unboundid.util.LDAPSDKThreadFactory;
+
+
+
+/**
+ * This class provides a parallel mechanism for concurrently examining the
+ * available connections in a connection pool as part of a health check pass.
+ */
+final class ParallelPoolHealthChecker
+{
+  // Indicates whether to check for expired connections.
+  private final boolean checkForExpiration;
+
+  // The number of threads to use to examine connections in parallel.
+  private final int numThreads;
+
+  // The connection pool whose connections will be examined.
+  private final LDAPConnectionPool pool;
+
+  // The health check to use.
+  private final LDAPConnectionPoolHealthCheck healthCheck;
+
+  // The state for the health check pass.
+  private final LDAPConnectionPool.HealthCheckPassState state;
+
+
+
+  /**
+   * Creates a new parallel pool health checker with the provided settings.
+   *
+   * @param  pool                The connection pool whose connections will be
+   *                             examined.
+   * @param  healthCheck         The health check to use.
+   * @param  checkForExpiration  Indicates whether to check for expired
+   *                             connections.
+   * @param  state               The state for the health check pass.
+   * @param  numThreads          The number of threads to use to examine
+   *                             connections in parallel.
+   */
+  ParallelPoolHealthChecker(final LDAPConnectionPool pool,
+                            final LDAPConnectionPoolHealthCheck healthCheck,
+                            final boolean checkForExpiration,
+                            final LDAPConnectionPool.HealthCheckPassState state,
+                            final int numThreads)
+  {
+    this.pool               = pool;
+    this.healthCheck        = healthCheck;
+    this.checkForExpiration = checkForExpiration;
+    this.state              = state;
+    this.numThreads         = numThreads;
+  }
+
+
+
+  /**
+   * Performs the work of examining the connections.  This method will not
+   * return until there are no more connections to examine in this pass.
+   */
+  void checkConnections()
+  {
+    final ThreadPoolExecutor executor = new ThreadPoolExecutor(numThreads,
+         numThreads, 0L, TimeUnit.MILLISECONDS,
+         new LinkedBlockingQueue<Runnable>(),
+         new LDAPSDKThreadFactory("Health Check Worker for " + pool.toString(),
+              true));
+
+    final ArrayList<Future<?>> results = new ArrayList<Future<?>>(numThreads);
+    for (int i=0; i < numThreads; i++)
+    {
+      results.add(executor.submit(new ParallelPoolHealthCheckerTask(pool,
+           healthCheck, checkForExpiration, state)));
+    }
+
+    for (final Future<?> f : results)
+    {
+      try
+      {
+        f.get();
+      }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+        if (e instanceof InterruptedException)
+        {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+    }
+
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+/**
+ * This class provides a task that will repeatedly examine available connections
+ * in a connection pool until there are no more connections to examine in the
+ * current health check pass.
+ */
+final class ParallelPoolHealthCheckerTask
+      implements Runnable
+{
+  // Indicates whether to check for expired connections.
+  private final boolean checkForExpiration;
+
+  // The connection pool whose connections will be examined.
+  private final LDAPConnectionPool pool;
+
+  // The health check to use.
+  private final LDAPConnectionPoolHealthCheck healthCheck;
+
+  // The state for the health check pass.
+  private final LDAPConnectionPool.HealthCheckPassState state;
+
+
+
+  /**
+   * Creates a new instance of this health checker task.
+   *
+   * @param  pool                The connection pool whose connections will be
+   *                             examined.
+   * @param  healthCheck         The health check to use.
+   * @param  checkForExpiration  Indicates whether to check for expired
+   *                             connections.
+   * @param  state               The state for the health check pass.
+   */
+  ParallelPoolHealthCheckerTask(final LDAPConnectionPool pool,
+       final LDAPConnectionPoolHealthCheck healthCheck,
+       final boolean checkForExpiration,
+       final LDAPConnectionPool.HealthCheckPassState state)
+  {
+    this.pool               = pool;
+    this.healthCheck        = healthCheck;
+    this.checkForExpiration = checkForExpiration;
+    this.state              = state;
+  }
+
+
+
+  /**
+   * Examines connections until there are no more to examine.
+   */
+  @Override()
+  public void run()
+  {
+    while (pool.examineNextConnection(healthCheck, checkForExpiration, state))
+    {
+      // No implementation is required.
+    }
+  }
+}
@@ -0,0 +1,926 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Timer;
+import java.util.logging.Level;
+
+import com.unboundid.asn1.ASN1Element;
+import com.unboundid.asn1.ASN1Sequence;
+import com.unboundid.ldap.protocol.LDAPMessage;
+import com.unboundid.ldap.protocol.ProtocolOp;
+import com.unboundid.util.ByteStringBuffer;
+import com.unboundid.util.NotMutable;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+import static com.unboundid.ldap.sdk.LDAPMessages.*;
+import static com.unboundid.util.Debug.*;
+import static com.unboundid.util.StaticUtils.*;
+import static com.unboundid.util.Validator.*;
+
+
+
+/**
+ * This class provides a data structure that holds a pre-encoded representation
+ * of an LDAP request whose general form remains the same from one request to
+ * the next, but in which some values may vary.  A template is created from a
+ * request in which each of those variable values is replaced by a unique
+ * placeholder string.  The request is encoded only once, when the template is
+ * created, and each request sent from the template only requires writing the
+ * message ID and the current values for each of the placeholders (along with
+ * the appropriate BER lengths for the elements that contain them) into a
+ * reusable buffer.  This can substantially reduce the cost of sending requests
+ * in applications that send large numbers of requests with the same form,
+ * like those that search for users by their user ID or that repeatedly replace
+ * the value of a given attribute in different entries.
+ * <BR><BR>
+ * A placeholder may be used as the complete value of any element of the
+ * encoded request that is not itself made up of other elements.  This includes
+ * the entry DN for add, delete, modify, modify DN, and search requests, the
+ * new RDN and new superior DN for modify DN requests, attribute values in add
+ * and modify requests, the assertion values and substring components in search
+ * filters, and the values of request controls whose value is a simple string
+ * (like the proxied authorization v2 request control).  The same placeholder
+ * may be used in more than one place in the request, and every occurrence will
+ * be replaced with the same value.  A placeholder cannot be used for only a
+ * portion of a value.
+ * <BR><BR>
+ * Request templates may only be used for add, delete, modify, modify DN, and
+ * search requests.  Requests created from a template may be sent with the
+ * {@link LDAPConnection#asyncProcessTemplate} and
+ * {@link LDAPConnection#asyncSearchTemplate} methods, which provide the values
+ * for each of the placeholders as a byte array that contains all of the values
+ * one after the other, along with an array with the position at which each
+ * value ends, so that applications can generate the values without creating
+ * any new objects (for example, by using the
+ * {@link com.unboundid.util.ValuePattern#nextValue(ByteStringBuffer)} method).
+ * The response time limit and intermediate response listener for each request
+ * will be taken from the request used to create the template.
+ * <BR><BR>
+ * <H2>Example</H2>
+ * The following example demonstrates the process for creating a template for
+ * a search request that looks for a user by user ID, and then using it to send
+ * a search for a user with a given user ID:
+ * <PRE>
+ * SearchRequest searchRequest = new SearchRequest("dc=example,dc=com",
+ *      SearchScope.SUB, Filter.createEqualityFilter("uid", "{uid}"), "cn");
+ * RequestTemplate template = new RequestTemplate(searchRequest, "{uid}");
+ *
+ * ByteStringBuffer valueBuffer = new ByteStringBuffer();
+ * valueBuffer.append("john.doe");
+ * int[] valueEndOffsets = { valueBuffer.length() };
+ * AsyncRequestID requestID = connection.asyncSearchTemplate(template,
+ *      asyncSearchListener, valueBuffer.getBackingArray(), valueEndOffsets);
+ * </PRE>
+ */
+@NotMutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class RequestTemplate
+       implements Serializable
+{
+  /**
+   * The node kind for a pre-encoded element that does not contain any
+   * placeholders.
+   */
+  private static final byte NODE_KIND_FIXED = 0x00;
+
+
+
+  /**
+   * The node kind for an element whose value is a placeholder.
+   */
+  private static final byte NODE_KIND_VALUE = 0x01;
+
+
+
+  /**
+   * The node kind for an element that is made up of other elements, at least
+   * one of which contains a placeholder.
+   */
+  private static final byte NODE_KIND_CONSTRUCTED = 0x02;
+
+
+
+  /**
+   * The node kind for the message ID element.
+   */
+  private static final byte NODE_KIND_MESSAGE_ID = 0x03;
+
+
+
+  /**
+   * A thread-local array that will be used to hold the encoded length of each
+   * node while encoding a request.  It may be larger than the number of nodes
+   * in any given template.
+   */
+  private static final ThreadLocal<int[]> ENCODED_LENGTHS =
+       new ThreadLocal<int[]>();
+
+
+
+  /**
+   * A thread-local array that will be used to hold the value length of each
+   * node while encoding a request.  It may be larger than the number of nodes
+   * in any given template.
+   */
+  private static final ThreadLocal<int[]> VALUE_LENGTHS =
+       new ThreadLocal<int[]>();
+
+
+
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = 4407212372564919381L;
+
+
+
+  // The pre-encoded representations of the fixed portions of the request.
+  private final byte[][] fixedBytes;
+
+  // The kind of each node in the encoding of the request.
+  private final byte[] nodeKinds;
+
+  // The BER type for each node in the encoding of the request.  It is only
+  // used for value, constructed, and message ID nodes.
+  private final byte[] nodeTypes;
+
+  // The argument for each node in the encoding of the request.  For fixed
+  // nodes, it is the index into the fixedBytes array.  For value nodes, it is
+  // the index of the placeholder.  For constructed nodes, it is the index of
+  // the first node that follows the last node contained in it.
+  private final int[] nodeArgs;
+
+  // The request from which this template was created.
+  private final LDAPRequest request;
+
+  // The placeholders that may be replaced in the request.
+  private final List<String> placeholders;
+
+  // The operation type for the request.
+  private final OperationType operationType;
+
+
+
+  /**
+   * Creates a new request template from the provided request.
+   *
+   * @param  request       The request to use to create the template.  It must
+   *                       not be {@code null}, and it must be an add, delete,
+   *                       modify, modify DN, or search request.  It will be
+   *                       duplicated, so later changes to the provided request
+   *                       will not affect the template.
+   * @param  placeholders  The placeholder strings that will be replaced with
+   *                       different values for each request sent from the
+   *                       template.  It must not be {@code null}, and each
+   *                       placeholder must be non-empty, must be unique, and
+   *                       must be used as the complete value of at least one
+   *                       element in the encoded request.
+   *
+   * @throws  LDAPException  If the provided request cannot be used to create a
+   *                         template.
+   */
+  public RequestTemplate(final LDAPRequest request,
+                         final String... placeholders)
+         throws LDAPException
+  {
+    ensureNotNull(request, placeholders);
+
+    operationType = request.getOperationType();
+    switch (operationType)
+    {
+      case ADD:
+      case DELETE:
+      case MODIFY:
+      case MODIFY_DN:
+      case SEARCH:
+        break;
+      default:
+        throw new LDAPException(ResultCode.PARAM_ERROR,
+             ERR_REQUEST_TEMPLATE_UNSUPPORTED_OPERATION_TYPE.get(
+                  operationType.name()));
+    }
+
+    final byte[][] placeholderBytes = new byte[placeholders.length][];
+    for (int i=0; i < placeholders.length; i++)
+    {
+      ensureNotNull(placeholders[i]);
+      if (placeholders[i].length() == 0)
+      {
+        throw new LDAPException(ResultCode.PARAM_ERROR,
+             ERR_REQUEST_TEMPLATE_EMPTY_PLACEHOLDER.get());
+      }
+
+      for (int j=0; j < i; j++)
+      {
+        if (placeholders[i].equals(placeholders[j]))
+        {
+          throw new LDAPException(ResultCode.PARAM_ERROR,
+               ERR_REQUEST_TEMPLATE_DUPLICATE_PLACEHOLDER.get(
+                    placeholders[i]));
+        }
+      }
+
+      placeholderBytes[i] = getBytes(placeholders[i]);
+    }
+
+    this.request = request.duplicate();
+    this.placeholders =
+         Collections.unmodifiableList(Arrays.asList(placeholders.clone()));
+
+
+    // Encode the request and identify the elements that hold placeholders.
+    final ASN1Element messageElement;
+    final ASN1Element[] messageElements;
+    try
+    {
+      messageElement = new LDAPMessage(1, (ProtocolOp) this.request,
+           this.request.getControls()).encode();
+      messageElements =
+           ASN1Sequence.decodeAsSequence(messageElement).elements();
+    }
+    catch (final Exception e)
+    {
+      debugException(e);
+      throw new LDAPException(ResultCode.ENCODING_ERROR,
+           ERR_REQUEST_TEMPLATE_CANNOT_ENCODE.get(getExceptionMessage(e)), e);
+    }
+
+    final boolean[] placeholderFound = new boolean[placeholders.length];
+    final ByteStringBuffer kinds = new ByteStringBuffer();
+    final ByteStringBuffer types = new ByteStringBuffer();
+    final ArrayList<Integer> args = new ArrayList<Integer>(20);
+    final ArrayList<byte[]> fixed = new ArrayList<byte[]>(10);
+
+    kinds.append(NODE_KIND_CONSTRUCTED);
+    types.append(messageElement.getType());
+    args.add(-1);
+
+    kinds.append(NODE_KIND_MESSAGE_ID);
+    types.append(messageElements[0].getType());
+    args.add(-1);
+
+    final ASN1Element[] remainingElements =
+         new ASN1Element[messageElements.length - 1];
+    System.arraycopy(messageElements, 1, remainingElements, 0,
+         remainingElements.length);
+    try
+    {
+      addChildNodes(remainingElements, placeholderBytes, placeholderFound,
+           kinds, types, args, fixed);
+    }
+    catch (final Exception e)
+    {
+      debugException(e);
+      throw new LDAPException(ResultCode.ENCODING_ERROR,
+           ERR_REQUEST_TEMPLATE_CANNOT_ENCODE.get(getExceptionMessage(e)), e);
+    }
+
+    args.set(0, args.size());
+
+    for (int i=0; i < placeholders.length; i++)
+    {
+      if (! placeholderFound[i])
+      {
+        throw new LDAPException(ResultCode.PARAM_ERROR,
+             ERR_REQUEST_TEMPLATE_PLACEHOLDER_NOT_FOUND.get(placeholders[i],
+                  operationType.name()));
+      }
+    }
+
+    nodeKinds  = kinds.toByteArray();
+    nodeTypes  = types.toByteArray();
+    fixedBytes = fixed.toArray(new byte[fixed.size()][]);
+    nodeArgs   = new int[args.size()];
+    for (int i=0; i < nodeArgs.length; i++)
+    {
+      nodeArgs[i] = args.get(i);
+    }
+  }
+
+
+
+  /**
+   * Adds the nodes needed to encode the provided elements.  Adjacent elements
+   * that do not contain any placeholders will be combined into a single fixed
+   * node.
+   *
+   * @param  elements          The elements for which to add the nodes.
+   * @param  placeholderBytes  The bytes that make up each of the placeholders.
+   * @param  placeholderFound  An array that indicates which of the placeholders
+   *                           have been found.  It will be updated for any
+   *                           placeholders found in the provided elements.
+   * @param  kinds             The buffer holding the node kinds.
+   * @param  types             The buffer holding the node BER types.
+   * @param  args              The list holding the node arguments.
+   * @param  fixed             The list holding the fixed node bytes.
+   *
+   * @throws  Exception  If a problem occurs while decoding any of the elements.
+   */
+  private static void addChildNodes(final ASN1Element[] elements,
+                                    final byte[][] placeholderBytes,
+                                    final boolean[] placeholderFound,
+                                    final ByteStringBuffer kinds,
+                                    final ByteStringBuffer types,
+                                    final List<Integer> args,
+                                    final List<byte[]> fixed)
+          throws Exception
+  {
+    final ByteStringBuffer pendingFixedBytes = new ByteStringBuffer();
+    for (final ASN1Element e : elements)
+    {
+      if (! containsPlaceholder(e, placeholderBytes))
+      {
+        pendingFixedBytes.append(e.encode());
+        continue;
+      }
+
+      if (pendingFixedBytes.length() > 0)
+      {
+        kinds.append(NODE_KIND_FIXED);
+        types.append((byte) 0x00);
+        args.add(fixed.size());
+        fixed.add(pendingFixedBytes.toByteArray());
+        pendingFixedBytes.clear();
+      }
+
+      if (isConstructed(e))
+      {
+        final int nodeIndex = args.size();
+        kinds.append(NODE_KIND_CONSTRUCTED);
+        types.append(e.getType());
+        args.add(-1);
+
+        addChildNodes(ASN1Sequence.decodeAsSequence(e).elements(),
+             placeholderBytes, placeholderFound, kinds, types, args, fixed);
+        args.set(nodeIndex, args.size());
+      }
+      else
+      {
+        final byte[] value = e.getValue();
+        for (int i=0; i < placeholderBytes.length; i++)
+        {
+          if (Arrays.equals(value, placeholderBytes[i]))
+          {
+            kinds.append(NODE_KIND_VALUE);
+            types.append(e.getType());
+            args.add(i);
+            placeholderFound[i] = true;
+            break;
+          }
+        }
+      }
+    }
+
+    if (pendingFixedBytes.length() > 0)
+    {
+      kinds.append(NODE_KIND_FIXED);
+      types.append((byte) 0x00);
+      args.add(fixed.size());
+      fixed.add(pendingFixedBytes.toByteArray());
+    }
+  }
+
+
+
+  /**
+   * Indicates whether the provided element, or any element contained in it,
+   * has a value that is one of the placeholders.
+   *
+   * @param  element           The element to examine.
+   * @param  placeholderBytes  The bytes that make up each of the placeholders.
+   *
+   * @return  {@code true} if the provided element contains a placeholder, or
+   *          {@code false} if not.
+   *
+   * @throws  Exception  If a problem occurs while decoding the element.
+   */
+  private static boolean containsPlaceholder(final ASN1Element element,
+                                             final byte[][] placeholderBytes)
+          throws Exception
+  {
+    if (isConstructed(element))
+    {
+      for (final ASN1Element e :
+           ASN1Sequence.decodeAsSequence(element).elements())
+      {
+        if (containsPlaceholder(e, placeholderBytes))
+        {
+          return true;
+        }
+      }
+
+      return false;
+    }
+
+    final byte[] value = element.getValue();
+    for (final byte[] b : placeholderBytes)
+    {
+      if (Arrays.equals(value, b))
+      {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+
+
+  /**
+   * Indicates whether the provided element has a BER type that indicates it
+   * is made up of other elements.
+   *
+   * @param  element  The element for which to make the determination.
+   *
+   * @return  {@code true} if the provided element is made up of other
+   *          elements, or {@code false} if not.
+   */
+  private static boolean isConstructed(final ASN1Element element)
+  {
+    return ((element.getType() & 0x20) != 0);
+  }
+
+
+
+  /**
+   * Retrieves the operation type for requests sent from this template.
+   *
+   * @return  The operation type for requests sent from this template.
+   */
+  public OperationType getOperationType()
+  {
+    return operationType;
+  }
+
+
+
+  /**
+   * Retrieves the placeholders for this template, in the order in which their
+   * values must be provided.
+   *
+   * @return  The placeholders for this template.
+   */
+  public List<String> getPlaceholders()
+  {
+    return placeholders;
+  }
+
+
+
+  /**
+   * Retrieves the number of placeholders for this template.
+   *
+   * @return  The number of placeholders for this template.
+   */
+  public int getNumPlaceholders()
+  {
+    return placeholders.size();
+  }
+
+
+
+  /**
+   * Retrieves the request from which this template was created.  It must not
+   * be altered.
+   *
+   * @return  The request from which this template was created.
+   */
+  LDAPRequest getRequest()
+  {
+    return request;
+  }
+
+
+
+  /**
+   * Encodes an LDAP message for a request with the provided message ID and
+   * placeholder values.
+   *
+   * @param  messageID  The message ID to use for the request.
+   * @param  values     The values to use for each of the placeholders, in the
+   *                    same order as the placeholders were provided when the
+   *                    template was created.  It must not be {@code null}, and
+   *                    it must have one value for each placeholder.
+   *
+   * @return  The encoded LDAP message.
+   */
+  public byte[] encode(final int messageID, final String... values)
+  {
+    ensureNotNull(values);
+    ensureTrue(values.length == placeholders.size(),
+         "The number of values must match the number of placeholders.");
+
+    final ByteStringBuffer valueBuffer = new ByteStringBuffer();
+    final int[] valueEndOffsets = new int[values.length];
+    for (int i=0; i < values.length; i++)
+    {
+      valueBuffer.append(values[i]);
+      valueEndOffsets[i] = valueBuffer.length();
+    }
+
+    final ByteStringBuffer buffer = new ByteStringBuffer();
+    encode(messageID, valueBuffer.getBackingArray(), valueEndOffsets, buffer);
+    return buffer.toByteArray();
+  }
+
+
+
+  /**
+   * Appends an encoded LDAP message for a request with the provided message ID
+   * and placeholder values to the given buffer.
+   *
+   * @param  messageID        The message ID to use for the request.
+   * @param  valueBytes       A byte array that contains the values for each of
+   *                          the placeholders, one after the other and in the
+   *                          same order as the placeholders were provided when
+   *                          the template was created.  The value for the
+   *                          first placeholder must start at position zero.
+   * @param  valueEndOffsets  An array that holds the position in the
+   *                          {@code valueBytes} array immediately after the end
+   *                          of the value for each placeholder.  The value for
+   *                          each placeholder other than the first starts at
+   *                          the position at which the value for the previous
+   *                          placeholder ends.  It must have one element for
+   *                          each placeholder.
+   * @param  buffer           The buffer to which the encoded message should be
+   *                          appended.
+   */
+  public void encode(final int messageID, final byte[] valueBytes,
+                     final int[] valueEndOffsets, final ByteStringBuffer buffer)
+  {
+    ensureTrue(valueEndOffsets.length == placeholders.size(),
+         "The number of values must match the number of placeholders.");
+
+    // Compute the length of each node, from the last to the first, so that the
+    // lengths of all the nodes contained in a constructed node are known
+    // before its own length is needed.
+    final int[] encodedLengths =
+         getScratchArray(ENCODED_LENGTHS, nodeKinds.length);
+    final int[] valueLengths = getScratchArray(VALUE_LENGTHS, nodeKinds.length);
+    for (int i=nodeKinds.length - 1; i >= 0; i--)
+    {
+      switch (nodeKinds[i])
+      {
+        case NODE_KIND_FIXED:
+          encodedLengths[i] = fixedBytes[nodeArgs[i]].length;
+          continue;
+
+        case NODE_KIND_VALUE:
+          final int p = nodeArgs[i];
+          valueLengths[i] =
+               valueEndOffsets[p] - ((p == 0) ? 0 : valueEndOffsets[p-1]);
+          break;
+
+        case NODE_KIND_MESSAGE_ID:
+          valueLengths[i] = getIntegerValueLength(messageID);
+          break;
+
+        case NODE_KIND_CONSTRUCTED:
+        default:
+          valueLengths[i] = 0;
+          int j = i + 1;
+          while (j < nodeArgs[i])
+          {
+            valueLengths[i] += encodedLengths[j];
+            if (nodeKinds[j] == NODE_KIND_CONSTRUCTED)
+            {
+              j = nodeArgs[j];
+            }
+            else
+            {
+              j++;
+            }
+          }
+          break;
+      }
+
+      encodedLengths[i] =
+           1 + getLengthHeaderLength(valueLengths[i]) + valueLengths[i];
+    }
+
+
+    // Write the nodes in order.
+    for (int i=0; i < nodeKinds.length; i++)
+    {
+      switch (nodeKinds[i])
+      {
+        case NODE_KIND_FIXED:
+          buffer.append(fixedBytes[nodeArgs[i]]);
+          break;
+
+        case NODE_KIND_VALUE:
+          final int p = nodeArgs[i];
+          buffer.append(nodeTypes[i]);
+          appendLength(valueLengths[i], buffer);
+          buffer.append(valueBytes, ((p == 0) ? 0 : valueEndOffsets[p-1]),
+               valueLengths[i]);
+          break;
+
+        case NODE_KIND_MESSAGE_ID:
+          buffer.append(nodeTypes[i]);
+          appendLength(valueLengths[i], buffer);
+          for (int shift=(valueLengths[i] - 1) * 8; shift >= 0; shift -= 8)
+          {
+            buffer.append((byte) ((messageID >> shift) & 0xFF));
+          }
+          break;
+
+        case NODE_KIND_CONSTRUCTED:
+        default:
+          buffer.append(nodeTypes[i]);
+          appendLength(valueLengths[i], buffer);
+          break;
+      }
+    }
+  }
+
+
+
+  /**
+   * Retrieves the calling thread's scratch array from the provided thread-local
+   * variable, creating a new one if there is not already one with at least the
+   * specified length.  The contents of the array are undefined.
+   *
+   * @param  threadLocal  The thread-local variable that holds the array.
+   * @param  length       The minimum length for the array.
+   *
+   * @return  The scratch array to use.
+   */
+  private static int[] getScratchArray(final ThreadLocal<int[]> threadLocal,
+                                       final int length)
+  {
+    int[] array = threadLocal.get();
+    if ((array == null) || (array.length < length))
+    {
+      array = new int[length];
+      threadLocal.set(array);
+    }
+
+    return array;
+  }
+
+
+
+  /**
+   * Retrieves the number of bytes needed to hold the BER encoding of the
+   * provided integer value.
+   *
+   * @param  intValue  The integer value to be encoded.
+   *
+   * @return  The number of bytes needed to hold the BER encoding of the
+   *          provided integer value.
+   */
+  private static int getIntegerValueLength(final int intValue)
+  {
+    if ((intValue >= -0x80) && (intValue <= 0x7F))
+    {
+      return 1;
+    }
+    else if ((intValue >= -0x8000) && (intValue <= 0x7FFF))
+    {
+      return 2;
+    }
+    else if ((intValue >= -0x800000) && (intValue <= 0x7FFFFF))
+    {
+      return 3;
+    }
+    else
+    {
+      return 4;
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of bytes needed to hold the BER encoding of the
+   * provided length.
+   *
+   * @param  length  The length to be encoded.
+   *
+   * @return  The number of bytes needed to hold the BER encoding of the
+   *          provided length.
+   */
+  private static int getLengthHeaderLength(final int length)
+  {
+    if (length < 0x80)
+    {
+      return 1;
+    }
+    else if (length < 0x100)
+    {
+      return 2;
+    }
+    else if (length < 0x10000)
+    {
+      return 3;
+    }
+    else if (length < 0x1000000)
+    {
+      return 4;
+    }
+    else
+    {
+      return 5;
+    }
+  }
+
+
+
+  /**
+   * Appends the BER encoding of the provided length to the given buffer.
+   *
+   * @param  length  The length to be encoded.
+   * @param  buffer  The buffer to which the encoded length should be appended.
+   */
+  private static void appendLength(final int length,
+                                   final ByteStringBuffer buffer)
+  {
+    final int numBytes = getLengthHeaderLength(length) - 1;
+    if (numBytes == 0)
+    {
+      buffer.append((byte) length);
+      return;
+    }
+
+    buffer.append((byte) (0x80 | numBytes));
+    for (int shift=(numBytes - 1) * 8; shift >= 0; shift -= 8)
+    {
+      buffer.append((byte) ((length >> shift) & 0xFF));
+    }
+  }
+
+
+
+  /**
+   * Sends a request created from this template to the directory server over
+   * the provided connection.
+   *
+   * @param  connection       The connection to use to communicate with the
+   *                          directory server.
+   * @param  resultListener   The async result listener that is to be notified
+   *                          when the response is received.  It must not be
+   *                          {@code null} for templates that are not for
+   *                          search operations.
+   * @param  searchListener   The async search result listener that is to be
+   *                          notified of the entries, references, and result
+   *                          for the search.  It must not be {@code null} for
+   *                          templates for search operations.
+   * @param  valueBytes       A byte array that contains the values for each of
+   *                          the placeholders.
+   * @param  valueEndOffsets  An array that holds the position in the
+   *                          {@code valueBytes} array immediately after the end
+   *                          of the value for each placeholder.
+   *
+   * @return  The async request ID created for the operation.
+   *
+   * @throws  LDAPException  If a problem occurs while sending the request.
+   */
+  AsyncRequestID processAsync(final LDAPConnection connection,
+                              final AsyncResultListener resultListener,
+                              final AsyncSearchResultListener searchListener,
+                              final byte[] valueBytes,
+                              final int[] valueEndOffsets)
+                 throws LDAPException
+  {
+    final int messageID = connection.nextMessageID();
+
+    final CommonAsyncHelper helper;
+    if (operationType == OperationType.SEARCH)
+    {
+      helper = new AsyncSearchHelper(connection, messageID, searchListener,
+           request.getIntermediateResponseListener());
+    }
+    else
+    {
+      helper = new AsyncHelper(connection, operationType, messageID,
+           resultListener, request.getIntermediateResponseListener());
+    }
+
+    connection.registerResponseAcceptor(messageID, helper);
+    final AsyncRequestID asyncRequestID = helper.getAsyncRequestID();
+
+    final long timeout = request.getResponseTimeoutMillis(connection);
+    if (timeout > 0L)
+    {
+      final Timer timer = connection.getTimer();
+      final AsyncTimeoutTimerTask timerTask =
+           new AsyncTimeoutTimerTask(helper);
+      timer.schedule(timerTask, timeout);
+      asyncRequestID.setTimerTask(timerTask);
+    }
+
+
+    // Send the request to the server.
+    try
+    {
+      debugLDAPRequest(Level.INFO, request, messageID, connection);
+
+      final LDAPConnectionStatistics stats =
+           connection.getConnectionStatistics();
+      switch (operationType)
+      {
+        case ADD:
+          stats.incrementNumAddRequests();
+          break;
+        case DELETE:
+          stats.incrementNumDeleteRequests();
+          break;
+        case MODIFY:
+          stats.incrementNumModifyRequests();
+          break;
+        case MODIFY_DN:
+          stats.incrementNumModifyDNRequests();
+          break;
+        case SEARCH:
+          stats.incrementNumSearchRequests();
+          break;
+      }
+
+      connection.sendTemplateMessage(this, messageID, valueBytes,
+           valueEndOffsets);
+      return asyncRequestID;
+    }
+    catch (final LDAPException le)
+    {
+      debugException(le);
+
+      connection.deregisterResponseAcceptor(messageID);
+      throw le;
+    }
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this request template.
+   *
+   * @return  A string representation of this request template.
+   */
+  @Override()
+  public String toString()
+  {
+    final StringBuilder buffer = new StringBuilder();
+    toString(buffer);
+    return buffer.toString();
+  }
+
+
+
+  /**
+   * Appends a string representation of this request template to the provided
+   * buffer.
+   *
+   * @param  buffer  The buffer to which to append a string representation of
+   *                 this request template.
+   */
+  public void toString(final StringBuilder buffer)
+  {
+    buffer.append("RequestTemplate(operationType='");
+    buffer.append(operationType.name());
+    buffer.append("', placeholders={");
+
+    for (int i=0; i < placeholders.size(); i++)
+    {
+      if (i > 0)
+      {
+        buffer.append(", ");
+      }
+
+      buffer.append('\'');
+      buffer.append(placeholders.get(i));
+      buffer.append('\'');
+    }
+
+    buffer.append("}, request=");
+    request.toString(buffer);
+    buffer.append(')');
+  }
+}
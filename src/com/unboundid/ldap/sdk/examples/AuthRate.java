@@ -24,9 +24,11 @@ package com.unboundid.ldap.sdk.examples;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.PrintWriter;
 import java.io.Serializable;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -49,6 +51,7 @@ import com.unboundid.util.FixedRateBarrier;
 import com.unboundid.util.FormattableColumn;
 import com.unboundid.util.HorizontalAlignment;
 import com.unboundid.util.LDAPCommandLineTool;
+import com.unboundid.util.LatencyHistogram;
 import com.unboundid.util.ObjectPair;
 import com.unboundid.util.OutputFormat;
 import com.unboundid.util.RateAdjustor;
@@ -157,7 +160,40 @@ import static com.unboundid.util.StaticUtils.*;
  *       result codes for failed operations should not be displayed.</LI>
  *   <LI>"-c" or "--csv" -- Generate output in CSV format rather than a
  *       display-friendly format.</LI>
+ *   <LI>"--histogramLogFile {path}" -- specifies the path to a file to which
+ *       a histogram of the authentication response times for each interval
+ *       should be written for offline analysis.</LI>
+ *   <LI>"--openLoopThreads {num}" -- specifies the number of threads to use
+ *       to schedule requests in open-loop mode.  In this mode, requests are
+ *       scheduled at the target rate regardless of how quickly the server
+ *       responds to earlier requests.  Because binds cannot be processed
+ *       asynchronously, the threads specified by the "--numThreads" argument
+ *       will process the authentications as they are scheduled, and any time
+ *       an authentication spends waiting for a thread to become available
+ *       will be included in its response time.  Either the "--ratePerSecond"
+ *       or "--variableRateData" argument must also be provided.</LI>
+ *   <LI>"--arrivalDistribution {constant|poisson}" -- specifies how requests
+ *       should be spaced in open-loop mode.  A value of "constant" indicates
+ *       that they should be evenly spaced, and a value of "poisson" indicates
+ *       that they should arrive at random times according to a Poisson
+ *       process.  If this is not provided, then "constant" will be used.</LI>
+ *   <LI>"--workerAddress {host:port}" -- specifies the address of a
+ *       {@link RateToolWorker} that should generate the load.  If this is
+ *       provided (and it may be provided multiple times), then this tool will
+ *       act as a coordinator that sends its other arguments to each of the
+ *       workers, starts all of them at the same time, and displays the merged
+ *       statistics that they gather for each interval.  The arguments are
+ *       sent to the workers without encryption, so a password file should be
+ *       used rather than a literal password with workers that are not on the
+ *       local system.</LI>
  * </UL>
+ * <BR><BR>
+ * Response times are measured from the time that each authentication was
+ * scheduled to begin rather than the time it actually began, so that when a
+ * target rate is in use, any time spent waiting for a slow response to an
+ * earlier request is reflected in the response times.  For each interval, the
+ * tool displays the 50th, 90th, 99th, and 99.9th percentile and maximum
+ * response times in addition to the average.
  */
 @ThreadSafety(level=ThreadSafetyLevel.NOT_THREADSAFE)
 public final class AuthRate
@@ -201,6 +237,10 @@ public final class AuthRate
   // requests.
   private ControlArgument searchControl;
 
+  // The argument used to specify a file to which response time histograms
+  // should be written.
+  private FileArgument histogramLogFile;
+
   // The argument used to specify a variable rate file.
   private FileArgument sampleRateFile;
 
@@ -216,6 +256,10 @@ public final class AuthRate
   // The argument used to specify the number of threads.
   private IntegerArgument numThreads;
 
+  // The argument used to specify the number of threads to use to schedule
+  // requests in open-loop mode.
+  private IntegerArgument openLoopThreads;
+
   // The argument used to specify the seed to use for the random number
   // generator.
   private IntegerArgument randomSeed;
@@ -226,6 +270,10 @@ public final class AuthRate
   // The number of warm-up intervals to perform.
   private IntegerArgument warmUpIntervals;
 
+  // The argument used to specify the arrival distribution to use in open-loop
+  // mode.
+  private StringArgument arrivalDistribution;
+
   // The argument used to specify the attributes to return.
   private StringArgument attributes;
 
@@ -247,6 +295,15 @@ public final class AuthRate
   // The argument used to specify the password to use to authenticate.
   private StringArgument userPassword;
 
+  // The argument used to specify the addresses of workers to coordinate.
+  private StringArgument workerAddress;
+
+  // The argument parser used by this tool.
+  private ArgumentParser parser;
+
+  // The session with the coordinator, if this tool is running as a worker.
+  private volatile RateToolWorkerSession workerSession;
+
   // The thread currently being used to run the searchrate tool.
   private volatile Thread runningThread;
 
@@ -478,6 +535,8 @@ public final class AuthRate
   public void addNonLDAPArguments(final ArgumentParser parser)
          throws ArgumentException
   {
+    this.parser = parser;
+
     String description = "The base DN to use for the searches.  It may be a " +
          "simple DN or a value pattern to specify a range of DNs (e.g., " +
          "\"uid=user.[1-1000],ou=People,dc=example,dc=com\").  See " +
@@ -703,11 +762,76 @@ public final class AuthRate
     csvFormat = new BooleanArgument('c', "csv", 1, description);
     parser.addArgument(csvFormat);
 
+    description = "Specifies the path to a file to which a histogram of the " +
+                  "authentication response times for each interval should be " +
+                  "written for offline analysis.";
+    histogramLogFile = new FileArgument(null, "histogramLogFile", false, 1,
+         "{path}", description, false, true, true, false);
+    histogramLogFile.addLongIdentifier("histogram-log-file", true);
+    parser.addArgument(histogramLogFile);
+
+    description = "Specifies the number of threads to use to schedule " +
+                  "authentications in open-loop mode, in which they are " +
+                  "scheduled at the target rate regardless of how quickly " +
+                  "the server responds to earlier requests.  In this mode, " +
+                  "the threads specified by the '--numThreads' argument " +
+                  "will process the authentications as they are " +
+                  "scheduled, and any time an authentication spends " +
+                  "waiting for a thread will be included in its response " +
+                  "time.  Either the '--ratePerSecond' or the " +
+                  "'--variableRateData' argument must also be provided.";
+    openLoopThreads = new IntegerArgument(null, "openLoopThreads", false, 1,
+         "{num}", description, 1, Integer.MAX_VALUE, (Integer) null);
+    openLoopThreads.addLongIdentifier("open-loop-threads", true);
+    parser.addArgument(openLoopThreads);
+
+    description = "Specifies how requests should be spaced in open-loop " +
+                  "mode.  A value of 'constant' indicates that they should " +
+                  "be evenly spaced, and a value of 'poisson' indicates " +
+                  "that they should arrive at random times according to a " +
+                  "Poisson process.";
+    final LinkedHashSet<String> allowedDistributions =
+         new LinkedHashSet<String>(2);
+    allowedDistributions.add(
+         OpenLoopLoadGenerator.ARRIVAL_DISTRIBUTION_CONSTANT);
+    allowedDistributions.add(
+         OpenLoopLoadGenerator.ARRIVAL_DISTRIBUTION_POISSON);
+    arrivalDistribution = new StringArgument(null, "arrivalDistribution",
+         false, 1, "{constant|poisson}", description, allowedDistributions,
+         OpenLoopLoadGenerator.ARRIVAL_DISTRIBUTION_CONSTANT);
+    arrivalDistribution.addLongIdentifier("arrival-distribution", true);
+    parser.addArgument(arrivalDistribution);
+
     description = "Specifies the seed to use for the random number generator.";
     randomSeed = new IntegerArgument('R', "randomSeed", false, 1, "{value}",
          description);
     randomSeed.addLongIdentifier("random-seed", true);
     parser.addArgument(randomSeed);
+
+    description = "Specifies the address, in the form host:port, of a " +
+                  "rate-tool-worker process that should generate the load " +
+                  "on behalf of this tool.  If this is provided, then this " +
+                  "tool will not connect to the directory server itself, " +
+                  "but will send its other arguments to each of the " +
+                  "workers, start all of them at the same time, and " +
+                  "display the merged results for each interval.  Any " +
+                  "target rate applies to each worker individually.  This " +
+                  "may be provided multiple times to use multiple workers.  " +
+                  "The arguments, including any bind password, are sent to " +
+                  "the workers without encryption, so a password file " +
+                  "should be used instead of a literal password with " +
+                  "workers that are not on the local system.";
+    workerAddress = new StringArgument(null, "workerAddress", false, 0,
+         "{host:port}", description);
+    workerAddress.addLongIdentifier("worker-address", true);
+    parser.addArgument(workerAddress);
+
+
+    // Open-loop mode requires a target rate.
+    parser.addDependentArgumentSet(openLoopThreads, ratePerSecond,
+         variableRateData);
+    parser.addDependentArgumentSet(arrivalDistribution, openLoopThreads);
+    parser.addExclusiveArgumentSet(workerAddress, sampleRateFile);
   }
 
 
@@ -865,7 +989,8 @@ public final class AuthRate
            ? Integer.MAX_VALUE
            : ratePerSecond.getValue() * intervalSeconds;
       fixedRateBarrier =
-           new FixedRateBarrier(1000L * intervalSeconds, ratePerInterval);
+           new FixedRateBarrier(1000L * intervalSeconds, ratePerInterval,
+                false);
     }
 
 
@@ -957,7 +1082,7 @@ public final class AuthRate
     }
 
     final ColumnFormatter formatter = new ColumnFormatter(includeTimestamp,
-         timeFormat, outputFormat, " ",
+         timeFormat, outputFormat, " ", LatencyHistogramTracker.appendColumns(
          new FormattableColumn(12, HorizontalAlignment.RIGHT, "Recent",
                   "Auths/Sec"),
          new FormattableColumn(12, HorizontalAlignment.RIGHT, "Recent",
@@ -967,7 +1092,34 @@ public final class AuthRate
          new FormattableColumn(12, HorizontalAlignment.RIGHT, "Overall",
                   "Auths/Sec"),
          new FormattableColumn(12, HorizontalAlignment.RIGHT, "Overall",
-                  "Avg Dur ms"));
+                  "Avg Dur ms")));
+
+
+    // Create the tracker that will be used for the response time histograms,
+    // and the histogram log if one was requested.
+    final LatencyHistogramTracker latencyTracker;
+    try
+    {
+      final PrintWriter logWriter = LatencyHistogramTracker.createLogWriter(
+           histogramLogFile.getValue(), getToolName());
+      latencyTracker = new LatencyHistogramTracker("bind", logWriter);
+    }
+    catch (final IOException ioe)
+    {
+      debugException(ioe);
+      err("Unable to create histogram log file ",
+           histogramLogFile.getValue().getAbsolutePath(), ":  ",
+           getExceptionMessage(ioe));
+      return ResultCode.LOCAL_ERROR;
+    }
+
+
+    // If any workers were specified, then they will generate the load and this
+    // tool will only display the merged results.
+    if (workerAddress.isPresent())
+    {
+      return runAsCoordinator(formatter, latencyTracker);
+    }
 
 
     // Create values to use for statistics collection.
@@ -981,6 +1133,23 @@ public final class AuthRate
     final long intervalMillis = 1000L * collectionInterval.getValue();
 
 
+    // If open-loop mode was requested, then create the queue that the threads
+    // will use to obtain the authentications scheduled by the generator.  The
+    // threads will not use the fixed-rate barrier in that case.
+    final OpenLoopTaskQueue taskQueue;
+    final FixedRateBarrier threadRateBarrier;
+    if (openLoopThreads.isPresent())
+    {
+      taskQueue = new OpenLoopTaskQueue();
+      threadRateBarrier = null;
+    }
+    else
+    {
+      taskQueue = null;
+      threadRateBarrier = fixedRateBarrier;
+    }
+
+
     // Create the threads to use for the searches.
     final CyclicBarrier barrier = new CyclicBarrier(numThreads.getValue() + 1);
     final AuthRateThread[] threads = new AuthRateThread[numThreads.getValue()];
@@ -1005,11 +1174,32 @@ public final class AuthRate
            dnPattern, scopeArg.getValue(), filterPattern, attrs,
            userPassword.getValue(), bindOnly.isPresent(), authType.getValue(),
            searchControl.getValues(), bindControls, barrier, authCounter,
-           authDurations, errorCounter, rcCounter, fixedRateBarrier);
+           authDurations, latencyTracker.createThreadHistogram(), errorCounter,
+           rcCounter, threadRateBarrier, taskQueue);
       threads[i].start();
     }
 
 
+    // If open-loop mode was requested, then create the generator that will
+    // schedule the authentications for the threads.  All of its scheduler
+    // threads will share the same queue.
+    final OpenLoopLoadGenerator loadGenerator;
+    if (openLoopThreads.isPresent())
+    {
+      final int maxOutstanding = threads.length *
+           OpenLoopLoadGenerator.DEFAULT_MAX_OUTSTANDING_REQUESTS_PER_SENDER;
+      loadGenerator = new OpenLoopLoadGenerator(getToolName(),
+           Collections.nCopies(openLoopThreads.getValue(), taskQueue),
+           openLoopThreads.getValue(),
+           fixedRateBarrier, arrivalDistribution.getValue(), maxOutstanding,
+           ((seed == null) ? System.nanoTime() : seed));
+    }
+    else
+    {
+      loadGenerator = null;
+    }
+
+
     // Display the table header.
     for (final String headerLine : formatter.getHeaderLines(true))
     {
@@ -1017,6 +1207,14 @@ public final class AuthRate
     }
 
 
+    // If this tool is running as a worker, then wait until the coordinator
+    // says that all of the workers should start.
+    if ((workerSession != null) && (! workerSession.waitForStartTime()))
+    {
+      stopRequested.set(true);
+    }
+
+
     // Start the RateAdjustor before the threads so that the initial value is
     // in place before any load is generated unless we're doing a warm-up in
     // which case, we'll start it after the warm-up is complete.
@@ -1036,6 +1234,11 @@ public final class AuthRate
       debugException(e);
     }
 
+    if (loadGenerator != null)
+    {
+      loadGenerator.start();
+    }
+
     long overallStartTime = System.nanoTime();
     long nextIntervalStartTime = System.currentTimeMillis() + intervalMillis;
 
@@ -1072,10 +1275,13 @@ public final class AuthRate
 
       final long endTime          = System.nanoTime();
       final long intervalDuration = endTime - lastEndTime;
+      final boolean warmingUp     = warmUp && (remainingWarmUpIntervals > 0);
 
       final long numAuths;
       final long numErrors;
       final long totalDuration;
+      final LatencyHistogram recentHistogram = latencyTracker.collectInterval(
+           ! (warmUp && (remainingWarmUpIntervals > 0)));
       if (warmUp && (remainingWarmUpIntervals > 0))
       {
         numAuths      = authCounter.getAndSet(0L);
@@ -1109,8 +1315,9 @@ public final class AuthRate
 
       if (warmUp && (remainingWarmUpIntervals > 0))
       {
-        out(formatter.formatRow(recentAuthRate, recentAvgDuration,
-             recentErrorRate, "warming up", "warming up"));
+        out(formatter.formatRow(LatencyHistogramTracker.appendColumnValues(
+             recentHistogram, recentAuthRate, recentAvgDuration,
+             recentErrorRate, "warming up", "warming up")));
 
         remainingWarmUpIntervals--;
         if (remainingWarmUpIntervals == 0)
@@ -1145,8 +1352,9 @@ public final class AuthRate
           overallAvgDuration = 0.0d;
         }
 
-        out(formatter.formatRow(recentAuthRate, recentAvgDuration,
-             recentErrorRate, overallAuthRate, overallAvgDuration));
+        out(formatter.formatRow(LatencyHistogramTracker.appendColumnValues(
+             recentHistogram, recentAuthRate, recentAvgDuration,
+             recentErrorRate, overallAuthRate, overallAvgDuration)));
 
         lastNumAuths    = numAuths;
         lastNumErrors   = numErrors;
@@ -1165,6 +1373,15 @@ public final class AuthRate
       }
 
       lastEndTime = endTime;
+
+      if ((workerSession != null) &&
+          (! workerSession.sendInterval(new RateToolIntervalData(
+               intervalDuration, warmingUp,
+               new long[] { recentNumAuths, recentNumErrors, recentDuration },
+               new LatencyHistogram[] { recentHistogram }, rcCounts))))
+      {
+        break;
+      }
     }
 
 
@@ -1175,7 +1392,14 @@ public final class AuthRate
     }
 
 
-    // Stop all of the threads.
+    // Stop the open-loop generator, if there is one, and all of the threads.
+    // The generator must be stopped first so that the threads can complete
+    // any authentications that have already been scheduled.
+    if (loadGenerator != null)
+    {
+      loadGenerator.stopRunning();
+    }
+
     ResultCode resultCode = ResultCode.SUCCESS;
     for (final AuthRateThread t : threads)
     {
@@ -1186,11 +1410,95 @@ public final class AuthRate
       }
     }
 
+    latencyTracker.close();
     return resultCode;
   }
 
 
 
+  /**
+   * Runs this tool as a coordinator, in which the load is generated by the
+   * workers specified with the "--workerAddress" argument, and the statistics
+   * that they gather for each interval are merged and displayed.
+   *
+   * @param  formatter       The formatter to use to display the results.
+   * @param  latencyTracker  The tracker whose histogram log (if any) should be
+   *                         updated with the merged response times.
+   *
+   * @return  The result code for the processing that was performed.
+   */
+  private ResultCode runAsCoordinator(final ColumnFormatter formatter,
+                          final LatencyHistogramTracker latencyTracker)
+  {
+    final RateToolCoordinator.IntervalHandler handler =
+         new RateToolCoordinator.IntervalHandler()
+    {
+      @Override()
+      public Object[] getColumnValues(final RateToolIntervalData data,
+                                      final long[] overallCounters,
+                                      final long overallNanos)
+      {
+        final Object overallAuthRate;
+        final Object overallAvgDuration;
+        if (overallCounters == null)
+        {
+          overallAuthRate    = "warming up";
+          overallAvgDuration = "warming up";
+        }
+        else
+        {
+          overallAuthRate = RateToolCoordinator.getRate(overallCounters[0],
+               overallNanos);
+          overallAvgDuration = RateToolCoordinator.getAverageMillis(
+               overallCounters[2], overallCounters[0]);
+        }
+
+        return LatencyHistogramTracker.appendColumnValues(
+             data.getHistogram(0),
+             RateToolCoordinator.getRate(data.getCounter(0),
+                  data.getDurationNanos()),
+             RateToolCoordinator.getAverageMillis(data.getCounter(2),
+                  data.getCounter(0)),
+             RateToolCoordinator.getRate(data.getCounter(1),
+                  data.getDurationNanos()),
+             overallAuthRate, overallAvgDuration);
+      }
+
+      @Override()
+      public void logInterval(final RateToolIntervalData data)
+      {
+        latencyTracker.logInterval(data.getHistogram(0));
+      }
+    };
+
+    try
+    {
+      return RateToolCoordinator.run(this, parser, workerAddress.getValues(),
+           stopRequested, suppressErrorsArgument.isPresent(), formatter,
+           handler, workerAddress, histogramLogFile);
+    }
+    finally
+    {
+      latencyTracker.close();
+    }
+  }
+
+
+
+  /**
+   * Specifies the session with the coordinator that this tool should use when
+   * it is running as a {@link RateToolWorker}.  This must be called before the
+   * tool is run.
+   *
+   * @param  workerSession  The session with the coordinator.
+   */
+  void setWorkerSession(final RateToolWorkerSession workerSession)
+  {
+    this.workerSession = workerSession;
+  }
+
+
+
   /**
    * Requests that this tool stop running.  This method will attempt to wait
    * for all threads to complete before returning control to the caller.
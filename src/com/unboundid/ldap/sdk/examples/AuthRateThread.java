@@ -43,6 +43,7 @@ import com.unboundid.ldap.sdk.SearchScope;
 import com.unboundid.ldap.sdk.SimpleBindRequest;
 import com.unboundid.util.Debug;
 import com.unboundid.util.FixedRateBarrier;
+import com.unboundid.util.LatencyHistogram;
 import com.unboundid.util.ResultCodeCounter;
 import com.unboundid.util.StaticUtils;
 import com.unboundid.util.ValuePattern;
@@ -51,7 +52,10 @@ import com.unboundid.util.ValuePattern;
 
 /**
  * This class provides a thread that may be used to repeatedly perform
- * authentication processing.
+ * authentication processing.  When the authrate tool is operating in open-loop
+ * mode, the thread will process authentications as they are scheduled by an
+ * {@link OpenLoopLoadGenerator} and placed into an {@link OpenLoopTaskQueue},
+ * since binds cannot be processed asynchronously.
  */
 final class AuthRateThread
       extends Thread
@@ -97,6 +101,9 @@ final class AuthRateThread
   // The value that will be updated with total duration of the searches.
   private final AtomicLong authDurations;
 
+  // The histogram used to track the authentication response times.
+  private final LatencyHistogram authHistogram;
+
   // The counter used to track the number of errors encountered while searching.
   private final AtomicLong errorCounter;
 
@@ -147,6 +154,10 @@ final class AuthRateThread
   // rate-limiting should be used.
   private final FixedRateBarrier fixedRateBarrier;
 
+  // The queue from which to obtain the scheduled times for authentications in
+  // open-loop mode.  null if the tool is not operating in open-loop mode.
+  private final OpenLoopTaskQueue taskQueue;
+
 
 
   /**
@@ -174,6 +185,8 @@ final class AuthRateThread
    *                           total number of authentications performed.
    * @param  authDurations     A value that will be used to keep track of the
    *                           total duration for all authentications.
+   * @param  authHistogram     The histogram used to track the authentication
+   *                           response times.
    * @param  errorCounter      A value that will be used to keep track of the
    *                           number of errors encountered while searching.
    * @param  rcCounter         The result code counter to use for keeping track
@@ -181,6 +194,10 @@ final class AuthRateThread
    * @param  rateBarrier       The barrier to use for controlling the rate of
    *                           authorizations.  {@code null} if no rate-limiting
    *                           should be used.
+   * @param  taskQueue         The queue from which to obtain the scheduled
+   *                           times for authentications in open-loop mode.
+   *                           {@code null} if the tool is not operating in
+   *                           open-loop mode.
    */
   AuthRateThread(final AuthRate authRate, final int threadNumber,
                  final LDAPConnection searchConnection,
@@ -192,9 +209,11 @@ final class AuthRateThread
                  final List<Control> bindControls,
                  final CyclicBarrier startBarrier,
                  final AtomicLong authCounter, final AtomicLong authDurations,
+                 final LatencyHistogram authHistogram,
                  final AtomicLong errorCounter,
                  final ResultCodeCounter rcCounter,
-                 final FixedRateBarrier rateBarrier)
+                 final FixedRateBarrier rateBarrier,
+                 final OpenLoopTaskQueue taskQueue)
   {
     setName("AuthRate Thread " + threadNumber);
     setDaemon(true);
@@ -208,9 +227,11 @@ final class AuthRateThread
     this.bindOnly         = bindOnly;
     this.authCounter      = authCounter;
     this.authDurations    = authDurations;
+    this.authHistogram    = authHistogram;
     this.errorCounter     = errorCounter;
     this.rcCounter        = rcCounter;
     this.startBarrier     = startBarrier;
+    this.taskQueue        = taskQueue;
     fixedRateBarrier      = rateBarrier;
 
     searchConnection.setConnectionName("search-" + threadNumber);
@@ -272,62 +293,171 @@ final class AuthRateThread
 
     while (! stopRequested.get())
     {
-      if (searchConnection == null)
+      // In open-loop mode, wait for the generator to schedule the next
+      // authentication.  The task must be marked completed however this
+      // iteration ends.
+      final Long scheduledTime;
+      if (taskQueue == null)
       {
-        try
+        scheduledTime = null;
+      }
+      else
+      {
+        scheduledTime = taskQueue.nextScheduledTime(stopRequested);
+        if (scheduledTime == null)
         {
-          searchConnection = authRate.getConnection();
+          break;
         }
-        catch (final LDAPException le)
+      }
+
+      try
+      {
+        if (searchConnection == null)
         {
-          Debug.debugException(le);
+          try
+          {
+            searchConnection = authRate.getConnection();
+          }
+          catch (final LDAPException le)
+          {
+            Debug.debugException(le);
 
-          errorCounter.incrementAndGet();
+            errorCounter.incrementAndGet();
 
-          final ResultCode rc = le.getResultCode();
-          rcCounter.increment(rc);
-          resultCode.compareAndSet(null, rc);
+            final ResultCode rc = le.getResultCode();
+            rcCounter.increment(rc);
+            resultCode.compareAndSet(null, rc);
 
-          if (fixedRateBarrier != null)
-          {
-            fixedRateBarrier.await();
-          }
+            if (fixedRateBarrier != null)
+            {
+              fixedRateBarrier.await();
+            }
 
-          continue;
+            continue;
+          }
         }
-      }
 
-      if (bindConnection == null)
-      {
-        try
-        {
-          bindConnection = authRate.getConnection();
-        }
-        catch (final LDAPException le)
+        if (bindConnection == null)
         {
-          Debug.debugException(le);
+          try
+          {
+            bindConnection = authRate.getConnection();
+          }
+          catch (final LDAPException le)
+          {
+            Debug.debugException(le);
 
-          errorCounter.incrementAndGet();
+            errorCounter.incrementAndGet();
 
-          final ResultCode rc = le.getResultCode();
-          rcCounter.increment(rc);
-          resultCode.compareAndSet(null, rc);
+            final ResultCode rc = le.getResultCode();
+            rcCounter.increment(rc);
+            resultCode.compareAndSet(null, rc);
+
+            if (fixedRateBarrier != null)
+            {
+              fixedRateBarrier.await();
+            }
+
+            continue;
+          }
+        }
 
-          if (fixedRateBarrier != null)
+        if (! bindOnly)
+        {
+          try
           {
-            fixedRateBarrier.await();
+            searchRequest.setBaseDN(baseDN.nextValue());
+            searchRequest.setFilter(filter.nextValue());
           }
+          catch (final LDAPException le)
+          {
+            Debug.debugException(le);
+            errorCounter.incrementAndGet();
 
-          continue;
+            final ResultCode rc = le.getResultCode();
+            rcCounter.increment(rc);
+            resultCode.compareAndSet(null, rc);
+            continue;
+          }
+        }
+
+        // If we're trying for a specific target rate, then we might need to
+        // wait until starting the next authorization.  In that case, the
+        // response time will be measured from the time that the authorization
+        // was scheduled to start, so that any delay in starting it is included.
+        // The same is true in open-loop mode, in which the time spent waiting
+        // for a thread to become available is also included.
+        final long startTime;
+        if (scheduledTime != null)
+        {
+          startTime = scheduledTime;
+        }
+        else if (fixedRateBarrier == null)
+        {
+          startTime = System.nanoTime();
+        }
+        else
+        {
+          startTime = fixedRateBarrier.awaitScheduledTime();
         }
-      }
 
-      if (! bindOnly)
-      {
         try
         {
-          searchRequest.setBaseDN(baseDN.nextValue());
-          searchRequest.setFilter(filter.nextValue());
+          final String bindDN;
+          if (bindOnly)
+          {
+            bindDN = baseDN.nextValue();
+          }
+          else
+          {
+            final SearchResult r = searchConnection.search(searchRequest);
+            switch (r.getEntryCount())
+            {
+              case 0:
+                errorCounter.incrementAndGet();
+                rcCounter.increment(ResultCode.NO_RESULTS_RETURNED);
+                resultCode.compareAndSet(null, ResultCode.NO_RESULTS_RETURNED);
+                continue;
+
+              case 1:
+                // This is acceptable, and we can continue processing.
+                bindDN = r.getSearchEntries().get(0).getDN();
+                break;
+
+              default:
+                errorCounter.incrementAndGet();
+                rcCounter.increment(ResultCode.MORE_RESULTS_TO_RETURN);
+                resultCode.compareAndSet(null,
+                     ResultCode.MORE_RESULTS_TO_RETURN);
+                continue;
+            }
+          }
+
+          BindRequest bindRequest = null;
+          switch (authType)
+          {
+            case AUTH_TYPE_SIMPLE:
+              bindRequest =
+                   new SimpleBindRequest(bindDN, userPassword, bindControls);
+              break;
+
+            case AUTH_TYPE_CRAM_MD5:
+              bindRequest = new CRAMMD5BindRequest("dn:" + bindDN, userPassword,
+                   bindControls);
+              break;
+
+            case AUTH_TYPE_DIGEST_MD5:
+              bindRequest = new DIGESTMD5BindRequest("dn:" + bindDN, null,
+                   userPassword, null, bindControls);
+              break;
+
+            case AUTH_TYPE_PLAIN:
+              bindRequest = new PLAINBindRequest("dn:" + bindDN, userPassword,
+                   bindControls);
+              break;
+          }
+
+          bindConnection.bind(bindRequest);
         }
         catch (final LDAPException le)
         {
@@ -337,99 +467,31 @@ final class AuthRateThread
           final ResultCode rc = le.getResultCode();
           rcCounter.increment(rc);
           resultCode.compareAndSet(null, rc);
-          continue;
-        }
-      }
-
-      // If we're trying for a specific target rate, then we might need to
-      // wait until starting the next authorization.
-      if (fixedRateBarrier != null)
-      {
-        fixedRateBarrier.await();
-      }
-
-      final long startTime = System.nanoTime();
 
-      try
-      {
-        final String bindDN;
-        if (bindOnly)
-        {
-          bindDN = baseDN.nextValue();
-        }
-        else
-        {
-          final SearchResult r = searchConnection.search(searchRequest);
-          switch (r.getEntryCount())
+          if (! le.getResultCode().isConnectionUsable())
           {
-            case 0:
-              errorCounter.incrementAndGet();
-              rcCounter.increment(ResultCode.NO_RESULTS_RETURNED);
-              resultCode.compareAndSet(null, ResultCode.NO_RESULTS_RETURNED);
-              continue;
-
-            case 1:
-              // This is acceptable, and we can continue processing.
-              bindDN = r.getSearchEntries().get(0).getDN();
-              break;
+            searchConnection.close();
+            searchConnection = null;
 
-            default:
-              errorCounter.incrementAndGet();
-              rcCounter.increment(ResultCode.MORE_RESULTS_TO_RETURN);
-              resultCode.compareAndSet(null, ResultCode.MORE_RESULTS_TO_RETURN);
-              continue;
+            bindConnection.close();
+            bindConnection = null;
           }
         }
-
-        BindRequest bindRequest = null;
-        switch (authType)
+        finally
         {
-          case AUTH_TYPE_SIMPLE:
-            bindRequest =
-                 new SimpleBindRequest(bindDN, userPassword, bindControls);
-            break;
-
-          case AUTH_TYPE_CRAM_MD5:
-            bindRequest = new CRAMMD5BindRequest("dn:" + bindDN, userPassword,
-                 bindControls);
-            break;
-
-          case AUTH_TYPE_DIGEST_MD5:
-            bindRequest = new DIGESTMD5BindRequest("dn:" + bindDN, null,
-                 userPassword, null, bindControls);
-            break;
-
-          case AUTH_TYPE_PLAIN:
-            bindRequest = new PLAINBindRequest("dn:" + bindDN, userPassword,
-                 bindControls);
-            break;
+          final long duration = System.nanoTime() - startTime;
+          authCounter.incrementAndGet();
+          authDurations.addAndGet(duration);
+          authHistogram.recordValue(duration);
         }
-
-        bindConnection.bind(bindRequest);
       }
-      catch (final LDAPException le)
+      finally
       {
-        Debug.debugException(le);
-        errorCounter.incrementAndGet();
-
-        final ResultCode rc = le.getResultCode();
-        rcCounter.increment(rc);
-        resultCode.compareAndSet(null, rc);
-
-        if (! le.getResultCode().isConnectionUsable())
+        if (scheduledTime != null)
         {
-          searchConnection.close();
-          searchConnection = null;
-
-          bindConnection.close();
-          bindConnection = null;
+          taskQueue.taskCompleted();
         }
       }
-      finally
-      {
-        authCounter.incrementAndGet();
-        authDurations.addAndGet(System.nanoTime() - startTime);
-      }
     }
 
     if (searchConnection != null)
@@ -22,18 +22,25 @@ package com.unboundid.ldap.sdk.examples;
 
 
 
+import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 import com.unboundid.asn1.ASN1OctetString;
+import com.unboundid.ldap.matchingrules.MatchingRule;
 import com.unboundid.ldap.sdk.Attribute;
 import com.unboundid.ldap.sdk.DereferencePolicy;
 import com.unboundid.ldap.sdk.DN;
@@ -52,8 +59,10 @@ import com.unboundid.ldap.sdk.SearchScope;
 import com.unboundid.ldap.sdk.Version;
 import com.unboundid.ldap.sdk.controls.SimplePagedResultsControl;
 import com.unboundid.ldap.sdk.extensions.CancelExtendedRequest;
+import com.unboundid.ldap.sdk.schema.Schema;
 import com.unboundid.util.Debug;
 import com.unboundid.util.LDAPCommandLineTool;
+import com.unboundid.util.LDAPSDKThreadFactory;
 import com.unboundid.util.StaticUtils;
 import com.unboundid.util.ThreadSafety;
 import com.unboundid.util.ThreadSafetyLevel;
@@ -96,6 +105,22 @@ import com.unboundid.util.args.StringArgument;
  *       results control to iterate across entries in fixed-size pages rather
  *       than trying to use a single search to identify all entries containing
  *       unique attributes.</LI>
+ *   <LI>"--conflictDetectionMode {mode}" -- specifies the way in which the
+ *       tool should find conflicts for the unique attribute values that it
+ *       encounters.  Allowed values include search-per-value (issue a separate
+ *       search for each value), batched-search (issue searches that combine
+ *       many values in an OR filter), and local-map (find conflicts using the
+ *       values retrieved while iterating across the entries, without any
+ *       additional searches).  The batched-search and local-map modes cannot
+ *       be used with the unique-in-combination behavior.</LI>
+ *   <LI>"--valuesPerSearch {num}" -- specifies the maximum number of values
+ *       to include in each search in the batched-search mode.</LI>
+ *   <LI>"--numConcurrentSearches {num}" -- specifies the maximum number of
+ *       searches to have in progress at the same time in the batched-search
+ *       mode.</LI>
+ *   <LI>"--maxInMemoryValues {num}" -- specifies the maximum number of values
+ *       to hold in memory in the local-map mode before writing them to sorted
+ *       temporary files.</LI>
  * </UL>
  */
 @ThreadSafety(level=ThreadSafetyLevel.NOT_THREADSAFE)
@@ -141,6 +166,30 @@ public final class IdentifyUniqueAttributeConflicts
 
 
 
+  /**
+   * The conflict detection mode value that indicates that a separate search
+   * should be issued for each unique attribute value.
+   */
+  private static final String MODE_SEARCH_PER_VALUE = "search-per-value";
+
+
+
+  /**
+   * The conflict detection mode value that indicates that searches should be
+   * issued for batches of unique attribute values.
+   */
+  private static final String MODE_BATCHED_SEARCH = "batched-search";
+
+
+
+  /**
+   * The conflict detection mode value that indicates that conflicts should be
+   * found using a local map of the unique attribute values.
+   */
+  private static final String MODE_LOCAL_MAP = "local-map";
+
+
+
   /**
    * The default value for the timeLimit argument.
    */
@@ -148,6 +197,27 @@ public final class IdentifyUniqueAttributeConflicts
 
 
 
+  /**
+   * The default value for the valuesPerSearch argument.
+   */
+  private static final int DEFAULT_VALUES_PER_SEARCH = 100;
+
+
+
+  /**
+   * The default value for the numConcurrentSearches argument.
+   */
+  private static final int DEFAULT_NUM_CONCURRENT_SEARCHES = 10;
+
+
+
+  /**
+   * The default value for the maxInMemoryValues argument.
+   */
+  private static final int DEFAULT_MAX_IN_MEMORY_VALUES = 1000000;
+
+
+
   /**
    * The serial version UID for this serializable class.
    */
@@ -190,6 +260,38 @@ public final class IdentifyUniqueAttributeConflicts
   // conflicting entries.
   private IntegerArgument timeLimitArgument;
 
+  // The argument used to specify the maximum number of values to hold in
+  // memory in the local-map mode.
+  private IntegerArgument maxInMemoryValuesArgument;
+
+  // The argument used to specify the number of concurrent searches in the
+  // batched-search mode.
+  private IntegerArgument numConcurrentSearchesArgument;
+
+  // The argument used to specify the number of values per search in the
+  // batched-search mode.
+  private IntegerArgument valuesPerSearchArgument;
+
+  // The values that have been accumulated for the next batched search.
+  private List<UniqueAttributeValue> pendingBatch;
+
+  // The matching rules to use for each of the unique attributes, indexed by
+  // the attribute name.
+  private Map<String,MatchingRule> matchingRules;
+
+  // The semaphore used to limit the number of batched searches in progress.
+  private Semaphore batchSemaphore;
+
+  // The executor used to process batched searches.
+  private ThreadPoolExecutor batchExecutor;
+
+  // The index used to find conflicts in the local-map mode.
+  private UniqueAttributeValueIndex valueIndex;
+
+  // The first error encountered while adding values to the index in the
+  // local-map mode.
+  private volatile IOException valueIndexException;
+
   // The connection to use for finding unique attribute conflicts.
   private LDAPConnectionPool findConflictsPool;
 
@@ -210,6 +312,9 @@ public final class IdentifyUniqueAttributeConflicts
   // multiple attributes are specified.
   private StringArgument multipleAttributeBehaviorArgument;
 
+  // The argument used to specify the conflict detection mode.
+  private StringArgument conflictDetectionModeArgument;
+
 
   /**
    * Parse the provided command line arguments and perform the appropriate
@@ -280,6 +385,16 @@ public final class IdentifyUniqueAttributeConflicts
     attributes = null;
     baseDNs = null;
     timeLimitArgument = null;
+    conflictDetectionModeArgument = null;
+    valuesPerSearchArgument = null;
+    numConcurrentSearchesArgument = null;
+    maxInMemoryValuesArgument = null;
+    pendingBatch = null;
+    matchingRules = null;
+    batchSemaphore = null;
+    batchExecutor = null;
+    valueIndex = null;
+    valueIndexException = null;
 
     timeLimitExceeded = new AtomicBoolean(false);
     entriesExamined = new AtomicLong(0L);
@@ -532,6 +647,96 @@ public final class IdentifyUniqueAttributeConflicts
     timeLimitArgument.addLongIdentifier("time-limit", true);
 
     parser.addArgument(timeLimitArgument);
+
+    description = "The way in which the tool should find conflicts for the " +
+         "unique attribute values that it encounters.  Allowed values are '" +
+         MODE_SEARCH_PER_VALUE + "' (issue a separate search for each " +
+         "value), '" + MODE_BATCHED_SEARCH + "' (issue searches that each " +
+         "combine many values in an OR filter, with several of those " +
+         "searches in progress at the same time), and '" + MODE_LOCAL_MAP +
+         "' (find conflicts using only the values retrieved while iterating " +
+         "across the entries, without issuing any additional searches).  " +
+         "The '" + MODE_LOCAL_MAP + "' mode uses client-side matching rules " +
+         "to compare values, which may not exactly match the behavior of " +
+         "the server.  Neither the '" + MODE_BATCHED_SEARCH + "' nor the '" +
+         MODE_LOCAL_MAP + "' mode may be used with the '" +
+         BEHAVIOR_UNIQUE_IN_COMBINATION + "' behavior.  If this argument is " +
+         "not provided, the '" + MODE_SEARCH_PER_VALUE + "' mode will be used.";
+    final LinkedHashSet<String> allowedModes = new LinkedHashSet<>(3);
+    allowedModes.add(MODE_SEARCH_PER_VALUE);
+    allowedModes.add(MODE_BATCHED_SEARCH);
+    allowedModes.add(MODE_LOCAL_MAP);
+    conflictDetectionModeArgument = new StringArgument(null,
+         "conflictDetectionMode", false, 1, "{mode}", description,
+         allowedModes, MODE_SEARCH_PER_VALUE);
+    conflictDetectionModeArgument.addLongIdentifier("conflict-detection-mode",
+         true);
+    parser.addArgument(conflictDetectionModeArgument);
+
+    description = "The maximum number of unique attribute values to include " +
+         "in each search issued in the '" + MODE_BATCHED_SEARCH + "' " +
+         "conflict detection mode.  If this argument is not provided, a " +
+         "default of " + DEFAULT_VALUES_PER_SEARCH + " will be used.";
+    valuesPerSearchArgument = new IntegerArgument(null, "valuesPerSearch",
+         false, 1, "{num}", description, 1, Integer.MAX_VALUE,
+         DEFAULT_VALUES_PER_SEARCH);
+    valuesPerSearchArgument.addLongIdentifier("values-per-search", true);
+    parser.addArgument(valuesPerSearchArgument);
+
+    description = "The maximum number of searches to have in progress at " +
+         "the same time in the '" + MODE_BATCHED_SEARCH + "' conflict " +
+         "detection mode.  If this argument is not provided, a default of " +
+         DEFAULT_NUM_CONCURRENT_SEARCHES + " will be used.";
+    numConcurrentSearchesArgument = new IntegerArgument(null,
+         "numConcurrentSearches", false, 1, "{num}", description, 1,
+         Integer.MAX_VALUE, DEFAULT_NUM_CONCURRENT_SEARCHES);
+    numConcurrentSearchesArgument.addLongIdentifier("num-concurrent-searches",
+         true);
+    parser.addArgument(numConcurrentSearchesArgument);
+
+    description = "The maximum number of unique attribute values to hold in " +
+         "memory in the '" + MODE_LOCAL_MAP + "' conflict detection mode.  " +
+         "If there are more values than this, then they will be sorted and " +
+         "written to temporary files, which will be merged to find " +
+         "conflicts.  If this argument is not provided, a default of " +
+         DEFAULT_MAX_IN_MEMORY_VALUES + " will be used.";
+    maxInMemoryValuesArgument = new IntegerArgument(null, "maxInMemoryValues",
+         false, 1, "{num}", description, 1, Integer.MAX_VALUE,
+         DEFAULT_MAX_IN_MEMORY_VALUES);
+    maxInMemoryValuesArgument.addLongIdentifier("max-in-memory-values", true);
+    parser.addArgument(maxInMemoryValuesArgument);
+  }
+
+
+
+  /**
+   * Performs any necessary processing that should be done to ensure that the
+   * provided set of command-line arguments were valid.  This method will be
+   * called after the basic argument parsing has been performed and after all
+   * LDAP-specific argument validation has been processed, and immediately
+   * before the {@link #doToolProcessing} method is invoked.
+   *
+   * @throws  ArgumentException  If there was a problem with the command-line
+   *                             arguments provided to this program.
+   */
+  @Override()
+  public void doExtendedNonLDAPArgumentValidation()
+         throws ArgumentException
+  {
+    if ((attributeArgument.getValues().size() > 1) &&
+        multipleAttributeBehaviorArgument.getValue().equalsIgnoreCase(
+             BEHAVIOR_UNIQUE_IN_COMBINATION) &&
+        (! conflictDetectionModeArgument.getValue().equalsIgnoreCase(
+             MODE_SEARCH_PER_VALUE)))
+    {
+      throw new ArgumentException("The '" +
+           conflictDetectionModeArgument.getValue() + "' value for the " +
+           conflictDetectionModeArgument.getIdentifierString() +
+           " argument cannot be used with the '" +
+           BEHAVIOR_UNIQUE_IN_COMBINATION + "' value for the " +
+           multipleAttributeBehaviorArgument.getIdentifierString() +
+           " argument.");
+    }
   }
 
 
@@ -636,9 +841,27 @@ public final class IdentifyUniqueAttributeConflicts
     try
     {
       // Establish a connection to use for finding unique attribute conflicts.
+      // In the batched-search mode, there will be a connection for each of the
+      // searches that may be in progress at the same time.
+      final String conflictDetectionMode =
+           conflictDetectionModeArgument.getValue();
+      final boolean batchedSearch =
+           conflictDetectionMode.equalsIgnoreCase(MODE_BATCHED_SEARCH);
+      final boolean localMap =
+           conflictDetectionMode.equalsIgnoreCase(MODE_LOCAL_MAP);
       try
       {
-        findConflictsPool= getConnectionPool(1, 1);
+        final int numConnections;
+        if (batchedSearch)
+        {
+          numConnections = numConcurrentSearchesArgument.getValue();
+        }
+        else
+        {
+          numConnections = 1;
+        }
+
+        findConflictsPool= getConnectionPool(numConnections, numConnections);
         findConflictsPool.setRetryFailedOperationsDueToInvalidConnections(true);
       }
       catch (final LDAPException le)
@@ -654,6 +877,49 @@ public final class IdentifyUniqueAttributeConflicts
       attrList.toArray(attributes);
 
 
+      // If we will compare values on the client, then get the matching rules
+      // to use for each of the attributes.  If the schema can't be retrieved,
+      // then default matching rules will be used.
+      if (batchedSearch || localMap)
+      {
+        Schema schema = null;
+        try
+        {
+          schema = findConflictsPool.getSchema();
+        }
+        catch (final LDAPException le)
+        {
+          Debug.debugException(le);
+        }
+
+        matchingRules = new HashMap<>(attributes.length);
+        for (final String attr : attributes)
+        {
+          matchingRules.put(StaticUtils.toLowerCase(attr),
+               MatchingRule.selectEqualityMatchingRule(attr, schema));
+        }
+      }
+
+      if (batchedSearch)
+      {
+        final int numConcurrentSearches =
+             numConcurrentSearchesArgument.getValue();
+        pendingBatch =
+             new ArrayList<>(valuesPerSearchArgument.getValue());
+        batchSemaphore = new Semaphore(numConcurrentSearches);
+        batchExecutor = new ThreadPoolExecutor(numConcurrentSearches,
+             numConcurrentSearches, 0L, TimeUnit.MILLISECONDS,
+             new LinkedBlockingQueue<Runnable>(),
+             new LDAPSDKThreadFactory(
+                  "identify-unique-attribute-conflicts Search Worker", true));
+      }
+      else if (localMap)
+      {
+        valueIndex = new UniqueAttributeValueIndex(
+             maxInMemoryValuesArgument.getValue());
+      }
+
+
       // Construct a search filter that will be used to find all entries with
       // unique attributes.
       Filter filter;
@@ -766,6 +1032,58 @@ public final class IdentifyUniqueAttributeConflicts
       }
 
 
+      // If we're processing searches in batches, then send the search for the
+      // last batch and wait for all of the searches to complete.  If we're
+      // using a local map, then use it to find the conflicts.
+      if (batchedSearch)
+      {
+        if (! pendingBatch.isEmpty())
+        {
+          submitBatch();
+        }
+
+        batchExecutor.shutdown();
+        try
+        {
+          while (! batchExecutor.awaitTermination(1L, TimeUnit.SECONDS))
+          {
+            // Keep waiting until all searches have completed.
+          }
+        }
+        catch (final InterruptedException ie)
+        {
+          Debug.debugException(ie);
+          Thread.currentThread().interrupt();
+          err("Interrupted while waiting for searches to complete.");
+          return ResultCode.LOCAL_ERROR;
+        }
+      }
+      else if (localMap)
+      {
+        IOException ioException = valueIndexException;
+        if (ioException == null)
+        {
+          try
+          {
+            findConflictsInValueIndex();
+          }
+          catch (final IOException ioe)
+          {
+            Debug.debugException(ioe);
+            ioException = ioe;
+          }
+        }
+
+        if (ioException != null)
+        {
+          err("An error occurred while using temporary files to find " +
+               "unique attribute conflicts:  " +
+               StaticUtils.getExceptionMessage(ioException));
+          return ResultCode.LOCAL_ERROR;
+        }
+      }
+
+
       // See if there were any uniqueness conflicts found.
       boolean conflictFound = false;
       if (uniqueInCombination)
@@ -812,6 +1130,16 @@ public final class IdentifyUniqueAttributeConflicts
     }
     finally
     {
+      if (batchExecutor != null)
+      {
+        batchExecutor.shutdownNow();
+      }
+
+      if (valueIndex != null)
+      {
+        valueIndex.close();
+      }
+
       findUniqueAttributesPool.close();
 
       if (findConflictsPool != null)
@@ -952,11 +1280,31 @@ public final class IdentifyUniqueAttributeConflicts
 
         if (conflictFound)
         {
+          // Values from this entry may still conflict with values in other
+          // entries, so they need to be included in the local map.
+          if (valueIndex != null)
+          {
+            addToValueIndex(searchEntry, false);
+          }
           return;
         }
       }
 
 
+      // If we're using a local map or processing searches in batches, then
+      // just save the values for later processing.
+      if (valueIndex != null)
+      {
+        addToValueIndex(searchEntry, true);
+        return;
+      }
+      else if (batchExecutor != null)
+      {
+        addToBatch(searchEntry);
+        return;
+      }
+
+
       // Get the unique attributes from the entry and search for conflicts with
       // each value in other entries.  Although we could theoretically do this
       // with fewer searches, most uses of unique attributes don't have multiple
@@ -1100,6 +1448,382 @@ baseDNLoop:
 
 
 
+  /**
+   * Adds the unique attribute values from the provided entry to the index used
+   * to find conflicts in the local-map mode.
+   *
+   * @param  entry              The entry whose values should be added.
+   * @param  checkForConflicts  Indicates whether conflicts with the values from
+   *                            the entry should be reported.
+   */
+  private void addToValueIndex(final SearchResultEntry entry,
+                               final boolean checkForConflicts)
+  {
+    if (valueIndexException != null)
+    {
+      return;
+    }
+
+    final String normalizedDN = normalizeDN(entry.getDN());
+    try
+    {
+      for (final String attrName : attributes)
+      {
+        for (final Attribute a :
+             entry.getAttributesWithOptions(attrName, null))
+        {
+          for (final String value : a.getValues())
+          {
+            valueIndex.add(new UniqueAttributeValue(attrName, a.getName(),
+                 value, getValueKey(attrName, value), entry.getDN(),
+                 normalizedDN, checkForConflicts));
+          }
+        }
+      }
+    }
+    catch (final IOException ioe)
+    {
+      Debug.debugException(ioe);
+      valueIndexException = ioe;
+    }
+  }
+
+
+
+  /**
+   * Uses the values in the local map to identify and report any conflicts.
+   *
+   * @throws  IOException  If a problem occurs while reading values from a
+   *                       temporary file.
+   */
+  private void findConflictsInValueIndex()
+          throws IOException
+  {
+    while (true)
+    {
+      final List<UniqueAttributeValue> group = valueIndex.nextGroup();
+      if (group == null)
+      {
+        return;
+      }
+      else if (group.size() < 2)
+      {
+        continue;
+      }
+
+      for (final UniqueAttributeValue v : group)
+      {
+        if (! v.checkForConflicts())
+        {
+          continue;
+        }
+
+        for (final UniqueAttributeValue conflict : group)
+        {
+          if (! conflict.getNormalizedDN().equals(v.getNormalizedDN()))
+          {
+            err("Value '", v.getValue(), "' in attribute ",
+                 v.getValueAttributeName(), " of entry '" + v.getDN(),
+                 "' is also present in entry '", conflict.getDN(), "'.");
+            conflictCounts.get(v.getAttributeName()).incrementAndGet();
+            break;
+          }
+        }
+      }
+    }
+  }
+
+
+
+  /**
+   * Adds the unique attribute values from the provided entry to the pending
+   * batch, and submits the batch for processing if it is full.
+   *
+   * @param  entry  The entry whose values should be added.
+   */
+  private void addToBatch(final SearchResultEntry entry)
+  {
+    final String normalizedDN = normalizeDN(entry.getDN());
+    for (final String attrName : attributes)
+    {
+      for (final Attribute a : entry.getAttributesWithOptions(attrName, null))
+      {
+        for (final String value : a.getValues())
+        {
+          pendingBatch.add(new UniqueAttributeValue(attrName, a.getName(),
+               value, null, entry.getDN(), normalizedDN, true));
+          if (pendingBatch.size() >= valuesPerSearchArgument.getValue())
+          {
+            submitBatch();
+          }
+        }
+      }
+    }
+  }
+
+
+
+  /**
+   * Submits the pending batch of values for processing, waiting if necessary
+   * until there are fewer than the maximum number of searches in progress.
+   */
+  private void submitBatch()
+  {
+    final List<UniqueAttributeValue> batch = pendingBatch;
+    pendingBatch = new ArrayList<>(valuesPerSearchArgument.getValue());
+
+    try
+    {
+      batchSemaphore.acquire();
+    }
+    catch (final InterruptedException ie)
+    {
+      // Process the batch in this thread rather than dropping it.
+      Debug.debugException(ie);
+      Thread.currentThread().interrupt();
+      checkForConflictsInBatch(batch);
+      return;
+    }
+
+    batchExecutor.execute(new ConflictSearchTask(batch));
+  }
+
+
+
+  /**
+   * Issues searches to find conflicts for all of the values in the provided
+   * batch, and reports any conflicts that are found.
+   *
+   * @param  batch  The batch of values for which to find conflicts.
+   */
+  private void checkForConflictsInBatch(final List<UniqueAttributeValue> batch)
+  {
+    if (timeLimitExceeded.get())
+    {
+      return;
+    }
+
+    // Construct a filter that will match any entry with any of the values.
+    final LinkedHashSet<Filter> orComps = new LinkedHashSet<>(batch.size());
+    for (final UniqueAttributeValue v : batch)
+    {
+      if (uniqueAcrossAttributes)
+      {
+        for (final String attrName : attributes)
+        {
+          orComps.add(Filter.createEqualityFilter(attrName, v.getValue()));
+        }
+      }
+      else
+      {
+        orComps.add(Filter.createEqualityFilter(v.getAttributeName(),
+             v.getValue()));
+      }
+    }
+
+    Filter filter = Filter.createORFilter(orComps);
+    if (filterArgument.isPresent())
+    {
+      filter = Filter.createANDFilter(filterArgument.getValue(), filter);
+    }
+
+
+    // Find all of the entries that match the filter below each of the base
+    // DNs.
+    final ArrayList<SearchResultEntry> matchingEntries =
+         new ArrayList<>(batch.size());
+    for (final String baseDN : baseDNs)
+    {
+      SearchResult searchResult;
+      final SearchRequest searchRequest = new SearchRequest(baseDN,
+           SearchScope.SUB, DereferencePolicy.NEVER, 0,
+           timeLimitArgument.getValue(), false, filter, attributes);
+      try
+      {
+        searchResult = findConflictsPool.search(searchRequest);
+      }
+      catch (final LDAPSearchException lse)
+      {
+        Debug.debugException(lse);
+        if (lse.getResultCode() == ResultCode.TIME_LIMIT_EXCEEDED)
+        {
+          // The server spent more time than the configured time limit to
+          // process the search.  This almost certainly means that the search
+          // is unindexed, and we don't want to continue.
+          if (timeLimitExceeded.compareAndSet(false, true))
+          {
+            err("A server-side time limit was exceeded when searching " +
+                 "below base DN '" + baseDN + "' with filter '" + filter +
+                 "', which likely means that the search request is not " +
+                 "indexed in the server.  Check the server configuration to " +
+                 "ensure that any appropriate indexes are in place.  To " +
+                 "indicate that searches should not request any time limit, " +
+                 "use the " + timeLimitArgument.getIdentifierString() +
+                 " to indicate a time limit of zero seconds.");
+          }
+          return;
+        }
+
+        searchResult = lse.getSearchResult();
+      }
+
+      if (searchResult.getResultCode() != ResultCode.SUCCESS)
+      {
+        err("An error occurred while attempting to search for conflicts " +
+             "with a batch of " + batch.size() + " unique attribute values " +
+             "below '" + baseDN + "':  " +
+             searchResult.getDiagnosticMessage());
+        for (final UniqueAttributeValue v : batch)
+        {
+          conflictCounts.get(v.getAttributeName()).incrementAndGet();
+        }
+        return;
+      }
+
+      matchingEntries.addAll(searchResult.getSearchEntries());
+    }
+
+
+    // Determine which of the values are present in entries other than the
+    // entry from which they were obtained.
+    for (final UniqueAttributeValue v : batch)
+    {
+      for (final SearchResultEntry e : matchingEntries)
+      {
+        if (normalizeDN(e.getDN()).equals(v.getNormalizedDN()) ||
+            (! entryHasValue(e, v)))
+        {
+          continue;
+        }
+
+        err("Value '", v.getValue(), "' in attribute ",
+             v.getValueAttributeName(), " of entry '" + v.getDN(),
+             "' is also present in entry '", e.getDN(), "'.");
+        conflictCounts.get(v.getAttributeName()).incrementAndGet();
+        break;
+      }
+    }
+  }
+
+
+
+  /**
+   * Indicates whether the provided entry contains the given unique attribute
+   * value in a way that would cause a conflict.
+   *
+   * @param  entry  The entry to examine.
+   * @param  value  The value for which to make the determination.
+   *
+   * @return  {@code true} if the entry contains the value, or {@code false} if
+   *          not.
+   */
+  private boolean entryHasValue(final SearchResultEntry entry,
+                                final UniqueAttributeValue value)
+  {
+    final String[] attrNames;
+    if (uniqueAcrossAttributes)
+    {
+      attrNames = attributes;
+    }
+    else
+    {
+      attrNames = new String[] { value.getAttributeName() };
+    }
+
+    final ASN1OctetString v = new ASN1OctetString(value.getValue());
+    for (final String attrName : attrNames)
+    {
+      final MatchingRule matchingRule =
+           matchingRules.get(StaticUtils.toLowerCase(attrName));
+      for (final Attribute a : entry.getAttributesWithOptions(attrName, null))
+      {
+        for (final ASN1OctetString entryValue : a.getRawValues())
+        {
+          try
+          {
+            if (matchingRule.valuesMatch(v, entryValue))
+            {
+              return true;
+            }
+          }
+          catch (final LDAPException le)
+          {
+            Debug.debugException(le);
+            if (entryValue.stringValue().equalsIgnoreCase(value.getValue()))
+            {
+              return true;
+            }
+          }
+        }
+      }
+    }
+
+    return false;
+  }
+
+
+
+  /**
+   * Retrieves the key that will be used to identify conflicts with the
+   * provided value in the local-map mode.
+   *
+   * @param  attrName  The name of the unique attribute with which the value is
+   *                   associated.
+   * @param  value     The value for which to obtain the key.
+   *
+   * @return  The key that will be used to identify conflicts with the provided
+   *          value.
+   */
+  private String getValueKey(final String attrName, final String value)
+  {
+    final String lowerName = StaticUtils.toLowerCase(attrName);
+
+    String normalizedValue;
+    try
+    {
+      normalizedValue = matchingRules.get(lowerName).normalize(
+           new ASN1OctetString(value)).stringValue();
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      normalizedValue = StaticUtils.toLowerCase(value);
+    }
+
+    if (uniqueAcrossAttributes)
+    {
+      return normalizedValue;
+    }
+    else
+    {
+      return lowerName + ':' + normalizedValue;
+    }
+  }
+
+
+
+  /**
+   * Retrieves a normalized representation of the provided DN.
+   *
+   * @param  dn  The DN to normalize.
+   *
+   * @return  A normalized representation of the provided DN.
+   */
+  private static String normalizeDN(final String dn)
+  {
+    try
+    {
+      return DN.normalize(dn);
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      return StaticUtils.toLowerCase(dn);
+    }
+  }
+
+
+
   /**
    * Performs the processing necessary to check for conflicts between a
    * combination of attribute values obtained from the provided entry.
@@ -1262,4 +1986,54 @@ baseDNLoop:
   {
     // No implementation is required.  This tool will not follow referrals.
   }
+
+
+
+  /**
+   * This class provides a task that checks for conflicts for a batch of
+   * unique attribute values.
+   */
+  private final class ConflictSearchTask
+          implements Runnable
+  {
+    // The batch of values for which to check for conflicts.
+    private final List<UniqueAttributeValue> batch;
+
+
+
+    /**
+     * Creates a new task for the provided batch of values.
+     *
+     * @param  batch  The batch of values for which to check for conflicts.
+     */
+    private ConflictSearchTask(final List<UniqueAttributeValue> batch)
+    {
+      this.batch = batch;
+    }
+
+
+
+    /**
+     * Checks for conflicts for the batch of values.
+     */
+    @Override()
+    public void run()
+    {
+      try
+      {
+        checkForConflictsInBatch(batch);
+      }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+        err("An unexpected error occurred while searching for conflicts " +
+             "with a batch of unique attribute values:  " +
+             StaticUtils.getExceptionMessage(e));
+      }
+      finally
+      {
+        batchSemaphore.release();
+      }
+    }
+  }
 }
@@ -0,0 +1,355 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.examples;
+
+
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.unboundid.util.FormattableColumn;
+import com.unboundid.util.HorizontalAlignment;
+import com.unboundid.util.LatencyHistogram;
+
+
+
+/**
+ * This class provides a mechanism that the rate tools may use to maintain
+ * per-thread response time histograms, to merge them at the end of each
+ * interval, and optionally to write the merged histogram for each interval to
+ * a log file so that runs can be compared offline.
+ * <BR><BR>
+ * Each line of the histogram log (other than comment lines starting with an
+ * octothorpe) describes one interval, as a comma-delimited list of the
+ * interval end time in milliseconds since the epoch, the name of the
+ * operation type, the number of operations, the minimum and maximum response
+ * times in microseconds, and then a space-delimited list of the non-empty
+ * histogram buckets.  Each bucket is given as the smallest response time in
+ * microseconds that it can hold, followed by a colon and the number of
+ * operations that it holds.
+ */
+final class LatencyHistogramTracker
+      implements Closeable
+{
+  /**
+   * The percentiles that will be displayed for each interval.
+   */
+  private static final double[] PERCENTILES = { 50.0d, 90.0d, 99.0d, 99.9d };
+
+
+
+  /**
+   * The headings that will be used for the percentile columns.
+   */
+  private static final String[] PERCENTILE_HEADINGS =
+  {
+    "P50 ms",
+    "P90 ms",
+    "P99 ms",
+    "P99.9 ms"
+  };
+
+
+
+  // The histograms for each of the threads.
+  private final List<LatencyHistogram> threadHistograms;
+
+  // The name of the operation type whose response times are being tracked.
+  private final String operationType;
+
+  // The writer for the histogram log, if any.
+  private final PrintWriter logWriter;
+
+
+
+  /**
+   * Creates a new latency histogram tracker.
+   *
+   * @param  operationType  The name of the operation type whose response times
+   *                        will be tracked.
+   * @param  logWriter      The writer that should be used for the histogram
+   *                        log.  It may be {@code null} if no log should be
+   *                        written.
+   */
+  LatencyHistogramTracker(final String operationType,
+                          final PrintWriter logWriter)
+  {
+    this.operationType = operationType;
+    this.logWriter     = logWriter;
+
+    threadHistograms = new CopyOnWriteArrayList<LatencyHistogram>();
+  }
+
+
+
+  /**
+   * Creates a print writer that may be used to write a histogram log to the
+   * specified file, and writes a header to it.
+   *
+   * @param  file      The file to which the histogram log should be written.
+   *                   It may be {@code null} if no log should be written.
+   * @param  toolName  The name of the tool that will write the log.
+   *
+   * @return  The print writer that was created, or {@code null} if the
+   *          provided file was {@code null}.
+   *
+   * @throws  IOException  If a problem occurs while creating the file.
+   */
+  static PrintWriter createLogWriter(final File file, final String toolName)
+         throws IOException
+  {
+    if (file == null)
+    {
+      return null;
+    }
+
+    final PrintWriter w = new PrintWriter(new FileWriter(file));
+    w.println("# " + toolName + " response time histogram log");
+    w.println("# endTimeMillis,operationType,count,minMicros,maxMicros," +
+         "bucketMinMicros:count ...");
+    w.flush();
+    return w;
+  }
+
+
+
+  /**
+   * Creates an array containing the provided columns followed by the columns
+   * used to display the response time percentiles for each interval.
+   *
+   * @param  columns  The columns that should precede the response time
+   *                  percentile columns.
+   *
+   * @return  An array containing the provided columns followed by the response
+   *          time percentile columns.
+   */
+  static FormattableColumn[] appendColumns(final FormattableColumn... columns)
+  {
+    return appendColumns("Recent", columns);
+  }
+
+
+
+  /**
+   * Creates an array containing the provided columns followed by the columns
+   * used to display the response time percentiles for each interval.
+   *
+   * @param  label    The text to use as the first line of the label for each
+   *                  of the percentile columns.  It must not be {@code null}.
+   * @param  columns  The columns that should precede the response time
+   *                  percentile columns.
+   *
+   * @return  An array containing the provided columns followed by the response
+   *          time percentile columns.
+   */
+  static FormattableColumn[] appendColumns(final String label,
+                                           final FormattableColumn... columns)
+  {
+    final FormattableColumn[] allColumns =
+         new FormattableColumn[columns.length + PERCENTILES.length + 1];
+    System.arraycopy(columns, 0, allColumns, 0, columns.length);
+
+    final int width = Math.max(10, label.length());
+    int pos = columns.length;
+    for (int i=0; i < PERCENTILES.length; i++)
+    {
+      allColumns[pos++] = new FormattableColumn(width,
+           HorizontalAlignment.RIGHT, label, PERCENTILE_HEADINGS[i]);
+    }
+
+    allColumns[pos] = new FormattableColumn(width, HorizontalAlignment.RIGHT,
+         label, "Max ms");
+    return allColumns;
+  }
+
+
+
+  /**
+   * Creates an array containing the provided values followed by the response
+   * time percentiles from the given histogram, for use in conjunction with a
+   * formatter whose columns were created with the {@link #appendColumns}
+   * method.
+   *
+   * @param  histogram  The histogram from which to obtain the percentiles.  The
+   *                    values recorded in it must be in nanoseconds.
+   * @param  values     The values that should precede the percentiles.
+   *
+   * @return  An array containing the provided values followed by the response
+   *          time percentiles from the given histogram, in milliseconds.
+   */
+  static Object[] appendColumnValues(final LatencyHistogram histogram,
+                                     final Object... values)
+  {
+    final Object[] allValues =
+         new Object[values.length + PERCENTILES.length + 1];
+    System.arraycopy(values, 0, allValues, 0, values.length);
+
+    int pos = values.length;
+    for (int i=0; i < PERCENTILES.length; i++)
+    {
+      allValues[pos++] =
+           histogram.getValueAtPercentile(PERCENTILES[i]) / 1000000.0d;
+    }
+
+    allValues[pos] = histogram.getMaxValue() / 1000000.0d;
+    return allValues;
+  }
+
+
+
+  /**
+   * Creates a new histogram for use by a single thread and registers it with
+   * this tracker.  It may also be used by other threads that record response
+   * times on behalf of that thread (for example, when operating in
+   * asynchronous mode).
+   *
+   * @return  The histogram that was created.
+   */
+  LatencyHistogram createThreadHistogram()
+  {
+    final LatencyHistogram h = new LatencyHistogram();
+    threadHistograms.add(h);
+    return h;
+  }
+
+
+
+  /**
+   * Moves the response times recorded by all threads since the last call to
+   * this method into a new histogram, and writes it to the histogram log if
+   * appropriate.
+   *
+   * @param  writeToLog  Indicates whether to write the histogram to the
+   *                     histogram log (if one is configured).
+   *
+   * @return  The histogram with the response times recorded during the
+   *          interval.
+   */
+  LatencyHistogram collectInterval(final boolean writeToLog)
+  {
+    final LatencyHistogram intervalHistogram = new LatencyHistogram();
+    for (final LatencyHistogram h : threadHistograms)
+    {
+      intervalHistogram.transferFrom(h);
+    }
+
+    if (writeToLog)
+    {
+      logInterval(intervalHistogram);
+    }
+
+    return intervalHistogram;
+  }
+
+
+
+  /**
+   * Writes the provided histogram to the histogram log, if one is configured.
+   * This may be used to log histograms that were not collected from the
+   * threads registered with this tracker (for example, histograms that were
+   * merged from the statistics gathered by several worker processes).
+   *
+   * @param  intervalHistogram  The histogram with the response times recorded
+   *                            during the interval.
+   */
+  void logInterval(final LatencyHistogram intervalHistogram)
+  {
+    if (logWriter != null)
+    {
+      final StringBuilder buffer = new StringBuilder();
+      buffer.append(System.currentTimeMillis());
+      buffer.append(',');
+      buffer.append(operationType);
+      buffer.append(',');
+      buffer.append(intervalHistogram.getCount());
+      buffer.append(',');
+      buffer.append(intervalHistogram.getMinValue() / 1000L);
+      buffer.append(',');
+      buffer.append(intervalHistogram.getMaxValue() / 1000L);
+      buffer.append(',');
+
+      boolean first = true;
+      long lastMicros = -1L;
+      long bucketCount = 0L;
+      for (final Map.Entry<Long,Long> e :
+           intervalHistogram.getBucketCounts().entrySet())
+      {
+        // Several of the nanosecond buckets may map to the same number of
+        // microseconds, so combine them.
+        final long micros = e.getKey() / 1000L;
+        if ((micros != lastMicros) && (bucketCount > 0L))
+        {
+          if (! first)
+          {
+            buffer.append(' ');
+          }
+          buffer.append(lastMicros);
+          buffer.append(':');
+          buffer.append(bucketCount);
+          first = false;
+          bucketCount = 0L;
+        }
+
+        lastMicros = micros;
+        bucketCount += e.getValue();
+      }
+
+      if (bucketCount > 0L)
+      {
+        if (! first)
+        {
+          buffer.append(' ');
+        }
+        buffer.append(lastMicros);
+        buffer.append(':');
+        buffer.append(bucketCount);
+      }
+
+      synchronized (logWriter)
+      {
+        logWriter.println(buffer.toString());
+        logWriter.flush();
+      }
+    }
+  }
+
+
+
+  /**
+   * Closes the histogram log, if one is configured.  Because the log writer
+   * may be shared by several trackers, this should only be called for one of
+   * them.
+   */
+  @Override()
+  public void close()
+  {
+    if (logWriter != null)
+    {
+      logWriter.close();
+    }
+  }
+}
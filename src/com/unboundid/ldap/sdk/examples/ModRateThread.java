@@ -22,8 +22,10 @@ package com.unboundid.ldap.sdk.examples;
 
 
 
+import java.util.ArrayList;
 import java.util.Random;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -35,10 +37,13 @@ import com.unboundid.ldap.sdk.LDAPException;
 import com.unboundid.ldap.sdk.Modification;
 import com.unboundid.ldap.sdk.ModificationType;
 import com.unboundid.ldap.sdk.ModifyRequest;
+import com.unboundid.ldap.sdk.RequestTemplate;
 import com.unboundid.ldap.sdk.ResultCode;
 import com.unboundid.ldap.sdk.controls.ProxiedAuthorizationV2RequestControl;
+import com.unboundid.util.ByteStringBuffer;
 import com.unboundid.util.Debug;
 import com.unboundid.util.FixedRateBarrier;
+import com.unboundid.util.LatencyHistogram;
 import com.unboundid.util.ResultCodeCounter;
 import com.unboundid.util.ValuePattern;
 
@@ -46,10 +51,13 @@ import com.unboundid.util.ValuePattern;
 
 /**
  * This class provides a thread that may be used to repeatedly perform
- * modifications.
+ * modifications.  When the modrate tool is operating in open-loop mode, the
+ * thread is not started, and an {@link OpenLoopLoadGenerator} uses it to send
+ * asynchronous modifications over its connection instead.
  */
 final class ModRateThread
       extends Thread
+      implements OpenLoopRequestSender
 {
   // Indicates whether a request has been made to stop running.
   private final AtomicBoolean stopRequested;
@@ -64,6 +72,9 @@ final class ModRateThread
   // The value that will be updated with total duration of the modifications.
   private final AtomicLong modDurations;
 
+  // The histogram used to track the modify response times.
+  private final LatencyHistogram modHistogram;
+
   // The counter used to track the number of iterations remaining on the
   // current connection.
   private final AtomicLong remainingIterationsBeforeReconnect;
@@ -126,6 +137,17 @@ final class ModRateThread
   // rate-limiting should be used.
   private final FixedRateBarrier fixedRateBarrier;
 
+  // The buffer used to hold the values generated for the modify template.
+  private final ByteStringBuffer templateValueBuffer;
+
+  // The positions at which each of the values generated for the modify
+  // template end.
+  private final int[] templateValueEndOffsets;
+
+  // The pre-encoded template to use for asynchronous modifications in
+  // open-loop mode.  null if the template could not be created.
+  private final RequestTemplate modifyTemplate;
+
 
 
   /**
@@ -171,6 +193,8 @@ final class ModRateThread
    * @param  modDurations               A value that will be used to keep track
    *                                    of the total duration for all
    *                                    modifications.
+   * @param  modHistogram               The histogram used to track the modify
+   *                                    response times.
    * @param  errorCounter               A value that will be used to keep track
    *                                    of the number of errors encountered
    *                                    while processing.
@@ -189,7 +213,9 @@ final class ModRateThread
                 final Control[] modifyControls, final ValuePattern authzID,
                 final long randomSeed, final long iterationsBeforeReconnect,
                 final CyclicBarrier startBarrier, final AtomicLong modCounter,
-                final AtomicLong modDurations, final AtomicLong errorCounter,
+                final AtomicLong modDurations,
+                final LatencyHistogram modHistogram,
+                final AtomicLong errorCounter,
                 final ResultCodeCounter rcCounter,
                 final FixedRateBarrier rateBarrier)
   {
@@ -210,6 +236,7 @@ final class ModRateThread
     this.iterationsBeforeReconnect = iterationsBeforeReconnect;
     this.modCounter                = modCounter;
     this.modDurations              = modDurations;
+    this.modHistogram              = modHistogram;
     this.errorCounter              = errorCounter;
     this.rcCounter                 = rcCounter;
     this.startBarrier              = startBarrier;
@@ -231,6 +258,76 @@ final class ModRateThread
     modThread     = new AtomicReference<Thread>(null);
     stopRequested = new AtomicBoolean(false);
     random        = new Random(randomSeed);
+
+    modifyTemplate          = createModifyTemplate();
+    templateValueBuffer     = new ByteStringBuffer();
+    templateValueEndOffsets = new int[(increment ? 1 : (valueCount + 1)) +
+         ((authzID == null) ? 0 : 1)];
+  }
+
+
+
+  /**
+   * Creates a pre-encoded template that can be used to send asynchronous
+   * modifications without creating and encoding a new modify request for
+   * each of them.  The template has a placeholder for the entry DN, for each
+   * of the generated values (unless increment modifications are to be used),
+   * and for the proxied authorization identity (if any).
+   *
+   * @return  The template that was created, or {@code null} if it could not
+   *          be created.
+   */
+  private RequestTemplate createModifyTemplate()
+  {
+    final ArrayList<String> placeholders = new ArrayList<String>(10);
+    placeholders.add("{modrate-template-dn}");
+
+    final Modification[] mods = new Modification[attributes.length];
+    if (increment)
+    {
+      final String value = String.valueOf(incrementAmount);
+      for (int i=0; i < attributes.length; i++)
+      {
+        mods[i] = new Modification(ModificationType.INCREMENT, attributes[i],
+             value);
+      }
+    }
+    else
+    {
+      final String[] values = new String[valueCount];
+      for (int i=0; i < valueCount; i++)
+      {
+        values[i] = "{modrate-template-value-" + i + '}';
+        placeholders.add(values[i]);
+      }
+
+      for (int i=0; i < attributes.length; i++)
+      {
+        mods[i] = new Modification(ModificationType.REPLACE, attributes[i],
+             values);
+      }
+    }
+
+    final ModifyRequest modifyRequest =
+         new ModifyRequest(placeholders.get(0), mods, modifyControls);
+    if (authzID != null)
+    {
+      final String placeholder = "{modrate-template-authz}";
+      modifyRequest.addControl(
+           new ProxiedAuthorizationV2RequestControl(placeholder));
+      placeholders.add(placeholder);
+    }
+
+    try
+    {
+      return new RequestTemplate(modifyRequest,
+           placeholders.toArray(new String[placeholders.size()]));
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      return null;
+    }
   }
 
 
@@ -339,13 +436,19 @@ final class ModRateThread
 
 
       // If we're trying for a specific target rate, then we might need to
-      // wait until issuing the next modify.
-      if (fixedRateBarrier != null)
+      // wait until issuing the next modify.  In that case, the response time
+      // will be measured from the time that the modify was scheduled to be
+      // sent, so that any delay in sending it is included.
+      final long startTime;
+      if (fixedRateBarrier == null)
       {
-        fixedRateBarrier.await();
+        startTime = System.nanoTime();
+      }
+      else
+      {
+        startTime = fixedRateBarrier.awaitScheduledTime();
       }
 
-      final long startTime = System.nanoTime();
       try
       {
         connection.modify(modifyRequest);
@@ -366,8 +469,10 @@ final class ModRateThread
         }
       }
 
+      final long duration = System.nanoTime() - startTime;
       modCounter.incrementAndGet();
-      modDurations.addAndGet(System.nanoTime() - startTime);
+      modDurations.addAndGet(duration);
+      modHistogram.recordValue(duration);
     }
 
     if (connection != null)
@@ -380,6 +485,190 @@ final class ModRateThread
 
 
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void sendOpenLoopRequest(final long scheduledTime,
+                                  final Semaphore outstandingRequests)
+  {
+    if (connection == null)
+    {
+      try
+      {
+        connection = modRate.getConnection();
+      }
+      catch (final LDAPException le)
+      {
+        Debug.debugException(le);
+        errorCounter.incrementAndGet();
+
+        final ResultCode rc = le.getResultCode();
+        rcCounter.increment(rc);
+        resultCode.compareAndSet(null, rc);
+
+        outstandingRequests.release();
+        return;
+      }
+    }
+
+    if (modifyTemplate != null)
+    {
+      sendTemplateModify(scheduledTime, outstandingRequests);
+      return;
+    }
+
+    // The request may still be referenced after this method returns, so it
+    // must not share any state with the request for the next modification.
+    final Modification[] mods = new Modification[attributes.length];
+    if (increment)
+    {
+      final String value = String.valueOf(incrementAmount);
+      for (int i=0; i < attributes.length; i++)
+      {
+        mods[i] = new Modification(ModificationType.INCREMENT, attributes[i],
+             value);
+      }
+    }
+    else
+    {
+      final ASN1OctetString[] values = new ASN1OctetString[valueCount];
+      for (int i=0; i < valueCount; i++)
+      {
+        final byte[] valueBytes = new byte[valueLength];
+        for (int j=0; j < valueLength; j++)
+        {
+          valueBytes[j] = charSet[random.nextInt(charSet.length)];
+        }
+
+        values[i] = new ASN1OctetString(valueBytes);
+      }
+
+      for (int i=0; i < attributes.length; i++)
+      {
+        mods[i] = new Modification(ModificationType.REPLACE, attributes[i],
+             values);
+      }
+    }
+
+    final ModifyRequest modifyRequest =
+         new ModifyRequest(entryDN.nextValue(), mods, modifyControls);
+    if (authzID != null)
+    {
+      modifyRequest.addControl(new ProxiedAuthorizationV2RequestControl(
+           authzID.nextValue()));
+    }
+
+    try
+    {
+      connection.asyncModify(modifyRequest,
+           new ModRateAsyncListener(scheduledTime, modCounter, modDurations,
+                modHistogram, errorCounter, rcCounter, outstandingRequests,
+                resultCode));
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      errorCounter.incrementAndGet();
+
+      final ResultCode rc = le.getResultCode();
+      rcCounter.increment(rc);
+      resultCode.compareAndSet(null, rc);
+
+      outstandingRequests.release();
+
+      if (! le.getResultCode().isConnectionUsable())
+      {
+        connection.close();
+        connection = null;
+      }
+    }
+  }
+
+
+
+  /**
+   * Generates the values for the next modification and sends it over this
+   * thread's connection using the pre-encoded modify template.  Any error
+   * that prevents the modification from being sent will be recorded, and the
+   * permit for the modification will be released.
+   *
+   * @param  scheduledTime        The time, in terms of
+   *                              {@code System.nanoTime()}, at which the
+   *                              modification was scheduled to be sent.
+   * @param  outstandingRequests  The semaphore that limits the number of
+   *                              outstanding requests.
+   */
+  private void sendTemplateModify(final long scheduledTime,
+                                  final Semaphore outstandingRequests)
+  {
+    int pos = 0;
+    templateValueBuffer.clear();
+    entryDN.nextValue(templateValueBuffer);
+    templateValueEndOffsets[pos++] = templateValueBuffer.length();
+
+    if (! increment)
+    {
+      for (int i=0; i < valueCount; i++)
+      {
+        for (int j=0; j < valueLength; j++)
+        {
+          templateValueBuffer.append(charSet[random.nextInt(charSet.length)]);
+        }
+        templateValueEndOffsets[pos++] = templateValueBuffer.length();
+      }
+    }
+
+    if (authzID != null)
+    {
+      authzID.nextValue(templateValueBuffer);
+      templateValueEndOffsets[pos] = templateValueBuffer.length();
+    }
+
+    try
+    {
+      connection.asyncProcessTemplate(modifyTemplate,
+           new ModRateAsyncListener(scheduledTime, modCounter, modDurations,
+                modHistogram, errorCounter, rcCounter, outstandingRequests,
+                resultCode),
+           templateValueBuffer.getBackingArray(), templateValueEndOffsets);
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      errorCounter.incrementAndGet();
+
+      final ResultCode rc = le.getResultCode();
+      rcCounter.increment(rc);
+      resultCode.compareAndSet(null, rc);
+
+      outstandingRequests.release();
+
+      if (! le.getResultCode().isConnectionUsable())
+      {
+        connection.close();
+        connection = null;
+      }
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void closeOpenLoopConnections()
+  {
+    if (connection != null)
+    {
+      connection.close();
+      connection = null;
+    }
+  }
+
+
+
   /**
    * Indicates that this thread should stop running.
    *
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.examples;
+
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.unboundid.util.Debug;
+import com.unboundid.util.FixedRateBarrier;
+
+
+
+/**
+ * This class provides an open-loop load generation engine that may be used by
+ * the rate tools.  Rather than having each connection's thread wait for the
+ * response to one request before sending the next, a small number of scheduler
+ * threads compute the time at which each request should be sent, based on the
+ * target rate and either a constant or a Poisson arrival distribution, and
+ * dispatch the requests asynchronously over a larger number of connections.
+ * This makes it possible to generate a very high load from a small number of
+ * client threads, and because requests continue to be sent on schedule even if
+ * the server slows down, response times (which are measured from the scheduled
+ * time) reflect the experience of clients that do not wait for each other.
+ * <BR><BR>
+ * The target rate is obtained from a {@link FixedRateBarrier}, which allows the
+ * rate to be altered while the generator is running (for example, by a
+ * {@link com.unboundid.util.RateAdjustor}).  The barrier itself is not used to
+ * pace requests.  The number of outstanding requests is limited so that the
+ * client cannot run out of memory if the server is unable to keep up.
+ */
+final class OpenLoopLoadGenerator
+{
+  /**
+   * The name of the arrival distribution in which requests are sent at evenly
+   * spaced intervals.
+   */
+  static final String ARRIVAL_DISTRIBUTION_CONSTANT = "constant";
+
+
+
+  /**
+   * The name of the arrival distribution in which the times between requests
+   * are exponentially distributed, so that requests arrive according to a
+   * Poisson process.
+   */
+  static final String ARRIVAL_DISTRIBUTION_POISSON = "poisson";
+
+
+
+  /**
+   * The default maximum number of outstanding requests for each sender.
+   */
+  static final int DEFAULT_MAX_OUTSTANDING_REQUESTS_PER_SENDER = 100;
+
+
+
+  /**
+   * The maximum length of time in milliseconds to wait for outstanding requests
+   * to complete when stopping the generator.
+   */
+  private static final long MAX_SHUTDOWN_WAIT_MILLIS = 30000L;
+
+
+
+  // Indicates whether a request has been made to stop running.
+  private final AtomicBoolean stopRequested;
+
+  // The maximum number of requests that may be outstanding at any time.
+  private final int maxOutstandingRequests;
+
+  // The senders that will be used to send the requests.
+  private final List<OpenLoopRequestSender> senders;
+
+  // The threads that will be used to schedule the requests.
+  private final List<OpenLoopSchedulerThread> schedulerThreads;
+
+  // The semaphore used to limit the number of outstanding requests.
+  private final Semaphore outstandingRequests;
+
+
+
+  /**
+   * Creates a new open-loop load generator with the provided information.
+   *
+   * @param  toolName                The name of the tool using the generator,
+   *                                 which will be used to name the scheduler
+   *                                 threads.
+   * @param  senders                 The senders that will be used to send the
+   *                                 requests.  It must not be empty.
+   * @param  numSchedulerThreads     The number of threads to use to schedule
+   *                                 requests.  It will be reduced to the number
+   *                                 of senders if there are fewer senders than
+   *                                 threads.
+   * @param  rateBarrier             The barrier from which to obtain the target
+   *                                 rate.  If its target rate is
+   *                                 {@code Integer.MAX_VALUE} requests per
+   *                                 interval, then requests will be sent as
+   *                                 quickly as the limit on outstanding
+   *                                 requests allows.
+   * @param  arrivalDistribution     The name of the arrival distribution to
+   *                                 use.
+   * @param  maxOutstandingRequests  The maximum number of requests that may be
+   *                                 outstanding at any time.
+   * @param  randomSeed              The seed to use for the random number
+   *                                 generators used to compute Poisson arrival
+   *                                 times.
+   */
+  OpenLoopLoadGenerator(final String toolName,
+                        final List<? extends OpenLoopRequestSender> senders,
+                        final int numSchedulerThreads,
+                        final FixedRateBarrier rateBarrier,
+                        final String arrivalDistribution,
+                        final int maxOutstandingRequests,
+                        final long randomSeed)
+  {
+    this.senders = new ArrayList<OpenLoopRequestSender>(senders);
+    this.maxOutstandingRequests = maxOutstandingRequests;
+
+    stopRequested = new AtomicBoolean(false);
+    outstandingRequests = new Semaphore(maxOutstandingRequests);
+
+    final boolean poisson =
+         arrivalDistribution.equalsIgnoreCase(ARRIVAL_DISTRIBUTION_POISSON);
+    final int numThreads =
+         Math.max(1, Math.min(numSchedulerThreads, senders.size()));
+    final Random random = new Random(randomSeed);
+
+    schedulerThreads = new ArrayList<OpenLoopSchedulerThread>(numThreads);
+    for (int i=0; i < numThreads; i++)
+    {
+      final ArrayList<OpenLoopRequestSender> threadSenders =
+           new ArrayList<OpenLoopRequestSender>(
+                (senders.size() / numThreads) + 1);
+      for (int j=i; j < senders.size(); j += numThreads)
+      {
+        threadSenders.add(senders.get(j));
+      }
+
+      schedulerThreads.add(new OpenLoopSchedulerThread(
+           toolName + " Open-Loop Scheduler " + i, threadSenders, numThreads,
+           rateBarrier, poisson, random.nextLong(), outstandingRequests,
+           stopRequested));
+    }
+  }
+
+
+
+  /**
+   * Starts the scheduler threads.
+   */
+  void start()
+  {
+    for (final OpenLoopSchedulerThread t : schedulerThreads)
+    {
+      t.start();
+    }
+  }
+
+
+
+  /**
+   * Stops the scheduler threads, waits for any outstanding requests to
+   * complete, and closes the connections used by the senders.
+   */
+  void stopRunning()
+  {
+    stopRequested.set(true);
+
+    for (final OpenLoopSchedulerThread t : schedulerThreads)
+    {
+      try
+      {
+        t.join();
+      }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+
+        if (e instanceof InterruptedException)
+        {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+
+    try
+    {
+      if (outstandingRequests.tryAcquire(maxOutstandingRequests,
+           MAX_SHUTDOWN_WAIT_MILLIS, TimeUnit.MILLISECONDS))
+      {
+        outstandingRequests.release(maxOutstandingRequests);
+      }
+    }
+    catch (final Exception e)
+    {
+      Debug.debugException(e);
+
+      if (e instanceof InterruptedException)
+      {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    for (final OpenLoopRequestSender s : senders)
+    {
+      s.closeOpenLoopConnections();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of requests that are currently outstanding.
+   *
+   * @return  The number of requests that are currently outstanding.
+   */
+  int getNumOutstandingRequests()
+  {
+    return maxOutstandingRequests - outstandingRequests.availablePermits();
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.examples;
+
+
+
+import java.util.concurrent.Semaphore;
+
+
+
+/**
+ * This interface defines the methods that must be implemented by an object
+ * that can be used by an {@link OpenLoopLoadGenerator} to send requests.  Each
+ * sender will only be invoked by a single scheduler thread, so implementations
+ * do not need to be safe for concurrent use by multiple schedulers, but they
+ * must not block while waiting for a response.
+ */
+interface OpenLoopRequestSender
+{
+  /**
+   * Sends the next request.  The sender must release a permit on the provided
+   * semaphore once processing for the request has completed, whether or not it
+   * was successful, and the response time for the request should be measured
+   * from the provided scheduled time.
+   *
+   * @param  scheduledTime        The time, in terms of
+   *                              {@code System.nanoTime()}, at which the
+   *                              request was scheduled to be sent.  It may be
+   *                              earlier than the current time if the
+   *                              generator has fallen behind schedule.
+   * @param  outstandingRequests  The semaphore that limits the number of
+   *                              outstanding requests.  A permit has already
+   *                              been acquired for this request.
+   */
+  void sendOpenLoopRequest(long scheduledTime, Semaphore outstandingRequests);
+
+
+
+  /**
+   * Closes any connections used by this sender.  This will only be called
+   * after the generator has stopped scheduling requests and all outstanding
+   * requests have completed (or the generator has given up waiting for them).
+   */
+  void closeOpenLoopConnections();
+}
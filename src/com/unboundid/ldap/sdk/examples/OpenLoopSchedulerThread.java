@@ -0,0 +1,284 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.examples;
+
+
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import com.unboundid.util.Debug;
+import com.unboundid.util.FixedRateBarrier;
+import com.unboundid.util.ObjectPair;
+
+
+
+/**
+ * This class provides a thread that is used by an {@link OpenLoopLoadGenerator}
+ * to compute the time at which each request should be sent and to dispatch the
+ * requests to its senders in round-robin order.  If the thread falls behind
+ * schedule, then it will send requests as quickly as possible until it has
+ * caught up, so that the overall rate is maintained.
+ */
+final class OpenLoopSchedulerThread
+      extends Thread
+{
+  /**
+   * The minimum length of time in nanoseconds between checks to determine
+   * whether the target rate has changed.
+   */
+  private static final long RATE_CHECK_INTERVAL_NANOS = 10L * 1000L * 1000L;
+
+
+
+  /**
+   * The maximum length of time in nanoseconds that the thread will park at a
+   * time while waiting to send a request or to obtain a permit, which limits
+   * how long it can take to respond to a stop request.
+   */
+  private static final long MAX_WAIT_NANOS = 10L * 1000L * 1000L;
+
+
+
+  // Indicates whether a request has been made to stop running.
+  private final AtomicBoolean stopRequested;
+
+  // Indicates whether to use a Poisson arrival distribution rather than a
+  // constant one.
+  private final boolean poisson;
+
+  // The number of scheduler threads among which the target rate is divided.
+  private final int numSchedulerThreads;
+
+  // The barrier from which to obtain the target rate.
+  private final FixedRateBarrier rateBarrier;
+
+  // The random number generator to use for Poisson arrival times.
+  private final Random random;
+
+  // The senders to which this thread will dispatch requests.
+  private final OpenLoopRequestSender[] senders;
+
+  // The semaphore used to limit the number of outstanding requests.
+  private final Semaphore outstandingRequests;
+
+
+
+  /**
+   * Creates a new scheduler thread with the provided information.
+   *
+   * @param  name                 The name to use for the thread.
+   * @param  senders              The senders to which this thread should
+   *                              dispatch requests.  It must not be empty.
+   * @param  numSchedulerThreads  The number of scheduler threads among which
+   *                              the target rate should be divided.
+   * @param  rateBarrier          The barrier from which to obtain the target
+   *                              rate.
+   * @param  poisson              Indicates whether to use a Poisson arrival
+   *                              distribution rather than a constant one.
+   * @param  randomSeed           The seed to use for the random number
+   *                              generator.
+   * @param  outstandingRequests  The semaphore used to limit the number of
+   *                              outstanding requests.
+   * @param  stopRequested        Indicates whether a request has been made to
+   *                              stop running.
+   */
+  OpenLoopSchedulerThread(final String name,
+                          final List<OpenLoopRequestSender> senders,
+                          final int numSchedulerThreads,
+                          final FixedRateBarrier rateBarrier,
+                          final boolean poisson, final long randomSeed,
+                          final Semaphore outstandingRequests,
+                          final AtomicBoolean stopRequested)
+  {
+    setName(name);
+    setDaemon(true);
+
+    this.senders =
+         senders.toArray(new OpenLoopRequestSender[senders.size()]);
+    this.numSchedulerThreads = numSchedulerThreads;
+    this.rateBarrier         = rateBarrier;
+    this.poisson             = poisson;
+    this.outstandingRequests = outstandingRequests;
+    this.stopRequested       = stopRequested;
+
+    random = new Random(randomSeed);
+  }
+
+
+
+  /**
+   * Schedules and dispatches requests until a stop request is received.
+   */
+  @Override()
+  public void run()
+  {
+    long nanosBetweenRequests = getNanosBetweenRequests();
+    long nextRateCheckTime = System.nanoTime() + RATE_CHECK_INTERVAL_NANOS;
+    long nextScheduledTime = System.nanoTime();
+    int senderIndex = 0;
+
+    while (! stopRequested.get())
+    {
+      final long now = System.nanoTime();
+      if (now >= nextRateCheckTime)
+      {
+        final long previousNanosBetweenRequests = nanosBetweenRequests;
+        nanosBetweenRequests = getNanosBetweenRequests();
+        nextRateCheckTime = now + RATE_CHECK_INTERVAL_NANOS;
+
+        // If we are switching from an unlimited rate to a target rate, then
+        // start the schedule from the current time.
+        if ((previousNanosBetweenRequests < 0L) && (nanosBetweenRequests >= 0L))
+        {
+          nextScheduledTime = now;
+        }
+      }
+
+      final long scheduledTime;
+      if (nanosBetweenRequests < 0L)
+      {
+        scheduledTime = now;
+      }
+      else
+      {
+        scheduledTime = nextScheduledTime;
+        if (poisson)
+        {
+          nextScheduledTime += (long) (nanosBetweenRequests *
+               -Math.log(1.0d - random.nextDouble()));
+        }
+        else
+        {
+          nextScheduledTime += nanosBetweenRequests;
+        }
+
+        if (! waitUntil(scheduledTime))
+        {
+          break;
+        }
+      }
+
+      // The time spent waiting for a permit counts toward the response time,
+      // since the request should already have been sent.
+      if (! acquirePermit())
+      {
+        break;
+      }
+
+      senders[senderIndex].sendOpenLoopRequest(scheduledTime,
+           outstandingRequests);
+      senderIndex++;
+      if (senderIndex >= senders.length)
+      {
+        senderIndex = 0;
+      }
+    }
+  }
+
+
+
+  /**
+   * Determines the length of time that this thread should leave between
+   * requests in order to achieve its share of the target rate.
+   *
+   * @return  The number of nanoseconds between requests, or -1 if there is no
+   *          limit on the rate.
+   */
+  private long getNanosBetweenRequests()
+  {
+    final ObjectPair<Long,Integer> targetRate = rateBarrier.getTargetRate();
+    final int perInterval = targetRate.getSecond();
+    if (perInterval == Integer.MAX_VALUE)
+    {
+      return -1L;
+    }
+
+    final long intervalNanos = targetRate.getFirst() * 1000L * 1000L;
+    return Math.max(1L,
+         (intervalNanos * numSchedulerThreads) / Math.max(1, perInterval));
+  }
+
+
+
+  /**
+   * Waits until the specified time has arrived.
+   *
+   * @param  time  The time, in terms of {@code System.nanoTime()}, until which
+   *               to wait.
+   *
+   * @return  {@code true} if the specified time has arrived, or {@code false}
+   *          if a stop request was received while waiting.
+   */
+  private boolean waitUntil(final long time)
+  {
+    while (true)
+    {
+      final long remainingNanos = time - System.nanoTime();
+      if (remainingNanos <= 0L)
+      {
+        return true;
+      }
+
+      if (stopRequested.get())
+      {
+        return false;
+      }
+
+      LockSupport.parkNanos(Math.min(remainingNanos, MAX_WAIT_NANOS));
+    }
+  }
+
+
+
+  /**
+   * Acquires a permit to send a request, waiting if necessary.
+   *
+   * @return  {@code true} if a permit was acquired, or {@code false} if a stop
+   *          request was received while waiting.
+   */
+  private boolean acquirePermit()
+  {
+    while (! stopRequested.get())
+    {
+      try
+      {
+        if (outstandingRequests.tryAcquire(MAX_WAIT_NANOS,
+             TimeUnit.NANOSECONDS))
+        {
+          return true;
+        }
+      }
+      catch (final InterruptedException ie)
+      {
+        Debug.debugException(ie);
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+
+    return false;
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.examples;
+
+
+
+import java.io.Serializable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.unboundid.util.Debug;
+
+
+
+/**
+ * This class provides an {@link OpenLoopRequestSender} that may be used for
+ * operations that cannot be processed asynchronously, like binds.  Rather than
+ * sending each request itself, it places the time at which the request was
+ * scheduled into a queue, from which a pool of threads performing the
+ * operations synchronously can retrieve them.  Those threads must call the
+ * {@link #taskCompleted} method after processing each request.  Because the
+ * response time for each request is measured from the time it was scheduled,
+ * any time that it spends in the queue waiting for a thread to become
+ * available will be reflected in the response time.
+ * <BR><BR>
+ * Unlike other senders, the same task queue may be used by multiple scheduler
+ * threads.
+ */
+final class OpenLoopTaskQueue
+      implements OpenLoopRequestSender, Serializable
+{
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = -4425896137829106151L;
+
+
+
+  /**
+   * The maximum length of time in milliseconds to wait for a task before
+   * checking whether a thread has been asked to stop.
+   */
+  private static final long POLL_INTERVAL_MILLIS = 10L;
+
+
+
+  // The queue holding the scheduled times for the requests that have not yet
+  // been retrieved by a thread.
+  private final LinkedBlockingQueue<Long> scheduledTimes;
+
+  // The semaphore that limits the number of outstanding requests.
+  private volatile Semaphore outstandingRequests;
+
+
+
+  /**
+   * Creates a new, empty task queue.
+   */
+  OpenLoopTaskQueue()
+  {
+    scheduledTimes = new LinkedBlockingQueue<Long>();
+    outstandingRequests = null;
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void sendOpenLoopRequest(final long scheduledTime,
+                                  final Semaphore outstandingRequests)
+  {
+    this.outstandingRequests = outstandingRequests;
+    scheduledTimes.add(scheduledTime);
+  }
+
+
+
+  /**
+   * {@inheritDoc}  The connections are owned by the threads that process the
+   * tasks, so this method does not need to do anything.
+   */
+  @Override()
+  public void closeOpenLoopConnections()
+  {
+    // No implementation required.
+  }
+
+
+
+  /**
+   * Waits for the next task to become available.
+   *
+   * @param  stopRequested  A flag that indicates whether the calling thread has
+   *                        been asked to stop.
+   *
+   * @return  The time, in terms of {@code System.nanoTime()}, at which the
+   *          request for the task was scheduled to be sent, or {@code null} if
+   *          the calling thread was asked to stop before a task became
+   *          available.
+   */
+  Long nextScheduledTime(final AtomicBoolean stopRequested)
+  {
+    while (! stopRequested.get())
+    {
+      try
+      {
+        final Long scheduledTime =
+             scheduledTimes.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        if (scheduledTime != null)
+        {
+          return scheduledTime;
+        }
+      }
+      catch (final InterruptedException ie)
+      {
+        Debug.debugException(ie);
+        Thread.currentThread().interrupt();
+        return null;
+      }
+    }
+
+    return null;
+  }
+
+
+
+  /**
+   * Indicates that processing has completed for a task obtained from the
+   * {@link #nextScheduledTime} method, whether or not it was successful.
+   */
+  void taskCompleted()
+  {
+    outstandingRequests.release();
+  }
+}
@@ -0,0 +1,783 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.examples;
+
+
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.unboundid.asn1.ASN1Element;
+import com.unboundid.asn1.ASN1Enumerated;
+import com.unboundid.asn1.ASN1Integer;
+import com.unboundid.asn1.ASN1Long;
+import com.unboundid.asn1.ASN1OctetString;
+import com.unboundid.asn1.ASN1Sequence;
+import com.unboundid.asn1.ASN1StreamReader;
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.ldap.sdk.ResultCode;
+import com.unboundid.util.ColumnFormatter;
+import com.unboundid.util.CommandLineTool;
+import com.unboundid.util.Debug;
+import com.unboundid.util.ObjectPair;
+import com.unboundid.util.StaticUtils;
+import com.unboundid.util.args.Argument;
+import com.unboundid.util.args.ArgumentHelper;
+import com.unboundid.util.args.ArgumentParser;
+
+
+
+/**
+ * This class provides the coordinator side of a distributed run of one of the
+ * rate tools, in which the load is generated by a number of
+ * {@link RateToolWorker} processes (which may be on the same system or on
+ * different systems) and the coordinator merges the statistics that they
+ * gather for each interval.  The coordinator sends the tool name and arguments
+ * to each of the workers, waits for all of them to establish their connections
+ * to the directory server, and then tells them all to start at the same time.
+ * See the {@link RateToolWorkerSession} class for a description of the
+ * protocol.
+ */
+final class RateToolCoordinator
+      implements Closeable
+{
+  /**
+   * The delay in milliseconds that the workers should wait after receiving the
+   * start message before they start generating load.  This gives the
+   * coordinator time to send the message to all of the workers.
+   */
+  private static final long START_DELAY_MILLIS = 100L;
+
+
+
+  /**
+   * The maximum length of time in milliseconds to wait when connecting to a
+   * worker.
+   */
+  private static final int CONNECT_TIMEOUT_MILLIS = 10000;
+
+
+
+  // Indicates whether each of the workers is still running the tool.
+  private final boolean[] running;
+
+  // The ASN.1 stream readers used to read messages from the workers.
+  private final ASN1StreamReader[] readers;
+
+  // The output streams used to send messages to the workers.
+  private final OutputStream[] outputStreams;
+
+  // The result codes returned by each of the workers.
+  private final ResultCode[] resultCodes;
+
+  // The sockets connected to the workers.
+  private final Socket[] sockets;
+
+  // The addresses of the workers.
+  private final String[] workerAddresses;
+
+
+
+  /**
+   * Creates a new coordinator that will connect to the specified workers and
+   * ask each of them to run the specified tool with the provided arguments.
+   *
+   * @param  toolName         The name of the tool that the workers should run.
+   * @param  toolArguments    The arguments that the workers should provide to
+   *                          the tool.
+   * @param  workerAddresses  The addresses of the workers, in the form
+   *                          "host:port".  It must not be empty.
+   *
+   * @throws  LDAPException  If a problem occurs while connecting to any of the
+   *                         workers.  If this is thrown, then the connections
+   *                         to any of the other workers will have been closed.
+   */
+  RateToolCoordinator(final String toolName, final List<String> toolArguments,
+                      final List<String> workerAddresses)
+       throws LDAPException
+  {
+    this.workerAddresses = new String[workerAddresses.size()];
+    workerAddresses.toArray(this.workerAddresses);
+
+    running       = new boolean[this.workerAddresses.length];
+    readers       = new ASN1StreamReader[this.workerAddresses.length];
+    outputStreams = new OutputStream[this.workerAddresses.length];
+    resultCodes   = new ResultCode[this.workerAddresses.length];
+    sockets       = new Socket[this.workerAddresses.length];
+
+    final ArrayList<ASN1Element> argElements =
+         new ArrayList<ASN1Element>(toolArguments.size());
+    for (final String arg : toolArguments)
+    {
+      argElements.add(new ASN1OctetString(arg));
+    }
+
+    final ASN1Sequence configMessage =
+         new ASN1Sequence(RateToolWorkerSession.TYPE_CONFIG,
+              new ASN1Integer(RateToolWorkerSession.PROTOCOL_VERSION),
+              new ASN1OctetString(toolName),
+              new ASN1Sequence(argElements));
+
+    try
+    {
+      for (int i=0; i < this.workerAddresses.length; i++)
+      {
+        final String address = this.workerAddresses[i];
+        try
+        {
+          final int colonPos = address.lastIndexOf(':');
+          final String host = address.substring(0, colonPos);
+          final int port = Integer.parseInt(address.substring(colonPos+1));
+
+          sockets[i] = new Socket();
+          sockets[i].connect(new InetSocketAddress(host, port),
+               CONNECT_TIMEOUT_MILLIS);
+          sockets[i].setTcpNoDelay(true);
+
+          readers[i] = new ASN1StreamReader(sockets[i].getInputStream(),
+               RateToolWorkerSession.MAX_MESSAGE_SIZE);
+          outputStreams[i] =
+               new BufferedOutputStream(sockets[i].getOutputStream());
+          RateToolWorkerSession.writeMessage(outputStreams[i], configMessage);
+          running[i] = true;
+        }
+        catch (final Exception e)
+        {
+          Debug.debugException(e);
+          throw new LDAPException(ResultCode.CONNECT_ERROR,
+               "Unable to send the configuration to worker " + address +
+                    ":  " + StaticUtils.getExceptionMessage(e),
+               e);
+        }
+      }
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      close();
+      throw le;
+    }
+  }
+
+
+
+  /**
+   * Runs the specified tool as a coordinator.  This will connect to the
+   * workers specified with the "--workerAddress" argument, start them, and then
+   * display the merged statistics for each interval until all of the workers
+   * have completed or a stop is requested.
+   *
+   * @param  tool             The tool that is running as a coordinator.
+   * @param  parser           The argument parser used by the tool.
+   * @param  workerAddresses  The addresses of the workers, in the form
+   *                          "host:port".  It must not be empty.
+   * @param  stopRequested    The flag that will be set if the tool should stop
+   *                          running.
+   * @param  suppressErrors   Indicates whether to suppress the result code
+   *                          counts that are displayed for each interval.
+   * @param  formatter        The formatter to use to display the results.
+   * @param  handler          The handler that will provide the tool-specific
+   *                          column values for each interval.
+   * @param  excludedArgs     The arguments that should not be provided to the
+   *                          workers.
+   *
+   * @return  The result code for the processing that was performed.
+   */
+  static ResultCode run(final CommandLineTool tool, final ArgumentParser parser,
+                        final List<String> workerAddresses,
+                        final AtomicBoolean stopRequested,
+                        final boolean suppressErrors,
+                        final ColumnFormatter formatter,
+                        final IntervalHandler handler,
+                        final Argument... excludedArgs)
+  {
+    final String sensitiveArgumentWarning =
+         getSensitiveArgumentWarning(parser, workerAddresses, excludedArgs);
+    if (sensitiveArgumentWarning != null)
+    {
+      tool.err(sensitiveArgumentWarning);
+    }
+
+    final RateToolCoordinator coordinator;
+    try
+    {
+      coordinator = new RateToolCoordinator(tool.getToolName(),
+           getWorkerArguments(parser, excludedArgs), workerAddresses);
+      coordinator.start();
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      tool.err(le.getMessage());
+      return le.getResultCode();
+    }
+
+    for (final String headerLine : formatter.getHeaderLines(true))
+    {
+      tool.out(headerLine);
+    }
+
+    boolean warmingUp       = false;
+    long[]  overallCounters = null;
+    long    overallNanos    = 0L;
+    try
+    {
+      while (! stopRequested.get())
+      {
+        final RateToolIntervalData data = coordinator.nextInterval();
+        if (data == null)
+        {
+          break;
+        }
+
+        if (data.isWarmUp())
+        {
+          warmingUp = true;
+          tool.out(formatter.formatRow(handler.getColumnValues(data, null,
+               0L)));
+        }
+        else
+        {
+          if (warmingUp)
+          {
+            tool.out("Warm-up completed.  Beginning overall statistics " +
+                 "collection.");
+            warmingUp = false;
+          }
+
+          if (overallCounters == null)
+          {
+            overallCounters = new long[data.getNumCounters()];
+          }
+
+          for (int i=0; i < overallCounters.length; i++)
+          {
+            overallCounters[i] += data.getCounter(i);
+          }
+          overallNanos += data.getDurationNanos();
+
+          tool.out(formatter.formatRow(handler.getColumnValues(data,
+               overallCounters, overallNanos)));
+          handler.logInterval(data);
+        }
+
+        final List<ObjectPair<ResultCode,Long>> rcCounts =
+             data.getResultCodeCounts();
+        if ((! suppressErrors) && (! rcCounts.isEmpty()))
+        {
+          tool.err("\tError Results:");
+          for (final ObjectPair<ResultCode,Long> p : rcCounts)
+          {
+            tool.err("\t", p.getFirst().getName(), ":  ", p.getSecond());
+          }
+        }
+      }
+
+      return coordinator.getResultCode();
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      tool.err(le.getMessage());
+      return le.getResultCode();
+    }
+    finally
+    {
+      coordinator.close();
+    }
+  }
+
+
+
+  /**
+   * Computes the rate at which operations were processed.
+   *
+   * @param  count          The number of operations that were processed.
+   * @param  durationNanos  The length of time in nanoseconds over which the
+   *                        operations were processed.
+   *
+   * @return  The number of operations processed per second.
+   */
+  static double getRate(final long count, final long durationNanos)
+  {
+    return count / (durationNanos / 1000000000.0d);
+  }
+
+
+
+  /**
+   * Computes the average duration in milliseconds of the operations that were
+   * processed.
+   *
+   * @param  totalDurationNanos  The total duration in nanoseconds of the
+   *                             operations that were processed.
+   * @param  count               The number of operations that were processed.
+   *
+   * @return  The average duration in milliseconds, or zero if no operations
+   *          were processed.
+   */
+  static double getAverageMillis(final long totalDurationNanos,
+                                 final long count)
+  {
+    if (count > 0L)
+    {
+      return 1.0d * totalDurationNanos / count / 1000000;
+    }
+    else
+    {
+      return 0.0d;
+    }
+  }
+
+
+
+  /**
+   * Retrieves the arguments that should be provided to the workers so that
+   * they run the tool with the same configuration as the coordinator.  This
+   * will include all of the arguments that were provided to the coordinator
+   * (either on the command line or in a properties file) other than usage
+   * arguments and the specified excluded arguments.  Unlike the command line
+   * that would be displayed to the user, the values of sensitive arguments
+   * (like the bind password) will be included.
+   *
+   * @param  parser        The argument parser used by the coordinator.
+   * @param  excludedArgs  The arguments that should not be provided to the
+   *                       workers.
+   *
+   * @return  The arguments that should be provided to the workers.
+   */
+  static List<String> getWorkerArguments(final ArgumentParser parser,
+                                         final Argument... excludedArgs)
+  {
+    final List<Argument> excluded = Arrays.asList(excludedArgs);
+    final ArrayList<String> args = new ArrayList<String>(20);
+    for (final Argument a : parser.getNamedArguments())
+    {
+      if ((a.getNumOccurrences() == 0) || a.isUsageArgument() ||
+          excluded.contains(a))
+      {
+        continue;
+      }
+
+      if (a.isSensitive())
+      {
+        for (final String value : a.getValueStringRepresentations(false))
+        {
+          args.add(a.getIdentifierString());
+          args.add(value);
+        }
+      }
+      else
+      {
+        ArgumentHelper.addToCommandLine(a, args);
+      }
+    }
+
+    args.addAll(parser.getTrailingArguments());
+    return args;
+  }
+
+
+
+  /**
+   * Retrieves a warning that should be displayed if the values of any sensitive
+   * arguments (like the bind password) will be sent to a worker that is not
+   * on the local system.  The coordinator protocol does not use encryption,
+   * so those values could be observed by anyone with access to the network.
+   *
+   * @param  parser           The argument parser used by the coordinator.
+   * @param  workerAddresses  The addresses of the workers, in the form
+   *                          "host:port".
+   * @param  excludedArgs     The arguments that will not be provided to the
+   *                          workers.
+   *
+   * @return  A warning that should be displayed, or {@code null} if no
+   *          sensitive argument values will be sent to a remote worker.
+   */
+  static String getSensitiveArgumentWarning(final ArgumentParser parser,
+                                            final List<String> workerAddresses,
+                                            final Argument... excludedArgs)
+  {
+    boolean anyRemoteWorker = false;
+    for (final String address : workerAddresses)
+    {
+      if (! isLoopbackAddress(address))
+      {
+        anyRemoteWorker = true;
+        break;
+      }
+    }
+
+    if (! anyRemoteWorker)
+    {
+      return null;
+    }
+
+    final List<Argument> excluded = Arrays.asList(excludedArgs);
+    final StringBuilder argNames = new StringBuilder();
+    for (final Argument a : parser.getNamedArguments())
+    {
+      if (a.isSensitive() && (a.getNumOccurrences() > 0) &&
+          (! excluded.contains(a)))
+      {
+        if (argNames.length() > 0)
+        {
+          argNames.append(", ");
+        }
+        argNames.append(a.getIdentifierString());
+      }
+    }
+
+    if (argNames.length() == 0)
+    {
+      return null;
+    }
+
+    return "WARNING:  The values of the following arguments will be sent " +
+         "without encryption to workers that are not on the local system:  " +
+         argNames + ".  Consider providing those values in files that exist " +
+         "on the worker systems (for example, with the --bindPasswordFile " +
+         "argument instead of --bindPassword) so that only the paths to the " +
+         "files will be sent.";
+  }
+
+
+
+  /**
+   * Indicates whether the provided worker address refers to the loopback
+   * interface.
+   *
+   * @param  address  The worker address, in the form "host:port".
+   *
+   * @return  {@code true} if the provided address refers to the loopback
+   *          interface, or {@code false} if not or if it cannot be resolved.
+   */
+  static boolean isLoopbackAddress(final String address)
+  {
+    final int colonPos = address.lastIndexOf(':');
+    final String host;
+    if (colonPos < 0)
+    {
+      host = address;
+    }
+    else
+    {
+      host = address.substring(0, colonPos);
+    }
+
+    try
+    {
+      return InetAddress.getByName(host).isLoopbackAddress();
+    }
+    catch (final Exception e)
+    {
+      Debug.debugException(e);
+      return false;
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of workers used by this coordinator.
+   *
+   * @return  The number of workers used by this coordinator.
+   */
+  int getNumWorkers()
+  {
+    return workerAddresses.length;
+  }
+
+
+
+  /**
+   * Waits for all of the workers to be ready to generate load, and then tells
+   * them to start.
+   *
+   * @throws  LDAPException  If any of the workers could not be started.  If
+   *                         this is thrown, then the connections to all of the
+   *                         workers will have been closed, which will cause
+   *                         them to stop.
+   */
+  void start()
+       throws LDAPException
+  {
+    try
+    {
+      for (int i=0; i < workerAddresses.length; i++)
+      {
+        final ASN1Sequence message = readMessage(i,
+             RateToolWorkerSession.TYPE_READY,
+             RateToolWorkerSession.TYPE_COMPLETED);
+        if (message.getType() == RateToolWorkerSession.TYPE_COMPLETED)
+        {
+          handleCompleted(i, message);
+          throw new LDAPException(resultCodes[i],
+               "Worker " + workerAddresses[i] + " was unable to start the " +
+                    "tool, and it completed with result code " +
+                    resultCodes[i] + '.');
+        }
+      }
+
+      final ASN1Sequence startMessage =
+           new ASN1Sequence(RateToolWorkerSession.TYPE_START,
+                new ASN1Long(START_DELAY_MILLIS));
+      for (int i=0; i < workerAddresses.length; i++)
+      {
+        try
+        {
+          RateToolWorkerSession.writeMessage(outputStreams[i], startMessage);
+        }
+        catch (final IOException ioe)
+        {
+          Debug.debugException(ioe);
+          throw new LDAPException(ResultCode.SERVER_DOWN,
+               "Unable to start worker " + workerAddresses[i] + ":  " +
+                    StaticUtils.getExceptionMessage(ioe),
+               ioe);
+        }
+      }
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      close();
+      throw le;
+    }
+  }
+
+
+
+  /**
+   * Waits for all of the workers that are still running to send their
+   * statistics for the next interval, and merges them.
+   *
+   * @return  The merged statistics for the next interval, or {@code null} if
+   *          all of the workers have completed.
+   *
+   * @throws  LDAPException  If a problem occurs while communicating with any
+   *                         of the workers.  If this is thrown, then the
+   *                         connections to all of the workers will have been
+   *                         closed, which will cause them to stop.
+   */
+  RateToolIntervalData nextInterval()
+       throws LDAPException
+  {
+    try
+    {
+      final ArrayList<RateToolIntervalData> dataList =
+           new ArrayList<RateToolIntervalData>(workerAddresses.length);
+      for (int i=0; i < workerAddresses.length; i++)
+      {
+        if (! running[i])
+        {
+          continue;
+        }
+
+        final ASN1Sequence message = readMessage(i,
+             RateToolWorkerSession.TYPE_INTERVAL,
+             RateToolWorkerSession.TYPE_COMPLETED);
+        if (message.getType() == RateToolWorkerSession.TYPE_COMPLETED)
+        {
+          handleCompleted(i, message);
+        }
+        else
+        {
+          dataList.add(RateToolIntervalData.decode(message));
+        }
+      }
+
+      if (dataList.isEmpty())
+      {
+        return null;
+      }
+      else
+      {
+        return RateToolIntervalData.merge(dataList);
+      }
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      close();
+      throw le;
+    }
+  }
+
+
+
+  /**
+   * Retrieves the result code for the workers.  It will be the first result
+   * code other than success that was returned by any of the workers, or
+   * success if all of the workers completed successfully.  This should only be
+   * called after {@link #nextInterval} has returned {@code null}.
+   *
+   * @return  The result code for the workers.
+   */
+  ResultCode getResultCode()
+  {
+    for (final ResultCode rc : resultCodes)
+    {
+      if ((rc != null) && (rc != ResultCode.SUCCESS))
+      {
+        return rc;
+      }
+    }
+
+    return ResultCode.SUCCESS;
+  }
+
+
+
+  /**
+   * Closes the connections to all of the workers.  Any worker that is still
+   * running the tool will stop.
+   */
+  @Override()
+  public void close()
+  {
+    for (int i=0; i < sockets.length; i++)
+    {
+      running[i] = false;
+      if (sockets[i] != null)
+      {
+        try
+        {
+          sockets[i].close();
+        }
+        catch (final Exception e)
+        {
+          Debug.debugException(e);
+        }
+      }
+    }
+  }
+
+
+
+  /**
+   * Reads a message from the specified worker.
+   *
+   * @param  index          The index of the worker from which to read the
+   *                        message.
+   * @param  expectedTypes  The BER types of the messages that are expected.
+   *
+   * @return  The message that was read.
+   *
+   * @throws  LDAPException  If a problem occurs while reading the message.
+   */
+  private ASN1Sequence readMessage(final int index,
+                                   final byte... expectedTypes)
+          throws LDAPException
+  {
+    try
+    {
+      return RateToolWorkerSession.readMessage(readers[index], expectedTypes);
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      throw new LDAPException(le.getResultCode(),
+           "Error communicating with worker " + workerAddresses[index] +
+                ":  " + le.getMessage(),
+           le);
+    }
+  }
+
+
+
+  /**
+   * Handles a completed message received from the specified worker.
+   *
+   * @param  index    The index of the worker from which the message was
+   *                  received.
+   * @param  message  The completed message.
+   *
+   * @throws  LDAPException  If the message cannot be decoded.
+   */
+  private void handleCompleted(final int index, final ASN1Sequence message)
+          throws LDAPException
+  {
+    running[index] = false;
+
+    try
+    {
+      resultCodes[index] = ResultCode.valueOf(
+           ASN1Enumerated.decodeAsEnumerated(message.elements()[0]).
+                intValue());
+    }
+    catch (final Exception e)
+    {
+      Debug.debugException(e);
+      throw new LDAPException(ResultCode.DECODING_ERROR,
+           "Unable to decode the completed message from worker " +
+                workerAddresses[index] + ":  " +
+                StaticUtils.getExceptionMessage(e),
+           e);
+    }
+  }
+
+
+
+  /**
+   * This interface provides the tool-specific portion of the processing
+   * performed by the {@link RateToolCoordinator#run} method.
+   */
+  interface IntervalHandler
+  {
+    /**
+     * Retrieves the column values to display for the provided interval.
+     *
+     * @param  data             The merged statistics for the interval.
+     * @param  overallCounters  The sums of the tool-specific counters over
+     *                          all intervals since the end of the warm-up
+     *                          period, including the provided interval.  It
+     *                          will be {@code null} for a warm-up interval.
+     * @param  overallNanos     The total length in nanoseconds of all
+     *                          intervals since the end of the warm-up period,
+     *                          including the provided interval.
+     *
+     * @return  The column values to display for the provided interval.
+     */
+    Object[] getColumnValues(final RateToolIntervalData data,
+                             final long[] overallCounters,
+                             final long overallNanos);
+
+
+
+    /**
+     * Updates the histogram logs (if any) with the response times from the
+     * provided interval.  This will not be called for warm-up intervals.
+     *
+     * @param  data  The merged statistics for the interval.
+     */
+    void logInterval(final RateToolIntervalData data);
+  }
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.examples;
+
+
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.unboundid.asn1.ASN1Boolean;
+import com.unboundid.asn1.ASN1Element;
+import com.unboundid.asn1.ASN1Enumerated;
+import com.unboundid.asn1.ASN1Long;
+import com.unboundid.asn1.ASN1Sequence;
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.ldap.sdk.ResultCode;
+import com.unboundid.util.Debug;
+import com.unboundid.util.LatencyHistogram;
+import com.unboundid.util.ObjectPair;
+import com.unboundid.util.ResultCodeCounter;
+import com.unboundid.util.StaticUtils;
+
+
+
+/**
+ * This class holds the statistics that a rate tool operating as a worker has
+ * gathered during a single interval, so that they can be sent to the
+ * coordinator and merged with the statistics from the other workers.  The
+ * statistics include a tool-specific set of counters (like the number of
+ * operations completed and the total duration for those operations), one or
+ * more response time histograms, and the number of operations that completed
+ * with each non-success result code.  Counters are merged by adding them
+ * together, and the interval duration is merged by taking the largest of the
+ * durations.
+ */
+final class RateToolIntervalData
+      implements Serializable
+{
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = -5436208155743360734L;
+
+
+
+  // Indicates whether the interval was a warm-up interval.
+  private final boolean warmUp;
+
+  // The response time histograms for the interval.
+  private final LatencyHistogram[] histograms;
+
+  // The number of operations that completed with each non-success result code.
+  private final List<ObjectPair<ResultCode,Long>> resultCodeCounts;
+
+  // The tool-specific counters for the interval.
+  private final long[] counters;
+
+  // The length of the interval in nanoseconds.
+  private final long durationNanos;
+
+
+
+  /**
+   * Creates a new set of interval data with the provided information.
+   *
+   * @param  durationNanos     The length of the interval in nanoseconds.
+   * @param  warmUp            Indicates whether the interval was a warm-up
+   *                           interval.
+   * @param  counters          The tool-specific counters for the interval.  It
+   *                           must not be {@code null}.
+   * @param  histograms        The response time histograms for the interval.
+   *                           It must not be {@code null}.
+   * @param  resultCodeCounts  The number of operations that completed with
+   *                           each non-success result code, in the form
+   *                           returned by the {@link ResultCodeCounter}
+   *                           class.  It must not be {@code null}.
+   */
+  RateToolIntervalData(final long durationNanos, final boolean warmUp,
+       final long[] counters, final LatencyHistogram[] histograms,
+       final List<ObjectPair<ResultCode,Long>> resultCodeCounts)
+  {
+    this.durationNanos    = durationNanos;
+    this.warmUp           = warmUp;
+    this.counters         = counters;
+    this.histograms       = histograms;
+    this.resultCodeCounts = resultCodeCounts;
+  }
+
+
+
+  /**
+   * Merges the provided sets of interval data, which should have been gathered
+   * by different workers for the same interval.
+   *
+   * @param  dataList  The sets of interval data to merge.  It must not be
+   *                   empty, and all of the elements must have the same number
+   *                   of counters and histograms.
+   *
+   * @return  The merged interval data.
+   */
+  static RateToolIntervalData merge(final List<RateToolIntervalData> dataList)
+  {
+    final RateToolIntervalData first = dataList.get(0);
+
+    long duration = 0L;
+    boolean warmUp = false;
+    final long[] counters = new long[first.counters.length];
+    final LatencyHistogram[] histograms =
+         new LatencyHistogram[first.histograms.length];
+    for (int i=0; i < histograms.length; i++)
+    {
+      histograms[i] = new LatencyHistogram();
+    }
+
+    final ResultCodeCounter rcCounter = new ResultCodeCounter();
+    for (final RateToolIntervalData d : dataList)
+    {
+      duration = Math.max(duration, d.durationNanos);
+      warmUp |= d.warmUp;
+
+      for (int i=0; i < counters.length; i++)
+      {
+        counters[i] += d.counters[i];
+      }
+
+      for (int i=0; i < histograms.length; i++)
+      {
+        histograms[i].add(d.histograms[i]);
+      }
+
+      for (final ObjectPair<ResultCode,Long> p : d.resultCodeCounts)
+      {
+        rcCounter.increment(p.getFirst(), p.getSecond());
+      }
+    }
+
+    return new RateToolIntervalData(duration, warmUp, counters, histograms,
+         rcCounter.getCounts(false));
+  }
+
+
+
+  /**
+   * Retrieves the length of the interval in nanoseconds.
+   *
+   * @return  The length of the interval in nanoseconds.
+   */
+  long getDurationNanos()
+  {
+    return durationNanos;
+  }
+
+
+
+  /**
+   * Indicates whether the interval was a warm-up interval.
+   *
+   * @return  {@code true} if the interval was a warm-up interval, or
+   *          {@code false} if not.
+   */
+  boolean isWarmUp()
+  {
+    return warmUp;
+  }
+
+
+
+  /**
+   * Retrieves the number of tool-specific counters.
+   *
+   * @return  The number of tool-specific counters.
+   */
+  int getNumCounters()
+  {
+    return counters.length;
+  }
+
+
+
+  /**
+   * Retrieves the value of the specified tool-specific counter.
+   *
+   * @param  index  The index of the counter to retrieve.
+   *
+   * @return  The value of the specified counter.
+   */
+  long getCounter(final int index)
+  {
+    return counters[index];
+  }
+
+
+
+  /**
+   * Retrieves the specified response time histogram.
+   *
+   * @param  index  The index of the histogram to retrieve.
+   *
+   * @return  The specified response time histogram.
+   */
+  LatencyHistogram getHistogram(final int index)
+  {
+    return histograms[index];
+  }
+
+
+
+  /**
+   * Retrieves the number of operations that completed with each non-success
+   * result code, in descending order of the counts.
+   *
+   * @return  The number of operations that completed with each non-success
+   *          result code.
+   */
+  List<ObjectPair<ResultCode,Long>> getResultCodeCounts()
+  {
+    return resultCodeCounts;
+  }
+
+
+
+  /**
+   * Encodes this interval data as an ASN.1 element with the specified type.
+   *
+   * @param  type  The BER type to use for the encoded element.
+   *
+   * @return  The ASN.1 element containing the encoded interval data.
+   */
+  ASN1Element encode(final byte type)
+  {
+    final ASN1Element[] counterElements = new ASN1Element[counters.length];
+    for (int i=0; i < counters.length; i++)
+    {
+      counterElements[i] = new ASN1Long(counters[i]);
+    }
+
+    final ASN1Element[] histogramElements =
+         new ASN1Element[histograms.length];
+    for (int i=0; i < histograms.length; i++)
+    {
+      histogramElements[i] = histograms[i].encode();
+    }
+
+    final ArrayList<ASN1Element> rcElements =
+         new ArrayList<ASN1Element>(2*resultCodeCounts.size());
+    for (final ObjectPair<ResultCode,Long> p : resultCodeCounts)
+    {
+      rcElements.add(new ASN1Enumerated(p.getFirst().intValue()));
+      rcElements.add(new ASN1Long(p.getSecond()));
+    }
+
+    return new ASN1Sequence(type,
+         new ASN1Long(durationNanos),
+         new ASN1Boolean(warmUp),
+         new ASN1Sequence(counterElements),
+         new ASN1Sequence(histogramElements),
+         new ASN1Sequence(rcElements));
+  }
+
+
+
+  /**
+   * Decodes the provided ASN.1 element as a set of interval data.
+   *
+   * @param  element  The ASN.1 element to be decoded.
+   *
+   * @return  The decoded interval data.
+   *
+   * @throws  LDAPException  If the provided element cannot be decoded as a set
+   *                         of interval data.
+   */
+  static RateToolIntervalData decode(final ASN1Element element)
+         throws LDAPException
+  {
+    try
+    {
+      final ASN1Element[] elements =
+           ASN1Sequence.decodeAsSequence(element).elements();
+      final long durationNanos =
+           ASN1Long.decodeAsLong(elements[0]).longValue();
+      final boolean warmUp =
+           ASN1Boolean.decodeAsBoolean(elements[1]).booleanValue();
+
+      final ASN1Element[] counterElements =
+           ASN1Sequence.decodeAsSequence(elements[2]).elements();
+      final long[] counters = new long[counterElements.length];
+      for (int i=0; i < counters.length; i++)
+      {
+        counters[i] = ASN1Long.decodeAsLong(counterElements[i]).longValue();
+      }
+
+      final ASN1Element[] histogramElements =
+           ASN1Sequence.decodeAsSequence(elements[3]).elements();
+      final LatencyHistogram[] histograms =
+           new LatencyHistogram[histogramElements.length];
+      for (int i=0; i < histograms.length; i++)
+      {
+        histograms[i] = LatencyHistogram.decode(histogramElements[i]);
+      }
+
+      final ASN1Element[] rcElements =
+           ASN1Sequence.decodeAsSequence(elements[4]).elements();
+      final ArrayList<ObjectPair<ResultCode,Long>> rcCounts =
+           new ArrayList<ObjectPair<ResultCode,Long>>(rcElements.length / 2);
+      for (int i=0; (i+1) < rcElements.length; i += 2)
+      {
+        rcCounts.add(new ObjectPair<ResultCode,Long>(
+             ResultCode.valueOf(
+                  ASN1Enumerated.decodeAsEnumerated(rcElements[i]).intValue()),
+             ASN1Long.decodeAsLong(rcElements[i+1]).longValue()));
+      }
+
+      return new RateToolIntervalData(durationNanos, warmUp, counters,
+           histograms, Collections.unmodifiableList(rcCounts));
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      throw le;
+    }
+    catch (final Exception e)
+    {
+      Debug.debugException(e);
+      throw new LDAPException(ResultCode.DECODING_ERROR,
+           "Unable to decode interval data received from a rate tool " +
+                "worker:  " + StaticUtils.getExceptionMessage(e),
+           e);
+    }
+  }
+}
@@ -0,0 +1,514 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.examples;
+
+
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.LinkedHashMap;
+
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.ldap.sdk.ResultCode;
+import com.unboundid.ldap.sdk.Version;
+import com.unboundid.util.CommandLineTool;
+import com.unboundid.util.Debug;
+import com.unboundid.util.StaticUtils;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.args.ArgumentException;
+import com.unboundid.util.args.ArgumentParser;
+import com.unboundid.util.args.IntegerArgument;
+import com.unboundid.util.args.StringArgument;
+
+
+
+/**
+ * This class provides a tool that can be used to generate load on behalf of a
+ * rate tool running in coordinator mode.  At large scale, a single process
+ * may not be able to generate enough load to saturate a directory server, so
+ * the searchrate, modrate, authrate, and search-and-mod-rate tools can instead
+ * be run with one or more "--workerAddress" arguments, which cause them to act
+ * as a coordinator.  The coordinator connects to each of the workers and sends
+ * it the arguments that it was given, each worker runs the tool with those
+ * arguments, all of the workers start generating load at the same time, and
+ * the coordinator merges the statistics (including the response time
+ * histograms and result code counts) that the workers gather for each
+ * interval and displays them in the usual format.
+ * <BR><BR>
+ * Each worker handles one coordinator at a time.  Because the coordinator
+ * provides the arguments, including any bind credentials, that the worker will
+ * use, the worker only listens on the loopback interface by default.  The
+ * coordinator protocol does not use encryption or authentication, so any
+ * client that can reach a worker listening on another address can use it to
+ * run the rate tools with arbitrary arguments and can observe any credentials
+ * sent by a coordinator.  A worker should only listen on a non-loopback
+ * address on a trusted network, and coordinators should use password files
+ * rather than literal passwords with such workers.  To use a worker on a
+ * remote system, it is better to leave it listening on the loopback interface
+ * and have the coordinator reach it through an SSH tunnel (or some other
+ * channel that provides encryption and authentication, like a TLS tunnel), so
+ * that the coordinator connects to a port on its own loopback interface that
+ * is forwarded to the worker.
+ * <BR><BR>
+ * Supported arguments include:
+ * <UL>
+ *   <LI>"-a {address}" or "--listenAddress {address}" -- Specifies the address
+ *       on which to listen for connections from coordinators.  If this is not
+ *       provided, then the loopback address will be used.</LI>
+ *   <LI>"-L {port}" or "--listenPort {port}" -- Specifies the port on which to
+ *       listen for connections from coordinators.  A value of zero indicates
+ *       that a free port should be automatically selected.</LI>
+ *   <LI>"--maxSessions {num}" -- Specifies the maximum number of coordinator
+ *       sessions to handle before exiting.  If this is not provided, then the
+ *       worker will run until it is stopped.</LI>
+ * </UL>
+ */
+@ThreadSafety(level=ThreadSafetyLevel.NOT_THREADSAFE)
+public final class RateToolWorker
+       extends CommandLineTool
+{
+  // The argument used to specify the maximum number of sessions to handle.
+  private IntegerArgument maxSessions;
+
+  // The argument used to specify the port on which to listen.
+  private IntegerArgument listenPort;
+
+  // The server socket used to accept connections from coordinators.
+  private volatile ServerSocket serverSocket;
+
+  // Indicates whether a request has been made to stop running.
+  private volatile boolean stopRequested;
+
+  // The argument used to specify the address on which to listen.
+  private StringArgument listenAddress;
+
+
+
+  /**
+   * Parse the provided command line arguments and run the worker.
+   *
+   * @param  args  The command line arguments provided to this program.
+   */
+  public static void main(final String[] args)
+  {
+    final ResultCode resultCode = main(args, System.out, System.err);
+    if (resultCode != ResultCode.SUCCESS)
+    {
+      System.exit(resultCode.intValue());
+    }
+  }
+
+
+
+  /**
+   * Parse the provided command line arguments and run the worker.
+   *
+   * @param  args       The command line arguments provided to this program.
+   * @param  outStream  The output stream to which standard out should be
+   *                    written.  It may be {@code null} if output should be
+   *                    suppressed.
+   * @param  errStream  The output stream to which standard error should be
+   *                    written.  It may be {@code null} if error messages
+   *                    should be suppressed.
+   *
+   * @return  A result code indicating whether the processing was successful.
+   */
+  public static ResultCode main(final String[] args,
+                                final OutputStream outStream,
+                                final OutputStream errStream)
+  {
+    final RateToolWorker worker = new RateToolWorker(outStream, errStream);
+    return worker.runTool(args);
+  }
+
+
+
+  /**
+   * Creates a new instance of this tool.
+   *
+   * @param  outStream  The output stream to which standard out should be
+   *                    written.  It may be {@code null} if output should be
+   *                    suppressed.
+   * @param  errStream  The output stream to which standard error should be
+   *                    written.  It may be {@code null} if error messages
+   *                    should be suppressed.
+   */
+  public RateToolWorker(final OutputStream outStream,
+                        final OutputStream errStream)
+  {
+    super(outStream, errStream);
+
+    serverSocket  = null;
+    stopRequested = false;
+  }
+
+
+
+  /**
+   * Retrieves the name for this tool.
+   *
+   * @return  The name for this tool.
+   */
+  @Override()
+  public String getToolName()
+  {
+    return "rate-tool-worker";
+  }
+
+
+
+  /**
+   * Retrieves the description for this tool.
+   *
+   * @return  The description for this tool.
+   */
+  @Override()
+  public String getToolDescription()
+  {
+    return "Generate load on behalf of a searchrate, modrate, authrate, or " +
+         "search-and-mod-rate process running as a coordinator.  The " +
+         "coordinator provides the arguments to use, starts all of its " +
+         "workers at the same time, and merges the statistics that they " +
+         "gather.";
+  }
+
+
+
+  /**
+   * Retrieves the version string for this tool.
+   *
+   * @return  The version string for this tool.
+   */
+  @Override()
+  public String getToolVersion()
+  {
+    return Version.NUMERIC_VERSION_STRING;
+  }
+
+
+
+  /**
+   * Adds the arguments used by this program that aren't already provided by the
+   * generic {@code CommandLineTool} framework.
+   *
+   * @param  parser  The argument parser to which the arguments should be added.
+   *
+   * @throws  ArgumentException  If a problem occurs while adding the arguments.
+   */
+  @Override()
+  public void addToolArguments(final ArgumentParser parser)
+         throws ArgumentException
+  {
+    String description = "The address on which to listen for connections " +
+         "from coordinators.  If no value is provided, then the worker will " +
+         "only accept connections over the loopback interface.  Connections " +
+         "from coordinators are neither encrypted nor authenticated, so a " +
+         "non-loopback address should only be used on a trusted network.";
+    listenAddress = new StringArgument('a', "listenAddress", false, 1,
+         "{address}", description);
+    listenAddress.addLongIdentifier("listen-address", true);
+    parser.addArgument(listenAddress);
+
+
+    description = "The port on which to listen for connections from " +
+         "coordinators.  A value of zero indicates that a free port should " +
+         "be automatically selected.";
+    listenPort = new IntegerArgument('L', "listenPort", true, 1, "{port}",
+         description, 0, 65535);
+    listenPort.addLongIdentifier("listen-port", true);
+    parser.addArgument(listenPort);
+
+
+    description = "The maximum number of coordinator sessions to handle " +
+         "before exiting.  If no value is provided, then the worker will run " +
+         "until it is stopped.";
+    maxSessions = new IntegerArgument(null, "maxSessions", false, 1, "{num}",
+         description, 1, Integer.MAX_VALUE);
+    maxSessions.addLongIdentifier("max-sessions", true);
+    parser.addArgument(maxSessions);
+  }
+
+
+
+  /**
+   * Performs the actual processing for this tool.  In this case, it listens
+   * for connections from coordinators and runs the requested tool for each of
+   * them.
+   *
+   * @return  The result code for the processing that was performed.
+   */
+  @Override()
+  public ResultCode doToolProcessing()
+  {
+    final InetAddress address;
+    try
+    {
+      if (listenAddress.isPresent())
+      {
+        address = InetAddress.getByName(listenAddress.getValue());
+      }
+      else
+      {
+        address = InetAddress.getByName("127.0.0.1");
+      }
+    }
+    catch (final Exception e)
+    {
+      Debug.debugException(e);
+      err("Unable to resolve '", listenAddress.getValue(),
+          "' as a valid address:  ", StaticUtils.getExceptionMessage(e));
+      return ResultCode.PARAM_ERROR;
+    }
+
+    final ServerSocket s;
+    try
+    {
+      s = new ServerSocket();
+      s.setReuseAddress(true);
+      s.bind(new InetSocketAddress(address, listenPort.getValue()));
+    }
+    catch (final IOException ioe)
+    {
+      Debug.debugException(ioe);
+      err("Unable to listen for coordinator connections:  ",
+          StaticUtils.getExceptionMessage(ioe));
+      return ResultCode.LOCAL_ERROR;
+    }
+
+    serverSocket = s;
+    out("Listening for coordinator connections on ",
+        address.getHostAddress(), ':', s.getLocalPort());
+    if (! address.isLoopbackAddress())
+    {
+      err("WARNING:  This worker is listening on a non-loopback address.  " +
+           "Connections from coordinators are neither encrypted nor " +
+           "authenticated, so any client that can reach this address can " +
+           "run the rate tools with arbitrary arguments and can observe any " +
+           "credentials that coordinators send.  Only use a non-loopback " +
+           "address on a trusted network.");
+    }
+
+    try
+    {
+      int numSessions = 0;
+      while ((! stopRequested) &&
+             ((! maxSessions.isPresent()) ||
+              (numSessions < maxSessions.getValue())))
+      {
+        final Socket socket;
+        try
+        {
+          socket = s.accept();
+        }
+        catch (final IOException ioe)
+        {
+          Debug.debugException(ioe);
+          if (stopRequested)
+          {
+            break;
+          }
+
+          err("Unable to accept a coordinator connection:  ",
+              StaticUtils.getExceptionMessage(ioe));
+          return ResultCode.LOCAL_ERROR;
+        }
+
+        numSessions++;
+        handleSession(socket);
+      }
+
+      return ResultCode.SUCCESS;
+    }
+    finally
+    {
+      serverSocket = null;
+      try
+      {
+        s.close();
+      }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+      }
+    }
+  }
+
+
+
+  /**
+   * Reads the configuration from a coordinator and runs the requested tool.
+   *
+   * @param  socket  The socket connected to the coordinator.
+   */
+  private void handleSession(final Socket socket)
+  {
+    final String coordinatorAddress =
+         String.valueOf(socket.getRemoteSocketAddress());
+
+    final RateToolWorkerSession session;
+    try
+    {
+      session = new RateToolWorkerSession(socket);
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      err("Unable to read the configuration from coordinator ",
+          coordinatorAddress, ":  ", le.getMessage());
+      try
+      {
+        socket.close();
+      }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+      }
+      return;
+    }
+
+    try
+    {
+      final String toolName = session.getToolName();
+      out("Running ", toolName, " for coordinator ", coordinatorAddress);
+
+      final ResultCode resultCode;
+      if (toolName.equals("searchrate"))
+      {
+        final SearchRate tool = new SearchRate(getOut(), getErr());
+        tool.setWorkerSession(session);
+        resultCode = tool.runTool(session.getToolArguments());
+      }
+      else if (toolName.equals("modrate"))
+      {
+        final ModRate tool = new ModRate(getOut(), getErr());
+        tool.setWorkerSession(session);
+        resultCode = tool.runTool(session.getToolArguments());
+      }
+      else if (toolName.equals("authrate"))
+      {
+        final AuthRate tool = new AuthRate(getOut(), getErr());
+        tool.setWorkerSession(session);
+        resultCode = tool.runTool(session.getToolArguments());
+      }
+      else if (toolName.equals("search-and-mod-rate"))
+      {
+        final SearchAndModRate tool =
+             new SearchAndModRate(getOut(), getErr());
+        tool.setWorkerSession(session);
+        resultCode = tool.runTool(session.getToolArguments());
+      }
+      else
+      {
+        err("Coordinator ", coordinatorAddress,
+            " requested unsupported tool ", toolName);
+        resultCode = ResultCode.PARAM_ERROR;
+      }
+
+      out(toolName, " completed for coordinator ", coordinatorAddress,
+          " with result code ", resultCode);
+      session.sendCompleted(resultCode);
+    }
+    finally
+    {
+      session.close();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the port on which this worker is listening for connections from
+   * coordinators.
+   *
+   * @return  The port on which this worker is listening, or -1 if it is not
+   *          currently listening.
+   */
+  int getListenPort()
+  {
+    final ServerSocket s = serverSocket;
+    if (s == null)
+    {
+      return -1;
+    }
+    else
+    {
+      return s.getLocalPort();
+    }
+  }
+
+
+
+  /**
+   * Requests that this worker stop accepting connections from coordinators.
+   * A tool that is already running on behalf of a coordinator will continue
+   * to run until it completes or the coordinator disconnects.
+   */
+  public void stopRunning()
+  {
+    stopRequested = true;
+
+    final ServerSocket s = serverSocket;
+    if (s != null)
+    {
+      try
+      {
+        s.close();
+      }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+      }
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public LinkedHashMap<String[],String> getExampleUsages()
+  {
+    final LinkedHashMap<String[],String> examples =
+         new LinkedHashMap<String[],String>(1);
+
+    final String[] args =
+    {
+      "--listenPort", "3389"
+    };
+    final String description =
+         "Listen on port 3389 of the loopback interface for connections from " +
+         "searchrate, modrate, authrate, or search-and-mod-rate " +
+         "coordinators, and generate load on their behalf.  A coordinator " +
+         "on another system can reach this worker through an SSH tunnel " +
+         "(for example, one created with 'ssh -L 3389:127.0.0.1:3389 " +
+         "worker.example.com') by using a worker address of " +
+         "'127.0.0.1:3389'.";
+    examples.put(args, description);
+
+    return examples;
+  }
+}
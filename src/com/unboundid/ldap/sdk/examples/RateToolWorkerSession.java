@@ -0,0 +1,416 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.examples;
+
+
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+
+import com.unboundid.asn1.ASN1Element;
+import com.unboundid.asn1.ASN1Enumerated;
+import com.unboundid.asn1.ASN1Integer;
+import com.unboundid.asn1.ASN1Long;
+import com.unboundid.asn1.ASN1OctetString;
+import com.unboundid.asn1.ASN1Sequence;
+import com.unboundid.asn1.ASN1StreamReader;
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.ldap.sdk.ResultCode;
+import com.unboundid.util.Debug;
+import com.unboundid.util.StaticUtils;
+
+
+
+/**
+ * This class provides the worker side of a connection between a rate tool
+ * coordinator and a {@link RateToolWorker}.  The coordinator and worker
+ * exchange a simple sequence of ASN.1 messages over the connection:
+ * <OL>
+ *   <LI>The coordinator sends a config message with the name of the rate tool
+ *       to run and the arguments to provide to it.</LI>
+ *   <LI>Once the tool has established its connections to the directory server
+ *       and is ready to generate load, the worker sends a ready message.</LI>
+ *   <LI>Once all of the workers are ready, the coordinator sends a start
+ *       message to each of them.  The start message holds a delay in
+ *       milliseconds that the worker should wait before starting, which allows
+ *       all of the workers to start at about the same time without requiring
+ *       their clocks to be synchronized.</LI>
+ *   <LI>At the end of each interval, the worker sends an interval message with
+ *       the statistics for that interval.</LI>
+ *   <LI>When the tool completes, the worker sends a completed message with the
+ *       result code for the tool.</LI>
+ * </OL>
+ * If the connection to the coordinator is lost, then the worker will stop
+ * generating load.
+ */
+final class RateToolWorkerSession
+      implements Closeable
+{
+  /**
+   * The version of the protocol used to communicate with the coordinator.
+   */
+  static final int PROTOCOL_VERSION = 1;
+
+
+
+  /**
+   * The BER type for the config message sent by the coordinator.
+   */
+  static final byte TYPE_CONFIG = 0x60;
+
+
+
+  /**
+   * The BER type for the ready message sent by the worker.
+   */
+  static final byte TYPE_READY = 0x61;
+
+
+
+  /**
+   * The BER type for the start message sent by the coordinator.
+   */
+  static final byte TYPE_START = 0x62;
+
+
+
+  /**
+   * The BER type for the interval message sent by the worker.
+   */
+  static final byte TYPE_INTERVAL = 0x63;
+
+
+
+  /**
+   * The BER type for the completed message sent by the worker.
+   */
+  static final byte TYPE_COMPLETED = 0x64;
+
+
+
+  /**
+   * The maximum size in bytes of a message that will be read.
+   */
+  static final int MAX_MESSAGE_SIZE = 10 * 1024 * 1024;
+
+
+
+  // The ASN.1 stream reader used to read messages from the coordinator.
+  private final ASN1StreamReader reader;
+
+  // The output stream used to send messages to the coordinator.
+  private final OutputStream outputStream;
+
+  // The socket connected to the coordinator.
+  private final Socket socket;
+
+  // The name of the tool to run.
+  private final String toolName;
+
+  // The arguments to provide to the tool.
+  private final String[] toolArguments;
+
+
+
+  /**
+   * Creates a new worker session for the provided socket and reads the config
+   * message from the coordinator.
+   *
+   * @param  socket  The socket connected to the coordinator.
+   *
+   * @throws  LDAPException  If a problem occurs while reading the config
+   *                         message.
+   */
+  RateToolWorkerSession(final Socket socket)
+       throws LDAPException
+  {
+    this.socket = socket;
+
+    try
+    {
+      socket.setTcpNoDelay(true);
+      reader = new ASN1StreamReader(socket.getInputStream(), MAX_MESSAGE_SIZE);
+      outputStream = new BufferedOutputStream(socket.getOutputStream());
+    }
+    catch (final IOException ioe)
+    {
+      Debug.debugException(ioe);
+      throw new LDAPException(ResultCode.LOCAL_ERROR,
+           "Unable to communicate with the coordinator:  " +
+                StaticUtils.getExceptionMessage(ioe),
+           ioe);
+    }
+
+    final ASN1Element[] elements = readMessage(reader, TYPE_CONFIG).elements();
+    try
+    {
+      final int version = ASN1Integer.decodeAsInteger(elements[0]).intValue();
+      if (version != PROTOCOL_VERSION)
+      {
+        throw new LDAPException(ResultCode.PROTOCOL_ERROR,
+             "The coordinator requested unsupported protocol version " +
+                  version + '.');
+      }
+
+      toolName = ASN1OctetString.decodeAsOctetString(elements[1]).
+           stringValue();
+
+      final ASN1Element[] argElements =
+           ASN1Sequence.decodeAsSequence(elements[2]).elements();
+      toolArguments = new String[argElements.length];
+      for (int i=0; i < argElements.length; i++)
+      {
+        toolArguments[i] = ASN1OctetString.decodeAsOctetString(
+             argElements[i]).stringValue();
+      }
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      throw le;
+    }
+    catch (final Exception e)
+    {
+      Debug.debugException(e);
+      throw new LDAPException(ResultCode.DECODING_ERROR,
+           "Unable to decode the config message from the coordinator:  " +
+                StaticUtils.getExceptionMessage(e),
+           e);
+    }
+  }
+
+
+
+  /**
+   * Retrieves the name of the tool that the coordinator requested.
+   *
+   * @return  The name of the tool that the coordinator requested.
+   */
+  String getToolName()
+  {
+    return toolName;
+  }
+
+
+
+  /**
+   * Retrieves the arguments that should be provided to the tool.
+   *
+   * @return  The arguments that should be provided to the tool.
+   */
+  String[] getToolArguments()
+  {
+    return toolArguments;
+  }
+
+
+
+  /**
+   * Tells the coordinator that the tool is ready to generate load, and waits
+   * until the time at which it should start.  This should be called after the
+   * tool has established its connections to the directory server.
+   *
+   * @return  {@code true} if the tool should start generating load, or
+   *          {@code false} if the connection to the coordinator was lost and
+   *          the tool should stop.
+   */
+  boolean waitForStartTime()
+  {
+    try
+    {
+      writeMessage(outputStream, new ASN1Sequence(TYPE_READY));
+
+      final ASN1Element[] elements =
+           readMessage(reader, TYPE_START).elements();
+      final long delayMillis = ASN1Long.decodeAsLong(elements[0]).longValue();
+      if (delayMillis > 0L)
+      {
+        Thread.sleep(delayMillis);
+      }
+
+      return true;
+    }
+    catch (final Exception e)
+    {
+      Debug.debugException(e);
+      if (e instanceof InterruptedException)
+      {
+        Thread.currentThread().interrupt();
+      }
+      return false;
+    }
+  }
+
+
+
+  /**
+   * Sends the statistics for an interval to the coordinator.
+   *
+   * @param  data  The statistics for the interval.
+   *
+   * @return  {@code true} if the statistics were sent, or {@code false} if the
+   *          connection to the coordinator was lost and the tool should stop.
+   */
+  boolean sendInterval(final RateToolIntervalData data)
+  {
+    try
+    {
+      writeMessage(outputStream, data.encode(TYPE_INTERVAL));
+      return true;
+    }
+    catch (final IOException ioe)
+    {
+      Debug.debugException(ioe);
+      return false;
+    }
+  }
+
+
+
+  /**
+   * Tells the coordinator that the tool has completed.
+   *
+   * @param  resultCode  The result code returned by the tool.
+   */
+  void sendCompleted(final ResultCode resultCode)
+  {
+    try
+    {
+      writeMessage(outputStream, new ASN1Sequence(TYPE_COMPLETED,
+           new ASN1Enumerated(resultCode.intValue())));
+    }
+    catch (final IOException ioe)
+    {
+      Debug.debugException(ioe);
+    }
+  }
+
+
+
+  /**
+   * Closes the connection to the coordinator.
+   */
+  @Override()
+  public void close()
+  {
+    try
+    {
+      socket.close();
+    }
+    catch (final Exception e)
+    {
+      Debug.debugException(e);
+    }
+  }
+
+
+
+  /**
+   * Writes the provided message to the given output stream.
+   *
+   * @param  outputStream  The output stream to which the message should be
+   *                       written.
+   * @param  message       The message to write.
+   *
+   * @throws  IOException  If a problem occurs while writing the message.
+   */
+  static void writeMessage(final OutputStream outputStream,
+                           final ASN1Element message)
+         throws IOException
+  {
+    synchronized (outputStream)
+    {
+      outputStream.write(message.encode());
+      outputStream.flush();
+    }
+  }
+
+
+
+  /**
+   * Reads a message of one of the specified types from the provided reader.
+   *
+   * @param  reader         The reader from which to read the message.
+   * @param  expectedTypes  The BER types of the messages that are expected.
+   *
+   * @return  The message that was read.
+   *
+   * @throws  LDAPException  If the message could not be read, or if it did not
+   *                         have one of the expected types.
+   */
+  static ASN1Sequence readMessage(final ASN1StreamReader reader,
+                                  final byte... expectedTypes)
+         throws LDAPException
+  {
+    final ASN1Element message;
+    try
+    {
+      message = reader.readElement();
+    }
+    catch (final IOException ioe)
+    {
+      Debug.debugException(ioe);
+      throw new LDAPException(ResultCode.SERVER_DOWN,
+           "Unable to read a message from the remote system:  " +
+                StaticUtils.getExceptionMessage(ioe),
+           ioe);
+    }
+
+    if (message == null)
+    {
+      throw new LDAPException(ResultCode.SERVER_DOWN,
+           "The connection to the remote system was closed.");
+    }
+
+    boolean typeExpected = false;
+    for (final byte t : expectedTypes)
+    {
+      if (message.getType() == t)
+      {
+        typeExpected = true;
+        break;
+      }
+    }
+
+    if (! typeExpected)
+    {
+      throw new LDAPException(ResultCode.PROTOCOL_ERROR,
+           "Received a message with unexpected BER type " +
+                StaticUtils.toHex(message.getType()) + '.');
+    }
+
+    try
+    {
+      return ASN1Sequence.decodeAsSequence(message);
+    }
+    catch (final Exception e)
+    {
+      Debug.debugException(e);
+      throw new LDAPException(ResultCode.DECODING_ERROR,
+           "Unable to decode a message from the remote system:  " +
+                StaticUtils.getExceptionMessage(e),
+           e);
+    }
+  }
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.examples;
+
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.unboundid.ldap.sdk.AsyncRequestID;
+import com.unboundid.ldap.sdk.AsyncResultListener;
+import com.unboundid.ldap.sdk.AsyncSearchResultListener;
+import com.unboundid.ldap.sdk.Control;
+import com.unboundid.ldap.sdk.LDAPConnection;
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.ldap.sdk.LDAPResult;
+import com.unboundid.ldap.sdk.Modification;
+import com.unboundid.ldap.sdk.ModifyRequest;
+import com.unboundid.ldap.sdk.ResultCode;
+import com.unboundid.ldap.sdk.SearchResult;
+import com.unboundid.ldap.sdk.SearchResultEntry;
+import com.unboundid.ldap.sdk.SearchResultReference;
+import com.unboundid.util.Debug;
+import com.unboundid.util.LatencyHistogram;
+import com.unboundid.util.ResultCodeCounter;
+
+
+
+/**
+ * This class provides an asynchronous result listener that will be used for
+ * the {@link SearchAndModRate} tool when operating in open-loop mode.  It will
+ * be notified of the result of a search, and it will then send modify requests
+ * for each of the entries returned by that search and be notified of the
+ * results of those modifies.  The permit for the search will not be released
+ * until all of the modifies have completed.
+ */
+final class SearchAndModRateAsyncListener
+      implements AsyncSearchResultListener, AsyncResultListener
+{
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = -2917305473185210344L;
+
+
+
+  // The counter used to track the number of modifies that have not yet
+  // completed.
+  private final AtomicInteger remainingModifies;
+
+  // The counter used to track the number of errors encountered.
+  private final AtomicLong errorCounter;
+
+  // The counter used to track the number of modifications performed.
+  private final AtomicLong modCounter;
+
+  // The value that will be updated with total duration of the modifies.
+  private final AtomicLong modDurations;
+
+  // The counter used to track the number of searches performed.
+  private final AtomicLong searchCounter;
+
+  // The value that will be updated with total duration of the searches.
+  private final AtomicLong searchDurations;
+
+  // The result code for the search and modify thread.
+  private final AtomicReference<ResultCode> resultCode;
+
+  // The set of controls to include in modify requests.
+  private final Control[] modifyControls;
+
+  // The histogram used to track the modify response times.
+  private final LatencyHistogram modHistogram;
+
+  // The histogram used to track the search response times.
+  private final LatencyHistogram searchHistogram;
+
+  // The connection on which the modifies should be sent.
+  private final LDAPConnection connection;
+
+  // The DNs of the entries returned by the search.
+  private final List<String> entryDNs;
+
+  // The time that the search was scheduled to be sent, in nanoseconds.
+  private final long searchStartTime;
+
+  // The modifications to apply to each of the entries.
+  private final Modification[] mods;
+
+  // The result code counter to use for failed operations.
+  private final ResultCodeCounter rcCounter;
+
+  // The semaphore used to limit total number of outstanding asynchronous
+  // requests.
+  private final Semaphore asyncSemaphore;
+
+  // The time that the modifies were sent, in nanoseconds.
+  private volatile long modStartTime;
+
+
+
+  /**
+   * Creates a new instance of this listener with the provided information.
+   *
+   * @param  connection       The connection on which the modifies should be
+   *                          sent.
+   * @param  searchStartTime  The time that the search was scheduled to be
+   *                          sent, in terms of {@code System.nanoTime()}.
+   * @param  mods             The modifications to apply to each of the entries
+   *                          returned by the search.
+   * @param  modifyControls   The set of controls to include in modify
+   *                          requests.
+   * @param  searchCounter    A value that will be used to keep track of the
+   *                          total number of searches performed.
+   * @param  modCounter       A value that will be used to keep track of the
+   *                          total number of modifications performed.
+   * @param  searchDurations  A value that will be used to keep track of the
+   *                          total duration for all searches.
+   * @param  modDurations     A value that will be used to keep track of the
+   *                          total duration for all modifications.
+   * @param  searchHistogram  The histogram used to track the search response
+   *                          times.
+   * @param  modHistogram     The histogram used to track the modify response
+   *                          times.
+   * @param  errorCounter     A value that will be used to keep track of the
+   *                          number of errors encountered.
+   * @param  rcCounter        The result code counter to use for keeping track
+   *                          of the result codes for failed operations.
+   * @param  asyncSemaphore   The semaphore used to limit the total number of
+   *                          outstanding asynchronous requests.
+   * @param  resultCode       The result code for the search and modify thread.
+   */
+  SearchAndModRateAsyncListener(final LDAPConnection connection,
+                                final long searchStartTime,
+                                final Modification[] mods,
+                                final Control[] modifyControls,
+                                final AtomicLong searchCounter,
+                                final AtomicLong modCounter,
+                                final AtomicLong searchDurations,
+                                final AtomicLong modDurations,
+                                final LatencyHistogram searchHistogram,
+                                final LatencyHistogram modHistogram,
+                                final AtomicLong errorCounter,
+                                final ResultCodeCounter rcCounter,
+                                final Semaphore asyncSemaphore,
+                                final AtomicReference<ResultCode> resultCode)
+  {
+    this.connection      = connection;
+    this.searchStartTime = searchStartTime;
+    this.mods            = mods;
+    this.modifyControls  = modifyControls;
+    this.searchCounter   = searchCounter;
+    this.modCounter      = modCounter;
+    this.searchDurations = searchDurations;
+    this.modDurations    = modDurations;
+    this.searchHistogram = searchHistogram;
+    this.modHistogram    = modHistogram;
+    this.errorCounter    = errorCounter;
+    this.rcCounter       = rcCounter;
+    this.asyncSemaphore  = asyncSemaphore;
+    this.resultCode      = resultCode;
+
+    entryDNs = new ArrayList<String>(1);
+    remainingModifies = new AtomicInteger(0);
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void searchEntryReturned(final SearchResultEntry searchEntry)
+  {
+    entryDNs.add(searchEntry.getDN());
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void searchReferenceReturned(
+                   final SearchResultReference searchReference)
+  {
+    // No implementation required.
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void searchResultReceived(final AsyncRequestID requestID,
+                                   final SearchResult searchResult)
+  {
+    final long duration = System.nanoTime() - searchStartTime;
+    searchDurations.addAndGet(duration);
+    searchHistogram.recordValue(duration);
+    searchCounter.incrementAndGet();
+
+    final ResultCode rc = searchResult.getResultCode();
+    if ((rc != ResultCode.SUCCESS) || entryDNs.isEmpty())
+    {
+      if (rc != ResultCode.SUCCESS)
+      {
+        recordError(rc);
+      }
+
+      asyncSemaphore.release();
+      return;
+    }
+
+    // Send the modifies for all of the entries.  The permit for the search
+    // will be released once the last of them has completed.
+    remainingModifies.set(entryDNs.size());
+    modStartTime = System.nanoTime();
+    for (final String dn : entryDNs)
+    {
+      try
+      {
+        connection.asyncModify(new ModifyRequest(dn, mods, modifyControls),
+             this);
+      }
+      catch (final LDAPException le)
+      {
+        Debug.debugException(le);
+        modCounter.incrementAndGet();
+        recordError(le.getResultCode());
+        modifyCompleted();
+      }
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void ldapResultReceived(final AsyncRequestID requestID,
+                                 final LDAPResult ldapResult)
+  {
+    final long duration = System.nanoTime() - modStartTime;
+    modDurations.addAndGet(duration);
+    modHistogram.recordValue(duration);
+    modCounter.incrementAndGet();
+
+    final ResultCode rc = ldapResult.getResultCode();
+    if (rc != ResultCode.SUCCESS)
+    {
+      recordError(rc);
+    }
+
+    modifyCompleted();
+  }
+
+
+
+  /**
+   * Records an operation that failed with the provided result code.
+   *
+   * @param  rc  The result code for the failed operation.
+   */
+  private void recordError(final ResultCode rc)
+  {
+    errorCounter.incrementAndGet();
+    rcCounter.increment(rc);
+    resultCode.compareAndSet(null, rc);
+  }
+
+
+
+  /**
+   * Indicates that a modify has completed, and releases the permit for the
+   * search if it was the last one.
+   */
+  private void modifyCompleted()
+  {
+    if (remainingModifies.decrementAndGet() == 0)
+    {
+      asyncSemaphore.release();
+    }
+  }
+}
@@ -22,9 +22,11 @@ package com.unboundid.ldap.sdk.examples;
 
 
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -47,6 +49,7 @@ import com.unboundid.ldap.sdk.controls.ProxiedAuthorizationV2RequestControl;
 import com.unboundid.ldap.sdk.controls.SimplePagedResultsControl;
 import com.unboundid.util.Debug;
 import com.unboundid.util.FixedRateBarrier;
+import com.unboundid.util.LatencyHistogram;
 import com.unboundid.util.ResultCodeCounter;
 import com.unboundid.util.ValuePattern;
 
@@ -54,10 +57,15 @@ import com.unboundid.util.ValuePattern;
 
 /**
  * This class provides a thread that may be used to repeatedly perform search
- * and modify operations.
+ * and modify operations.  When the search-and-mod-rate tool is operating in
+ * open-loop mode, the thread is not started, and an
+ * {@link OpenLoopLoadGenerator} uses it to send asynchronous searches over its
+ * connection instead, with the entries returned by each search modified as
+ * soon as its result has been received.
  */
 final class SearchAndModRateThread
       extends Thread
+      implements OpenLoopRequestSender
 {
   // Indicates whether a request has been made to stop running.
   private final AtomicBoolean stopRequested;
@@ -81,6 +89,12 @@ final class SearchAndModRateThread
   // The value that will be updated with total duration of the searches.
   private final AtomicLong searchDurations;
 
+  // The histogram used to track the modify response times.
+  private final LatencyHistogram modHistogram;
+
+  // The histogram used to track the search response times.
+  private final LatencyHistogram searchHistogram;
+
   // The thread that is actually performing the search and modify operations.
   private final AtomicReference<Thread> searchAndModThread;
 
@@ -193,6 +207,10 @@ final class SearchAndModRateThread
    * @param  modDurations               A value that will be used to keep track
    *                                    of the total duration for all
    *                                    modifications.
+   * @param  searchHistogram            The histogram used to track the search
+   *                                    response times.
+   * @param  modHistogram               The histogram used to track the modify
+   *                                    response times.
    * @param  errorCounter               A value that will be used to keep track
    *                                    of the number of errors encountered
    *                                    while searching.
@@ -214,7 +232,9 @@ final class SearchAndModRateThread
        final long randomSeed, final CyclicBarrier startBarrier,
        final AtomicLong searchCounter, final AtomicLong modCounter,
        final AtomicLong searchDurations, final AtomicLong modDurations,
-       final AtomicLong errorCounter, final ResultCodeCounter rcCounter,
+       final LatencyHistogram searchHistogram,
+       final LatencyHistogram modHistogram, final AtomicLong errorCounter,
+       final ResultCodeCounter rcCounter,
        final FixedRateBarrier rateBarrier)
   {
     setName("SearchAndModRate Thread " + threadNumber);
@@ -236,6 +256,8 @@ final class SearchAndModRateThread
     this.modCounter                 = modCounter;
     this.searchDurations            = searchDurations;
     this.modDurations               = modDurations;
+    this.searchHistogram            = searchHistogram;
+    this.modHistogram               = modHistogram;
     this.errorCounter               = errorCounter;
     this.rcCounter                  = rcCounter;
     this.startBarrier               = startBarrier;
@@ -325,10 +347,13 @@ searchLoop:
       }
 
       // If we're trying for a specific target rate, then we might need to
-      // wait until issuing the next search.
+      // wait until issuing the next search.  In that case, the response time
+      // will be measured from the time that the search was scheduled to be
+      // sent, so that any delay in sending it is included.
+      long searchScheduledTime = 0L;
       if (fixedRateBarrier != null)
       {
-        fixedRateBarrier.await();
+        searchScheduledTime = fixedRateBarrier.awaitScheduledTime();
       }
 
       ProxiedAuthorizationV2RequestControl proxyControl = null;
@@ -364,7 +389,9 @@ searchLoop:
       }
 
       final ASN1OctetString pagedResultCookie = null;
-      final long searchStartTime = System.nanoTime();
+      final long searchStartTime = (fixedRateBarrier == null)
+           ? System.nanoTime()
+           : searchScheduledTime;
 
       try
       {
@@ -414,14 +441,18 @@ searchLoop:
 
           for (final SearchResultEntry e : r.getSearchEntries())
           {
-            if (fixedRateBarrier != null)
+            final long modStartTime;
+            if (fixedRateBarrier == null)
+            {
+              modStartTime = System.nanoTime();
+            }
+            else
             {
-              fixedRateBarrier.await();
+              modStartTime = fixedRateBarrier.awaitScheduledTime();
             }
 
             modifyRequest.setDN(e.getDN());
 
-            final long modStartTime = System.nanoTime();
             try
             {
               if (connection != null)
@@ -446,8 +477,10 @@ searchLoop:
             }
             finally
             {
+              final long modDuration = System.nanoTime() - modStartTime;
               modCounter.incrementAndGet();
-              modDurations.addAndGet(System.nanoTime() - modStartTime);
+              modDurations.addAndGet(modDuration);
+              modHistogram.recordValue(modDuration);
             }
           }
 
@@ -487,8 +520,10 @@ searchLoop:
       }
       finally
       {
+        final long searchDuration = System.nanoTime() - searchStartTime;
         searchCounter.incrementAndGet();
-        searchDurations.addAndGet(System.nanoTime() - searchStartTime);
+        searchDurations.addAndGet(searchDuration);
+        searchHistogram.recordValue(searchDuration);
       }
     }
 
@@ -502,6 +537,114 @@ searchLoop:
 
 
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void sendOpenLoopRequest(final long scheduledTime,
+                                  final Semaphore outstandingRequests)
+  {
+    if (connection == null)
+    {
+      try
+      {
+        connection = searchAndModRate.getConnection();
+      }
+      catch (final LDAPException le)
+      {
+        Debug.debugException(le);
+        errorCounter.incrementAndGet();
+
+        final ResultCode rc = le.getResultCode();
+        rcCounter.increment(rc);
+        resultCode.compareAndSet(null, rc);
+
+        outstandingRequests.release();
+        return;
+      }
+    }
+
+    // The modifications may still be referenced after this method returns, so
+    // they must not share any state with those for the next search.
+    final byte[] valueBytes = new byte[valueLength];
+    for (int i=0; i < valueLength; i++)
+    {
+      valueBytes[i] = charSet[random.nextInt(charSet.length)];
+    }
+
+    final ASN1OctetString[] values = { new ASN1OctetString(valueBytes) };
+    final Modification[] mods = new Modification[modAttributes.length];
+    for (int i=0; i < modAttributes.length; i++)
+    {
+      mods[i] = new Modification(ModificationType.REPLACE, modAttributes[i],
+           values);
+    }
+
+    final List<Control> searchRequestControls =
+         new ArrayList<Control>(searchControls);
+    final List<Control> modifyRequestControls =
+         new ArrayList<Control>(modifyControls);
+    if (authzID != null)
+    {
+      final ProxiedAuthorizationV2RequestControl proxyControl =
+           new ProxiedAuthorizationV2RequestControl(authzID.nextValue());
+      searchRequestControls.add(proxyControl);
+      modifyRequestControls.add(proxyControl);
+    }
+
+    final LDAPConnection conn = connection;
+    final SearchAndModRateAsyncListener listener =
+         new SearchAndModRateAsyncListener(conn, scheduledTime, mods,
+              modifyRequestControls.toArray(
+                   new Control[modifyRequestControls.size()]),
+              searchCounter, modCounter, searchDurations, modDurations,
+              searchHistogram, modHistogram, errorCounter, rcCounter,
+              outstandingRequests, resultCode);
+
+    try
+    {
+      final SearchRequest r = new SearchRequest(listener, baseDN.nextValue(),
+           searchRequest.getScope(), filter.nextValue(),
+           searchRequest.getAttributes());
+      r.setControls(searchRequestControls);
+      conn.asyncSearch(r);
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      errorCounter.incrementAndGet();
+
+      final ResultCode rc = le.getResultCode();
+      rcCounter.increment(rc);
+      resultCode.compareAndSet(null, rc);
+
+      outstandingRequests.release();
+
+      if (! le.getResultCode().isConnectionUsable())
+      {
+        conn.close();
+        connection = null;
+      }
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void closeOpenLoopConnections()
+  {
+    if (connection != null)
+    {
+      connection.close();
+      connection = null;
+    }
+  }
+
+
+
   /**
    * Indicates that this thread should stop running.
    *
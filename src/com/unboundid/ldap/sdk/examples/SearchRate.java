@@ -24,9 +24,11 @@ package com.unboundid.ldap.sdk.examples;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.PrintWriter;
 import java.io.Serializable;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -51,6 +53,7 @@ import com.unboundid.util.FixedRateBarrier;
 import com.unboundid.util.FormattableColumn;
 import com.unboundid.util.HorizontalAlignment;
 import com.unboundid.util.LDAPCommandLineTool;
+import com.unboundid.util.LatencyHistogram;
 import com.unboundid.util.ObjectPair;
 import com.unboundid.util.OutputFormat;
 import com.unboundid.util.RateAdjustor;
@@ -161,12 +164,43 @@ import static com.unboundid.util.StaticUtils.*;
  *       provided to limit the number of outstanding requests.</LI>
  *   <LI>"-O {num}" or "--maxOutstandingRequests {num}" -- Specifies the maximum
  *       number of outstanding requests that will be allowed in asynchronous
- *       mode.</LI>
+ *       or open-loop mode.</LI>
  *   <LI>"--suppressErrorResultCodes" -- Indicates that information about the
  *       result codes for failed operations should not be displayed.</LI>
  *   <LI>"-c" or "--csv" -- Generate output in CSV format rather than a
  *       display-friendly format.</LI>
+ *   <LI>"--histogramLogFile {path}" -- specifies the path to a file to which
+ *       a histogram of the search response times for each interval should be
+ *       written for offline analysis.</LI>
+ *   <LI>"--openLoopThreads {num}" -- specifies the number of threads to use
+ *       to schedule requests in open-loop mode.  In this mode, requests are
+ *       sent asynchronously at the target rate regardless of how quickly the
+ *       server responds to earlier requests, and the "--numThreads" argument
+ *       specifies the number of connections to use rather than the number of
+ *       threads.  Either the "--ratePerSecond" or "--variableRateData"
+ *       argument must also be provided.</LI>
+ *   <LI>"--arrivalDistribution {constant|poisson}" -- specifies how requests
+ *       should be spaced in open-loop mode.  A value of "constant" indicates
+ *       that they should be evenly spaced, and a value of "poisson" indicates
+ *       that they should arrive at random times according to a Poisson
+ *       process.  If this is not provided, then "constant" will be used.</LI>
+ *   <LI>"--workerAddress {host:port}" -- specifies the address of a
+ *       {@link RateToolWorker} that should generate the load.  If this is
+ *       provided (and it may be provided multiple times), then this tool will
+ *       act as a coordinator that sends its other arguments to each of the
+ *       workers, starts all of them at the same time, and displays the merged
+ *       statistics that they gather for each interval.  The arguments are
+ *       sent to the workers without encryption, so a password file should be
+ *       used rather than a literal password with workers that are not on the
+ *       local system.</LI>
  * </UL>
+ * <BR><BR>
+ * Response times are measured from the time that each search was scheduled to
+ * be sent rather than the time it was actually sent, so that when a target
+ * rate is in use, any time spent waiting for a slow response to an earlier
+ * request is reflected in the response times.  For each interval, the tool
+ * displays the 50th, 90th, 99th, and 99.9th percentile and maximum response
+ * times in addition to the average.
  */
 @ThreadSafety(level=ThreadSafetyLevel.NOT_THREADSAFE)
 public final class SearchRate
@@ -197,6 +231,10 @@ public final class SearchRate
   // the request.
   private ControlArgument control;
 
+  // The argument used to specify a file to which response time histograms
+  // should be written.
+  private FileArgument histogramLogFile;
+
   // The argument used to specify a variable rate file.
   private FileArgument sampleRateFile;
 
@@ -224,6 +262,10 @@ public final class SearchRate
   // The argument used to specify the number of threads.
   private IntegerArgument numThreads;
 
+  // The argument used to specify the number of threads to use to schedule
+  // requests in open-loop mode.
+  private IntegerArgument openLoopThreads;
+
   // The argument used to specify the seed to use for the random number
   // generator.
   private IntegerArgument randomSeed;
@@ -241,6 +283,10 @@ public final class SearchRate
   // The argument used to specify the scope for the searches.
   private ScopeArgument scopeArg;
 
+  // The argument used to specify the arrival distribution to use in open-loop
+  // mode.
+  private StringArgument arrivalDistribution;
+
   // The argument used to specify the attributes to return.
   private StringArgument attributes;
 
@@ -260,6 +306,15 @@ public final class SearchRate
   // The argument used to specify the timestamp format.
   private StringArgument timestampFormat;
 
+  // The argument used to specify the addresses of workers to coordinate.
+  private StringArgument workerAddress;
+
+  // The argument parser used by this tool.
+  private ArgumentParser parser;
+
+  // The session with the coordinator, if this tool is running as a worker.
+  private volatile RateToolWorkerSession workerSession;
+
   // The thread currently being used to run the searchrate tool.
   private volatile Thread runningThread;
 
@@ -489,6 +544,8 @@ public final class SearchRate
   public void addNonLDAPArguments(final ArgumentParser parser)
          throws ArgumentException
   {
+    this.parser = parser;
+
     String description = "The base DN to use for the searches.  It may be a " +
          "simple DN or a value pattern to specify a range of DNs (e.g., " +
          "\"uid=user.[1-1000],ou=People,dc=example,dc=com\").  See " +
@@ -703,7 +760,8 @@ public final class SearchRate
     parser.addArgument(asynchronousMode);
 
     description = "Specifies the maximum number of outstanding requests " +
-                  "that should be allowed when operating in asynchronous mode.";
+                  "that should be allowed when operating in asynchronous or " +
+                  "open-loop mode.";
     maxOutstandingRequests = new IntegerArgument('O', "maxOutstandingRequests",
          false, 1, "{num}", description, 1, Integer.MAX_VALUE, (Integer) null);
     maxOutstandingRequests.addLongIdentifier("max-outstanding-requests", true);
@@ -721,18 +779,85 @@ public final class SearchRate
     csvFormat = new BooleanArgument('c', "csv", 1, description);
     parser.addArgument(csvFormat);
 
+    description = "Specifies the path to a file to which a histogram of the " +
+                  "search response times for each interval should be " +
+                  "written for offline analysis.";
+    histogramLogFile = new FileArgument(null, "histogramLogFile", false, 1,
+         "{path}", description, false, true, true, false);
+    histogramLogFile.addLongIdentifier("histogram-log-file", true);
+    parser.addArgument(histogramLogFile);
+
+    description = "Specifies the number of threads to use to schedule " +
+                  "requests in open-loop mode, in which requests are sent " +
+                  "asynchronously at the target rate regardless of how " +
+                  "quickly the server responds to earlier requests.  In " +
+                  "this mode, the number of threads specified by the " +
+                  "'--numThreads' argument will be used as the number of " +
+                  "connections.  Either the '--ratePerSecond' or the " +
+                  "'--variableRateData' argument must also be provided.";
+    openLoopThreads = new IntegerArgument(null, "openLoopThreads", false, 1,
+         "{num}", description, 1, Integer.MAX_VALUE, (Integer) null);
+    openLoopThreads.addLongIdentifier("open-loop-threads", true);
+    parser.addArgument(openLoopThreads);
+
+    description = "Specifies how requests should be spaced in open-loop " +
+                  "mode.  A value of 'constant' indicates that they should " +
+                  "be evenly spaced, and a value of 'poisson' indicates " +
+                  "that they should arrive at random times according to a " +
+                  "Poisson process.";
+    final LinkedHashSet<String> allowedDistributions =
+         new LinkedHashSet<String>(2);
+    allowedDistributions.add(
+         OpenLoopLoadGenerator.ARRIVAL_DISTRIBUTION_CONSTANT);
+    allowedDistributions.add(
+         OpenLoopLoadGenerator.ARRIVAL_DISTRIBUTION_POISSON);
+    arrivalDistribution = new StringArgument(null, "arrivalDistribution",
+         false, 1, "{constant|poisson}", description, allowedDistributions,
+         OpenLoopLoadGenerator.ARRIVAL_DISTRIBUTION_CONSTANT);
+    arrivalDistribution.addLongIdentifier("arrival-distribution", true);
+    parser.addArgument(arrivalDistribution);
+
     description = "Specifies the seed to use for the random number generator.";
     randomSeed = new IntegerArgument('R', "randomSeed", false, 1, "{value}",
          description);
     randomSeed.addLongIdentifier("random-seed", true);
     parser.addArgument(randomSeed);
 
+    description = "Specifies the address, in the form host:port, of a " +
+                  "rate-tool-worker process that should generate the load " +
+                  "on behalf of this tool.  If this is provided, then this " +
+                  "tool will not connect to the directory server itself, " +
+                  "but will send its other arguments to each of the " +
+                  "workers, start all of them at the same time, and " +
+                  "display the merged results for each interval.  Any " +
+                  "target rate applies to each worker individually.  This " +
+                  "may be provided multiple times to use multiple workers.  " +
+                  "The arguments, including any bind password, are sent to " +
+                  "the workers without encryption, so a password file " +
+                  "should be used instead of a literal password with " +
+                  "workers that are not on the local system.";
+    workerAddress = new StringArgument(null, "workerAddress", false, 0,
+         "{host:port}", description);
+    workerAddress.addLongIdentifier("worker-address", true);
+    parser.addArgument(workerAddress);
+
 
     parser.addDependentArgumentSet(asynchronousMode, ratePerSecond,
          maxOutstandingRequests);
-    parser.addDependentArgumentSet(maxOutstandingRequests, asynchronousMode);
+    parser.addDependentArgumentSet(maxOutstandingRequests, asynchronousMode,
+         openLoopThreads);
 
     parser.addExclusiveArgumentSet(asynchronousMode, simplePageSize);
+
+    // Open-loop mode requires a target rate, and the connections cannot be
+    // replaced while requests may be outstanding on them.
+    parser.addDependentArgumentSet(openLoopThreads, ratePerSecond,
+         variableRateData);
+    parser.addDependentArgumentSet(arrivalDistribution, openLoopThreads);
+    parser.addExclusiveArgumentSet(openLoopThreads, asynchronousMode);
+    parser.addExclusiveArgumentSet(openLoopThreads, simplePageSize);
+    parser.addExclusiveArgumentSet(openLoopThreads, iterationsBeforeReconnect);
+    parser.addExclusiveArgumentSet(workerAddress, sampleRateFile);
   }
 
 
@@ -766,7 +891,8 @@ public final class SearchRate
   public LDAPConnectionOptions getConnectionOptions()
   {
     final LDAPConnectionOptions options = new LDAPConnectionOptions();
-    options.setUseSynchronousMode(! asynchronousMode.isPresent());
+    options.setUseSynchronousMode(! (asynchronousMode.isPresent() ||
+         openLoopThreads.isPresent()));
     return options;
   }
 
@@ -968,7 +1094,8 @@ public final class SearchRate
            ? Integer.MAX_VALUE
            : ratePerSecond.getValue() * intervalSeconds;
       fixedRateBarrier =
-           new FixedRateBarrier(1000L * intervalSeconds, ratePerInterval);
+           new FixedRateBarrier(1000L * intervalSeconds, ratePerInterval,
+                false);
     }
 
 
@@ -1058,7 +1185,7 @@ public final class SearchRate
     }
 
     final ColumnFormatter formatter = new ColumnFormatter(includeTimestamp,
-         timeFormat, outputFormat, " ",
+         timeFormat, outputFormat, " ", LatencyHistogramTracker.appendColumns(
          new FormattableColumn(12, HorizontalAlignment.RIGHT, "Recent",
                   "Searches/Sec"),
          new FormattableColumn(12, HorizontalAlignment.RIGHT, "Recent",
@@ -1070,7 +1197,34 @@ public final class SearchRate
          new FormattableColumn(12, HorizontalAlignment.RIGHT, "Overall",
                   "Searches/Sec"),
          new FormattableColumn(12, HorizontalAlignment.RIGHT, "Overall",
-                  "Avg Dur ms"));
+                  "Avg Dur ms")));
+
+
+    // Create the tracker that will be used for the response time histograms,
+    // and the histogram log if one was requested.
+    final LatencyHistogramTracker latencyTracker;
+    try
+    {
+      final PrintWriter logWriter = LatencyHistogramTracker.createLogWriter(
+           histogramLogFile.getValue(), getToolName());
+      latencyTracker = new LatencyHistogramTracker("search", logWriter);
+    }
+    catch (final IOException ioe)
+    {
+      debugException(ioe);
+      err("Unable to create histogram log file ",
+           histogramLogFile.getValue().getAbsolutePath(), ":  ",
+           getExceptionMessage(ioe));
+      return ResultCode.LOCAL_ERROR;
+    }
+
+
+    // If any workers were specified, then they will generate the load and this
+    // tool will only display the merged results.
+    if (workerAddress.isPresent())
+    {
+      return runAsCoordinator(formatter, latencyTracker);
+    }
 
 
     // Create values to use for statistics collection.
@@ -1085,6 +1239,22 @@ public final class SearchRate
     final long intervalMillis = 1000L * collectionInterval.getValue();
 
 
+    // Asynchronous searches can be sent from a pre-encoded template, which
+    // avoids the need to parse the filter and encode the request for each
+    // search, if the filter pattern allows it.
+    final SearchRateTemplate searchTemplate;
+    if (asynchronousMode.isPresent() || openLoopThreads.isPresent())
+    {
+      searchTemplate = SearchRateTemplate.create(dnPattern,
+           scopeArg.getValue(), filter.getValue(), seed, attrs,
+           authzIDPattern, controlList);
+    }
+    else
+    {
+      searchTemplate = null;
+    }
+
+
     // Create the threads to use for the searches.
     final CyclicBarrier barrier = new CyclicBarrier(numThreads.getValue() + 1);
     final SearchRateThread[] threads =
@@ -1108,9 +1278,40 @@ public final class SearchRate
            asynchronousMode.isPresent(), dnPattern, scopeArg.getValue(),
            filterPattern, attrs, authzIDPattern, simplePageSize.getValue(),
            controlList, iterationsBeforeReconnect.getValue(), barrier,
-           searchCounter, entryCounter, searchDurations, errorCounter,
-           rcCounter, fixedRateBarrier, asyncSemaphore);
-      threads[i].start();
+           searchCounter, entryCounter, searchDurations,
+           latencyTracker.createThreadHistogram(), errorCounter, rcCounter,
+           fixedRateBarrier, asyncSemaphore, searchTemplate);
+      if (! openLoopThreads.isPresent())
+      {
+        threads[i].start();
+      }
+    }
+
+
+    // If open-loop mode was requested, then create the generator that will
+    // schedule the requests and send them over the threads' connections.
+    final OpenLoopLoadGenerator loadGenerator;
+    if (openLoopThreads.isPresent())
+    {
+      final int maxOutstanding;
+      if (maxOutstandingRequests.isPresent())
+      {
+        maxOutstanding = maxOutstandingRequests.getValue();
+      }
+      else
+      {
+        maxOutstanding = threads.length *
+             OpenLoopLoadGenerator.DEFAULT_MAX_OUTSTANDING_REQUESTS_PER_SENDER;
+      }
+
+      loadGenerator = new OpenLoopLoadGenerator(getToolName(),
+           Arrays.asList(threads), openLoopThreads.getValue(),
+           fixedRateBarrier, arrivalDistribution.getValue(), maxOutstanding,
+           ((seed == null) ? System.nanoTime() : seed));
+    }
+    else
+    {
+      loadGenerator = null;
     }
 
 
@@ -1121,6 +1322,14 @@ public final class SearchRate
     }
 
 
+    // If this tool is running as a worker, then wait until the coordinator
+    // says that all of the workers should start.
+    if ((workerSession != null) && (! workerSession.waitForStartTime()))
+    {
+      stopRequested.set(true);
+    }
+
+
     // Start the RateAdjustor before the threads so that the initial value is
     // in place before any load is generated unless we're doing a warm-up in
     // which case, we'll start it after the warm-up is complete.
@@ -1131,13 +1340,20 @@ public final class SearchRate
 
 
     // Indicate that the threads can start running.
-    try
+    if (loadGenerator == null)
     {
-      barrier.await();
+      try
+      {
+        barrier.await();
+      }
+      catch (final Exception e)
+      {
+        debugException(e);
+      }
     }
-    catch (final Exception e)
+    else
     {
-      debugException(e);
+      loadGenerator.start();
     }
 
     long overallStartTime = System.nanoTime();
@@ -1177,11 +1393,14 @@ public final class SearchRate
 
       final long endTime          = System.nanoTime();
       final long intervalDuration = endTime - lastEndTime;
+      final boolean warmingUp     = warmUp && (remainingWarmUpIntervals > 0);
 
       final long numSearches;
       final long numEntries;
       final long numErrors;
       final long totalDuration;
+      final LatencyHistogram recentHistogram = latencyTracker.collectInterval(
+           ! (warmUp && (remainingWarmUpIntervals > 0)));
       if (warmUp && (remainingWarmUpIntervals > 0))
       {
         numSearches   = searchCounter.getAndSet(0L);
@@ -1222,9 +1441,10 @@ public final class SearchRate
 
       if (warmUp && (remainingWarmUpIntervals > 0))
       {
-        out(formatter.formatRow(recentSearchRate, recentAvgDuration,
+        out(formatter.formatRow(LatencyHistogramTracker.appendColumnValues(
+             recentHistogram, recentSearchRate, recentAvgDuration,
              recentEntriesPerSearch, recentErrorRate, "warming up",
-             "warming up"));
+             "warming up")));
 
         remainingWarmUpIntervals--;
         if (remainingWarmUpIntervals == 0)
@@ -1259,9 +1479,10 @@ public final class SearchRate
           overallAvgDuration = 0.0d;
         }
 
-        out(formatter.formatRow(recentSearchRate, recentAvgDuration,
+        out(formatter.formatRow(LatencyHistogramTracker.appendColumnValues(
+             recentHistogram, recentSearchRate, recentAvgDuration,
              recentEntriesPerSearch, recentErrorRate, overallSearchRate,
-             overallAvgDuration));
+             overallAvgDuration)));
 
         lastNumSearches = numSearches;
         lastNumEntries  = numEntries;
@@ -1281,6 +1502,16 @@ public final class SearchRate
       }
 
       lastEndTime = endTime;
+
+      if ((workerSession != null) &&
+          (! workerSession.sendInterval(new RateToolIntervalData(
+               intervalDuration, warmingUp,
+               new long[] { recentNumSearches, recentNumEntries,
+                    recentNumErrors, recentDuration },
+               new LatencyHistogram[] { recentHistogram }, rcCounts))))
+      {
+        break;
+      }
     }
 
 
@@ -1291,7 +1522,12 @@ public final class SearchRate
     }
 
 
-    // Stop all of the threads.
+    // Stop the open-loop generator, if there is one, and all of the threads.
+    if (loadGenerator != null)
+    {
+      loadGenerator.stopRunning();
+    }
+
     ResultCode resultCode = ResultCode.SUCCESS;
     for (final SearchRateThread t : threads)
     {
@@ -1306,11 +1542,109 @@ public final class SearchRate
       }
     }
 
+    latencyTracker.close();
     return resultCode;
   }
 
 
 
+  /**
+   * Runs this tool as a coordinator, in which the load is generated by the
+   * workers specified with the "--workerAddress" argument, and the statistics
+   * that they gather for each interval are merged and displayed.
+   *
+   * @param  formatter       The formatter to use to display the results.
+   * @param  latencyTracker  The tracker whose histogram log (if any) should be
+   *                         updated with the merged response times.
+   *
+   * @return  The result code for the processing that was performed.
+   */
+  private ResultCode runAsCoordinator(final ColumnFormatter formatter,
+                          final LatencyHistogramTracker latencyTracker)
+  {
+    final RateToolCoordinator.IntervalHandler handler =
+         new RateToolCoordinator.IntervalHandler()
+    {
+      @Override()
+      public Object[] getColumnValues(final RateToolIntervalData data,
+                                      final long[] overallCounters,
+                                      final long overallNanos)
+      {
+        final long recentNumSearches = data.getCounter(0);
+        final long recentNumEntries  = data.getCounter(1);
+
+        final double recentEntriesPerSearch;
+        if (recentNumSearches > 0L)
+        {
+          recentEntriesPerSearch = 1.0d * recentNumEntries / recentNumSearches;
+        }
+        else
+        {
+          recentEntriesPerSearch = 0.0d;
+        }
+
+        final Object overallSearchRate;
+        final Object overallAvgDuration;
+        if (overallCounters == null)
+        {
+          overallSearchRate  = "warming up";
+          overallAvgDuration = "warming up";
+        }
+        else
+        {
+          overallSearchRate = RateToolCoordinator.getRate(overallCounters[0],
+               overallNanos);
+          overallAvgDuration = RateToolCoordinator.getAverageMillis(
+               overallCounters[3], overallCounters[0]);
+        }
+
+        return LatencyHistogramTracker.appendColumnValues(
+             data.getHistogram(0),
+             RateToolCoordinator.getRate(recentNumSearches,
+                  data.getDurationNanos()),
+             RateToolCoordinator.getAverageMillis(data.getCounter(3),
+                  recentNumSearches),
+             recentEntriesPerSearch,
+             RateToolCoordinator.getRate(data.getCounter(2),
+                  data.getDurationNanos()),
+             overallSearchRate, overallAvgDuration);
+      }
+
+      @Override()
+      public void logInterval(final RateToolIntervalData data)
+      {
+        latencyTracker.logInterval(data.getHistogram(0));
+      }
+    };
+
+    try
+    {
+      return RateToolCoordinator.run(this, parser, workerAddress.getValues(),
+           stopRequested, suppressErrors.isPresent(), formatter, handler,
+           workerAddress, histogramLogFile);
+    }
+    finally
+    {
+      latencyTracker.close();
+    }
+  }
+
+
+
+  /**
+   * Specifies the session with the coordinator that this tool should use when
+   * it is running as a {@link RateToolWorker}.  This must be called before the
+   * tool is run.
+   *
+   * @param  workerSession  The session with the coordinator.
+   */
+  void setWorkerSession(final RateToolWorkerSession workerSession)
+  {
+    this.workerSession = workerSession;
+  }
+
+
+
   /**
    * Requests that this tool stop running.  This method will attempt to wait
    * for all threads to complete before returning control to the caller.
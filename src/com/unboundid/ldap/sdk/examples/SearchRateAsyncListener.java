@@ -32,6 +32,7 @@ import com.unboundid.ldap.sdk.ResultCode;
 import com.unboundid.ldap.sdk.SearchResult;
 import com.unboundid.ldap.sdk.SearchResultEntry;
 import com.unboundid.ldap.sdk.SearchResultReference;
+import com.unboundid.util.LatencyHistogram;
 import com.unboundid.util.ResultCodeCounter;
 
 
@@ -62,10 +63,13 @@ final class SearchRateAsyncListener
   // The value that will be updated with total duration of the searches.
   private final AtomicLong searchDurations;
 
+  // The histogram used to track the search response times.
+  private final LatencyHistogram searchHistogram;
+
   // The result code for the search.
   private final AtomicReference<ResultCode> resultCode;
 
-  // The time that the search was invoked, in nanoseconds.
+  // The time that the search was scheduled to be sent, in nanoseconds.
   private final long startTime;
 
   // The result code counter to use for failed operations.
@@ -80,12 +84,16 @@ final class SearchRateAsyncListener
   /**
    * Creates a new instance of this listener with the provided information.
    *
+   * @param  startTime        The time that the search was scheduled to be
+   *                          sent, in terms of {@code System.nanoTime()}.
    * @param  searchCounter    A value that will be used to keep track of the
    *                          total number of searches performed.
    * @param  entryCounter     A value that will be used to keep track of the
    *                          total number of entries returned.
    * @param  searchDurations  A value that will be used to keep track of the
    *                          total duration for all searches.
+   * @param  searchHistogram  The histogram used to track the search response
+   *                          times.
    * @param  errorCounter     A value that will be used to keep track of the
    *                          number of errors encountered while searching.
    * @param  rcCounter        The result code counter to use for keeping track
@@ -94,9 +102,11 @@ final class SearchRateAsyncListener
    *                          outstanding asynchronous requests.
    * @param  resultCode       The result code for the search thread.
    */
-  SearchRateAsyncListener(final AtomicLong searchCounter,
+  SearchRateAsyncListener(final long startTime,
+                          final AtomicLong searchCounter,
                           final AtomicLong entryCounter,
                           final AtomicLong searchDurations,
+                          final LatencyHistogram searchHistogram,
                           final AtomicLong errorCounter,
                           final ResultCodeCounter rcCounter,
                           final Semaphore asyncSemaphore,
@@ -104,13 +114,13 @@ final class SearchRateAsyncListener
   {
     this.searchCounter   = searchCounter;
     this.entryCounter    = entryCounter;
+    this.startTime       = startTime;
     this.searchDurations = searchDurations;
+    this.searchHistogram = searchHistogram;
     this.errorCounter    = errorCounter;
     this.rcCounter       = rcCounter;
     this.asyncSemaphore  = asyncSemaphore;
     this.resultCode      = resultCode;
-
-    startTime = System.nanoTime();
   }
 
 
@@ -145,7 +155,9 @@ final class SearchRateAsyncListener
   public void searchResultReceived(final AsyncRequestID requestID,
                                    final SearchResult searchResult)
   {
-    searchDurations.addAndGet(System.nanoTime() - startTime);
+    final long duration = System.nanoTime() - startTime;
+    searchDurations.addAndGet(duration);
+    searchHistogram.recordValue(duration);
 
     if (asyncSemaphore != null)
     {
@@ -0,0 +1,429 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.examples;
+
+
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.unboundid.ldap.sdk.AsyncRequestID;
+import com.unboundid.ldap.sdk.AsyncSearchResultListener;
+import com.unboundid.ldap.sdk.Control;
+import com.unboundid.ldap.sdk.Filter;
+import com.unboundid.ldap.sdk.LDAPConnection;
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.ldap.sdk.RequestTemplate;
+import com.unboundid.ldap.sdk.SearchRequest;
+import com.unboundid.ldap.sdk.SearchScope;
+import com.unboundid.ldap.sdk.controls.ProxiedAuthorizationV2RequestControl;
+import com.unboundid.util.ByteStringBuffer;
+import com.unboundid.util.Debug;
+import com.unboundid.util.ValuePattern;
+
+
+
+/**
+ * This class provides a pre-encoded template that the searchrate tool may use
+ * to send asynchronous searches without creating and encoding a new search
+ * request (and parsing a new filter) for each search.  The template has
+ * placeholders for the base DN, for each filter assertion value that contains
+ * a numeric value pattern component, and for the proxied authorization
+ * identity (if any), and each of those is generated with its own value
+ * pattern.
+ * <BR><BR>
+ * A template can only be created if the filter pattern can be parsed as a
+ * filter in which all of the value pattern components are numeric ranges that
+ * appear in assertion values.  Other components (like those that read values
+ * from a file) could generate values that change the structure of the filter,
+ * and back-references could refer to a component in a different assertion
+ * value, so filter patterns that include them will be processed without a
+ * template.
+ */
+final class SearchRateTemplate
+      implements Serializable
+{
+  /**
+   * The pattern that will be used to identify value pattern components.
+   */
+  private static final Pattern COMPONENT_PATTERN =
+       Pattern.compile("\\[[^\\]]*\\]");
+
+
+
+  /**
+   * The pattern that will be used to identify numeric value pattern
+   * components.
+   */
+  private static final Pattern NUMERIC_COMPONENT_PATTERN =
+       Pattern.compile("\\[-?[0-9]+[-:][^\\]]*\\]");
+
+
+
+  /**
+   * The prefix that will be used for the placeholders in the template.
+   */
+  private static final String PLACEHOLDER_PREFIX = "{searchrate-template-";
+
+
+
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = 6307614584366862431L;
+
+
+
+  // The value patterns used to generate the value for each placeholder.
+  private final ValuePattern[] valuePatterns;
+
+  // The template used to encode the search requests.
+  private final RequestTemplate template;
+
+
+
+  /**
+   * Creates a new searchrate template with the provided information.
+   *
+   * @param  template       The template used to encode the search requests.
+   * @param  valuePatterns  The value patterns used to generate the value for
+   *                        each placeholder.
+   */
+  private SearchRateTemplate(final RequestTemplate template,
+                             final ValuePattern[] valuePatterns)
+  {
+    this.template      = template;
+    this.valuePatterns = valuePatterns;
+  }
+
+
+
+  /**
+   * Attempts to create a searchrate template with the provided information.
+   *
+   * @param  baseDN           The value pattern to use for the base DNs.
+   * @param  scope            The scope to use for the searches.
+   * @param  filterPattern    The string representation of the value pattern
+   *                          for the filters.
+   * @param  seed             The seed to use for the value patterns created
+   *                          for the filter assertion values.  It may be
+   *                          {@code null} if no seed should be used.
+   * @param  attributes       The set of attributes to return.
+   * @param  authzID          The value pattern to use to generate
+   *                          authorization identities for use with the
+   *                          proxied authorization control.  It may be
+   *                          {@code null} if proxied authorization should not
+   *                          be used.
+   * @param  requestControls  A list of controls that should be included in
+   *                          every search request.
+   *
+   * @return  The searchrate template that was created, or {@code null} if the
+   *          filter pattern cannot be used with a template.
+   */
+  static SearchRateTemplate create(final ValuePattern baseDN,
+                                   final SearchScope scope,
+                                   final String filterPattern,
+                                   final Long seed,
+                                   final String[] attributes,
+                                   final ValuePattern authzID,
+                                   final List<Control> requestControls)
+  {
+    if (filterPattern.contains("[[") || filterPattern.contains("]]"))
+    {
+      return null;
+    }
+
+    int numComponents = 0;
+    final Matcher componentMatcher = COMPONENT_PATTERN.matcher(filterPattern);
+    while (componentMatcher.find())
+    {
+      if (! NUMERIC_COMPONENT_PATTERN.matcher(
+                 componentMatcher.group()).matches())
+      {
+        return null;
+      }
+
+      numComponents++;
+    }
+
+    try
+    {
+      final List<String> placeholders = new ArrayList<String>(5);
+      final List<ValuePattern> patterns = new ArrayList<ValuePattern>(5);
+
+      placeholders.add(PLACEHOLDER_PREFIX + "base}");
+      patterns.add(baseDN);
+
+      // If a seed was provided, then use it to generate a separate seed for
+      // each value pattern, so that the values of different assertions will
+      // not be correlated with each other.
+      final Random random;
+      if (seed == null)
+      {
+        random = null;
+      }
+      else
+      {
+        random = new Random(seed);
+      }
+
+      final Filter filter = replaceAssertionValues(
+           Filter.create(filterPattern), random, placeholders, patterns);
+
+      // Make sure that every component in the filter pattern was in an
+      // assertion value.
+      int numReplacedComponents = 0;
+      for (int i=1; i < patterns.size(); i++)
+      {
+        final Matcher m =
+             COMPONENT_PATTERN.matcher(patterns.get(i).toString());
+        while (m.find())
+        {
+          numReplacedComponents++;
+        }
+      }
+
+      if (numReplacedComponents != numComponents)
+      {
+        return null;
+      }
+
+      final SearchRequest searchRequest = new SearchRequest(
+           placeholders.get(0), scope, filter, attributes);
+      searchRequest.setControls(requestControls);
+
+      if (authzID != null)
+      {
+        final String placeholder = PLACEHOLDER_PREFIX + "authz}";
+        searchRequest.addControl(
+             new ProxiedAuthorizationV2RequestControl(placeholder));
+        placeholders.add(placeholder);
+        patterns.add(authzID);
+      }
+
+      final RequestTemplate template = new RequestTemplate(searchRequest,
+           placeholders.toArray(new String[placeholders.size()]));
+      return new SearchRateTemplate(template,
+           patterns.toArray(new ValuePattern[patterns.size()]));
+    }
+    catch (final Exception e)
+    {
+      Debug.debugException(e);
+      return null;
+    }
+  }
+
+
+
+  /**
+   * Creates a copy of the provided filter in which each assertion value that
+   * contains a value pattern component has been replaced with a placeholder.
+   *
+   * @param  filter        The filter to process.
+   * @param  random        The random number generator to use to obtain the
+   *                       seeds for the value patterns created for the
+   *                       assertion values.  It may be {@code null} if no
+   *                       seeds should be used.
+   * @param  placeholders  The list of placeholders, to which any new
+   *                       placeholders will be added.
+   * @param  patterns      The list of value patterns, to which the value
+   *                       pattern for each new placeholder will be added.
+   *
+   * @return  The filter with the placeholders.
+   *
+   * @throws  Exception  If an assertion value cannot be parsed as a value
+   *                     pattern.
+   */
+  private static Filter replaceAssertionValues(final Filter filter,
+               final Random random, final List<String> placeholders,
+               final List<ValuePattern> patterns)
+          throws Exception
+  {
+    switch (filter.getFilterType())
+    {
+      case Filter.FILTER_TYPE_AND:
+      case Filter.FILTER_TYPE_OR:
+        final Filter[] components = filter.getComponents();
+        final Filter[] newComponents = new Filter[components.length];
+        for (int i=0; i < components.length; i++)
+        {
+          newComponents[i] = replaceAssertionValues(components[i], random,
+               placeholders, patterns);
+        }
+
+        if (filter.getFilterType() == Filter.FILTER_TYPE_AND)
+        {
+          return Filter.createANDFilter(newComponents);
+        }
+        else
+        {
+          return Filter.createORFilter(newComponents);
+        }
+
+      case Filter.FILTER_TYPE_NOT:
+        return Filter.createNOTFilter(replaceAssertionValues(
+             filter.getNOTComponent(), random, placeholders, patterns));
+
+      case Filter.FILTER_TYPE_EQUALITY:
+        return Filter.createEqualityFilter(filter.getAttributeName(),
+             replaceValue(filter.getAssertionValue(), random,
+                  placeholders, patterns));
+
+      case Filter.FILTER_TYPE_GREATER_OR_EQUAL:
+        return Filter.createGreaterOrEqualFilter(filter.getAttributeName(),
+             replaceValue(filter.getAssertionValue(), random,
+                  placeholders, patterns));
+
+      case Filter.FILTER_TYPE_LESS_OR_EQUAL:
+        return Filter.createLessOrEqualFilter(filter.getAttributeName(),
+             replaceValue(filter.getAssertionValue(), random,
+                  placeholders, patterns));
+
+      case Filter.FILTER_TYPE_APPROXIMATE_MATCH:
+        return Filter.createApproximateMatchFilter(filter.getAttributeName(),
+             replaceValue(filter.getAssertionValue(), random,
+                  placeholders, patterns));
+
+      case Filter.FILTER_TYPE_EXTENSIBLE_MATCH:
+        return Filter.createExtensibleMatchFilter(filter.getAttributeName(),
+             filter.getMatchingRuleID(), filter.getDNAttributes(),
+             replaceValue(filter.getAssertionValue(), random,
+                  placeholders, patterns));
+
+      case Filter.FILTER_TYPE_SUBSTRING:
+        final String[] subAny = filter.getSubAnyStrings();
+        final String[] newSubAny = new String[subAny.length];
+        for (int i=0; i < subAny.length; i++)
+        {
+          newSubAny[i] =
+               replaceValue(subAny[i], random, placeholders, patterns);
+        }
+
+        return Filter.createSubstringFilter(filter.getAttributeName(),
+             replaceValue(filter.getSubInitialString(), random,
+                  placeholders, patterns),
+             newSubAny,
+             replaceValue(filter.getSubFinalString(), random,
+                  placeholders, patterns));
+
+      case Filter.FILTER_TYPE_PRESENCE:
+      default:
+        return filter;
+    }
+  }
+
+
+
+  /**
+   * Replaces the provided value with a placeholder if it contains a value
+   * pattern component.
+   *
+   * @param  value         The value to process.  It may be {@code null}.
+   * @param  random        The random number generator to use to obtain the
+   *                       seed for the value pattern created for the value.
+   *                       It may be {@code null} if no seed should be used.
+   * @param  placeholders  The list of placeholders, to which a new placeholder
+   *                       will be added if appropriate.
+   * @param  patterns      The list of value patterns, to which the value
+   *                       pattern for a new placeholder will be added if
+   *                       appropriate.
+   *
+   * @return  The placeholder for the value, or the provided value if it does
+   *          not contain any value pattern components.
+   *
+   * @throws  Exception  If the value cannot be parsed as a value pattern.
+   */
+  private static String replaceValue(final String value,
+                                     final Random random,
+                                     final List<String> placeholders,
+                                     final List<ValuePattern> patterns)
+          throws Exception
+  {
+    if ((value == null) || (value.indexOf('[') < 0))
+    {
+      return value;
+    }
+
+    final String placeholder = PLACEHOLDER_PREFIX + placeholders.size() + '}';
+    if (random == null)
+    {
+      patterns.add(new ValuePattern(value));
+    }
+    else
+    {
+      patterns.add(new ValuePattern(value, random.nextLong()));
+    }
+    placeholders.add(placeholder);
+    return placeholder;
+  }
+
+
+
+  /**
+   * Retrieves the number of values that must be generated for each search.
+   *
+   * @return  The number of values that must be generated for each search.
+   */
+  int getNumValues()
+  {
+    return valuePatterns.length;
+  }
+
+
+
+  /**
+   * Generates the values for the next search and sends it as an asynchronous
+   * operation.
+   *
+   * @param  connection       The connection over which to send the search.
+   * @param  listener         The listener to notify of the search results.
+   * @param  valueBuffer      The buffer to use to hold the generated values.
+   *                          It should only be used by the calling thread.
+   * @param  valueEndOffsets  The array to use to hold the position at which
+   *                          each generated value ends.  It should only be
+   *                          used by the calling thread, and it must have one
+   *                          element for each value.
+   *
+   * @return  The async request ID for the search.
+   *
+   * @throws  LDAPException  If a problem occurs while sending the search.
+   */
+  AsyncRequestID sendSearch(final LDAPConnection connection,
+                            final AsyncSearchResultListener listener,
+                            final ByteStringBuffer valueBuffer,
+                            final int[] valueEndOffsets)
+                 throws LDAPException
+  {
+    valueBuffer.clear();
+    for (int i=0; i < valuePatterns.length; i++)
+    {
+      valuePatterns[i].nextValue(valueBuffer);
+      valueEndOffsets[i] = valueBuffer.length();
+    }
+
+    return connection.asyncSearchTemplate(template, listener,
+         valueBuffer.getBackingArray(), valueEndOffsets);
+  }
+}
@@ -43,8 +43,10 @@ import com.unboundid.ldap.sdk.SearchResultReference;
 import com.unboundid.ldap.sdk.SearchScope;
 import com.unboundid.ldap.sdk.controls.ProxiedAuthorizationV2RequestControl;
 import com.unboundid.ldap.sdk.controls.SimplePagedResultsControl;
+import com.unboundid.util.ByteStringBuffer;
 import com.unboundid.util.Debug;
 import com.unboundid.util.FixedRateBarrier;
+import com.unboundid.util.LatencyHistogram;
 import com.unboundid.util.ResultCodeCounter;
 import com.unboundid.util.ValuePattern;
 
@@ -52,10 +54,13 @@ import com.unboundid.util.ValuePattern;
 
 /**
  * This class provides a thread that may be used to repeatedly perform searches.
+ * When the searchrate tool is operating in open-loop mode, the thread is not
+ * started, and an {@link OpenLoopLoadGenerator} uses it to send asynchronous
+ * searches over its connection instead.
  */
 final class SearchRateThread
       extends Thread
-      implements SearchResultListener
+      implements SearchResultListener, OpenLoopRequestSender
 {
   /**
    * The serial version UID for this serializable class.
@@ -92,6 +97,9 @@ final class SearchRateThread
   // The connection to use for the searches.
   private LDAPConnection connection;
 
+  // The histogram used to track the search response times.
+  private final LatencyHistogram searchHistogram;
+
   // The result code for this thread.
   private final AtomicReference<ResultCode> resultCode;
 
@@ -140,6 +148,17 @@ final class SearchRateThread
   // rate-limiting should be used.
   private final FixedRateBarrier fixedRateBarrier;
 
+  // The buffer used to hold the values generated for the search template.
+  private final ByteStringBuffer templateValueBuffer;
+
+  // The positions at which each of the values generated for the search
+  // template end.
+  private final int[] templateValueEndOffsets;
+
+  // The pre-encoded template to use for asynchronous searches.  null if
+  // asynchronous searches should be created from the value patterns.
+  private final SearchRateTemplate searchTemplate;
+
 
 
   /**
@@ -181,6 +200,8 @@ final class SearchRateThread
    *                                    of the total number of entries returned.
    * @param  searchDurations            A value that will be used to keep track
    *                                    of the total duration for all searches.
+   * @param  searchHistogram            The histogram used to track the search
+   *                                    response times.
    * @param  errorCounter               A value that will be used to keep track
    *                                    of the number of errors encountered
    *                                    while searching.
@@ -193,6 +214,11 @@ final class SearchRateThread
    * @param  asyncSemaphore             The semaphore used ot limit the total
    *                                    number of outstanding asynchronous
    *                                    requests.
+   * @param  searchTemplate             The pre-encoded template to use for
+   *                                    asynchronous searches.  It may be
+   *                                    {@code null} if asynchronous searches
+   *                                    should be created from the value
+   *                                    patterns.
    */
   SearchRateThread(final SearchRate searchRate, final int threadNumber,
                    final LDAPConnection connection, final boolean async,
@@ -206,10 +232,12 @@ final class SearchRateThread
                    final AtomicLong searchCounter,
                    final AtomicLong entryCounter,
                    final AtomicLong searchDurations,
+                   final LatencyHistogram searchHistogram,
                    final AtomicLong errorCounter,
                    final ResultCodeCounter rcCounter,
                    final FixedRateBarrier rateBarrier,
-                   final Semaphore asyncSemaphore)
+                   final Semaphore asyncSemaphore,
+                   final SearchRateTemplate searchTemplate)
   {
     setName("SearchRate Thread " + threadNumber);
     setDaemon(true);
@@ -228,12 +256,25 @@ final class SearchRateThread
     this.searchCounter             = searchCounter;
     this.entryCounter              = entryCounter;
     this.searchDurations           = searchDurations;
+    this.searchHistogram           = searchHistogram;
     this.errorCounter              = errorCounter;
     this.rcCounter                 = rcCounter;
     this.startBarrier              = startBarrier;
     this.asyncSemaphore            = asyncSemaphore;
+    this.searchTemplate            = searchTemplate;
     fixedRateBarrier               = rateBarrier;
 
+    if (searchTemplate == null)
+    {
+      templateValueBuffer     = null;
+      templateValueEndOffsets = null;
+    }
+    else
+    {
+      templateValueBuffer     = new ByteStringBuffer();
+      templateValueEndOffsets = new int[searchTemplate.getNumValues()];
+    }
+
     if (iterationsBeforeReconnect > 0L)
     {
       remainingIterationsBeforeReconnect =
@@ -311,10 +352,17 @@ final class SearchRateThread
       }
 
       // If we're trying for a specific target rate, then we might need to
-      // wait until issuing the next search.
-      if (fixedRateBarrier != null)
+      // wait until issuing the next search.  In that case, the response time
+      // will be measured from the time that the search was scheduled to be
+      // sent, so that any delay in sending it is included.
+      final long startTime;
+      if (fixedRateBarrier == null)
+      {
+        startTime = System.nanoTime();
+      }
+      else
       {
-        fixedRateBarrier.await();
+        startTime = fixedRateBarrier.awaitScheduledTime();
       }
 
       ProxiedAuthorizationV2RequestControl proxyControl = null;
@@ -338,39 +386,11 @@ final class SearchRateThread
           }
         }
 
-        final SearchRateAsyncListener listener = new SearchRateAsyncListener(
-             searchCounter, entryCounter, searchDurations, errorCounter,
-             rcCounter, asyncSemaphore, resultCode);
-
-        try
-        {
-          final SearchRequest r = new SearchRequest(listener,
-               baseDN.nextValue(), scope, filter.nextValue(), attributes);
-          r.setControls(requestControls);
-          if (authzID != null)
-          {
-            r.addControl(new ProxiedAuthorizationV2RequestControl(
-                 authzID.nextValue()));
-          }
-
-          connection.asyncSearch(r);
-        }
-        catch (final LDAPException le)
-        {
-          Debug.debugException(le);
-          errorCounter.incrementAndGet();
-
-          final ResultCode rc = le.getResultCode();
-          rcCounter.increment(rc);
-          resultCode.compareAndSet(null, rc);
-
-          if (asyncSemaphore != null)
-          {
-            asyncSemaphore.release();
-          }
-
-          continue;
-        }
+        // Without a target rate, there is no schedule to honor, so don't count
+        // any time spent waiting for the semaphore.
+        sendAsyncSearch(
+             ((fixedRateBarrier == null) ? System.nanoTime() : startTime),
+             asyncSemaphore);
       }
       else
       {
@@ -406,7 +426,6 @@ final class SearchRateThread
         }
 
         long entriesReturned = 0L;
-        final long startTime = System.nanoTime();
 
         while (true)
         {
@@ -472,8 +491,10 @@ final class SearchRateThread
           }
         }
 
+        final long duration = System.nanoTime() - startTime;
         searchCounter.incrementAndGet();
-        searchDurations.addAndGet(System.nanoTime() - startTime);
+        searchDurations.addAndGet(duration);
+        searchHistogram.recordValue(duration);
         entryCounter.addAndGet(entriesReturned);
       }
     }
@@ -512,6 +533,116 @@ final class SearchRateThread
 
 
 
+  /**
+   * Sends an asynchronous search over this thread's connection.  Any error
+   * that prevents the search from being sent will be recorded, and the permit
+   * for the search will be released.  The search will be encoded from the
+   * pre-encoded search template if one is available.
+   *
+   * @param  startTime       The time, in terms of {@code System.nanoTime()},
+   *                         from which the response time should be measured.
+   * @param  asyncSemaphore  The semaphore used to limit the total number of
+   *                         outstanding asynchronous requests.  It may be
+   *                         {@code null} if there is no limit.
+   */
+  private void sendAsyncSearch(final long startTime,
+                               final Semaphore asyncSemaphore)
+  {
+    final SearchRateAsyncListener listener = new SearchRateAsyncListener(
+         startTime, searchCounter, entryCounter, searchDurations,
+         searchHistogram, errorCounter, rcCounter, asyncSemaphore, resultCode);
+
+    try
+    {
+      if (searchTemplate != null)
+      {
+        searchTemplate.sendSearch(connection, listener, templateValueBuffer,
+             templateValueEndOffsets);
+        return;
+      }
+
+      final SearchRequest r = new SearchRequest(listener, baseDN.nextValue(),
+           scope, filter.nextValue(), attributes);
+      r.setControls(requestControls);
+      if (authzID != null)
+      {
+        r.addControl(new ProxiedAuthorizationV2RequestControl(
+             authzID.nextValue()));
+      }
+
+      connection.asyncSearch(r);
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      errorCounter.incrementAndGet();
+
+      final ResultCode rc = le.getResultCode();
+      rcCounter.increment(rc);
+      resultCode.compareAndSet(null, rc);
+
+      if (asyncSemaphore != null)
+      {
+        asyncSemaphore.release();
+      }
+
+      if (! le.getResultCode().isConnectionUsable())
+      {
+        connection.close();
+        connection = null;
+      }
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void sendOpenLoopRequest(final long scheduledTime,
+                                  final Semaphore outstandingRequests)
+  {
+    if (connection == null)
+    {
+      try
+      {
+        connection = searchRate.getConnection();
+      }
+      catch (final LDAPException le)
+      {
+        Debug.debugException(le);
+        errorCounter.incrementAndGet();
+
+        final ResultCode rc = le.getResultCode();
+        rcCounter.increment(rc);
+        resultCode.compareAndSet(null, rc);
+
+        outstandingRequests.release();
+        return;
+      }
+    }
+
+    sendAsyncSearch(scheduledTime, outstandingRequests);
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void closeOpenLoopConnections()
+  {
+    if (connection != null)
+    {
+      connection.close();
+      connection = null;
+    }
+  }
+
+
+
   /**
    * Indicates that this thread should stop running.  It will not wait for the
    * thread to complete before returning.
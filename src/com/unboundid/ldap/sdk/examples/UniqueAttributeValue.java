@@ -0,0 +1,356 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.examples;
+
+
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+
+import com.unboundid.util.StaticUtils;
+
+
+
+/**
+ * This class provides a data structure that holds information about a single
+ * value of a unique attribute, as found in an entry examined by the
+ * {@link IdentifyUniqueAttributeConflicts} tool.  Values are ordered by their
+ * key (which holds a normalized representation of the value, optionally
+ * qualified by the attribute name) and then by the normalized DN of the entry
+ * that contains them, so that all entries that share a value will be adjacent
+ * when a set of values is sorted.
+ */
+final class UniqueAttributeValue
+      implements Comparable<UniqueAttributeValue>, Serializable
+{
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = 3358172049617718253L;
+
+
+
+  // Indicates whether conflicts with this value should be reported.
+  private final boolean checkForConflicts;
+
+  // The name of the unique attribute with which this value is associated.
+  private final String attributeName;
+
+  // The DN of the entry that contains the value.
+  private final String dn;
+
+  // The key used to identify values that conflict with this value.
+  private final String key;
+
+  // The normalized DN of the entry that contains the value.
+  private final String normalizedDN;
+
+  // The value itself.
+  private final String value;
+
+  // The name of the attribute that contains the value, including any
+  // attribute options.
+  private final String valueAttributeName;
+
+
+
+  /**
+   * Creates a new unique attribute value with the provided information.
+   *
+   * @param  attributeName       The name of the unique attribute with which
+   *                             this value is associated.
+   * @param  valueAttributeName  The name of the attribute that contains the
+   *                             value, including any attribute options.
+   * @param  value               The value itself.
+   * @param  key                 The key used to identify values that conflict
+   *                             with this value.  It may be {@code null} if it
+   *                             is not needed.
+   * @param  dn                  The DN of the entry that contains the value.
+   * @param  normalizedDN        The normalized DN of the entry that contains
+   *                             the value.
+   * @param  checkForConflicts   Indicates whether conflicts with this value
+   *                             should be reported.
+   */
+  UniqueAttributeValue(final String attributeName,
+                       final String valueAttributeName, final String value,
+                       final String key, final String dn,
+                       final String normalizedDN,
+                       final boolean checkForConflicts)
+  {
+    this.attributeName      = attributeName;
+    this.valueAttributeName = valueAttributeName;
+    this.value              = value;
+    this.key                = key;
+    this.dn                 = dn;
+    this.normalizedDN       = normalizedDN;
+    this.checkForConflicts  = checkForConflicts;
+  }
+
+
+
+  /**
+   * Reads a unique attribute value that was written with the
+   * {@link #writeTo} method.
+   *
+   * @param  in  The input stream from which to read the value.
+   *
+   * @return  The unique attribute value that was read.
+   *
+   * @throws  IOException  If a problem occurs while reading from the stream.
+   */
+  static UniqueAttributeValue readFrom(final DataInputStream in)
+         throws IOException
+  {
+    final String attributeName = readString(in);
+    final String valueAttributeName = readString(in);
+    final String value = readString(in);
+    final String key = readString(in);
+    final String dn = readString(in);
+    final String normalizedDN = readString(in);
+    final boolean checkForConflicts = in.readBoolean();
+    return new UniqueAttributeValue(attributeName, valueAttributeName, value,
+         key, dn, normalizedDN, checkForConflicts);
+  }
+
+
+
+  /**
+   * Writes this unique attribute value to the provided output stream.
+   *
+   * @param  out  The output stream to which the value should be written.
+   *
+   * @throws  IOException  If a problem occurs while writing to the stream.
+   */
+  void writeTo(final DataOutputStream out)
+       throws IOException
+  {
+    writeString(out, attributeName);
+    writeString(out, valueAttributeName);
+    writeString(out, value);
+    writeString(out, key);
+    writeString(out, dn);
+    writeString(out, normalizedDN);
+    out.writeBoolean(checkForConflicts);
+  }
+
+
+
+  /**
+   * Reads a length-prefixed UTF-8 string from the provided input stream.
+   *
+   * @param  in  The input stream from which to read the string.
+   *
+   * @return  The string that was read.
+   *
+   * @throws  IOException  If a problem occurs while reading from the stream.
+   */
+  private static String readString(final DataInputStream in)
+          throws IOException
+  {
+    final byte[] b = new byte[in.readInt()];
+    in.readFully(b);
+    return StaticUtils.toUTF8String(b);
+  }
+
+
+
+  /**
+   * Writes the provided string to the given output stream as a
+   * length-prefixed UTF-8 string.
+   *
+   * @param  out  The output stream to which the string should be written.
+   * @param  s    The string to write.
+   *
+   * @throws  IOException  If a problem occurs while writing to the stream.
+   */
+  private static void writeString(final DataOutputStream out, final String s)
+          throws IOException
+  {
+    final byte[] b = StaticUtils.getBytes(s);
+    out.writeInt(b.length);
+    out.write(b);
+  }
+
+
+
+  /**
+   * Retrieves the name of the unique attribute with which this value is
+   * associated.
+   *
+   * @return  The name of the unique attribute with which this value is
+   *          associated.
+   */
+  String getAttributeName()
+  {
+    return attributeName;
+  }
+
+
+
+  /**
+   * Retrieves the name of the attribute that contains the value, including any
+   * attribute options.
+   *
+   * @return  The name of the attribute that contains the value.
+   */
+  String getValueAttributeName()
+  {
+    return valueAttributeName;
+  }
+
+
+
+  /**
+   * Retrieves the value itself.
+   *
+   * @return  The value itself.
+   */
+  String getValue()
+  {
+    return value;
+  }
+
+
+
+  /**
+   * Retrieves the key used to identify values that conflict with this value.
+   *
+   * @return  The key used to identify values that conflict with this value, or
+   *          {@code null} if it is not needed.
+   */
+  String getKey()
+  {
+    return key;
+  }
+
+
+
+  /**
+   * Retrieves the DN of the entry that contains the value.
+   *
+   * @return  The DN of the entry that contains the value.
+   */
+  String getDN()
+  {
+    return dn;
+  }
+
+
+
+  /**
+   * Retrieves the normalized DN of the entry that contains the value.
+   *
+   * @return  The normalized DN of the entry that contains the value.
+   */
+  String getNormalizedDN()
+  {
+    return normalizedDN;
+  }
+
+
+
+  /**
+   * Indicates whether conflicts with this value should be reported.  Values
+   * from entries that have already been reported as having a conflict within
+   * the same entry will still be used to find conflicts with other entries,
+   * but will not be reported themselves.
+   *
+   * @return  {@code true} if conflicts with this value should be reported, or
+   *          {@code false} if not.
+   */
+  boolean checkForConflicts()
+  {
+    return checkForConflicts;
+  }
+
+
+
+  /**
+   * Compares this value with the provided value to determine their relative
+   * order.  Values are ordered first by key and then by normalized DN.
+   *
+   * @param  v  The value to compare with this value.
+   *
+   * @return  A negative integer if this value should be ordered before the
+   *          provided value, a positive integer if this value should be
+   *          ordered after the provided value, or zero if they have the same
+   *          key and normalized DN.
+   */
+  @Override()
+  public int compareTo(final UniqueAttributeValue v)
+  {
+    final int keyComparison = key.compareTo(v.key);
+    if (keyComparison != 0)
+    {
+      return keyComparison;
+    }
+
+    return normalizedDN.compareTo(v.normalizedDN);
+  }
+
+
+
+  /**
+   * Retrieves a hash code for this value.
+   *
+   * @return  A hash code for this value.
+   */
+  @Override()
+  public int hashCode()
+  {
+    return normalizedDN.hashCode();
+  }
+
+
+
+  /**
+   * Indicates whether the provided object is equal to this value.
+   *
+   * @param  o  The object for which to make the determination.
+   *
+   * @return  {@code true} if the provided object is a unique attribute value
+   *          with the same information as this value, or {@code false} if not.
+   */
+  @Override()
+  public boolean equals(final Object o)
+  {
+    if (o == this)
+    {
+      return true;
+    }
+
+    if (! (o instanceof UniqueAttributeValue))
+    {
+      return false;
+    }
+
+    final UniqueAttributeValue v = (UniqueAttributeValue) o;
+    return (checkForConflicts == v.checkForConflicts) &&
+         attributeName.equals(v.attributeName) &&
+         valueAttributeName.equals(v.valueAttributeName) &&
+         value.equals(v.value) &&
+         String.valueOf(key).equals(String.valueOf(v.key)) &&
+         dn.equals(v.dn) &&
+         normalizedDN.equals(v.normalizedDN);
+  }
+}
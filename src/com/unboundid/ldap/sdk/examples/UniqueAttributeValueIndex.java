@@ -0,0 +1,463 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.examples;
+
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.unboundid.util.Debug;
+
+
+
+/**
+ * This class provides a data structure that may be used by the
+ * {@link IdentifyUniqueAttributeConflicts} tool to find conflicts between
+ * unique attribute values using information gathered from a single pass
+ * through the entries, rather than by searching the server for each value.
+ * Values are added to the index as they are read, and are then retrieved in
+ * groups of values that share the same key.
+ * <BR><BR>
+ * Only a limited number of values will be held in memory at any time.  Once
+ * that limit is reached, the values held in memory are sorted and written to
+ * a temporary file, and the groups are later obtained by merging the contents
+ * of those files.  All temporary files will be removed when the index is
+ * closed.
+ */
+final class UniqueAttributeValueIndex
+      implements Closeable
+{
+  /**
+   * The size of the buffer to use when reading and writing temporary files.
+   */
+  private static final int BUFFER_SIZE = 65536;
+
+
+
+  // Indicates whether the index is being iterated.
+  private boolean iterating;
+
+  // The maximum number of values to hold in memory.
+  private final int maxInMemoryValues;
+
+  // The iterator used to retrieve values held in memory.
+  private Iterator<UniqueAttributeValue> memoryIterator;
+
+  // The values that are currently held in memory.
+  private final List<UniqueAttributeValue> values;
+
+  // The temporary files that have been written.
+  private final List<File> runFiles;
+
+  // The queue used to merge the contents of the temporary files.
+  private final PriorityQueue<RunReader> mergeQueue;
+
+  // A value that has been read but not yet returned in a group.
+  private UniqueAttributeValue pendingValue;
+
+
+
+  /**
+   * Creates a new, empty index.
+   *
+   * @param  maxInMemoryValues  The maximum number of values to hold in memory
+   *                            before writing them to a temporary file.  It
+   *                            must be greater than zero.
+   */
+  UniqueAttributeValueIndex(final int maxInMemoryValues)
+  {
+    this.maxInMemoryValues = maxInMemoryValues;
+
+    values = new ArrayList<UniqueAttributeValue>(
+         Math.min(maxInMemoryValues, 10000));
+    runFiles = new ArrayList<File>(10);
+    mergeQueue = new PriorityQueue<RunReader>();
+
+    iterating = false;
+    memoryIterator = null;
+    pendingValue = null;
+  }
+
+
+
+  /**
+   * Adds the provided value to this index.  This must not be called once
+   * iteration has started.
+   *
+   * @param  value  The value to add.  It must have a non-{@code null} key.
+   *
+   * @throws  IOException  If a problem occurs while writing values to a
+   *                       temporary file.
+   */
+  void add(final UniqueAttributeValue value)
+       throws IOException
+  {
+    values.add(value);
+    if (values.size() >= maxInMemoryValues)
+    {
+      writeRun();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of temporary files that have been written.
+   *
+   * @return  The number of temporary files that have been written.
+   */
+  int getNumRunFiles()
+  {
+    return runFiles.size();
+  }
+
+
+
+  /**
+   * Sorts the values held in memory and writes them to a new temporary file.
+   *
+   * @throws  IOException  If a problem occurs while writing the file.
+   */
+  private void writeRun()
+          throws IOException
+  {
+    Collections.sort(values);
+
+    final File f = File.createTempFile("ldapsdk-unique-values-", ".tmp");
+    f.deleteOnExit();
+    runFiles.add(f);
+
+    final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+         new FileOutputStream(f), BUFFER_SIZE));
+    try
+    {
+      for (final UniqueAttributeValue v : values)
+      {
+        out.writeBoolean(true);
+        v.writeTo(out);
+      }
+      out.writeBoolean(false);
+    }
+    finally
+    {
+      out.close();
+    }
+
+    values.clear();
+  }
+
+
+
+  /**
+   * Retrieves the next group of values that share the same key.  No more
+   * values may be added to the index once this method has been called.
+   *
+   * @return  The next group of values that share the same key, or
+   *          {@code null} if there are no more values.
+   *
+   * @throws  IOException  If a problem occurs while reading from a temporary
+   *                        file.
+   */
+  List<UniqueAttributeValue> nextGroup()
+       throws IOException
+  {
+    if (! iterating)
+    {
+      startIteration();
+    }
+
+    final UniqueAttributeValue first = nextValue();
+    if (first == null)
+    {
+      return null;
+    }
+
+    final ArrayList<UniqueAttributeValue> group =
+         new ArrayList<UniqueAttributeValue>(2);
+    group.add(first);
+    while (true)
+    {
+      final UniqueAttributeValue v = nextValue();
+      if (v == null)
+      {
+        break;
+      }
+      else if (v.getKey().equals(first.getKey()))
+      {
+        group.add(v);
+      }
+      else
+      {
+        pendingValue = v;
+        break;
+      }
+    }
+
+    return group;
+  }
+
+
+
+  /**
+   * Prepares to iterate through the values in this index.
+   *
+   * @throws  IOException  If a problem occurs while writing or reading a
+   *                       temporary file.
+   */
+  private void startIteration()
+          throws IOException
+  {
+    iterating = true;
+    if (runFiles.isEmpty())
+    {
+      Collections.sort(values);
+      memoryIterator = values.iterator();
+      return;
+    }
+
+    if (! values.isEmpty())
+    {
+      writeRun();
+    }
+
+    for (final File f : runFiles)
+    {
+      final RunReader r = new RunReader(f);
+      if (r.getCurrentValue() == null)
+      {
+        r.close();
+      }
+      else
+      {
+        mergeQueue.add(r);
+      }
+    }
+  }
+
+
+
+  /**
+   * Retrieves the next value from this index, in sorted order.
+   *
+   * @return  The next value from this index, or {@code null} if there are no
+   *          more values.
+   *
+   * @throws  IOException  If a problem occurs while reading from a temporary
+   *                       file.
+   */
+  private UniqueAttributeValue nextValue()
+          throws IOException
+  {
+    if (pendingValue != null)
+    {
+      final UniqueAttributeValue v = pendingValue;
+      pendingValue = null;
+      return v;
+    }
+
+    if (memoryIterator != null)
+    {
+      if (memoryIterator.hasNext())
+      {
+        return memoryIterator.next();
+      }
+      else
+      {
+        return null;
+      }
+    }
+
+    final RunReader r = mergeQueue.poll();
+    if (r == null)
+    {
+      return null;
+    }
+
+    final UniqueAttributeValue v = r.getCurrentValue();
+    if (r.advance())
+    {
+      mergeQueue.add(r);
+    }
+    else
+    {
+      r.close();
+    }
+
+    return v;
+  }
+
+
+
+  /**
+   * Closes this index and removes any temporary files that it has written.
+   */
+  @Override()
+  public void close()
+  {
+    while (! mergeQueue.isEmpty())
+    {
+      mergeQueue.poll().close();
+    }
+
+    for (final File f : runFiles)
+    {
+      if (! f.delete())
+      {
+        Debug.debugException(new IOException(
+             "Unable to delete temporary file " + f.getAbsolutePath()));
+      }
+    }
+
+    runFiles.clear();
+    values.clear();
+    memoryIterator = null;
+    pendingValue = null;
+  }
+
+
+
+  /**
+   * This class provides a reader for the sorted values in a temporary file.
+   */
+  private static final class RunReader
+          implements Comparable<RunReader>
+  {
+    // The stream used to read from the file.
+    private final DataInputStream in;
+
+    // The value most recently read from the file.
+    private UniqueAttributeValue currentValue;
+
+
+
+    /**
+     * Creates a new reader for the provided file and reads the first value
+     * from it.
+     *
+     * @param  f  The file to read.
+     *
+     * @throws  IOException  If a problem occurs while reading from the file.
+     */
+    private RunReader(final File f)
+            throws IOException
+    {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(f),
+           BUFFER_SIZE));
+
+      try
+      {
+        advance();
+      }
+      catch (final IOException ioe)
+      {
+        Debug.debugException(ioe);
+        close();
+        throw ioe;
+      }
+    }
+
+
+
+    /**
+     * Retrieves the value most recently read from the file.
+     *
+     * @return  The value most recently read from the file, or {@code null} if
+     *          the end of the file has been reached.
+     */
+    private UniqueAttributeValue getCurrentValue()
+    {
+      return currentValue;
+    }
+
+
+
+    /**
+     * Reads the next value from the file.
+     *
+     * @return  {@code true} if a value was read, or {@code false} if the end
+     *          of the file has been reached.
+     *
+     * @throws  IOException  If a problem occurs while reading from the file.
+     */
+    private boolean advance()
+            throws IOException
+    {
+      if (in.readBoolean())
+      {
+        currentValue = UniqueAttributeValue.readFrom(in);
+        return true;
+      }
+      else
+      {
+        currentValue = null;
+        return false;
+      }
+    }
+
+
+
+    /**
+     * Closes the file.
+     */
+    private void close()
+    {
+      try
+      {
+        in.close();
+      }
+      catch (final IOException ioe)
+      {
+        Debug.debugException(ioe);
+      }
+    }
+
+
+
+    /**
+     * Compares this reader with the provided reader based on their current
+     * values.
+     *
+     * @param  r  The reader to compare with this reader.
+     *
+     * @return  A negative integer if this reader's current value should be
+     *          ordered before that of the provided reader, a positive integer
+     *          if it should be ordered after it, or zero if they are equal.
+     */
+    @Override()
+    public int compareTo(final RunReader r)
+    {
+      return currentValue.compareTo(r.currentValue);
+    }
+  }
+}
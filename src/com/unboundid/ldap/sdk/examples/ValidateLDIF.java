@@ -32,6 +32,7 @@ import java.util.Iterator;
 import java.util.TreeMap;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.GZIPInputStream;
 
@@ -98,7 +99,13 @@ import static com.unboundid.util.StaticUtils.*;
  *       validation.</LI>
  *   <LI>"-t {num}" or "--numThreads {num}" -- specifies the number of
  *       concurrent threads to use when processing the LDIF.  If this is not
- *       provided, then a default of one thread will be used.</LI>
+ *       provided, then a default of one thread will be used.  Each thread
+ *       maintains its own validation counts, which are combined when
+ *       processing is complete.</LI>
+ *   <LI>"--preserveRejectOrder" -- indicates that rejected entries should be
+ *       written to the reject file in the order in which they appear in the
+ *       LDIF file.  If this is not provided, then rejected entries may be
+ *       written in any order when using multiple threads.</LI>
  *   <LI>"--ignoreUndefinedObjectClasses" -- indicates that the validation
  *       process should ignore validation failures due to entries that contain
  *       object classes not defined in the server schema.</LI>
@@ -169,6 +176,7 @@ public final class ValidateLDIF
   private BooleanArgument ignoreAttributeSyntax;
   private BooleanArgument ignoreNameForms;
   private BooleanArgument isCompressed;
+  private BooleanArgument preserveRejectOrder;
   private FileArgument    schemaDirectory;
   private FileArgument    ldifFile;
   private FileArgument    rejectFile;
@@ -182,9 +190,20 @@ public final class ValidateLDIF
   // parsed as valid entries.
   private final AtomicLong malformedEntries = new AtomicLong(0L);
 
-  // The entry validator that will be used to validate the entries.
+  // The entry validator that will be used to validate the entries.  Each
+  // thread that validates entries will use a duplicate of this validator, and
+  // the counts from those duplicates will be merged into this validator when
+  // processing is complete.
   private EntryValidator entryValidator;
 
+  // The entry validators in use by the threads that validate entries.
+  private final List<EntryValidator> threadValidators =
+       new CopyOnWriteArrayList<EntryValidator>();
+
+  // The entry validator for the current thread.
+  private final ThreadLocal<EntryValidator> threadValidator =
+       new ThreadLocal<EntryValidator>();
+
   // The LDIF writer that will be used to write rejected entries.
   private LDIFWriter rejectWriter;
 
@@ -428,6 +447,16 @@ public final class ValidateLDIF
     rejectFile.addLongIdentifier("reject-file", true);
     parser.addArgument(rejectFile);
 
+    description = "Indicates that rejected entries should be written to the " +
+                  "reject file in the order in which they appear in the LDIF " +
+                  "file.  If this is not provided, then rejected entries " +
+                  "may be written in any order when multiple threads are " +
+                  "used.";
+    preserveRejectOrder =
+         new BooleanArgument(null, "preserveRejectOrder", description);
+    preserveRejectOrder.addLongIdentifier("preserve-reject-order", true);
+    parser.addArgument(preserveRejectOrder);
+
     description = "The path to a directory containing one or more LDIF files " +
                   "with the schema information to use.  If this is provided, " +
                   "then no LDAP communication will be performed.";
@@ -436,7 +465,10 @@ public final class ValidateLDIF
     schemaDirectory.addLongIdentifier("schema-directory", true);
     parser.addArgument(schemaDirectory);
 
-    description = "The number of threads to use when processing the LDIF file.";
+    description = "The number of threads to use when processing the LDIF " +
+                  "file.  Each thread will maintain its own validation " +
+                  "counts, which will be combined when processing is " +
+                  "complete.";
     numThreads = new IntegerArgument('t', "numThreads", true, 1, "{num}",
          description, 1, Integer.MAX_VALUE, 1);
     numThreads.addLongIdentifier("num-threads", true);
@@ -590,6 +622,9 @@ public final class ValidateLDIF
     // cannot be used together.
     parser.addExclusiveArgumentSet(ignoreAttributeSyntax,
          ignoreSyntaxViolationsForAttribute);
+
+    // The preserveRejectOrder argument can only be used with a reject file.
+    parser.addDependentArgumentSet(preserveRejectOrder, rejectFile);
   }
 
 
@@ -697,6 +732,7 @@ public final class ValidateLDIF
       {
         inputStream = new GZIPInputStream(inputStream);
       }
+      threadValidators.clear();
       ldifReader = new LDIFReader(inputStream, numThreads.getValue(), this);
     }
     catch (final Exception e)
@@ -741,13 +777,28 @@ public final class ValidateLDIF
           if (e == null)
           {
             // Because we're performing parallel processing and returning null
-            // from the translate method, LDIFReader.readEntry() should never
-            // return a non-null value.  However, it can throw an LDIFException
-            // if it encounters an invalid entry, or an IOException if there's
-            // a problem reading from the file, so we should still iterate
-            // through all of the entries to catch and report on those problems.
+            // from the translate method for all entries except rejected entries
+            // whose order should be preserved, LDIFReader.readEntry() will
+            // only return a non-null value for those rejected entries.
+            // However, it can throw an LDIFException if it encounters an
+            // invalid entry, or an IOException if there's a problem reading
+            // from the file, so we should still iterate through all of the
+            // entries to catch and report on those problems.
             break;
           }
+
+          final RejectedEntry rejectedEntry = (RejectedEntry) e;
+          try
+          {
+            rejectWriter.writeEntry(rejectedEntry,
+                 rejectedEntry.getRejectReason());
+          }
+          catch (final IOException ioe)
+          {
+            err("Unable to write to the reject file:",
+                getExceptionMessage(ioe));
+            return ResultCode.LOCAL_ERROR;
+          }
         }
         catch (final LDIFException le)
         {
@@ -810,6 +861,13 @@ public final class ValidateLDIF
         }
       }
 
+      // Combine the counts from the validators used by each of the threads.
+      for (final EntryValidator v : threadValidators)
+      {
+        entryValidator.mergeCounts(v);
+      }
+      threadValidators.clear();
+
       if (malformedEntries.get() > 0)
       {
         out(malformedEntries.get() + " entries were malformed and could not " +
@@ -867,17 +925,34 @@ public final class ValidateLDIF
    * @param  firstLineNumber The line number of the LDIF source on which the
    *                         provided entry begins.
    *
-   * @return  The updated entry.  This method will always return {@code null}
-   *          because all of the real processing needed for the entry is
-   *          performed in this method and the entry isn't needed any more
-   *          after this method is done.
+   * @return  The updated entry.  This method will return {@code null} unless
+   *          the entry is invalid and rejected entries should be written in
+   *          the order in which they appear in the LDIF file, because all of
+   *          the real processing needed for the entry is performed in this
+   *          method and the entry isn't needed any more after this method is
+   *          done.
    */
   public Entry translate(final Entry entry, final long firstLineNumber)
   {
+    EntryValidator validator = threadValidator.get();
+    if (validator == null)
+    {
+      validator = entryValidator.duplicate();
+      threadValidator.set(validator);
+      threadValidators.add(validator);
+    }
+
     final ArrayList<String> invalidReasons = new ArrayList<String>(5);
-    if (! entryValidator.entryIsValid(entry, invalidReasons))
+    if (! validator.entryIsValid(entry, invalidReasons))
     {
-      if (rejectWriter != null)
+      if ((rejectWriter != null) && preserveRejectOrder.isPresent())
+      {
+        // The entry will be written when it is returned by the LDIF reader,
+        // which preserves the order of the entries in the LDIF file.
+        incrementEntriesProcessed();
+        return new RejectedEntry(entry, listToString(invalidReasons));
+      }
+      else if (rejectWriter != null)
       {
         synchronized (this)
         {
@@ -890,13 +965,23 @@ public final class ValidateLDIF
       }
     }
 
+    incrementEntriesProcessed();
+    return null;
+  }
+
+
+
+  /**
+   * Increments the number of entries processed, and writes a progress message
+   * if appropriate.
+   */
+  private void incrementEntriesProcessed()
+  {
     final long numEntries = entriesProcessed.incrementAndGet();
     if ((numEntries % 1000L) == 0L)
     {
       out("Processed ", numEntries, " entries.");
     }
-
-    return null;
   }
 
 
@@ -982,6 +1067,54 @@ public final class ValidateLDIF
 
 
 
+  /**
+   * This class provides an entry that is returned by the {@code translate}
+   * method for entries that failed validation when rejected entries should be
+   * written in the order in which they appear in the LDIF file.
+   */
+  private static final class RejectedEntry
+          extends Entry
+  {
+    /**
+     * The serial version UID for this serializable class.
+     */
+    private static final long serialVersionUID = 4573716254021858871L;
+
+
+
+    // The reason that the entry was rejected.
+    private final String rejectReason;
+
+
+
+    /**
+     * Creates a new rejected entry with the provided information.
+     *
+     * @param  entry         The entry that was rejected.
+     * @param  rejectReason  The reason that the entry was rejected.
+     */
+    private RejectedEntry(final Entry entry, final String rejectReason)
+    {
+      super(entry.getDN(), entry.getAttributes());
+
+      this.rejectReason = rejectReason;
+    }
+
+
+
+    /**
+     * Retrieves the reason that the entry was rejected.
+     *
+     * @return  The reason that the entry was rejected.
+     */
+    private String getRejectReason()
+    {
+      return rejectReason;
+    }
+  }
+
+
+
   /**
    * @return EntryValidator
    *
@@ -114,6 +114,13 @@ public final class FieldInfo
   // The names of the object classes for the associated attribute.
   private final String[] objectClasses;
 
+  // The index of this field in the codec, or -1 if the codec should not be
+  // used to access it.
+  private final int codecIndex;
+
+  // The codec that may be used to access the field without reflection.
+  private final LDAPObjectCodec<Object> codec;
+
 
 
   /**
@@ -130,6 +137,31 @@ public final class FieldInfo
    */
   FieldInfo(final Field f, final Class<?> c)
        throws LDAPPersistException
+  {
+    this(f, c, null);
+  }
+
+
+
+  /**
+   * Creates a new field info object from the provided field.
+   *
+   * @param  f      The field to use to create this object.  It must not be
+   *                {@code null} and it must be marked with the
+   *                {@code LDAPField} annotation.
+   * @param  c      The class which holds the field.  It must not be
+   *                {@code null} and it must be marked with the
+   *                {@code LDAPObject} annotation.
+   * @param  codec  The codec that may be used to access the field without
+   *                reflection.  It may be {@code null} if reflection should
+   *                always be used.
+   *
+   * @throws  LDAPPersistException  If a problem occurs while processing the
+   *                                given field.
+   */
+  @SuppressWarnings("unchecked")
+  FieldInfo(final Field f, final Class<?> c, final LDAPObjectCodec<?> codec)
+       throws LDAPPersistException
   {
     ensureNotNull(f, c);
 
@@ -299,6 +331,28 @@ public final class FieldInfo
         }
       }
     }
+
+    final int index;
+    if ((codec != null) &&
+        encoder.getClass().equals(DefaultObjectEncoder.class))
+    {
+      index = LDAPObjectCodec.indexOf(codec.getFieldNames(), f.getName());
+    }
+    else
+    {
+      index = -1;
+    }
+
+    if (index >= 0)
+    {
+      codecIndex = index;
+      this.codec = (LDAPObjectCodec<Object>) codec;
+    }
+    else
+    {
+      codecIndex = -1;
+      this.codec = null;
+    }
   }
 
 
@@ -620,7 +674,16 @@ public final class FieldInfo
   {
     try
     {
-      final Object fieldValue = field.get(o);
+      if (codec != null)
+      {
+        final Attribute a = codec.encodeField(o, codecIndex, attributeName);
+        if (a != null)
+        {
+          return a;
+        }
+      }
+
+      final Object fieldValue = (codec == null) ? field.get(o) : null;
       if (fieldValue == null)
       {
         if (defaultEncodeValues.length > 0)
@@ -693,7 +756,14 @@ public final class FieldInfo
 
         try
         {
-          encoder.setNull(field, o);
+          if (codec == null)
+          {
+            encoder.setNull(field, o);
+          }
+          else
+          {
+            codec.decodeField(o, codecIndex, null);
+          }
         }
         catch (final LDAPPersistException lpe)
         {
@@ -715,7 +785,14 @@ public final class FieldInfo
 
     try
     {
-      encoder.decodeField(field, o, a);
+      if (codec == null)
+      {
+        encoder.decodeField(field, o, a);
+      }
+      else
+      {
+        codec.decodeField(o, codecIndex, a);
+      }
     }
     catch (final LDAPPersistException lpe)
     {
@@ -0,0 +1,919 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.persist;
+
+
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import com.unboundid.ldap.sdk.Attribute;
+import com.unboundid.ldap.sdk.DN;
+import com.unboundid.ldap.sdk.ResultCode;
+import com.unboundid.ldap.sdk.Version;
+import com.unboundid.util.CommandLineTool;
+import com.unboundid.util.Mutable;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.args.ArgumentException;
+import com.unboundid.util.args.ArgumentParser;
+import com.unboundid.util.args.FileArgument;
+import com.unboundid.util.args.StringArgument;
+
+import static com.unboundid.ldap.sdk.persist.PersistMessages.*;
+import static com.unboundid.util.Debug.*;
+import static com.unboundid.util.StaticUtils.*;
+
+
+
+/**
+ * This class provides a tool which can be used to generate the source code for
+ * an {@link LDAPObjectCodec} that the persistence framework may use to access
+ * objects of a specified Java class without the use of reflection.  The given
+ * class must be included in the classpath of the JVM used to invoke the tool,
+ * and must be marked with the {@link LDAPObject} annotation.  The generated
+ * class will be in the same package as the given class, and it must be
+ * compiled and made available in the same classpath.
+ * <BR><BR>
+ * The generated codec will only handle fields and methods that use the
+ * {@link DefaultObjectEncoder} with a value of type {@code String},
+ * {@code String[]}, {@code boolean}, {@code Boolean}, {@code int},
+ * {@code Integer}, {@code long}, {@code Long}, {@code Date}, {@code DN}, or
+ * {@code byte[]}.  It will also not handle private or final fields, or private
+ * methods or methods that declare checked exceptions.  Any other fields and
+ * methods will continue to be accessed through reflection.
+ */
+@Mutable()
+@ThreadSafety(level=ThreadSafetyLevel.NOT_THREADSAFE)
+public final class GenerateCodecFromSource
+       extends CommandLineTool
+       implements Serializable
+{
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = -3946140575396713232L;
+
+
+
+  // Arguments used by this tool.
+  private FileArgument   outputDirectoryArg;
+  private StringArgument classNameArg;
+
+
+
+  /**
+   * Parse the provided command line arguments and perform the appropriate
+   * processing.
+   *
+   * @param  args  The command line arguments provided to this program.
+   */
+  public static void main(final String[] args)
+  {
+    final ResultCode resultCode = main(args, System.out, System.err);
+    if (resultCode != ResultCode.SUCCESS)
+    {
+      System.exit(resultCode.intValue());
+    }
+  }
+
+
+
+  /**
+   * Parse the provided command line arguments and perform the appropriate
+   * processing.
+   *
+   * @param  args       The command line arguments provided to this program.
+   * @param  outStream  The output stream to which standard out should be
+   *                    written.  It may be {@code null} if output should be
+   *                    suppressed.
+   * @param  errStream  The output stream to which standard error should be
+   *                    written.  It may be {@code null} if error messages
+   *                    should be suppressed.
+   *
+   * @return  A result code indicating whether the processing was successful.
+   */
+  public static ResultCode main(final String[] args,
+                                final OutputStream outStream,
+                                final OutputStream errStream)
+  {
+    final GenerateCodecFromSource tool =
+         new GenerateCodecFromSource(outStream, errStream);
+    return tool.runTool(args);
+  }
+
+
+
+  /**
+   * Creates a new instance of this tool.
+   *
+   * @param  outStream  The output stream to which standard out should be
+   *                    written.  It may be {@code null} if output should be
+   *                    suppressed.
+   * @param  errStream  The output stream to which standard error should be
+   *                    written.  It may be {@code null} if error messages
+   *                    should be suppressed.
+   */
+  public GenerateCodecFromSource(final OutputStream outStream,
+                                 final OutputStream errStream)
+  {
+    super(outStream, errStream);
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public String getToolName()
+  {
+    return "generate-codec-from-source";
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public String getToolDescription()
+  {
+    return INFO_GEN_CODEC_TOOL_DESCRIPTION.get();
+  }
+
+
+
+  /**
+   * Retrieves the version string for this tool.
+   *
+   * @return  The version string for this tool.
+   */
+  @Override()
+  public String getToolVersion()
+  {
+    return Version.NUMERIC_VERSION_STRING;
+  }
+
+
+
+  /**
+   * Indicates whether this tool should provide support for an interactive mode,
+   * in which the tool offers a mode in which the arguments can be provided in
+   * a text-driven menu rather than requiring them to be given on the command
+   * line.  If interactive mode is supported, it may be invoked using the
+   * "--interactive" argument.  Alternately, if interactive mode is supported
+   * and {@link #defaultsToInteractiveMode()} returns {@code true}, then
+   * interactive mode may be invoked by simply launching the tool without any
+   * arguments.
+   *
+   * @return  {@code true} if this tool supports interactive mode, or
+   *          {@code false} if not.
+   */
+  @Override()
+  public boolean supportsInteractiveMode()
+  {
+    return true;
+  }
+
+
+
+  /**
+   * Indicates whether this tool defaults to launching in interactive mode if
+   * the tool is invoked without any command-line arguments.  This will only be
+   * used if {@link #supportsInteractiveMode()} returns {@code true}.
+   *
+   * @return  {@code true} if this tool defaults to using interactive mode if
+   *          launched without any command-line arguments, or {@code false} if
+   *          not.
+   */
+  @Override()
+  public boolean defaultsToInteractiveMode()
+  {
+    return true;
+  }
+
+
+
+  /**
+   * Indicates whether this tool supports the use of a properties file for
+   * specifying default values for arguments that aren't specified on the
+   * command line.
+   *
+   * @return  {@code true} if this tool supports the use of a properties file
+   *          for specifying default values for arguments that aren't specified
+   *          on the command line, or {@code false} if not.
+   */
+  @Override()
+  public boolean supportsPropertiesFile()
+  {
+    return true;
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void addToolArguments(final ArgumentParser parser)
+         throws ArgumentException
+  {
+    classNameArg = new StringArgument('c', "javaClass", true, 1,
+         INFO_GEN_CODEC_VALUE_PLACEHOLDER_CLASS.get(),
+         INFO_GEN_CODEC_ARG_DESCRIPTION_JAVA_CLASS.get());
+    classNameArg.addLongIdentifier("java-class", true);
+    parser.addArgument(classNameArg);
+
+    outputDirectoryArg = new FileArgument('d', "outputDirectory", false, 1,
+         INFO_GEN_CODEC_VALUE_PLACEHOLDER_PATH.get(),
+         INFO_GEN_CODEC_ARG_DESCRIPTION_OUTPUT_DIRECTORY.get(), true, true,
+         false, true);
+    outputDirectoryArg.addLongIdentifier("output-directory", true);
+    parser.addArgument(outputDirectoryArg);
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public ResultCode doToolProcessing()
+  {
+    // Load the specified Java class.
+    final String className = classNameArg.getValue();
+    final Class<?> targetClass;
+    try
+    {
+      targetClass = Class.forName(className);
+    }
+    catch (final Exception e)
+    {
+      debugException(e);
+      err(ERR_GEN_CODEC_CANNOT_LOAD_CLASS.get(className));
+      return ResultCode.PARAM_ERROR;
+    }
+
+
+    // Create an LDAP persister for the class to ensure that it is valid, and
+    // make sure that a class in the same package will be able to access it.
+    try
+    {
+      LDAPPersister.getInstance(targetClass);
+    }
+    catch (final Exception e)
+    {
+      debugException(e);
+      err(ERR_GEN_CODEC_INVALID_CLASS.get(className, getExceptionMessage(e)));
+      return ResultCode.LOCAL_ERROR;
+    }
+
+    for (Class<?> c = targetClass; c != null; c = c.getEnclosingClass())
+    {
+      if (Modifier.isPrivate(c.getModifiers()))
+      {
+        err(ERR_GEN_CODEC_CLASS_NOT_ACCESSIBLE.get(className));
+        return ResultCode.PARAM_ERROR;
+      }
+    }
+
+
+    // Generate the source code and write it to the appropriate file.
+    final String codecClassName =
+         LDAPObjectCodec.getCodecClassName(targetClass);
+    final File outputFile = new File(outputDirectoryArg.getValue(),
+         codecClassName.substring(codecClassName.lastIndexOf('.') + 1) +
+              ".java");
+    try
+    {
+      final PrintWriter writer = new PrintWriter(new FileWriter(outputFile));
+      try
+      {
+        writer.print(generateSource(targetClass));
+      }
+      finally
+      {
+        writer.close();
+      }
+    }
+    catch (final Exception e)
+    {
+      debugException(e);
+      err(ERR_GEN_CODEC_CANNOT_WRITE_SOURCE.get(outputFile.getAbsolutePath(),
+           getExceptionMessage(e)));
+      return ResultCode.LOCAL_ERROR;
+    }
+
+    return ResultCode.SUCCESS;
+  }
+
+
+
+  /**
+   * Generates the source code for a codec for the provided class.
+   *
+   * @param  type  The class for which to generate the codec.  It must be a
+   *               valid class for use with the persistence framework.
+   *
+   * @return  The generated source code.
+   */
+  static String generateSource(final Class<?> type)
+  {
+    final List<Field> fields = new ArrayList<Field>();
+    for (final Field f : type.getDeclaredFields())
+    {
+      final LDAPField a = f.getAnnotation(LDAPField.class);
+      final int modifiers = f.getModifiers();
+      if ((a != null) && a.encoderClass().equals(DefaultObjectEncoder.class) &&
+          (! Modifier.isPrivate(modifiers)) &&
+          (! Modifier.isFinal(modifiers)) &&
+          (! Modifier.isStatic(modifiers)) &&
+          (getTypeName(f.getGenericType()) != null))
+      {
+        fields.add(f);
+      }
+    }
+
+    final List<Method> getters = new ArrayList<Method>();
+    final List<Method> setters = new ArrayList<Method>();
+    for (final Method m : type.getDeclaredMethods())
+    {
+      final int modifiers = m.getModifiers();
+      if (Modifier.isPrivate(modifiers) || Modifier.isStatic(modifiers) ||
+          (m.getExceptionTypes().length > 0))
+      {
+        continue;
+      }
+
+      final LDAPGetter g = m.getAnnotation(LDAPGetter.class);
+      if ((g != null) && g.encoderClass().equals(DefaultObjectEncoder.class) &&
+          (m.getParameterTypes().length == 0) &&
+          (getTypeName(m.getGenericReturnType()) != null))
+      {
+        getters.add(m);
+      }
+
+      final LDAPSetter s = m.getAnnotation(LDAPSetter.class);
+      if ((s != null) && s.encoderClass().equals(DefaultObjectEncoder.class) &&
+          (m.getParameterTypes().length == 1) &&
+          (getTypeName(m.getGenericParameterTypes()[0]) != null))
+      {
+        setters.add(m);
+      }
+    }
+
+    // Sort the members by name so that the output is the same each time.
+    final Comparator<Member> comparator = new Comparator<Member>()
+    {
+      @Override()
+      public int compare(final Member m1, final Member m2)
+      {
+        return m1.getName().compareTo(m2.getName());
+      }
+    };
+    Collections.sort(fields, comparator);
+    Collections.sort(getters, comparator);
+    Collections.sort(setters, comparator);
+
+    boolean needDate = false;
+    boolean needDN = false;
+    for (final Field f : fields)
+    {
+      needDate |= f.getType().equals(Date.class);
+      needDN |= f.getType().equals(DN.class);
+    }
+    for (final Method m : getters)
+    {
+      needDate |= m.getReturnType().equals(Date.class);
+      needDN |= m.getReturnType().equals(DN.class);
+    }
+
+
+    final String packageName;
+    final String typeName;
+    final String fullCodecName = LDAPObjectCodec.getCodecClassName(type);
+    final String codecName;
+    final int lastPeriodPos = fullCodecName.lastIndexOf('.');
+    if (lastPeriodPos < 0)
+    {
+      packageName = null;
+      typeName = type.getCanonicalName();
+      codecName = fullCodecName;
+    }
+    else
+    {
+      packageName = fullCodecName.substring(0, lastPeriodPos);
+      typeName = type.getCanonicalName().substring(lastPeriodPos + 1);
+      codecName = fullCodecName.substring(lastPeriodPos + 1);
+    }
+
+    final StringBuilder b = new StringBuilder();
+    if (packageName != null)
+    {
+      line(b, "package ", packageName, ";");
+      line(b);
+      line(b);
+      line(b);
+    }
+
+    if (needDate)
+    {
+      line(b, "import ", Date.class.getName(), ";");
+      line(b);
+    }
+
+    line(b, "import ", Attribute.class.getName(), ";");
+    if (needDN)
+    {
+      line(b, "import ", DN.class.getName(), ";");
+    }
+
+    final String persistPackage = LDAPObjectCodec.class.getPackage().getName();
+    if (! persistPackage.equals(packageName))
+    {
+      line(b, "import ", LDAPObjectCodec.class.getName(), ";");
+      line(b, "import ", LDAPPersistException.class.getName(), ";");
+    }
+
+    line(b);
+    line(b);
+    line(b);
+    line(b, "/**");
+    line(b, " * This class provides a codec that the LDAP persistence " +
+         "framework may use to");
+    line(b, " * access objects of the following type without the use of " +
+         "reflection:");
+    line(b, " * {@code ", type.getName(), "}.");
+    line(b, " * It was generated by the generate-codec-from-source tool, and " +
+         "it should be");
+    line(b, " * regenerated rather than edited if that class is updated.");
+    line(b, " */");
+    line(b, "public final class ", codecName);
+    line(b, "       extends LDAPObjectCodec<", typeName, ">");
+    line(b, "{");
+    line(b, "  /**");
+    line(b, "   * The serial version UID for this serializable class.");
+    line(b, "   */");
+    line(b, "  private static final long serialVersionUID = 1L;");
+    writeNames(b, "FIELD_NAMES", "fields", fields);
+    writeNames(b, "GETTER_NAMES", "getter methods", getters);
+    writeNames(b, "SETTER_NAMES", "setter methods", setters);
+
+    line(b);
+    line(b);
+    line(b);
+    line(b, "  /**");
+    line(b, "   * Creates a new instance of this codec.");
+    line(b, "   */");
+    line(b, "  public ", codecName, "()");
+    line(b, "  {");
+    line(b, "    // No implementation is required.");
+    line(b, "  }");
+
+    startMethod(b, "public Class<" + typeName + "> getType()", null);
+    line(b, "    return ", typeName, ".class;");
+    line(b, "  }");
+
+    startMethod(b, "public " + typeName + " newInstance()", null);
+    if (canInvokeConstructor(type))
+    {
+      line(b, "    return new ", typeName, "();");
+    }
+    else
+    {
+      line(b, "    return null;");
+    }
+    line(b, "  }");
+
+    startMethod(b, "public String[] getFieldNames()", null);
+    line(b, "    return FIELD_NAMES.clone();");
+    line(b, "  }");
+
+    startMethod(b, "public String[] getGetterNames()", null);
+    line(b, "    return GETTER_NAMES.clone();");
+    line(b, "  }");
+
+    startMethod(b, "public String[] getSetterNames()", null);
+    line(b, "    return SETTER_NAMES.clone();");
+    line(b, "  }");
+
+    startMethod(b, "public Attribute encodeField(final " + typeName +
+         " o, final int index,", "final String attributeName");
+    line(b, "    switch (index)");
+    line(b, "    {");
+    for (int i=0; i < fields.size(); i++)
+    {
+      final Field f = fields.get(i);
+      writeEncodeCase(b, i, f.getType(), "o." + f.getName());
+    }
+    endSwitch(b);
+
+    startMethod(b, "public void decodeField(final " + typeName +
+         " o, final int index,", "final Attribute a");
+    line(b, "    switch (index)");
+    line(b, "    {");
+    for (int i=0; i < fields.size(); i++)
+    {
+      final Field f = fields.get(i);
+      line(b, "      case ", String.valueOf(i), ":");
+      line(b, "        o.", f.getName(), " = ",
+           getDecodeExpression(f.getType()), ";");
+      line(b, "        break;");
+    }
+    endSwitch(b);
+
+    startMethod(b, "public Attribute invokeGetter(final " + typeName +
+         " o, final int index,", "final String attributeName");
+    line(b, "    switch (index)");
+    line(b, "    {");
+    for (int i=0; i < getters.size(); i++)
+    {
+      final Method m = getters.get(i);
+      writeEncodeCase(b, i, m.getReturnType(), "o." + m.getName() + "()");
+    }
+    endSwitch(b);
+
+    startMethod(b, "public void invokeSetter(final " + typeName +
+         " o, final int index,", "final Attribute a");
+    line(b, "    switch (index)");
+    line(b, "    {");
+    for (int i=0; i < setters.size(); i++)
+    {
+      final Method m = setters.get(i);
+      line(b, "      case ", String.valueOf(i), ":");
+      line(b, "        o.", m.getName(), "(",
+           getDecodeExpression(m.getParameterTypes()[0]), ");");
+      line(b, "        break;");
+    }
+    endSwitch(b);
+
+    line(b, "}");
+    return b.toString();
+  }
+
+
+
+  /**
+   * Retrieves the name that should be used to refer to the provided type in
+   * the generated source code, if it is a type that the codec can handle.
+   *
+   * @param  t  The type for which to retrieve the name.
+   *
+   * @return  The name that should be used to refer to the provided type, or
+   *          {@code null} if the codec cannot handle values of that type.
+   */
+  static String getTypeName(final Type t)
+  {
+    if (t.equals(String.class) ||
+        t.equals(String[].class) ||
+        t.equals(Boolean.TYPE) ||
+        t.equals(Boolean.class) ||
+        t.equals(Integer.TYPE) ||
+        t.equals(Integer.class) ||
+        t.equals(Long.TYPE) ||
+        t.equals(Long.class) ||
+        t.equals(Date.class) ||
+        t.equals(DN.class) ||
+        t.equals(byte[].class))
+    {
+      return ((Class<?>) t).getSimpleName();
+    }
+
+    return null;
+  }
+
+
+
+  /**
+   * Indicates whether the generated codec will be able to directly invoke the
+   * zero-argument constructor for the provided class.
+   *
+   * @param  type  The class for which to make the determination.
+   *
+   * @return  {@code true} if the generated codec will be able to directly
+   *          invoke the constructor, or {@code false} if not.
+   */
+  private static boolean canInvokeConstructor(final Class<?> type)
+  {
+    if (Modifier.isAbstract(type.getModifiers()) ||
+        ((type.getEnclosingClass() != null) &&
+         (! Modifier.isStatic(type.getModifiers()))))
+    {
+      return false;
+    }
+
+    try
+    {
+      final Constructor<?> constructor = type.getDeclaredConstructor();
+      return ((! Modifier.isPrivate(constructor.getModifiers())) &&
+           (constructor.getExceptionTypes().length == 0));
+    }
+    catch (final Exception e)
+    {
+      debugException(e);
+      return false;
+    }
+  }
+
+
+
+  /**
+   * Writes the declaration for an array with the names of the provided
+   * members.
+   *
+   * @param  b            The buffer to which the declaration should be
+   *                      written.
+   * @param  arrayName    The name to use for the array.
+   * @param  description  A description of the members.
+   * @param  members      The members whose names should be included.
+   */
+  private static void writeNames(final StringBuilder b, final String arrayName,
+                                 final String description,
+                                 final List<? extends Member> members)
+  {
+    line(b);
+    line(b);
+    line(b);
+    line(b, "  /**");
+    line(b, "   * The names of the ", description,
+         " that may be accessed by this codec.");
+    line(b, "   */");
+    if (members.isEmpty())
+    {
+      line(b, "  private static final String[] ", arrayName,
+           " = new String[0];");
+      return;
+    }
+
+    line(b, "  private static final String[] ", arrayName, " =");
+    line(b, "  {");
+    for (int i=0; i < members.size(); i++)
+    {
+      line(b, "    \"", members.get(i).getName(),
+           ((i < (members.size() - 1)) ? "\"," : "\""));
+    }
+    line(b, "  };");
+  }
+
+
+
+  /**
+   * Writes the start of a method that overrides a method in the
+   * {@code LDAPObjectCodec} class.
+   *
+   * @param  b                The buffer to which the method should be
+   *                          written.
+   * @param  signature        The signature of the method, up to and including
+   *                          the first line of parameters.
+   * @param  finalParameter   The last parameter of the method, to be written
+   *                          on its own line, or {@code null} if the signature
+   *                          already includes all of the parameters.  If this
+   *                          is non-{@code null}, then the method will be
+   *                          declared to throw an
+   *                          {@code LDAPPersistException}.
+   */
+  private static void startMethod(final StringBuilder b,
+                                  final String signature,
+                                  final String finalParameter)
+  {
+    line(b);
+    line(b);
+    line(b);
+    line(b, "  /**");
+    line(b, "   * {@inheritDoc}");
+    line(b, "   */");
+    line(b, "  @Override()");
+    if (finalParameter == null)
+    {
+      line(b, "  ", signature);
+    }
+    else
+    {
+      line(b, "  ", signature);
+      line(b, "         ", finalParameter, ")");
+      line(b, "         throws LDAPPersistException");
+    }
+    line(b, "  {");
+  }
+
+
+
+  /**
+   * Writes the default case and the end of a switch statement and the method
+   * that contains it.
+   *
+   * @param  b  The buffer to which the content should be written.
+   */
+  private static void endSwitch(final StringBuilder b)
+  {
+    line(b, "      default:");
+    line(b, "        throw new IndexOutOfBoundsException(" +
+         "String.valueOf(index));");
+    line(b, "    }");
+    line(b, "  }");
+  }
+
+
+
+  /**
+   * Writes a case that encodes a value of the provided type.
+   *
+   * @param  b           The buffer to which the case should be written.
+   * @param  index       The index for the case.
+   * @param  type        The type of value to encode.
+   * @param  expression  The expression used to obtain the value.
+   */
+  private static void writeEncodeCase(final StringBuilder b, final int index,
+                                      final Class<?> type,
+                                      final String expression)
+  {
+    line(b, "      case ", String.valueOf(index), ":");
+    line(b, "      {");
+    line(b, "        final ", getTypeName(type), " v = ", expression, ";");
+    if (! type.isPrimitive())
+    {
+      line(b, "        if (v == null)");
+      line(b, "        {");
+      line(b, "          return null;");
+      line(b, "        }");
+    }
+
+    final String method;
+    final String value;
+    if (type.equals(String[].class))
+    {
+      method = "encodeStrings";
+      value = "v";
+    }
+    else if (type.equals(Boolean.TYPE) || type.equals(Boolean.class))
+    {
+      method = "encodeBoolean";
+      value = "v";
+    }
+    else if (type.equals(Date.class))
+    {
+      method = "encodeDate";
+      value = "v";
+    }
+    else if (type.equals(byte[].class))
+    {
+      method = "encodeBytes";
+      value = "v";
+    }
+    else if (type.equals(String.class))
+    {
+      method = "encodeString";
+      value = "v";
+    }
+    else
+    {
+      method = "encodeString";
+      value = "String.valueOf(v)";
+    }
+
+    line(b, "        return ", method, "(attributeName, ", value, ");");
+    line(b, "      }");
+  }
+
+
+
+  /**
+   * Retrieves an expression that decodes a value of the provided type from an
+   * attribute named "a", or provides the appropriate default value (which is
+   * {@code null}, zero, or {@code false}) if that attribute is {@code null}.
+   *
+   * @param  type  The type of value to decode.
+   *
+   * @return  The expression that decodes the value.
+   */
+  private static String getDecodeExpression(final Class<?> type)
+  {
+    final String method;
+    if (type.equals(String[].class))
+    {
+      method = "decodeStrings";
+    }
+    else if (type.equals(Boolean.TYPE) || type.equals(Boolean.class))
+    {
+      method = "decodeBoolean";
+    }
+    else if (type.equals(Integer.TYPE) || type.equals(Integer.class))
+    {
+      method = "decodeInteger";
+    }
+    else if (type.equals(Long.TYPE) || type.equals(Long.class))
+    {
+      method = "decodeLong";
+    }
+    else if (type.equals(Date.class))
+    {
+      method = "decodeDate";
+    }
+    else if (type.equals(DN.class))
+    {
+      method = "decodeDN";
+    }
+    else if (type.equals(byte[].class))
+    {
+      method = "decodeBytes";
+    }
+    else
+    {
+      method = "decodeString";
+    }
+
+    if (type.equals(Boolean.TYPE))
+    {
+      return "(a != null) && " + method + "(a)";
+    }
+
+    final String nullValue;
+    if (type.equals(Integer.TYPE))
+    {
+      nullValue = "0";
+    }
+    else if (type.equals(Long.TYPE))
+    {
+      nullValue = "0L";
+    }
+    else
+    {
+      nullValue = "null";
+    }
+
+    return "(a == null) ? " + nullValue + " : " + method + "(a)";
+  }
+
+
+
+  /**
+   * Appends the provided strings to the given buffer, followed by an
+   * end-of-line character.
+   *
+   * @param  b      The buffer to which the line should be appended.
+   * @param  parts  The strings that make up the line.
+   */
+  private static void line(final StringBuilder b, final String... parts)
+  {
+    for (final String s : parts)
+    {
+      b.append(s);
+    }
+    b.append('\n');
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public LinkedHashMap<String[],String> getExampleUsages()
+  {
+    final LinkedHashMap<String[],String> examples =
+         new LinkedHashMap<String[],String>(1);
+
+    final String[] args =
+    {
+      "--javaClass", "com.example.MyClass",
+      "--outputDirectory", "src/com/example"
+    };
+    examples.put(args, INFO_GEN_CODEC_EXAMPLE_1.get());
+
+    return examples;
+  }
+}
@@ -79,6 +79,13 @@ public final class GetterInfo
   // The encoder used for this method.
   private final ObjectEncoder encoder;
 
+  // The index of this method in the codec, or -1 if the codec should not be
+  // used to invoke it.
+  private final int codecIndex;
+
+  // The codec that may be used to invoke the method without reflection.
+  private final LDAPObjectCodec<Object> codec;
+
   // The name of the associated attribute type.
   private final String attributeName;
 
@@ -98,6 +105,27 @@ public final class GetterInfo
    */
   GetterInfo(final Method m, final Class<?> c)
        throws LDAPPersistException
+  {
+    this(m, c, null);
+  }
+
+
+
+  /**
+   * Creates a new getter info object from the provided method.
+   *
+   * @param  m      The method to use to create this object.
+   * @param  c      The class which holds the method.
+   * @param  codec  The codec that may be used to invoke the method without
+   *                reflection.  It may be {@code null} if reflection should
+   *                always be used.
+   *
+   * @throws  LDAPPersistException  If a problem occurs while processing the
+   *                                given method.
+   */
+  @SuppressWarnings("unchecked")
+  GetterInfo(final Method m, final Class<?> c, final LDAPObjectCodec<?> codec)
+       throws LDAPPersistException
   {
     ensureNotNull(m, c);
 
@@ -218,6 +246,28 @@ public final class GetterInfo
     {
       attributeName = attrName;
     }
+
+    final int index;
+    if ((codec != null) &&
+        encoder.getClass().equals(DefaultObjectEncoder.class))
+    {
+      index = LDAPObjectCodec.indexOf(codec.getGetterNames(), m.getName());
+    }
+    else
+    {
+      index = -1;
+    }
+
+    if (index >= 0)
+    {
+      codecIndex = index;
+      this.codec = (LDAPObjectCodec<Object>) codec;
+    }
+    else
+    {
+      codecIndex = -1;
+      this.codec = null;
+    }
   }
 
 
@@ -408,6 +458,11 @@ public final class GetterInfo
   {
     try
     {
+      if (codec != null)
+      {
+        return codec.invokeGetter(o, codecIndex, attributeName);
+      }
+
       final Object methodValue = method.invoke(o);
       if (methodValue == null)
       {
@@ -147,4 +147,23 @@ public @interface LDAPObject
    *          included.
    */
   String[] superiorClass() default {};
+
+
+
+  /**
+   * Indicates whether the {@link LDAPPersister} should keep track of the
+   * encoded values of the fields and getter methods of objects of this type
+   * whenever those objects are read from or written to the directory using the
+   * persister.  If this is {@code true}, then modify operations for those
+   * objects will only include the attributes whose values have changed since
+   * then, without the need to compare against the original entry held in a
+   * field marked with the {@link LDAPEntryField} annotation.  Objects are only
+   * weakly referenced, so tracking them will not prevent them from being
+   * garbage collected, but a copy of the encoded values will be retained for
+   * each object that is still in use.
+   *
+   * @return  {@code true} if changes to objects of this type should be tracked,
+   *          or {@code false} if not.
+   */
+  boolean trackModifications() default false;
 }
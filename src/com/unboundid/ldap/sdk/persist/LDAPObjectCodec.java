@@ -0,0 +1,572 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.persist;
+
+
+
+import java.io.Serializable;
+import java.util.Date;
+
+import com.unboundid.asn1.ASN1OctetString;
+import com.unboundid.ldap.matchingrules.CaseIgnoreStringMatchingRule;
+import com.unboundid.ldap.sdk.Attribute;
+import com.unboundid.ldap.sdk.DN;
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.util.Extensible;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+import static com.unboundid.ldap.sdk.persist.PersistMessages.*;
+import static com.unboundid.util.Debug.*;
+import static com.unboundid.util.StaticUtils.*;
+
+
+
+/**
+ * This class provides an API for directly accessing the fields and methods of
+ * objects marked with the {@link LDAPObject} annotation, without the use of
+ * reflection.  Codecs are normally generated by the
+ * {@link GenerateCodecFromSource} tool rather than written by hand.
+ * <BR><BR>
+ * When an {@link LDAPObjectHandler} is created for a class, it will look for a
+ * codec class in the same package whose name is the name of that class
+ * (with any dollar signs replaced by underscores) followed by "LDAPCodec".  If
+ * such a class exists, then it will be used to access the fields and methods
+ * that it supports, and reflection will be used for all other fields and
+ * methods.  A codec must only claim fields and methods that use the
+ * {@link DefaultObjectEncoder}, and it must encode and decode their values in
+ * exactly the same way as that encoder.  Concrete instances of this class must
+ * provide a public zero-argument constructor.
+ *
+ * @param  <T>  The type of object accessed by this codec.
+ */
+@Extensible()
+@ThreadSafety(level=ThreadSafetyLevel.INTERFACE_THREADSAFE)
+public abstract class LDAPObjectCodec<T>
+       implements Serializable
+{
+  /**
+   * The suffix that will be appended to the name of a class to obtain the name
+   * of its codec class.
+   */
+  public static final String CODEC_CLASS_NAME_SUFFIX = "LDAPCodec";
+
+
+
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = 7303915560474180633L;
+
+
+
+  /**
+   * Creates a new instance of this codec.
+   */
+  protected LDAPObjectCodec()
+  {
+    // No implementation is required.
+  }
+
+
+
+  /**
+   * Retrieves the type of object accessed by this codec.
+   *
+   * @return  The type of object accessed by this codec.
+   */
+  public abstract Class<T> getType();
+
+
+
+  /**
+   * Creates a new instance of the associated type using its zero-argument
+   * constructor.
+   *
+   * @return  The new instance that was created, or {@code null} if this codec
+   *          cannot invoke the constructor directly.
+   */
+  public abstract T newInstance();
+
+
+
+  /**
+   * Retrieves the names of the fields marked with the {@link LDAPField}
+   * annotation that may be accessed by this codec.  The position of each name
+   * in the array is the index that will be used to identify that field.
+   *
+   * @return  The names of the fields that may be accessed by this codec.
+   */
+  public abstract String[] getFieldNames();
+
+
+
+  /**
+   * Retrieves the names of the methods marked with the {@link LDAPGetter}
+   * annotation that may be invoked by this codec.  The position of each name
+   * in the array is the index that will be used to identify that method.
+   *
+   * @return  The names of the getter methods that may be invoked by this codec.
+   */
+  public abstract String[] getGetterNames();
+
+
+
+  /**
+   * Retrieves the names of the methods marked with the {@link LDAPSetter}
+   * annotation that may be invoked by this codec.  The position of each name
+   * in the array is the index that will be used to identify that method.
+   *
+   * @return  The names of the setter methods that may be invoked by this codec.
+   */
+  public abstract String[] getSetterNames();
+
+
+
+  /**
+   * Encodes the value of the specified field in the provided object.
+   *
+   * @param  o              The object whose field should be encoded.
+   * @param  index          The index of the field to encode.
+   * @param  attributeName  The name to use for the attribute.
+   *
+   * @return  The attribute with the encoded value, or {@code null} if the
+   *          field does not have a value.
+   *
+   * @throws  LDAPPersistException  If a problem occurs while encoding the
+   *                                field value.
+   */
+  public abstract Attribute encodeField(T o, int index, String attributeName)
+         throws LDAPPersistException;
+
+
+
+  /**
+   * Sets the value of the specified field in the provided object from the
+   * given attribute.
+   *
+   * @param  o      The object whose field should be updated.
+   * @param  index  The index of the field to update.
+   * @param  a      The attribute from which to obtain the value.  It will be
+   *                {@code null} if the field should be cleared, in which case
+   *                it should be set to {@code null}, or to zero or
+   *                {@code false} for primitive fields.
+   *
+   * @throws  LDAPPersistException  If a problem occurs while decoding the
+   *                                value.
+   */
+  public abstract void decodeField(T o, int index, Attribute a)
+         throws LDAPPersistException;
+
+
+
+  /**
+   * Invokes the specified getter method on the provided object and encodes the
+   * value that it returns.
+   *
+   * @param  o              The object on which to invoke the getter method.
+   * @param  index          The index of the getter method to invoke.
+   * @param  attributeName  The name to use for the attribute.
+   *
+   * @return  The attribute with the encoded value, or {@code null} if the
+   *          method returned {@code null}.
+   *
+   * @throws  LDAPPersistException  If a problem occurs while encoding the
+   *                                value.
+   */
+  public abstract Attribute invokeGetter(T o, int index, String attributeName)
+         throws LDAPPersistException;
+
+
+
+  /**
+   * Invokes the specified setter method on the provided object with a value
+   * decoded from the given attribute.
+   *
+   * @param  o      The object on which to invoke the setter method.
+   * @param  index  The index of the setter method to invoke.
+   * @param  a      The attribute from which to obtain the value.  It will be
+   *                {@code null} if the method should be invoked with a
+   *                {@code null} value, or with zero or {@code false} for
+   *                primitive arguments.
+   *
+   * @throws  LDAPPersistException  If a problem occurs while decoding the
+   *                                value.
+   */
+  public abstract void invokeSetter(T o, int index, Attribute a)
+         throws LDAPPersistException;
+
+
+
+  /**
+   * Retrieves the fully-qualified name of the codec class for the provided
+   * type.
+   *
+   * @param  type  The type for which to obtain the codec class name.
+   *
+   * @return  The fully-qualified name of the codec class for the provided type.
+   */
+  public static String getCodecClassName(final Class<?> type)
+  {
+    return type.getName().replace('$', '_') + CODEC_CLASS_NAME_SUFFIX;
+  }
+
+
+
+  /**
+   * Retrieves an instance of the codec for the provided type, if one is
+   * available.
+   *
+   * @param  <T>   The type of object for which to obtain the codec.
+   * @param  type  The type for which to obtain the codec.
+   *
+   * @return  The codec for the provided type, or {@code null} if none is
+   *          available.
+   */
+  @SuppressWarnings("unchecked")
+  static <T> LDAPObjectCodec<T> getCodec(final Class<T> type)
+  {
+    final Class<?> codecClass;
+    try
+    {
+      codecClass = Class.forName(getCodecClassName(type), true,
+           type.getClassLoader());
+    }
+    catch (final ClassNotFoundException cnfe)
+    {
+      // This is the normal case when no codec has been generated.
+      debugException(cnfe);
+      return null;
+    }
+    catch (final LinkageError le)
+    {
+      debugException(le);
+      return null;
+    }
+
+    try
+    {
+      final LDAPObjectCodec<?> codec = (LDAPObjectCodec<?>)
+           codecClass.getDeclaredConstructor().newInstance();
+      if (codec.getType().equals(type))
+      {
+        return (LDAPObjectCodec<T>) codec;
+      }
+    }
+    catch (final ReflectiveOperationException roe)
+    {
+      debugException(roe);
+    }
+    catch (final ClassCastException cce)
+    {
+      debugException(cce);
+    }
+
+    return null;
+  }
+
+
+
+  /**
+   * Retrieves the index of the provided name in the given array.
+   *
+   * @param  names  The array of names to search.
+   * @param  name   The name for which to retrieve the index.
+   *
+   * @return  The index of the provided name in the given array, or -1 if it is
+   *          not present.
+   */
+  static int indexOf(final String[] names, final String name)
+  {
+    for (int i=0; i < names.length; i++)
+    {
+      if (names[i].equals(name))
+      {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+
+
+  /**
+   * Creates an attribute with the provided string value.
+   *
+   * @param  name   The name to use for the attribute.
+   * @param  value  The value to use for the attribute.
+   *
+   * @return  The attribute that was created.
+   */
+  protected static Attribute encodeString(final String name,
+                                          final String value)
+  {
+    return new Attribute(name, value);
+  }
+
+
+
+  /**
+   * Creates an attribute with the provided string values.
+   *
+   * @param  name    The name to use for the attribute.
+   * @param  values  The values to use for the attribute.
+   *
+   * @return  The attribute that was created.
+   */
+  protected static Attribute encodeStrings(final String name,
+                                           final String[] values)
+  {
+    final ASN1OctetString[] encodedValues = new ASN1OctetString[values.length];
+    for (int i=0; i < values.length; i++)
+    {
+      encodedValues[i] = new ASN1OctetString(String.valueOf(values[i]));
+    }
+
+    return new Attribute(name, CaseIgnoreStringMatchingRule.getInstance(),
+         encodedValues);
+  }
+
+
+
+  /**
+   * Creates an attribute with the provided Boolean value.
+   *
+   * @param  name   The name to use for the attribute.
+   * @param  value  The value to use for the attribute.
+   *
+   * @return  The attribute that was created.
+   */
+  protected static Attribute encodeBoolean(final String name,
+                                           final boolean value)
+  {
+    return new Attribute(name, (value ? "TRUE" : "FALSE"));
+  }
+
+
+
+  /**
+   * Creates an attribute with the generalized time representation of the
+   * provided date.
+   *
+   * @param  name   The name to use for the attribute.
+   * @param  value  The value to use for the attribute.
+   *
+   * @return  The attribute that was created.
+   */
+  protected static Attribute encodeDate(final String name, final Date value)
+  {
+    return new Attribute(name, encodeGeneralizedTime(value));
+  }
+
+
+
+  /**
+   * Creates an attribute with the provided binary value.
+   *
+   * @param  name   The name to use for the attribute.
+   * @param  value  The value to use for the attribute.
+   *
+   * @return  The attribute that was created.
+   */
+  protected static Attribute encodeBytes(final String name, final byte[] value)
+  {
+    return new Attribute(name, value);
+  }
+
+
+
+  /**
+   * Retrieves the first value of the provided attribute as a string.
+   *
+   * @param  a  The attribute from which to obtain the value.
+   *
+   * @return  The first value of the provided attribute as a string.
+   */
+  protected static String decodeString(final Attribute a)
+  {
+    return a.getRawValues()[0].stringValue();
+  }
+
+
+
+  /**
+   * Retrieves the values of the provided attribute as strings.
+   *
+   * @param  a  The attribute from which to obtain the values.
+   *
+   * @return  The values of the provided attribute as strings.
+   */
+  protected static String[] decodeStrings(final Attribute a)
+  {
+    return a.getValues();
+  }
+
+
+
+  /**
+   * Retrieves the first value of the provided attribute as a Boolean.
+   *
+   * @param  a  The attribute from which to obtain the value.
+   *
+   * @return  The first value of the provided attribute as a Boolean.
+   *
+   * @throws  LDAPPersistException  If the value cannot be parsed as a Boolean.
+   */
+  protected static Boolean decodeBoolean(final Attribute a)
+            throws LDAPPersistException
+  {
+    final String s = decodeString(a);
+    if (s.equalsIgnoreCase("TRUE"))
+    {
+      return Boolean.TRUE;
+    }
+    else if (s.equalsIgnoreCase("FALSE"))
+    {
+      return Boolean.FALSE;
+    }
+    else
+    {
+      throw new LDAPPersistException(
+           ERR_DEFAULT_ENCODER_VALUE_INVALID_BOOLEAN.get(s));
+    }
+  }
+
+
+
+  /**
+   * Retrieves the first value of the provided attribute as an integer.
+   *
+   * @param  a  The attribute from which to obtain the value.
+   *
+   * @return  The first value of the provided attribute as an integer.
+   *
+   * @throws  LDAPPersistException  If the value cannot be parsed as an
+   *                                integer.
+   */
+  protected static Integer decodeInteger(final Attribute a)
+            throws LDAPPersistException
+  {
+    try
+    {
+      return Integer.valueOf(decodeString(a));
+    }
+    catch (final NumberFormatException nfe)
+    {
+      debugException(nfe);
+      throw new LDAPPersistException(getExceptionMessage(nfe), nfe);
+    }
+  }
+
+
+
+  /**
+   * Retrieves the first value of the provided attribute as a long.
+   *
+   * @param  a  The attribute from which to obtain the value.
+   *
+   * @return  The first value of the provided attribute as a long.
+   *
+   * @throws  LDAPPersistException  If the value cannot be parsed as a long.
+   */
+  protected static Long decodeLong(final Attribute a)
+            throws LDAPPersistException
+  {
+    try
+    {
+      return Long.valueOf(decodeString(a));
+    }
+    catch (final NumberFormatException nfe)
+    {
+      debugException(nfe);
+      throw new LDAPPersistException(getExceptionMessage(nfe), nfe);
+    }
+  }
+
+
+
+  /**
+   * Retrieves the first value of the provided attribute as a date, decoded
+   * from the generalized time format.
+   *
+   * @param  a  The attribute from which to obtain the value.
+   *
+   * @return  The first value of the provided attribute as a date.
+   *
+   * @throws  LDAPPersistException  If the value cannot be parsed as a
+   *                                generalized time.
+   */
+  protected static Date decodeDate(final Attribute a)
+            throws LDAPPersistException
+  {
+    final String s = decodeString(a);
+    try
+    {
+      return decodeGeneralizedTime(s);
+    }
+    catch (final Exception e)
+    {
+      debugException(e);
+      throw new LDAPPersistException(
+           ERR_DEFAULT_ENCODER_VALUE_INVALID_DATE.get(s, e.getMessage()), e);
+    }
+  }
+
+
+
+  /**
+   * Retrieves the first value of the provided attribute as a DN.
+   *
+   * @param  a  The attribute from which to obtain the value.
+   *
+   * @return  The first value of the provided attribute as a DN.
+   *
+   * @throws  LDAPPersistException  If the value cannot be parsed as a DN.
+   */
+  protected static DN decodeDN(final Attribute a)
+            throws LDAPPersistException
+  {
+    try
+    {
+      return new DN(decodeString(a));
+    }
+    catch (final LDAPException le)
+    {
+      debugException(le);
+      throw new LDAPPersistException(le.getMessage(), le);
+    }
+  }
+
+
+
+  /**
+   * Retrieves the first value of the provided attribute as a byte array.
+   *
+   * @param  a  The attribute from which to obtain the value.
+   *
+   * @return  The first value of the provided attribute as a byte array.
+   */
+  protected static byte[] decodeBytes(final Attribute a)
+  {
+    return a.getRawValues()[0].getValue();
+  }
+}
@@ -90,6 +90,10 @@ public final class LDAPObjectHandler<T>
   // The constructor to use to create a new instance of the class.
   private final Constructor<T> constructor;
 
+  // The codec that may be used to access objects of the associated type
+  // without reflection, if available.
+  private final LDAPObjectCodec<T> codec;
+
   // The default parent DN for entries created from objects of the associated
   //  type.
   private final DN defaultParentDN;
@@ -185,12 +189,43 @@ public final class LDAPObjectHandler<T>
    *                                class that makes it unsuitable for use with
    *                                the persistence framework.
    */
-  @SuppressWarnings({"unchecked", "rawtypes"})
   LDAPObjectHandler(final Class<T> type)
        throws LDAPPersistException
+  {
+    this(type, true);
+  }
+
+
+
+  /**
+   * Creates a new instance of this handler that will handle objects of the
+   * specified type.
+   *
+   * @param  type      The type of object that will be handled by this class.
+   * @param  useCodec  Indicates whether to use a generated codec to access
+   *                   objects of the provided type (and its superclasses) if
+   *                   one is available.  If this is {@code false}, then
+   *                   reflection will always be used.
+   *
+   * @throws  LDAPPersistException  If there is a problem with the provided
+   *                                class that makes it unsuitable for use with
+   *                                the persistence framework.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  LDAPObjectHandler(final Class<T> type, final boolean useCodec)
+       throws LDAPPersistException
   {
     this.type = type;
 
+    if (useCodec)
+    {
+      codec = LDAPObjectCodec.getCodec(type);
+    }
+    else
+    {
+      codec = null;
+    }
+
     final Class<? super T> superclassType = type.getSuperclass();
     if (superclassType == null)
     {
@@ -206,7 +241,7 @@ public final class LDAPObjectHandler<T>
       }
       else
       {
-        superclassHandler = new LDAPObjectHandler(superclassType);
+        superclassHandler = new LDAPObjectHandler(superclassType, useCodec);
       }
     }
 
@@ -381,7 +416,7 @@ public final class LDAPObjectHandler<T>
       {
         f.setAccessible(true);
 
-        final FieldInfo fieldInfo = new FieldInfo(f, type);
+        final FieldInfo fieldInfo = new FieldInfo(f, type, codec);
         final String attrName = toLowerCase(fieldInfo.getAttributeName());
         if (fields.containsKey(attrName))
         {
@@ -536,7 +571,7 @@ public final class LDAPObjectHandler<T>
                     m.getName()));
         }
 
-        final GetterInfo methodInfo = new GetterInfo(m, type);
+        final GetterInfo methodInfo = new GetterInfo(m, type, codec);
         final String attrName = toLowerCase(methodInfo.getAttributeName());
         if (fields.containsKey(attrName) || getters.containsKey(attrName))
         {
@@ -575,7 +610,7 @@ public final class LDAPObjectHandler<T>
       {
         m.setAccessible(true);
 
-        final SetterInfo methodInfo = new SetterInfo(m, type);
+        final SetterInfo methodInfo = new SetterInfo(m, type, codec);
         final String attrName = toLowerCase(methodInfo.getAttributeName());
         if (fields.containsKey(attrName) || setters.containsKey(attrName))
         {
@@ -664,6 +699,20 @@ public final class LDAPObjectHandler<T>
 
 
 
+  /**
+   * Retrieves the codec that may be used to access objects of the associated
+   * type without reflection, if available.
+   *
+   * @return  The codec that may be used to access objects of the associated
+   *          type, or {@code null} if reflection will always be used.
+   */
+  LDAPObjectCodec<T> getCodec()
+  {
+    return codec;
+  }
+
+
+
   /**
    * Retrieves the {@code LDAPObjectHandler} object for the superclass of the
    * associated type, if it is marked with the {@code LDAPObject annotation}.
@@ -1220,10 +1269,18 @@ public final class LDAPObjectHandler<T>
   T decode(final Entry e)
     throws LDAPPersistException
   {
-    final T o;
+    T o = null;
     try
     {
-      o = constructor.newInstance();
+      if (codec != null)
+      {
+        o = codec.newInstance();
+      }
+
+      if (o == null)
+      {
+        o = constructor.newInstance();
+      }
     }
     catch (final Throwable t)
     {
@@ -1922,6 +1979,89 @@ public final class LDAPObjectHandler<T>
 
 
 
+  /**
+   * Encodes the values of the fields and getter methods of the provided object
+   * that should be included in modify operations, including those declared in
+   * superclasses.  Fields and getter methods with a value of {@code null} will
+   * not be included.
+   *
+   * @param  o                   The object to be encoded.
+   * @param  ignoreRequiredFlag  Indicates whether to ignore the value of the
+   *                             {@code requiredForEncode} setting for fields.
+   *                             If this is {@code true}, then no exception will
+   *                             be thrown for a required field with a value of
+   *                             {@code null}.
+   *
+   * @return  A map of the encoded attributes, keyed on the lowercase attribute
+   *          name.
+   *
+   * @throws  LDAPPersistException  If a problem occurs while encoding the
+   *                                values.
+   */
+  Map<String,Attribute> encodeModifiableAttributes(final T o,
+                             final boolean ignoreRequiredFlag)
+         throws LDAPPersistException
+  {
+    final LinkedHashMap<String,Attribute> attrMap;
+    if (superclassHandler == null)
+    {
+      attrMap = new LinkedHashMap<String,Attribute>(
+           2 * (fieldMap.size() + getterMap.size()));
+    }
+    else
+    {
+      attrMap = new LinkedHashMap<String,Attribute>(
+           superclassHandler.encodeModifiableAttributes(o,
+                ignoreRequiredFlag));
+    }
+
+    // Values from this class take precedence over those from the superclass,
+    // just as they do when computing modifications against the original entry.
+    for (final Map.Entry<String,FieldInfo> e : fieldMap.entrySet())
+    {
+      final FieldInfo i = e.getValue();
+      if (! i.includeInModify())
+      {
+        continue;
+      }
+
+      final String attrName = toLowerCase(e.getKey());
+      final Attribute a = i.encode(o, ignoreRequiredFlag);
+      if (a == null)
+      {
+        attrMap.remove(attrName);
+      }
+      else
+      {
+        attrMap.put(attrName, a);
+      }
+    }
+
+    for (final Map.Entry<String,GetterInfo> e : getterMap.entrySet())
+    {
+      final GetterInfo i = e.getValue();
+      if (! i.includeInModify())
+      {
+        continue;
+      }
+
+      final String attrName = toLowerCase(e.getKey());
+      final Attribute a = i.encode(o);
+      if (a == null)
+      {
+        attrMap.remove(attrName);
+      }
+      else
+      {
+        attrMap.put(attrName, a);
+      }
+    }
+
+    return attrMap;
+  }
+
+
+
   /**
    * Retrieves a filter that will match any entry containing the structural and
    * auxiliary classes for this object type.
@@ -25,6 +25,7 @@ package com.unboundid.ldap.sdk.persist;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -34,6 +35,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.unboundid.ldap.sdk.AddRequest;
+import com.unboundid.ldap.sdk.AsyncRequestID;
 import com.unboundid.ldap.sdk.Attribute;
 import com.unboundid.ldap.sdk.BindResult;
 import com.unboundid.ldap.sdk.Control;
@@ -42,6 +44,7 @@ import com.unboundid.ldap.sdk.DereferencePolicy;
 import com.unboundid.ldap.sdk.Entry;
 import com.unboundid.ldap.sdk.Filter;
 import com.unboundid.ldap.sdk.LDAPConnection;
+import com.unboundid.ldap.sdk.LDAPConnectionPool;
 import com.unboundid.ldap.sdk.LDAPEntrySource;
 import com.unboundid.ldap.sdk.LDAPException;
 import com.unboundid.ldap.sdk.LDAPInterface;
@@ -54,10 +57,12 @@ import com.unboundid.ldap.sdk.SearchRequest;
 import com.unboundid.ldap.sdk.SearchResult;
 import com.unboundid.ldap.sdk.SearchScope;
 import com.unboundid.ldap.sdk.SimpleBindRequest;
+import com.unboundid.ldap.sdk.UpdatableLDAPRequest;
 import com.unboundid.ldap.sdk.schema.AttributeTypeDefinition;
 import com.unboundid.ldap.sdk.schema.ObjectClassDefinition;
 import com.unboundid.ldap.sdk.schema.Schema;
 import com.unboundid.util.NotMutable;
+import com.unboundid.util.ObjectPair;
 import com.unboundid.util.ThreadSafety;
 import com.unboundid.util.ThreadSafetyLevel;
 
@@ -110,6 +115,10 @@ public final class LDAPPersister<T>
   // The LDAP object handler that will be used for this class.
   private final LDAPObjectHandler<T> handler;
 
+  // The tracker that will be used to keep track of the encoded values of
+  // objects, if modifications should be tracked for objects of this type.
+  private final ModificationTracker modificationTracker;
+
 
 
   /**
@@ -127,6 +136,15 @@ public final class LDAPPersister<T>
           throws LDAPPersistException
   {
     handler = new LDAPObjectHandler<T>(type);
+
+    if (handler.getLDAPObjectAnnotation().trackModifications())
+    {
+      modificationTracker = new ModificationTracker();
+    }
+    else
+    {
+      modificationTracker = null;
+    }
   }
 
 
@@ -537,7 +555,10 @@ public final class LDAPPersister<T>
          throws LDAPPersistException
   {
     ensureNotNull(entry);
-    return handler.decode(entry);
+
+    final T o = handler.decode(entry);
+    trackObject(o);
+    return o;
   }
 
 
@@ -562,6 +583,75 @@ public final class LDAPPersister<T>
   {
     ensureNotNull(o, entry);
     handler.decode(o, entry);
+    trackObject(o);
+  }
+
+
+
+  /**
+   * Records a snapshot of the encoded values of the provided object, if
+   * modifications should be tracked for objects of this type.
+   *
+   * @param  o  The object for which to record the snapshot.
+   *
+   * @throws  LDAPPersistException  If a problem occurs while encoding the
+   *                                object.
+   */
+  private void trackObject(final T o)
+          throws LDAPPersistException
+  {
+    if (modificationTracker != null)
+    {
+      modificationTracker.setSnapshot(o,
+           handler.encodeModifiableAttributes(o, true));
+    }
+  }
+
+
+
+  /**
+   * Retrieves the snapshot of the encoded values of the provided object, if
+   * modifications are tracked for objects of this type and that object is
+   * being tracked.
+   *
+   * @param  o  The object for which to retrieve the snapshot.
+   *
+   * @return  The snapshot for the provided object, or {@code null} if it is
+   *          not available.
+   */
+  private Map<String,Attribute> getSnapshot(final T o)
+  {
+    if (modificationTracker == null)
+    {
+      return null;
+    }
+    else
+    {
+      return modificationTracker.getSnapshot(o);
+    }
+  }
+
+
+
+  /**
+   * Updates the snapshot of the encoded values of the provided object to
+   * reflect a set of modifications that have been applied in the directory.
+   *
+   * @param  o        The object for which to update the snapshot.
+   * @param  mods     The modifications that have been applied.
+   * @param  current  The encoded values from which the modifications were
+   *                  computed.
+   */
+  private void updateSnapshot(final T o, final List<Modification> mods,
+                              final Map<String,Attribute> current)
+  {
+    final ArrayList<String> names = new ArrayList<String>(mods.size());
+    for (final Modification m : mods)
+    {
+      names.add(toLowerCase(m.getAttributeName()));
+    }
+
+    modificationTracker.updateSnapshot(o, names, current);
   }
 
 
@@ -607,7 +697,9 @@ public final class LDAPPersister<T>
         addRequest.setControls(controls);
       }
 
-      return i.add(addRequest);
+      final LDAPResult result = i.add(addRequest);
+      trackObject(o);
+      return result;
     }
     catch (final LDAPException le)
     {
@@ -618,6 +710,85 @@ public final class LDAPPersister<T>
 
 
 
+  /**
+   * Adds the provided objects to the directory server.  The add requests will
+   * be sent asynchronously over a single connection checked out from the
+   * provided pool, so that up to the specified number of requests may be
+   * outstanding at any time, which can be much faster than adding the objects
+   * one at a time.  All of the objects will be encoded before any requests
+   * are sent, so if a problem is encountered while encoding any object, then
+   * no objects will be added.
+   *
+   * @param  objects                 The objects to be added.  It must not be
+   *                                 {@code null} and it must not contain any
+   *                                 {@code null} elements.
+   * @param  pool                    The connection pool from which to obtain
+   *                                 the connection to use to communicate with
+   *                                 the directory server.  It must not be
+   *                                 {@code null}, and its connections must not
+   *                                 operate in synchronous mode.
+   * @param  parentDN                The parent DN to use for the resulting
+   *                                 entries, as for the {@link #add} method.
+   *                                 If it is {@code null}, then the default
+   *                                 parent DN defined in the
+   *                                 {@link LDAPObject} annotation will be
+   *                                 used.
+   * @param  maxOutstandingRequests  The maximum number of requests that may be
+   *                                 outstanding at any time.  It must be
+   *                                 greater than zero.
+   * @param  controls                An optional set of controls to include in
+   *                                 each add request.
+   *
+   * @return  A list of the results of processing the add operations, in the
+   *          same order as the provided objects.
+   *
+   * @throws  LDAPPersistException  If a problem occurs while encoding any of
+   *                                the objects, or while obtaining a
+   *                                connection from the pool.  Failed add
+   *                                operations will be reflected in the
+   *                                returned results rather than causing an
+   *                                exception to be thrown.
+   */
+  public List<LDAPResult> addAll(final Collection<? extends T> objects,
+                                 final LDAPConnectionPool pool,
+                                 final String parentDN,
+                                 final int maxOutstandingRequests,
+                                 final Control... controls)
+         throws LDAPPersistException
+  {
+    ensureNotNull(objects, pool);
+    ensureTrue(maxOutstandingRequests > 0);
+
+    final ArrayList<T> objectList = new ArrayList<T>(objects);
+    final ArrayList<UpdatableLDAPRequest> requests =
+         new ArrayList<UpdatableLDAPRequest>(objectList.size());
+    for (final T o : objectList)
+    {
+      ensureNotNull(o);
+
+      final AddRequest addRequest = new AddRequest(encode(o, parentDN));
+      if (controls != null)
+      {
+        addRequest.setControls(controls);
+      }
+      requests.add(addRequest);
+    }
+
+    final List<LDAPResult> results =
+         processAsync(pool, requests, maxOutstandingRequests);
+    for (int i=0; i < results.size(); i++)
+    {
+      if (results.get(i).getResultCode() == ResultCode.SUCCESS)
+      {
+        trackObject(objectList.get(i));
+      }
+    }
+
+    return results;
+  }
+
+
+
   /**
    * Deletes the provided object from the directory.
    *
@@ -654,7 +825,12 @@ public final class LDAPPersister<T>
         deleteRequest.setControls(controls);
       }
 
-      return i.delete(deleteRequest);
+      final LDAPResult result = i.delete(deleteRequest);
+      if (modificationTracker != null)
+      {
+        modificationTracker.removeSnapshot(o);
+      }
+      return result;
     }
     catch (final LDAPException le)
     {
@@ -674,6 +850,12 @@ public final class LDAPPersister<T>
    * as possible.  Otherwise, the resulting modifications will include attempts
    * to replace every attribute which are associated with fields or getters
    * that should be used in modify operations.
+   * <BR><BR>
+   * If the {@link LDAPObject#trackModifications} element of the
+   * {@code LDAPObject} annotation is {@code true} and the provided object was
+   * read from or written to the directory using this persister, then the
+   * resulting modifications will only include attributes whose values have
+   * changed since then, without the need for the original entry.
    *
    * @param  o                 The object for which to generate the list of
    *                           modifications.  It must not be {@code null}.
@@ -700,7 +882,18 @@ public final class LDAPPersister<T>
          throws LDAPPersistException
   {
     ensureNotNull(o);
-    return handler.getModifications(o, deleteNullValues, attributes);
+
+    final Map<String,Attribute> snapshot = getSnapshot(o);
+    if (snapshot == null)
+    {
+      return handler.getModifications(o, deleteNullValues, attributes);
+    }
+    else
+    {
+      return ModificationTracker.getModifications(snapshot,
+           handler.encodeModifiableAttributes(o, false), deleteNullValues,
+           attributes);
+    }
   }
 
 
@@ -713,8 +906,13 @@ public final class LDAPPersister<T>
    * modifications as efficient as possible.  Otherwise, the resulting
    * modifications will include attempts to replace every attribute which are
    * associated with fields or getters that should be used in modify operations.
-   * If there are no modifications, then no modification will be attempted, and
-   * this method will return {@code null} rather than an {@code LDAPResult}.
+   * If the {@link LDAPObject#trackModifications} element of the
+   * {@code LDAPObject} annotation is {@code true} and the provided object was
+   * read from or written to the directory using this persister, then the
+   * modifications will only include attributes whose values have changed since
+   * then.  If there are no modifications, then no modification will be
+   * attempted, and this method will return {@code null} rather than an
+   * {@code LDAPResult}.
    *
    * @param  o                 The object for which to generate the list of
    *                           modifications.  It must not be {@code null}.
@@ -760,8 +958,13 @@ public final class LDAPPersister<T>
    * modifications as efficient as possible.  Otherwise, the resulting
    * modifications will include attempts to replace every attribute which are
    * associated with fields or getters that should be used in modify operations.
-   * If there are no modifications, then no modification will be attempted, and
-   * this method will return {@code null} rather than an {@code LDAPResult}.
+   * If the {@link LDAPObject#trackModifications} element of the
+   * {@code LDAPObject} annotation is {@code true} and the provided object was
+   * read from or written to the directory using this persister, then the
+   * modifications will only include attributes whose values have changed since
+   * then.  If there are no modifications, then no modification will be
+   * attempted, and this method will return {@code null} rather than an
+   * {@code LDAPResult}.
    *
    * @param  o                 The object for which to generate the list of
    *                           modifications.  It must not be {@code null}.
@@ -797,8 +1000,11 @@ public final class LDAPPersister<T>
          throws LDAPPersistException
   {
     ensureNotNull(o, i);
-    final List<Modification> mods =
-         handler.getModifications(o, deleteNullValues, attributes);
+
+    final ObjectPair<List<Modification>,Map<String,Attribute>> modsAndValues =
+         computeModifications(o, deleteNullValues, attributes);
+    final List<Modification> mods = modsAndValues.getFirst();
+    final Map<String,Attribute> current = modsAndValues.getSecond();
     if (mods.isEmpty())
     {
       return null;
@@ -826,7 +1032,12 @@ public final class LDAPPersister<T>
         modifyRequest.setControls(controls);
       }
 
-      return i.modify(modifyRequest);
+      final LDAPResult result = i.modify(modifyRequest);
+      if (current != null)
+      {
+        updateSnapshot(o, mods, current);
+      }
+      return result;
     }
     catch (final LDAPException le)
     {
@@ -837,6 +1048,280 @@ public final class LDAPPersister<T>
 
 
 
+  /**
+   * Computes the modifications needed to update the stored representation of
+   * the provided object in the directory.
+   *
+   * @param  o                 The object for which to compute the
+   *                           modifications.
+   * @param  deleteNullValues  Indicates whether to include modifications that
+   *                           may completely remove an attribute from the
+   *                           entry if the corresponding field or getter method
+   *                           has a value of {@code null}.
+   * @param  attributes        The set of LDAP attributes for which to include
+   *                           modifications.  If this is empty or
+   *                           {@code null}, then all attributes marked for
+   *                           inclusion in the modification will be examined.
+   *
+   * @return  An object pair in which the first element is the list of
+   *          modifications, and the second element is the set of encoded
+   *          values from which they were computed if the object is being
+   *          tracked, or {@code null} if it is not.
+   *
+   * @throws  LDAPPersistException  If a problem occurs while computing the set
+   *                                of modifications.
+   */
+  private ObjectPair<List<Modification>,Map<String,Attribute>>
+               computeModifications(final T o, final boolean deleteNullValues,
+                                    final String... attributes)
+          throws LDAPPersistException
+  {
+    final Map<String,Attribute> snapshot = getSnapshot(o);
+    if (snapshot == null)
+    {
+      return new ObjectPair<List<Modification>,Map<String,Attribute>>(
+           handler.getModifications(o, deleteNullValues, attributes), null);
+    }
+
+    final Map<String,Attribute> current =
+         handler.encodeModifiableAttributes(o, false);
+    return new ObjectPair<List<Modification>,Map<String,Attribute>>(
+         ModificationTracker.getModifications(snapshot, current,
+              deleteNullValues, attributes),
+         current);
+  }
+
+
+
+  /**
+   * Updates the stored representations of the provided objects in the
+   * directory.  The modify requests will be sent asynchronously over a single
+   * connection checked out from the provided pool, so that up to the specified
+   * number of requests may be outstanding at any time, which can be much
+   * faster than updating the objects one at a time.  Modifications will be
+   * computed in the same way as for the {@link #modify} method, using the DN
+   * obtained from each object.  All modifications will be computed before any
+   * requests are sent, so if a problem is encountered for any object, then no
+   * objects will be updated.
+   *
+   * @param  objects                 The objects to be updated.  It must not be
+   *                                 {@code null} and it must not contain any
+   *                                 {@code null} elements.  Each object must
+   *                                 have been retrieved from the directory and
+   *                                 have a field with either the
+   *                                 {@link LDAPDNField} or
+   *                                 {@link LDAPEntryField} annotation.
+   * @param  pool                    The connection pool from which to obtain
+   *                                 the connection to use to communicate with
+   *                                 the directory server.  It must not be
+   *                                 {@code null}, and its connections must not
+   *                                 operate in synchronous mode.
+   * @param  deleteNullValues        Indicates whether to include modifications
+   *                                 that may completely remove an attribute
+   *                                 from the entry if the corresponding field
+   *                                 or getter method has a value of
+   *                                 {@code null}.
+   * @param  maxOutstandingRequests  The maximum number of requests that may be
+   *                                 outstanding at any time.  It must be
+   *                                 greater than zero.
+   * @param  controls                The optional set of controls to include in
+   *                                 each modify request.
+   *
+   * @return  A list of the results of processing the modify operations, in the
+   *          same order as the provided objects.  It will contain a
+   *          {@code null} element for each object for which there were no
+   *          changes to apply (and therefore no modification was performed).
+   *
+   * @throws  LDAPPersistException  If a problem occurs while computing the set
+   *                                of modifications for any of the objects, or
+   *                                while obtaining a connection from the pool.
+   *                                Failed modify operations will be reflected
+   *                                in the returned results rather than causing
+   *                                an exception to be thrown.
+   */
+  public List<LDAPResult> modifyAll(final Collection<? extends T> objects,
+                                    final LDAPConnectionPool pool,
+                                    final boolean deleteNullValues,
+                                    final int maxOutstandingRequests,
+                                    final Control... controls)
+         throws LDAPPersistException
+  {
+    ensureNotNull(objects, pool);
+    ensureTrue(maxOutstandingRequests > 0);
+
+    final ArrayList<T> objectList = new ArrayList<T>(objects);
+    final ArrayList<UpdatableLDAPRequest> requests =
+         new ArrayList<UpdatableLDAPRequest>(objectList.size());
+    final ArrayList<ObjectPair<List<Modification>,Map<String,Attribute>>>
+         modsAndValuesList =
+              new ArrayList<ObjectPair<List<Modification>,
+                   Map<String,Attribute>>>(objectList.size());
+    for (final T o : objectList)
+    {
+      ensureNotNull(o);
+
+      final ObjectPair<List<Modification>,Map<String,Attribute>>
+           modsAndValues = computeModifications(o, deleteNullValues);
+      modsAndValuesList.add(modsAndValues);
+      if (modsAndValues.getFirst().isEmpty())
+      {
+        requests.add(null);
+        continue;
+      }
+
+      final String dn = handler.getEntryDN(o);
+      if (dn == null)
+      {
+        throw new LDAPPersistException(ERR_PERSISTER_MODIFY_NO_DN.get());
+      }
+
+      final ModifyRequest modifyRequest =
+           new ModifyRequest(dn, modsAndValues.getFirst());
+      if (controls != null)
+      {
+        modifyRequest.setControls(controls);
+      }
+      requests.add(modifyRequest);
+    }
+
+    final List<LDAPResult> results =
+         processAsync(pool, requests, maxOutstandingRequests);
+    for (int i=0; i < results.size(); i++)
+    {
+      final LDAPResult result = results.get(i);
+      final ObjectPair<List<Modification>,Map<String,Attribute>>
+           modsAndValues = modsAndValuesList.get(i);
+      if ((result != null) &&
+          (result.getResultCode() == ResultCode.SUCCESS) &&
+          (modsAndValues.getSecond() != null))
+      {
+        updateSnapshot(objectList.get(i), modsAndValues.getFirst(),
+             modsAndValues.getSecond());
+      }
+    }
+
+    return results;
+  }
+
+
+
+  /**
+   * Sends the provided requests asynchronously over a single connection
+   * checked out from the given pool, and waits for the results.
+   *
+   * @param  pool                    The connection pool from which to obtain
+   *                                 the connection to use.
+   * @param  requests                The add or modify requests to be sent.  It
+   *                                 may contain {@code null} elements for
+   *                                 requests that should not be sent.
+   * @param  maxOutstandingRequests  The maximum number of requests that may be
+   *                                 outstanding at any time.
+   *
+   * @return  A list of the results of processing the requests, in the same
+   *          order as the requests.  It will contain a {@code null} element
+   *          for each {@code null} request.
+   *
+   * @throws  LDAPPersistException  If a problem occurs while obtaining a
+   *                                connection from the pool, or if the thread
+   *                                is interrupted while waiting for results.
+   */
+  private static List<LDAPResult> processAsync(final LDAPConnectionPool pool,
+                       final List<UpdatableLDAPRequest> requests,
+                       final int maxOutstandingRequests)
+          throws LDAPPersistException
+  {
+    final LDAPConnection conn;
+    try
+    {
+      conn = pool.getConnection();
+    }
+    catch (final LDAPException le)
+    {
+      debugException(le);
+      throw new LDAPPersistException(le);
+    }
+
+    final LDAPResult[] results = new LDAPResult[requests.size()];
+    final AsyncRequestID[] requestIDs = new AsyncRequestID[requests.size()];
+    final LinkedList<Integer> outstanding = new LinkedList<Integer>();
+    LDAPResult sendFailureResult = null;
+    boolean connectionValid = true;
+    try
+    {
+      for (int i=0; i < requests.size(); i++)
+      {
+        final UpdatableLDAPRequest r = requests.get(i);
+        if (r == null)
+        {
+          continue;
+        }
+
+        // If a request could not be sent, then don't try to send any more,
+        // but use the same failure result for all of them.
+        if (sendFailureResult != null)
+        {
+          results[i] = sendFailureResult;
+          continue;
+        }
+
+        if (outstanding.size() >= maxOutstandingRequests)
+        {
+          final int j = outstanding.removeFirst();
+          results[j] = requestIDs[j].get();
+        }
+
+        try
+        {
+          if (r instanceof AddRequest)
+          {
+            requestIDs[i] = conn.asyncAdd((AddRequest) r, null);
+          }
+          else
+          {
+            requestIDs[i] = conn.asyncModify((ModifyRequest) r, null);
+          }
+          outstanding.add(i);
+        }
+        catch (final LDAPException le)
+        {
+          debugException(le);
+          connectionValid = false;
+          sendFailureResult = le.toLDAPResult();
+          results[i] = sendFailureResult;
+        }
+      }
+
+      while (! outstanding.isEmpty())
+      {
+        final int j = outstanding.removeFirst();
+        results[j] = requestIDs[j].get();
+      }
+    }
+    catch (final InterruptedException ie)
+    {
+      debugException(ie);
+      Thread.currentThread().interrupt();
+      connectionValid = false;
+      throw new LDAPPersistException(ERR_PERSISTER_ASYNC_INTERRUPTED.get(),
+           ie);
+    }
+    finally
+    {
+      if (connectionValid && conn.isConnected())
+      {
+        pool.releaseConnection(conn);
+      }
+      else
+      {
+        pool.releaseDefunctConnection(conn);
+      }
+    }
+
+    return Collections.unmodifiableList(Arrays.asList(results));
+  }
+
+
+
   /**
    * Attempts to perform a simple bind as the user specified by the given object
    * on the provided connection.  The object should represent some kind of entry
@@ -1086,6 +1571,20 @@ public final class LDAPPersister<T>
       throw new LDAPPersistException(concatenateStrings(failureReasons), o,
            null);
     }
+
+    // If the object is being tracked, then its snapshot should reflect the
+    // values that were just loaded so that they won't be seen as changes.
+    if (getSnapshot(o) != null)
+    {
+      final ArrayList<String> names = new ArrayList<String>(attrs.length);
+      for (final String attr : attrs)
+      {
+        names.add(toLowerCase(attr));
+      }
+
+      modificationTracker.updateSnapshot(o, names,
+           handler.encodeModifiableAttributes(o, true));
+    }
   }
 
 
@@ -1227,6 +1726,81 @@ public final class LDAPPersister<T>
                                     final Filter extraFilter,
                                     final Control... controls)
          throws LDAPPersistException
+  {
+    return search(o, c, baseDN, scope, derefPolicy, sizeLimit, timeLimit,
+         extraFilter, 0, controls);
+  }
+
+
+
+  /**
+   * Performs a search in the directory for objects matching the contents of
+   * the provided object.  A search filter will be generated from the provided
+   * object containing all non-{@code null} values from fields and getter
+   * methods whose {@link LDAPField} or {@link LDAPGetter} annotation has
+   * the {@code inFilter} element set to {@code true}.
+   * <BR><BR>
+   * Note that this method requires an {@link LDAPConnection} argument rather
+   * than using the more generic {@link LDAPInterface} type because the search
+   * is invoked as an asynchronous operation, which is not supported by the
+   * generic {@code LDAPInterface} interface.  It also means that the provided
+   * connection must not be configured to operate in synchronous mode (via the
+   * {@link com.unboundid.ldap.sdk.LDAPConnectionOptions#setUseSynchronousMode}
+   * option).
+   * <BR><BR>
+   * If the number of decode threads is greater than zero, then entries will be
+   * read and decoded as objects in parallel in the background, ahead of the
+   * calls to the {@link PersistedObjects#next} method, which may help if
+   * decoding is a bottleneck when retrieving a large number of objects.  The
+   * objects will still be returned in the order that the server returned the
+   * entries.
+   *
+   * @param  o                 The object to use to construct the search
+   *                           filter.  It must not be {@code null}.
+   * @param  c                 The connection to use to communicate with the
+   *                           directory server.  It must not be {@code null}.
+   * @param  baseDN            The base DN to use for the search.  It may be
+   *                           {@code null} if the
+   *                           {@link LDAPObject#defaultParentDN} element in the
+   *                           {@code LDAPObject} should be used as the base DN.
+   * @param  scope             The scope to use for the search operation.  It
+   *                           must not be {@code null}.
+   * @param  derefPolicy       The dereference policy to use for the search
+   *                           operation.  It must not be {@code null}.
+   * @param  sizeLimit         The maximum number of entries to retrieve from
+   *                           the directory.  A value of zero indicates that no
+   *                           client-requested size limit should be enforced.
+   * @param  timeLimit         The maximum length of time in seconds that the
+   *                           server should spend processing the search.  A
+   *                           value of zero indicates that no client-requested
+   *                           time limit should be enforced.
+   * @param  extraFilter       An optional additional filter to be ANDed with
+   *                           the filter generated from the provided object.
+   *                           If this is {@code null}, then only the filter
+   *                           generated from the object will be used.
+   * @param  numDecodeThreads  The number of threads to use to decode entries
+   *                           as objects.  If this is zero, then each entry
+   *                           will be read and decoded by the thread that
+   *                           calls the {@link PersistedObjects#next} method.
+   * @param  controls          An optional set of controls to include in the
+   *                           search request.  It may be empty or {@code null}
+   *                           if no controls are needed.
+   *
+   * @return  A results object that may be used to iterate through the objects
+   *          returned from the search.
+   *
+   * @throws  LDAPPersistException  If an error occurs while preparing or
+   *                                sending the search request.
+   */
+  public PersistedObjects<T> search(final T o, final LDAPConnection c,
+                                    final String baseDN,
+                                    final SearchScope scope,
+                                    final DereferencePolicy derefPolicy,
+                                    final int sizeLimit, final int timeLimit,
+                                    final Filter extraFilter,
+                                    final int numDecodeThreads,
+                                    final Control... controls)
+         throws LDAPPersistException
   {
     ensureNotNull(o, c, scope, derefPolicy);
 
@@ -1269,7 +1843,7 @@ public final class LDAPPersister<T>
       throw new LDAPPersistException(le);
     }
 
-    return new PersistedObjects<T>(this, entrySource);
+    return new PersistedObjects<T>(this, entrySource, numDecodeThreads);
   }
 
 
@@ -1482,6 +2056,65 @@ public final class LDAPPersister<T>
                                     final Filter filter,
                                     final Control... controls)
          throws LDAPPersistException
+  {
+    return search(c, baseDN, scope, derefPolicy, sizeLimit, timeLimit, filter,
+         0, controls);
+  }
+
+
+
+  /**
+   * Performs a search in the directory using the provided search criteria and
+   * decodes all entries returned as objects of the associated type.  If the
+   * number of decode threads is greater than zero, then entries will be read
+   * and decoded as objects in parallel in the background, ahead of the calls
+   * to the {@link PersistedObjects#next} method, which may help if decoding is
+   * a bottleneck when retrieving a large number of objects.  The objects will
+   * still be returned in the order that the server returned the entries.
+   *
+   * @param  c                 The connection to use to communicate with the
+   *                           directory server.  It must not be {@code null}.
+   * @param  baseDN            The base DN to use for the search.  It may be
+   *                           {@code null} if the
+   *                           {@link LDAPObject#defaultParentDN} element in the
+   *                           {@code LDAPObject} should be used as the base DN.
+   * @param  scope             The scope to use for the search operation.  It
+   *                           must not be {@code null}.
+   * @param  derefPolicy       The dereference policy to use for the search
+   *                           operation.  It must not be {@code null}.
+   * @param  sizeLimit         The maximum number of entries to retrieve from
+   *                           the directory.  A value of zero indicates that no
+   *                           client-requested size limit should be enforced.
+   * @param  timeLimit         The maximum length of time in seconds that the
+   *                           server should spend processing the search.  A
+   *                           value of zero indicates that no client-requested
+   *                           time limit should be enforced.
+   * @param  filter            The filter to use for the search.  It must not
+   *                           be {@code null}.  It will automatically be ANDed
+   *                           with a filter that will match entries with the
+   *                           structural and auxiliary classes.
+   * @param  numDecodeThreads  The number of threads to use to decode entries
+   *                           as objects.  If this is zero, then each entry
+   *                           will be read and decoded by the thread that
+   *                           calls the {@link PersistedObjects#next} method.
+   * @param  controls          An optional set of controls to include in the
+   *                           search request.  It may be empty or {@code null}
+   *                           if no controls are needed.
+   *
+   * @return  A results object that may be used to iterate through the objects
+   *          returned from the search.
+   *
+   * @throws  LDAPPersistException  If an error occurs while preparing or
+   *                                sending the search request.
+   */
+  public PersistedObjects<T> search(final LDAPConnection c, final String baseDN,
+                                    final SearchScope scope,
+                                    final DereferencePolicy derefPolicy,
+                                    final int sizeLimit, final int timeLimit,
+                                    final Filter filter,
+                                    final int numDecodeThreads,
+                                    final Control... controls)
+         throws LDAPPersistException
   {
     ensureNotNull(c, scope, derefPolicy, filter);
 
@@ -1516,7 +2149,7 @@ public final class LDAPPersister<T>
       throw new LDAPPersistException(le);
     }
 
-    return new PersistedObjects<T>(this, entrySource);
+    return new PersistedObjects<T>(this, entrySource, numDecodeThreads);
   }
 
 
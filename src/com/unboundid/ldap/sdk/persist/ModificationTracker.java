@@ -0,0 +1,346 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.persist;
+
+
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.unboundid.ldap.sdk.Attribute;
+import com.unboundid.ldap.sdk.Modification;
+import com.unboundid.ldap.sdk.ModificationType;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+import static com.unboundid.util.StaticUtils.*;
+
+
+
+/**
+ * This class provides a mechanism for keeping track of the encoded values of
+ * the modifiable attributes of objects as they were when those objects were
+ * last read from or written to the directory, so that only the attributes
+ * whose values have changed since then need to be included in a modify
+ * request.  Objects are referenced by identity rather than equality, and only
+ * weakly, so that tracking an object will not prevent it from being garbage
+ * collected.
+ * <BR><BR>
+ * In each snapshot, the keys are the lowercase names of the attributes and the
+ * values are the encoded attributes.  Attributes whose fields or getter
+ * methods had a value of {@code null} are not included.
+ */
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+final class ModificationTracker
+{
+  // The map of snapshots for the objects being tracked.
+  private final HashMap<ObjectReference,Map<String,Attribute>> snapshots;
+
+  // The queue that will be notified when tracked objects have been garbage
+  // collected.
+  private final ReferenceQueue<Object> referenceQueue;
+
+
+
+  /**
+   * Creates a new, empty modification tracker.
+   */
+  ModificationTracker()
+  {
+    snapshots      = new HashMap<ObjectReference,Map<String,Attribute>>(100);
+    referenceQueue = new ReferenceQueue<Object>();
+  }
+
+
+
+  /**
+   * Retrieves the snapshot of the encoded attribute values for the provided
+   * object.
+   *
+   * @param  o  The object for which to retrieve the snapshot.
+   *
+   * @return  An unmodifiable map containing the snapshot for the provided
+   *          object, or {@code null} if the object is not being tracked.
+   */
+  synchronized Map<String,Attribute> getSnapshot(final Object o)
+  {
+    expungeStaleReferences();
+    return snapshots.get(new ObjectReference(o, null));
+  }
+
+
+
+  /**
+   * Records a new snapshot of the encoded attribute values for the provided
+   * object, replacing any existing snapshot.
+   *
+   * @param  o           The object for which to record the snapshot.
+   * @param  attributes  The encoded attribute values for the object, keyed on
+   *                     the lowercase attribute name.
+   */
+  synchronized void setSnapshot(final Object o,
+                                final Map<String,Attribute> attributes)
+  {
+    expungeStaleReferences();
+    snapshots.put(new ObjectReference(o, referenceQueue),
+         Collections.unmodifiableMap(
+              new HashMap<String,Attribute>(attributes)));
+  }
+
+
+
+  /**
+   * Updates the snapshot for the provided object so that the specified
+   * attributes will have the given values.  This will have no effect if the
+   * object is not being tracked.
+   *
+   * @param  o           The object for which to update the snapshot.
+   * @param  names       The lowercase names of the attributes to update.
+   * @param  attributes  The encoded attribute values for the object, keyed on
+   *                     the lowercase attribute name.  Any of the specified
+   *                     attributes that are not included in this map will be
+   *                     removed from the snapshot.
+   */
+  synchronized void updateSnapshot(final Object o,
+                                   final Collection<String> names,
+                                   final Map<String,Attribute> attributes)
+  {
+    expungeStaleReferences();
+
+    final ObjectReference ref = new ObjectReference(o, null);
+    final Map<String,Attribute> existingSnapshot = snapshots.get(ref);
+    if (existingSnapshot == null)
+    {
+      return;
+    }
+
+    final HashMap<String,Attribute> newSnapshot =
+         new HashMap<String,Attribute>(existingSnapshot);
+    for (final String name : names)
+    {
+      final Attribute a = attributes.get(name);
+      if (a == null)
+      {
+        newSnapshot.remove(name);
+      }
+      else
+      {
+        newSnapshot.put(name, a);
+      }
+    }
+
+    // Remove the existing mapping before adding the new one so that the new
+    // one will use a reference that is registered with the reference queue.
+    snapshots.remove(ref);
+    snapshots.put(new ObjectReference(o, referenceQueue),
+         Collections.unmodifiableMap(newSnapshot));
+  }
+
+
+
+  /**
+   * Stops tracking the provided object.
+   *
+   * @param  o  The object that should no longer be tracked.
+   */
+  synchronized void removeSnapshot(final Object o)
+  {
+    expungeStaleReferences();
+    snapshots.remove(new ObjectReference(o, null));
+  }
+
+
+
+  /**
+   * Retrieves the number of objects currently being tracked.  Objects that
+   * have been garbage collected but not yet removed may be included in the
+   * count.
+   *
+   * @return  The number of objects currently being tracked.
+   */
+  synchronized int size()
+  {
+    expungeStaleReferences();
+    return snapshots.size();
+  }
+
+
+
+  /**
+   * Removes the snapshots for any objects that have been garbage collected.
+   */
+  private void expungeStaleReferences()
+  {
+    while (true)
+    {
+      final Object ref = referenceQueue.poll();
+      if (ref == null)
+      {
+        return;
+      }
+
+      snapshots.remove(ref);
+    }
+  }
+
+
+
+  /**
+   * Computes the modifications needed to bring an entry whose attribute values
+   * match the provided snapshot up to date with the current values.
+   *
+   * @param  snapshot          The encoded attribute values from the snapshot.
+   * @param  current           The current encoded attribute values.
+   * @param  deleteNullValues  Indicates whether to include modifications that
+   *                           may completely remove an attribute from the
+   *                           entry if it is included in the snapshot but not
+   *                           in the current values.
+   * @param  attributes        The set of LDAP attributes for which to include
+   *                           modifications.  If this is empty or
+   *                           {@code null}, then all attributes will be
+   *                           examined.
+   *
+   * @return  The modifications needed to bring the entry up to date.  It may
+   *          be empty if there are no differences in the attributes to be
+   *          evaluated.
+   */
+  static List<Modification> getModifications(
+              final Map<String,Attribute> snapshot,
+              final Map<String,Attribute> current,
+              final boolean deleteNullValues, final String... attributes)
+  {
+    final Set<String> names;
+    if ((attributes == null) || (attributes.length == 0))
+    {
+      names = new LinkedHashSet<String>(current.keySet());
+      names.addAll(snapshot.keySet());
+    }
+    else
+    {
+      names = new LinkedHashSet<String>(attributes.length);
+      for (final String s : attributes)
+      {
+        names.add(toLowerCase(s));
+      }
+    }
+
+    final ArrayList<Modification> mods = new ArrayList<Modification>(5);
+    for (final String name : names)
+    {
+      final Attribute currentAttr = current.get(name);
+      final Attribute snapshotAttr = snapshot.get(name);
+      if (currentAttr == null)
+      {
+        if (deleteNullValues && (snapshotAttr != null))
+        {
+          mods.add(new Modification(ModificationType.REPLACE,
+               snapshotAttr.getName()));
+        }
+      }
+      else if ((snapshotAttr == null) || (! snapshotAttr.equals(currentAttr)))
+      {
+        mods.add(new Modification(ModificationType.REPLACE,
+             currentAttr.getName(), currentAttr.getRawValues()));
+      }
+    }
+
+    return Collections.unmodifiableList(mods);
+  }
+
+
+
+  /**
+   * This class provides a weak reference to an object that uses the identity
+   * of that object for the purposes of hashing and equality.
+   */
+  private static final class ObjectReference
+          extends WeakReference<Object>
+  {
+    // The identity hash code of the referenced object.
+    private final int hashCode;
+
+
+
+    /**
+     * Creates a new reference to the provided object.
+     *
+     * @param  o      The object to reference.
+     * @param  queue  The queue with which the reference should be registered.
+     *                It may be {@code null} if the reference will only be
+     *                used to look up an existing mapping.
+     */
+    private ObjectReference(final Object o, final ReferenceQueue<Object> queue)
+    {
+      super(o, queue);
+      hashCode = System.identityHashCode(o);
+    }
+
+
+
+    /**
+     * Retrieves a hash code for this reference.
+     *
+     * @return  A hash code for this reference.
+     */
+    @Override()
+    public int hashCode()
+    {
+      return hashCode;
+    }
+
+
+
+    /**
+     * Indicates whether the provided object is a reference to the same object
+     * as this reference.  A reference whose object has been garbage collected
+     * is only equal to itself.
+     *
+     * @param  o  The object for which to make the determination.
+     *
+     * @return  {@code true} if the provided object is a reference to the same
+     *          object as this reference, or {@code false} if not.
+     */
+    @Override()
+    public boolean equals(final Object o)
+    {
+      if (o == this)
+      {
+        return true;
+      }
+
+      if (! (o instanceof ObjectReference))
+      {
+        return false;
+      }
+
+      final Object referent = get();
+      return ((referent != null) && (referent == ((ObjectReference) o).get()));
+    }
+  }
+}
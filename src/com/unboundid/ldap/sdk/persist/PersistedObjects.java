@@ -24,14 +24,24 @@ package com.unboundid.ldap.sdk.persist;
 
 import java.io.Closeable;
 import java.io.Serializable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.unboundid.ldap.sdk.Entry;
 import com.unboundid.ldap.sdk.EntrySource;
+import com.unboundid.ldap.sdk.EntrySourceException;
 import com.unboundid.ldap.sdk.LDAPEntrySource;
 import com.unboundid.ldap.sdk.LDAPException;
 import com.unboundid.ldap.sdk.SearchResult;
+import com.unboundid.util.LDAPSDKThreadFactory;
 import com.unboundid.util.ThreadSafety;
 import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.parallel.AsynchronousParallelProcessor;
+import com.unboundid.util.parallel.ParallelProcessor;
+import com.unboundid.util.parallel.Processor;
+import com.unboundid.util.parallel.Result;
 
 import static com.unboundid.ldap.sdk.persist.PersistMessages.*;
 import static com.unboundid.util.Debug.*;
@@ -56,6 +66,13 @@ import static com.unboundid.util.StaticUtils.*;
  *   <LI>If you wish to stop iterating through the results before all of them
  *       have been retrieved, then you must call the {@link #close} method
  * </UL>
+ * If the search was invoked with a number of decode threads greater than zero,
+ * then entries will be read from the server by a background thread and decoded
+ * as objects in parallel by a pool of threads, ahead of the calls to the
+ * {@link #next} method.  Objects will still be returned in the order that the
+ * entries were returned by the server, and a bounded number of entries will be
+ * read ahead, so that a caller that stops retrieving objects will also stop
+ * entries from being read from the server.
  *
  * @param  <T>  The type of object handled by this class.
  */
@@ -63,6 +80,31 @@ import static com.unboundid.util.StaticUtils.*;
 public final class PersistedObjects<T>
        implements Serializable, Closeable
 {
+  /**
+   * When decoding in parallel, this determines how many of the allocated
+   * decode threads are used to decode each batch of entries that have been
+   * read.
+   */
+  private static final int ASYNC_MIN_PER_DECODE_THREAD = 3;
+
+
+
+  /**
+   * When decoding in parallel, this specifies the size of the queues of
+   * entries waiting to be decoded and of decoded objects.
+   */
+  private static final int ASYNC_QUEUE_SIZE = 500;
+
+
+
+  /**
+   * An entry that is used to mark the end of the search results when decoding
+   * in parallel.
+   */
+  private static final Entry END_OF_RESULTS = new Entry("");
+
+
+
   /**
    * The serial version UID for this serializable class.
    */
@@ -70,6 +112,13 @@ public final class PersistedObjects<T>
 
 
 
+  // Indicates whether all of the search results have been read and decoded,
+  // when decoding in parallel.
+  private final AtomicBoolean asyncDecodingComplete;
+
+  // The queue that holds the objects decoded in parallel.
+  private final BlockingQueue<Result<Object,T>> asyncDecodedObjects;
+
   // The LDAP entry source that will be used to read matching entries.
   private final EntrySource entrySource;
 
@@ -90,9 +139,60 @@ public final class PersistedObjects<T>
    */
   PersistedObjects(final LDAPPersister<T> persister,
                    final EntrySource entrySource)
+  {
+    this(persister, entrySource, 0);
+  }
+
+
+
+  /**
+   * Creates a new {@code PersistedObjects} object that will read entries from
+   * the provided entry source.
+   *
+   * @param  persister         The persister that will be used to decode
+   *                           entries that are returned.
+   * @param  entrySource       The entry source that will be used to read
+   *                           entries returned from the search.
+   * @param  numDecodeThreads  The number of threads to use to decode entries
+   *                           in parallel.  If this is zero, then entries will
+   *                           be read and decoded by the thread that calls the
+   *                           {@link #next} method.
+   */
+  PersistedObjects(final LDAPPersister<T> persister,
+                   final EntrySource entrySource, final int numDecodeThreads)
   {
     this.persister   = persister;
     this.entrySource = entrySource;
+
+    if (numDecodeThreads <= 0)
+    {
+      asyncDecodingComplete = null;
+      asyncDecodedObjects   = null;
+    }
+    else
+    {
+      asyncDecodingComplete = new AtomicBoolean(false);
+
+      final LDAPSDKThreadFactory threadFactory =
+           new LDAPSDKThreadFactory("PersistedObjects Decoder", true, null);
+      final ParallelProcessor<Object,T> parallelDecoder =
+           new ParallelProcessor<Object,T>(new EntryDecoder(), threadFactory,
+                numDecodeThreads, ASYNC_MIN_PER_DECODE_THREAD);
+
+      // As with the LDIF reader, the output queue is a little more than twice
+      // as big as the input queue so that the reader thread can finish if this
+      // is closed while both queues are full.
+      asyncDecodedObjects = new ArrayBlockingQueue<Result<Object,T>>(
+           2 * ASYNC_QUEUE_SIZE + 100);
+      final AsynchronousParallelProcessor<Object,T> asyncDecoder =
+           new AsynchronousParallelProcessor<Object,T>(
+                new ArrayBlockingQueue<Object>(ASYNC_QUEUE_SIZE),
+                parallelDecoder, asyncDecodedObjects);
+
+      final EntryReaderThread readerThread =
+           new EntryReaderThread(asyncDecoder);
+      readerThread.start();
+    }
   }
 
 
@@ -112,6 +212,11 @@ public final class PersistedObjects<T>
   public T next()
          throws LDAPPersistException
   {
+    if (asyncDecodedObjects != null)
+    {
+      return nextAsync();
+    }
+
     final Entry entry;
     try
     {
@@ -120,27 +225,111 @@ public final class PersistedObjects<T>
     catch (final Exception e)
     {
       debugException(e);
+      throw toPersistException(e);
+    }
+
+    if (entry == null)
+    {
+      return null;
+    }
+    else
+    {
+      return persister.decode(entry);
+    }
+  }
+
 
-      final Throwable cause = e.getCause();
-      if ((cause != null) && (cause instanceof LDAPException))
+
+  /**
+   * Retrieves the next object that has been decoded in parallel, waiting for
+   * it to become available if necessary.
+   *
+   * @return  The next object returned from the search request, or {@code null}
+   *          if all objects have been read.
+   *
+   * @throws  LDAPPersistException  If a problem occurs while reading the next
+   *                                entry from the server, or when trying to
+   *                                decode that entry as an object.
+   */
+  private T nextAsync()
+          throws LDAPPersistException
+  {
+    Result<Object,T> result = null;
+    try
+    {
+      // As with the LDIF reader, poll rather than blocking indefinitely so
+      // that this can't hang if decoding is completed without enqueuing the
+      // end-of-results marker (e.g., because this object was closed).
+      while ((result == null) && (! asyncDecodingComplete.get()))
       {
-        throw new LDAPPersistException((LDAPException) cause);
+        result = asyncDecodedObjects.poll(1L, TimeUnit.SECONDS);
       }
-      else
+
+      if (result == null)
       {
-        throw new LDAPPersistException(
-             ERR_OBJECT_SEARCH_RESULTS_ENTRY_SOURCE_EXCEPTION.get(
-                  getExceptionMessage(e)), e);
+        result = asyncDecodedObjects.poll();
       }
     }
+    catch (final InterruptedException ie)
+    {
+      debugException(ie);
+      Thread.currentThread().interrupt();
+      throw new LDAPPersistException(
+           ERR_OBJECT_SEARCH_RESULTS_INTERRUPTED.get(), ie);
+    }
 
-    if (entry == null)
+    if (result == null)
+    {
+      return null;
+    }
+
+    if (result.getInput() == END_OF_RESULTS)
     {
+      // Put the marker back so that subsequent calls will also return null.
+      asyncDecodingComplete.set(true);
+      asyncDecodedObjects.offer(result);
       return null;
     }
+
+    final Throwable t = result.getFailureCause();
+    if (t == null)
+    {
+      return result.getOutput();
+    }
+    else if (t instanceof LDAPPersistException)
+    {
+      throw (LDAPPersistException) t;
+    }
     else
     {
-      return persister.decode(entry);
+      throw new LDAPPersistException(
+           ERR_OBJECT_SEARCH_RESULTS_DECODE_FAILURE.get(
+                getExceptionMessage(t)), t);
+    }
+  }
+
+
+
+  /**
+   * Creates an exception that may be thrown for a problem encountered while
+   * reading from the entry source.
+   *
+   * @param  e  The exception that was caught.
+   *
+   * @return  The exception that should be thrown.
+   */
+  private static LDAPPersistException toPersistException(final Exception e)
+  {
+    final Throwable cause = e.getCause();
+    if ((cause != null) && (cause instanceof LDAPException))
+    {
+      return new LDAPPersistException((LDAPException) cause);
+    }
+    else
+    {
+      return new LDAPPersistException(
+           ERR_OBJECT_SEARCH_RESULTS_ENTRY_SOURCE_EXCEPTION.get(
+                getExceptionMessage(e)), e);
     }
   }
 
@@ -157,6 +346,15 @@ public final class PersistedObjects<T>
   public void close()
   {
     entrySource.close();
+
+    if (asyncDecodedObjects != null)
+    {
+      // Closing the entry source will cause the reader thread to complete,
+      // but not if it's blocked waiting for space in the queues, so clear out
+      // the output queue to ensure that it can finish.
+      asyncDecodingComplete.set(true);
+      asyncDecodedObjects.clear();
+    }
   }
 
 
@@ -181,4 +379,144 @@ public final class PersistedObjects<T>
       return null;
     }
   }
+
+
+
+  /**
+   * When decoding in parallel, this thread is responsible for reading entries
+   * from the entry source and submitting them to be decoded.
+   */
+  private final class EntryReaderThread
+          extends Thread
+  {
+    // The processor to which entries will be submitted.
+    private final AsynchronousParallelProcessor<Object,T> asyncDecoder;
+
+
+
+    /**
+     * Creates a new instance of this thread.
+     *
+     * @param  asyncDecoder  The processor to which entries will be submitted.
+     */
+    private EntryReaderThread(
+                 final AsynchronousParallelProcessor<Object,T> asyncDecoder)
+    {
+      super("PersistedObjects Entry Reader");
+      setDaemon(true);
+
+      this.asyncDecoder = asyncDecoder;
+    }
+
+
+
+    /**
+     * Reads entries from the entry source and submits them to be decoded until
+     * all entries have been read or the entry source is closed.  Any problem
+     * encountered while reading an entry will be submitted in place of that
+     * entry so that it is reported at the right point in the results.
+     */
+    @Override()
+    public void run()
+    {
+      try
+      {
+        boolean stopProcessing = false;
+        while (! stopProcessing)
+        {
+          // If this object has been closed, then stop without reading any
+          // entries that the entry source may already have queued up.
+          if (asyncDecodingComplete.get())
+          {
+            break;
+          }
+
+          Object next;
+          try
+          {
+            next = entrySource.nextEntry();
+            if (next == null)
+            {
+              next = END_OF_RESULTS;
+            }
+          }
+          catch (final Exception e)
+          {
+            debugException(e);
+            next = toPersistException(e);
+            stopProcessing = ((e instanceof EntrySourceException) &&
+                 (! ((EntrySourceException) e).mayContinueReading()));
+          }
+
+          try
+          {
+            asyncDecoder.submit(next);
+            if (stopProcessing && (next != END_OF_RESULTS))
+            {
+              asyncDecoder.submit(END_OF_RESULTS);
+            }
+          }
+          catch (final InterruptedException ie)
+          {
+            debugException(ie);
+            Thread.currentThread().interrupt();
+            stopProcessing = true;
+          }
+
+          if (next == END_OF_RESULTS)
+          {
+            stopProcessing = true;
+          }
+        }
+      }
+      finally
+      {
+        try
+        {
+          asyncDecoder.shutdown();
+        }
+        catch (final InterruptedException ie)
+        {
+          debugException(ie);
+          Thread.currentThread().interrupt();
+        }
+        finally
+        {
+          asyncDecodingComplete.set(true);
+        }
+      }
+    }
+  }
+
+
+
+  /**
+   * When decoding in parallel, this processor is responsible for decoding
+   * entries as objects.  Exceptions encountered while reading entries will be
+   * thrown so that they are reported to the caller.
+   */
+  private final class EntryDecoder
+          implements Processor<Object,T>
+  {
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    public T process(final Object input)
+           throws LDAPPersistException
+    {
+      if (input == END_OF_RESULTS)
+      {
+        return null;
+      }
+      else if (input instanceof LDAPPersistException)
+      {
+        throw (LDAPPersistException) input;
+      }
+      else
+      {
+        return persister.decode((Entry) input);
+      }
+    }
+  }
 }
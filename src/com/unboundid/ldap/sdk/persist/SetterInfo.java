@@ -79,6 +79,13 @@ public final class SetterInfo
   // The encoder used for this method.
   private final ObjectEncoder encoder;
 
+  // The index of this method in the codec, or -1 if the codec should not be
+  // used to invoke it.
+  private final int codecIndex;
+
+  // The codec that may be used to invoke the method without reflection.
+  private final LDAPObjectCodec<Object> codec;
+
   // The name of the associated attribute type.
   private final String attributeName;
 
@@ -95,6 +102,27 @@ public final class SetterInfo
    */
   SetterInfo(final Method m, final Class<?> c)
        throws LDAPPersistException
+  {
+    this(m, c, null);
+  }
+
+
+
+  /**
+   * Creates a new setter info object from the provided method.
+   *
+   * @param  m      The method to use to create this object.
+   * @param  c      The class which holds the method.
+   * @param  codec  The codec that may be used to invoke the method without
+   *                reflection.  It may be {@code null} if reflection should
+   *                always be used.
+   *
+   * @throws  LDAPPersistException  If a problem occurs while processing the
+   *                                given method.
+   */
+  @SuppressWarnings("unchecked")
+  SetterInfo(final Method m, final Class<?> c, final LDAPObjectCodec<?> codec)
+       throws LDAPPersistException
   {
     ensureNotNull(m, c);
 
@@ -174,6 +202,28 @@ public final class SetterInfo
     {
       attributeName = attrName;
     }
+
+    final int index;
+    if ((codec != null) &&
+        encoder.getClass().equals(DefaultObjectEncoder.class))
+    {
+      index = LDAPObjectCodec.indexOf(codec.getSetterNames(), m.getName());
+    }
+    else
+    {
+      index = -1;
+    }
+
+    if (index >= 0)
+    {
+      codecIndex = index;
+      this.codec = (LDAPObjectCodec<Object>) codec;
+    }
+    else
+    {
+      codecIndex = -1;
+      this.codec = null;
+    }
   }
 
 
@@ -301,7 +351,14 @@ public final class SetterInfo
     {
       try
       {
-        encoder.setNull(method, o);
+        if (codec == null)
+        {
+          encoder.setNull(method, o);
+        }
+        else
+        {
+          invokeCodecSetter(o, null);
+        }
       }
       catch (final LDAPPersistException lpe)
       {
@@ -322,7 +379,14 @@ public final class SetterInfo
 
     try
     {
-      encoder.invokeSetter(method, o, a);
+      if (codec == null)
+      {
+        encoder.invokeSetter(method, o, a);
+      }
+      else
+      {
+        invokeCodecSetter(o, a);
+      }
     }
     catch (final LDAPPersistException lpe)
     {
@@ -336,4 +400,32 @@ public final class SetterInfo
 
     return successful;
   }
+
+
+
+  /**
+   * Uses the codec to invoke the associated method on the given object.  Any
+   * unchecked exception thrown by the method will be wrapped in the same way as
+   * for a method invoked through reflection.
+   *
+   * @param  o  The object on which to invoke the method.
+   * @param  a  The attribute from which to obtain the value, or {@code null}
+   *            if the method should be invoked with a {@code null} value.
+   *
+   * @throws  LDAPPersistException  If a problem occurs while invoking the
+   *                                method.
+   */
+  private void invokeCodecSetter(final Object o, final Attribute a)
+          throws LDAPPersistException
+  {
+    try
+    {
+      codec.invokeSetter(o, codecIndex, a);
+    }
+    catch (final RuntimeException re)
+    {
+      debugException(re);
+      throw new LDAPPersistException(getExceptionMessage(re), re);
+    }
+  }
 }
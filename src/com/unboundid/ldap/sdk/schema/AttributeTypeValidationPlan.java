@@ -0,0 +1,426 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.schema;
+
+
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.unboundid.asn1.ASN1OctetString;
+import com.unboundid.ldap.matchingrules.MatchingRule;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+import static com.unboundid.util.Debug.*;
+
+
+
+/**
+ * This class provides a precomputed plan that the {@link EntryValidator} may
+ * use to validate the values of an attribute with a given name.  It holds the
+ * attribute type definition, the equality matching rule used to check value
+ * syntax, and the parsed constraints from any of the attribute type's
+ * extensions that restrict its values, so that none of them need to be
+ * looked up or parsed for each value.
+ */
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+final class AttributeTypeValidationPlan
+      implements Serializable
+{
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = -6184429096713536263L;
+
+
+
+  // The values allowed by the X-ALLOWED-VALUE extension, if present.
+  private final ASN1OctetString[] allowedValues;
+
+  // The definition for the attribute type, if it is defined in the schema.
+  private final AttributeTypeDefinition definition;
+
+  // The maximum number of values from the X-MAX-VALUE-COUNT extension, if
+  // present.
+  private final Integer maxValueCount;
+
+  // The maximum value length from the X-MAX-VALUE-LENGTH extension, if
+  // present.
+  private final Integer maxValueLength;
+
+  // The minimum number of values from the X-MIN-VALUE-COUNT extension, if
+  // present.
+  private final Integer minValueCount;
+
+  // The minimum value length from the X-MIN-VALUE-LENGTH extension, if
+  // present.
+  private final Integer minValueLength;
+
+  // The maximum integer value from the X-MAX-INT-VALUE extension, if present.
+  private final Long maxIntValue;
+
+  // The minimum integer value from the X-MIN-INT-VALUE extension, if present.
+  private final Long minIntValue;
+
+  // The equality matching rule for the attribute type.
+  private final MatchingRule matchingRule;
+
+  // The patterns from the X-VALUE-REGEX extension, if present.  Any patterns
+  // that could not be compiled will be omitted.
+  private final Pattern[] valuePatterns;
+
+
+
+  /**
+   * Creates a new validation plan for attributes with the provided name.
+   *
+   * @param  schema  The schema to use to create the plan.
+   * @param  name    The name or OID of the attribute type, without any
+   *                 attribute options.
+   */
+  AttributeTypeValidationPlan(final Schema schema, final String name)
+  {
+    definition = schema.getAttributeType(name);
+    if (definition == null)
+    {
+      matchingRule = MatchingRule.selectEqualityMatchingRule(name, schema);
+      allowedValues = null;
+      valuePatterns = null;
+      minValueLength = null;
+      maxValueLength = null;
+      minIntValue = null;
+      maxIntValue = null;
+      minValueCount = null;
+      maxValueCount = null;
+      return;
+    }
+
+    matchingRule = MatchingRule.selectEqualityMatchingRule(
+         definition.getNameOrOID(), schema);
+
+    final Map<String,String[]> extensions = definition.getExtensions();
+    final String[] allowedValueStrings = extensions.get("X-ALLOWED-VALUE");
+    if (allowedValueStrings == null)
+    {
+      allowedValues = null;
+    }
+    else
+    {
+      allowedValues = new ASN1OctetString[allowedValueStrings.length];
+      for (int i=0; i < allowedValueStrings.length; i++)
+      {
+        allowedValues[i] = new ASN1OctetString(allowedValueStrings[i]);
+      }
+    }
+
+    final String[] valueRegexes = extensions.get("X-VALUE-REGEX");
+    if (valueRegexes == null)
+    {
+      valuePatterns = null;
+    }
+    else
+    {
+      final ArrayList<Pattern> patternList =
+           new ArrayList<Pattern>(valueRegexes.length);
+      for (final String regex : valueRegexes)
+      {
+        try
+        {
+          patternList.add(Pattern.compile(regex));
+        }
+        catch (final Exception e)
+        {
+          debugException(e);
+        }
+      }
+
+      valuePatterns = new Pattern[patternList.size()];
+      patternList.toArray(valuePatterns);
+    }
+
+    final String[] minValueLengths = extensions.get("X-MIN-VALUE-LENGTH");
+    if (minValueLengths == null)
+    {
+      minValueLength = null;
+    }
+    else
+    {
+      int minLength = 0;
+      for (final String s : minValueLengths)
+      {
+        try
+        {
+          minLength = Math.max(minLength, Integer.parseInt(s));
+        }
+        catch (final Exception e)
+        {
+          debugException(e);
+        }
+      }
+      minValueLength = minLength;
+    }
+
+    final String[] maxValueLengths = extensions.get("X-MAX-VALUE-LENGTH");
+    if (maxValueLengths == null)
+    {
+      maxValueLength = null;
+    }
+    else
+    {
+      int maxLength = Integer.MAX_VALUE;
+      for (final String s : maxValueLengths)
+      {
+        try
+        {
+          maxLength = Math.min(maxLength, Integer.parseInt(s));
+        }
+        catch (final Exception e)
+        {
+          debugException(e);
+        }
+      }
+      maxValueLength = maxLength;
+    }
+
+    final String[] minIntValues = extensions.get("X-MIN-INT-VALUE");
+    if (minIntValues == null)
+    {
+      minIntValue = null;
+    }
+    else
+    {
+      long minAllowedValue = 0L;
+      for (final String s : minIntValues)
+      {
+        try
+        {
+          minAllowedValue = Math.max(minAllowedValue, Long.parseLong(s));
+        }
+        catch (final Exception e)
+        {
+          debugException(e);
+        }
+      }
+      minIntValue = minAllowedValue;
+    }
+
+    final String[] maxIntValues = extensions.get("X-MAX-INT-VALUE");
+    if (maxIntValues == null)
+    {
+      maxIntValue = null;
+    }
+    else
+    {
+      long maxAllowedValue = Long.MAX_VALUE;
+      for (final String s : maxIntValues)
+      {
+        try
+        {
+          maxAllowedValue = Math.min(maxAllowedValue, Long.parseLong(s));
+        }
+        catch (final Exception e)
+        {
+          debugException(e);
+        }
+      }
+      maxIntValue = maxAllowedValue;
+    }
+
+    final String[] minValueCounts = extensions.get("X-MIN-VALUE-COUNT");
+    if (minValueCounts == null)
+    {
+      minValueCount = null;
+    }
+    else
+    {
+      int minCount = 0;
+      for (final String s : minValueCounts)
+      {
+        try
+        {
+          minCount = Math.max(minCount, Integer.parseInt(s));
+        }
+        catch (final Exception e)
+        {
+          debugException(e);
+        }
+      }
+      minValueCount = minCount;
+    }
+
+    final String[] maxValueCounts = extensions.get("X-MAX-VALUE-COUNT");
+    if (maxValueCounts == null)
+    {
+      maxValueCount = null;
+    }
+    else
+    {
+      int maxCount = Integer.MAX_VALUE;
+      for (final String s : maxValueCounts)
+      {
+        try
+        {
+          maxCount = Math.min(maxCount, Integer.parseInt(s));
+        }
+        catch (final Exception e)
+        {
+          debugException(e);
+        }
+      }
+      maxValueCount = maxCount;
+    }
+  }
+
+
+
+  /**
+   * Retrieves the definition for the attribute type.
+   *
+   * @return  The definition for the attribute type, or {@code null} if it is
+   *          not defined in the schema.
+   */
+  AttributeTypeDefinition getDefinition()
+  {
+    return definition;
+  }
+
+
+
+  /**
+   * Retrieves the equality matching rule for the attribute type.
+   *
+   * @return  The equality matching rule for the attribute type.
+   */
+  MatchingRule getMatchingRule()
+  {
+    return matchingRule;
+  }
+
+
+
+  /**
+   * Retrieves the values allowed by the X-ALLOWED-VALUE extension.
+   *
+   * @return  The values allowed by the X-ALLOWED-VALUE extension, or
+   *          {@code null} if the extension is not present.
+   */
+  ASN1OctetString[] getAllowedValues()
+  {
+    return allowedValues;
+  }
+
+
+
+  /**
+   * Retrieves the compiled patterns from the X-VALUE-REGEX extension.
+   *
+   * @return  The compiled patterns from the X-VALUE-REGEX extension, or
+   *          {@code null} if the extension is not present.  It may be empty
+   *          if none of the patterns could be compiled.
+   */
+  Pattern[] getValuePatterns()
+  {
+    return valuePatterns;
+  }
+
+
+
+  /**
+   * Retrieves the minimum value length from the X-MIN-VALUE-LENGTH extension.
+   *
+   * @return  The minimum value length, or {@code null} if the extension is not
+   *          present.
+   */
+  Integer getMinValueLength()
+  {
+    return minValueLength;
+  }
+
+
+
+  /**
+   * Retrieves the maximum value length from the X-MAX-VALUE-LENGTH extension.
+   *
+   * @return  The maximum value length, or {@code null} if the extension is not
+   *          present.
+   */
+  Integer getMaxValueLength()
+  {
+    return maxValueLength;
+  }
+
+
+
+  /**
+   * Retrieves the minimum integer value from the X-MIN-INT-VALUE extension.
+   *
+   * @return  The minimum integer value, or {@code null} if the extension is
+   *          not present.
+   */
+  Long getMinIntValue()
+  {
+    return minIntValue;
+  }
+
+
+
+  /**
+   * Retrieves the maximum integer value from the X-MAX-INT-VALUE extension.
+   *
+   * @return  The maximum integer value, or {@code null} if the extension is
+   *          not present.
+   */
+  Long getMaxIntValue()
+  {
+    return maxIntValue;
+  }
+
+
+
+  /**
+   * Retrieves the minimum number of values from the X-MIN-VALUE-COUNT
+   * extension.
+   *
+   * @return  The minimum number of values, or {@code null} if the extension is
+   *          not present.
+   */
+  Integer getMinValueCount()
+  {
+    return minValueCount;
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of values from the X-MAX-VALUE-COUNT
+   * extension.
+   *
+   * @return  The maximum number of values, or {@code null} if the extension is
+   *          not present.
+   */
+  Integer getMaxValueCount()
+  {
+    return maxValueCount;
+  }
+}
@@ -24,6 +24,7 @@ package com.unboundid.ldap.sdk.schema;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -34,7 +35,6 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 
 import com.unboundid.asn1.ASN1OctetString;
@@ -99,6 +99,14 @@ import static com.unboundid.util.Validator.*;
  * in this class be used while any threads are running the {@code entryIsValid}
  * method because changing the configuration or attempting to retrieve retrieve
  * information may yield inaccurate or inconsistent results.
+ * <BR><BR>
+ * The schema processing needed to validate an entry depends only on the set of
+ * object classes it contains and on the names of its attributes, so the
+ * validator caches that work in a threadsafe manner.  Entries with the same
+ * combination of object classes and attributes as an earlier entry can be
+ * validated without repeating lookups for superior classes, DIT content rules,
+ * name forms, required and optional attribute sets, or extension-based value
+ * constraints.
  */
 @ThreadSafety(level=ThreadSafetyLevel.MOSTLY_THREADSAFE)
 public final class EntryValidator
@@ -111,6 +119,13 @@ public final class EntryValidator
 
 
 
+  /**
+   * The maximum number of validation plans of each type that will be cached.
+   */
+  private static final int MAX_CACHED_PLANS = 10000;
+
+
+
   // A count of the total number of entries examined.
   private final AtomicLong entriesExamined;
 
@@ -219,6 +234,16 @@ public final class EntryValidator
   // them.
   private final ConcurrentHashMap<String,AtomicLong> undefinedObjectClasses;
 
+  // The cached validation plans for attribute types, indexed by the name
+  // used to reference them.
+  private final ConcurrentHashMap<String,AttributeTypeValidationPlan>
+       attributeTypePlans;
+
+  // The cached validation plans for sets of object classes, indexed by the
+  // object class values used to reference them.
+  private final ConcurrentHashMap<List<String>,ObjectClassValidationPlan>
+       objectClassPlans;
+
   // The schema against which entries will be validated.
   private final Schema schema;
 
@@ -235,7 +260,32 @@ public final class EntryValidator
    */
   public EntryValidator(final Schema schema)
   {
-    this.schema = schema;
+    this(schema, new ConcurrentHashMap<String,AttributeTypeValidationPlan>(),
+         new ConcurrentHashMap<List<String>,ObjectClassValidationPlan>());
+  }
+
+
+
+  /**
+   * Creates a new entry validator that will validate entries according to the
+   * provided schema, using the provided maps to cache validation plans.
+   *
+   * @param  schema              The schema against which entries will be
+   *                             validated.
+   * @param  attributeTypePlans  The map used to cache the validation plans for
+   *                             attribute types.
+   * @param  objectClassPlans    The map used to cache the validation plans for
+   *                             sets of object classes.
+   */
+  private EntryValidator(final Schema schema,
+               final ConcurrentHashMap<String,AttributeTypeValidationPlan>
+                    attributeTypePlans,
+               final ConcurrentHashMap<List<String>,ObjectClassValidationPlan>
+                    objectClassPlans)
+  {
+    this.schema             = schema;
+    this.attributeTypePlans = attributeTypePlans;
+    this.objectClassPlans   = objectClassPlans;
 
     checkAttributeSyntax              = true;
     checkEntryMissingRDNValues        = true;
@@ -273,6 +323,44 @@ public final class EntryValidator
 
 
 
+  /**
+   * Creates a new entry validator with the same schema and configuration as
+   * this validator, but with its own set of counts.  The new validator will
+   * share the validation plans cached by this validator.  This may be used to
+   * give each of several threads its own validator so that they do not
+   * contend with each other when updating counts, with the counts from each of
+   * those validators combined with the {@link #mergeCounts} method when
+   * processing is complete.
+   * <BR><BR>
+   * Changes made to the configuration of either validator after this method
+   * is called will not be reflected in the other validator.
+   *
+   * @return  The new entry validator that was created.
+   */
+  public EntryValidator duplicate()
+  {
+    final EntryValidator v =
+         new EntryValidator(schema, attributeTypePlans, objectClassPlans);
+
+    v.checkAttributeSyntax              = checkAttributeSyntax;
+    v.checkEntryMissingRDNValues        = checkEntryMissingRDNValues;
+    v.checkMalformedDNs                 = checkMalformedDNs;
+    v.checkMissingAttributes            = checkMissingAttributes;
+    v.checkMissingSuperiorObjectClasses = checkMissingSuperiorObjectClasses;
+    v.checkNameForms                    = checkNameForms;
+    v.checkProhibitedAttributes         = checkProhibitedAttributes;
+    v.checkProhibitedObjectClasses      = checkProhibitedObjectClasses;
+    v.checkSingleValuedAttributes       = checkSingleValuedAttributes;
+    v.checkStructuralObjectClasses      = checkStructuralObjectClasses;
+    v.checkUndefinedAttributes          = checkUndefinedAttributes;
+    v.checkUndefinedObjectClasses       = checkUndefinedObjectClasses;
+    v.ignoreSyntaxViolationTypes        = ignoreSyntaxViolationTypes;
+
+    return v;
+  }
+
+
+
   /**
    * Indicates whether the entry validator should consider entries invalid if
    * they are missing attributes which are required by the object classes or
@@ -805,57 +893,47 @@ public final class EntryValidator
       }
     }
 
-    // Get the object class descriptions for the object classes in the entry.
-    final HashSet<ObjectClassDefinition> ocSet =
-         new HashSet<ObjectClassDefinition>();
-    final boolean missingOC =
-         (! getObjectClasses(entry, ocSet, invalidReasons));
+    // Get the validation plan for the entry's object classes, and report any
+    // problems with those object classes.
+    String[] ocValues = entry.getObjectClassValues();
+    if (ocValues == null)
+    {
+      ocValues = NO_STRINGS;
+    }
+
+    final ObjectClassValidationPlan plan = getObjectClassPlan(ocValues);
+    final boolean missingOC = (! checkObjectClasses(plan, invalidReasons));
     if (missingOC)
     {
       entryValid = false;
     }
 
-    // If the entry was not missing any object classes, then get the structural
-    // class for the entry and use it to get the associated DIT content rule and
-    // name form.
+    // If the entry was not missing any object classes, then check its
+    // structural class and use the associated DIT content rule and name form.
     DITContentRuleDefinition ditContentRule = null;
     NameFormDefinition nameForm = null;
     if (! missingOC)
     {
-      final AtomicReference<ObjectClassDefinition> ref =
-           new AtomicReference<ObjectClassDefinition>(null);
-      entryValid &= getStructuralClass(ocSet, ref, invalidReasons);
-      final ObjectClassDefinition structuralClass = ref.get();
-      if (structuralClass != null)
-      {
-        ditContentRule = schema.getDITContentRule(structuralClass.getOID());
-        nameForm =
-             schema.getNameFormByObjectClass(structuralClass.getNameOrOID());
-      }
+      entryValid &= checkStructuralClass(plan, invalidReasons);
+      ditContentRule = plan.getDITContentRule();
+      nameForm = plan.getNameForm();
     }
 
     // If we should check for missing required attributes, then do so.
-    HashSet<AttributeTypeDefinition> requiredAttrs = null;
-    if (checkMissingAttributes || checkProhibitedAttributes)
+    final Set<AttributeTypeDefinition> requiredAttrs =
+         plan.getRequiredAttributes(! missingOC);
+    if (checkMissingAttributes)
     {
-      requiredAttrs = getRequiredAttributes(ocSet, ditContentRule);
-      if (checkMissingAttributes)
-      {
-        entryValid &= checkForMissingAttributes(entry, rdn, requiredAttrs,
-                                                invalidReasons);
-      }
+      entryValid &= checkForMissingAttributes(entry, rdn, requiredAttrs,
+                                              invalidReasons);
     }
 
     // Iterate through all of the attributes in the entry.  Make sure that they
     // are all defined in the schema, that they are allowed to be present in the
     // entry, that their values conform to the associated syntax, and that any
     // single-valued attributes have only one value.
-    HashSet<AttributeTypeDefinition> optionalAttrs = null;
-    if (checkProhibitedAttributes)
-    {
-      optionalAttrs =
-           getOptionalAttributes(ocSet, ditContentRule, requiredAttrs);
-    }
+    final Set<AttributeTypeDefinition> optionalAttrs =
+         plan.getOptionalAttributes(! missingOC);
     for (final Attribute a : entry.getAttributes())
     {
       entryValid &=
@@ -866,8 +944,17 @@ public final class EntryValidator
     // auxiliary object classes are allowed.
     if (checkProhibitedObjectClasses && (ditContentRule != null))
     {
-      entryValid &=
-           checkAuxiliaryClasses(ocSet, ditContentRule, invalidReasons);
+      for (final ObjectClassDefinition d :
+           plan.getProhibitedAuxiliaryClasses())
+      {
+        entryValid = false;
+        updateCount(d.getNameOrOID(), prohibitedObjectClasses);
+        if (invalidReasons != null)
+        {
+          invalidReasons.add(
+               ERR_ENTRY_AUX_CLASS_NOT_ALLOWED.get(d.getNameOrOID()));
+        }
+      }
     }
 
     // Check the entry's RDN to ensure that all attributes are defined in the
@@ -875,7 +962,7 @@ public final class EntryValidator
     if (rdn != null)
     {
       entryValid &= checkRDN(rdn, entry, requiredAttrs, optionalAttrs, nameForm,
-                             invalidReasons);
+                             plan, invalidReasons);
     }
 
     if (! entryValid)
@@ -889,80 +976,74 @@ public final class EntryValidator
 
 
   /**
-   * Gets the object classes for the entry, including any that weren't
-   * explicitly included but should be because they were superior to classes
-   * that were included.
+   * Retrieves the validation plan for entries with the provided object class
+   * values, creating and caching it if necessary.
    *
-   * @param  entry           The entry to examine.
-   * @param  ocSet           The set into which the object class definitions
-   *                         should be placed.
-   * @param  invalidReasons  A list to which messages may be added which provide
-   *                         information about why the entry is invalid.  It may
-   *                         be {@code null} if this information is not needed.
+   * @param  ocValues  The object class values for the entry.
    *
-   * @return  {@code true} if the entry passed all validation processing
-   *          performed by this method, or {@code false} if there were any
-   *          failures.
+   * @return  The validation plan for entries with the provided object class
+   *          values.
    */
-  private boolean getObjectClasses(final Entry entry,
-                                   final HashSet<ObjectClassDefinition> ocSet,
-                                   final List<String> invalidReasons)
+  private ObjectClassValidationPlan getObjectClassPlan(final String[] ocValues)
   {
-    final String[] ocValues = entry.getObjectClassValues();
-    if ((ocValues == null) || (ocValues.length == 0))
+    final List<String> key = Arrays.asList(ocValues);
+    ObjectClassValidationPlan plan = objectClassPlans.get(key);
+    if (plan == null)
     {
-      noObjectClasses.incrementAndGet();
-      if (invalidReasons != null)
+      plan = new ObjectClassValidationPlan(schema, ocValues);
+      if (objectClassPlans.size() < MAX_CACHED_PLANS)
       {
-        invalidReasons.add(ERR_ENTRY_NO_OCS.get());
+        final ObjectClassValidationPlan existingPlan =
+             objectClassPlans.putIfAbsent(key, plan);
+        if (existingPlan != null)
+        {
+          plan = existingPlan;
+        }
       }
-      return false;
     }
 
-    boolean entryValid = true;
-    final HashSet<String> missingOCs = new HashSet<String>(ocValues.length);
-    for (final String ocName : entry.getObjectClassValues())
+    return plan;
+  }
+
+
+
+  /**
+   * Retrieves the validation plan for attributes with the provided name,
+   * creating and caching it if necessary.
+   *
+   * @param  name  The name or OID of the attribute type, without any
+   *               attribute options.
+   *
+   * @return  The validation plan for attributes with the provided name.
+   */
+  private AttributeTypeValidationPlan getAttributeTypePlan(final String name)
+  {
+    AttributeTypeValidationPlan plan = attributeTypePlans.get(name);
+    if (plan == null)
     {
-      final ObjectClassDefinition d = schema.getObjectClass(ocName);
-      if (d == null)
+      plan = new AttributeTypeValidationPlan(schema, name);
+      if (attributeTypePlans.size() < MAX_CACHED_PLANS)
       {
-        if (checkUndefinedObjectClasses)
+        final AttributeTypeValidationPlan existingPlan =
+             attributeTypePlans.putIfAbsent(name, plan);
+        if (existingPlan != null)
         {
-          entryValid = false;
-          missingOCs.add(toLowerCase(ocName));
-          updateCount(ocName, undefinedObjectClasses);
-          if (invalidReasons != null)
-          {
-            invalidReasons.add(ERR_ENTRY_UNDEFINED_OC.get(ocName));
-          }
+          plan = existingPlan;
         }
       }
-      else
-      {
-        ocSet.add(d);
-      }
     }
 
-    for (final ObjectClassDefinition d :
-         new HashSet<ObjectClassDefinition>(ocSet))
-    {
-      entryValid &= addSuperiorClasses(d, ocSet, missingOCs, invalidReasons);
-    }
-
-    return entryValid;
+    return plan;
   }
 
 
 
   /**
-   * Recursively adds the definition superior class for the provided object
-   * class definition to the provided set, if it is not already present.
+   * Reports any problems with the object classes for the entry, including any
+   * superior classes that weren't explicitly included but should have been.
    *
-   * @param  d               The object class definition to process.
-   * @param  ocSet           The set into which the object class definitions
-   *                         should be placed.
-   * @param  missingOCNames  The names of the object classes we already know are
-   *                         missing and therefore shouldn't be flagged again.
+   * @param  plan            The validation plan for the entry's object
+   *                         classes.
    * @param  invalidReasons  A list to which messages may be added which provide
    *                         information about why the entry is invalid.  It may
    *                         be {@code null} if this information is not needed.
@@ -971,53 +1052,59 @@ public final class EntryValidator
    *          performed by this method, or {@code false} if there were any
    *          failures.
    */
-  private boolean addSuperiorClasses(final ObjectClassDefinition d,
-                                     final HashSet<ObjectClassDefinition> ocSet,
-                                     final HashSet<String> missingOCNames,
+  private boolean checkObjectClasses(final ObjectClassValidationPlan plan,
                                      final List<String> invalidReasons)
   {
+    if (plan.getObjectClasses().isEmpty() &&
+        plan.getUndefinedClasses().isEmpty())
+    {
+      noObjectClasses.incrementAndGet();
+      if (invalidReasons != null)
+      {
+        invalidReasons.add(ERR_ENTRY_NO_OCS.get());
+      }
+      return false;
+    }
+
     boolean entryValid = true;
+    if (checkUndefinedObjectClasses)
+    {
+      for (final String ocName : plan.getUndefinedClasses())
+      {
+        entryValid = false;
+        updateCount(ocName, undefinedObjectClasses);
+        if (invalidReasons != null)
+        {
+          invalidReasons.add(ERR_ENTRY_UNDEFINED_OC.get(ocName));
+        }
+      }
+    }
 
-    for (final String ocName : d.getSuperiorClasses())
+    for (final ObjectClassValidationPlan.SuperiorClassProblem p :
+         plan.getSuperiorClassProblems())
     {
-      final ObjectClassDefinition supOC = schema.getObjectClass(ocName);
-      if (supOC == null)
+      if (p.isUndefined())
       {
         if (checkUndefinedObjectClasses)
         {
           entryValid = false;
-          final String lowerName = toLowerCase(ocName);
-          if (! missingOCNames.contains(lowerName))
+          updateCount(p.getSuperiorClassName(), undefinedObjectClasses);
+          if (invalidReasons != null)
           {
-            missingOCNames.add(lowerName);
-            updateCount(ocName, undefinedObjectClasses);
-            if (invalidReasons != null)
-            {
-              invalidReasons.add(ERR_ENTRY_UNDEFINED_SUP_OC.get(
-                   d.getNameOrOID(), ocName));
-            }
+            invalidReasons.add(ERR_ENTRY_UNDEFINED_SUP_OC.get(
+                 p.getClassName(), p.getSuperiorClassName()));
           }
         }
       }
-      else
+      else if (checkMissingSuperiorObjectClasses)
       {
-        if (! ocSet.contains(supOC))
+        entryValid = false;
+        missingSuperiorClasses.incrementAndGet();
+        if (invalidReasons != null)
         {
-          ocSet.add(supOC);
-          if (checkMissingSuperiorObjectClasses)
-          {
-            entryValid = false;
-            missingSuperiorClasses.incrementAndGet();
-            if (invalidReasons != null)
-            {
-              invalidReasons.add(ERR_ENTRY_MISSING_SUP_OC.get(
-                   supOC.getNameOrOID(), d.getNameOrOID()));
-            }
-          }
+          invalidReasons.add(ERR_ENTRY_MISSING_SUP_OC.get(
+               p.getSuperiorClassName(), p.getClassName()));
         }
-
-        entryValid &=
-             addSuperiorClasses(supOC, ocSet, missingOCNames, invalidReasons);
       }
     }
 
@@ -1027,64 +1114,39 @@ public final class EntryValidator
 
 
   /**
-   * Retrieves the structural object class from the set of provided object
-   * classes.
+   * Reports any problems with the entry's structural object class.
    *
-   * @param  ocSet            The set of object class definitions for the entry.
-   * @param  structuralClass  The reference that will be updated with the
-   *                          entry's structural object class.
-   * @param  invalidReasons   A list to which messages may be added which
-   *                          provide provide information about why the entry is
-   *                          invalid.  It may be {@code null} if this
-   *                          information is not needed.
+   * @param  plan            The validation plan for the entry's object
+   *                         classes.
+   * @param  invalidReasons  A list to which messages may be added which
+   *                         provide provide information about why the entry is
+   *                         invalid.  It may be {@code null} if this
+   *                         information is not needed.
    *
    * @return  {@code true} if the entry passes all validation checks performed
    *          by this method, or {@code false} if not.
    */
-  private boolean getStructuralClass(final HashSet<ObjectClassDefinition> ocSet,
-               final AtomicReference<ObjectClassDefinition> structuralClass,
-               final List<String> invalidReasons)
+  private boolean checkStructuralClass(final ObjectClassValidationPlan plan,
+                                       final List<String> invalidReasons)
   {
-    final HashSet<ObjectClassDefinition> ocCopy =
-         new HashSet<ObjectClassDefinition>(ocSet);
-    for (final ObjectClassDefinition d : ocSet)
-    {
-      final ObjectClassType t = d.getObjectClassType(schema);
-      if (t == ObjectClassType.STRUCTURAL)
-      {
-        ocCopy.removeAll(d.getSuperiorClasses(schema, true));
-      }
-      else if (t == ObjectClassType.AUXILIARY)
-      {
-        ocCopy.remove(d);
-        ocCopy.removeAll(d.getSuperiorClasses(schema, true));
-      }
-    }
-
-    // Iterate through the set of remaining classes and strip out any
-    // abstract classes.
     boolean entryValid = true;
-    Iterator<ObjectClassDefinition> iterator = ocCopy.iterator();
-    while (iterator.hasNext())
+    if (checkProhibitedObjectClasses)
     {
-      final ObjectClassDefinition d = iterator.next();
-      if (d.getObjectClassType(schema) == ObjectClassType.ABSTRACT)
+      for (final ObjectClassDefinition d : plan.getAbstractClasses())
       {
-        if (checkProhibitedObjectClasses)
+        entryValid = false;
+        updateCount(d.getNameOrOID(), prohibitedObjectClasses);
+        if (invalidReasons != null)
         {
-          entryValid = false;
-          updateCount(d.getNameOrOID(), prohibitedObjectClasses);
-          if (invalidReasons != null)
-          {
-            invalidReasons.add(ERR_ENTRY_INVALID_ABSTRACT_CLASS.get(
-                 d.getNameOrOID()));
-          }
+          invalidReasons.add(ERR_ENTRY_INVALID_ABSTRACT_CLASS.get(
+               d.getNameOrOID()));
         }
-        iterator.remove();
       }
     }
 
-    switch (ocCopy.size())
+    final List<ObjectClassDefinition> structuralClasses =
+         plan.getStructuralClasses();
+    switch (structuralClasses.size())
     {
       case 0:
         if (checkStructuralObjectClasses)
@@ -1099,7 +1161,6 @@ public final class EntryValidator
         break;
 
       case 1:
-        structuralClass.set(ocCopy.iterator().next());
         break;
 
       default:
@@ -1110,7 +1171,8 @@ public final class EntryValidator
           if (invalidReasons != null)
           {
             final StringBuilder ocList = new StringBuilder();
-            iterator = ocCopy.iterator();
+            final Iterator<ObjectClassDefinition> iterator =
+                 structuralClasses.iterator();
             while (iterator.hasNext())
             {
               ocList.append(iterator.next().getNameOrOID());
@@ -1131,107 +1193,6 @@ public final class EntryValidator
 
 
 
-  /**
-   * Retrieves the set of attributes which must be present in entries with the
-   * provided set of object classes and DIT content rule.
-   *
-   * @param  ocSet           The set of object classes for the entry.
-   * @param  ditContentRule  The DIT content rule for the entry, if defined.
-   *
-   * @return  The set of attributes which must be present in entries with the
-   *          provided set of object classes and DIT content rule.
-   */
-  private HashSet<AttributeTypeDefinition> getRequiredAttributes(
-               final HashSet<ObjectClassDefinition> ocSet,
-               final DITContentRuleDefinition ditContentRule)
-  {
-    final HashSet<AttributeTypeDefinition> attrSet =
-         new HashSet<AttributeTypeDefinition>();
-    for (final ObjectClassDefinition oc : ocSet)
-    {
-      attrSet.addAll(oc.getRequiredAttributes(schema, false));
-    }
-
-    if (ditContentRule != null)
-    {
-      for (final String s : ditContentRule.getRequiredAttributes())
-      {
-        final AttributeTypeDefinition d = schema.getAttributeType(s);
-        if (d != null)
-        {
-          attrSet.add(d);
-        }
-      }
-    }
-
-    return attrSet;
-  }
-
-
-
-  /**
-   * Retrieves the set of attributes which may optionally be present in entries
-   * with the provided set of object classes and DIT content rule.
-   *
-   * @param  ocSet            The set of object classes for the entry.
-   * @param  ditContentRule   The DIT content rule for the entry, if defined.
-   * @param  requiredAttrSet  The set of required attributes for the entry.
-   *
-   * @return  The set of attributes which may optionally be present in entries
-   *          with the provided set of object classes and DIT content rule.
-   */
-  private HashSet<AttributeTypeDefinition> getOptionalAttributes(
-               final HashSet<ObjectClassDefinition> ocSet,
-               final DITContentRuleDefinition ditContentRule,
-               final HashSet<AttributeTypeDefinition> requiredAttrSet)
-  {
-    final HashSet<AttributeTypeDefinition> attrSet =
-         new HashSet<AttributeTypeDefinition>();
-    for (final ObjectClassDefinition oc : ocSet)
-    {
-      if (oc.hasNameOrOID("extensibleObject") ||
-          oc.hasNameOrOID("1.3.6.1.4.1.1466.101.120.111"))
-      {
-        attrSet.addAll(schema.getUserAttributeTypes());
-        break;
-      }
-
-      for (final AttributeTypeDefinition d :
-           oc.getOptionalAttributes(schema, false))
-      {
-        if (! requiredAttrSet.contains(d))
-        {
-          attrSet.add(d);
-        }
-      }
-    }
-
-    if (ditContentRule != null)
-    {
-      for (final String s : ditContentRule.getOptionalAttributes())
-      {
-        final AttributeTypeDefinition d = schema.getAttributeType(s);
-        if ((d != null) && (! requiredAttrSet.contains(d)))
-        {
-          attrSet.add(d);
-        }
-      }
-
-      for (final String s : ditContentRule.getProhibitedAttributes())
-      {
-        final AttributeTypeDefinition d = schema.getAttributeType(s);
-        if (d != null)
-        {
-          attrSet.remove(d);
-        }
-      }
-    }
-
-    return attrSet;
-  }
-
-
-
   /**
    * Checks the provided entry to determine whether it is missing any required
    * attributes.
@@ -1248,7 +1209,7 @@ public final class EntryValidator
    *          {@code false} if not.
    */
   private boolean checkForMissingAttributes(final Entry entry, final RDN rdn,
-                       final HashSet<AttributeTypeDefinition> requiredAttrs,
+                       final Set<AttributeTypeDefinition> requiredAttrs,
                        final List<String> invalidReasons)
   {
     boolean entryValid = true;
@@ -1302,14 +1263,15 @@ public final class EntryValidator
    *          to be valid, or {@code false} if it failed any of the checks.
    */
   private boolean checkAttribute(final Attribute attr,
-                       final HashSet<AttributeTypeDefinition> requiredAttrs,
-                       final HashSet<AttributeTypeDefinition> optionalAttrs,
+                       final Set<AttributeTypeDefinition> requiredAttrs,
+                       final Set<AttributeTypeDefinition> optionalAttrs,
                        final List<String> invalidReasons)
   {
     boolean entryValid = true;
 
-    final AttributeTypeDefinition d =
-         schema.getAttributeType(attr.getBaseName());
+    final AttributeTypeValidationPlan plan =
+         getAttributeTypePlan(attr.getBaseName());
+    final AttributeTypeDefinition d = plan.getDefinition();
     if (d == null)
     {
       if (checkUndefinedAttributes)
@@ -1355,9 +1317,7 @@ public final class EntryValidator
     {
       if (! ignoreSyntaxViolationTypes.contains(d))
       {
-        final MatchingRule r =
-             MatchingRule.selectEqualityMatchingRule(d.getNameOrOID(), schema);
-        final Map<String, String[]> extensions = d.getExtensions();
+        final MatchingRule r = plan.getMatchingRule();
         for (final ASN1OctetString v : rawValues)
         {
           try
@@ -1379,15 +1339,15 @@ public final class EntryValidator
 
           // If the attribute type definition includes an X-ALLOWED-VALUE
           // extension, then make sure the value is in that set.
-          final String[] allowedValues = extensions.get("X-ALLOWED-VALUE");
+          final ASN1OctetString[] allowedValues = plan.getAllowedValues();
           if (allowedValues != null)
           {
             boolean isAllowed = false;
-            for (final String allowedValue : allowedValues)
+            for (final ASN1OctetString allowedValue : allowedValues)
             {
               try
               {
-                if (r.valuesMatch(v, new ASN1OctetString(allowedValue)))
+                if (r.valuesMatch(v, allowedValue))
                 {
                   isAllowed = true;
                   break;
@@ -1414,24 +1374,16 @@ public final class EntryValidator
 
           // If the attribute type definition includes an X-VALUE-REGEX
           // extension, then make sure the value matches one of those regexes.
-          final String[] valueRegexes = extensions.get("X-VALUE-REGEX");
-          if (valueRegexes != null)
+          final Pattern[] valuePatterns = plan.getValuePatterns();
+          if (valuePatterns != null)
           {
             boolean matchesRegex = false;
-            for (final String regex : valueRegexes)
+            for (final Pattern pattern : valuePatterns)
             {
-              try
-              {
-                final Pattern pattern = Pattern.compile(regex);
-                if (pattern.matcher(v.stringValue()).matches())
-                {
-                  matchesRegex = true;
-                  break;
-                }
-              }
-              catch (final Exception e)
+              if (pattern.matcher(v.stringValue()).matches())
               {
-                debugException(e);
+                matchesRegex = true;
+                break;
               }
             }
 
@@ -1451,22 +1403,9 @@ public final class EntryValidator
 
           // If the attribute type definition includes an X-MIN-VALUE-LENGTH
           // extension, then make sure the value is long enough.
-          final String[] minValueLengths = extensions.get("X-MIN-VALUE-LENGTH");
-          if (minValueLengths != null)
+          final Integer minLength = plan.getMinValueLength();
+          if (minLength != null)
           {
-            int minLength = 0;
-            for (final String s : minValueLengths)
-            {
-              try
-              {
-                minLength = Math.max(minLength, Integer.parseInt(s));
-              }
-              catch (final Exception e)
-              {
-                debugException(e);
-              }
-            }
-
             if (v.stringValue().length() < minLength)
             {
               entryValid = false;
@@ -1483,22 +1422,9 @@ public final class EntryValidator
 
           // If the attribute type definition includes an X-MAX-VALUE-LENGTH
           // extension, then make sure the value is short enough.
-          final String[] maxValueLengths = extensions.get("X-MAX-VALUE-LENGTH");
-          if (maxValueLengths != null)
+          final Integer maxLength = plan.getMaxValueLength();
+          if (maxLength != null)
           {
-            int maxLength = Integer.MAX_VALUE;
-            for (final String s : maxValueLengths)
-            {
-              try
-              {
-                maxLength = Math.min(maxLength, Integer.parseInt(s));
-              }
-              catch (final Exception e)
-              {
-                debugException(e);
-              }
-            }
-
             if (v.stringValue().length() > maxLength)
             {
               entryValid = false;
@@ -1515,27 +1441,12 @@ public final class EntryValidator
 
           // If the attribute type definition includes an X-MIN-INT-VALUE
           // extension, then make sure the value is large enough.
-          final String[] minIntValues = extensions.get("X-MIN-INT-VALUE");
-          if (minIntValues != null)
+          final Long minAllowedValue = plan.getMinIntValue();
+          if (minAllowedValue != null)
           {
             try
             {
               final long longValue = Long.parseLong(v.stringValue());
-
-              long minAllowedValue = 0L;
-              for (final String s : minIntValues)
-              {
-                try
-                {
-                  minAllowedValue =
-                       Math.max(minAllowedValue, Long.parseLong(s));
-                }
-                catch (final Exception e)
-                {
-                  debugException(e);
-                }
-              }
-
               if (longValue < minAllowedValue)
               {
                 entryValid = false;
@@ -1563,27 +1474,12 @@ public final class EntryValidator
 
           // If the attribute type definition includes an X-MAX-INT-VALUE
           // extension, then make sure the value is large enough.
-          final String[] maxIntValues = extensions.get("X-MAX-INT-VALUE");
-          if (maxIntValues != null)
+          final Long maxAllowedValue = plan.getMaxIntValue();
+          if (maxAllowedValue != null)
           {
             try
             {
               final long longValue = Long.parseLong(v.stringValue());
-
-              long maxAllowedValue = Long.MAX_VALUE;
-              for (final String s : maxIntValues)
-              {
-                try
-                {
-                  maxAllowedValue =
-                       Math.min(maxAllowedValue, Long.parseLong(s));
-                }
-                catch (final Exception e)
-                {
-                  debugException(e);
-                }
-              }
-
               if (longValue > maxAllowedValue)
               {
                 entryValid = false;
@@ -1612,22 +1508,9 @@ public final class EntryValidator
 
         // If the attribute type definition includes an X-MIN-VALUE-COUNT
         // extension, then make sure the value has enough values.
-        final String[] minValueCounts = extensions.get("X-MIN-VALUE-COUNT");
-        if (minValueCounts != null)
+        final Integer minValueCount = plan.getMinValueCount();
+        if (minValueCount != null)
         {
-          int minValueCount = 0;
-          for (final String s : minValueCounts)
-          {
-            try
-            {
-              minValueCount = Math.max(minValueCount, Integer.parseInt(s));
-            }
-            catch (final Exception e)
-            {
-              debugException(e);
-            }
-          }
-
           if (rawValues.length < minValueCount)
           {
             entryValid = false;
@@ -1643,22 +1526,9 @@ public final class EntryValidator
 
         // If the attribute type definition includes an X-MAX-VALUE-COUNT
         // extension, then make sure the value has enough values.
-        final String[] maxValueCounts = extensions.get("X-MAX-VALUE-COUNT");
-        if (maxValueCounts != null)
+        final Integer maxValueCount = plan.getMaxValueCount();
+        if (maxValueCount != null)
         {
-          int maxValueCount = Integer.MAX_VALUE;
-          for (final String s : maxValueCounts)
-          {
-            try
-            {
-              maxValueCount = Math.min(maxValueCount, Integer.parseInt(s));
-            }
-            catch (final Exception e)
-            {
-              debugException(e);
-            }
-          }
-
           if (rawValues.length > maxValueCount)
           {
             entryValid = false;
@@ -1678,57 +1548,6 @@ public final class EntryValidator
 
 
 
-  /**
-   * Ensures that all of the auxiliary object classes contained in the object
-   * class set are allowed by the provided DIT content rule.
-   *
-   * @param  ocSet           The set of object classes contained in the entry.
-   * @param  ditContentRule  The DIT content rule to use to make the
-   *                         determination.
-   * @param  invalidReasons  A list to which messages may be added which provide
-   *                         information about why the entry is invalid.  It may
-   *                         be {@code null} if this information is not needed.
-   *
-   * @return  {@code true} if the entry passes all checks performed by this
-   *          method, or {@code false} if not.
-   */
-  private boolean checkAuxiliaryClasses(
-                       final HashSet<ObjectClassDefinition> ocSet,
-                       final DITContentRuleDefinition ditContentRule,
-                       final List<String> invalidReasons)
-  {
-    final HashSet<ObjectClassDefinition> auxSet =
-         new HashSet<ObjectClassDefinition>();
-    for (final String s : ditContentRule.getAuxiliaryClasses())
-    {
-      final ObjectClassDefinition d = schema.getObjectClass(s);
-      if (d != null)
-      {
-        auxSet.add(d);
-      }
-    }
-
-    boolean entryValid = true;
-    for (final ObjectClassDefinition d : ocSet)
-    {
-      final ObjectClassType t = d.getObjectClassType(schema);
-      if ((t == ObjectClassType.AUXILIARY) && (! auxSet.contains(d)))
-      {
-        entryValid = false;
-        updateCount(d.getNameOrOID(), prohibitedObjectClasses);
-        if (invalidReasons != null)
-        {
-          invalidReasons.add(
-               ERR_ENTRY_AUX_CLASS_NOT_ALLOWED.get(d.getNameOrOID()));
-        }
-      }
-    }
-
-    return entryValid;
-  }
-
-
-
   /**
    * Ensures that the provided RDN is acceptable.  It will ensure that all
    * attributes are defined in the schema and allowed for the entry, and that
@@ -1742,6 +1561,8 @@ public final class EntryValidator
    *                         included in the entry.
    * @param  nameForm        The name for to use to make the determination, if
    *                         defined.
+   * @param  plan            The validation plan for the entry's object
+   *                         classes.
    * @param  invalidReasons  A list to which messages may be added which provide
    *                         information about why the entry is invalid.  It may
    *                         be {@code null} if this information is not needed.
@@ -1750,36 +1571,17 @@ public final class EntryValidator
    *          method, or {@code false} if not.
    */
   private boolean checkRDN(final RDN rdn, final Entry entry,
-                           final HashSet<AttributeTypeDefinition> requiredAttrs,
-                           final HashSet<AttributeTypeDefinition> optionalAttrs,
+                           final Set<AttributeTypeDefinition> requiredAttrs,
+                           final Set<AttributeTypeDefinition> optionalAttrs,
                            final NameFormDefinition nameForm,
+                           final ObjectClassValidationPlan plan,
                            final List<String> invalidReasons)
   {
     final HashSet<AttributeTypeDefinition> nfReqAttrs =
-         new HashSet<AttributeTypeDefinition>();
-    final HashSet<AttributeTypeDefinition> nfAllowedAttrs =
-         new HashSet<AttributeTypeDefinition>();
-    if (nameForm != null)
-    {
-      for (final String s : nameForm.getRequiredAttributes())
-      {
-        final AttributeTypeDefinition d = schema.getAttributeType(s);
-        if (d != null)
-        {
-          nfReqAttrs.add(d);
-        }
-      }
-
-      nfAllowedAttrs.addAll(nfReqAttrs);
-      for (final String s : nameForm.getOptionalAttributes())
-      {
-        final AttributeTypeDefinition d = schema.getAttributeType(s);
-        if (d != null)
-        {
-          nfAllowedAttrs.add(d);
-        }
-      }
-    }
+         new HashSet<AttributeTypeDefinition>(
+              plan.getNameFormRequiredAttributes());
+    final Set<AttributeTypeDefinition> nfAllowedAttrs =
+         plan.getNameFormAllowedAttributes();
 
     boolean entryValid = true;
     final String[] attributeNames = rdn.getAttributeNames();
@@ -1787,11 +1589,11 @@ public final class EntryValidator
     for (int i=0; i < attributeNames.length; i++)
     {
       final String name = attributeNames[i];
+      final AttributeTypeValidationPlan attrPlan = getAttributeTypePlan(name);
       if (checkEntryMissingRDNValues)
       {
         final byte[] value = attributeValues[i];
-        final MatchingRule matchingRule =
-             MatchingRule.selectEqualityMatchingRule(name, schema);
+        final MatchingRule matchingRule = attrPlan.getMatchingRule();
         if (! entry.hasAttributeValue(name, value, matchingRule))
         {
           entryValid = false;
@@ -1804,7 +1606,7 @@ public final class EntryValidator
         }
       }
 
-      final AttributeTypeDefinition d = schema.getAttributeType(name);
+      final AttributeTypeDefinition d = attrPlan.getDefinition();
       if (d == null)
       {
         if (checkUndefinedAttributes)
@@ -1902,6 +1704,72 @@ public final class EntryValidator
 
 
 
+  /**
+   * Adds all of the counts maintained by the provided entry validator to the
+   * counts maintained by this entry validator.  The counts for the provided
+   * validator will not be altered.
+   *
+   * @param  validator  The entry validator whose counts should be added to
+   *                    the counts for this validator.  It must not be
+   *                    {@code null}.
+   */
+  public void mergeCounts(final EntryValidator validator)
+  {
+    ensureNotNull(validator);
+
+    entriesExamined.addAndGet(validator.entriesExamined.get());
+    entriesMissingRDNValues.addAndGet(validator.entriesMissingRDNValues.get());
+    invalidEntries.addAndGet(validator.invalidEntries.get());
+    malformedDNs.addAndGet(validator.malformedDNs.get());
+    missingSuperiorClasses.addAndGet(validator.missingSuperiorClasses.get());
+    multipleStructuralClasses.addAndGet(
+         validator.multipleStructuralClasses.get());
+    nameFormViolations.addAndGet(validator.nameFormViolations.get());
+    noObjectClasses.addAndGet(validator.noObjectClasses.get());
+    noStructuralClass.addAndGet(validator.noStructuralClass.get());
+
+    mergeCounts(validator.attributesViolatingSyntax,
+         attributesViolatingSyntax);
+    mergeCounts(validator.missingAttributes, missingAttributes);
+    mergeCounts(validator.prohibitedAttributes, prohibitedAttributes);
+    mergeCounts(validator.prohibitedObjectClasses, prohibitedObjectClasses);
+    mergeCounts(validator.singleValueViolations, singleValueViolations);
+    mergeCounts(validator.undefinedAttributes, undefinedAttributes);
+    mergeCounts(validator.undefinedObjectClasses, undefinedObjectClasses);
+  }
+
+
+
+  /**
+   * Adds the counts contained in the first map to the counts contained in the
+   * second map, adding new keys to the second map as necessary.
+   *
+   * @param  source  The map containing the counts to add.
+   * @param  target  The map to which the counts should be added.
+   */
+  private static void mergeCounts(
+                           final ConcurrentHashMap<String,AtomicLong> source,
+                           final ConcurrentHashMap<String,AtomicLong> target)
+  {
+    for (final Map.Entry<String,AtomicLong> e : source.entrySet())
+    {
+      final long count = e.getValue().get();
+      AtomicLong l = target.get(e.getKey());
+      if (l == null)
+      {
+        l = target.putIfAbsent(e.getKey(), new AtomicLong(count));
+        if (l == null)
+        {
+          continue;
+        }
+      }
+
+      l.addAndGet(count);
+    }
+  }
+
+
+
   /**
    * Resets all counts maintained by this entry validator.
    */
@@ -0,0 +1,713 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.schema;
+
+
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+import static com.unboundid.util.StaticUtils.*;
+
+
+
+/**
+ * This class provides a precomputed plan that the {@link EntryValidator} may
+ * use to validate entries with a given set of object class values.  It holds
+ * everything that can be determined from the object class values and the
+ * schema alone, including the complete set of object classes with their
+ * superiors, the problems found with those classes, the structural class,
+ * the DIT content rule and name form, and the sets of required and allowed
+ * attribute types.  It does not depend on which kinds of validation are
+ * enabled, so that the entry validator can decide which of the problems it
+ * holds should be reported.
+ */
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+final class ObjectClassValidationPlan
+      implements Serializable
+{
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = 6405838563281367510L;
+
+
+
+  // The DIT content rule for the structural class, if any.
+  private final DITContentRuleDefinition ditContentRule;
+
+  // The abstract classes that are not superior to any structural or auxiliary
+  // class.
+  private final List<ObjectClassDefinition> abstractClasses;
+
+  // The auxiliary classes that are not allowed by the DIT content rule.
+  private final List<ObjectClassDefinition> prohibitedAuxiliaryClasses;
+
+  // The classes that appear to be structural classes for the entry.  There
+  // should be exactly one of them.
+  private final List<ObjectClassDefinition> structuralClasses;
+
+  // The problems found with superior classes, in the order they were found.
+  private final List<SuperiorClassProblem> superiorClassProblems;
+
+  // The names of object classes in the entry that are not defined in the
+  // schema, in the order they appear in the entry.
+  private final List<String> undefinedClasses;
+
+  // The name form for the structural class, if any.
+  private final NameFormDefinition nameForm;
+
+  // The complete set of object classes for the entry, including superiors.
+  private final Set<ObjectClassDefinition> objectClasses;
+
+  // The attribute types allowed by the name form, including those required.
+  private final Set<AttributeTypeDefinition> nameFormAllowedAttributes;
+
+  // The attribute types required by the name form.
+  private final Set<AttributeTypeDefinition> nameFormRequiredAttributes;
+
+  // The attribute types that may optionally be present, taking the DIT
+  // content rule into account.
+  private final Set<AttributeTypeDefinition> optionalAttributes;
+
+  // The attribute types that may optionally be present, without taking the
+  // DIT content rule into account.
+  private final Set<AttributeTypeDefinition> optionalAttributesWithoutRule;
+
+  // The attribute types that must be present, taking the DIT content rule
+  // into account.
+  private final Set<AttributeTypeDefinition> requiredAttributes;
+
+  // The attribute types that must be present, without taking the DIT content
+  // rule into account.
+  private final Set<AttributeTypeDefinition> requiredAttributesWithoutRule;
+
+
+
+  /**
+   * Creates a new validation plan for entries with the provided object class
+   * values.
+   *
+   * @param  schema    The schema to use to create the plan.
+   * @param  ocValues  The object class values for the entries.  It may be
+   *                   empty, but must not be {@code null}.
+   */
+  ObjectClassValidationPlan(final Schema schema, final String[] ocValues)
+  {
+    // Get the object class definitions for the object classes in the entry,
+    // including any superior classes that weren't explicitly included.
+    final HashSet<ObjectClassDefinition> ocSet =
+         new HashSet<ObjectClassDefinition>();
+    final ArrayList<String> undefinedList = new ArrayList<String>(1);
+    final HashSet<String> missingOCNames = new HashSet<String>(ocValues.length);
+    for (final String ocName : ocValues)
+    {
+      final ObjectClassDefinition d = schema.getObjectClass(ocName);
+      if (d == null)
+      {
+        undefinedList.add(ocName);
+        missingOCNames.add(toLowerCase(ocName));
+      }
+      else
+      {
+        ocSet.add(d);
+      }
+    }
+
+    final ArrayList<SuperiorClassProblem> supProblemList =
+         new ArrayList<SuperiorClassProblem>(1);
+    for (final ObjectClassDefinition d :
+         new HashSet<ObjectClassDefinition>(ocSet))
+    {
+      addSuperiorClasses(schema, d, ocSet, missingOCNames, supProblemList);
+    }
+
+    objectClasses = Collections.unmodifiableSet(ocSet);
+    undefinedClasses = Collections.unmodifiableList(undefinedList);
+    superiorClassProblems = Collections.unmodifiableList(supProblemList);
+
+
+    // Strip out the superiors of structural and auxiliary classes, along with
+    // the auxiliary classes themselves and any remaining abstract classes, to
+    // find the structural class.
+    final HashSet<ObjectClassDefinition> ocCopy =
+         new HashSet<ObjectClassDefinition>(ocSet);
+    for (final ObjectClassDefinition d : ocSet)
+    {
+      final ObjectClassType t = d.getObjectClassType(schema);
+      if (t == ObjectClassType.STRUCTURAL)
+      {
+        ocCopy.removeAll(d.getSuperiorClasses(schema, true));
+      }
+      else if (t == ObjectClassType.AUXILIARY)
+      {
+        ocCopy.remove(d);
+        ocCopy.removeAll(d.getSuperiorClasses(schema, true));
+      }
+    }
+
+    final ArrayList<ObjectClassDefinition> abstractList =
+         new ArrayList<ObjectClassDefinition>(1);
+    final Iterator<ObjectClassDefinition> iterator = ocCopy.iterator();
+    while (iterator.hasNext())
+    {
+      final ObjectClassDefinition d = iterator.next();
+      if (d.getObjectClassType(schema) == ObjectClassType.ABSTRACT)
+      {
+        abstractList.add(d);
+        iterator.remove();
+      }
+    }
+
+    abstractClasses = Collections.unmodifiableList(abstractList);
+    structuralClasses = Collections.unmodifiableList(
+         new ArrayList<ObjectClassDefinition>(ocCopy));
+
+    if (structuralClasses.size() == 1)
+    {
+      final ObjectClassDefinition structuralClass = structuralClasses.get(0);
+      ditContentRule = schema.getDITContentRule(structuralClass.getOID());
+      nameForm =
+           schema.getNameFormByObjectClass(structuralClass.getNameOrOID());
+    }
+    else
+    {
+      ditContentRule = null;
+      nameForm = null;
+    }
+
+
+    // Get the required and optional attribute types, both with and without
+    // the DIT content rule.
+    requiredAttributesWithoutRule = getRequiredAttributes(schema, ocSet, null);
+    optionalAttributesWithoutRule = getOptionalAttributes(schema, ocSet, null,
+         requiredAttributesWithoutRule);
+    if (ditContentRule == null)
+    {
+      requiredAttributes = requiredAttributesWithoutRule;
+      optionalAttributes = optionalAttributesWithoutRule;
+      prohibitedAuxiliaryClasses = Collections.emptyList();
+    }
+    else
+    {
+      requiredAttributes =
+           getRequiredAttributes(schema, ocSet, ditContentRule);
+      optionalAttributes = getOptionalAttributes(schema, ocSet,
+           ditContentRule, requiredAttributes);
+      prohibitedAuxiliaryClasses =
+           getProhibitedAuxiliaryClasses(schema, ocSet, ditContentRule);
+    }
+
+
+    // Get the attribute types required and allowed by the name form.
+    final HashSet<AttributeTypeDefinition> nfReqAttrs =
+         new HashSet<AttributeTypeDefinition>();
+    final HashSet<AttributeTypeDefinition> nfAllowedAttrs =
+         new HashSet<AttributeTypeDefinition>();
+    if (nameForm != null)
+    {
+      for (final String s : nameForm.getRequiredAttributes())
+      {
+        final AttributeTypeDefinition d = schema.getAttributeType(s);
+        if (d != null)
+        {
+          nfReqAttrs.add(d);
+        }
+      }
+
+      nfAllowedAttrs.addAll(nfReqAttrs);
+      for (final String s : nameForm.getOptionalAttributes())
+      {
+        final AttributeTypeDefinition d = schema.getAttributeType(s);
+        if (d != null)
+        {
+          nfAllowedAttrs.add(d);
+        }
+      }
+    }
+
+    nameFormRequiredAttributes = Collections.unmodifiableSet(nfReqAttrs);
+    nameFormAllowedAttributes = Collections.unmodifiableSet(nfAllowedAttrs);
+  }
+
+
+
+  /**
+   * Recursively adds the definition superior class for the provided object
+   * class definition to the provided set, if it is not already present.
+   *
+   * @param  schema          The schema to use to obtain the superior classes.
+   * @param  d               The object class definition to process.
+   * @param  ocSet           The set into which the object class definitions
+   *                         should be placed.
+   * @param  missingOCNames  The names of the object classes we already know are
+   *                         missing and therefore shouldn't be flagged again.
+   * @param  problems        The list to which any problems should be added.
+   */
+  private static void addSuperiorClasses(final Schema schema,
+                           final ObjectClassDefinition d,
+                           final HashSet<ObjectClassDefinition> ocSet,
+                           final HashSet<String> missingOCNames,
+                           final List<SuperiorClassProblem> problems)
+  {
+    for (final String ocName : d.getSuperiorClasses())
+    {
+      final ObjectClassDefinition supOC = schema.getObjectClass(ocName);
+      if (supOC == null)
+      {
+        final String lowerName = toLowerCase(ocName);
+        if (! missingOCNames.contains(lowerName))
+        {
+          missingOCNames.add(lowerName);
+          problems.add(new SuperiorClassProblem(true, d.getNameOrOID(),
+               ocName));
+        }
+      }
+      else
+      {
+        if (! ocSet.contains(supOC))
+        {
+          ocSet.add(supOC);
+          problems.add(new SuperiorClassProblem(false, d.getNameOrOID(),
+               supOC.getNameOrOID()));
+        }
+
+        addSuperiorClasses(schema, supOC, ocSet, missingOCNames, problems);
+      }
+    }
+  }
+
+
+
+  /**
+   * Retrieves the set of attributes which must be present in entries with the
+   * provided set of object classes and DIT content rule.
+   *
+   * @param  schema          The schema to use to obtain the attribute types.
+   * @param  ocSet           The set of object classes for the entry.
+   * @param  ditContentRule  The DIT content rule for the entry, if defined.
+   *
+   * @return  The set of attributes which must be present in entries with the
+   *          provided set of object classes and DIT content rule.
+   */
+  private static Set<AttributeTypeDefinition> getRequiredAttributes(
+               final Schema schema, final Set<ObjectClassDefinition> ocSet,
+               final DITContentRuleDefinition ditContentRule)
+  {
+    final HashSet<AttributeTypeDefinition> attrSet =
+         new HashSet<AttributeTypeDefinition>();
+    for (final ObjectClassDefinition oc : ocSet)
+    {
+      attrSet.addAll(oc.getRequiredAttributes(schema, false));
+    }
+
+    if (ditContentRule != null)
+    {
+      for (final String s : ditContentRule.getRequiredAttributes())
+      {
+        final AttributeTypeDefinition d = schema.getAttributeType(s);
+        if (d != null)
+        {
+          attrSet.add(d);
+        }
+      }
+    }
+
+    return Collections.unmodifiableSet(attrSet);
+  }
+
+
+
+  /**
+   * Retrieves the set of attributes which may optionally be present in entries
+   * with the provided set of object classes and DIT content rule.
+   *
+   * @param  schema           The schema to use to obtain the attribute types.
+   * @param  ocSet            The set of object classes for the entry.
+   * @param  ditContentRule   The DIT content rule for the entry, if defined.
+   * @param  requiredAttrSet  The set of required attributes for the entry.
+   *
+   * @return  The set of attributes which may optionally be present in entries
+   *          with the provided set of object classes and DIT content rule.
+   */
+  private static Set<AttributeTypeDefinition> getOptionalAttributes(
+               final Schema schema, final Set<ObjectClassDefinition> ocSet,
+               final DITContentRuleDefinition ditContentRule,
+               final Set<AttributeTypeDefinition> requiredAttrSet)
+  {
+    final HashSet<AttributeTypeDefinition> attrSet =
+         new HashSet<AttributeTypeDefinition>();
+    for (final ObjectClassDefinition oc : ocSet)
+    {
+      if (oc.hasNameOrOID("extensibleObject") ||
+          oc.hasNameOrOID("1.3.6.1.4.1.1466.101.120.111"))
+      {
+        attrSet.addAll(schema.getUserAttributeTypes());
+        break;
+      }
+
+      for (final AttributeTypeDefinition d :
+           oc.getOptionalAttributes(schema, false))
+      {
+        if (! requiredAttrSet.contains(d))
+        {
+          attrSet.add(d);
+        }
+      }
+    }
+
+    if (ditContentRule != null)
+    {
+      for (final String s : ditContentRule.getOptionalAttributes())
+      {
+        final AttributeTypeDefinition d = schema.getAttributeType(s);
+        if ((d != null) && (! requiredAttrSet.contains(d)))
+        {
+          attrSet.add(d);
+        }
+      }
+
+      for (final String s : ditContentRule.getProhibitedAttributes())
+      {
+        final AttributeTypeDefinition d = schema.getAttributeType(s);
+        if (d != null)
+        {
+          attrSet.remove(d);
+        }
+      }
+    }
+
+    return Collections.unmodifiableSet(attrSet);
+  }
+
+
+
+  /**
+   * Retrieves the auxiliary classes in the provided set that are not allowed
+   * by the given DIT content rule.
+   *
+   * @param  schema          The schema to use to obtain the object classes.
+   * @param  ocSet           The set of object classes for the entry.
+   * @param  ditContentRule  The DIT content rule to use to make the
+   *                         determination.
+   *
+   * @return  The auxiliary classes that are not allowed by the DIT content
+   *          rule.
+   */
+  private static List<ObjectClassDefinition> getProhibitedAuxiliaryClasses(
+               final Schema schema, final Set<ObjectClassDefinition> ocSet,
+               final DITContentRuleDefinition ditContentRule)
+  {
+    final HashSet<ObjectClassDefinition> auxSet =
+         new HashSet<ObjectClassDefinition>();
+    for (final String s : ditContentRule.getAuxiliaryClasses())
+    {
+      final ObjectClassDefinition d = schema.getObjectClass(s);
+      if (d != null)
+      {
+        auxSet.add(d);
+      }
+    }
+
+    final ArrayList<ObjectClassDefinition> prohibitedList =
+         new ArrayList<ObjectClassDefinition>(1);
+    for (final ObjectClassDefinition d : ocSet)
+    {
+      final ObjectClassType t = d.getObjectClassType(schema);
+      if ((t == ObjectClassType.AUXILIARY) && (! auxSet.contains(d)))
+      {
+        prohibitedList.add(d);
+      }
+    }
+
+    return Collections.unmodifiableList(prohibitedList);
+  }
+
+
+
+  /**
+   * Retrieves the complete set of object classes for the entry, including any
+   * superior classes that were not explicitly included.
+   *
+   * @return  The complete set of object classes for the entry.
+   */
+  Set<ObjectClassDefinition> getObjectClasses()
+  {
+    return objectClasses;
+  }
+
+
+
+  /**
+   * Retrieves the names of the object classes in the entry that are not
+   * defined in the schema, in the order they appear in the entry.
+   *
+   * @return  The names of the object classes in the entry that are not
+   *          defined in the schema.
+   */
+  List<String> getUndefinedClasses()
+  {
+    return undefinedClasses;
+  }
+
+
+
+  /**
+   * Retrieves the problems found with superior classes of the object classes
+   * in the entry, in the order they were found.
+   *
+   * @return  The problems found with superior classes.
+   */
+  List<SuperiorClassProblem> getSuperiorClassProblems()
+  {
+    return superiorClassProblems;
+  }
+
+
+
+  /**
+   * Retrieves the abstract classes in the entry that are not superior to any
+   * structural or auxiliary class in the entry.
+   *
+   * @return  The abstract classes in the entry that are not superior to any
+   *          structural or auxiliary class in the entry.
+   */
+  List<ObjectClassDefinition> getAbstractClasses()
+  {
+    return abstractClasses;
+  }
+
+
+
+  /**
+   * Retrieves the classes that appear to be structural classes for the entry.
+   * A valid entry will have exactly one.
+   *
+   * @return  The classes that appear to be structural classes for the entry.
+   */
+  List<ObjectClassDefinition> getStructuralClasses()
+  {
+    return structuralClasses;
+  }
+
+
+
+  /**
+   * Retrieves the DIT content rule for the entry's structural class.
+   *
+   * @return  The DIT content rule for the entry's structural class, or
+   *          {@code null} if there is none or the entry does not have exactly
+   *          one structural class.
+   */
+  DITContentRuleDefinition getDITContentRule()
+  {
+    return ditContentRule;
+  }
+
+
+
+  /**
+   * Retrieves the name form for the entry's structural class.
+   *
+   * @return  The name form for the entry's structural class, or {@code null}
+   *          if there is none or the entry does not have exactly one
+   *          structural class.
+   */
+  NameFormDefinition getNameForm()
+  {
+    return nameForm;
+  }
+
+
+
+  /**
+   * Retrieves the set of attribute types that must be present in the entry.
+   *
+   * @param  useContentRule  Indicates whether to take the DIT content rule
+   *                         into account.
+   *
+   * @return  The set of attribute types that must be present in the entry.
+   */
+  Set<AttributeTypeDefinition> getRequiredAttributes(
+                                    final boolean useContentRule)
+  {
+    return (useContentRule ? requiredAttributes :
+         requiredAttributesWithoutRule);
+  }
+
+
+
+  /**
+   * Retrieves the set of attribute types that may optionally be present in
+   * the entry.
+   *
+   * @param  useContentRule  Indicates whether to take the DIT content rule
+   *                         into account.
+   *
+   * @return  The set of attribute types that may optionally be present in the
+   *          entry.
+   */
+  Set<AttributeTypeDefinition> getOptionalAttributes(
+                                    final boolean useContentRule)
+  {
+    return (useContentRule ? optionalAttributes :
+         optionalAttributesWithoutRule);
+  }
+
+
+
+  /**
+   * Retrieves the auxiliary classes in the entry that are not allowed by the
+   * DIT content rule.
+   *
+   * @return  The auxiliary classes in the entry that are not allowed by the
+   *          DIT content rule, or an empty list if there is no DIT content
+   *          rule.
+   */
+  List<ObjectClassDefinition> getProhibitedAuxiliaryClasses()
+  {
+    return prohibitedAuxiliaryClasses;
+  }
+
+
+
+  /**
+   * Retrieves the attribute types required by the name form.
+   *
+   * @return  The attribute types required by the name form, or an empty set
+   *          if there is no name form.
+   */
+  Set<AttributeTypeDefinition> getNameFormRequiredAttributes()
+  {
+    return nameFormRequiredAttributes;
+  }
+
+
+
+  /**
+   * Retrieves the attribute types allowed by the name form, including those
+   * that it requires.
+   *
+   * @return  The attribute types allowed by the name form, or an empty set if
+   *          there is no name form.
+   */
+  Set<AttributeTypeDefinition> getNameFormAllowedAttributes()
+  {
+    return nameFormAllowedAttributes;
+  }
+
+
+
+  /**
+   * This class describes a problem with a superior class of one of the object
+   * classes in an entry.
+   */
+  static final class SuperiorClassProblem
+        implements Serializable
+  {
+    /**
+     * The serial version UID for this serializable class.
+     */
+    private static final long serialVersionUID = -2318007402536297184L;
+
+
+
+    // Indicates whether the superior class is not defined in the schema, as
+    // opposed to being defined but missing from the entry.
+    private final boolean undefined;
+
+    // The name or OID of the class whose superior class has the problem.
+    private final String className;
+
+    // The name of the superior class.
+    private final String superiorClassName;
+
+
+
+    /**
+     * Creates a new superior class problem with the provided information.
+     *
+     * @param  undefined          Indicates whether the superior class is not
+     *                            defined in the schema, as opposed to being
+     *                            defined but missing from the entry.
+     * @param  className          The name or OID of the class whose superior
+     *                            class has the problem.
+     * @param  superiorClassName  The name of the superior class.
+     */
+    private SuperiorClassProblem(final boolean undefined,
+                                 final String className,
+                                 final String superiorClassName)
+    {
+      this.undefined         = undefined;
+      this.className         = className;
+      this.superiorClassName = superiorClassName;
+    }
+
+
+
+    /**
+     * Indicates whether the superior class is not defined in the schema, as
+     * opposed to being defined but missing from the entry.
+     *
+     * @return  {@code true} if the superior class is not defined in the
+     *          schema, or {@code false} if it is defined but missing from the
+     *          entry.
+     */
+    boolean isUndefined()
+    {
+      return undefined;
+    }
+
+
+
+    /**
+     * Retrieves the name or OID of the class whose superior class has the
+     * problem.
+     *
+     * @return  The name or OID of the class whose superior class has the
+     *          problem.
+     */
+    String getClassName()
+    {
+      return className;
+    }
+
+
+
+    /**
+     * Retrieves the name of the superior class.
+     *
+     * @return  The name of the superior class.
+     */
+    String getSuperiorClassName()
+    {
+      return superiorClassName;
+    }
+  }
+}
@@ -22,17 +22,22 @@ package com.unboundid.ldap.sdk.transformations;
 
 
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.StringTokenizer;
 import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
@@ -40,12 +45,16 @@ import java.util.zip.GZIPOutputStream;
 import com.unboundid.ldap.sdk.Attribute;
 import com.unboundid.ldap.sdk.DN;
 import com.unboundid.ldap.sdk.Entry;
+import com.unboundid.ldap.sdk.EntrySorter;
 import com.unboundid.ldap.sdk.LDAPException;
 import com.unboundid.ldap.sdk.ResultCode;
 import com.unboundid.ldap.sdk.Version;
+import com.unboundid.ldap.sdk.controls.SortKey;
+import com.unboundid.ldap.sdk.persist.PersistUtils;
 import com.unboundid.ldap.sdk.schema.Schema;
 import com.unboundid.ldif.AggregateLDIFReaderChangeRecordTranslator;
 import com.unboundid.ldif.AggregateLDIFReaderEntryTranslator;
+import com.unboundid.ldif.LDIFEntrySorter;
 import com.unboundid.ldif.LDIFException;
 import com.unboundid.ldif.LDIFReader;
 import com.unboundid.ldif.LDIFReaderChangeRecordTranslator;
@@ -55,6 +64,8 @@ import com.unboundid.util.AggregateInputStream;
 import com.unboundid.util.ByteStringBuffer;
 import com.unboundid.util.CommandLineTool;
 import com.unboundid.util.Debug;
+import com.unboundid.util.LDAPSDKThreadFactory;
+import com.unboundid.util.ParallelGZIPOutputStream;
 import com.unboundid.util.StaticUtils;
 import com.unboundid.util.ThreadSafety;
 import com.unboundid.util.ThreadSafetyLevel;
@@ -67,6 +78,10 @@ import com.unboundid.util.args.FilterArgument;
 import com.unboundid.util.args.IntegerArgument;
 import com.unboundid.util.args.ScopeArgument;
 import com.unboundid.util.args.StringArgument;
+import com.unboundid.util.parallel.AsynchronousParallelProcessor;
+import com.unboundid.util.parallel.ParallelProcessor;
+import com.unboundid.util.parallel.Processor;
+import com.unboundid.util.parallel.Result;
 
 import static com.unboundid.ldap.sdk.transformations.TransformationMessages.*;
 
@@ -115,6 +130,19 @@ import static com.unboundid.ldap.sdk.transformations.TransformationMessages.*;
  *     with another.
  *   </LI>
  * </UL>
+ * It can also sort the transformed entries, either so that each entry will be
+ * written before any of its subordinates or based on the values of a set of
+ * attributes.  Sorting is performed with an {@link LDIFEntrySorter}, so the
+ * number of entries held in memory is limited even for very large LDIF files.
+ * <BR><BR>
+ * When multiple threads are used, records are read by one thread and parsed
+ * and transformed in parallel by the LDIF reader, with the results returned in
+ * the order in which they were read.  Transformations that depend on the order
+ * in which entries are processed (like replacing values with a sequential
+ * counter) are applied in order by a single thread, and any transformations
+ * that follow them are then applied in parallel to batches of entries.  If the
+ * output is to be compressed, then the compression may also be performed in
+ * parallel.
  */
 @ThreadSafety(level=ThreadSafetyLevel.NOT_THREADSAFE)
 public final class TransformLDIF
@@ -130,15 +158,41 @@ public final class TransformLDIF
 
 
 
+  /**
+   * The maximum number of records that may be waiting for transformations to
+   * be applied in parallel.  This is also the maximum number of records to
+   * which those transformations will be applied in a single batch.
+   */
+  private static final int TRANSFORM_QUEUE_SIZE = 1000;
+
+
+
+  /**
+   * The minimum number of records in a batch that each thread should
+   * transform.
+   */
+  private static final int TRANSFORM_MIN_PER_THREAD = 10;
+
+
+
+  /**
+   * The size in bytes of the buffer to use when writing to the target file.
+   */
+  private static final int OUTPUT_BUFFER_SIZE = 65536;
+
+
+
   // The arguments for use by this program.
   private BooleanArgument addToExistingValues = null;
   private BooleanArgument appendToTargetLDIF = null;
   private BooleanArgument compressTarget = null;
+  private BooleanArgument displayStageStatistics = null;
   private BooleanArgument excludeNonMatchingEntries = null;
   private BooleanArgument flattenAddOmittedRDNAttributesToEntry = null;
   private BooleanArgument flattenAddOmittedRDNAttributesToRDN = null;
   private BooleanArgument hideRedactedValueCount = null;
   private BooleanArgument processDNs = null;
+  private BooleanArgument sortEntries = null;
   private BooleanArgument sourceCompressed = null;
   private BooleanArgument sourceContainsChangeRecords = null;
   private BooleanArgument sourceFromStandardInput = null;
@@ -149,15 +203,18 @@ public final class TransformLDIF
   private DNArgument moveSubtreeFrom = null;
   private DNArgument moveSubtreeTo = null;
   private FileArgument schemaPath = null;
+  private FileArgument sortTempDirectory = null;
   private FileArgument sourceLDIF = null;
   private FileArgument targetLDIF = null;
   private FilterArgument addAttributeFilter = null;
   private FilterArgument excludeEntryFilter = null;
   private FilterArgument flattenExcludeFilter = null;
   private IntegerArgument initialSequentialValue = null;
+  private IntegerArgument numCompressionThreads = null;
   private IntegerArgument numThreads = null;
   private IntegerArgument randomSeed = null;
   private IntegerArgument sequentialValueIncrement = null;
+  private IntegerArgument sortMaxEntriesInMemory = null;
   private IntegerArgument wrapColumn = null;
   private ScopeArgument addAttributeScope = null;
   private ScopeArgument excludeEntryScope = null;
@@ -172,6 +229,7 @@ public final class TransformLDIF
   private StringArgument scrambleAttribute = null;
   private StringArgument scrambleJSONField = null;
   private StringArgument sequentialAttribute = null;
+  private StringArgument sortOrder = null;
   private StringArgument textAfterSequentialValue = null;
   private StringArgument textBeforeSequentialValue = null;
 
@@ -180,6 +238,10 @@ public final class TransformLDIF
   private final ThreadLocal<ByteStringBuffer> byteStringBuffers =
        new ThreadLocal<ByteStringBuffer>();
 
+  // The sort keys to use when sorting entries, or null if entries should be
+  // sorted hierarchically.
+  private List<SortKey> sortKeys = null;
+
 
 
   /**
@@ -732,6 +794,43 @@ public final class TransformLDIF
          excludeEntryBaseDN, excludeEntryScope, excludeEntryFilter);
 
 
+    // Add arguments pertaining to sorting entries.
+    sortEntries = new BooleanArgument(null, "sortEntries", 1,
+         INFO_TRANSFORM_LDIF_ARG_DESC_SORT_ENTRIES.get());
+    sortEntries.addLongIdentifier("sort-entries", true);
+    sortEntries.setArgumentGroupName(INFO_TRANSFORM_LDIF_ARG_GROUP_SORT.get());
+    parser.addArgument(sortEntries);
+    parser.addExclusiveArgumentSet(sourceContainsChangeRecords, sortEntries);
+
+    sortOrder = new StringArgument(null, "sortOrder", false, 1,
+         INFO_TRANSFORM_LDIF_PLACEHOLDER_SORT_ORDER.get(),
+         INFO_TRANSFORM_LDIF_ARG_DESC_SORT_ORDER.get());
+    sortOrder.addLongIdentifier("sort-order", true);
+    sortOrder.setArgumentGroupName(INFO_TRANSFORM_LDIF_ARG_GROUP_SORT.get());
+    parser.addArgument(sortOrder);
+    parser.addDependentArgumentSet(sortOrder, sortEntries);
+
+    sortMaxEntriesInMemory = new IntegerArgument(null,
+         "sortMaxEntriesInMemory", false, 1, null,
+         INFO_TRANSFORM_LDIF_ARG_DESC_SORT_MAX_ENTRIES.get(), 1,
+         Integer.MAX_VALUE, LDIFEntrySorter.DEFAULT_MAX_ENTRIES_IN_MEMORY);
+    sortMaxEntriesInMemory.addLongIdentifier("sort-max-entries-in-memory",
+         true);
+    sortMaxEntriesInMemory.setArgumentGroupName(
+         INFO_TRANSFORM_LDIF_ARG_GROUP_SORT.get());
+    parser.addArgument(sortMaxEntriesInMemory);
+    parser.addDependentArgumentSet(sortMaxEntriesInMemory, sortEntries);
+
+    sortTempDirectory = new FileArgument(null, "sortTempDirectory", false, 1,
+         null, INFO_TRANSFORM_LDIF_ARG_DESC_SORT_TEMP_DIR.get(), true, true,
+         false, true);
+    sortTempDirectory.addLongIdentifier("sort-temp-directory", true);
+    sortTempDirectory.setArgumentGroupName(
+         INFO_TRANSFORM_LDIF_ARG_GROUP_SORT.get());
+    parser.addArgument(sortTempDirectory);
+    parser.addDependentArgumentSet(sortTempDirectory, sortEntries);
+
+
     // Add the remaining arguments.
     schemaPath = new FileArgument(null, "schemaPath", false, 0, null,
          INFO_TRANSFORM_LDIF_ARG_DESC_SCHEMA_PATH.get(),
@@ -749,6 +848,25 @@ public final class TransformLDIF
     numThreads.addLongIdentifier("num-threads", true);
     parser.addArgument(numThreads);
 
+    numCompressionThreads = new IntegerArgument(null, "numCompressionThreads",
+         false, 1, null,
+         INFO_TRANSFORM_LDIF_ARG_DESC_NUM_COMPRESSION_THREADS.get(
+              compressTarget.getIdentifierString(),
+              numThreads.getIdentifierString()),
+         1, Integer.MAX_VALUE);
+    numCompressionThreads.addLongIdentifier("num-compression-threads", true);
+    parser.addArgument(numCompressionThreads);
+    parser.addDependentArgumentSet(numCompressionThreads, compressTarget);
+
+    displayStageStatistics = new BooleanArgument(null,
+         "displayStageStatistics", 1,
+         INFO_TRANSFORM_LDIF_ARG_DESC_DISPLAY_STAGE_STATS.get());
+    displayStageStatistics.addLongIdentifier("display-stage-statistics",
+         true);
+    parser.addArgument(displayStageStatistics);
+    parser.addExclusiveArgumentSet(displayStageStatistics,
+         targetToStandardOutput);
+
     processDNs = new BooleanArgument('d', "processDNs",
          INFO_TRANSFORM_LDIF_ARG_DESC_PROCESS_DNS.get());
     processDNs.addLongIdentifier("process-dns", true);
@@ -812,6 +930,91 @@ public final class TransformLDIF
                 moveSubtreeFrom.getIdentifierString(),
                 moveSubtreeTo.getIdentifierString()));
     }
+
+
+    // If a sort order was provided, then make sure that it is valid.
+    if (sortOrder.isPresent())
+    {
+      sortKeys = parseSortOrder(sortOrder.getValue());
+      if (sortKeys == null)
+      {
+        throw new ArgumentException(
+             ERR_TRANSFORM_LDIF_INVALID_SORT_ORDER.get(
+                  sortOrder.getIdentifierString()));
+      }
+    }
+    else
+    {
+      sortKeys = null;
+    }
+  }
+
+
+
+  /**
+   * Parses the provided sort order value as a comma-delimited list of
+   * attribute names, each of which may be preceded by "+" for ascending order
+   * or "-" for descending order, and followed by a colon and a matching rule
+   * name or OID.
+   *
+   * @param  value  The sort order value to parse.
+   *
+   * @return  The sort keys parsed from the provided value, or {@code null} if
+   *          the value is not valid.
+   */
+  static List<SortKey> parseSortOrder(final String value)
+  {
+    final ArrayList<SortKey> keys = new ArrayList<SortKey>(5);
+    final StringTokenizer tokenizer = new StringTokenizer(value, ", ");
+    while (tokenizer.hasMoreTokens())
+    {
+      final String token = tokenizer.nextToken();
+
+      final boolean ascending;
+      String attributeName;
+      if (token.startsWith("-"))
+      {
+        ascending = false;
+        attributeName = token.substring(1);
+      }
+      else if (token.startsWith("+"))
+      {
+        ascending = true;
+        attributeName = token.substring(1);
+      }
+      else
+      {
+        ascending = true;
+        attributeName = token;
+      }
+
+      final String matchingRuleID;
+      final int colonPos = attributeName.indexOf(':');
+      if (colonPos >= 0)
+      {
+        matchingRuleID = attributeName.substring(colonPos+1);
+        attributeName = attributeName.substring(0, colonPos);
+      }
+      else
+      {
+        matchingRuleID = null;
+      }
+
+      final StringBuilder invalidReason = new StringBuilder();
+      if (! PersistUtils.isValidLDAPName(attributeName, false, invalidReason))
+      {
+        return null;
+      }
+
+      keys.add(new SortKey(attributeName, matchingRuleID, (! ascending)));
+    }
+
+    if (keys.isEmpty())
+    {
+      return null;
+    }
+
+    return keys;
   }
 
 
@@ -844,8 +1047,53 @@ public final class TransformLDIF
     createTranslators(entryTranslators, changeRecordTranslators,
          schema, excludedEntryCount);
 
-    final AggregateLDIFReaderEntryTranslator entryTranslator =
-         new AggregateLDIFReaderEntryTranslator(entryTranslators);
+    // Transformations that assign values based on the order in which entries
+    // are processed (like replacing values with a sequential counter) must be
+    // applied in the order in which the entries were read.  If multiple
+    // threads will be used, then split the entry translators so that those
+    // transformations will be applied by this thread, the transformations
+    // before them will be applied by the LDIF reader's parse threads, and the
+    // transformations after them (including the final LDIF encoding) will be
+    // applied in parallel to batches of entries.
+    int firstOrderedTranslator = -1;
+    int lastOrderedTranslator = -1;
+    if (numThreads.getValue() > 1)
+    {
+      for (int i=0; i < entryTranslators.size(); i++)
+      {
+        if (entryTranslators.get(i) instanceof ReplaceWithCounterTransformation)
+        {
+          if (firstOrderedTranslator < 0)
+          {
+            firstOrderedTranslator = i;
+          }
+          lastOrderedTranslator = i;
+        }
+      }
+    }
+
+    final AggregateLDIFReaderEntryTranslator entryTranslator;
+    final AggregateLDIFReaderEntryTranslator orderedEntryTranslator;
+    final AggregateLDIFReaderEntryTranslator batchEntryTranslator;
+    if (firstOrderedTranslator < 0)
+    {
+      entryTranslator =
+           new AggregateLDIFReaderEntryTranslator(entryTranslators);
+      orderedEntryTranslator = null;
+      batchEntryTranslator = null;
+    }
+    else
+    {
+      entryTranslator = new AggregateLDIFReaderEntryTranslator(
+           entryTranslators.subList(0, firstOrderedTranslator));
+      orderedEntryTranslator = new AggregateLDIFReaderEntryTranslator(
+           entryTranslators.subList(firstOrderedTranslator,
+                (lastOrderedTranslator + 1)));
+      batchEntryTranslator = new AggregateLDIFReaderEntryTranslator(
+           entryTranslators.subList((lastOrderedTranslator + 1),
+                entryTranslators.size()));
+    }
+
     final AggregateLDIFReaderChangeRecordTranslator changeRecordTranslator =
          new AggregateLDIFReaderChangeRecordTranslator(changeRecordTranslators);
 
@@ -930,8 +1178,80 @@ public final class TransformLDIF
     }
 
 
+    // If the entries should be sorted, then create the sorter.
+    final LDIFEntrySorter entrySorter;
+    if (sortEntries.isPresent())
+    {
+      final EntrySorter comparator;
+      if (sortKeys == null)
+      {
+        comparator = new EntrySorter(true, schema);
+      }
+      else
+      {
+        comparator = new EntrySorter(false, schema, sortKeys);
+      }
+
+      entrySorter = new LDIFEntrySorter(comparator, schema,
+           sortTempDirectory.getValue(), sortMaxEntriesInMemory.getValue(),
+           numThreads.getValue());
+    }
+    else
+    {
+      entrySorter = null;
+    }
+
+
+    // If some of the transformations should be applied to batches of entries,
+    // then create the processor that will be used to do that.  It applies
+    // them asynchronously so that the transformed records can be written while
+    // the next batch is being transformed.  As with the LDIF reader, the
+    // output queue is a little more than twice as big as the input queue so
+    // that the processor can finish any pending records when it is shut down
+    // while both queues are full.
+    final AsynchronousParallelProcessor<LDIFRecord,LDIFRecord>
+         asyncTransformer;
+    final ArrayBlockingQueue<Result<LDIFRecord,LDIFRecord>> transformedRecords;
+    if (batchEntryTranslator == null)
+    {
+      asyncTransformer = null;
+      transformedRecords = null;
+    }
+    else
+    {
+      final ParallelProcessor<LDIFRecord,LDIFRecord> batchProcessor =
+           new ParallelProcessor<LDIFRecord,LDIFRecord>(
+                new TransformationProcessor(batchEntryTranslator),
+                new LDAPSDKThreadFactory("TransformLDIF Worker", true),
+                numThreads.getValue(), TRANSFORM_MIN_PER_THREAD);
+      transformedRecords =
+           new ArrayBlockingQueue<Result<LDIFRecord,LDIFRecord>>(
+                2 * TRANSFORM_QUEUE_SIZE + 100);
+      asyncTransformer =
+           new AsynchronousParallelProcessor<LDIFRecord,LDIFRecord>(
+                new ArrayBlockingQueue<LDIFRecord>(TRANSFORM_QUEUE_SIZE),
+                batchProcessor, transformedRecords);
+    }
+
+
+    // Create the objects used to keep track of the processing performed in
+    // each stage.
+    final long processingStartTime = System.nanoTime();
+    final StageStatistics readStats = new StageStatistics(
+         INFO_TRANSFORM_LDIF_STAGE_READ.get());
+    final StageStatistics orderedTransformStats = new StageStatistics(
+         INFO_TRANSFORM_LDIF_STAGE_ORDERED_TRANSFORM.get());
+    final StageStatistics batchTransformStats = new StageStatistics(
+         INFO_TRANSFORM_LDIF_STAGE_BATCH_TRANSFORM.get());
+    final StageStatistics sortStats = new StageStatistics(
+         INFO_TRANSFORM_LDIF_STAGE_SORT.get());
+    final StageStatistics writeStats = new StageStatistics(
+         INFO_TRANSFORM_LDIF_STAGE_WRITE.get());
+
+
     ResultCode resultCode = ResultCode.SUCCESS;
     OutputStream outputStream = null;
+    ParallelGZIPOutputStream parallelGZIPStream = null;
 processingBlock:
     try
     {
@@ -944,13 +1264,33 @@ processingBlock:
         }
         else
         {
-          outputStream =
-               new FileOutputStream(targetFile, appendToTargetLDIF.isPresent());
+          outputStream = new BufferedOutputStream(
+               new FileOutputStream(targetFile, appendToTargetLDIF.isPresent()),
+               OUTPUT_BUFFER_SIZE);
         }
 
         if (compressTarget.isPresent())
         {
-          outputStream = new GZIPOutputStream(outputStream);
+          final int compressionThreads;
+          if (numCompressionThreads.isPresent())
+          {
+            compressionThreads = numCompressionThreads.getValue();
+          }
+          else
+          {
+            compressionThreads = numThreads.getValue();
+          }
+
+          if (compressionThreads > 1)
+          {
+            parallelGZIPStream =
+                 new ParallelGZIPOutputStream(outputStream, compressionThreads);
+            outputStream = parallelGZIPStream;
+          }
+          else
+          {
+            outputStream = new GZIPOutputStream(outputStream);
+          }
         }
       }
       catch (final Exception e)
@@ -965,14 +1305,23 @@ processingBlock:
       }
 
 
-      // Read the source data one record at a time.  The transformations will
-      // automatically be applied by the LDIF reader's translators, and even if
-      // there are multiple reader threads, we're guaranteed to get the results
-      // in the right order.
+      // Read the source data one record at a time.  Any transformations that
+      // do not depend on the order of the entries will automatically be
+      // applied by the LDIF reader's translators, and even if there are
+      // multiple reader threads, we're guaranteed to get the results in the
+      // right order.  If there are order-dependent transformations, then apply
+      // them here before submitting the record for the remaining
+      // transformations, which will be applied in parallel while this thread
+      // writes the records that have already been transformed.
       long entriesWritten = 0L;
-      while (true)
+      final ArrayList<Result<LDIFRecord,LDIFRecord>> transformResults =
+           new ArrayList<Result<LDIFRecord,LDIFRecord>>(
+                2 * TRANSFORM_QUEUE_SIZE + 100);
+      boolean endOfInput = false;
+      while (! endOfInput)
       {
-        final LDIFRecord ldifRecord;
+        LDIFRecord ldifRecord;
+        final long readStartTime = System.nanoTime();
         try
         {
           ldifRecord = ldifReader.readLDIFRecord();
@@ -1014,67 +1363,250 @@ processingBlock:
         }
 
 
-        // If the LDIF record is null, then we've run out of records so we're
-        // done.
+        // If the LDIF record is null, then we've run out of records, but we
+        // may still need to write records that are being transformed.
         if (ldifRecord == null)
         {
-          break;
+          readStats.update(readStartTime, 0);
+          endOfInput = true;
+        }
+        else
+        {
+          readStats.update(readStartTime, 1);
+
+          if ((orderedEntryTranslator != null) &&
+              (ldifRecord instanceof Entry))
+          {
+            final long orderedStartTime = System.nanoTime();
+            try
+            {
+              ldifRecord =
+                   orderedEntryTranslator.translate((Entry) ldifRecord, 0L);
+            }
+            catch (final Exception e)
+            {
+              Debug.debugException(e);
+              if (! handleTransformationError(e))
+              {
+                resultCode = ResultCode.LOCAL_ERROR;
+                break processingBlock;
+              }
+
+              if (resultCode == ResultCode.SUCCESS)
+              {
+                resultCode = ResultCode.PARAM_ERROR;
+              }
+              continue;
+            }
+            finally
+            {
+              orderedTransformStats.update(orderedStartTime, 1);
+            }
+          }
         }
 
 
-        // Write the record to the output stream.
-        try
+        // Apply the remaining transformations, if any, and get the records
+        // that are ready to be written.  If the transformations are being
+        // applied in parallel, then the time spent in that stage is the time
+        // this thread spent waiting for them.
+        final List<LDIFRecord> outputRecords;
+        if (asyncTransformer == null)
         {
-          if (ldifRecord instanceof PreEncodedLDIFEntry)
+          if (ldifRecord == null)
           {
-            outputStream.write(
-                 ((PreEncodedLDIFEntry) ldifRecord).getLDIFBytes());
+            outputRecords = Collections.emptyList();
           }
           else
           {
-            final ByteStringBuffer buffer = getBuffer();
-            if (wrapColumn.isPresent())
+            outputRecords = Collections.singletonList(ldifRecord);
+          }
+        }
+        else
+        {
+          final long transformStartTime = System.nanoTime();
+          try
+          {
+            if (ldifRecord != null)
             {
-              ldifRecord.toLDIF(buffer, wrapColumn.getValue());
+              asyncTransformer.submit(ldifRecord);
             }
-            else
+
+            if (endOfInput)
             {
-              ldifRecord.toLDIF(buffer, 0);
+              asyncTransformer.shutdown();
             }
-            buffer.append(StaticUtils.EOL_BYTES);
-            buffer.write(outputStream);
           }
+          catch (final Exception e)
+          {
+            Debug.debugException(e);
+            if (e instanceof InterruptedException)
+            {
+              Thread.currentThread().interrupt();
+            }
+
+            wrapErr(0, MAX_OUTPUT_LINE_LENGTH,
+                 ERR_TRANSFORM_LDIF_TRANSFORMATION_ERROR.get(
+                      StaticUtils.getExceptionMessage(e)));
+            resultCode = ResultCode.LOCAL_ERROR;
+            break processingBlock;
+          }
+          finally
+          {
+            batchTransformStats.update(transformStartTime, 0);
+          }
+
+          transformedRecords.drainTo(transformResults);
+          batchTransformStats.update(System.nanoTime(),
+               transformResults.size());
+
+          outputRecords = new ArrayList<LDIFRecord>(transformResults.size());
+          for (final Result<LDIFRecord,LDIFRecord> result : transformResults)
+          {
+            final Throwable failureCause = result.getFailureCause();
+            if (failureCause != null)
+            {
+              Debug.debugException(failureCause);
+              if (! handleTransformationError(failureCause))
+              {
+                resultCode = ResultCode.LOCAL_ERROR;
+                break processingBlock;
+              }
+
+              if (resultCode == ResultCode.SUCCESS)
+              {
+                resultCode = ResultCode.PARAM_ERROR;
+              }
+            }
+            else if (result.getOutput() != null)
+            {
+              outputRecords.add(result.getOutput());
+            }
+          }
+          transformResults.clear();
         }
-        catch (final Exception e)
+
+
+        for (final LDIFRecord outputRecord : outputRecords)
         {
-          Debug.debugException(e);
-          wrapErr(0, MAX_OUTPUT_LINE_LENGTH,
-               ERR_TRANSFORM_LDIF_WRITE_ERROR.get(targetFile.getAbsolutePath(),
-                    StaticUtils.getExceptionMessage(e)));
-          resultCode = ResultCode.LOCAL_ERROR;
-          break processingBlock;
+          // If the entries should be sorted, then add the entry to the sorter
+          // rather than writing it.  Only entries can be sorted.
+          if (entrySorter != null)
+          {
+            if (! (outputRecord instanceof Entry))
+            {
+              wrapErr(0, MAX_OUTPUT_LINE_LENGTH,
+                   ERR_TRANSFORM_LDIF_CANNOT_SORT_CHANGE_RECORD.get(
+                        outputRecord.getDN()));
+              if (resultCode == ResultCode.SUCCESS)
+              {
+                resultCode = ResultCode.PARAM_ERROR;
+              }
+              continue;
+            }
+
+            final long sortStartTime = System.nanoTime();
+            try
+            {
+              entrySorter.addEntry((Entry) outputRecord);
+            }
+            catch (final Exception e)
+            {
+              Debug.debugException(e);
+              wrapErr(0, MAX_OUTPUT_LINE_LENGTH,
+                   ERR_TRANSFORM_LDIF_SORT_ERROR.get(
+                        StaticUtils.getExceptionMessage(e)));
+              resultCode = ResultCode.LOCAL_ERROR;
+              break processingBlock;
+            }
+            finally
+            {
+              sortStats.update(sortStartTime, 1);
+            }
+
+            continue;
+          }
+
+
+          // Write the record to the output stream.
+          final long writeStartTime = System.nanoTime();
+          try
+          {
+            writeRecord(outputRecord, outputStream);
+          }
+          catch (final Exception e)
+          {
+            Debug.debugException(e);
+            wrapErr(0, MAX_OUTPUT_LINE_LENGTH,
+                 ERR_TRANSFORM_LDIF_WRITE_ERROR.get(
+                      targetFile.getAbsolutePath(),
+                      StaticUtils.getExceptionMessage(e)));
+            resultCode = ResultCode.LOCAL_ERROR;
+            break processingBlock;
+          }
+          finally
+          {
+            writeStats.update(writeStartTime, 1);
+          }
+
+          entriesWritten++;
+          writeProgressMessage(entriesWritten, excludedEntryCount);
         }
+      }
 
 
-        // If we've written a multiple of 1000 entries, print a progress
-        // message.
-        entriesWritten++;
-        if ((! targetToStandardOutput.isPresent()) &&
-            ((entriesWritten % 1000L) == 0))
+      // If the entries were sorted, then write them in sorted order.
+      if (entrySorter != null)
+      {
+        while (true)
         {
-          final long numExcluded = excludedEntryCount.get();
-          if (numExcluded > 0L)
+          final Entry entry;
+          final long sortStartTime = System.nanoTime();
+          try
           {
-            wrapOut(0, MAX_OUTPUT_LINE_LENGTH,
-                 INFO_TRANSFORM_LDIF_WROTE_ENTRIES_WITH_EXCLUDED.get(
-                      entriesWritten, numExcluded));
+            entry = entrySorter.nextEntry();
           }
-          else
+          catch (final Exception e)
+          {
+            Debug.debugException(e);
+            wrapErr(0, MAX_OUTPUT_LINE_LENGTH,
+                 ERR_TRANSFORM_LDIF_SORT_ERROR.get(
+                      StaticUtils.getExceptionMessage(e)));
+            resultCode = ResultCode.LOCAL_ERROR;
+            break processingBlock;
+          }
+          finally
+          {
+            sortStats.update(sortStartTime, 0);
+          }
+
+          if (entry == null)
+          {
+            break;
+          }
+
+          final long writeStartTime = System.nanoTime();
+          try
+          {
+            writeRecord(entry, outputStream);
+          }
+          catch (final Exception e)
           {
-            wrapOut(0, MAX_OUTPUT_LINE_LENGTH,
-                 INFO_TRANSFORM_LDIF_WROTE_ENTRIES_NONE_EXCLUDED.get(
-                      entriesWritten));
+            Debug.debugException(e);
+            wrapErr(0, MAX_OUTPUT_LINE_LENGTH,
+                 ERR_TRANSFORM_LDIF_WRITE_ERROR.get(
+                      targetFile.getAbsolutePath(),
+                      StaticUtils.getExceptionMessage(e)));
+            resultCode = ResultCode.LOCAL_ERROR;
+            break processingBlock;
           }
+          finally
+          {
+            writeStats.update(writeStartTime, 1);
+          }
+
+          entriesWritten++;
+          writeProgressMessage(entriesWritten, excludedEntryCount);
         }
       }
 
@@ -1126,6 +1658,72 @@ processingBlock:
         Debug.debugException(e);
         // We can ignore this.
       }
+
+      if (entrySorter != null)
+      {
+        entrySorter.close();
+      }
+
+      if (asyncTransformer != null)
+      {
+        // Discard any records that will not be written so that the processor
+        // will not block while finishing the pending records.
+        transformedRecords.clear();
+        try
+        {
+          asyncTransformer.shutdown();
+        }
+        catch (final InterruptedException e)
+        {
+          Debug.debugException(e);
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+
+
+    // If appropriate, display statistics about the processing performed in
+    // each stage.
+    if (displayStageStatistics.isPresent())
+    {
+      final long totalNanos = System.nanoTime() - processingStartTime;
+      out();
+      wrapOut(0, MAX_OUTPUT_LINE_LENGTH,
+           INFO_TRANSFORM_LDIF_STAGE_STATS_HEADER.get(
+                (totalNanos / 1000000L)));
+
+      final StageStatistics[] stages;
+      if (entrySorter == null)
+      {
+        stages = new StageStatistics[]
+        {
+          readStats, orderedTransformStats, batchTransformStats, writeStats
+        };
+      }
+      else
+      {
+        stages = new StageStatistics[]
+        {
+          readStats, orderedTransformStats, batchTransformStats, sortStats,
+          writeStats
+        };
+      }
+
+      for (final StageStatistics stage : stages)
+      {
+        wrapOut(2, MAX_OUTPUT_LINE_LENGTH,
+             INFO_TRANSFORM_LDIF_STAGE_STATS_LINE.get(stage.getName(),
+                  stage.getNumRecords(), (stage.getNanos() / 1000000L)));
+      }
+
+      if (parallelGZIPStream != null)
+      {
+        wrapOut(2, MAX_OUTPUT_LINE_LENGTH,
+             INFO_TRANSFORM_LDIF_STAGE_STATS_COMPRESSION.get(
+                  parallelGZIPStream.getUncompressedBytes(),
+                  parallelGZIPStream.getCompressedBytes(),
+                  (parallelGZIPStream.getCompressionNanos() / 1000000L)));
+      }
     }
 
 
@@ -1134,6 +1732,102 @@ processingBlock:
 
 
 
+  /**
+   * Reports an error that occurred while applying transformations to a
+   * record.
+   *
+   * @param  t  The error that occurred.
+   *
+   * @return  {@code true} if the record should be skipped and processing may
+   *          continue, or {@code false} if processing should stop.
+   */
+  private boolean handleTransformationError(final Throwable t)
+  {
+    if ((t instanceof LDIFException) &&
+        ((LDIFException) t).mayContinueReading())
+    {
+      wrapErr(0, MAX_OUTPUT_LINE_LENGTH,
+           ERR_TRANSFORM_LDIF_RECOVERABLE_MALFORMED_RECORD.get(
+                StaticUtils.getExceptionMessage(t)));
+      return true;
+    }
+
+    wrapErr(0, MAX_OUTPUT_LINE_LENGTH,
+         ERR_TRANSFORM_LDIF_TRANSFORMATION_ERROR.get(
+              StaticUtils.getExceptionMessage(t)));
+    return false;
+  }
+
+
+
+  /**
+   * Writes the provided record to the given output stream.
+   *
+   * @param  ldifRecord    The record to be written.
+   * @param  outputStream  The output stream to which the record should be
+   *                       written.
+   *
+   * @throws  IOException  If a problem occurs while writing the record.
+   */
+  private void writeRecord(final LDIFRecord ldifRecord,
+                           final OutputStream outputStream)
+          throws IOException
+  {
+    if (ldifRecord instanceof PreEncodedLDIFEntry)
+    {
+      outputStream.write(((PreEncodedLDIFEntry) ldifRecord).getLDIFBytes());
+    }
+    else
+    {
+      final ByteStringBuffer buffer = getBuffer();
+      if (wrapColumn.isPresent())
+      {
+        ldifRecord.toLDIF(buffer, wrapColumn.getValue());
+      }
+      else
+      {
+        ldifRecord.toLDIF(buffer, 0);
+      }
+      buffer.append(StaticUtils.EOL_BYTES);
+      buffer.write(outputStream);
+    }
+  }
+
+
+
+  /**
+   * Writes a progress message if the provided number of entries written is a
+   * multiple of 1000 and the output is not being written to standard output.
+   *
+   * @param  entriesWritten      The number of entries that have been written.
+   * @param  excludedEntryCount  A counter used to keep track of the number of
+   *                             entries that have been excluded from the
+   *                             result set.
+   */
+  private void writeProgressMessage(final long entriesWritten,
+                                    final AtomicLong excludedEntryCount)
+  {
+    if ((! targetToStandardOutput.isPresent()) &&
+        ((entriesWritten % 1000L) == 0))
+    {
+      final long numExcluded = excludedEntryCount.get();
+      if (numExcluded > 0L)
+      {
+        wrapOut(0, MAX_OUTPUT_LINE_LENGTH,
+             INFO_TRANSFORM_LDIF_WROTE_ENTRIES_WITH_EXCLUDED.get(
+                  entriesWritten, numExcluded));
+      }
+      else
+      {
+        wrapOut(0, MAX_OUTPUT_LINE_LENGTH,
+             INFO_TRANSFORM_LDIF_WROTE_ENTRIES_NONE_EXCLUDED.get(
+                  entriesWritten));
+      }
+    }
+  }
+
+
+
   /**
    * Retrieves the schema that should be used for processing.
    *
@@ -1518,4 +2212,134 @@ processingBlock:
 
     return buffer;
   }
+
+
+
+  /**
+   * A processor that is used to apply a set of transformations to records in
+   * parallel.  Change records will be returned without being altered.
+   */
+  private static final class TransformationProcessor
+          implements Processor<LDIFRecord,LDIFRecord>
+  {
+    // The translator that will be used to transform entries.
+    private final LDIFReaderEntryTranslator entryTranslator;
+
+
+
+    /**
+     * Creates a new transformation processor with the provided translator.
+     *
+     * @param  entryTranslator  The translator that will be used to transform
+     *                          entries.
+     */
+    private TransformationProcessor(
+                 final LDIFReaderEntryTranslator entryTranslator)
+    {
+      this.entryTranslator = entryTranslator;
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    public LDIFRecord process(final LDIFRecord input)
+           throws LDIFException
+    {
+      if (input instanceof Entry)
+      {
+        return entryTranslator.translate((Entry) input, 0L);
+      }
+      else
+      {
+        return input;
+      }
+    }
+  }
+
+
+
+  /**
+   * A data structure used to keep track of the number of records handled by a
+   * processing stage and the total time spent in that stage.
+   */
+  private static final class StageStatistics
+  {
+    // The number of records handled by the stage.
+    private long numRecords;
+
+    // The total time spent in the stage, in nanoseconds.
+    private long nanos;
+
+    // The name for the stage.
+    private final String name;
+
+
+
+    /**
+     * Creates a new set of stage statistics with the provided name.
+     *
+     * @param  name  The name for the stage.
+     */
+    private StageStatistics(final String name)
+    {
+      this.name = name;
+
+      numRecords = 0L;
+      nanos = 0L;
+    }
+
+
+
+    /**
+     * Updates the statistics for this stage.
+     *
+     * @param  startNanos  The value of {@code System.nanoTime()} when the
+     *                     processing started.
+     * @param  records     The number of records that were processed.
+     */
+    private void update(final long startNanos, final int records)
+    {
+      nanos += (System.nanoTime() - startNanos);
+      numRecords += records;
+    }
+
+
+
+    /**
+     * Retrieves the name for this stage.
+     *
+     * @return  The name for this stage.
+     */
+    private String getName()
+    {
+      return name;
+    }
+
+
+
+    /**
+     * Retrieves the number of records handled by this stage.
+     *
+     * @return  The number of records handled by this stage.
+     */
+    private long getNumRecords()
+    {
+      return numRecords;
+    }
+
+
+
+    /**
+     * Retrieves the total time spent in this stage, in nanoseconds.
+     *
+     * @return  The total time spent in this stage, in nanoseconds.
+     */
+    private long getNanos()
+    {
+      return nanos;
+    }
+  }
 }
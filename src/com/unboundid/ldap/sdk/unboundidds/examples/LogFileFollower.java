@@ -0,0 +1,392 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.unboundidds.examples;
+
+
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import com.unboundid.util.ByteStringBuffer;
+import com.unboundid.util.Debug;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+
+
+/**
+ * This class provides a mechanism for reading lines from a log file as they
+ * are written, in a manner similar to the "tail -F" command.  If the file is
+ * rotated (so that the path refers to a different file than the one that was
+ * being read) or truncated, then reading will continue from the beginning of
+ * the new content.  If the file does not exist, then the follower will wait
+ * for it to be created.
+ * <BR>
+ * <BLOCKQUOTE>
+ *   <B>NOTE:</B>  This class, and other classes within the
+ *   {@code com.unboundid.ldap.sdk.unboundidds} package structure, are only
+ *   supported for use against Ping Identity, UnboundID, and Alcatel-Lucent 8661
+ *   server products.  These classes provide support for proprietary
+ *   functionality or for external specifications that are not considered stable
+ *   or mature enough to be guaranteed to work in an interoperable way with
+ *   other types of LDAP servers.
+ * </BLOCKQUOTE>
+ * <BR>
+ * Rotation is detected using the file key provided by the underlying file
+ * system, where available.  On file systems that do not provide file keys,
+ * only rotations that leave the new file smaller than the amount of data
+ * read from the old file will be detected.
+ */
+@ThreadSafety(level=ThreadSafetyLevel.NOT_THREADSAFE)
+final class LogFileFollower
+      implements Closeable
+{
+  /**
+   * The size of the buffer used to read data from the file.
+   */
+  private static final int READ_BUFFER_SIZE = 65536;
+
+
+
+  // The buffer used to hold a line that has been only partially read.
+  private final ByteStringBuffer lineBuffer;
+
+  // The buffer used to read data from the file.
+  private final byte[] readBuffer;
+
+  // The file being followed.
+  private final File file;
+
+  // The length of time in milliseconds to wait between checks for new data.
+  private final long pollIntervalMillis;
+
+  // The number of bytes in the read buffer, and the position of the next byte
+  // to be consumed from it.
+  private int readLength;
+  private int readOffset;
+
+  // The number of times that the file has been rotated or truncated.
+  private long numRotations;
+
+  // The position in the file from which the next data will be read.
+  private long position;
+
+  // The file key for the file that is currently open, if available.
+  private Object fileKey;
+
+  // The file that is currently open.  It will be null if the file does not
+  // exist.
+  private RandomAccessFile raf;
+
+
+
+  /**
+   * Creates a new log file follower for the specified file.
+   *
+   * @param  file                The file to follow.  It must not be
+   *                             {@code null}.
+   * @param  fromBeginning       Indicates whether to read the existing contents
+   *                             of the file.  If this is {@code false}, then
+   *                             only data written after the follower is
+   *                             created will be read.  Files created after a
+   *                             rotation are always read from the beginning.
+   * @param  pollIntervalMillis  The length of time in milliseconds to wait
+   *                             between checks for new data.
+   *
+   * @throws  IOException  If a problem occurs while opening the file.
+   */
+  LogFileFollower(final File file, final boolean fromBeginning,
+                  final long pollIntervalMillis)
+         throws IOException
+  {
+    this.file               = file;
+    this.pollIntervalMillis = pollIntervalMillis;
+
+    lineBuffer   = new ByteStringBuffer();
+    readBuffer   = new byte[READ_BUFFER_SIZE];
+    readLength   = 0;
+    readOffset   = 0;
+    numRotations = 0L;
+    position     = 0L;
+    fileKey      = null;
+    raf          = null;
+
+    if (file.exists())
+    {
+      open();
+      if (! fromBeginning)
+      {
+        position = raf.length();
+        raf.seek(position);
+      }
+    }
+  }
+
+
+
+  /**
+   * Indicates whether the file being followed is currently open.  It will not
+   * be open if the file did not exist the last time it was checked.
+   *
+   * @return  {@code true} if the file is currently open, or {@code false} if
+   *          not.
+   */
+  boolean isOpen()
+  {
+    return (raf != null);
+  }
+
+
+
+  /**
+   * Retrieves the number of times that the file has been rotated or truncated
+   * since the follower was created.
+   *
+   * @return  The number of times that the file has been rotated or truncated.
+   */
+  long getNumRotations()
+  {
+    return numRotations;
+  }
+
+
+
+  /**
+   * Reads the next complete line from the file, waiting up to the specified
+   * length of time for one to become available.  Lines are expected to be
+   * terminated by a line feed, optionally preceded by a carriage return, and
+   * a line will not be returned until its terminator has been written.
+   *
+   * @param  timeoutMillis  The maximum length of time in milliseconds to wait
+   *                        for a line to become available.
+   *
+   * @return  The line that was read, without its terminator, or {@code null}
+   *          if no complete line became available within the timeout.
+   *
+   * @throws  IOException  If a problem occurs while reading from the file.
+   *
+   * @throws  InterruptedException  If the thread is interrupted while waiting
+   *                                for data.
+   */
+  String readLine(final long timeoutMillis)
+         throws IOException, InterruptedException
+  {
+    final long stopTime = System.currentTimeMillis() + timeoutMillis;
+    while (true)
+    {
+      // Look for the end of a line in the data that has already been read.
+      for (int i=readOffset; i < readLength; i++)
+      {
+        if (readBuffer[i] == '\n')
+        {
+          lineBuffer.append(readBuffer, readOffset, (i - readOffset));
+          readOffset = i + 1;
+
+          final int length = lineBuffer.length();
+          if ((length > 0) &&
+              (lineBuffer.getBackingArray()[length - 1] == '\r'))
+          {
+            lineBuffer.setLength(length - 1);
+          }
+
+          final String line = lineBuffer.toString();
+          lineBuffer.clear();
+          return line;
+        }
+      }
+
+      lineBuffer.append(readBuffer, readOffset, (readLength - readOffset));
+      readOffset = 0;
+      readLength = 0;
+
+      if (raf != null)
+      {
+        final int bytesRead = raf.read(readBuffer);
+        if (bytesRead > 0)
+        {
+          readLength = bytesRead;
+          position += bytesRead;
+          continue;
+        }
+      }
+
+      // There is no more data in the current file, so see if it has been
+      // rotated or truncated before waiting for more to be written.
+      if (checkForRotation())
+      {
+        continue;
+      }
+
+      final long remainingMillis = stopTime - System.currentTimeMillis();
+      if (remainingMillis <= 0L)
+      {
+        return null;
+      }
+
+      Thread.sleep(Math.min(pollIntervalMillis, remainingMillis));
+    }
+  }
+
+
+
+  /**
+   * Determines whether the file has been created, rotated, or truncated since
+   * it was last checked and, if so, prepares to read the new content from the
+   * beginning.  Any partial line read from the old content will be discarded.
+   *
+   * @return  {@code true} if there may be new content to read, or
+   *          {@code false} if not.
+   *
+   * @throws  IOException  If a problem occurs while opening the file.
+   */
+  private boolean checkForRotation()
+          throws IOException
+  {
+    if (raf == null)
+    {
+      if (file.exists())
+      {
+        open();
+        return true;
+      }
+
+      return false;
+    }
+
+    final Object currentKey;
+    try
+    {
+      currentKey = Files.readAttributes(file.toPath(),
+           BasicFileAttributes.class).fileKey();
+    }
+    catch (final IOException ioe)
+    {
+      // The file has been moved but not yet replaced.  Keep reading from the
+      // old file until the new one appears.
+      Debug.debugException(ioe);
+      return false;
+    }
+
+    if ((currentKey != null) && (! currentKey.equals(fileKey)))
+    {
+      close();
+      open();
+      numRotations++;
+      return true;
+    }
+
+    if (file.length() < position)
+    {
+      lineBuffer.clear();
+      position = 0L;
+      raf.seek(0L);
+      numRotations++;
+      return true;
+    }
+
+    return false;
+  }
+
+
+
+  /**
+   * Opens the file and prepares to read it from the beginning.  The file key
+   * is read both before and after the file is opened, and the file will be
+   * opened again if they differ, so that the key always matches the file that
+   * was opened even if the file is rotated at the same time.
+   *
+   * @throws  IOException  If a problem occurs while opening the file.
+   */
+  private void open()
+          throws IOException
+  {
+    while (true)
+    {
+      final Object keyBeforeOpen = getFileKey();
+      raf = new RandomAccessFile(file, "r");
+      fileKey = getFileKey();
+
+      if ((keyBeforeOpen == null) || (fileKey == null) ||
+          keyBeforeOpen.equals(fileKey))
+      {
+        break;
+      }
+
+      // The file was rotated while it was being opened, so it isn't known
+      // which file was opened.  Try again.
+      raf.close();
+    }
+
+    lineBuffer.clear();
+    position = 0L;
+  }
+
+
+
+  /**
+   * Retrieves the key that uniquely identifies the file currently at the
+   * followed path.
+   *
+   * @return  The key for the file currently at the followed path, or
+   *          {@code null} if it is not available.
+   */
+  private Object getFileKey()
+  {
+    try
+    {
+      return Files.readAttributes(file.toPath(),
+           BasicFileAttributes.class).fileKey();
+    }
+    catch (final IOException ioe)
+    {
+      Debug.debugException(ioe);
+      return null;
+    }
+  }
+
+
+
+  /**
+   * Closes the file being followed, if it is open.
+   *
+   * @throws  IOException  If a problem occurs while closing the file.
+   */
+  @Override()
+  public void close()
+         throws IOException
+  {
+    if (raf != null)
+    {
+      try
+      {
+        raf.close();
+      }
+      finally
+      {
+        raf = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,1087 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.unboundidds.examples;
+
+
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import com.unboundid.ldap.sdk.LDAPConnection;
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.ldap.sdk.ResultCode;
+import com.unboundid.ldap.sdk.Version;
+import com.unboundid.ldap.sdk.unboundidds.logs.AccessLogMessage;
+import com.unboundid.ldap.sdk.unboundidds.logs.AccessLogMessageType;
+import com.unboundid.ldap.sdk.unboundidds.logs.AccessLogOperationType;
+import com.unboundid.ldap.sdk.unboundidds.logs.AccessLogReader;
+import com.unboundid.ldap.sdk.unboundidds.logs.LogException;
+import com.unboundid.ldap.sdk.unboundidds.logs.
+            MinimalOperationResultAccessLogMessage;
+import com.unboundid.ldap.sdk.unboundidds.logs.OperationAccessLogMessage;
+import com.unboundid.ldap.sdk.unboundidds.logs.
+            OperationRequestAccessLogMessage;
+import com.unboundid.util.ColumnFormatter;
+import com.unboundid.util.Debug;
+import com.unboundid.util.FormattableColumn;
+import com.unboundid.util.HorizontalAlignment;
+import com.unboundid.util.LDAPCommandLineTool;
+import com.unboundid.util.LatencyHistogram;
+import com.unboundid.util.OutputFormat;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.ValuePattern;
+import com.unboundid.util.args.ArgumentException;
+import com.unboundid.util.args.ArgumentParser;
+import com.unboundid.util.args.BooleanArgument;
+import com.unboundid.util.args.IntegerArgument;
+import com.unboundid.util.args.StringArgument;
+
+import static com.unboundid.util.StaticUtils.*;
+
+
+
+/**
+ * This class provides a tool that may be used to replay the searches, binds,
+ * and modifies recorded in one or more access log files from Ping Identity,
+ * UnboundID and Alcatel-Lucent 8661 server products against a directory
+ * server, and to compare the response times observed during the replay with
+ * the processing times recorded in the log.
+ * <BR>
+ * <BLOCKQUOTE>
+ *   <B>NOTE:</B>  This class, and other classes within the
+ *   {@code com.unboundid.ldap.sdk.unboundidds} package structure, are only
+ *   supported for use against Ping Identity, UnboundID, and Alcatel-Lucent 8661
+ *   server products.  These classes provide support for proprietary
+ *   functionality or for external specifications that are not considered stable
+ *   or mature enough to be guaranteed to work in an interoperable way with
+ *   other types of LDAP servers.
+ * </BLOCKQUOTE>
+ * <BR>
+ * Operations are replayed at the same times, relative to the first replayed
+ * operation, as they were originally received, although the replay may be
+ * sped up or slowed down by a given percentage, or operations may be replayed
+ * as quickly as possible.  Each client connection in the log is assigned to
+ * one of a fixed number of replay connections, and all of the operations from
+ * a given client connection are sent over the same connection, in order.
+ * Operations are sent asynchronously at their scheduled times, without waiting
+ * for earlier operations to complete, so a slow operation does not delay any
+ * other operation, and the response times for replayed operations are
+ * measured from the times that they were scheduled to be sent.  The log files
+ * may use either the default format with separate request and result messages,
+ * or the format in which they are combined on the same line.
+ * <BR><BR>
+ * Because access logs do not include all of the information in the original
+ * requests, the replay is an approximation of the original workload:
+ * <UL>
+ *   <LI>Binds are only replayed if a replay bind password is provided, in
+ *       which case simple binds are replayed with that password over separate
+ *       connections so that they do not alter the authorization identity used
+ *       for the other replayed operations.  Binds cannot be processed
+ *       asynchronously, so they are replayed by a pool of bind threads.  SASL
+ *       binds are not replayed.</LI>
+ *   <LI>Modifies replace the values of each of the attributes named in the log
+ *       with a value generated from a value pattern, so they will alter the
+ *       data in the target server.</LI>
+ *   <LI>Search result entries and references are discarded.</LI>
+ * </UL>
+ * <BR>
+ * The APIs demonstrated by this example include:
+ * <UL>
+ *   <LI>Access log parsing (from the
+ *       {@code com.unboundid.ldap.sdk.unboundidds.logs} package)</LI>
+ *   <LI>The LDAP command-line tool API.</LI>
+ *   <LI>Argument parsing.</LI>
+ *   <LI>Response time histograms (from the
+ *       {@code com.unboundid.util.LatencyHistogram} class).</LI>
+ * </UL>
+ */
+@ThreadSafety(level=ThreadSafetyLevel.NOT_THREADSAFE)
+public final class ReplayAccessLog
+       extends LDAPCommandLineTool
+{
+  /**
+   * The default value pattern that will be used to generate the values for
+   * replayed modifications.
+   */
+  private static final String DEFAULT_MODIFY_VALUE_PATTERN =
+       "replayed-[0-999999999]";
+
+
+
+  /**
+   * The maximum number of requests without a corresponding result that will be
+   * remembered.  Requests whose results were never logged (for example,
+   * because the log ends or the operation was abandoned) will be forgotten,
+   * oldest first, once this limit is reached.
+   */
+  private static final int MAX_PENDING_REQUESTS = 100000;
+
+
+
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = 6542386530152471204L;
+
+
+
+  // The argument parser for this tool.
+  private ArgumentParser argumentParser;
+
+  // The argument used to indicate that operations should be replayed as
+  // quickly as possible.
+  private BooleanArgument asFastAsPossible;
+
+  // The argument used to indicate that the log files are compressed.
+  private BooleanArgument isCompressed;
+
+  // The argument used to specify the number of replay connections.
+  private IntegerArgument numThreads;
+
+  // The argument used to specify the replay speed as a percentage of the
+  // original speed.
+  private IntegerArgument speedPercent;
+
+  // The argument used to specify the value pattern for replayed modifies.
+  private StringArgument modifyValuePattern;
+
+  // The argument used to specify the types of operations to replay.
+  private StringArgument operationType;
+
+  // The argument used to specify the password for replayed binds.
+  private StringArgument replayBindPassword;
+
+  // The histograms for the processing times recorded in the log.
+  private final LatencyHistogram logBindHistogram;
+  private final LatencyHistogram logModifyHistogram;
+  private final LatencyHistogram logSearchHistogram;
+
+  // The number of operations of each type recorded in the log as failed.
+  private long logBindErrors;
+  private long logModifyErrors;
+  private long logSearchErrors;
+
+  // The number of operations handed to the sender.
+  private long numReplayed;
+
+  // The times used to schedule replayed operations.  The base log time will
+  // be negative until the first operation has been replayed.
+  private long baseLogTimeMillis;
+  private long baseReplayTimeNanos;
+
+
+
+  /**
+   * Parse the provided command line arguments and perform the appropriate
+   * processing.
+   *
+   * @param  args  The command line arguments provided to this program.
+   */
+  public static void main(final String[] args)
+  {
+    final ResultCode resultCode = main(args, System.out, System.err);
+    if (resultCode != ResultCode.SUCCESS)
+    {
+      System.exit(resultCode.intValue());
+    }
+  }
+
+
+
+  /**
+   * Parse the provided command line arguments and perform the appropriate
+   * processing.
+   *
+   * @param  args       The command line arguments provided to this program.
+   * @param  outStream  The output stream to which standard out should be
+   *                    written.  It may be {@code null} if output should be
+   *                    suppressed.
+   * @param  errStream  The output stream to which standard error should be
+   *                    written.  It may be {@code null} if error messages
+   *                    should be suppressed.
+   *
+   * @return  A result code indicating whether the processing was successful.
+   */
+  public static ResultCode main(final String[] args,
+                                final OutputStream outStream,
+                                final OutputStream errStream)
+  {
+    final ReplayAccessLog tool = new ReplayAccessLog(outStream, errStream);
+    return tool.runTool(args);
+  }
+
+
+
+  /**
+   * Creates a new instance of this tool.
+   *
+   * @param  outStream  The output stream to which standard out should be
+   *                    written.  It may be {@code null} if output should be
+   *                    suppressed.
+   * @param  errStream  The output stream to which standard error should be
+   *                    written.  It may be {@code null} if error messages
+   *                    should be suppressed.
+   */
+  public ReplayAccessLog(final OutputStream outStream,
+                         final OutputStream errStream)
+  {
+    super(outStream, errStream);
+
+    logBindHistogram   = new LatencyHistogram();
+    logModifyHistogram = new LatencyHistogram();
+    logSearchHistogram = new LatencyHistogram();
+
+    logBindErrors       = 0L;
+    logModifyErrors     = 0L;
+    logSearchErrors     = 0L;
+    numReplayed         = 0L;
+    baseLogTimeMillis   = -1L;
+    baseReplayTimeNanos = 0L;
+  }
+
+
+
+  /**
+   * Retrieves the name for this tool.
+   *
+   * @return  The name for this tool.
+   */
+  @Override()
+  public String getToolName()
+  {
+    return "replay-access-log";
+  }
+
+
+
+  /**
+   * Retrieves the description for this tool.
+   *
+   * @return  The description for this tool.
+   */
+  @Override()
+  public String getToolDescription()
+  {
+    return "Replay the searches, binds, and modifies recorded in one or " +
+         "more access log files from Ping Identity, UnboundID, or " +
+         "Alcatel-Lucent 8661 server products against a directory server, " +
+         "and compare the response times observed during the replay with " +
+         "the processing times recorded in the log.";
+  }
+
+
+
+  /**
+   * Retrieves the version string for this tool.
+   *
+   * @return  The version string for this tool.
+   */
+  @Override()
+  public String getToolVersion()
+  {
+    return Version.NUMERIC_VERSION_STRING;
+  }
+
+
+
+  /**
+   * Retrieves the minimum number of unnamed trailing arguments that are
+   * required.
+   *
+   * @return  One, to indicate that at least one trailing argument (representing
+   *          the path to an access log file) must be provided.
+   */
+  @Override()
+  public int getMinTrailingArguments()
+  {
+    return 1;
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of unnamed trailing arguments that may be
+   * provided for this tool.
+   *
+   * @return  The maximum number of unnamed trailing arguments that may be
+   *          provided for this tool.
+   */
+  @Override()
+  public int getMaxTrailingArguments()
+  {
+    return -1;
+  }
+
+
+
+  /**
+   * Retrieves a placeholder string that should be used for trailing arguments
+   * in the usage information for this tool.
+   *
+   * @return  A placeholder string that should be used for trailing arguments in
+   *          the usage information for this tool.
+   */
+  @Override()
+  public String getTrailingArgumentsPlaceholder()
+  {
+    return "{path}";
+  }
+
+
+
+  /**
+   * Indicates whether this tool should provide support for an interactive mode,
+   * in which the tool offers a mode in which the arguments can be provided in
+   * a text-driven menu rather than requiring them to be given on the command
+   * line.  If interactive mode is supported, it may be invoked using the
+   * "--interactive" argument.  Alternately, if interactive mode is supported
+   * and {@link #defaultsToInteractiveMode()} returns {@code true}, then
+   * interactive mode may be invoked by simply launching the tool without any
+   * arguments.
+   *
+   * @return  {@code true} if this tool supports interactive mode, or
+   *          {@code false} if not.
+   */
+  @Override()
+  public boolean supportsInteractiveMode()
+  {
+    return true;
+  }
+
+
+
+  /**
+   * Indicates whether this tool defaults to launching in interactive mode if
+   * the tool is invoked without any command-line arguments.  This will only be
+   * used if {@link #supportsInteractiveMode()} returns {@code true}.
+   *
+   * @return  {@code true} if this tool defaults to using interactive mode if
+   *          launched without any command-line arguments, or {@code false} if
+   *          not.
+   */
+  @Override()
+  public boolean defaultsToInteractiveMode()
+  {
+    return true;
+  }
+
+
+
+  /**
+   * Indicates whether this tool should provide arguments for redirecting output
+   * to a file.  If this method returns {@code true}, then the tool will offer
+   * an "--outputFile" argument that will specify the path to a file to which
+   * all standard output and standard error content will be written, and it will
+   * also offer a "--teeToStandardOut" argument that can only be used if the
+   * "--outputFile" argument is present and will cause all output to be written
+   * to both the specified output file and to standard output.
+   *
+   * @return  {@code true} if this tool should provide arguments for redirecting
+   *          output to a file, or {@code false} if not.
+   */
+  @Override()
+  protected boolean supportsOutputFile()
+  {
+    return true;
+  }
+
+
+
+  /**
+   * Indicates whether this tool supports the use of a properties file for
+   * specifying default values for arguments that aren't specified on the
+   * command line.
+   *
+   * @return  {@code true} if this tool supports the use of a properties file
+   *          for specifying default values for arguments that aren't specified
+   *          on the command line, or {@code false} if not.
+   */
+  @Override()
+  public boolean supportsPropertiesFile()
+  {
+    return true;
+  }
+
+
+
+  /**
+   * Indicates whether the LDAP-specific arguments should include alternate
+   * versions of all long identifiers that consist of multiple words so that
+   * they are available in both camelCase and dash-separated versions.
+   *
+   * @return  {@code true} if this tool should provide multiple versions of
+   *          long identifiers for LDAP-specific arguments, or {@code false} if
+   *          not.
+   */
+  @Override()
+  protected boolean includeAlternateLongIdentifiers()
+  {
+    return true;
+  }
+
+
+
+  /**
+   * Adds the arguments needed by this command-line tool to the provided
+   * argument parser which are not related to connecting or authenticating to
+   * the directory server.
+   *
+   * @param  parser  The argument parser to which the arguments should be added.
+   *
+   * @throws  ArgumentException  If a problem occurs while adding the arguments.
+   */
+  @Override()
+  public void addNonLDAPArguments(final ArgumentParser parser)
+         throws ArgumentException
+  {
+    // We need to save a reference to the argument parser so that we can get
+    // the trailing arguments later.
+    argumentParser = parser;
+
+    String description = "Indicates that the log files are compressed.";
+    isCompressed = new BooleanArgument(null, "isCompressed", description);
+    isCompressed.addLongIdentifier("is-compressed", true);
+    parser.addArgument(isCompressed);
+
+    description = "The number of connections to use to replay operations.  " +
+         "Each client connection in the log will be replayed over one of " +
+         "these connections, and operations will be sent over them " +
+         "asynchronously.  If binds are to be replayed, then this is also " +
+         "the number of threads (each with its own connection) that will be " +
+         "used to replay binds.  If this is not provided, a default of 10 " +
+         "will be used.";
+    numThreads = new IntegerArgument('t', "numThreads", true, 1, "{num}",
+         description, 1, Integer.MAX_VALUE, 10);
+    numThreads.addLongIdentifier("num-threads", true);
+    parser.addArgument(numThreads);
+
+    description = "The speed at which to replay operations, as a percentage " +
+         "of the speed at which they were originally received.  For " +
+         "example, a value of 200 will replay operations twice as quickly " +
+         "as they were originally received, and a value of 50 will replay " +
+         "them half as quickly.  If this is not provided, operations will be " +
+         "replayed at their original speed.";
+    speedPercent = new IntegerArgument(null, "speedPercent", false, 1,
+         "{percent}", description, 1, Integer.MAX_VALUE);
+    speedPercent.addLongIdentifier("speed-percent", true);
+    parser.addArgument(speedPercent);
+
+    description = "Indicates that operations should be replayed as quickly " +
+         "as possible rather than at the times they were originally " +
+         "received.  The operations from each client connection will still " +
+         "be replayed in order.";
+    asFastAsPossible = new BooleanArgument(null, "asFastAsPossible", 1,
+         description);
+    asFastAsPossible.addLongIdentifier("as-fast-as-possible", true);
+    parser.addArgument(asFastAsPossible);
+
+    description = "The type of operation to replay.  Allowed values are " +
+         "search, bind, and modify.  This may be provided multiple times.  " +
+         "If it is not provided, all of those types of operations will be " +
+         "replayed.";
+    final LinkedHashSet<String> allowedOperationTypes =
+         new LinkedHashSet<String>(3);
+    allowedOperationTypes.add("search");
+    allowedOperationTypes.add("bind");
+    allowedOperationTypes.add("modify");
+    operationType = new StringArgument(null, "operationType", false, 0,
+         "{search|bind|modify}", description, allowedOperationTypes);
+    operationType.addLongIdentifier("operation-type", true);
+    parser.addArgument(operationType);
+
+    description = "The password to use for replayed simple binds.  Access " +
+         "logs do not include passwords, so binds will only be replayed if " +
+         "this is provided, and they are expected to succeed only if all of " +
+         "the replayed bind DNs have this password in the target server.";
+    replayBindPassword = new StringArgument(null, "replayBindPassword", false,
+         1, "{password}", description);
+    replayBindPassword.addLongIdentifier("replay-bind-password", true);
+    replayBindPassword.setSensitive(true);
+    parser.addArgument(replayBindPassword);
+
+    description = "The value pattern to use to generate the values for " +
+         "replayed modifies.  Access logs include only the names of the " +
+         "attributes targeted by a modify, so each of them will be replaced " +
+         "with a value generated from this pattern.  See " +
+         ValuePattern.PUBLIC_JAVADOC_URL + " for complete details about " +
+         "the value pattern syntax.  If this is not provided, a default " +
+         "pattern of '" + DEFAULT_MODIFY_VALUE_PATTERN + "' will be used.";
+    modifyValuePattern = new StringArgument(null, "modifyValuePattern", false,
+         1, "{pattern}", description, DEFAULT_MODIFY_VALUE_PATTERN);
+    modifyValuePattern.addLongIdentifier("modify-value-pattern", true);
+    parser.addArgument(modifyValuePattern);
+
+    parser.addExclusiveArgumentSet(speedPercent, asFastAsPossible);
+  }
+
+
+
+  /**
+   * Performs the core set of processing for this tool.
+   *
+   * @return  A result code that indicates whether the processing completed
+   *          successfully.
+   */
+  @Override()
+  public ResultCode doToolProcessing()
+  {
+    final ValuePattern valuePattern;
+    try
+    {
+      valuePattern = new ValuePattern(modifyValuePattern.getValue());
+    }
+    catch (final ParseException pe)
+    {
+      Debug.debugException(pe);
+      err("Unable to parse the modify value pattern:  ", pe.getMessage());
+      return ResultCode.PARAM_ERROR;
+    }
+
+    final boolean replaySearches = shouldReplay("search");
+    final boolean replayBinds = shouldReplay("bind");
+    final boolean replayModifies = shouldReplay("modify");
+    if (replayBinds && (! replayBindPassword.isPresent()))
+    {
+      out("Binds will not be replayed because no replay bind password was " +
+           "provided.");
+    }
+
+
+    // Create the connections to use for the replay.
+    final int numConnections = numThreads.getValue();
+    final ArrayList<LDAPConnection> connections =
+         new ArrayList<LDAPConnection>(numConnections);
+    final ArrayList<LDAPConnection> bindConnections =
+         new ArrayList<LDAPConnection>(numConnections);
+    try
+    {
+      for (int i=0; i < numConnections; i++)
+      {
+        connections.add(getConnection());
+        if (replayBinds && replayBindPassword.isPresent())
+        {
+          bindConnections.add(getUnauthenticatedConnection());
+        }
+      }
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      err("Unable to connect to the directory server:  ",
+           le.getExceptionMessage());
+      for (final LDAPConnection c : connections)
+      {
+        c.close();
+      }
+      for (final LDAPConnection c : bindConnections)
+      {
+        c.close();
+      }
+      return le.getResultCode();
+    }
+
+    final ReplayAccessLogSender sender = new ReplayAccessLogSender(
+         connections, bindConnections, replayBindPassword.getValue(),
+         valuePattern, (numConnections *
+              ReplayAccessLogSender.
+                   DEFAULT_MAX_OUTSTANDING_REQUESTS_PER_CONNECTION));
+
+
+    // Read the log files and send the operations at their scheduled times.
+    final long replayStartTime = System.currentTimeMillis();
+    ResultCode resultCode = ResultCode.SUCCESS;
+    final HashMap<Long,Integer> connectionIndexes =
+         new HashMap<Long,Integer>(100);
+    final LinkedHashMap<String,Boolean> pendingRequests =
+         new LinkedHashMap<String,Boolean>(100, 0.75f, false)
+         {
+           private static final long serialVersionUID = 2753802648573412948L;
+
+           @Override()
+           protected boolean removeEldestEntry(
+                                  final Map.Entry<String,Boolean> e)
+           {
+             return (size() > MAX_PENDING_REQUESTS);
+           }
+         };
+    int nextConnection = 0;
+    long logLines = 0L;
+
+readLoop:
+    for (final String path : argumentParser.getTrailingArguments())
+    {
+      final File f = new File(path);
+      out("Replaying access log ", f.getAbsolutePath());
+      final AccessLogReader reader;
+      try
+      {
+        if (isCompressed.isPresent())
+        {
+          reader = new AccessLogReader(new InputStreamReader(
+               new GZIPInputStream(new FileInputStream(f))));
+        }
+        else
+        {
+          reader = new AccessLogReader(f);
+        }
+      }
+      catch (final IOException ioe)
+      {
+        Debug.debugException(ioe);
+        err("Unable to open access log file ", f.getAbsolutePath(), ":  ",
+            getExceptionMessage(ioe));
+        resultCode = ResultCode.LOCAL_ERROR;
+        break;
+      }
+
+      try
+      {
+        while (true)
+        {
+          final AccessLogMessage msg;
+          try
+          {
+            msg = reader.read();
+          }
+          catch (final IOException ioe)
+          {
+            Debug.debugException(ioe);
+            err("Error reading from access log file ", f.getAbsolutePath(),
+                ":  ", getExceptionMessage(ioe));
+            resultCode = ResultCode.LOCAL_ERROR;
+            break readLoop;
+          }
+          catch (final LogException le)
+          {
+            Debug.debugException(le);
+            err("Encountered an error while attempting to parse a line in " +
+                "access log file ", f.getAbsolutePath(), ":  ",
+                getExceptionMessage(le));
+            continue;
+          }
+
+          if (msg == null)
+          {
+            break;
+          }
+
+          logLines++;
+          if (msg.getMessageType() == AccessLogMessageType.DISCONNECT)
+          {
+            connectionIndexes.remove(msg.getConnectionID());
+            continue;
+          }
+
+          if (! (msg instanceof OperationRequestAccessLogMessage))
+          {
+            continue;
+          }
+
+          final OperationRequestAccessLogMessage opMsg =
+               (OperationRequestAccessLogMessage) msg;
+          final AccessLogOperationType opType = opMsg.getOperationType();
+          if (! (((opType == AccessLogOperationType.SEARCH) &&
+                  replaySearches) ||
+                 ((opType == AccessLogOperationType.BIND) && replayBinds) ||
+                 ((opType == AccessLogOperationType.MODIFY) &&
+                  replayModifies)))
+          {
+            continue;
+          }
+
+          // In the default log format, the operation is replayed from the
+          // request message and the processing time is taken from the result
+          // message.  If the request and result are combined on the same
+          // line, then both come from the same message.
+          final String key = getRequestKey(opMsg);
+          if (msg.getMessageType() == AccessLogMessageType.REQUEST)
+          {
+            pendingRequests.put(key, Boolean.TRUE);
+          }
+          else if (msg.getMessageType() == AccessLogMessageType.RESULT)
+          {
+            recordLogResult(opType,
+                 (MinimalOperationResultAccessLogMessage) msg);
+            if (pendingRequests.remove(key) != null)
+            {
+              continue;
+            }
+          }
+          else
+          {
+            continue;
+          }
+
+          Integer connectionIndex =
+               connectionIndexes.get(opMsg.getConnectionID());
+          if (connectionIndex == null)
+          {
+            connectionIndex = nextConnection;
+            nextConnection = (nextConnection + 1) % numConnections;
+            if (opMsg.getConnectionID() != null)
+            {
+              connectionIndexes.put(opMsg.getConnectionID(), connectionIndex);
+            }
+          }
+
+          try
+          {
+            final long scheduledNanos =
+                 waitUntilScheduled(opMsg.getTimestamp().getTime());
+            sender.send(opMsg, connectionIndex, scheduledNanos);
+            numReplayed++;
+          }
+          catch (final InterruptedException ie)
+          {
+            Debug.debugException(ie);
+            err("Interrupted while replaying operations.");
+            resultCode = ResultCode.LOCAL_ERROR;
+            break readLoop;
+          }
+        }
+      }
+      finally
+      {
+        try
+        {
+          reader.close();
+        }
+        catch (final IOException ioe)
+        {
+          Debug.debugException(ioe);
+        }
+      }
+    }
+
+
+    // Wait for the outstanding operations to complete and gather the results.
+    sender.close();
+
+    final LatencyHistogram replayBindHistogram = sender.getBindHistogram();
+    final LatencyHistogram replayModifyHistogram = sender.getModifyHistogram();
+    final LatencyHistogram replaySearchHistogram = sender.getSearchHistogram();
+    final long replayBindErrors = sender.getBindErrors();
+    final long replayModifyErrors = sender.getModifyErrors();
+    final long replaySearchErrors = sender.getSearchErrors();
+    final long numSkipped = sender.getNumSkipped();
+
+    final long replayDurationMillis =
+         System.currentTimeMillis() - replayStartTime;
+
+
+    // Display the comparison between the log and the replay.
+    out();
+    out("Examined ", logLines, " access log messages and replayed ",
+         (numReplayed - numSkipped), " operations in ",
+         millisToHumanReadableDuration(replayDurationMillis), '.');
+    if (numSkipped > 0L)
+    {
+      out(numSkipped, " operations could not be replayed.");
+    }
+    out();
+
+    final ColumnFormatter formatter = new ColumnFormatter(false, null,
+         OutputFormat.COLUMNS, " ",
+         new FormattableColumn(9, HorizontalAlignment.LEFT, "Operation"),
+         new FormattableColumn(6, HorizontalAlignment.LEFT, "Source"),
+         new FormattableColumn(10, HorizontalAlignment.RIGHT, "Count"),
+         new FormattableColumn(10, HorizontalAlignment.RIGHT, "Errors"),
+         new FormattableColumn(10, HorizontalAlignment.RIGHT, "Avg ms"),
+         new FormattableColumn(10, HorizontalAlignment.RIGHT, "P50 ms"),
+         new FormattableColumn(10, HorizontalAlignment.RIGHT, "P90 ms"),
+         new FormattableColumn(10, HorizontalAlignment.RIGHT, "P99 ms"),
+         new FormattableColumn(10, HorizontalAlignment.RIGHT, "Max ms"));
+    for (final String headerLine : formatter.getHeaderLines(true))
+    {
+      out(headerLine);
+    }
+
+    if (replaySearches)
+    {
+      outputRow(formatter, "Search", "Log", logSearchHistogram,
+           logSearchErrors);
+      outputRow(formatter, "Search", "Replay", replaySearchHistogram,
+           replaySearchErrors);
+    }
+
+    if (replayBinds)
+    {
+      outputRow(formatter, "Bind", "Log", logBindHistogram, logBindErrors);
+      outputRow(formatter, "Bind", "Replay", replayBindHistogram,
+           replayBindErrors);
+    }
+
+    if (replayModifies)
+    {
+      outputRow(formatter, "Modify", "Log", logModifyHistogram,
+           logModifyErrors);
+      outputRow(formatter, "Modify", "Replay", replayModifyHistogram,
+           replayModifyErrors);
+    }
+
+    return resultCode;
+  }
+
+
+
+  /**
+   * Indicates whether operations of the specified type should be replayed.
+   *
+   * @param  type  The name of the operation type.
+   *
+   * @return  {@code true} if operations of the specified type should be
+   *          replayed, or {@code false} if not.
+   */
+  private boolean shouldReplay(final String type)
+  {
+    if (! operationType.isPresent())
+    {
+      return true;
+    }
+
+    for (final String value : operationType.getValues())
+    {
+      if (value.equalsIgnoreCase(type))
+      {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+
+
+  /**
+   * Retrieves a string that may be used to correlate the request and result
+   * messages for the same operation.
+   *
+   * @param  msg  The operation log message for which to obtain the key.
+   *
+   * @return  A string that may be used to correlate the request and result
+   *          messages for the same operation.
+   */
+  private static String getRequestKey(final OperationAccessLogMessage msg)
+  {
+    return msg.getConnectionID() + "-" + msg.getOperationID();
+  }
+
+
+
+  /**
+   * Records the processing time and result code from the provided log message
+   * so that they may be compared with those from the replay.
+   *
+   * @param  opType  The operation type for the log message.
+   * @param  msg     The result log message.
+   */
+  private void recordLogResult(final AccessLogOperationType opType,
+                               final MinimalOperationResultAccessLogMessage msg)
+  {
+    final boolean error = (msg.getResultCode() != ResultCode.SUCCESS);
+    final Double processingTimeMillis = msg.getProcessingTimeMillis();
+    final long processingTimeNanos;
+    if (processingTimeMillis == null)
+    {
+      processingTimeNanos = -1L;
+    }
+    else
+    {
+      processingTimeNanos = Math.round(processingTimeMillis * 1000000.0d);
+    }
+
+    final LatencyHistogram histogram;
+    switch (opType)
+    {
+      case SEARCH:
+        histogram = logSearchHistogram;
+        if (error)
+        {
+          logSearchErrors++;
+        }
+        break;
+      case BIND:
+        histogram = logBindHistogram;
+        if (error)
+        {
+          logBindErrors++;
+        }
+        break;
+      case MODIFY:
+        histogram = logModifyHistogram;
+        if (error)
+        {
+          logModifyErrors++;
+        }
+        break;
+      default:
+        return;
+    }
+
+    if (processingTimeNanos >= 0L)
+    {
+      histogram.recordValue(processingTimeNanos);
+    }
+  }
+
+
+
+  /**
+   * Waits until it is time to replay an operation that was originally received
+   * at the specified time.  The first operation replayed will be used to
+   * align the times in the log with the current time.
+   *
+   * @param  logTimeMillis  The time the operation was originally received, in
+   *                        milliseconds since the epoch.
+   *
+   * @return  The time, in terms of {@code System.nanoTime()}, at which the
+   *          operation was scheduled to be sent.  If operations are to be
+   *          replayed as quickly as possible, then this will be the current
+   *          time.
+   *
+   * @throws  InterruptedException  If the calling thread is interrupted while
+   *                                waiting.
+   */
+  private long waitUntilScheduled(final long logTimeMillis)
+          throws InterruptedException
+  {
+    if (asFastAsPossible.isPresent())
+    {
+      return System.nanoTime();
+    }
+
+    if (baseLogTimeMillis < 0L)
+    {
+      baseLogTimeMillis   = logTimeMillis;
+      baseReplayTimeNanos = System.nanoTime();
+      return baseReplayTimeNanos;
+    }
+
+    final long percent;
+    if (speedPercent.isPresent())
+    {
+      percent = speedPercent.getValue();
+    }
+    else
+    {
+      percent = 100L;
+    }
+
+    final long offsetNanos =
+         (logTimeMillis - baseLogTimeMillis) * 100000000L / percent;
+    final long scheduledNanos = baseReplayTimeNanos + offsetNanos;
+    final long waitMillis = (scheduledNanos - System.nanoTime()) / 1000000L;
+    if (waitMillis > 0L)
+    {
+      Thread.sleep(waitMillis);
+    }
+
+    return scheduledNanos;
+  }
+
+
+
+  /**
+   * Writes a row of the latency comparison table.
+   *
+   * @param  formatter  The column formatter to use to format the row.
+   * @param  operation  The name of the operation type.
+   * @param  source     The source of the response times (either the log or the
+   *                    replay).
+   * @param  histogram  The histogram with the response times, in nanoseconds.
+   * @param  errors     The number of operations that did not complete
+   *                    successfully.
+   */
+  private void outputRow(final ColumnFormatter formatter,
+                         final String operation, final String source,
+                         final LatencyHistogram histogram, final long errors)
+  {
+    out(formatter.formatRow(operation, source, histogram.getCount(), errors,
+         histogram.getMeanValue() / 1000000.0d,
+         histogram.getValueAtPercentile(50.0d) / 1000000.0d,
+         histogram.getValueAtPercentile(90.0d) / 1000000.0d,
+         histogram.getValueAtPercentile(99.0d) / 1000000.0d,
+         histogram.getMaxValue() / 1000000.0d));
+  }
+
+
+
+  /**
+   * Retrieves a set of information that may be used to generate example usage
+   * information.  Each element in the returned map should consist of a map
+   * between an example set of arguments and a string that describes the
+   * behavior of the tool when invoked with that set of arguments.
+   *
+   * @return  A set of information that may be used to generate example usage
+   *          information.  It may be {@code null} or empty if no example usage
+   *          information is available.
+   */
+  @Override()
+  public LinkedHashMap<String[],String> getExampleUsages()
+  {
+    final LinkedHashMap<String[],String> exampleMap =
+         new LinkedHashMap<String[],String>(2);
+
+    String[] args =
+    {
+      "--hostname", "server.example.com",
+      "--port", "389",
+      "--bindDN", "uid=admin,dc=example,dc=com",
+      "--bindPassword", "password",
+      "--numThreads", "20",
+      "/path/to/logs/access"
+    };
+    exampleMap.put(args,
+         "Replay the searches, binds, and modifies from the specified access " +
+              "log against the server at server.example.com:389 at the " +
+              "speed they were originally received, using 20 connections.  " +
+              "Binds will not be replayed because no replay bind password " +
+              "was provided.");
+
+    args = new String[]
+    {
+      "--hostname", "server.example.com",
+      "--port", "389",
+      "--bindDN", "uid=admin,dc=example,dc=com",
+      "--bindPassword", "password",
+      "--operationType", "search",
+      "--speedPercent", "200",
+      "/path/to/logs/access"
+    };
+    exampleMap.put(args,
+         "Replay only the searches from the specified access log against " +
+              "the server at server.example.com:389, at twice the speed " +
+              "they were originally received.");
+
+    return exampleMap;
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.unboundidds.examples;
+
+
+
+import java.io.Serializable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.unboundid.ldap.sdk.AsyncRequestID;
+import com.unboundid.ldap.sdk.AsyncResultListener;
+import com.unboundid.ldap.sdk.AsyncSearchResultListener;
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.ldap.sdk.LDAPResult;
+import com.unboundid.ldap.sdk.ResultCode;
+import com.unboundid.ldap.sdk.SearchResult;
+import com.unboundid.ldap.sdk.SearchResultEntry;
+import com.unboundid.ldap.sdk.SearchResultReference;
+import com.unboundid.util.LatencyHistogram;
+
+
+
+/**
+ * This class provides an asynchronous result listener that will be used by the
+ * {@link ReplayAccessLog} tool to record the response time for a single
+ * replayed operation, measured from the time that the operation was scheduled
+ * to be sent.  Entries and references returned for replayed searches are
+ * discarded.
+ * <BR>
+ * <BLOCKQUOTE>
+ *   <B>NOTE:</B>  This class, and other classes within the
+ *   {@code com.unboundid.ldap.sdk.unboundidds} package structure, are only
+ *   supported for use against Ping Identity, UnboundID, and Alcatel-Lucent 8661
+ *   server products.  These classes provide support for proprietary
+ *   functionality or for external specifications that are not considered stable
+ *   or mature enough to be guaranteed to work in an interoperable way with
+ *   other types of LDAP servers.
+ * </BLOCKQUOTE>
+ */
+final class ReplayAccessLogAsyncListener
+      implements AsyncResultListener, AsyncSearchResultListener, Serializable
+{
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = -4408217064923870215L;
+
+
+
+  // The counter used to track the number of operations that did not complete
+  // successfully.
+  private final AtomicLong errorCounter;
+
+  // The histogram used to track the response times.
+  private final LatencyHistogram histogram;
+
+  // The time that the operation was scheduled to be sent, in nanoseconds.
+  private final long scheduledTime;
+
+  // The semaphore used to limit the number of outstanding operations.
+  private final Semaphore outstandingRequests;
+
+
+
+  /**
+   * Creates a new instance of this listener with the provided information.
+   *
+   * @param  scheduledTime        The time that the operation was scheduled to
+   *                              be sent, in terms of
+   *                              {@code System.nanoTime()}.
+   * @param  histogram            The histogram used to track the response
+   *                              times.
+   * @param  errorCounter         The counter used to track the number of
+   *                              operations that did not complete
+   *                              successfully.
+   * @param  outstandingRequests  The semaphore used to limit the number of
+   *                              outstanding operations.  A permit will be
+   *                              released when the operation completes.
+   */
+  ReplayAccessLogAsyncListener(final long scheduledTime,
+                               final LatencyHistogram histogram,
+                               final AtomicLong errorCounter,
+                               final Semaphore outstandingRequests)
+  {
+    this.scheduledTime       = scheduledTime;
+    this.histogram           = histogram;
+    this.errorCounter        = errorCounter;
+    this.outstandingRequests = outstandingRequests;
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void ldapResultReceived(final AsyncRequestID requestID,
+                                 final LDAPResult ldapResult)
+  {
+    operationCompleted(ldapResult.getResultCode());
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void searchResultReceived(final AsyncRequestID requestID,
+                                   final SearchResult searchResult)
+  {
+    operationCompleted(searchResult.getResultCode());
+  }
+
+
+
+  /**
+   * Indicates that the operation could not be sent, or failed before a
+   * response was received.
+   *
+   * @param  le  The exception that was caught.
+   */
+  void requestFailed(final LDAPException le)
+  {
+    operationCompleted(le.getResultCode());
+  }
+
+
+
+  /**
+   * Records the response time and result for the operation, and releases its
+   * permit.
+   *
+   * @param  resultCode  The result code for the operation.
+   */
+  private void operationCompleted(final ResultCode resultCode)
+  {
+    histogram.recordValue(System.nanoTime() - scheduledTime);
+    if (resultCode != ResultCode.SUCCESS)
+    {
+      errorCounter.incrementAndGet();
+    }
+
+    outstandingRequests.release();
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void searchEntryReturned(final SearchResultEntry searchEntry)
+  {
+    // No implementation required.
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void searchReferenceReturned(
+                   final SearchResultReference searchReference)
+  {
+    // No implementation required.
+  }
+}
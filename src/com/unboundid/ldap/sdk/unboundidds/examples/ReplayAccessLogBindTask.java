@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.unboundidds.examples;
+
+
+
+import java.util.concurrent.BlockingQueue;
+
+import com.unboundid.ldap.sdk.LDAPConnection;
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.ldap.sdk.ResultCode;
+import com.unboundid.ldap.sdk.SimpleBindRequest;
+import com.unboundid.util.Debug;
+
+
+
+/**
+ * This class provides a task that will be used by the {@link ReplayAccessLog}
+ * tool to replay a single bind in one of its bind threads.  The bind will be
+ * processed over a connection borrowed from the set of bind connections, so
+ * that it does not alter the authorization identity used for any other
+ * replayed operations.
+ * <BR>
+ * <BLOCKQUOTE>
+ *   <B>NOTE:</B>  This class, and other classes within the
+ *   {@code com.unboundid.ldap.sdk.unboundidds} package structure, are only
+ *   supported for use against Ping Identity, UnboundID, and Alcatel-Lucent 8661
+ *   server products.  These classes provide support for proprietary
+ *   functionality or for external specifications that are not considered stable
+ *   or mature enough to be guaranteed to work in an interoperable way with
+ *   other types of LDAP servers.
+ * </BLOCKQUOTE>
+ */
+final class ReplayAccessLogBindTask
+      implements Runnable
+{
+  // The connections available for use in processing binds.
+  private final BlockingQueue<LDAPConnection> bindConnections;
+
+  // The listener that will record the result of the bind.
+  private final ReplayAccessLogAsyncListener listener;
+
+  // The bind request to process.
+  private final SimpleBindRequest bindRequest;
+
+
+
+  /**
+   * Creates a new bind task with the provided information.
+   *
+   * @param  bindRequest      The bind request to process.
+   * @param  bindConnections  The connections available for use in processing
+   *                          binds.  There must be at least as many of them
+   *                          as there are bind threads.
+   * @param  listener         The listener that will record the result of the
+   *                          bind.
+   */
+  ReplayAccessLogBindTask(final SimpleBindRequest bindRequest,
+                          final BlockingQueue<LDAPConnection> bindConnections,
+                          final ReplayAccessLogAsyncListener listener)
+  {
+    this.bindRequest     = bindRequest;
+    this.bindConnections = bindConnections;
+    this.listener        = listener;
+  }
+
+
+
+  /**
+   * Processes the bind and records its result.
+   */
+  @Override()
+  public void run()
+  {
+    final LDAPConnection connection;
+    try
+    {
+      connection = bindConnections.take();
+    }
+    catch (final InterruptedException ie)
+    {
+      Debug.debugException(ie);
+      listener.requestFailed(new LDAPException(ResultCode.LOCAL_ERROR,
+           "Interrupted while waiting for a bind connection."));
+      return;
+    }
+
+    try
+    {
+      listener.ldapResultReceived(null, connection.bind(bindRequest));
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      listener.requestFailed(le);
+    }
+    finally
+    {
+      bindConnections.add(connection);
+    }
+  }
+}
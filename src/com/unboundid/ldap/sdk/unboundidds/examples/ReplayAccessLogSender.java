@@ -0,0 +1,557 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.unboundidds.examples;
+
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.unboundid.ldap.sdk.DereferencePolicy;
+import com.unboundid.ldap.sdk.Filter;
+import com.unboundid.ldap.sdk.LDAPConnection;
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.ldap.sdk.Modification;
+import com.unboundid.ldap.sdk.ModificationType;
+import com.unboundid.ldap.sdk.ModifyRequest;
+import com.unboundid.ldap.sdk.SearchRequest;
+import com.unboundid.ldap.sdk.SearchScope;
+import com.unboundid.ldap.sdk.SimpleBindRequest;
+import com.unboundid.ldap.sdk.unboundidds.logs.BindRequestAccessLogMessage;
+import com.unboundid.ldap.sdk.unboundidds.logs.BindRequestAuthenticationType;
+import com.unboundid.ldap.sdk.unboundidds.logs.ModifyRequestAccessLogMessage;
+import com.unboundid.ldap.sdk.unboundidds.logs.
+            OperationRequestAccessLogMessage;
+import com.unboundid.ldap.sdk.unboundidds.logs.SearchRequestAccessLogMessage;
+import com.unboundid.util.Debug;
+import com.unboundid.util.LDAPSDKThreadFactory;
+import com.unboundid.util.LatencyHistogram;
+import com.unboundid.util.ValuePattern;
+
+
+
+/**
+ * This class is used by the {@link ReplayAccessLog} tool to send the
+ * operations recorded in an access log to the directory server without waiting
+ * for earlier operations to complete.  Each client connection in the log is
+ * assigned to one of a fixed number of replay connections, and its searches and
+ * modifies are sent over that connection asynchronously, in the order that
+ * they were received, so that a slow operation does not delay any other
+ * operation.  Binds cannot be sent asynchronously, so they are handed to a pool
+ * of bind threads, each of which has its own connection so that the binds do
+ * not alter the authorization identity used for the other operations.
+ * <BR><BR>
+ * The response time for each operation is measured from the time that it was
+ * scheduled to be sent rather than from the time that it was actually sent, so
+ * that any time spent waiting for a bind thread, or for the number of
+ * outstanding operations to drop below the limit, is included.
+ * <BR>
+ * <BLOCKQUOTE>
+ *   <B>NOTE:</B>  This class, and other classes within the
+ *   {@code com.unboundid.ldap.sdk.unboundidds} package structure, are only
+ *   supported for use against Ping Identity, UnboundID, and Alcatel-Lucent 8661
+ *   server products.  These classes provide support for proprietary
+ *   functionality or for external specifications that are not considered stable
+ *   or mature enough to be guaranteed to work in an interoperable way with
+ *   other types of LDAP servers.
+ * </BLOCKQUOTE>
+ */
+final class ReplayAccessLogSender
+{
+  /**
+   * The default maximum number of operations that may be outstanding for each
+   * replay connection.
+   */
+  static final int DEFAULT_MAX_OUTSTANDING_REQUESTS_PER_CONNECTION = 100;
+
+
+
+  /**
+   * The maximum length of time in milliseconds to wait for outstanding
+   * operations to complete when the replay is finished.
+   */
+  private static final long MAX_COMPLETION_WAIT_MILLIS = 300000L;
+
+
+
+  // The counters for the operations of each type that did not complete
+  // successfully.
+  private final AtomicLong bindErrors;
+  private final AtomicLong modifyErrors;
+  private final AtomicLong searchErrors;
+
+  // The number of operations that could not be replayed.
+  private final AtomicLong numSkipped;
+
+  // The maximum number of operations that may be outstanding at any time.
+  private final int maxOutstandingRequests;
+
+  // The connections used to replay operations other than binds.
+  private final LDAPConnection[] connections;
+
+  // The histograms for the operations of each type that have been replayed.
+  private final LatencyHistogram bindHistogram;
+  private final LatencyHistogram modifyHistogram;
+  private final LatencyHistogram searchHistogram;
+
+  // The connections available for use by the bind threads, or null if binds
+  // should not be replayed.
+  private final LinkedBlockingQueue<LDAPConnection> bindConnections;
+
+  // The semaphore used to limit the number of outstanding operations.
+  private final Semaphore outstandingRequests;
+
+  // The password to use for replayed binds.
+  private final String bindPassword;
+
+  // The executor used to replay binds, or null if binds should not be
+  // replayed.
+  private final ThreadPoolExecutor bindExecutor;
+
+  // The value pattern used to generate values for replayed modifications.
+  private final ValuePattern modifyValuePattern;
+
+
+
+  /**
+   * Creates a new sender with the provided information.
+   *
+   * @param  connections             The connections to use to replay
+   *                                 operations other than binds.  It must not
+   *                                 be empty.
+   * @param  bindConnections         The connections to use to replay binds, one
+   *                                 for each bind thread.  It may be
+   *                                 {@code null} or empty if binds should not
+   *                                 be replayed.
+   * @param  bindPassword            The password to use for replayed binds.  It
+   *                                 may be {@code null} if binds should not be
+   *                                 replayed.
+   * @param  modifyValuePattern      The value pattern that will be used to
+   *                                 generate the values for replayed
+   *                                 modifications.
+   * @param  maxOutstandingRequests  The maximum number of operations that may
+   *                                 be outstanding at any time.
+   */
+  ReplayAccessLogSender(final List<LDAPConnection> connections,
+                        final List<LDAPConnection> bindConnections,
+                        final String bindPassword,
+                        final ValuePattern modifyValuePattern,
+                        final int maxOutstandingRequests)
+  {
+    this.connections =
+         connections.toArray(new LDAPConnection[connections.size()]);
+    this.bindPassword           = bindPassword;
+    this.modifyValuePattern     = modifyValuePattern;
+    this.maxOutstandingRequests = maxOutstandingRequests;
+
+    if ((bindConnections == null) || bindConnections.isEmpty())
+    {
+      this.bindConnections = null;
+      bindExecutor = null;
+    }
+    else
+    {
+      this.bindConnections =
+           new LinkedBlockingQueue<LDAPConnection>(bindConnections);
+      bindExecutor = new ThreadPoolExecutor(bindConnections.size(),
+           bindConnections.size(), 0L, TimeUnit.MILLISECONDS,
+           new LinkedBlockingQueue<Runnable>(),
+           new LDAPSDKThreadFactory("ReplayAccessLog Bind Thread", true));
+    }
+
+    outstandingRequests = new Semaphore(maxOutstandingRequests);
+
+    bindHistogram   = new LatencyHistogram();
+    modifyHistogram = new LatencyHistogram();
+    searchHistogram = new LatencyHistogram();
+
+    bindErrors   = new AtomicLong(0L);
+    modifyErrors = new AtomicLong(0L);
+    searchErrors = new AtomicLong(0L);
+    numSkipped   = new AtomicLong(0L);
+  }
+
+
+
+  /**
+   * Sends the operation described by the provided log message without waiting
+   * for it to complete.  This method will only block if the maximum number of
+   * operations are already outstanding.
+   *
+   * @param  message          The access log message describing the operation
+   *                          to replay.
+   * @param  connectionIndex  The index of the replay connection assigned to
+   *                          the client connection from the log.
+   * @param  scheduledNanos   The time, in terms of {@code System.nanoTime()},
+   *                          at which the operation was scheduled to be sent.
+   *
+   * @throws  InterruptedException  If the calling thread is interrupted while
+   *                                waiting for an outstanding operation to
+   *                                complete.
+   */
+  void send(final OperationRequestAccessLogMessage message,
+            final int connectionIndex, final long scheduledNanos)
+       throws InterruptedException
+  {
+    if (message instanceof SearchRequestAccessLogMessage)
+    {
+      sendSearch((SearchRequestAccessLogMessage) message,
+           connections[connectionIndex], scheduledNanos);
+    }
+    else if (message instanceof BindRequestAccessLogMessage)
+    {
+      sendBind((BindRequestAccessLogMessage) message, scheduledNanos);
+    }
+    else if (message instanceof ModifyRequestAccessLogMessage)
+    {
+      sendModify((ModifyRequestAccessLogMessage) message,
+           connections[connectionIndex], scheduledNanos);
+    }
+    else
+    {
+      numSkipped.incrementAndGet();
+    }
+  }
+
+
+
+  /**
+   * Sends the search described by the provided log message.
+   *
+   * @param  message         The log message describing the search to replay.
+   * @param  connection      The connection over which to send the search.
+   * @param  scheduledNanos  The time at which the search was scheduled to be
+   *                         sent.
+   *
+   * @throws  InterruptedException  If the calling thread is interrupted while
+   *                                waiting for an outstanding operation to
+   *                                complete.
+   */
+  private void sendSearch(final SearchRequestAccessLogMessage message,
+                          final LDAPConnection connection,
+                          final long scheduledNanos)
+          throws InterruptedException
+  {
+    final String baseDN = message.getBaseDN();
+    final SearchScope scope = message.getScope();
+    final Filter filter = message.getParsedFilter();
+    if ((baseDN == null) || (scope == null) || (filter == null))
+    {
+      numSkipped.incrementAndGet();
+      return;
+    }
+
+    final DereferencePolicy derefPolicy;
+    if (message.getDereferencePolicy() == null)
+    {
+      derefPolicy = DereferencePolicy.NEVER;
+    }
+    else
+    {
+      derefPolicy = message.getDereferencePolicy();
+    }
+
+    final int sizeLimit;
+    if (message.getSizeLimit() == null)
+    {
+      sizeLimit = 0;
+    }
+    else
+    {
+      sizeLimit = message.getSizeLimit();
+    }
+
+    final int timeLimit;
+    if (message.getTimeLimit() == null)
+    {
+      timeLimit = 0;
+    }
+    else
+    {
+      timeLimit = message.getTimeLimit();
+    }
+
+    final boolean typesOnly = Boolean.TRUE.equals(message.typesOnly());
+
+    final String[] attributes;
+    if (message.getRequestedAttributes() == null)
+    {
+      attributes = new String[0];
+    }
+    else
+    {
+      final List<String> attrList = message.getRequestedAttributes();
+      attributes = attrList.toArray(new String[attrList.size()]);
+    }
+
+    final ReplayAccessLogAsyncListener listener =
+         new ReplayAccessLogAsyncListener(scheduledNanos, searchHistogram,
+              searchErrors, outstandingRequests);
+    final SearchRequest searchRequest = new SearchRequest(listener, baseDN,
+         scope, derefPolicy, sizeLimit, timeLimit, typesOnly, filter,
+         attributes);
+
+    outstandingRequests.acquire();
+    try
+    {
+      connection.asyncSearch(searchRequest);
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      listener.requestFailed(le);
+    }
+  }
+
+
+
+  /**
+   * Hands the bind described by the provided log message to a bind thread, if
+   * possible.  Only simple binds will be replayed, and only if a bind password
+   * was provided.
+   *
+   * @param  message         The log message describing the bind to replay.
+   * @param  scheduledNanos  The time at which the bind was scheduled to be
+   *                         sent.
+   *
+   * @throws  InterruptedException  If the calling thread is interrupted while
+   *                                waiting for an outstanding operation to
+   *                                complete.
+   */
+  private void sendBind(final BindRequestAccessLogMessage message,
+                        final long scheduledNanos)
+          throws InterruptedException
+  {
+    if ((bindExecutor == null) ||
+        (message.getAuthenticationType() !=
+             BindRequestAuthenticationType.SIMPLE))
+    {
+      numSkipped.incrementAndGet();
+      return;
+    }
+
+    final SimpleBindRequest bindRequest;
+    final String dn = message.getDN();
+    if ((dn == null) || (dn.length() == 0))
+    {
+      bindRequest = new SimpleBindRequest();
+    }
+    else
+    {
+      bindRequest = new SimpleBindRequest(dn, bindPassword);
+    }
+
+    final ReplayAccessLogAsyncListener listener =
+         new ReplayAccessLogAsyncListener(scheduledNanos, bindHistogram,
+              bindErrors, outstandingRequests);
+
+    outstandingRequests.acquire();
+    bindExecutor.execute(
+         new ReplayAccessLogBindTask(bindRequest, bindConnections, listener));
+  }
+
+
+
+  /**
+   * Sends the modify described by the provided log message.  Because the access
+   * log only records the names of the attributes that were targeted, each of
+   * them will be replaced with a value generated from the modify value pattern.
+   *
+   * @param  message         The log message describing the modify to replay.
+   * @param  connection      The connection over which to send the modify.
+   * @param  scheduledNanos  The time at which the modify was scheduled to be
+   *                         sent.
+   *
+   * @throws  InterruptedException  If the calling thread is interrupted while
+   *                                waiting for an outstanding operation to
+   *                                complete.
+   */
+  private void sendModify(final ModifyRequestAccessLogMessage message,
+                          final LDAPConnection connection,
+                          final long scheduledNanos)
+          throws InterruptedException
+  {
+    final String dn = message.getDN();
+    final List<String> attributeNames = message.getAttributeNames();
+    if ((dn == null) || (attributeNames == null) || attributeNames.isEmpty())
+    {
+      numSkipped.incrementAndGet();
+      return;
+    }
+
+    final ArrayList<Modification> mods =
+         new ArrayList<Modification>(attributeNames.size());
+    for (final String attributeName : attributeNames)
+    {
+      mods.add(new Modification(ModificationType.REPLACE, attributeName,
+           modifyValuePattern.nextValue()));
+    }
+
+    final ReplayAccessLogAsyncListener listener =
+         new ReplayAccessLogAsyncListener(scheduledNanos, modifyHistogram,
+              modifyErrors, outstandingRequests);
+
+    outstandingRequests.acquire();
+    try
+    {
+      connection.asyncModify(new ModifyRequest(dn, mods), listener);
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      listener.requestFailed(le);
+    }
+  }
+
+
+
+  /**
+   * Waits for all outstanding operations to complete, and then closes all of
+   * the connections and stops the bind threads.
+   */
+  void close()
+  {
+    try
+    {
+      if (outstandingRequests.tryAcquire(maxOutstandingRequests,
+           MAX_COMPLETION_WAIT_MILLIS, TimeUnit.MILLISECONDS))
+      {
+        outstandingRequests.release(maxOutstandingRequests);
+      }
+    }
+    catch (final InterruptedException ie)
+    {
+      Debug.debugException(ie);
+      Thread.currentThread().interrupt();
+    }
+
+    if (bindExecutor != null)
+    {
+      bindExecutor.shutdownNow();
+      for (final LDAPConnection c : bindConnections)
+      {
+        c.close();
+      }
+    }
+
+    for (final LDAPConnection c : connections)
+    {
+      c.close();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the histogram with the response times for the replayed binds.
+   * It should only be called after this sender has been closed.
+   *
+   * @return  The histogram with the response times for the replayed binds.
+   */
+  LatencyHistogram getBindHistogram()
+  {
+    return bindHistogram;
+  }
+
+
+
+  /**
+   * Retrieves the histogram with the response times for the replayed
+   * modifies.  It should only be called after this sender has been closed.
+   *
+   * @return  The histogram with the response times for the replayed modifies.
+   */
+  LatencyHistogram getModifyHistogram()
+  {
+    return modifyHistogram;
+  }
+
+
+
+  /**
+   * Retrieves the histogram with the response times for the replayed
+   * searches.  It should only be called after this sender has been closed.
+   *
+   * @return  The histogram with the response times for the replayed searches.
+   */
+  LatencyHistogram getSearchHistogram()
+  {
+    return searchHistogram;
+  }
+
+
+
+  /**
+   * Retrieves the number of replayed binds that did not complete successfully.
+   *
+   * @return  The number of replayed binds that did not complete successfully.
+   */
+  long getBindErrors()
+  {
+    return bindErrors.get();
+  }
+
+
+
+  /**
+   * Retrieves the number of replayed modifies that did not complete
+   * successfully.
+   *
+   * @return  The number of replayed modifies that did not complete
+   *          successfully.
+   */
+  long getModifyErrors()
+  {
+    return modifyErrors.get();
+  }
+
+
+
+  /**
+   * Retrieves the number of replayed searches that did not complete
+   * successfully.
+   *
+   * @return  The number of replayed searches that did not complete
+   *          successfully.
+   */
+  long getSearchErrors()
+  {
+    return searchErrors.get();
+  }
+
+
+
+  /**
+   * Retrieves the number of operations that could not be replayed (for
+   * example, SASL binds, or searches whose filter could not be parsed).
+   *
+   * @return  The number of operations that could not be replayed.
+   */
+  long getNumSkipped()
+  {
+    return numSkipped.get();
+  }
+}
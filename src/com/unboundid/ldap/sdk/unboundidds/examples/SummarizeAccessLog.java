@@ -22,21 +22,27 @@ package com.unboundid.ldap.sdk.unboundidds.examples;
 
 
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileReader;
 import java.io.InputStreamReader;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.GZIPInputStream;
 
@@ -46,6 +52,7 @@ import com.unboundid.ldap.sdk.SearchScope;
 import com.unboundid.ldap.sdk.Version;
 import com.unboundid.ldap.sdk.unboundidds.logs.AbandonRequestAccessLogMessage;
 import com.unboundid.ldap.sdk.unboundidds.logs.AccessLogMessage;
+import com.unboundid.ldap.sdk.unboundidds.logs.AccessLogMessageType;
 import com.unboundid.ldap.sdk.unboundidds.logs.AccessLogReader;
 import com.unboundid.ldap.sdk.unboundidds.logs.AddResultAccessLogMessage;
 import com.unboundid.ldap.sdk.unboundidds.logs.BindResultAccessLogMessage;
@@ -59,10 +66,13 @@ import com.unboundid.ldap.sdk.unboundidds.logs.LogException;
 import com.unboundid.ldap.sdk.unboundidds.logs.ModifyDNResultAccessLogMessage;
 import com.unboundid.ldap.sdk.unboundidds.logs.ModifyResultAccessLogMessage;
 import com.unboundid.ldap.sdk.unboundidds.logs.OperationAccessLogMessage;
+import com.unboundid.ldap.sdk.unboundidds.logs.
+            OperationResultAccessLogMessage;
 import com.unboundid.ldap.sdk.unboundidds.logs.SearchRequestAccessLogMessage;
 import com.unboundid.ldap.sdk.unboundidds.logs.SearchResultAccessLogMessage;
 import com.unboundid.ldap.sdk.unboundidds.logs.UnbindRequestAccessLogMessage;
 import com.unboundid.util.CommandLineTool;
+import com.unboundid.util.Debug;
 import com.unboundid.util.NotMutable;
 import com.unboundid.util.ObjectPair;
 import com.unboundid.util.ReverseComparator;
@@ -71,6 +81,7 @@ import com.unboundid.util.ThreadSafetyLevel;
 import com.unboundid.util.args.ArgumentException;
 import com.unboundid.util.args.ArgumentParser;
 import com.unboundid.util.args.BooleanArgument;
+import com.unboundid.util.args.IntegerArgument;
 
 import static com.unboundid.util.StaticUtils.*;
 
@@ -119,7 +130,13 @@ import static com.unboundid.util.StaticUtils.*;
  * format with separate request and response messages, as well as log files
  * in which the request and response details have been combined on the same
  * line.  The log files to be processed should be provided as command-line
- * arguments.
+ * arguments.  When several log files are provided, they may be examined in
+ * parallel by a number of threads, which gather a separate partial summary for
+ * each file.  Those summaries are merged in the order that the files were
+ * provided once all of them have been examined, so that an operation whose
+ * request and result messages were written to different files (for example,
+ * because the log was rotated while it was in progress) is only counted
+ * once, as long as the files for each server are provided in order.
  * <BR><BR>
  * The APIs demonstrated by this example include:
  * <UL>
@@ -142,6 +159,34 @@ public final class SummarizeAccessLog
 
 
 
+  /**
+   * The types of access log messages whose content is not used in the summary,
+   * so that lines for those messages do not need to be parsed.
+   */
+  private static final Set<AccessLogMessageType> IGNORED_MESSAGE_TYPES =
+       EnumSet.of(AccessLogMessageType.ASSURANCE_COMPLETE,
+            AccessLogMessageType.CLIENT_CERTIFICATE,
+            AccessLogMessageType.ENTRY,
+            AccessLogMessageType.ENTRY_REBALANCING_REQUEST,
+            AccessLogMessageType.ENTRY_REBALANCING_RESULT,
+            AccessLogMessageType.FORWARD,
+            AccessLogMessageType.FORWARD_FAILED,
+            AccessLogMessageType.INTERMEDIATE_RESPONSE,
+            AccessLogMessageType.REFERENCE,
+            AccessLogMessageType.SECURITY_NEGOTIATION);
+
+
+
+  /**
+   * The length of time, in milliseconds, before the first message in a file
+   * for which an operation result whose request was not found in the same file
+   * may have had its request written to an earlier file.  This allows for
+   * differences in the precision of timestamps and processing times.
+   */
+  private static final long FILE_BOUNDARY_TOLERANCE_MILLIS = 1000L;
+
+
+
   // Variables used for accessing argument information.
   private ArgumentParser  argumentParser;
 
@@ -149,12 +194,27 @@ public final class SummarizeAccessLog
   // compressed.
   private BooleanArgument isCompressed;
 
+  // The argument used to specify the number of threads to use to examine the
+  // log files.
+  private IntegerArgument numThreads;
+
   // The decimal format that will be used for this class.
   private final DecimalFormat decimalFormat;
 
   // The total duration for log content, in milliseconds.
   private long logDurationMillis;
 
+  // The time before which a search or extended operation must have been
+  // requested for its result to be deferred if its request was not found, or
+  // zero if such results should not be deferred.  This is only used for
+  // summaries of a single file that will be merged with the summaries of
+  // earlier files.
+  private long deferUnmatchedResultsBefore;
+
+  // Indicates whether results whose requests were not found should be
+  // deferred for reconciliation with the requests from earlier files.
+  private boolean deferUnmatchedResults;
+
   // The total processing time for each type of operation.
   private double addProcessingDuration;
   private double bindProcessingDuration;
@@ -212,6 +272,7 @@ public final class SummarizeAccessLog
   private final HashMap<String,AtomicLong> extendedOperations;
   private final HashMap<String,AtomicLong> filterTypes;
   private final HashSet<String> processedRequests;
+  private final List<OperationAccessLogMessage> deferredResults;
   private final LinkedHashMap<Long,AtomicLong> addProcessingTimes;
   private final LinkedHashMap<Long,AtomicLong> bindProcessingTimes;
   private final LinkedHashMap<Long,AtomicLong> compareProcessingTimes;
@@ -332,6 +393,7 @@ public final class SummarizeAccessLog
     extendedOperations       = new HashMap<String,AtomicLong>(10);
     filterTypes              = new HashMap<String,AtomicLong>(100);
     processedRequests        = new HashSet<String>(100);
+    deferredResults          = new ArrayList<OperationAccessLogMessage>(10);
     addProcessingTimes       = new LinkedHashMap<Long,AtomicLong>(11);
     bindProcessingTimes      = new LinkedHashMap<Long,AtomicLong>(11);
     compareProcessingTimes   = new LinkedHashMap<Long,AtomicLong>(11);
@@ -349,6 +411,9 @@ public final class SummarizeAccessLog
     populateProcessingTimeMap(modifyProcessingTimes);
     populateProcessingTimeMap(modifyDNProcessingTimes);
     populateProcessingTimeMap(searchProcessingTimes);
+
+    deferUnmatchedResults       = false;
+    deferUnmatchedResultsBefore = 0L;
   }
 
 
@@ -539,6 +604,20 @@ public final class SummarizeAccessLog
     isCompressed = new BooleanArgument('c', "isCompressed", description);
     isCompressed.addLongIdentifier("is-compressed", true);
     parser.addArgument(isCompressed);
+
+    // Add an argument that makes it possible to examine several log files in
+    // parallel.
+    numThreads = new IntegerArgument('t', "numThreads", true, 1, "{num}",
+         "The number of threads to use to examine the log files.  If " +
+              "multiple log files are provided, then each thread will " +
+              "examine a different file at the same time.  The files for " +
+              "each server should be provided in the order that they were " +
+              "written, so that operations whose request and result were " +
+              "written to different files can be matched up.  If this is " +
+              "not provided, a single thread will be used.",
+         1, Integer.MAX_VALUE, 1);
+    numThreads.addLongIdentifier("num-threads", true);
+    parser.addArgument(numThreads);
   }
 
 
@@ -576,140 +655,68 @@ public final class SummarizeAccessLog
   @Override()
   public ResultCode doToolProcessing()
   {
-    long logLines = 0L;
+    final List<File> files = new ArrayList<File>();
     for (final String path : argumentParser.getTrailingArguments())
     {
-      final File f = new File(path);
-      out("Examining access log ", f.getAbsolutePath());
-      final AccessLogReader reader;
-      try
-      {
-        if (isCompressed.isPresent())
-        {
-          reader = new AccessLogReader(new InputStreamReader(
-               new GZIPInputStream(new FileInputStream(f))));
-        }
-        else
-        {
-          reader = new AccessLogReader(f);
-        }
-      }
-      catch (final IOException ioe)
+      files.add(new File(path));
+    }
+
+    long logLines = 0L;
+    if ((numThreads.getValue() > 1) && (files.size() > 1))
+    {
+      // Summarize the files in parallel, with a separate summary for each
+      // file, and then merge those summaries into this one in file order.
+      final AtomicInteger nextFileIndex = new AtomicInteger(0);
+      final AtomicBoolean failed = new AtomicBoolean(false);
+      final SummarizeAccessLog[] fileSummaries =
+           new SummarizeAccessLog[files.size()];
+      final SummarizeAccessLogThread[] threads = new SummarizeAccessLogThread[
+           Math.min(numThreads.getValue(), files.size())];
+      for (int i=0; i < threads.length; i++)
       {
-        err("Unable to open access log file ", f.getAbsolutePath(), ":  ",
-            getExceptionMessage(ioe));
-        return ResultCode.LOCAL_ERROR;
+        threads[i] = new SummarizeAccessLogThread(i, this, files,
+             fileSummaries, nextFileIndex, failed, isCompressed.isPresent());
+        threads[i].start();
       }
 
-      long startTime = 0L;
-      long stopTime  = 0L;
-
-      while (true)
+      for (final SummarizeAccessLogThread t : threads)
       {
-        final AccessLogMessage msg;
         try
         {
-          msg = reader.read();
+          t.join();
         }
-        catch (final IOException ioe)
+        catch (final InterruptedException ie)
         {
-          err("Error reading from access log file ", f.getAbsolutePath(),
-              ":  ", getExceptionMessage(ioe));
+          Debug.debugException(ie);
+          err("Interrupted while waiting for access log processing to " +
+              "complete.");
           return ResultCode.LOCAL_ERROR;
         }
-        catch (final LogException le)
-        {
-          err("Encountered an error while attempting to parse a line in" +
-              "access log file ", f.getAbsolutePath(), ":  ",
-              getExceptionMessage(le));
-          continue;
-        }
 
-        if (msg == null)
-        {
-          break;
-        }
+        logLines += t.getLinesExamined();
+      }
 
-        logLines++;
-        stopTime = msg.getTimestamp().getTime();
-        if (startTime == 0L)
-        {
-          startTime = stopTime;
-        }
+      if (failed.get())
+      {
+        return ResultCode.LOCAL_ERROR;
+      }
 
-        switch (msg.getMessageType())
+      for (final SummarizeAccessLog s : fileSummaries)
+      {
+        merge(s);
+      }
+    }
+    else
+    {
+      for (final File f : files)
+      {
+        final long fileLines = summarizeFile(f, isCompressed.isPresent(), this);
+        if (fileLines < 0L)
         {
-          case CONNECT:
-            processConnect((ConnectAccessLogMessage) msg);
-            break;
-          case DISCONNECT:
-            processDisconnect((DisconnectAccessLogMessage) msg);
-            break;
-          case REQUEST:
-            switch (((OperationAccessLogMessage) msg).getOperationType())
-            {
-              case ABANDON:
-                processAbandonRequest((AbandonRequestAccessLogMessage) msg);
-                break;
-              case EXTENDED:
-                processExtendedRequest((ExtendedRequestAccessLogMessage) msg);
-                break;
-              case SEARCH:
-                processSearchRequest((SearchRequestAccessLogMessage) msg);
-                break;
-              case UNBIND:
-                processUnbindRequest((UnbindRequestAccessLogMessage) msg);
-                break;
-            }
-            break;
-          case RESULT:
-            switch (((OperationAccessLogMessage) msg).getOperationType())
-            {
-              case ADD:
-                processAddResult((AddResultAccessLogMessage) msg);
-                break;
-              case BIND:
-                processBindResult((BindResultAccessLogMessage) msg);
-                break;
-              case COMPARE:
-                processCompareResult((CompareResultAccessLogMessage) msg);
-                break;
-              case DELETE:
-                processDeleteResult((DeleteResultAccessLogMessage) msg);
-                break;
-              case EXTENDED:
-                processExtendedResult((ExtendedResultAccessLogMessage) msg);
-                break;
-              case MODIFY:
-                processModifyResult((ModifyResultAccessLogMessage) msg);
-                break;
-              case MODDN:
-                processModifyDNResult((ModifyDNResultAccessLogMessage) msg);
-                break;
-              case SEARCH:
-                processSearchResult((SearchResultAccessLogMessage) msg);
-                break;
-            }
-            break;
-
-          case ASSURANCE_COMPLETE:
-          case CLIENT_CERTIFICATE:
-          case ENTRY_REBALANCING_REQUEST:
-          case ENTRY_REBALANCING_RESULT:
-          case FORWARD:
-          case FORWARD_FAILED:
-          case ENTRY:
-          case REFERENCE:
-          default:
-            // Nothing needs to be done for these message types.
+          return ResultCode.LOCAL_ERROR;
         }
+        logLines += fileLines;
       }
-
-      try
-      {
-        reader.close();
-      } catch (final Exception e) {}
-      logDurationMillis += (stopTime - startTime);
     }
 
 
@@ -1171,6 +1178,365 @@ public final class SummarizeAccessLog
 
 
 
+  /**
+   * Reads the specified access log file and updates this summary with the
+   * information that it contains.
+   *
+   * @param  f           The access log file to summarize.
+   * @param  compressed  Indicates whether the file is compressed.
+   * @param  reporter    The tool that should be used to report progress and
+   *                     errors.  It may be this tool, or the tool on whose
+   *                     behalf this summary is being gathered.
+   *
+   * @return  The number of access log messages examined in the file, or -1 if
+   *          a problem prevented the file from being read.
+   */
+  long summarizeFile(final File f, final boolean compressed,
+                     final SummarizeAccessLog reporter)
+  {
+    reporter.out("Examining access log ", f.getAbsolutePath());
+    final BufferedReader reader;
+    try
+    {
+      if (compressed)
+      {
+        reader = new BufferedReader(new InputStreamReader(
+             new GZIPInputStream(new FileInputStream(f))));
+      }
+      else
+      {
+        reader = new BufferedReader(new FileReader(f));
+      }
+    }
+    catch (final IOException ioe)
+    {
+      reporter.err("Unable to open access log file ", f.getAbsolutePath(),
+           ":  ", getExceptionMessage(ioe));
+      return -1L;
+    }
+
+    long logLines  = 0L;
+    long startTime = 0L;
+    long stopTime  = 0L;
+
+    try
+    {
+      while (true)
+      {
+        final String line;
+        try
+        {
+          line = reader.readLine();
+        }
+        catch (final IOException ioe)
+        {
+          reporter.err("Error reading from access log file ",
+               f.getAbsolutePath(), ":  ", getExceptionMessage(ioe));
+          return -1L;
+        }
+
+        if (line == null)
+        {
+          break;
+        }
+
+        if ((line.length() == 0) || (line.charAt(0) == '#'))
+        {
+          continue;
+        }
+
+        // Don't bother parsing messages whose content isn't used in the
+        // summary.
+        if (IGNORED_MESSAGE_TYPES.contains(
+             AccessLogReader.getMessageType(line)))
+        {
+          logLines++;
+          continue;
+        }
+
+        final AccessLogMessage msg;
+        try
+        {
+          msg = AccessLogReader.parse(line);
+        }
+        catch (final LogException le)
+        {
+          reporter.err("Encountered an error while attempting to parse a " +
+               "line in access log file ", f.getAbsolutePath(), ":  ",
+               getExceptionMessage(le));
+          continue;
+        }
+
+        logLines++;
+        stopTime = msg.getTimestamp().getTime();
+        if (startTime == 0L)
+        {
+          startTime = stopTime;
+          if (deferUnmatchedResults)
+          {
+            deferUnmatchedResultsBefore =
+                 startTime + FILE_BOUNDARY_TOLERANCE_MILLIS;
+          }
+        }
+
+        switch (msg.getMessageType())
+        {
+          case CONNECT:
+            processConnect((ConnectAccessLogMessage) msg);
+            break;
+          case DISCONNECT:
+            processDisconnect((DisconnectAccessLogMessage) msg);
+            break;
+          case REQUEST:
+            switch (((OperationAccessLogMessage) msg).getOperationType())
+            {
+              case ABANDON:
+                processAbandonRequest((AbandonRequestAccessLogMessage) msg);
+                break;
+              case EXTENDED:
+                processExtendedRequest((ExtendedRequestAccessLogMessage) msg);
+                break;
+              case SEARCH:
+                processSearchRequest((SearchRequestAccessLogMessage) msg);
+                break;
+              case UNBIND:
+                processUnbindRequest((UnbindRequestAccessLogMessage) msg);
+                break;
+            }
+            break;
+          case RESULT:
+            switch (((OperationAccessLogMessage) msg).getOperationType())
+            {
+              case ADD:
+                processAddResult((AddResultAccessLogMessage) msg);
+                break;
+              case BIND:
+                processBindResult((BindResultAccessLogMessage) msg);
+                break;
+              case COMPARE:
+                processCompareResult((CompareResultAccessLogMessage) msg);
+                break;
+              case DELETE:
+                processDeleteResult((DeleteResultAccessLogMessage) msg);
+                break;
+              case EXTENDED:
+                processExtendedResult((ExtendedResultAccessLogMessage) msg);
+                break;
+              case MODIFY:
+                processModifyResult((ModifyResultAccessLogMessage) msg);
+                break;
+              case MODDN:
+                processModifyDNResult((ModifyDNResultAccessLogMessage) msg);
+                break;
+              case SEARCH:
+                processSearchResult((SearchResultAccessLogMessage) msg);
+                break;
+            }
+            break;
+
+          case ASSURANCE_COMPLETE:
+          case CLIENT_CERTIFICATE:
+          case ENTRY_REBALANCING_REQUEST:
+          case ENTRY_REBALANCING_RESULT:
+          case FORWARD:
+          case FORWARD_FAILED:
+          case ENTRY:
+          case REFERENCE:
+          default:
+            // Nothing needs to be done for these message types.
+        }
+      }
+    }
+    finally
+    {
+      try
+      {
+        reader.close();
+      } catch (final Exception e) {}
+    }
+
+    logDurationMillis += (stopTime - startTime);
+    return logLines;
+  }
+
+
+
+  /**
+   * Indicates that this summary will be used for a single file whose summary
+   * will be merged with the summaries of earlier files.  Any search or
+   * extended result near the beginning of the file whose request is not found
+   * in the file will be held until the summary is merged, since its request may
+   * have been written to an earlier file.
+   */
+  void deferUnmatchedResults()
+  {
+    deferUnmatchedResults = true;
+  }
+
+
+
+  /**
+   * Indicates whether the request-specific processing for the provided search
+   * or extended result message, whose request has not been seen, should be
+   * deferred until this summary is merged with the summaries of earlier files.
+   * That will be the case if the operation may have been requested before the
+   * first message in the file being summarized.
+   *
+   * @param  m  The result message for which to make the determination.
+   *
+   * @return  {@code true} if the request-specific processing for the message
+   *          should be deferred, or {@code false} if it should be performed
+   *          now.
+   */
+  private boolean deferResult(final OperationAccessLogMessage m)
+  {
+    if (deferUnmatchedResultsBefore <= 0L)
+    {
+      return false;
+    }
+
+    final Double processingTimeMillis =
+         ((OperationResultAccessLogMessage) m).getProcessingTimeMillis();
+
+    long requestTime = m.getTimestamp().getTime();
+    if (processingTimeMillis != null)
+    {
+      requestTime -= Math.round(processingTimeMillis);
+    }
+
+    if (requestTime < deferUnmatchedResultsBefore)
+    {
+      deferredResults.add(m);
+      return true;
+    }
+
+    return false;
+  }
+
+
+
+  /**
+   * Merges the information gathered in the provided summary into this summary.
+   * If the provided summary is for a single file, then this must be called for
+   * the summaries of all earlier files first.  Any results that the provided
+   * summary deferred will be matched against the requests in those files that
+   * had no result, so that the request-specific information for each operation
+   * is only counted once.
+   *
+   * @param  s  The summary whose information should be merged into this
+   *            summary.
+   */
+  private void merge(final SummarizeAccessLog s)
+  {
+    for (final OperationAccessLogMessage m : s.deferredResults)
+    {
+      final String id = m.getConnectionID() + "-" + m.getOperationID();
+      if (! processedRequests.remove(id))
+      {
+        if (m instanceof SearchResultAccessLogMessage)
+        {
+          processSearchRequestInternal((SearchResultAccessLogMessage) m);
+        }
+        else
+        {
+          processExtendedRequestInternal((ExtendedResultAccessLogMessage) m);
+        }
+      }
+    }
+    processedRequests.addAll(s.processedRequests);
+
+    logDurationMillis += s.logDurationMillis;
+
+    addProcessingDuration      += s.addProcessingDuration;
+    bindProcessingDuration     += s.bindProcessingDuration;
+    compareProcessingDuration  += s.compareProcessingDuration;
+    deleteProcessingDuration   += s.deleteProcessingDuration;
+    extendedProcessingDuration += s.extendedProcessingDuration;
+    modifyProcessingDuration   += s.modifyProcessingDuration;
+    modifyDNProcessingDuration += s.modifyDNProcessingDuration;
+    searchProcessingDuration   += s.searchProcessingDuration;
+
+    numAbandons        += s.numAbandons;
+    numAdds            += s.numAdds;
+    numBinds           += s.numBinds;
+    numCompares        += s.numCompares;
+    numConnects        += s.numConnects;
+    numDeletes         += s.numDeletes;
+    numDisconnects     += s.numDisconnects;
+    numExtended        += s.numExtended;
+    numModifies        += s.numModifies;
+    numModifyDNs       += s.numModifyDNs;
+    numNonBaseSearches += s.numNonBaseSearches;
+    numSearches        += s.numSearches;
+    numUnbinds         += s.numUnbinds;
+
+    numUncachedAdds      += s.numUncachedAdds;
+    numUncachedBinds     += s.numUncachedBinds;
+    numUncachedCompares  += s.numUncachedCompares;
+    numUncachedDeletes   += s.numUncachedDeletes;
+    numUncachedExtended  += s.numUncachedExtended;
+    numUncachedModifies  += s.numUncachedModifies;
+    numUncachedModifyDNs += s.numUncachedModifyDNs;
+    numUncachedSearches  += s.numUncachedSearches;
+
+    numUnindexedAttempts   += s.numUnindexedAttempts;
+    numUnindexedFailed     += s.numUnindexedFailed;
+    numUnindexedSuccessful += s.numUnindexedSuccessful;
+
+    mergeCounts(searchEntryCounts, s.searchEntryCounts);
+    mergeCounts(addResultCodes, s.addResultCodes);
+    mergeCounts(bindResultCodes, s.bindResultCodes);
+    mergeCounts(compareResultCodes, s.compareResultCodes);
+    mergeCounts(deleteResultCodes, s.deleteResultCodes);
+    mergeCounts(extendedResultCodes, s.extendedResultCodes);
+    mergeCounts(modifyResultCodes, s.modifyResultCodes);
+    mergeCounts(modifyDNResultCodes, s.modifyDNResultCodes);
+    mergeCounts(searchResultCodes, s.searchResultCodes);
+    mergeCounts(searchScopes, s.searchScopes);
+    mergeCounts(clientAddresses, s.clientAddresses);
+    mergeCounts(clientConnectionPolicies, s.clientConnectionPolicies);
+    mergeCounts(disconnectReasons, s.disconnectReasons);
+    mergeCounts(extendedOperations, s.extendedOperations);
+    mergeCounts(filterTypes, s.filterTypes);
+    mergeCounts(addProcessingTimes, s.addProcessingTimes);
+    mergeCounts(bindProcessingTimes, s.bindProcessingTimes);
+    mergeCounts(compareProcessingTimes, s.compareProcessingTimes);
+    mergeCounts(deleteProcessingTimes, s.deleteProcessingTimes);
+    mergeCounts(extendedProcessingTimes, s.extendedProcessingTimes);
+    mergeCounts(modifyProcessingTimes, s.modifyProcessingTimes);
+    mergeCounts(modifyDNProcessingTimes, s.modifyDNProcessingTimes);
+    mergeCounts(searchProcessingTimes, s.searchProcessingTimes);
+  }
+
+
+
+  /**
+   * Adds the counts in the source map to the counts for the same keys in the
+   * target map.
+   *
+   * @param  <K>     The type of object used as the key for the maps.
+   * @param  target  The map to be updated.
+   * @param  source  The map whose counts should be added to the target map.
+   */
+  private static <K> void mergeCounts(final Map<K,AtomicLong> target,
+                                      final Map<K,AtomicLong> source)
+  {
+    for (final Map.Entry<K,AtomicLong> e : source.entrySet())
+    {
+      final AtomicLong l = target.get(e.getKey());
+      if (l == null)
+      {
+        target.put(e.getKey(), new AtomicLong(e.getValue().get()));
+      }
+      else
+      {
+        l.addAndGet(e.getValue().get());
+      }
+    }
+  }
+
+
+
   /**
    * Populates the provided processing time map with an initial set of values.
    *
@@ -1481,7 +1847,7 @@ public final class SummarizeAccessLog
     numExtended++;
 
     final String id = m.getConnectionID() + "-" + m.getOperationID();
-    if (!processedRequests.remove(id))
+    if ((! processedRequests.remove(id)) && (! deferResult(m)))
     {
       processExtendedRequestInternal(m);
     }
@@ -1565,7 +1931,7 @@ public final class SummarizeAccessLog
     numSearches++;
 
     final String id = m.getConnectionID() + "-" + m.getOperationID();
-    if (!processedRequests.remove(id))
+    if ((! processedRequests.remove(id)) && (! deferResult(m)))
     {
       processSearchRequestInternal(m);
     }
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.unboundidds.examples;
+
+
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+
+/**
+ * This class provides a thread that is used by the {@link SummarizeAccessLog}
+ * tool to examine access log files in parallel.  Each thread repeatedly claims
+ * the next file that has not yet been examined and gathers a separate summary
+ * of the information that it contains.  Once all of the threads have
+ * completed, the tool merges the summaries for all of the files in order, so
+ * that operations whose request and result were written to different files can
+ * be reconciled.
+ * <BR>
+ * <BLOCKQUOTE>
+ *   <B>NOTE:</B>  This class, and other classes within the
+ *   {@code com.unboundid.ldap.sdk.unboundidds} package structure, are only
+ *   supported for use against Ping Identity, UnboundID, and Alcatel-Lucent 8661
+ *   server products.  These classes provide support for proprietary
+ *   functionality or for external specifications that are not considered stable
+ *   or mature enough to be guaranteed to work in an interoperable way with
+ *   other types of LDAP servers.
+ * </BLOCKQUOTE>
+ */
+final class SummarizeAccessLogThread
+      extends Thread
+{
+  // Indicates whether a problem has prevented any of the files from being
+  // read, which is shared by all of the threads.
+  private final AtomicBoolean failed;
+
+  // The index of the next file to examine, which is shared by all of the
+  // threads.
+  private final AtomicInteger nextFileIndex;
+
+  // Indicates whether the log files are compressed.
+  private final boolean compressed;
+
+  // The files to be examined.
+  private final List<File> files;
+
+  // The number of log messages examined by this thread.
+  private long linesExamined;
+
+  // The summaries for each of the files, which are shared by all of the
+  // threads.
+  private final SummarizeAccessLog[] fileSummaries;
+
+  // The tool that will be used to report progress and errors.
+  private final SummarizeAccessLog tool;
+
+
+
+  /**
+   * Creates a new summarize access log thread with the provided information.
+   *
+   * @param  threadNumber   The thread number for this thread.
+   * @param  tool           The tool that will be used to report progress and
+   *                        errors.
+   * @param  files          The files to be examined.
+   * @param  fileSummaries  The array in which the summary for each file will
+   *                        be stored, at the same index as the file.  It is
+   *                        shared by all of the threads.
+   * @param  nextFileIndex  The index of the next file to examine, which is
+   *                        shared by all of the threads.
+   * @param  failed         Indicates whether a problem has prevented any of
+   *                        the files from being read, which is shared by all
+   *                        of the threads.
+   * @param  compressed     Indicates whether the log files are compressed.
+   */
+  SummarizeAccessLogThread(final int threadNumber,
+                           final SummarizeAccessLog tool,
+                           final List<File> files,
+                           final SummarizeAccessLog[] fileSummaries,
+                           final AtomicInteger nextFileIndex,
+                           final AtomicBoolean failed,
+                           final boolean compressed)
+  {
+    setName("SummarizeAccessLog Thread " + threadNumber);
+    setDaemon(true);
+
+    this.tool          = tool;
+    this.files         = files;
+    this.fileSummaries = fileSummaries;
+    this.nextFileIndex = nextFileIndex;
+    this.failed        = failed;
+    this.compressed    = compressed;
+
+    linesExamined = 0L;
+  }
+
+
+
+  /**
+   * Examines files until all of them have been claimed, or until a problem
+   * has prevented any of them from being read.
+   */
+  @Override()
+  public void run()
+  {
+    while (! failed.get())
+    {
+      final int fileIndex = nextFileIndex.getAndIncrement();
+      if (fileIndex >= files.size())
+      {
+        return;
+      }
+
+      final SummarizeAccessLog summary = new SummarizeAccessLog(null, null);
+      summary.deferUnmatchedResults();
+
+      final long fileLines =
+           summary.summarizeFile(files.get(fileIndex), compressed, tool);
+      if (fileLines < 0L)
+      {
+        failed.set(true);
+        return;
+      }
+
+      fileSummaries[fileIndex] = summary;
+      linesExamined += fileLines;
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of log messages examined by this thread.  It should
+   * only be called after this thread has exited.
+   *
+   * @return  The number of log messages examined by this thread.
+   */
+  long getLinesExamined()
+  {
+    return linesExamined;
+  }
+}
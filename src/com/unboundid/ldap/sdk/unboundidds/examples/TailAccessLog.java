@@ -0,0 +1,912 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.unboundidds.examples;
+
+
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.unboundid.ldap.sdk.ResultCode;
+import com.unboundid.ldap.sdk.Version;
+import com.unboundid.ldap.sdk.unboundidds.logs.AccessLogMessage;
+import com.unboundid.ldap.sdk.unboundidds.logs.AccessLogMessageType;
+import com.unboundid.ldap.sdk.unboundidds.logs.AccessLogOperationType;
+import com.unboundid.ldap.sdk.unboundidds.logs.AccessLogReader;
+import com.unboundid.ldap.sdk.unboundidds.logs.ConnectAccessLogMessage;
+import com.unboundid.ldap.sdk.unboundidds.logs.DisconnectAccessLogMessage;
+import com.unboundid.ldap.sdk.unboundidds.logs.LogException;
+import com.unboundid.ldap.sdk.unboundidds.logs.
+            MinimalOperationResultAccessLogMessage;
+import com.unboundid.ldap.sdk.unboundidds.logs.OperationAccessLogMessage;
+import com.unboundid.ldap.sdk.unboundidds.logs.
+            OperationRequestAccessLogMessage;
+import com.unboundid.util.ColumnFormatter;
+import com.unboundid.util.CommandLineTool;
+import com.unboundid.util.Debug;
+import com.unboundid.util.FormattableColumn;
+import com.unboundid.util.HorizontalAlignment;
+import com.unboundid.util.LatencyHistogram;
+import com.unboundid.util.ObjectPair;
+import com.unboundid.util.OutputFormat;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.args.ArgumentException;
+import com.unboundid.util.args.ArgumentParser;
+import com.unboundid.util.args.BooleanArgument;
+import com.unboundid.util.args.IntegerArgument;
+
+import static com.unboundid.util.StaticUtils.*;
+
+
+
+/**
+ * This class provides a tool that may be used to follow an access log file
+ * from Ping Identity, UnboundID and Alcatel-Lucent 8661 server products as it
+ * is written, and to display metrics about the operations completed in each
+ * interval.
+ * <BR>
+ * <BLOCKQUOTE>
+ *   <B>NOTE:</B>  This class, and other classes within the
+ *   {@code com.unboundid.ldap.sdk.unboundidds} package structure, are only
+ *   supported for use against Ping Identity, UnboundID, and Alcatel-Lucent 8661
+ *   server products.  These classes provide support for proprietary
+ *   functionality or for external specifications that are not considered stable
+ *   or mature enough to be guaranteed to work in an interoperable way with
+ *   other types of LDAP servers.
+ * </BLOCKQUOTE>
+ * <BR>
+ * The log file is followed in a manner similar to the "tail -F" command, so
+ * processing will continue if the file is rotated or truncated.  A line is
+ * written at the end of each interval with the rate of completed operations,
+ * overall and for the most common operation types, the average and
+ * percentile processing times, and the percentage of operations that did not
+ * complete successfully.  The distribution of result codes and the clients
+ * that requested the most operations in the interval may also be displayed.
+ * <BR><BR>
+ * Memory usage is bounded regardless of the volume of log content.  Processing
+ * times are tracked in a histogram with a fixed number of buckets, so the
+ * percentiles are approximate, and the most active clients are identified with
+ * a fixed-size counter, so their counts may be overestimates.  Client addresses
+ * are obtained from the connect message for each connection (or from the
+ * requester IP address included in some messages), and only a limited number
+ * of connections are remembered.
+ * <BR><BR>
+ * The APIs demonstrated by this example include:
+ * <UL>
+ *   <LI>Access log parsing (from the
+ *       {@code com.unboundid.ldap.sdk.unboundidds.logs} package)</LI>
+ *   <LI>Argument parsing (from the {@code com.unboundid.util.args}
+ *       package)</LI>
+ *   <LI>Column-based output formatting (from the
+ *       {@code com.unboundid.util.ColumnFormatter} class)</LI>
+ * </UL>
+ */
+@ThreadSafety(level=ThreadSafetyLevel.NOT_THREADSAFE)
+public final class TailAccessLog
+       extends CommandLineTool
+{
+  /**
+   * The maximum number of client connections whose addresses will be
+   * remembered.
+   */
+  private static final int MAX_CONNECTIONS = 100000;
+
+
+
+  /**
+   * The length of time in milliseconds to wait between checks for new log
+   * content.
+   */
+  private static final long POLL_INTERVAL_MILLIS = 100L;
+
+
+
+  /**
+   * The types of access log messages that are used by this tool.  Lines for
+   * other types of messages will not be parsed.
+   */
+  private static final Set<AccessLogMessageType> MESSAGE_TYPES =
+       EnumSet.of(AccessLogMessageType.CONNECT,
+            AccessLogMessageType.DISCONNECT,
+            AccessLogMessageType.RESULT);
+
+
+
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = 3619483526180563512L;
+
+
+
+  // The argument parser for this tool.
+  private ArgumentParser argumentParser;
+
+  // The argument used to indicate that the existing contents of the log file
+  // should be processed.
+  private BooleanArgument fromBeginning;
+
+  // The argument used to indicate that the result code distribution should be
+  // displayed for each interval.
+  private BooleanArgument showResultCodes;
+
+  // The argument used to specify the interval duration.
+  private IntegerArgument intervalDuration;
+
+  // The argument used to specify the maximum number of intervals.
+  private IntegerArgument numIntervals;
+
+  // The argument used to specify the number of top clients to display.
+  private IntegerArgument numTopClients;
+
+  // The addresses of the clients for recently-established connections.
+  private final LinkedHashMap<Long,String> connectionAddresses;
+
+  // The histogram with the processing times for the current interval, in
+  // nanoseconds.
+  private final LatencyHistogram processingTimes;
+
+  // The result codes for operations completed in the current interval.
+  private final HashMap<ResultCode,AtomicLong> resultCodes;
+
+  // The number of operations of each type completed in the current interval.
+  private long numAdds;
+  private long numBinds;
+  private long numDeletes;
+  private long numModifies;
+  private long numOther;
+  private long numSearches;
+
+  // The number of operations completed in the current interval that were not
+  // successful.
+  private long numErrors;
+
+  // The number of lines that could not be parsed.
+  private long numMalformedLines;
+
+  // The counter used to identify the most active clients.
+  private TopValueCounter clientCounter;
+
+
+
+  /**
+   * Parse the provided command line arguments and perform the appropriate
+   * processing.
+   *
+   * @param  args  The command line arguments provided to this program.
+   */
+  public static void main(final String[] args)
+  {
+    final ResultCode resultCode = main(args, System.out, System.err);
+    if (resultCode != ResultCode.SUCCESS)
+    {
+      System.exit(resultCode.intValue());
+    }
+  }
+
+
+
+  /**
+   * Parse the provided command line arguments and perform the appropriate
+   * processing.
+   *
+   * @param  args       The command line arguments provided to this program.
+   * @param  outStream  The output stream to which standard out should be
+   *                    written.  It may be {@code null} if output should be
+   *                    suppressed.
+   * @param  errStream  The output stream to which standard error should be
+   *                    written.  It may be {@code null} if error messages
+   *                    should be suppressed.
+   *
+   * @return  A result code indicating whether the processing was successful.
+   */
+  public static ResultCode main(final String[] args,
+                                final OutputStream outStream,
+                                final OutputStream errStream)
+  {
+    final TailAccessLog tool = new TailAccessLog(outStream, errStream);
+    return tool.runTool(args);
+  }
+
+
+
+  /**
+   * Creates a new instance of this tool.
+   *
+   * @param  outStream  The output stream to which standard out should be
+   *                    written.  It may be {@code null} if output should be
+   *                    suppressed.
+   * @param  errStream  The output stream to which standard error should be
+   *                    written.  It may be {@code null} if error messages
+   *                    should be suppressed.
+   */
+  public TailAccessLog(final OutputStream outStream,
+                       final OutputStream errStream)
+  {
+    super(outStream, errStream);
+
+    connectionAddresses = new LinkedHashMap<Long,String>(1000, 0.75f, false)
+    {
+      private static final long serialVersionUID = -7463921095836312284L;
+
+      @Override()
+      protected boolean removeEldestEntry(final Map.Entry<Long,String> e)
+      {
+        return (size() > MAX_CONNECTIONS);
+      }
+    };
+
+    processingTimes = new LatencyHistogram();
+    resultCodes     = new HashMap<ResultCode,AtomicLong>(10);
+    clientCounter   = null;
+  }
+
+
+
+  /**
+   * Retrieves the name for this tool.
+   *
+   * @return  The name for this tool.
+   */
+  @Override()
+  public String getToolName()
+  {
+    return "tail-access-log";
+  }
+
+
+
+  /**
+   * Retrieves the description for this tool.
+   *
+   * @return  The description for this tool.
+   */
+  @Override()
+  public String getToolDescription()
+  {
+    return "Follow an access log file from a Ping Identity, UnboundID, or " +
+         "Alcatel-Lucent 8661 server product as it is written, and " +
+         "periodically display metrics about the operations completed in " +
+         "each interval.";
+  }
+
+
+
+  /**
+   * Retrieves the version string for this tool.
+   *
+   * @return  The version string for this tool.
+   */
+  @Override()
+  public String getToolVersion()
+  {
+    return Version.NUMERIC_VERSION_STRING;
+  }
+
+
+
+  /**
+   * Retrieves the minimum number of unnamed trailing arguments that are
+   * required.
+   *
+   * @return  One, to indicate that a trailing argument (representing the path
+   *          to the access log file) must be provided.
+   */
+  @Override()
+  public int getMinTrailingArguments()
+  {
+    return 1;
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of unnamed trailing arguments that may be
+   * provided for this tool.
+   *
+   * @return  One, to indicate that only a single access log file may be
+   *          followed.
+   */
+  @Override()
+  public int getMaxTrailingArguments()
+  {
+    return 1;
+  }
+
+
+
+  /**
+   * Retrieves a placeholder string that should be used for trailing arguments
+   * in the usage information for this tool.
+   *
+   * @return  A placeholder string that should be used for trailing arguments in
+   *          the usage information for this tool.
+   */
+  @Override()
+  public String getTrailingArgumentsPlaceholder()
+  {
+    return "{path}";
+  }
+
+
+
+  /**
+   * Indicates whether this tool should provide arguments for redirecting output
+   * to a file.  If this method returns {@code true}, then the tool will offer
+   * an "--outputFile" argument that will specify the path to a file to which
+   * all standard output and standard error content will be written, and it will
+   * also offer a "--teeToStandardOut" argument that can only be used if the
+   * "--outputFile" argument is present and will cause all output to be written
+   * to both the specified output file and to standard output.
+   *
+   * @return  {@code true} if this tool should provide arguments for redirecting
+   *          output to a file, or {@code false} if not.
+   */
+  @Override()
+  protected boolean supportsOutputFile()
+  {
+    return true;
+  }
+
+
+
+  /**
+   * Indicates whether this tool supports the use of a properties file for
+   * specifying default values for arguments that aren't specified on the
+   * command line.
+   *
+   * @return  {@code true} if this tool supports the use of a properties file
+   *          for specifying default values for arguments that aren't specified
+   *          on the command line, or {@code false} if not.
+   */
+  @Override()
+  public boolean supportsPropertiesFile()
+  {
+    return true;
+  }
+
+
+
+  /**
+   * Adds the command-line arguments supported for use with this tool to the
+   * provided argument parser.  The tool may need to retain references to the
+   * arguments (and/or the argument parser, if trailing arguments are allowed)
+   * to it in order to obtain their values for use in later processing.
+   *
+   * @param  parser  The argument parser to which the arguments are to be added.
+   *
+   * @throws  ArgumentException  If a problem occurs while adding any of the
+   *                             tool-specific arguments to the provided
+   *                             argument parser.
+   */
+  @Override()
+  public void addToolArguments(final ArgumentParser parser)
+         throws ArgumentException
+  {
+    // We need to save a reference to the argument parser so that we can get
+    // the trailing arguments later.
+    argumentParser = parser;
+
+    fromBeginning = new BooleanArgument(null, "fromBeginning", 1,
+         "Indicates that the existing contents of the log file should be " +
+              "processed.  If this is not provided, then only content " +
+              "written after the tool is started will be processed.");
+    fromBeginning.addLongIdentifier("from-beginning", true);
+    parser.addArgument(fromBeginning);
+
+    intervalDuration = new IntegerArgument('i', "intervalDuration", true, 1,
+         "{num}",
+         "The length of time in seconds between output lines.  If this is " +
+              "not provided, then a default interval of five seconds will " +
+              "be used.",
+         1, Integer.MAX_VALUE, 5);
+    intervalDuration.addLongIdentifier("interval-duration", true);
+    parser.addArgument(intervalDuration);
+
+    numIntervals = new IntegerArgument('I', "numIntervals", true, 1, "{num}",
+         "The maximum number of intervals for which to run.  If this is not " +
+              "provided, then the tool will run until it is interrupted.",
+         1, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    numIntervals.addLongIdentifier("num-intervals", true);
+    parser.addArgument(numIntervals);
+
+    numTopClients = new IntegerArgument(null, "numTopClients", false, 1,
+         "{num}",
+         "The number of clients that requested the most operations in each " +
+              "interval to display after the line for that interval.  The " +
+              "counts for these clients are estimates that may be slightly " +
+              "higher than the actual counts.  If this is not provided, " +
+              "then the top clients will not be displayed.",
+         0, 100, 0);
+    numTopClients.addLongIdentifier("num-top-clients", true);
+    parser.addArgument(numTopClients);
+
+    showResultCodes = new BooleanArgument(null, "showResultCodes", 1,
+         "Indicates that the number of operations completed with each " +
+              "result code in each interval should be displayed after the " +
+              "line for that interval.");
+    showResultCodes.addLongIdentifier("show-result-codes", true);
+    parser.addArgument(showResultCodes);
+  }
+
+
+
+  /**
+   * Performs the core set of processing for this tool.
+   *
+   * @return  A result code that indicates whether the processing completed
+   *          successfully.
+   */
+  @Override()
+  public ResultCode doToolProcessing()
+  {
+    final File file = new File(argumentParser.getTrailingArguments().get(0));
+    final long intervalMillis = 1000L * intervalDuration.getValue();
+    final int maxIntervals = numIntervals.getValue();
+    final int topClients = numTopClients.getValue();
+    if (topClients > 0)
+    {
+      clientCounter = new TopValueCounter(Math.max(100, (10 * topClients)));
+    }
+
+    final LogFileFollower follower;
+    try
+    {
+      follower = new LogFileFollower(file, fromBeginning.isPresent(),
+           POLL_INTERVAL_MILLIS);
+    }
+    catch (final IOException ioe)
+    {
+      Debug.debugException(ioe);
+      err("Unable to open access log file ", file.getAbsolutePath(), ":  ",
+           getExceptionMessage(ioe));
+      return ResultCode.LOCAL_ERROR;
+    }
+
+    if (! follower.isOpen())
+    {
+      out("Access log file ", file.getAbsolutePath(),
+           " does not exist.  Waiting for it to be created.");
+    }
+
+    final ColumnFormatter formatter = new ColumnFormatter(false, null,
+         OutputFormat.COLUMNS, " ",
+         new FormattableColumn(8, HorizontalAlignment.LEFT, "Time"),
+         new FormattableColumn(9, HorizontalAlignment.RIGHT, "Ops/s"),
+         new FormattableColumn(9, HorizontalAlignment.RIGHT, "Search/s"),
+         new FormattableColumn(9, HorizontalAlignment.RIGHT, "Bind/s"),
+         new FormattableColumn(9, HorizontalAlignment.RIGHT, "Mod/s"),
+         new FormattableColumn(9, HorizontalAlignment.RIGHT, "Add/s"),
+         new FormattableColumn(9, HorizontalAlignment.RIGHT, "Del/s"),
+         new FormattableColumn(9, HorizontalAlignment.RIGHT, "Other/s"),
+         new FormattableColumn(8, HorizontalAlignment.RIGHT, "Avg ms"),
+         new FormattableColumn(8, HorizontalAlignment.RIGHT, "P50 ms"),
+         new FormattableColumn(8, HorizontalAlignment.RIGHT, "P99 ms"),
+         new FormattableColumn(8, HorizontalAlignment.RIGHT, "Max ms"),
+         new FormattableColumn(8, HorizontalAlignment.RIGHT, "Error %"));
+    for (final String headerLine : formatter.getHeaderLines(true))
+    {
+      out(headerLine);
+    }
+
+    final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
+    ResultCode resultCode = ResultCode.SUCCESS;
+    try
+    {
+      int intervalsCompleted = 0;
+      long intervalStartTime = System.currentTimeMillis();
+      long intervalEndTime = intervalStartTime + intervalMillis;
+      while (intervalsCompleted < maxIntervals)
+      {
+        final long currentTime = System.currentTimeMillis();
+        if (currentTime >= intervalEndTime)
+        {
+          outputInterval(formatter, timeFormat, currentTime,
+               (currentTime - intervalStartTime), topClients);
+          intervalsCompleted++;
+
+          // If processing has fallen behind by more than an interval, then
+          // start the next interval now rather than trying to catch up.
+          intervalStartTime = currentTime;
+          intervalEndTime += intervalMillis;
+          if (intervalEndTime <= currentTime)
+          {
+            intervalEndTime = currentTime + intervalMillis;
+          }
+          continue;
+        }
+
+        final String line = follower.readLine(intervalEndTime - currentTime);
+        if ((line == null) || (line.length() == 0) || (line.charAt(0) == '#'))
+        {
+          continue;
+        }
+
+        // Don't bother parsing messages that aren't used by this tool.
+        final AccessLogMessageType type = AccessLogReader.getMessageType(line);
+        if ((type != null) && (! MESSAGE_TYPES.contains(type)))
+        {
+          continue;
+        }
+
+        final AccessLogMessage msg;
+        try
+        {
+          msg = AccessLogReader.parse(line);
+        }
+        catch (final LogException le)
+        {
+          Debug.debugException(le);
+          numMalformedLines++;
+          continue;
+        }
+
+        processMessage(msg);
+      }
+    }
+    catch (final InterruptedException ie)
+    {
+      Debug.debugException(ie);
+      err("Interrupted while waiting for access log content.");
+      resultCode = ResultCode.LOCAL_ERROR;
+    }
+    catch (final IOException ioe)
+    {
+      Debug.debugException(ioe);
+      err("Unable to read from access log file ", file.getAbsolutePath(),
+           ":  ", getExceptionMessage(ioe));
+      resultCode = ResultCode.LOCAL_ERROR;
+    }
+    finally
+    {
+      try
+      {
+        follower.close();
+      }
+      catch (final IOException ioe)
+      {
+        Debug.debugException(ioe);
+      }
+    }
+
+    if (numMalformedLines > 0L)
+    {
+      out();
+      out(numMalformedLines,
+           " lines could not be parsed as access log messages.");
+    }
+
+    return resultCode;
+  }
+
+
+
+  /**
+   * Updates the metrics for the current interval with the information in the
+   * provided access log message.
+   *
+   * @param  msg  The access log message to process.
+   */
+  private void processMessage(final AccessLogMessage msg)
+  {
+    if (msg instanceof ConnectAccessLogMessage)
+    {
+      final ConnectAccessLogMessage m = (ConnectAccessLogMessage) msg;
+      final Long connectionID = m.getConnectionID();
+      final String sourceAddress = m.getSourceAddress();
+      if ((connectionID != null) && (sourceAddress != null))
+      {
+        connectionAddresses.put(connectionID, getClientAddress(sourceAddress));
+      }
+      return;
+    }
+    else if (msg instanceof DisconnectAccessLogMessage)
+    {
+      connectionAddresses.remove(msg.getConnectionID());
+      return;
+    }
+    else if (! (msg instanceof MinimalOperationResultAccessLogMessage))
+    {
+      return;
+    }
+
+    final AccessLogOperationType opType =
+         ((OperationAccessLogMessage) msg).getOperationType();
+    switch (opType)
+    {
+      case ADD:
+        numAdds++;
+        break;
+      case BIND:
+        numBinds++;
+        break;
+      case DELETE:
+        numDeletes++;
+        break;
+      case MODIFY:
+        numModifies++;
+        break;
+      case SEARCH:
+        numSearches++;
+        break;
+      default:
+        numOther++;
+        break;
+    }
+
+    final MinimalOperationResultAccessLogMessage m =
+         (MinimalOperationResultAccessLogMessage) msg;
+    final Double processingTime = m.getProcessingTimeMillis();
+    if (processingTime != null)
+    {
+      processingTimes.recordValue(Math.round(processingTime * 1000000.0d));
+    }
+
+    final ResultCode rc = m.getResultCode();
+    if (rc != null)
+    {
+      if (rc != ResultCode.SUCCESS)
+      {
+        numErrors++;
+      }
+
+      final AtomicLong count = resultCodes.get(rc);
+      if (count == null)
+      {
+        resultCodes.put(rc, new AtomicLong(1L));
+      }
+      else
+      {
+        count.incrementAndGet();
+      }
+    }
+
+    if (clientCounter != null)
+    {
+      String clientAddress = null;
+      if (msg instanceof OperationRequestAccessLogMessage)
+      {
+        clientAddress =
+             ((OperationRequestAccessLogMessage) msg).getRequesterIPAddress();
+      }
+
+      if (clientAddress == null)
+      {
+        clientAddress = connectionAddresses.get(msg.getConnectionID());
+      }
+
+      if (clientAddress != null)
+      {
+        clientCounter.increment(clientAddress);
+      }
+    }
+  }
+
+
+
+  /**
+   * Writes the line with the metrics for the interval that just ended, along
+   * with any additional information that should be displayed for it, and
+   * resets the metrics for the next interval.
+   *
+   * @param  formatter       The column formatter to use to format the line.
+   * @param  timeFormat      The format to use for the time of the line.
+   * @param  currentTime     The time that the interval ended.
+   * @param  durationMillis  The duration of the interval, in milliseconds.
+   * @param  topClients      The number of top clients to display.
+   */
+  private void outputInterval(final ColumnFormatter formatter,
+                              final SimpleDateFormat timeFormat,
+                              final long currentTime,
+                              final long durationMillis, final int topClients)
+  {
+    final long numOps =
+         numAdds + numBinds + numDeletes + numModifies + numOther + numSearches;
+    final double seconds = Math.max(1L, durationMillis) / 1000.0d;
+    final double errorPercent;
+    if (numOps > 0L)
+    {
+      errorPercent = 100.0d * numErrors / numOps;
+    }
+    else
+    {
+      errorPercent = 0.0d;
+    }
+
+    out(formatter.formatRow(timeFormat.format(new Date(currentTime)),
+         (numOps / seconds), (numSearches / seconds), (numBinds / seconds),
+         (numModifies / seconds), (numAdds / seconds), (numDeletes / seconds),
+         (numOther / seconds),
+         (processingTimes.getMeanValue() / 1000000.0d),
+         (processingTimes.getValueAtPercentile(50.0d) / 1000000.0d),
+         (processingTimes.getValueAtPercentile(99.0d) / 1000000.0d),
+         (processingTimes.getMaxValue() / 1000000.0d),
+         errorPercent));
+
+    if (showResultCodes.isPresent() && (! resultCodes.isEmpty()))
+    {
+      final List<Map.Entry<ResultCode,AtomicLong>> entries =
+           new ArrayList<Map.Entry<ResultCode,AtomicLong>>(
+                resultCodes.entrySet());
+      Collections.sort(entries,
+           new Comparator<Map.Entry<ResultCode,AtomicLong>>()
+           {
+             @Override()
+             public int compare(final Map.Entry<ResultCode,AtomicLong> e1,
+                                final Map.Entry<ResultCode,AtomicLong> e2)
+             {
+               final long c1 = e1.getValue().get();
+               final long c2 = e2.getValue().get();
+               if (c1 != c2)
+               {
+                 return (c1 > c2) ? -1 : 1;
+               }
+
+               return (e1.getKey().intValue() - e2.getKey().intValue());
+             }
+           });
+
+      final StringBuilder buffer = new StringBuilder("  Result codes:  ");
+      for (int i=0; i < entries.size(); i++)
+      {
+        if (i > 0)
+        {
+          buffer.append(", ");
+        }
+
+        buffer.append(entries.get(i).getKey().toString());
+        buffer.append(": ");
+        buffer.append(entries.get(i).getValue().get());
+      }
+      out(buffer.toString());
+    }
+
+    if ((clientCounter != null) && (clientCounter.getTotalCount() > 0L))
+    {
+      final StringBuilder buffer = new StringBuilder("  Top clients:  ");
+      final List<ObjectPair<String,Long>> values =
+           clientCounter.getTopValues(topClients);
+      for (int i=0; i < values.size(); i++)
+      {
+        if (i > 0)
+        {
+          buffer.append(", ");
+        }
+
+        buffer.append(values.get(i).getFirst());
+        buffer.append(": ");
+        buffer.append(values.get(i).getSecond());
+      }
+      out(buffer.toString());
+    }
+
+    numAdds     = 0L;
+    numBinds    = 0L;
+    numDeletes  = 0L;
+    numModifies = 0L;
+    numOther    = 0L;
+    numSearches = 0L;
+    numErrors   = 0L;
+    processingTimes.reset();
+    resultCodes.clear();
+    if (clientCounter != null)
+    {
+      clientCounter.reset();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the client address from the provided source address, which may
+   * include a port number.
+   *
+   * @param  sourceAddress  The source address from a connect message.
+   *
+   * @return  The client address, without any port number.
+   */
+  static String getClientAddress(final String sourceAddress)
+  {
+    String address = sourceAddress;
+    final int colonPos = address.lastIndexOf(':');
+    if ((colonPos > 0) && (colonPos < (address.length() - 1)) &&
+        ((address.indexOf(':') == colonPos) || (address.charAt(0) == '[')))
+    {
+      boolean isPort = true;
+      for (int i=colonPos+1; i < address.length(); i++)
+      {
+        if (! Character.isDigit(address.charAt(i)))
+        {
+          isPort = false;
+          break;
+        }
+      }
+
+      if (isPort)
+      {
+        address = address.substring(0, colonPos);
+      }
+    }
+
+    if (address.startsWith("[") && address.endsWith("]"))
+    {
+      address = address.substring(1, (address.length() - 1));
+    }
+
+    return address;
+  }
+
+
+
+  /**
+   * Retrieves a set of information that may be used to generate example usage
+   * information.  Each element in the returned map should consist of a map
+   * between an example set of arguments and a string that describes the
+   * behavior of the tool when invoked with that set of arguments.
+   *
+   * @return  A set of information that may be used to generate example usage
+   *          information.  It may be {@code null} or empty if no example usage
+   *          information is available.
+   */
+  @Override()
+  public LinkedHashMap<String[],String> getExampleUsages()
+  {
+    final LinkedHashMap<String[],String> exampleMap =
+         new LinkedHashMap<String[],String>(2);
+
+    String[] args =
+    {
+      "/ds/logs/access"
+    };
+    exampleMap.put(args,
+         "Follow the specified access log file and display operation " +
+              "metrics every five seconds.");
+
+    args = new String[]
+    {
+      "--intervalDuration", "60",
+      "--numTopClients", "5",
+      "--showResultCodes",
+      "/ds/logs/access"
+    };
+    exampleMap.put(args,
+         "Follow the specified access log file and display operation " +
+              "metrics every minute, along with the five clients that " +
+              "requested the most operations and the distribution of result " +
+              "codes.");
+
+    return exampleMap;
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.unboundidds.examples;
+
+
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.unboundid.util.ObjectPair;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+
+
+/**
+ * This class provides a mechanism for approximating the most frequently
+ * occurring values in a stream using a fixed amount of memory, using the
+ * space-saving algorithm.  Up to a maximum number of values are tracked, and
+ * when a value that is not tracked is encountered while the counter is full,
+ * it replaces the tracked value with the smallest count and inherits that
+ * count.  Counts may therefore overestimate the number of occurrences of a
+ * value, but never by more than the count of the value that was replaced, and
+ * any value that occurs more often than the total number of occurrences
+ * divided by the maximum number of tracked values is guaranteed to be
+ * tracked.
+ * <BR>
+ * <BLOCKQUOTE>
+ *   <B>NOTE:</B>  This class, and other classes within the
+ *   {@code com.unboundid.ldap.sdk.unboundidds} package structure, are only
+ *   supported for use against Ping Identity, UnboundID, and Alcatel-Lucent 8661
+ *   server products.  These classes provide support for proprietary
+ *   functionality or for external specifications that are not considered stable
+ *   or mature enough to be guaranteed to work in an interoperable way with
+ *   other types of LDAP servers.
+ * </BLOCKQUOTE>
+ */
+@ThreadSafety(level=ThreadSafetyLevel.NOT_THREADSAFE)
+final class TopValueCounter
+      implements Serializable
+{
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = -4471523390186529871L;
+
+
+
+  // The counts for the tracked values.  Each array has a single element so
+  // that counts can be updated without replacing the map entry.
+  private final HashMap<String,long[]> counts;
+
+  // The maximum number of values to track.
+  private final int capacity;
+
+  // The total number of occurrences of all values.
+  private long totalCount;
+
+
+
+  /**
+   * Creates a new top value counter that will track up to the specified number
+   * of values.
+   *
+   * @param  capacity  The maximum number of values to track.  It must be
+   *                   greater than zero.
+   */
+  TopValueCounter(final int capacity)
+  {
+    this.capacity = capacity;
+
+    counts = new HashMap<String,long[]>(capacity * 2);
+    totalCount = 0L;
+  }
+
+
+
+  /**
+   * Records an occurrence of the provided value.
+   *
+   * @param  value  The value for which to record an occurrence.  It must not
+   *                be {@code null}.
+   */
+  void increment(final String value)
+  {
+    totalCount++;
+
+    final long[] c = counts.get(value);
+    if (c != null)
+    {
+      c[0]++;
+      return;
+    }
+
+    if (counts.size() < capacity)
+    {
+      counts.put(value, new long[] { 1L });
+      return;
+    }
+
+    // Replace the value with the smallest count.
+    String minValue = null;
+    long minCount = Long.MAX_VALUE;
+    for (final Map.Entry<String,long[]> e : counts.entrySet())
+    {
+      if (e.getValue()[0] < minCount)
+      {
+        minValue = e.getKey();
+        minCount = e.getValue()[0];
+      }
+    }
+
+    counts.remove(minValue);
+    counts.put(value, new long[] { minCount + 1L });
+  }
+
+
+
+  /**
+   * Retrieves the total number of occurrences recorded for all values,
+   * including those that are no longer tracked.
+   *
+   * @return  The total number of occurrences recorded for all values.
+   */
+  long getTotalCount()
+  {
+    return totalCount;
+  }
+
+
+
+  /**
+   * Retrieves the most frequently occurring values, in descending order of
+   * their counts.
+   *
+   * @param  maxValues  The maximum number of values to return.
+   *
+   * @return  The most frequently occurring values, paired with their estimated
+   *          counts.
+   */
+  List<ObjectPair<String,Long>> getTopValues(final int maxValues)
+  {
+    final List<ObjectPair<String,Long>> values =
+         new ArrayList<ObjectPair<String,Long>>(counts.size());
+    for (final Map.Entry<String,long[]> e : counts.entrySet())
+    {
+      values.add(new ObjectPair<String,Long>(e.getKey(), e.getValue()[0]));
+    }
+
+    Collections.sort(values, new Comparator<ObjectPair<String,Long>>()
+    {
+      @Override()
+      public int compare(final ObjectPair<String,Long> p1,
+                         final ObjectPair<String,Long> p2)
+      {
+        final int c = p2.getSecond().compareTo(p1.getSecond());
+        if (c != 0)
+        {
+          return c;
+        }
+
+        return p1.getFirst().compareTo(p2.getFirst());
+      }
+    });
+
+    if (values.size() > maxValues)
+    {
+      return values.subList(0, maxValues);
+    }
+    else
+    {
+      return values;
+    }
+  }
+
+
+
+  /**
+   * Discards all of the information recorded in this counter.
+   */
+  void reset()
+  {
+    counts.clear();
+    totalCount = 0L;
+  }
+}
@@ -0,0 +1,1182 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.unboundidds.jsonfilter;
+
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.unboundid.util.Debug;
+import com.unboundid.util.NotMutable;
+import com.unboundid.util.StaticUtils;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.json.JSONArray;
+import com.unboundid.util.json.JSONException;
+import com.unboundid.util.json.JSONObject;
+import com.unboundid.util.json.JSONStreamReader;
+import com.unboundid.util.json.JSONString;
+import com.unboundid.util.json.JSONTokenType;
+import com.unboundid.util.json.JSONValue;
+
+import static com.unboundid.ldap.sdk.unboundidds.jsonfilter.JFMessages.*;
+
+
+
+/**
+ * This class provides a compiled form of a {@link JSONObjectFilter} that can be
+ * evaluated more efficiently against a large number of JSON objects.  It may be
+ * obtained using the {@link JSONObjectFilter#compile} method.
+ * <BR>
+ * <BLOCKQUOTE>
+ *   <B>NOTE:</B>  This class, and other classes within the
+ *   {@code com.unboundid.ldap.sdk.unboundidds} package structure, are only
+ *   supported for use against Ping Identity, UnboundID, and Alcatel-Lucent 8661
+ *   server products.  These classes provide support for proprietary
+ *   functionality or for external specifications that are not considered stable
+ *   or mature enough to be guaranteed to work in an interoperable way with
+ *   other types of LDAP servers.
+ * </BLOCKQUOTE>
+ * <BR>
+ * When a filter is compiled, all of the field paths referenced anywhere in the
+ * filter are combined into a single tree, so that each JSON object is only
+ * traversed once no matter how many components of an AND or OR filter target
+ * fields in it.  The values to match for equals and equals any filters are
+ * normalized in advance, so that the values of each object only need to be
+ * normalized when they are compared.
+ * <BR><BR>
+ * A compiled filter can be evaluated against a JSON object that has already
+ * been decoded, or against the bytes that make up the UTF-8 encoding of a JSON
+ * object.  In the latter case, the object will be read with a
+ * {@link JSONStreamReader} and only the values of fields targeted by the filter
+ * will be decoded.  Note that while the encoded object must be well-formed
+ * JSON, fields that are not targeted by the filter are not checked for
+ * duplicate names.
+ * <BR><BR>
+ * A compiled filter is not affected by any changes made to the filter from
+ * which it was compiled, and it may be safely used by multiple threads at the
+ * same time.
+ */
+@NotMutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class CompiledJSONObjectFilter
+{
+  // Indicates whether the filter includes any components that need the
+  // complete JSON object rather than just the values of specific fields.
+  private boolean requiresFullObject;
+
+  // The number of distinct field paths referenced by the filter.
+  private int numPaths;
+
+  // The filter from which this compiled filter was created.
+  private final JSONObjectFilter filter;
+
+  // The root of the compiled filter tree.
+  private final Node rootNode;
+
+  // The root of the tree of field paths referenced by the filter.
+  private final PathNode rootPath;
+
+
+
+  /**
+   * Creates a new compiled form of the provided filter.
+   *
+   * @param  filter  The filter to compile.  It must not be {@code null}.
+   */
+  CompiledJSONObjectFilter(final JSONObjectFilter filter)
+  {
+    // Work with a copy of the filter so that later changes to the provided
+    // filter will not affect the compiled form.
+    JSONObjectFilter f;
+    try
+    {
+      f = JSONObjectFilter.decode(filter.toJSONObject());
+    }
+    catch (final JSONException e)
+    {
+      Debug.debugException(e);
+      f = filter;
+    }
+
+    this.filter = f;
+
+    requiresFullObject = false;
+    numPaths = 0;
+    rootPath = new PathNode();
+    rootNode = compile(f);
+  }
+
+
+
+  /**
+   * Creates the compiled form of the provided filter, registering any field
+   * paths that it uses.
+   *
+   * @param  f  The filter to compile.
+   *
+   * @return  The compiled form of the provided filter.
+   */
+  private Node compile(final JSONObjectFilter f)
+  {
+    if (f instanceof ANDJSONObjectFilter)
+    {
+      return new ANDNode(compile(((ANDJSONObjectFilter) f).getANDFilters()));
+    }
+    else if (f instanceof ORJSONObjectFilter)
+    {
+      final ORJSONObjectFilter orFilter = (ORJSONObjectFilter) f;
+      return new ORNode(compile(orFilter.getORFilters()),
+           orFilter.exclusive());
+    }
+    else if (f instanceof NegateJSONObjectFilter)
+    {
+      return new NegateNode(
+           compile(((NegateJSONObjectFilter) f).getNegateFilter()));
+    }
+    else if (f instanceof ObjectMatchesJSONObjectFilter)
+    {
+      final ObjectMatchesJSONObjectFilter omFilter =
+           (ObjectMatchesJSONObjectFilter) f;
+      return new ObjectMatchesNode(registerPath(omFilter.getField()),
+           new CompiledJSONObjectFilter(omFilter.getFilter()));
+    }
+
+    final List<String> field = f.getTargetField();
+    if (field == null)
+    {
+      // This filter type can't be evaluated based on field values, so it will
+      // need the complete object.
+      requiresFullObject = true;
+      return new ObjectNode(f);
+    }
+
+    final int pathIndex = registerPath(field);
+    if (f instanceof EqualsJSONObjectFilter)
+    {
+      final EqualsJSONObjectFilter equalsFilter = (EqualsJSONObjectFilter) f;
+      if (equalsFilter.getValue() instanceof JSONString)
+      {
+        return new StringEqualsNode(pathIndex,
+             ((JSONString) equalsFilter.getValue()).stringValue(),
+             equalsFilter.caseSensitive());
+      }
+    }
+    else if (f instanceof EqualsAnyJSONObjectFilter)
+    {
+      final EqualsAnyJSONObjectFilter equalsAnyFilter =
+           (EqualsAnyJSONObjectFilter) f;
+      final boolean caseSensitive = equalsAnyFilter.caseSensitive();
+      final HashSet<String> values =
+           new HashSet<String>(equalsAnyFilter.getValues().size());
+      for (final JSONValue v : equalsAnyFilter.getValues())
+      {
+        if (! (v instanceof JSONString))
+        {
+          return new ValuesNode(pathIndex, f);
+        }
+
+        final String s = ((JSONString) v).stringValue();
+        values.add(caseSensitive ? s : foldCase(s));
+      }
+
+      return new StringEqualsAnyNode(pathIndex, values, caseSensitive);
+    }
+
+    return new ValuesNode(pathIndex, f);
+  }
+
+
+
+  /**
+   * Creates the compiled forms of the provided filters.
+   *
+   * @param  filters  The filters to compile.
+   *
+   * @return  The compiled forms of the provided filters.
+   */
+  private Node[] compile(final List<JSONObjectFilter> filters)
+  {
+    final Node[] nodes = new Node[filters.size()];
+    for (int i=0; i < nodes.length; i++)
+    {
+      nodes[i] = compile(filters.get(i));
+    }
+
+    return nodes;
+  }
+
+
+
+  /**
+   * Adds the provided field path to the tree of paths referenced by the filter,
+   * if it is not already present.
+   *
+   * @param  path  The field path to register.
+   *
+   * @return  The index that will be used to retrieve the values for the field
+   *          path.
+   */
+  private int registerPath(final List<String> path)
+  {
+    PathNode node = rootPath;
+    for (final String name : path)
+    {
+      PathNode child = node.children.get(name);
+      if (child == null)
+      {
+        child = new PathNode();
+        node.children.put(name, child);
+      }
+      node = child;
+    }
+
+    if (node.pathIndex < 0)
+    {
+      node.pathIndex = numPaths++;
+    }
+
+    return node.pathIndex;
+  }
+
+
+
+  /**
+   * Retrieves the filter from which this compiled filter was created.  It will
+   * be a copy of the filter provided to the {@link JSONObjectFilter#compile}
+   * method, and it must not be altered.
+   *
+   * @return  The filter from which this compiled filter was created.
+   */
+  public JSONObjectFilter getFilter()
+  {
+    return filter;
+  }
+
+
+
+  /**
+   * Indicates whether this filter matches the provided JSON object.  The
+   * result will be the same as that of the
+   * {@link JSONObjectFilter#matchesJSONObject} method of the filter from which
+   * this compiled filter was created.
+   *
+   * @param  o  The JSON object for which to make the determination.
+   *
+   * @return  {@code true} if this filter matches the provided JSON object, or
+   *          {@code false} if not.
+   */
+  public boolean matchesJSONObject(final JSONObject o)
+  {
+    final Evaluation e = new Evaluation(o, numPaths);
+    resolvePaths(o, rootPath, e);
+
+    try
+    {
+      return rootNode.matches(e);
+    }
+    catch (final JSONException je)
+    {
+      // This should never happen when evaluating a decoded object.
+      Debug.debugException(je);
+      return false;
+    }
+  }
+
+
+
+  /**
+   * Indicates whether this filter matches the JSON object with the provided
+   * encoded representation.  Only the values of the fields targeted by this
+   * filter will be decoded.
+   *
+   * @param  encodedObject  The bytes that make up the UTF-8 encoding of the
+   *                        JSON object for which to make the determination.
+   *                        It must not be {@code null}.
+   *
+   * @return  {@code true} if this filter matches the provided JSON object, or
+   *          {@code false} if not.
+   *
+   * @throws  JSONException  If the provided data cannot be parsed as a single
+   *                         JSON object.
+   */
+  public boolean matchesJSONObject(final byte[] encodedObject)
+         throws JSONException
+  {
+    final JSONStreamReader reader = new JSONStreamReader(encodedObject);
+    if (reader.nextToken() != JSONTokenType.START_OBJECT)
+    {
+      throw new JSONException(ERR_COMPILED_FILTER_NOT_OBJECT.get(
+           String.valueOf(filter)));
+    }
+
+    final Evaluation e;
+    if (requiresFullObject)
+    {
+      final JSONObject o = (JSONObject) reader.readValue();
+      e = new Evaluation(o, numPaths);
+      resolvePaths(o, rootPath, e);
+    }
+    else
+    {
+      e = new Evaluation(null, numPaths);
+      resolvePaths(reader, rootPath, e);
+    }
+
+    if (reader.nextToken() != null)
+    {
+      throw new JSONException(ERR_COMPILED_FILTER_DATA_BEYOND_END.get(
+           String.valueOf(filter), reader.getOffset()));
+    }
+
+    return rootNode.matches(e);
+  }
+
+
+
+  /**
+   * Retrieves the values for the field paths in the provided tree from the
+   * given JSON object.
+   *
+   * @param  o     The JSON object from which to retrieve the values.
+   * @param  node  The node for the object in the tree of field paths.
+   * @param  e     The evaluation into which the values should be placed.
+   */
+  private static void resolvePaths(final JSONObject o, final PathNode node,
+                                   final Evaluation e)
+  {
+    for (final Map.Entry<String,PathNode> entry : node.children.entrySet())
+    {
+      final JSONValue v = o.getField(entry.getKey());
+      if (v != null)
+      {
+        resolvePaths(v, entry.getValue(), e);
+      }
+    }
+  }
+
+
+
+  /**
+   * Records the provided value for the field path that ends at the given node,
+   * if any, and retrieves the values for any longer field paths that go
+   * through the node.
+   *
+   * @param  v     The value of the field for the node.
+   * @param  node  The node in the tree of field paths.
+   * @param  e     The evaluation into which the values should be placed.
+   */
+  private static void resolvePaths(final JSONValue v, final PathNode node,
+                                   final Evaluation e)
+  {
+    if (node.pathIndex >= 0)
+    {
+      e.addValue(node.pathIndex, v);
+    }
+
+    if (node.children.isEmpty())
+    {
+      return;
+    }
+
+    if (v instanceof JSONObject)
+    {
+      resolvePaths((JSONObject) v, node, e);
+    }
+    else if (v instanceof JSONArray)
+    {
+      resolvePathsInArray((JSONArray) v, node, e);
+    }
+  }
+
+
+
+  /**
+   * Retrieves the values for the field paths in the provided tree from each
+   * of the JSON objects in the given array, including those in nested arrays.
+   *
+   * @param  a     The array to examine.
+   * @param  node  The node in the tree of field paths to apply to each object
+   *               in the array.
+   * @param  e     The evaluation into which the values should be placed.
+   */
+  private static void resolvePathsInArray(final JSONArray a,
+                                          final PathNode node,
+                                          final Evaluation e)
+  {
+    for (final JSONValue v : a.getValues())
+    {
+      if (v instanceof JSONObject)
+      {
+        resolvePaths((JSONObject) v, node, e);
+      }
+      else if (v instanceof JSONArray)
+      {
+        resolvePathsInArray((JSONArray) v, node, e);
+      }
+    }
+  }
+
+
+
+  /**
+   * Retrieves the values for the field paths in the provided tree from the
+   * JSON object whose opening curly brace was the most recent token read by the
+   * given reader, skipping over any fields that are not in the tree.  The
+   * entire object will be consumed.  As when decoding the full object, it is
+   * an error for the object to have multiple fields with the same name, but
+   * that is only detected for the fields in the tree.
+   *
+   * @param  reader  The reader from which to read the object.
+   * @param  node    The node for the object in the tree of field paths.
+   * @param  e       The evaluation into which the values should be placed.
+   *
+   * @throws  JSONException  If a problem is encountered while reading the
+   *                         object.
+   */
+  private void resolvePaths(final JSONStreamReader reader,
+                            final PathNode node, final Evaluation e)
+          throws JSONException
+  {
+    HashSet<String> namesSeen = null;
+    while (reader.nextToken() == JSONTokenType.FIELD_NAME)
+    {
+      final String name = reader.getText();
+      final PathNode child = node.children.get(name);
+      if (child == null)
+      {
+        reader.skipValue();
+        continue;
+      }
+
+      if (namesSeen == null)
+      {
+        namesSeen = new HashSet<String>(node.children.size());
+      }
+
+      if (! namesSeen.add(name))
+      {
+        throw new JSONException(ERR_COMPILED_FILTER_DUPLICATE_FIELD.get(
+             String.valueOf(filter), reader.getOffset(), name));
+      }
+
+      final JSONTokenType valueToken = reader.nextToken();
+      if (child.pathIndex >= 0)
+      {
+        // The value itself is needed, so decode it and look for any longer
+        // paths in the decoded value.
+        resolvePaths(reader.readValue(), child, e);
+      }
+      else if (valueToken == JSONTokenType.START_OBJECT)
+      {
+        resolvePaths(reader, child, e);
+      }
+      else if (valueToken == JSONTokenType.START_ARRAY)
+      {
+        resolvePathsInArray(reader, child, e);
+      }
+    }
+  }
+
+
+
+  /**
+   * Retrieves the values for the field paths in the provided tree from each
+   * of the JSON objects in the array whose opening square bracket was the most
+   * recent token read by the given reader.  The entire array will be consumed.
+   *
+   * @param  reader  The reader from which to read the array.
+   * @param  node    The node in the tree of field paths to apply to each object
+   *                 in the array.
+   * @param  e       The evaluation into which the values should be placed.
+   *
+   * @throws  JSONException  If a problem is encountered while reading the
+   *                         array.
+   */
+  private void resolvePathsInArray(final JSONStreamReader reader,
+                                   final PathNode node, final Evaluation e)
+          throws JSONException
+  {
+    while (true)
+    {
+      final JSONTokenType t = reader.nextToken();
+      if (t == JSONTokenType.END_ARRAY)
+      {
+        return;
+      }
+      else if (t == JSONTokenType.START_OBJECT)
+      {
+        resolvePaths(reader, node, e);
+      }
+      else if (t == JSONTokenType.START_ARRAY)
+      {
+        resolvePathsInArray(reader, node, e);
+      }
+    }
+  }
+
+
+
+  /**
+   * Retrieves a representation of the provided string in which differences in
+   * capitalization have been removed.  Two strings will have the same folded
+   * representation if and only if {@code String.equalsIgnoreCase} considers
+   * them equal.
+   *
+   * @param  s  The string to fold.
+   *
+   * @return  The folded representation of the provided string.
+   */
+  static String foldCase(final String s)
+  {
+    final int length = s.length();
+    for (int i=0; i < length; i++)
+    {
+      if (s.charAt(i) > 0x7F)
+      {
+        final StringBuilder buffer = new StringBuilder(length);
+        int pos = 0;
+        while (pos < length)
+        {
+          final int codePoint = s.codePointAt(pos);
+          buffer.appendCodePoint(
+               Character.toLowerCase(Character.toUpperCase(codePoint)));
+          pos += Character.charCount(codePoint);
+        }
+        return buffer.toString();
+      }
+    }
+
+    return StaticUtils.toLowerCase(s);
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this compiled filter.  It will be the
+   * string representation of the filter from which it was compiled.
+   *
+   * @return  A string representation of this compiled filter.
+   */
+  @Override()
+  public String toString()
+  {
+    return filter.toString();
+  }
+
+
+
+  /**
+   * This class provides a node in the tree of field paths referenced by a
+   * compiled filter.
+   */
+  private static final class PathNode
+  {
+    // The nodes for fields in JSON objects that are the value of this field.
+    private final Map<String,PathNode> children;
+
+    // The index for the values of the field path that ends at this node, or -1
+    // if no field path ends at this node.
+    private int pathIndex;
+
+
+
+    /**
+     * Creates a new path node with no children.
+     */
+    private PathNode()
+    {
+      children = new HashMap<String,PathNode>(10);
+      pathIndex = -1;
+    }
+  }
+
+
+
+  /**
+   * This class holds the state for a single evaluation of a compiled filter.
+   */
+  private static final class Evaluation
+  {
+    // The values of each of the field paths referenced by the filter.
+    private final List<List<JSONValue>> values;
+
+    // The JSON object being evaluated, if it has been decoded.
+    private final JSONObject object;
+
+
+
+    /**
+     * Creates a new evaluation.
+     *
+     * @param  object    The JSON object being evaluated.  It may be
+     *                   {@code null} if the object has not been decoded.
+     * @param  numPaths  The number of distinct field paths referenced by the
+     *                   filter.
+     */
+    private Evaluation(final JSONObject object, final int numPaths)
+    {
+      this.object = object;
+
+      values = new ArrayList<List<JSONValue>>(numPaths);
+      for (int i=0; i < numPaths; i++)
+      {
+        values.add(null);
+      }
+    }
+
+
+
+    /**
+     * Records a value for the specified field path.
+     *
+     * @param  pathIndex  The index of the field path.
+     * @param  v          The value to record.
+     */
+    private void addValue(final int pathIndex, final JSONValue v)
+    {
+      List<JSONValue> l = values.get(pathIndex);
+      if (l == null)
+      {
+        l = new ArrayList<JSONValue>(1);
+        values.set(pathIndex, l);
+      }
+
+      l.add(v);
+    }
+
+
+
+    /**
+     * Retrieves the values for the specified field path.
+     *
+     * @param  pathIndex  The index of the field path.
+     *
+     * @return  The values for the specified field path, or an empty list if
+     *          there are none.
+     */
+    private List<JSONValue> getValues(final int pathIndex)
+    {
+      final List<JSONValue> l = values.get(pathIndex);
+      if (l == null)
+      {
+        return Collections.emptyList();
+      }
+
+      return l;
+    }
+  }
+
+
+
+  /**
+   * This class defines a node in a compiled filter tree.
+   */
+  private abstract static class Node
+  {
+    /**
+     * Indicates whether this node matches the JSON object being evaluated.
+     *
+     * @param  e  The evaluation for the JSON object.
+     *
+     * @return  {@code true} if this node matches the JSON object, or
+     *          {@code false} if not.
+     *
+     * @throws  JSONException  If a problem is encountered while evaluating the
+     *                         node.
+     */
+    abstract boolean matches(Evaluation e)
+             throws JSONException;
+  }
+
+
+
+  /**
+   * This class provides a compiled filter node for an AND filter.
+   */
+  private static final class ANDNode
+          extends Node
+  {
+    // The nodes for the components of the AND filter.
+    private final Node[] components;
+
+
+
+    /**
+     * Creates a new AND node.
+     *
+     * @param  components  The nodes for the components of the AND filter.
+     */
+    private ANDNode(final Node[] components)
+    {
+      this.components = components;
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    boolean matches(final Evaluation e)
+            throws JSONException
+    {
+      for (final Node n : components)
+      {
+        if (! n.matches(e))
+        {
+          return false;
+        }
+      }
+
+      return true;
+    }
+  }
+
+
+
+  /**
+   * This class provides a compiled filter node for an OR filter.
+   */
+  private static final class ORNode
+          extends Node
+  {
+    // Indicates whether the OR filter is exclusive.
+    private final boolean exclusive;
+
+    // The nodes for the components of the OR filter.
+    private final Node[] components;
+
+
+
+    /**
+     * Creates a new OR node.
+     *
+     * @param  components  The nodes for the components of the OR filter.
+     * @param  exclusive   Indicates whether the OR filter is exclusive.
+     */
+    private ORNode(final Node[] components, final boolean exclusive)
+    {
+      this.components = components;
+      this.exclusive = exclusive;
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    boolean matches(final Evaluation e)
+            throws JSONException
+    {
+      boolean matchFound = false;
+      for (final Node n : components)
+      {
+        if (n.matches(e))
+        {
+          if (! exclusive)
+          {
+            return true;
+          }
+          else if (matchFound)
+          {
+            return false;
+          }
+
+          matchFound = true;
+        }
+      }
+
+      return matchFound;
+    }
+  }
+
+
+
+  /**
+   * This class provides a compiled filter node for a negate filter.
+   */
+  private static final class NegateNode
+          extends Node
+  {
+    // The node for the negated filter.
+    private final Node negatedNode;
+
+
+
+    /**
+     * Creates a new negate node.
+     *
+     * @param  negatedNode  The node for the negated filter.
+     */
+    private NegateNode(final Node negatedNode)
+    {
+      this.negatedNode = negatedNode;
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    boolean matches(final Evaluation e)
+            throws JSONException
+    {
+      return (! negatedNode.matches(e));
+    }
+  }
+
+
+
+  /**
+   * This class provides a compiled filter node for an equals filter whose
+   * value is a string.
+   */
+  private static final class StringEqualsNode
+          extends Node
+  {
+    // Indicates whether the comparison should be case sensitive.
+    private final boolean caseSensitive;
+
+    // The index of the field path to examine.
+    private final int pathIndex;
+
+    // The string value to match.
+    private final String value;
+
+
+
+    /**
+     * Creates a new string equals node.
+     *
+     * @param  pathIndex      The index of the field path to examine.
+     * @param  value          The string value to match.
+     * @param  caseSensitive  Indicates whether the comparison should be case
+     *                        sensitive.
+     */
+    private StringEqualsNode(final int pathIndex, final String value,
+                             final boolean caseSensitive)
+    {
+      this.pathIndex = pathIndex;
+      this.value = value;
+      this.caseSensitive = caseSensitive;
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    boolean matches(final Evaluation e)
+    {
+      for (final JSONValue v : e.getValues(pathIndex))
+      {
+        if (v instanceof JSONString)
+        {
+          if (matchesString(((JSONString) v).stringValue()))
+          {
+            return true;
+          }
+        }
+        else if (v instanceof JSONArray)
+        {
+          for (final JSONValue arrayValue : ((JSONArray) v).getValues())
+          {
+            if ((arrayValue instanceof JSONString) &&
+                matchesString(((JSONString) arrayValue).stringValue()))
+            {
+              return true;
+            }
+          }
+        }
+      }
+
+      return false;
+    }
+
+
+
+    /**
+     * Indicates whether the provided string matches the value for this node.
+     *
+     * @param  s  The string for which to make the determination.
+     *
+     * @return  {@code true} if the provided string matches the value for this
+     *          node, or {@code false} if not.
+     */
+    private boolean matchesString(final String s)
+    {
+      if (caseSensitive)
+      {
+        return value.equals(s);
+      }
+      else
+      {
+        return value.equalsIgnoreCase(s);
+      }
+    }
+  }
+
+
+
+  /**
+   * This class provides a compiled filter node for an equals any filter whose
+   * values are all strings.
+   */
+  private static final class StringEqualsAnyNode
+          extends Node
+  {
+    // Indicates whether the comparison should be case sensitive.
+    private final boolean caseSensitive;
+
+    // The index of the field path to examine.
+    private final int pathIndex;
+
+    // The string values to match, which will have been folded if the
+    // comparison is not case sensitive.
+    private final Set<String> values;
+
+
+
+    /**
+     * Creates a new string equals any node.
+     *
+     * @param  pathIndex      The index of the field path to examine.
+     * @param  values         The string values to match, which must have
+     *                        already been folded if the comparison is not case
+     *                        sensitive.
+     * @param  caseSensitive  Indicates whether the comparison should be case
+     *                        sensitive.
+     */
+    private StringEqualsAnyNode(final int pathIndex, final Set<String> values,
+                                final boolean caseSensitive)
+    {
+      this.pathIndex = pathIndex;
+      this.values = values;
+      this.caseSensitive = caseSensitive;
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    boolean matches(final Evaluation e)
+    {
+      for (final JSONValue v : e.getValues(pathIndex))
+      {
+        if (v instanceof JSONString)
+        {
+          if (matchesString(((JSONString) v).stringValue()))
+          {
+            return true;
+          }
+        }
+        else if (v instanceof JSONArray)
+        {
+          for (final JSONValue arrayValue : ((JSONArray) v).getValues())
+          {
+            if ((arrayValue instanceof JSONString) &&
+                matchesString(((JSONString) arrayValue).stringValue()))
+            {
+              return true;
+            }
+          }
+        }
+      }
+
+      return false;
+    }
+
+
+
+    /**
+     * Indicates whether the provided string matches any of the values for this
+     * node.
+     *
+     * @param  s  The string for which to make the determination.
+     *
+     * @return  {@code true} if the provided string matches any of the values
+     *          for this node, or {@code false} if not.
+     */
+    private boolean matchesString(final String s)
+    {
+      if (caseSensitive)
+      {
+        return values.contains(s);
+      }
+      else
+      {
+        return values.contains(foldCase(s));
+      }
+    }
+  }
+
+
+
+  /**
+   * This class provides a compiled filter node for an object matches filter.
+   */
+  private static final class ObjectMatchesNode
+          extends Node
+  {
+    // The compiled form of the filter to apply to objects.
+    private final CompiledJSONObjectFilter filter;
+
+    // The index of the field path to examine.
+    private final int pathIndex;
+
+
+
+    /**
+     * Creates a new object matches node.
+     *
+     * @param  pathIndex  The index of the field path to examine.
+     * @param  filter     The compiled form of the filter to apply to objects.
+     */
+    private ObjectMatchesNode(final int pathIndex,
+                              final CompiledJSONObjectFilter filter)
+    {
+      this.pathIndex = pathIndex;
+      this.filter = filter;
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    boolean matches(final Evaluation e)
+    {
+      for (final JSONValue v : e.getValues(pathIndex))
+      {
+        if (v instanceof JSONObject)
+        {
+          if (filter.matchesJSONObject((JSONObject) v))
+          {
+            return true;
+          }
+        }
+        else if (v instanceof JSONArray)
+        {
+          for (final JSONValue arrayValue : ((JSONArray) v).getValues())
+          {
+            if ((arrayValue instanceof JSONObject) &&
+                filter.matchesJSONObject((JSONObject) arrayValue))
+            {
+              return true;
+            }
+          }
+        }
+      }
+
+      return false;
+    }
+  }
+
+
+
+  /**
+   * This class provides a compiled filter node for any other type of filter
+   * that matches based on the values of a single field.
+   */
+  private static final class ValuesNode
+          extends Node
+  {
+    // The index of the field path to examine.
+    private final int pathIndex;
+
+    // The filter to use to match the values.
+    private final JSONObjectFilter filter;
+
+
+
+    /**
+     * Creates a new values node.
+     *
+     * @param  pathIndex  The index of the field path to examine.
+     * @param  filter     The filter to use to match the values.
+     */
+    private ValuesNode(final int pathIndex, final JSONObjectFilter filter)
+    {
+      this.pathIndex = pathIndex;
+      this.filter = filter;
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    boolean matches(final Evaluation e)
+    {
+      return filter.matchesValues(e.getValues(pathIndex));
+    }
+  }
+
+
+
+  /**
+   * This class provides a compiled filter node for a filter that must be
+   * evaluated against the complete JSON object.
+   */
+  private static final class ObjectNode
+          extends Node
+  {
+    // The filter to evaluate.
+    private final JSONObjectFilter filter;
+
+
+
+    /**
+     * Creates a new object node.
+     *
+     * @param  filter  The filter to evaluate.
+     */
+    private ObjectNode(final JSONObjectFilter filter)
+    {
+      this.filter = filter;
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    boolean matches(final Evaluation e)
+    {
+      return filter.matchesJSONObject(e.object);
+    }
+  }
+}
@@ -500,7 +500,28 @@ public final class EqualsAnyJSONObjectFilter
   @Override()
   public boolean matchesJSONObject(final JSONObject o)
   {
-    final List<JSONValue> candidates = getValues(o, field);
+    return matchesValues(getValues(o, field));
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  List<String> getTargetField()
+  {
+    return field;
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  boolean matchesValues(final List<JSONValue> candidates)
+  {
     if (candidates.isEmpty())
     {
       return false;
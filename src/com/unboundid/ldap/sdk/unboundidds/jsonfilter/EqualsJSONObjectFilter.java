@@ -523,7 +523,28 @@ public final class EqualsJSONObjectFilter
   @Override()
   public boolean matchesJSONObject(final JSONObject o)
   {
-    final List<JSONValue> candidates = getValues(o, field);
+    return matchesValues(getValues(o, field));
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  List<String> getTargetField()
+  {
+    return field;
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  boolean matchesValues(final List<JSONValue> candidates)
+  {
     if (candidates.isEmpty())
     {
       return false;
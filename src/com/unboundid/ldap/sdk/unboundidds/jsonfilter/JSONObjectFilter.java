@@ -424,6 +424,57 @@ public abstract class JSONObjectFilter
 
 
 
+  /**
+   * Retrieves the path to the field whose values are examined by this filter,
+   * for filter types whose matching is based solely on the values of a single
+   * field.
+   *
+   * @return  The path to the field whose values are examined by this filter, or
+   *          {@code null} if this filter does not match based on the values of
+   *          a single field.
+   */
+  List<String> getTargetField()
+  {
+    return null;
+  }
+
+
+
+  /**
+   * Indicates whether this filter matches a JSON object in which the field
+   * returned by the {@link #getTargetField} method has the provided values.
+   * This will only be called for filters for which {@code getTargetField}
+   * returns a non-{@code null} value.
+   *
+   * @param  candidates  The values of the target field, as would be returned
+   *                     by the {@link #getValues} method.  It must not be
+   *                     {@code null} but may be empty.
+   *
+   * @return  {@code true} if this filter matches a JSON object with the
+   *          provided values for the target field, or {@code false} if not.
+   */
+  boolean matchesValues(final List<JSONValue> candidates)
+  {
+    return false;
+  }
+
+
+
+  /**
+   * Compiles this filter into a form that can be evaluated more efficiently
+   * against a large number of JSON objects, including JSON objects that have
+   * not yet been decoded.  The compiled filter will not reflect any changes
+   * made to this filter after it has been compiled.
+   *
+   * @return  The compiled form of this filter.
+   */
+  public final CompiledJSONObjectFilter compile()
+  {
+    return new CompiledJSONObjectFilter(this);
+  }
+
+
+
   /**
    * Retrieves a JSON object that represents this filter.
    *
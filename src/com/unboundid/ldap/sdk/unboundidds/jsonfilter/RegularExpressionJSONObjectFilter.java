@@ -509,7 +509,28 @@ public final class RegularExpressionJSONObjectFilter
   @Override()
   public boolean matchesJSONObject(final JSONObject o)
   {
-    final List<JSONValue> candidates = getValues(o, field);
+    return matchesValues(getValues(o, field));
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  List<String> getTargetField()
+  {
+    return field;
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  boolean matchesValues(final List<JSONValue> candidates)
+  {
     if (candidates.isEmpty())
     {
       return false;
@@ -539,6 +560,7 @@ public final class RegularExpressionJSONObjectFilter
             {
               break;
             }
+            continue;
           }
 
           final Matcher matcher = regularExpression.matcher(
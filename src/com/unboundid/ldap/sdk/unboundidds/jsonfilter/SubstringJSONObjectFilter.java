@@ -630,7 +630,28 @@ public final class SubstringJSONObjectFilter
   @Override()
   public boolean matchesJSONObject(final JSONObject o)
   {
-    final List<JSONValue> candidates = getValues(o, field);
+    return matchesValues(getValues(o, field));
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  List<String> getTargetField()
+  {
+    return field;
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  boolean matchesValues(final List<JSONValue> candidates)
+  {
     if (candidates.isEmpty())
     {
       return false;
@@ -710,34 +731,36 @@ public final class SubstringJSONObjectFilter
       return false;
     }
 
-    final StringBuilder buffer = new StringBuilder(stringValue);
+    // Rather than copying the string, keep track of the portion of it that
+    // has not yet been matched by any substring component.
+    int startPos = 0;
+    int endPos = stringValue.length();
     if (matchStartsWith != null)
     {
-      if (buffer.indexOf(matchStartsWith) != 0)
+      if (! stringValue.startsWith(matchStartsWith))
       {
         return false;
       }
-      buffer.delete(0, matchStartsWith.length());
+      startPos = matchStartsWith.length();
     }
 
     if (matchEndsWith != null)
     {
-      final int lengthMinusEndsWith = buffer.length() - matchEndsWith.length();
-      if (buffer.lastIndexOf(matchEndsWith) != lengthMinusEndsWith)
+      endPos -= matchEndsWith.length();
+      if ((endPos < startPos) || (! stringValue.endsWith(matchEndsWith)))
       {
         return false;
       }
-      buffer.setLength(lengthMinusEndsWith);
     }
 
     for (final String containsElement : matchContains)
     {
-      final int index = buffer.indexOf(containsElement);
-      if (index < 0)
+      final int index = stringValue.indexOf(containsElement, startPos);
+      if ((index < 0) || ((index + containsElement.length()) > endPos))
       {
         return false;
       }
-      buffer.delete(0, (index+containsElement.length()));
+      startPos = index + containsElement.length();
     }
 
     return true;
@@ -55,17 +55,6 @@ public final class AbandonForwardAccessLogMessage
 
 
 
-  // The port of the backend server to which the request has been forwarded.
-  private final Integer targetPort;
-
-  // The address of the backend server to which the request has been forwarded.
-  private final String targetHost;
-
-  // The protocol used to forward the request to the backend server.
-  private final String targetProtocol;
-
-
-
   /**
    * Creates a new abandon forward access log message from the provided message
    * string.
@@ -94,10 +83,6 @@ public final class AbandonForwardAccessLogMessage
   public AbandonForwardAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    targetHost     = getNamedValue("targetHost");
-    targetPort     = getNamedValueAsInteger("targetPort");
-    targetProtocol = getNamedValue("targetProtocol");
   }
 
 
@@ -112,7 +97,7 @@ public final class AbandonForwardAccessLogMessage
    */
   public String getTargetHost()
   {
-    return targetHost;
+    return getNamedValue("targetHost");
   }
 
 
@@ -127,7 +112,7 @@ public final class AbandonForwardAccessLogMessage
    */
   public Integer getTargetPort()
   {
-    return targetPort;
+    return getNamedValueAsInteger("targetPort");
   }
 
 
@@ -140,7 +125,7 @@ public final class AbandonForwardAccessLogMessage
    */
   public String getTargetProtocol()
   {
-    return targetProtocol;
+    return getNamedValue("targetProtocol");
   }
 
 
@@ -57,11 +57,6 @@ public class AbandonRequestAccessLogMessage
 
 
 
-  // The message ID of the operation to abandon.
-  private final Integer idToAbandon;
-
-
-
   /**
    * Creates a new abandon request access log message from the provided message
    * string.
@@ -90,8 +85,6 @@ public class AbandonRequestAccessLogMessage
   public AbandonRequestAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    idToAbandon = getNamedValueAsInteger("idToAbandon");
   }
 
 
@@ -104,7 +97,7 @@ public class AbandonRequestAccessLogMessage
    */
   public final Integer getMessageIDToAbandon()
   {
-    return idToAbandon;
+    return getNamedValueAsInteger("idToAbandon");
   }
 
 
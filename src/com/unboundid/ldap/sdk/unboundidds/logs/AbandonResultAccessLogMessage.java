@@ -22,10 +22,7 @@ package com.unboundid.ldap.sdk.unboundidds.logs;
 
 
 
-import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.StringTokenizer;
 
 import com.unboundid.ldap.sdk.ResultCode;
 import com.unboundid.util.NotMutable;
@@ -62,62 +59,6 @@ public final class AbandonResultAccessLogMessage
 
 
 
-  // Indicates whether the any uncached data was accessed in the course of
-  // processing this operation.
-  private final Boolean uncachedDataAccessed;
-
-  // The processing time for the operation.
-  private final Double processingTime;
-
-  // The queue time for the operation.
-  private final Double queueTime;
-
-  // The list of privileges required for processing the operation that the
-  // requester did not have.
-  private final List<String> missingPrivileges;
-
-  // The list of privileges used during the course of processing the operation
-  // before an alternate authorization identity was assigned.
-  private final List<String> preAuthZUsedPrivileges;
-
-  // The list of referral URLs for the operation.
-  private final List<String> referralURLs;
-
-  // The list of response control OIDs for the operation.
-  private final List<String> responseControlOIDs;
-
-  // The list of servers accessed while processing the operation.
-  private final List<String> serversAccessed;
-
-  // The list of privileges used during the course of processing the operation.
-  private final List<String> usedPrivileges;
-
-  // The result code for the operation.
-  private final ResultCode resultCode;
-
-  // Additional information about the operation result.
-  private final String additionalInformation;
-
-  // The diagnostic message for the operation.
-  private final String diagnosticMessage;
-
-  // The intermediate client result for the operation.
-  private final String intermediateClientResult;
-
-  // The matched DN for the operation.
-  private final String matchedDN;
-
-  // The port of the backend server to which the request has been forwarded.
-  private final Integer targetPort;
-
-  // The address of the backend server to which the request has been forwarded.
-  private final String targetHost;
-
-  // The protocol used to forward the request to the backend server.
-  private final String targetProtocol;
-
-
-
   /**
    * Creates a new abandon result access log message from the provided message
    * string.
@@ -145,140 +86,6 @@ public final class AbandonResultAccessLogMessage
   public AbandonResultAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    diagnosticMessage        = getNamedValue("message");
-    additionalInformation    = getNamedValue("additionalInfo");
-    matchedDN                = getNamedValue("matchedDN");
-    processingTime           = getNamedValueAsDouble("etime");
-    queueTime                = getNamedValueAsDouble("qtime");
-    intermediateClientResult = getNamedValue("from");
-    targetHost               = getNamedValue("targetHost");
-    targetPort               = getNamedValueAsInteger("targetPort");
-    targetProtocol           = getNamedValue("targetProtocol");
-
-    final Integer rcInteger = getNamedValueAsInteger("resultCode");
-    if (rcInteger == null)
-    {
-      resultCode = null;
-    }
-    else
-    {
-      resultCode = ResultCode.valueOf(rcInteger);
-    }
-
-    final String refStr = getNamedValue("referralURLs");
-    if ((refStr == null) || (refStr.length() == 0))
-    {
-      referralURLs = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> refs = new LinkedList<String>();
-      int startPos = 0;
-      while (true)
-      {
-        final int commaPos = refStr.indexOf(",ldap", startPos);
-        if (commaPos < 0)
-        {
-          refs.add(refStr.substring(startPos));
-          break;
-        }
-        else
-        {
-          refs.add(refStr.substring(startPos, commaPos));
-          startPos = commaPos+1;
-        }
-      }
-      referralURLs = Collections.unmodifiableList(refs);
-    }
-
-    final String controlStr = getNamedValue("responseControls");
-    if (controlStr == null)
-    {
-      responseControlOIDs = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> controlList = new LinkedList<String>();
-      final StringTokenizer t = new StringTokenizer(controlStr, ",");
-      while (t.hasMoreTokens())
-      {
-        controlList.add(t.nextToken());
-      }
-      responseControlOIDs = Collections.unmodifiableList(controlList);
-    }
-
-    final String serversAccessedStr = getNamedValue("serversAccessed");
-    if ((serversAccessedStr == null) || (serversAccessedStr.length() == 0))
-    {
-      serversAccessed = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> servers = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(serversAccessedStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        servers.add(tokenizer.nextToken());
-      }
-      serversAccessed = Collections.unmodifiableList(servers);
-    }
-
-    uncachedDataAccessed = getNamedValueAsBoolean("uncachedDataAccessed");
-
-    final String usedPrivilegesStr = getNamedValue("usedPrivileges");
-    if ((usedPrivilegesStr == null) || (usedPrivilegesStr.length() == 0))
-    {
-      usedPrivileges = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> privileges = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(usedPrivilegesStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        privileges.add(tokenizer.nextToken());
-      }
-      usedPrivileges = Collections.unmodifiableList(privileges);
-    }
-
-    final String preAuthZUsedPrivilegesStr =
-         getNamedValue("preAuthZUsedPrivileges");
-    if ((preAuthZUsedPrivilegesStr == null) ||
-        (preAuthZUsedPrivilegesStr.length() == 0))
-    {
-      preAuthZUsedPrivileges = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> privileges = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(preAuthZUsedPrivilegesStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        privileges.add(tokenizer.nextToken());
-      }
-      preAuthZUsedPrivileges = Collections.unmodifiableList(privileges);
-    }
-
-    final String missingPrivilegesStr = getNamedValue("missingPrivileges");
-    if ((missingPrivilegesStr == null) || (missingPrivilegesStr.length() == 0))
-    {
-      missingPrivileges = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> privileges = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(missingPrivilegesStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        privileges.add(tokenizer.nextToken());
-      }
-      missingPrivileges = Collections.unmodifiableList(privileges);
-    }
   }
 
 
@@ -291,7 +98,15 @@ public final class AbandonResultAccessLogMessage
    */
   public ResultCode getResultCode()
   {
-    return resultCode;
+    final Integer rcInteger = getNamedValueAsInteger("resultCode");
+    if (rcInteger == null)
+    {
+      return null;
+    }
+    else
+    {
+      return ResultCode.valueOf(rcInteger);
+    }
   }
 
 
@@ -304,7 +119,7 @@ public final class AbandonResultAccessLogMessage
    */
   public String getDiagnosticMessage()
   {
-    return diagnosticMessage;
+    return getNamedValue("message");
   }
 
 
@@ -319,7 +134,7 @@ public final class AbandonResultAccessLogMessage
    */
   public String getAdditionalInformation()
   {
-    return additionalInformation;
+    return getNamedValue("additionalInfo");
   }
 
 
@@ -332,7 +147,7 @@ public final class AbandonResultAccessLogMessage
    */
   public String getMatchedDN()
   {
-    return matchedDN;
+    return getNamedValue("matchedDN");
   }
 
 
@@ -345,7 +160,7 @@ public final class AbandonResultAccessLogMessage
    */
   public List<String> getReferralURLs()
   {
-    return referralURLs;
+    return getNamedValueAsURLList("referralURLs");
   }
 
 
@@ -360,7 +175,7 @@ public final class AbandonResultAccessLogMessage
    */
   public Double getProcessingTimeMillis()
   {
-    return processingTime;
+    return getNamedValueAsDouble("etime");
   }
 
 
@@ -375,7 +190,7 @@ public final class AbandonResultAccessLogMessage
    */
   public Double getQueueTimeMillis()
   {
-    return queueTime;
+    return getNamedValueAsDouble("qtime");
   }
 
 
@@ -388,7 +203,7 @@ public final class AbandonResultAccessLogMessage
    */
   public List<String> getResponseControlOIDs()
   {
-    return responseControlOIDs;
+    return getNamedValueAsList("responseControls");
   }
 
 
@@ -405,7 +220,7 @@ public final class AbandonResultAccessLogMessage
    */
   public List<String> getServersAccessed()
   {
-    return serversAccessed;
+    return getNamedValueAsList("serversAccessed");
   }
 
 
@@ -422,7 +237,7 @@ public final class AbandonResultAccessLogMessage
    */
   public Boolean getUncachedDataAccessed()
   {
-    return uncachedDataAccessed;
+    return getNamedValueAsBoolean("uncachedDataAccessed");
   }
 
 
@@ -436,7 +251,7 @@ public final class AbandonResultAccessLogMessage
    */
   public String getIntermediateClientResult()
   {
-    return intermediateClientResult;
+    return getNamedValue("from");
   }
 
 
@@ -451,7 +266,7 @@ public final class AbandonResultAccessLogMessage
    */
   public String getTargetHost()
   {
-    return targetHost;
+    return getNamedValue("targetHost");
   }
 
 
@@ -466,7 +281,7 @@ public final class AbandonResultAccessLogMessage
    */
   public Integer getTargetPort()
   {
-    return targetPort;
+    return getNamedValueAsInteger("targetPort");
   }
 
 
@@ -479,7 +294,7 @@ public final class AbandonResultAccessLogMessage
    */
   public String getTargetProtocol()
   {
-    return targetProtocol;
+    return getNamedValue("targetProtocol");
   }
 
 
@@ -494,7 +309,7 @@ public final class AbandonResultAccessLogMessage
    */
   public List<String> getUsedPrivileges()
   {
-    return usedPrivileges;
+    return getNamedValueAsList("usedPrivileges");
   }
 
 
@@ -510,7 +325,7 @@ public final class AbandonResultAccessLogMessage
    */
   public List<String> getPreAuthorizationUsedPrivileges()
   {
-    return preAuthZUsedPrivileges;
+    return getNamedValueAsList("preAuthZUsedPrivileges");
   }
 
 
@@ -526,7 +341,7 @@ public final class AbandonResultAccessLogMessage
    */
   public List<String> getMissingPrivileges()
   {
-    return missingPrivileges;
+    return getNamedValueAsList("missingPrivileges");
   }
 
 
@@ -54,20 +54,6 @@ public abstract class AccessLogMessage
 
 
 
-  // The connection ID for this access log message.
-  private final Long connectionID;
-
-  // The Directory Server instance name for this access log message.
-  private final String instanceName;
-
-  // The server product name for this access log message.
-  private final String productName;
-
-  // The startup ID for this access log message;
-  private final String startupID;
-
-
-
   /**
    * Creates a new access log message from the provided log message.
    *
@@ -76,11 +62,6 @@ public abstract class AccessLogMessage
   protected AccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    productName  = getNamedValue("product");
-    instanceName = getNamedValue("instanceName");
-    startupID    = getNamedValue("startupID");
-    connectionID = getNamedValueAsLong("conn");
   }
 
 
@@ -103,7 +84,6 @@ public abstract class AccessLogMessage
 
 
 
-
   /**
    * Retrieves the server product name for this access log message.
    *
@@ -112,7 +92,7 @@ public abstract class AccessLogMessage
    */
   public final String getProductName()
   {
-    return productName;
+    return getNamedValue("product");
   }
 
 
@@ -125,7 +105,7 @@ public abstract class AccessLogMessage
    */
   public final String getInstanceName()
   {
-    return instanceName;
+    return getNamedValue("instanceName");
   }
 
 
@@ -138,7 +118,7 @@ public abstract class AccessLogMessage
    */
   public final String getStartupID()
   {
-    return startupID;
+    return getNamedValue("startupID");
   }
 
 
@@ -153,7 +133,7 @@ public abstract class AccessLogMessage
    */
   public final Long getConnectionID()
   {
-    return connectionID;
+    return getNamedValueAsLong("conn");
   }
 
 
@@ -28,6 +28,7 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.util.Set;
 
 import com.unboundid.util.NotMutable;
 import com.unboundid.util.ThreadSafety;
@@ -56,6 +57,30 @@ import static com.unboundid.ldap.sdk.unboundidds.logs.LogMessages.*;
 public final class AccessLogReader
        implements Closeable
 {
+  /**
+   * The access log message types, in the order that they are checked when
+   * determining the type of a log message.
+   */
+  private static final AccessLogMessageType[] MESSAGE_TYPE_PRECEDENCE =
+  {
+    AccessLogMessageType.CONNECT,
+    AccessLogMessageType.DISCONNECT,
+    AccessLogMessageType.CLIENT_CERTIFICATE,
+    AccessLogMessageType.SECURITY_NEGOTIATION,
+    AccessLogMessageType.ENTRY_REBALANCING_REQUEST,
+    AccessLogMessageType.ENTRY_REBALANCING_RESULT,
+    AccessLogMessageType.REQUEST,
+    AccessLogMessageType.RESULT,
+    AccessLogMessageType.FORWARD,
+    AccessLogMessageType.FORWARD_FAILED,
+    AccessLogMessageType.ASSURANCE_COMPLETE,
+    AccessLogMessageType.ENTRY,
+    AccessLogMessageType.REFERENCE,
+    AccessLogMessageType.INTERMEDIATE_RESPONSE
+  };
+
+
+
   // The reader used to read the contents of the log file.
   private final BufferedReader reader;
 
@@ -149,6 +174,132 @@ public final class AccessLogReader
 
 
 
+  /**
+   * Reads the next access log message of one of the specified types from the
+   * log file.  Lines for other types of messages will be skipped without being
+   * parsed, which can be significantly faster than reading and discarding
+   * every message when only a few types of messages are of interest.
+   *
+   * @param  messageTypes  The set of message types that should be returned.
+   *                       It must not be {@code null}.
+   *
+   * @return  The next access log message of one of the specified types, or
+   *          {@code null} if there are no more such messages to be read.
+   *
+   * @throws  IOException  If an error occurs while trying to read from the
+   *                       file.
+   *
+   * @throws  LogException  If an error occurs while trying to parse the log
+   *                        message.
+   */
+  public AccessLogMessage read(final Set<AccessLogMessageType> messageTypes)
+         throws IOException, LogException
+  {
+    while (true)
+    {
+      final String line = reader.readLine();
+      if (line == null)
+      {
+        return null;
+      }
+
+      if ((line.length() == 0) || (line.charAt(0) == '#'))
+      {
+        continue;
+      }
+
+      final AccessLogMessageType t = getMessageType(line);
+      if ((t != null) && (! messageTypes.contains(t)))
+      {
+        continue;
+      }
+
+      final AccessLogMessage m = parse(line);
+      if (messageTypes.contains(m.getMessageType()))
+      {
+        return m;
+      }
+    }
+  }
+
+
+
+  /**
+   * Attempts to determine the type of the provided access log message without
+   * fully parsing it.  Only the words that follow the timestamp and precede
+   * the first name-value pair will be examined, so this is much cheaper than
+   * parsing the message, but it does not verify that the message is valid.
+   *
+   * @param  s  The string representation of the access log message to
+   *            examine.  It must not be {@code null}.
+   *
+   * @return  The type of the provided access log message, or {@code null} if
+   *          the type could not be determined.
+   */
+  public static AccessLogMessageType getMessageType(final String s)
+  {
+    int pos = s.indexOf(']');
+    if (pos < 0)
+    {
+      return null;
+    }
+
+    int typeIndex = MESSAGE_TYPE_PRECEDENCE.length;
+    final int length = s.length();
+    while (pos < length)
+    {
+      // Skip to the start of the next word.
+      while ((pos < length) &&
+             ((s.charAt(pos) == ' ') || (s.charAt(pos) == ']')))
+      {
+        pos++;
+      }
+
+      int endPos = pos;
+      boolean isNamedValue = false;
+      while ((endPos < length) && (s.charAt(endPos) != ' '))
+      {
+        if (s.charAt(endPos) == '=')
+        {
+          isNamedValue = true;
+          break;
+        }
+        endPos++;
+      }
+
+      if (isNamedValue)
+      {
+        break;
+      }
+
+      if (endPos > pos)
+      {
+        final String word = s.substring(pos, endPos);
+        for (int i=0; i < typeIndex; i++)
+        {
+          if (word.equals(MESSAGE_TYPE_PRECEDENCE[i].getLogIdentifier()))
+          {
+            typeIndex = i;
+            break;
+          }
+        }
+      }
+
+      pos = endPos;
+    }
+
+    if (typeIndex < MESSAGE_TYPE_PRECEDENCE.length)
+    {
+      return MESSAGE_TYPE_PRECEDENCE[typeIndex];
+    }
+    else
+    {
+      return null;
+    }
+  }
+
+
+
   /**
    * Parses the provided string as an access log message.
    *
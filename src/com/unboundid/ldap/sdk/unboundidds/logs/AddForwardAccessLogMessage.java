@@ -55,17 +55,6 @@ public final class AddForwardAccessLogMessage
 
 
 
-  // The port of the backend server to which the request has been forwarded.
-  private final Integer targetPort;
-
-  // The address of the backend server to which the request has been forwarded.
-  private final String targetHost;
-
-  // The protocol used to forward the request to the backend server.
-  private final String targetProtocol;
-
-
-
   /**
    * Creates a new add forward access log message from the provided message
    * string.
@@ -92,10 +81,6 @@ public final class AddForwardAccessLogMessage
   public AddForwardAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    targetHost     = getNamedValue("targetHost");
-    targetPort     = getNamedValueAsInteger("targetPort");
-    targetProtocol = getNamedValue("targetProtocol");
   }
 
 
@@ -110,7 +95,7 @@ public final class AddForwardAccessLogMessage
    */
   public String getTargetHost()
   {
-    return targetHost;
+    return getNamedValue("targetHost");
   }
 
 
@@ -125,7 +110,7 @@ public final class AddForwardAccessLogMessage
    */
   public Integer getTargetPort()
   {
-    return targetPort;
+    return getNamedValueAsInteger("targetPort");
   }
 
 
@@ -138,7 +123,7 @@ public final class AddForwardAccessLogMessage
    */
   public String getTargetProtocol()
   {
-    return targetProtocol;
+    return getNamedValue("targetProtocol");
   }
 
 
@@ -22,10 +22,7 @@ package com.unboundid.ldap.sdk.unboundidds.logs;
 
 
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.StringTokenizer;
 
 import com.unboundid.util.NotExtensible;
 import com.unboundid.util.NotMutable;
@@ -62,14 +59,6 @@ public class AddRequestAccessLogMessage
 
 
 
-  // The list of attributes included in the entry.
-  private final List<String> attributeNames;
-
-  // The DN of the entry to add.
-  private final String dn;
-
-
-
   /**
    * Creates a new add request access log message from the provided message
    * string.
@@ -97,25 +86,6 @@ public class AddRequestAccessLogMessage
   public AddRequestAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    dn = getNamedValue("dn");
-
-    final String attrs = getNamedValue("attrs");
-    if (attrs == null)
-    {
-      attributeNames = null;
-    }
-    else
-    {
-      final ArrayList<String> l = new ArrayList<String>(10);
-      final StringTokenizer tokenizer = new StringTokenizer(attrs, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        l.add(tokenizer.nextToken());
-      }
-
-      attributeNames = Collections.unmodifiableList(l);
-    }
   }
 
 
@@ -128,7 +98,7 @@ public class AddRequestAccessLogMessage
    */
   public final String getDN()
   {
-    return dn;
+    return getNamedValue("dn");
   }
 
 
@@ -141,7 +111,14 @@ public class AddRequestAccessLogMessage
    */
   public final List<String> getAttributeNames()
   {
-    return attributeNames;
+    if (getNamedValue("attrs") == null)
+    {
+      return null;
+    }
+    else
+    {
+      return getNamedValueAsList("attrs");
+    }
   }
 
 
@@ -22,10 +22,7 @@ package com.unboundid.ldap.sdk.unboundidds.logs;
 
 
 
-import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.StringTokenizer;
 
 import com.unboundid.ldap.sdk.ResultCode;
 import com.unboundid.ldap.sdk.unboundidds.controls.AssuredReplicationLocalLevel;
@@ -73,88 +70,6 @@ public class AddResultAccessLogMessage
   // The assured replication level to use for remote servers.
   private final AssuredReplicationRemoteLevel assuredReplicationRemoteLevel;
 
-  // Indicates whether the response was known to be delayed by replication
-  // assurance processing.
-  private final Boolean responseDelayedByAssurance;
-
-  // Indicates whether the any uncached data was accessed in the course of
-  // processing this operation.
-  private final Boolean uncachedDataAccessed;
-
-  // The processing time for the operation.
-  private final Double processingTime;
-
-  // The queue time for the operation.
-  private final Double queueTime;
-
-  // The port of the backend server to which the request has been forwarded.
-  private final Integer targetPort;
-
-  // The list of indexes for which keys near the index entry limit were accessed
-  // while processing the operation.
-  private final List<String> indexesWithKeysAccessedNearEntryLimit;
-
-  // The list of indexes for which keys over the index entry limit were accessed
-  // while processing the operation.
-  private final List<String> indexesWithKeysAccessedOverEntryLimit;
-
-  // The list of privileges required for processing the operation that the
-  // requester did not have.
-  private final List<String> missingPrivileges;
-
-  // The list of privileges used during the course of processing the operation
-  // before an alternate authorization identity was assigned.
-  private final List<String> preAuthZUsedPrivileges;
-
-  // The list of referral URLs for the operation.
-  private final List<String> referralURLs;
-
-  // The list of response control OIDs for the operation.
-  private final List<String> responseControlOIDs;
-
-  // The list of servers accessed while processing the operation.
-  private final List<String> serversAccessed;
-
-  // The list of privileges used during the course of processing the operation.
-  private final List<String> usedPrivileges;
-
-  // The assured replication timeout, in milliseconds.
-  private final Long assuredReplicationTimeoutMillis;
-
-  // The number of intermediate response messages returned to the client.
-  private final Long intermediateResponsesReturned;
-
-  // The result code for the operation.
-  private final ResultCode resultCode;
-
-  // Additional information about the operation result.
-  private final String additionalInformation;
-
-  // The alternate authorization DN for the operation.
-  private final String authzDN;
-
-  // The diagnostic message for the operation.
-  private final String diagnosticMessage;
-
-  // The intermediate client result for the operation.
-  private final String intermediateClientResult;
-
-  // The matched DN for the operation.
-  private final String matchedDN;
-
-  // The replication change ID for the operation.
-  private final String replicationChangeID;
-
-  // The address of the backend server to which the request has been forwarded.
-  private final String targetHost;
-
-  // The protocol used to forward the request to the backend server.
-  private final String targetProtocol;
-
-  // The DN of the soft-deleted entry from which the resulting entry was
-  // undeleted.
-  private final String undeleteFromDN;
-
 
 
   /**
@@ -185,94 +100,6 @@ public class AddResultAccessLogMessage
   {
     super(m);
 
-    diagnosticMessage        = getNamedValue("message");
-    additionalInformation    = getNamedValue("additionalInfo");
-    matchedDN                = getNamedValue("matchedDN");
-    processingTime           = getNamedValueAsDouble("etime");
-    queueTime                = getNamedValueAsDouble("qtime");
-    intermediateClientResult = getNamedValue("from");
-    authzDN                  = getNamedValue("authzDN");
-    replicationChangeID      = getNamedValue("replicationChangeID");
-    targetHost               = getNamedValue("targetHost");
-    targetPort               = getNamedValueAsInteger("targetPort");
-    targetProtocol           = getNamedValue("targetProtocol");
-    undeleteFromDN           = getNamedValue("undeleteFromDN");
-
-    intermediateResponsesReturned =
-         getNamedValueAsLong("intermediateResponsesReturned");
-
-    final Integer rcInteger = getNamedValueAsInteger("resultCode");
-    if (rcInteger == null)
-    {
-      resultCode = null;
-    }
-    else
-    {
-      resultCode = ResultCode.valueOf(rcInteger);
-    }
-
-    final String refStr = getNamedValue("referralURLs");
-    if ((refStr == null) || (refStr.length() == 0))
-    {
-      referralURLs = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> refs = new LinkedList<String>();
-      int startPos = 0;
-      while (true)
-      {
-        final int commaPos = refStr.indexOf(",ldap", startPos);
-        if (commaPos < 0)
-        {
-          refs.add(refStr.substring(startPos));
-          break;
-        }
-        else
-        {
-          refs.add(refStr.substring(startPos, commaPos));
-          startPos = commaPos+1;
-        }
-      }
-      referralURLs = Collections.unmodifiableList(refs);
-    }
-
-    final String controlStr = getNamedValue("responseControls");
-    if (controlStr == null)
-    {
-      responseControlOIDs = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> controlList = new LinkedList<String>();
-      final StringTokenizer t = new StringTokenizer(controlStr, ",");
-      while (t.hasMoreTokens())
-      {
-        controlList.add(t.nextToken());
-      }
-      responseControlOIDs = Collections.unmodifiableList(controlList);
-    }
-
-    final String serversAccessedStr = getNamedValue("serversAccessed");
-    if ((serversAccessedStr == null) || (serversAccessedStr.length() == 0))
-    {
-      serversAccessed = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> servers = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(serversAccessedStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        servers.add(tokenizer.nextToken());
-      }
-      serversAccessed = Collections.unmodifiableList(servers);
-    }
-
-    uncachedDataAccessed = getNamedValueAsBoolean("uncachedDataAccessed");
-
-
     final String localLevelStr = getNamedValue("localAssuranceLevel");
     if (localLevelStr == null)
     {
@@ -294,102 +121,6 @@ public class AddResultAccessLogMessage
       assuredReplicationRemoteLevel =
            AssuredReplicationRemoteLevel.valueOf(remoteLevelStr);
     }
-
-    assuredReplicationTimeoutMillis =
-         getNamedValueAsLong("assuranceTimeoutMillis");
-    responseDelayedByAssurance =
-         getNamedValueAsBoolean("responseDelayedByAssurance");
-
-    final String usedPrivilegesStr = getNamedValue("usedPrivileges");
-    if ((usedPrivilegesStr == null) || (usedPrivilegesStr.length() == 0))
-    {
-      usedPrivileges = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> privileges = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(usedPrivilegesStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        privileges.add(tokenizer.nextToken());
-      }
-      usedPrivileges = Collections.unmodifiableList(privileges);
-    }
-
-    final String preAuthZUsedPrivilegesStr =
-         getNamedValue("preAuthZUsedPrivileges");
-    if ((preAuthZUsedPrivilegesStr == null) ||
-        (preAuthZUsedPrivilegesStr.length() == 0))
-    {
-      preAuthZUsedPrivileges = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> privileges = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(preAuthZUsedPrivilegesStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        privileges.add(tokenizer.nextToken());
-      }
-      preAuthZUsedPrivileges = Collections.unmodifiableList(privileges);
-    }
-
-    final String missingPrivilegesStr = getNamedValue("missingPrivileges");
-    if ((missingPrivilegesStr == null) || (missingPrivilegesStr.length() == 0))
-    {
-      missingPrivileges = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> privileges = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(missingPrivilegesStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        privileges.add(tokenizer.nextToken());
-      }
-      missingPrivileges = Collections.unmodifiableList(privileges);
-    }
-
-    final String indexesNearLimitStr =
-         getNamedValue("indexesWithKeysAccessedNearEntryLimit");
-    if ((indexesNearLimitStr == null) || (indexesNearLimitStr.length() == 0))
-    {
-      indexesWithKeysAccessedNearEntryLimit = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> indexes = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(indexesNearLimitStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        indexes.add(tokenizer.nextToken());
-      }
-      indexesWithKeysAccessedNearEntryLimit =
-           Collections.unmodifiableList(indexes);
-    }
-
-    final String indexesOverLimitStr =
-         getNamedValue("indexesWithKeysAccessedExceedingEntryLimit");
-    if ((indexesOverLimitStr == null) || (indexesOverLimitStr.length() == 0))
-    {
-      indexesWithKeysAccessedOverEntryLimit = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> indexes = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(indexesOverLimitStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        indexes.add(tokenizer.nextToken());
-      }
-      indexesWithKeysAccessedOverEntryLimit =
-           Collections.unmodifiableList(indexes);
-    }
   }
 
 
@@ -402,7 +133,15 @@ public class AddResultAccessLogMessage
    */
   public ResultCode getResultCode()
   {
-    return resultCode;
+    final Integer rcInteger = getNamedValueAsInteger("resultCode");
+    if (rcInteger == null)
+    {
+      return null;
+    }
+    else
+    {
+      return ResultCode.valueOf(rcInteger);
+    }
   }
 
 
@@ -415,7 +154,7 @@ public class AddResultAccessLogMessage
    */
   public String getDiagnosticMessage()
   {
-    return diagnosticMessage;
+    return getNamedValue("message");
   }
 
 
@@ -430,7 +169,7 @@ public class AddResultAccessLogMessage
    */
   public String getAdditionalInformation()
   {
-    return additionalInformation;
+    return getNamedValue("additionalInfo");
   }
 
 
@@ -443,7 +182,7 @@ public class AddResultAccessLogMessage
    */
   public String getMatchedDN()
   {
-    return matchedDN;
+    return getNamedValue("matchedDN");
   }
 
 
@@ -456,7 +195,7 @@ public class AddResultAccessLogMessage
    */
   public List<String> getReferralURLs()
   {
-    return referralURLs;
+    return getNamedValueAsURLList("referralURLs");
   }
 
 
@@ -471,7 +210,7 @@ public class AddResultAccessLogMessage
    */
   public Long getIntermediateResponsesReturned()
   {
-    return intermediateResponsesReturned;
+    return getNamedValueAsLong("intermediateResponsesReturned");
   }
 
 
@@ -486,7 +225,7 @@ public class AddResultAccessLogMessage
    */
   public Double getProcessingTimeMillis()
   {
-    return processingTime;
+    return getNamedValueAsDouble("etime");
   }
 
 
@@ -501,7 +240,7 @@ public class AddResultAccessLogMessage
    */
   public Double getQueueTimeMillis()
   {
-    return queueTime;
+    return getNamedValueAsDouble("qtime");
   }
 
 
@@ -514,7 +253,7 @@ public class AddResultAccessLogMessage
    */
   public List<String> getResponseControlOIDs()
   {
-    return responseControlOIDs;
+    return getNamedValueAsList("responseControls");
   }
 
 
@@ -531,7 +270,7 @@ public class AddResultAccessLogMessage
    */
   public List<String> getServersAccessed()
   {
-    return serversAccessed;
+    return getNamedValueAsList("serversAccessed");
   }
 
 
@@ -548,7 +287,7 @@ public class AddResultAccessLogMessage
    */
   public Boolean getUncachedDataAccessed()
   {
-    return uncachedDataAccessed;
+    return getNamedValueAsBoolean("uncachedDataAccessed");
   }
 
 
@@ -562,7 +301,7 @@ public class AddResultAccessLogMessage
    */
   public String getIntermediateClientResult()
   {
-    return intermediateClientResult;
+    return getNamedValue("from");
   }
 
 
@@ -575,7 +314,7 @@ public class AddResultAccessLogMessage
    */
   public String getAlternateAuthorizationDN()
   {
-    return authzDN;
+    return getNamedValue("authzDN");
   }
 
 
@@ -588,7 +327,7 @@ public class AddResultAccessLogMessage
    */
   public String getReplicationChangeID()
   {
-    return replicationChangeID;
+    return getNamedValue("replicationChangeID");
   }
 
 
@@ -603,7 +342,7 @@ public class AddResultAccessLogMessage
    */
   public String getTargetHost()
   {
-    return targetHost;
+    return getNamedValue("targetHost");
   }
 
 
@@ -618,7 +357,7 @@ public class AddResultAccessLogMessage
    */
   public Integer getTargetPort()
   {
-    return targetPort;
+    return getNamedValueAsInteger("targetPort");
   }
 
 
@@ -631,7 +370,7 @@ public class AddResultAccessLogMessage
    */
   public String getTargetProtocol()
   {
-    return targetProtocol;
+    return getNamedValue("targetProtocol");
   }
 
 
@@ -647,7 +386,7 @@ public class AddResultAccessLogMessage
    */
   public String getUndeleteFromDN()
   {
-    return undeleteFromDN;
+    return getNamedValue("undeleteFromDN");
   }
 
 
@@ -697,7 +436,7 @@ public class AddResultAccessLogMessage
    */
   public Long getAssuredReplicationTimeoutMillis()
   {
-    return assuredReplicationTimeoutMillis;
+    return getNamedValueAsLong("assuranceTimeoutMillis");
   }
 
 
@@ -715,7 +454,7 @@ public class AddResultAccessLogMessage
    */
   public Boolean getResponseDelayedByAssurance()
   {
-    return responseDelayedByAssurance;
+    return getNamedValueAsBoolean("responseDelayedByAssurance");
   }
 
 
@@ -730,7 +469,7 @@ public class AddResultAccessLogMessage
    */
   public List<String> getUsedPrivileges()
   {
-    return usedPrivileges;
+    return getNamedValueAsList("usedPrivileges");
   }
 
 
@@ -746,7 +485,7 @@ public class AddResultAccessLogMessage
    */
   public List<String> getPreAuthorizationUsedPrivileges()
   {
-    return preAuthZUsedPrivileges;
+    return getNamedValueAsList("preAuthZUsedPrivileges");
   }
 
 
@@ -762,7 +501,7 @@ public class AddResultAccessLogMessage
    */
   public List<String> getMissingPrivileges()
   {
-    return missingPrivileges;
+    return getNamedValueAsList("missingPrivileges");
   }
 
 
@@ -779,7 +518,7 @@ public class AddResultAccessLogMessage
    */
   public List<String> getIndexesWithKeysAccessedNearEntryLimit()
   {
-    return indexesWithKeysAccessedNearEntryLimit;
+    return getNamedValueAsList("indexesWithKeysAccessedNearEntryLimit");
   }
 
 
@@ -795,7 +534,7 @@ public class AddResultAccessLogMessage
    */
   public List<String> getIndexesWithKeysAccessedOverEntryLimit()
   {
-    return indexesWithKeysAccessedOverEntryLimit;
+    return getNamedValueAsList("indexesWithKeysAccessedExceedingEntryLimit");
   }
 
 
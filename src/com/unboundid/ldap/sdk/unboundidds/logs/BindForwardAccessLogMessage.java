@@ -55,17 +55,6 @@ public final class BindForwardAccessLogMessage
 
 
 
-  // The port of the backend server to which the request has been forwarded.
-  private final Integer targetPort;
-
-  // The address of the backend server to which the request has been forwarded.
-  private final String targetHost;
-
-  // The protocol used to forward the request to the backend server.
-  private final String targetProtocol;
-
-
-
   /**
    * Creates a new bind forward access log message from the provided message
    * string.
@@ -93,10 +82,6 @@ public final class BindForwardAccessLogMessage
   public BindForwardAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    targetHost     = getNamedValue("targetHost");
-    targetPort     = getNamedValueAsInteger("targetPort");
-    targetProtocol = getNamedValue("targetProtocol");
   }
 
 
@@ -111,7 +96,7 @@ public final class BindForwardAccessLogMessage
    */
   public String getTargetHost()
   {
-    return targetHost;
+    return getNamedValue("targetHost");
   }
 
 
@@ -126,7 +111,7 @@ public final class BindForwardAccessLogMessage
    */
   public Integer getTargetPort()
   {
-    return targetPort;
+    return getNamedValueAsInteger("targetPort");
   }
 
 
@@ -139,7 +124,7 @@ public final class BindForwardAccessLogMessage
    */
   public String getTargetProtocol()
   {
-    return targetProtocol;
+    return getNamedValue("targetProtocol");
   }
 
 
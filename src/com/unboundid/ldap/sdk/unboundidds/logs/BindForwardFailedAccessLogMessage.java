@@ -56,23 +56,6 @@ public final class BindForwardFailedAccessLogMessage
 
 
 
-  // The numeric result code for the failure.
-  private final Integer resultCode;
-
-  // The port of the backend server to which the request has been forwarded.
-  private final Integer targetPort;
-
-  // The diagnostic message for the failure.
-  private final String message;
-
-  // The address of the backend server to which the request has been forwarded.
-  private final String targetHost;
-
-  // The protocol used to forward the request to the backend server.
-  private final String targetProtocol;
-
-
-
   /**
    * Creates a new bind forward failed access log message from the provided
    * message string.
@@ -101,12 +84,6 @@ public final class BindForwardFailedAccessLogMessage
   public BindForwardFailedAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    targetHost     = getNamedValue("targetHost");
-    targetPort     = getNamedValueAsInteger("targetPort");
-    targetProtocol = getNamedValue("targetProtocol");
-    resultCode     = getNamedValueAsInteger("resultCode");
-    message        = getNamedValue("message");
   }
 
 
@@ -121,7 +98,7 @@ public final class BindForwardFailedAccessLogMessage
    */
   public String getTargetHost()
   {
-    return targetHost;
+    return getNamedValue("targetHost");
   }
 
 
@@ -136,7 +113,7 @@ public final class BindForwardFailedAccessLogMessage
    */
   public Integer getTargetPort()
   {
-    return targetPort;
+    return getNamedValueAsInteger("targetPort");
   }
 
 
@@ -149,7 +126,7 @@ public final class BindForwardFailedAccessLogMessage
    */
   public String getTargetProtocol()
   {
-    return targetProtocol;
+    return getNamedValue("targetProtocol");
   }
 
 
@@ -162,7 +139,7 @@ public final class BindForwardFailedAccessLogMessage
    */
   public Integer getResultCode()
   {
-    return resultCode;
+    return getNamedValueAsInteger("resultCode");
   }
 
 
@@ -175,7 +152,7 @@ public final class BindForwardFailedAccessLogMessage
    */
   public String getDiagnosticMessage()
   {
-    return message;
+    return getNamedValue("message");
   }
 
 
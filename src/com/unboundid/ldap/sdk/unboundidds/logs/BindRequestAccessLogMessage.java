@@ -59,20 +59,6 @@ public class BindRequestAccessLogMessage
 
 
 
-  // The type of authentication requested by the client.
-  private final BindRequestAuthenticationType authenticationType;
-
-  // The DN of the user attempting to bind.
-  private final String dn;
-
-  // The string representation of the protocol version.
-  private final String protocolVersion;
-
-  // The name of the SASL mechanism requested by the client.
-  private final String saslMechanismName;
-
-
-
   /**
    * Creates a new bind request access log message from the provided message
    * string.
@@ -101,22 +87,6 @@ public class BindRequestAccessLogMessage
   public BindRequestAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    dn                = getNamedValue("dn");
-    saslMechanismName = getNamedValue("saslMechanism");
-    protocolVersion   = getNamedValue("version");
-
-    BindRequestAuthenticationType authType = null;
-    try
-    {
-      authType =
-           BindRequestAuthenticationType.valueOf(getNamedValue("authType"));
-    }
-    catch (final Exception e)
-    {
-      debugException(e);
-    }
-    authenticationType = authType;
   }
 
 
@@ -129,7 +99,21 @@ public class BindRequestAccessLogMessage
    */
   public final BindRequestAuthenticationType getAuthenticationType()
   {
-    return authenticationType;
+    final String authType = getNamedValue("authType");
+    if (authType == null)
+    {
+      return null;
+    }
+
+    try
+    {
+      return BindRequestAuthenticationType.valueOf(authType);
+    }
+    catch (final Exception e)
+    {
+      debugException(e);
+      return null;
+    }
   }
 
 
@@ -143,7 +127,7 @@ public class BindRequestAccessLogMessage
    */
   public final String getDN()
   {
-    return dn;
+    return getNamedValue("dn");
   }
 
 
@@ -156,7 +140,7 @@ public class BindRequestAccessLogMessage
    */
   public final String getProtocolVersion()
   {
-    return protocolVersion;
+    return getNamedValue("version");
   }
 
 
@@ -170,7 +154,7 @@ public class BindRequestAccessLogMessage
    */
   public final String getSASLMechanismName()
   {
-    return saslMechanismName;
+    return getNamedValue("saslMechanism");
   }
 
 
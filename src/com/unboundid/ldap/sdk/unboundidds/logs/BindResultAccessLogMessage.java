@@ -22,10 +22,7 @@ package com.unboundid.ldap.sdk.unboundidds.logs;
 
 
 
-import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.StringTokenizer;
 
 import com.unboundid.ldap.sdk.ResultCode;
 import com.unboundid.util.NotMutable;
@@ -62,83 +59,6 @@ public final class BindResultAccessLogMessage
 
 
 
-  // Indicates whether a retired password was used to perform the bind.
-  private final Boolean retiredPasswordUsed;
-
-  // Indicates whether the any uncached data was accessed in the course of
-  // processing this operation.
-  private final Boolean uncachedDataAccessed;
-
-  // The processing time for the operation.
-  private final Double processingTime;
-
-  // The queue time for the operation.
-  private final Double queueTime;
-
-  // The list of privileges required for processing the operation that the
-  // requester did not have.
-  private final List<String> missingPrivileges;
-
-  // The list of privileges used during the course of processing the operation
-  // before an alternate authorization identity was assigned.
-  private final List<String> preAuthZUsedPrivileges;
-
-  // The list of referral URLs for the operation.
-  private final List<String> referralURLs;
-
-  // The list of response control OIDs for the operation.
-  private final List<String> responseControlOIDs;
-
-  // The list of servers accessed while processing the operation.
-  private final List<String> serversAccessed;
-
-  // The list of privileges used during the course of processing the operation.
-  private final List<String> usedPrivileges;
-
-  // The numeric identifier for the authentication failure reason.
-  private final Long authFailureID;
-
-  // The number of intermediate response messages returned to the client.
-  private final Long intermediateResponsesReturned;
-
-  // The result code for the operation.
-  private final ResultCode resultCode;
-
-  // Additional information about the operation result.
-  private final String additionalInformation;
-
-  // The DN of the authenticated user.
-  private final String authDN;
-
-  // A message with information about the reason for the authentication failure.
-  private final String authFailureReason;
-
-  // The DN of the alternate authorization identity.
-  private final String authzDN;
-
-  // The name of the client connection policy selected for the client.
-  private final String clientConnectionPolicy;
-
-  // The diagnostic message for the operation.
-  private final String diagnosticMessage;
-
-  // The intermediate client result for the operation.
-  private final String intermediateClientResult;
-
-  // The matched DN for the operation.
-  private final String matchedDN;
-
-  // The port of the backend server to which the request has been forwarded.
-  private final Integer targetPort;
-
-  // The address of the backend server to which the request has been forwarded.
-  private final String targetHost;
-
-  // The protocol used to forward the request to the backend server.
-  private final String targetProtocol;
-
-
-
   /**
    * Creates a new bind result access log message from the provided message
    * string.
@@ -165,149 +85,6 @@ public final class BindResultAccessLogMessage
   public BindResultAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    diagnosticMessage        = getNamedValue("message");
-    additionalInformation    = getNamedValue("additionalInfo");
-    matchedDN                = getNamedValue("matchedDN");
-    processingTime           = getNamedValueAsDouble("etime");
-    queueTime                = getNamedValueAsDouble("qtime");
-    intermediateClientResult = getNamedValue("from");
-    authDN                   = getNamedValue("authDN");
-    authzDN                  = getNamedValue("authzDN");
-    authFailureID            = getNamedValueAsLong("authFailureID");
-    authFailureReason        = getNamedValue("authFailureReason");
-    targetHost               = getNamedValue("targetHost");
-    targetPort               = getNamedValueAsInteger("targetPort");
-    targetProtocol           = getNamedValue("targetProtocol");
-    clientConnectionPolicy   = getNamedValue("clientConnectionPolicy");
-
-    intermediateResponsesReturned =
-         getNamedValueAsLong("intermediateResponsesReturned");
-
-    final Integer rcInteger = getNamedValueAsInteger("resultCode");
-    if (rcInteger == null)
-    {
-      resultCode = null;
-    }
-    else
-    {
-      resultCode = ResultCode.valueOf(rcInteger);
-    }
-
-    final String refStr = getNamedValue("referralURLs");
-    if ((refStr == null) || (refStr.length() == 0))
-    {
-      referralURLs = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> refs = new LinkedList<String>();
-      int startPos = 0;
-      while (true)
-      {
-        final int commaPos = refStr.indexOf(",ldap", startPos);
-        if (commaPos < 0)
-        {
-          refs.add(refStr.substring(startPos));
-          break;
-        }
-        else
-        {
-          refs.add(refStr.substring(startPos, commaPos));
-          startPos = commaPos+1;
-        }
-      }
-      referralURLs = Collections.unmodifiableList(refs);
-    }
-
-    final String controlStr = getNamedValue("responseControls");
-    if (controlStr == null)
-    {
-      responseControlOIDs = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> controlList = new LinkedList<String>();
-      final StringTokenizer t = new StringTokenizer(controlStr, ",");
-      while (t.hasMoreTokens())
-      {
-        controlList.add(t.nextToken());
-      }
-      responseControlOIDs = Collections.unmodifiableList(controlList);
-    }
-
-    final String serversAccessedStr = getNamedValue("serversAccessed");
-    if ((serversAccessedStr == null) || (serversAccessedStr.length() == 0))
-    {
-      serversAccessed = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> servers = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(serversAccessedStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        servers.add(tokenizer.nextToken());
-      }
-      serversAccessed = Collections.unmodifiableList(servers);
-    }
-
-    uncachedDataAccessed = getNamedValueAsBoolean("uncachedDataAccessed");
-    retiredPasswordUsed = getNamedValueAsBoolean("retiredPasswordUsed");
-
-    final String usedPrivilegesStr = getNamedValue("usedPrivileges");
-    if ((usedPrivilegesStr == null) || (usedPrivilegesStr.length() == 0))
-    {
-      usedPrivileges = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> privileges = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(usedPrivilegesStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        privileges.add(tokenizer.nextToken());
-      }
-      usedPrivileges = Collections.unmodifiableList(privileges);
-    }
-
-    final String preAuthZUsedPrivilegesStr =
-         getNamedValue("preAuthZUsedPrivileges");
-    if ((preAuthZUsedPrivilegesStr == null) ||
-        (preAuthZUsedPrivilegesStr.length() == 0))
-    {
-      preAuthZUsedPrivileges = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> privileges = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(preAuthZUsedPrivilegesStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        privileges.add(tokenizer.nextToken());
-      }
-      preAuthZUsedPrivileges = Collections.unmodifiableList(privileges);
-    }
-
-    final String missingPrivilegesStr = getNamedValue("missingPrivileges");
-    if ((missingPrivilegesStr == null) || (missingPrivilegesStr.length() == 0))
-    {
-      missingPrivileges = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> privileges = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(missingPrivilegesStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        privileges.add(tokenizer.nextToken());
-      }
-      missingPrivileges = Collections.unmodifiableList(privileges);
-    }
   }
 
 
@@ -320,7 +97,15 @@ public final class BindResultAccessLogMessage
    */
   public ResultCode getResultCode()
   {
-    return resultCode;
+    final Integer rcInteger = getNamedValueAsInteger("resultCode");
+    if (rcInteger == null)
+    {
+      return null;
+    }
+    else
+    {
+      return ResultCode.valueOf(rcInteger);
+    }
   }
 
 
@@ -333,7 +118,7 @@ public final class BindResultAccessLogMessage
    */
   public String getDiagnosticMessage()
   {
-    return diagnosticMessage;
+    return getNamedValue("message");
   }
 
 
@@ -348,7 +133,7 @@ public final class BindResultAccessLogMessage
    */
   public String getAdditionalInformation()
   {
-    return additionalInformation;
+    return getNamedValue("additionalInfo");
   }
 
 
@@ -361,7 +146,7 @@ public final class BindResultAccessLogMessage
    */
   public String getMatchedDN()
   {
-    return matchedDN;
+    return getNamedValue("matchedDN");
   }
 
 
@@ -374,7 +159,7 @@ public final class BindResultAccessLogMessage
    */
   public List<String> getReferralURLs()
   {
-    return referralURLs;
+    return getNamedValueAsURLList("referralURLs");
   }
 
 
@@ -389,7 +174,7 @@ public final class BindResultAccessLogMessage
    */
   public Long getIntermediateResponsesReturned()
   {
-    return intermediateResponsesReturned;
+    return getNamedValueAsLong("intermediateResponsesReturned");
   }
 
 
@@ -404,7 +189,7 @@ public final class BindResultAccessLogMessage
    */
   public Double getProcessingTimeMillis()
   {
-    return processingTime;
+    return getNamedValueAsDouble("etime");
   }
 
 
@@ -419,7 +204,7 @@ public final class BindResultAccessLogMessage
    */
   public Double getQueueTimeMillis()
   {
-    return queueTime;
+    return getNamedValueAsDouble("qtime");
   }
 
 
@@ -432,7 +217,7 @@ public final class BindResultAccessLogMessage
    */
   public List<String> getResponseControlOIDs()
   {
-    return responseControlOIDs;
+    return getNamedValueAsList("responseControls");
   }
 
 
@@ -449,7 +234,7 @@ public final class BindResultAccessLogMessage
    */
   public List<String> getServersAccessed()
   {
-    return serversAccessed;
+    return getNamedValueAsList("serversAccessed");
   }
 
 
@@ -466,7 +251,7 @@ public final class BindResultAccessLogMessage
    */
   public Boolean getUncachedDataAccessed()
   {
-    return uncachedDataAccessed;
+    return getNamedValueAsBoolean("uncachedDataAccessed");
   }
 
 
@@ -480,7 +265,7 @@ public final class BindResultAccessLogMessage
    */
   public String getIntermediateClientResult()
   {
-    return intermediateClientResult;
+    return getNamedValue("from");
   }
 
 
@@ -493,7 +278,7 @@ public final class BindResultAccessLogMessage
    */
   public String getAuthenticationDN()
   {
-    return authDN;
+    return getNamedValue("authDN");
   }
 
 
@@ -508,7 +293,7 @@ public final class BindResultAccessLogMessage
    */
   public String getAuthorizationDN()
   {
-    return authzDN;
+    return getNamedValue("authzDN");
   }
 
 
@@ -521,7 +306,7 @@ public final class BindResultAccessLogMessage
    */
   public Long getAuthenticationFailureID()
   {
-    return authFailureID;
+    return getNamedValueAsLong("authFailureID");
   }
 
 
@@ -536,7 +321,7 @@ public final class BindResultAccessLogMessage
    */
   public String getAuthenticationFailureReason()
   {
-    return authFailureReason;
+    return getNamedValue("authFailureReason");
   }
 
 
@@ -553,7 +338,7 @@ public final class BindResultAccessLogMessage
    */
   public Boolean getRetiredPasswordUsed()
   {
-    return retiredPasswordUsed;
+    return getNamedValueAsBoolean("retiredPasswordUsed");
   }
 
 
@@ -568,7 +353,7 @@ public final class BindResultAccessLogMessage
    */
   public String getTargetHost()
   {
-    return targetHost;
+    return getNamedValue("targetHost");
   }
 
 
@@ -583,7 +368,7 @@ public final class BindResultAccessLogMessage
    */
   public Integer getTargetPort()
   {
-    return targetPort;
+    return getNamedValueAsInteger("targetPort");
   }
 
 
@@ -596,7 +381,7 @@ public final class BindResultAccessLogMessage
    */
   public String getTargetProtocol()
   {
-    return targetProtocol;
+    return getNamedValue("targetProtocol");
   }
 
 
@@ -611,7 +396,7 @@ public final class BindResultAccessLogMessage
    */
   public String getClientConnectionPolicy()
   {
-    return clientConnectionPolicy;
+    return getNamedValue("clientConnectionPolicy");
   }
 
 
@@ -626,7 +411,7 @@ public final class BindResultAccessLogMessage
    */
   public List<String> getUsedPrivileges()
   {
-    return usedPrivileges;
+    return getNamedValueAsList("usedPrivileges");
   }
 
 
@@ -642,7 +427,7 @@ public final class BindResultAccessLogMessage
    */
   public List<String> getPreAuthorizationUsedPrivileges()
   {
-    return preAuthZUsedPrivileges;
+    return getNamedValueAsList("preAuthZUsedPrivileges");
   }
 
 
@@ -658,7 +443,7 @@ public final class BindResultAccessLogMessage
    */
   public List<String> getMissingPrivileges()
   {
-    return missingPrivileges;
+    return getNamedValueAsList("missingPrivileges");
   }
 
 
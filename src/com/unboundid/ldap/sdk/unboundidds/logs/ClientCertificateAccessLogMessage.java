@@ -55,14 +55,6 @@ public final class ClientCertificateAccessLogMessage
 
 
 
-  // The subject DN for the issuer certificate.
-  private final String issuerSubject;
-
-  // The subject DN for the client certificate.
-  private final String peerSubject;
-
-
-
   /**
    * Creates a new client certificate access log message from the provided
    * message string.
@@ -89,9 +81,6 @@ public final class ClientCertificateAccessLogMessage
   public ClientCertificateAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    peerSubject   = getNamedValue("peerSubject");
-    issuerSubject = getNamedValue("issuerSubject");
   }
 
 
@@ -104,7 +93,7 @@ public final class ClientCertificateAccessLogMessage
    */
   public String getPeerSubject()
   {
-    return peerSubject;
+    return getNamedValue("peerSubject");
   }
 
 
@@ -117,7 +106,7 @@ public final class ClientCertificateAccessLogMessage
    */
   public String getIssuerSubject()
   {
-    return issuerSubject;
+    return getNamedValue("issuerSubject");
   }
 
 
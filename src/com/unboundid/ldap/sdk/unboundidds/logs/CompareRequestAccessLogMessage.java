@@ -57,14 +57,6 @@ public class CompareRequestAccessLogMessage
 
 
 
-  // The name of the attribute for which the compare is to be performed.
-  private final String attributeName;
-
-  // The DN of the entry for which the compare is to be performed.
-  private final String dn;
-
-
-
   /**
    * Creates a new compare request access log message from the provided message
    * string.
@@ -92,9 +84,6 @@ public class CompareRequestAccessLogMessage
   public CompareRequestAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    dn            = getNamedValue("dn");
-    attributeName = getNamedValue("attr");
   }
 
 
@@ -107,7 +96,7 @@ public class CompareRequestAccessLogMessage
    */
   public final String getDN()
   {
-    return dn;
+    return getNamedValue("dn");
   }
 
 
@@ -122,7 +111,7 @@ public class CompareRequestAccessLogMessage
    */
   public final String getAttributeName()
   {
-    return attributeName;
+    return getNamedValue("attr");
   }
 
 
@@ -22,10 +22,7 @@ package com.unboundid.ldap.sdk.unboundidds.logs;
 
 
 
-import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.StringTokenizer;
 
 import com.unboundid.ldap.sdk.ResultCode;
 import com.unboundid.util.NotMutable;
@@ -62,68 +59,6 @@ public final class CompareResultAccessLogMessage
 
 
 
-  // Indicates whether the any uncached data was accessed in the course of
-  // processing this operation.
-  private final Boolean uncachedDataAccessed;
-
-  // The processing time for the operation.
-  private final Double processingTime;
-
-  // The queue time for the operation.
-  private final Double queueTime;
-
-  // The list of privileges required for processing the operation that the
-  // requester did not have.
-  private final List<String> missingPrivileges;
-
-  // The list of privileges used during the course of processing the operation
-  // before an alternate authorization identity was assigned.
-  private final List<String> preAuthZUsedPrivileges;
-
-  // The list of referral URLs for the operation.
-  private final List<String> referralURLs;
-
-  // The list of response control OIDs for the operation.
-  private final List<String> responseControlOIDs;
-
-  // The list of servers accessed while processing the operation.
-  private final List<String> serversAccessed;
-
-  // The list of privileges used during the course of processing the operation.
-  private final List<String> usedPrivileges;
-
-  // The number of intermediate response messages returned to the client.
-  private final Long intermediateResponsesReturned;
-
-  // The result code for the operation.
-  private final ResultCode resultCode;
-
-  // Additional information about the operation result.
-  private final String additionalInformation;
-
-  // The alternate authorization DN for the operation.
-  private final String authzDN;
-
-  // The diagnostic message for the operation.
-  private final String diagnosticMessage;
-
-  // The intermediate client result for the operation.
-  private final String intermediateClientResult;
-
-  // The matched DN for the operation.
-  private final String matchedDN;
-
-  // The port of the backend server to which the request has been forwarded.
-  private final Integer targetPort;
-
-  // The address of the backend server to which the request has been forwarded.
-  private final String targetHost;
-
-  // The protocol used to forward the request to the backend server.
-  private final String targetProtocol;
-
-
-
   /**
    * Creates a new compare result access log message from the provided message
    * string.
@@ -151,144 +86,6 @@ public final class CompareResultAccessLogMessage
   public CompareResultAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    diagnosticMessage        = getNamedValue("message");
-    additionalInformation    = getNamedValue("additionalInfo");
-    matchedDN                = getNamedValue("matchedDN");
-    processingTime           = getNamedValueAsDouble("etime");
-    queueTime                = getNamedValueAsDouble("qtime");
-    intermediateClientResult = getNamedValue("from");
-    authzDN                  = getNamedValue("authzDN");
-    targetHost               = getNamedValue("targetHost");
-    targetPort               = getNamedValueAsInteger("targetPort");
-    targetProtocol           = getNamedValue("targetProtocol");
-
-    intermediateResponsesReturned =
-         getNamedValueAsLong("intermediateResponsesReturned");
-
-    final Integer rcInteger = getNamedValueAsInteger("resultCode");
-    if (rcInteger == null)
-    {
-      resultCode = null;
-    }
-    else
-    {
-      resultCode = ResultCode.valueOf(rcInteger);
-    }
-
-    final String refStr = getNamedValue("referralURLs");
-    if ((refStr == null) || (refStr.length() == 0))
-    {
-      referralURLs = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> refs = new LinkedList<String>();
-      int startPos = 0;
-      while (true)
-      {
-        final int commaPos = refStr.indexOf(",ldap", startPos);
-        if (commaPos < 0)
-        {
-          refs.add(refStr.substring(startPos));
-          break;
-        }
-        else
-        {
-          refs.add(refStr.substring(startPos, commaPos));
-          startPos = commaPos+1;
-        }
-      }
-      referralURLs = Collections.unmodifiableList(refs);
-    }
-
-    final String controlStr = getNamedValue("responseControls");
-    if (controlStr == null)
-    {
-      responseControlOIDs = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> controlList = new LinkedList<String>();
-      final StringTokenizer t = new StringTokenizer(controlStr, ",");
-      while (t.hasMoreTokens())
-      {
-        controlList.add(t.nextToken());
-      }
-      responseControlOIDs = Collections.unmodifiableList(controlList);
-    }
-
-    final String serversAccessedStr = getNamedValue("serversAccessed");
-    if ((serversAccessedStr == null) || (serversAccessedStr.length() == 0))
-    {
-      serversAccessed = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> servers = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(serversAccessedStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        servers.add(tokenizer.nextToken());
-      }
-      serversAccessed = Collections.unmodifiableList(servers);
-    }
-
-    uncachedDataAccessed = getNamedValueAsBoolean("uncachedDataAccessed");
-
-    final String usedPrivilegesStr = getNamedValue("usedPrivileges");
-    if ((usedPrivilegesStr == null) || (usedPrivilegesStr.length() == 0))
-    {
-      usedPrivileges = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> privileges = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(usedPrivilegesStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        privileges.add(tokenizer.nextToken());
-      }
-      usedPrivileges = Collections.unmodifiableList(privileges);
-    }
-
-    final String preAuthZUsedPrivilegesStr =
-         getNamedValue("preAuthZUsedPrivileges");
-    if ((preAuthZUsedPrivilegesStr == null) ||
-        (preAuthZUsedPrivilegesStr.length() == 0))
-    {
-      preAuthZUsedPrivileges = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> privileges = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(preAuthZUsedPrivilegesStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        privileges.add(tokenizer.nextToken());
-      }
-      preAuthZUsedPrivileges = Collections.unmodifiableList(privileges);
-    }
-
-    final String missingPrivilegesStr = getNamedValue("missingPrivileges");
-    if ((missingPrivilegesStr == null) || (missingPrivilegesStr.length() == 0))
-    {
-      missingPrivileges = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> privileges = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(missingPrivilegesStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        privileges.add(tokenizer.nextToken());
-      }
-      missingPrivileges = Collections.unmodifiableList(privileges);
-    }
   }
 
 
@@ -301,7 +98,15 @@ public final class CompareResultAccessLogMessage
    */
   public ResultCode getResultCode()
   {
-    return resultCode;
+    final Integer rcInteger = getNamedValueAsInteger("resultCode");
+    if (rcInteger == null)
+    {
+      return null;
+    }
+    else
+    {
+      return ResultCode.valueOf(rcInteger);
+    }
   }
 
 
@@ -314,7 +119,7 @@ public final class CompareResultAccessLogMessage
    */
   public String getDiagnosticMessage()
   {
-    return diagnosticMessage;
+    return getNamedValue("message");
   }
 
 
@@ -329,7 +134,7 @@ public final class CompareResultAccessLogMessage
    */
   public String getAdditionalInformation()
   {
-    return additionalInformation;
+    return getNamedValue("additionalInfo");
   }
 
 
@@ -342,7 +147,7 @@ public final class CompareResultAccessLogMessage
    */
   public String getMatchedDN()
   {
-    return matchedDN;
+    return getNamedValue("matchedDN");
   }
 
 
@@ -355,7 +160,7 @@ public final class CompareResultAccessLogMessage
    */
   public List<String> getReferralURLs()
   {
-    return referralURLs;
+    return getNamedValueAsURLList("referralURLs");
   }
 
 
@@ -370,7 +175,7 @@ public final class CompareResultAccessLogMessage
    */
   public Long getIntermediateResponsesReturned()
   {
-    return intermediateResponsesReturned;
+    return getNamedValueAsLong("intermediateResponsesReturned");
   }
 
 
@@ -385,7 +190,7 @@ public final class CompareResultAccessLogMessage
    */
   public Double getProcessingTimeMillis()
   {
-    return processingTime;
+    return getNamedValueAsDouble("etime");
   }
 
 
@@ -400,7 +205,7 @@ public final class CompareResultAccessLogMessage
    */
   public Double getQueueTimeMillis()
   {
-    return queueTime;
+    return getNamedValueAsDouble("qtime");
   }
 
 
@@ -413,7 +218,7 @@ public final class CompareResultAccessLogMessage
    */
   public List<String> getResponseControlOIDs()
   {
-    return responseControlOIDs;
+    return getNamedValueAsList("responseControls");
   }
 
 
@@ -430,7 +235,7 @@ public final class CompareResultAccessLogMessage
    */
   public List<String> getServersAccessed()
   {
-    return serversAccessed;
+    return getNamedValueAsList("serversAccessed");
   }
 
 
@@ -447,7 +252,7 @@ public final class CompareResultAccessLogMessage
    */
   public Boolean getUncachedDataAccessed()
   {
-    return uncachedDataAccessed;
+    return getNamedValueAsBoolean("uncachedDataAccessed");
   }
 
 
@@ -461,7 +266,7 @@ public final class CompareResultAccessLogMessage
    */
   public String getIntermediateClientResult()
   {
-    return intermediateClientResult;
+    return getNamedValue("from");
   }
 
 
@@ -474,7 +279,7 @@ public final class CompareResultAccessLogMessage
    */
   public String getAlternateAuthorizationDN()
   {
-    return authzDN;
+    return getNamedValue("authzDN");
   }
 
 
@@ -489,7 +294,7 @@ public final class CompareResultAccessLogMessage
    */
   public String getTargetHost()
   {
-    return targetHost;
+    return getNamedValue("targetHost");
   }
 
 
@@ -504,7 +309,7 @@ public final class CompareResultAccessLogMessage
    */
   public Integer getTargetPort()
   {
-    return targetPort;
+    return getNamedValueAsInteger("targetPort");
   }
 
 
@@ -517,7 +322,7 @@ public final class CompareResultAccessLogMessage
    */
   public String getTargetProtocol()
   {
-    return targetProtocol;
+    return getNamedValue("targetProtocol");
   }
 
 
@@ -532,7 +337,7 @@ public final class CompareResultAccessLogMessage
    */
   public List<String> getUsedPrivileges()
   {
-    return usedPrivileges;
+    return getNamedValueAsList("usedPrivileges");
   }
 
 
@@ -548,7 +353,7 @@ public final class CompareResultAccessLogMessage
    */
   public List<String> getPreAuthorizationUsedPrivileges()
   {
-    return preAuthZUsedPrivileges;
+    return getNamedValueAsList("preAuthZUsedPrivileges");
   }
 
 
@@ -564,7 +369,7 @@ public final class CompareResultAccessLogMessage
    */
   public List<String> getMissingPrivileges()
   {
-    return missingPrivileges;
+    return getNamedValueAsList("missingPrivileges");
   }
 
 
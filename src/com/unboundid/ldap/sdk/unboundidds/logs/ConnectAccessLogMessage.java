@@ -55,21 +55,6 @@ public final class ConnectAccessLogMessage
 
 
 
-  // The name of the client connection policy selected for the client.
-  private final String clientConnectionPolicy;
-
-  // The name of the protocol used by the client.
-  private final String protocolName;
-
-  // The source address for the client connection.
-  private final String sourceAddress;
-
-  // The server address to which the client connection is established.
-  private final String targetAddress;
-
-
-
-
   /**
    * Creates a new connect access log message from the provided message string.
    *
@@ -94,11 +79,6 @@ public final class ConnectAccessLogMessage
   public ConnectAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    sourceAddress          = getNamedValue("from");
-    targetAddress          = getNamedValue("to");
-    protocolName           = getNamedValue("protocol");
-    clientConnectionPolicy = getNamedValue("clientConnectionPolicy");
   }
 
 
@@ -111,7 +91,7 @@ public final class ConnectAccessLogMessage
    */
   public String getSourceAddress()
   {
-    return sourceAddress;
+    return getNamedValue("from");
   }
 
 
@@ -124,7 +104,7 @@ public final class ConnectAccessLogMessage
    */
   public String getTargetAddress()
   {
-    return targetAddress;
+    return getNamedValue("to");
   }
 
 
@@ -139,7 +119,7 @@ public final class ConnectAccessLogMessage
    */
   public String getProtocolName()
   {
-    return protocolName;
+    return getNamedValue("protocol");
   }
 
 
@@ -154,7 +134,7 @@ public final class ConnectAccessLogMessage
    */
   public String getClientConnectionPolicy()
   {
-    return clientConnectionPolicy;
+    return getNamedValue("clientConnectionPolicy");
   }
 
 
@@ -57,11 +57,6 @@ public class DeleteRequestAccessLogMessage
 
 
 
-  // The DN of the entry to delete.
-  private final String dn;
-
-
-
   /**
    * Creates a new delete request access log message from the provided message
    * string.
@@ -89,8 +84,6 @@ public class DeleteRequestAccessLogMessage
   public DeleteRequestAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    dn = getNamedValue("dn");
   }
 
 
@@ -103,7 +96,7 @@ public class DeleteRequestAccessLogMessage
    */
   public final String getDN()
   {
-    return dn;
+    return getNamedValue("dn");
   }
 
 
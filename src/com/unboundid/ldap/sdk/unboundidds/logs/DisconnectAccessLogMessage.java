@@ -55,14 +55,6 @@ public final class DisconnectAccessLogMessage
 
 
 
-  // The message providing additional information about the disconnect.
-  private final String message;
-
-  // The reason for the disconnect.
-  private final String reason;
-
-
-
   /**
    * Creates a new disconnect access log message from the provided message
    * string.
@@ -88,9 +80,6 @@ public final class DisconnectAccessLogMessage
   public DisconnectAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    reason  = getNamedValue("reason");
-    message = getNamedValue("msg");
   }
 
 
@@ -103,7 +92,7 @@ public final class DisconnectAccessLogMessage
    */
   public String getDisconnectReason()
   {
-    return reason;
+    return getNamedValue("reason");
   }
 
 
@@ -116,7 +105,7 @@ public final class DisconnectAccessLogMessage
    */
   public String getMessage()
   {
-    return message;
+    return getNamedValue("msg");
   }
 
 
@@ -57,39 +57,6 @@ public class EntryRebalancingRequestAccessLogMessage
 
 
 
-  // The maximum number of entries to include in the subtree move.
-  private final Integer sizeLimit;
-
-  // The unique identifier assigned to the entry rebalancing operation.
-  private final Long rebalancingOperationID;
-
-  // The connection ID of the client connection that performed an operation to
-  // trigger the entry rebalancing operation.
-  private final Long triggeringConnectionID;
-
-  // The operation ID of the operation that triggered the entry rebalancing
-  // operation.
-  private final Long triggeringOperationID;
-
-  // The name of the backend set containing the subtree to move.
-  private final String sourceBackendSetName;
-
-  // The address and port of the server in the source backend set from which
-  // the entries are being migrated.
-  private final String sourceBackendServer;
-
-  // The base DN of the subtree being moved from one backend set to another.
-  private final String subtreeBaseDN;
-
-  // The name of the backend set into which the subtree will be migrated.
-  private final String targetBackendSetName;
-
-  // The address and port of the server of the server in the target backend set
-  // into which the entries are being migrated.
-  private final String targetBackendServer;
-
-
-
   /**
    * Creates a new entry rebalancing request access log message from the
    * provided message string.
@@ -118,16 +85,6 @@ public class EntryRebalancingRequestAccessLogMessage
   public EntryRebalancingRequestAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    rebalancingOperationID = getNamedValueAsLong("rebalancingOp");
-    sizeLimit              = getNamedValueAsInteger("sizeLimit");
-    sourceBackendServer    = getNamedValue("sourceServer");
-    sourceBackendSetName   = getNamedValue("sourceBackendSet");
-    subtreeBaseDN          = getNamedValue("base");
-    targetBackendServer    = getNamedValue("targetServer");
-    targetBackendSetName   = getNamedValue("targetBackendSet");
-    triggeringConnectionID = getNamedValueAsLong("triggeredByConn");
-    triggeringOperationID  = getNamedValueAsLong("triggeredByOp");
   }
 
 
@@ -141,7 +98,7 @@ public class EntryRebalancingRequestAccessLogMessage
    */
   public final Long getRebalancingOperationID()
   {
-    return rebalancingOperationID;
+    return getNamedValueAsLong("rebalancingOp");
   }
 
 
@@ -156,7 +113,7 @@ public class EntryRebalancingRequestAccessLogMessage
    */
   public final Long getTriggeringConnectionID()
   {
-    return triggeringConnectionID;
+    return getNamedValueAsLong("triggeredByConn");
   }
 
 
@@ -171,7 +128,7 @@ public class EntryRebalancingRequestAccessLogMessage
    */
   public final Long getTriggeringOperationID()
   {
-    return triggeringOperationID;
+    return getNamedValueAsLong("triggeredByOp");
   }
 
 
@@ -186,7 +143,7 @@ public class EntryRebalancingRequestAccessLogMessage
    */
   public final String getSubtreeBaseDN()
   {
-    return subtreeBaseDN;
+    return getNamedValue("base");
   }
 
 
@@ -201,7 +158,7 @@ public class EntryRebalancingRequestAccessLogMessage
    */
   public final Integer getSizeLimit()
   {
-    return sizeLimit;
+    return getNamedValueAsInteger("sizeLimit");
   }
 
 
@@ -215,7 +172,7 @@ public class EntryRebalancingRequestAccessLogMessage
    */
   public final String getSourceBackendSetName()
   {
-    return sourceBackendSetName;
+    return getNamedValue("sourceBackendSet");
   }
 
 
@@ -230,7 +187,7 @@ public class EntryRebalancingRequestAccessLogMessage
    */
   public final String getSourceBackendServer()
   {
-    return sourceBackendServer;
+    return getNamedValue("sourceServer");
   }
 
 
@@ -244,7 +201,7 @@ public class EntryRebalancingRequestAccessLogMessage
    */
   public final String getTargetBackendSetName()
   {
-    return targetBackendSetName;
+    return getNamedValue("targetBackendSet");
   }
 
 
@@ -259,7 +216,7 @@ public class EntryRebalancingRequestAccessLogMessage
    */
   public final String getTargetBackendServer()
   {
-    return targetBackendServer;
+    return getNamedValue("targetServer");
   }
 
 
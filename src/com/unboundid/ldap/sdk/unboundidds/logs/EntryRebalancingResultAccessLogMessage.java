@@ -56,34 +56,6 @@ public final class EntryRebalancingResultAccessLogMessage
 
 
 
-  // Indicates whether any changes were made to data in the source backend set.
-  private final Boolean sourceAltered;
-
-  // Indicates whether any changes were made to data in the target backend set.
-  private final Boolean targetAltered;
-
-  // The number of entries added to the target server.
-  private final Integer entriesAddedToTarget;
-
-  // The number of entries deleted from the source server.
-  private final Integer entriesDeletedFromSource;
-
-  // The number of entries read from the source server.
-  private final Integer entriesReadFromSource;
-
-  // The result code for the entry rebalancing operation.
-  private final ResultCode resultCode;
-
-  // A message with information about any administrative action that may be
-  // required to complete the entry rebalancing processing.
-  private final String adminActionRequired;
-
-  // A message with additional information about any errors that occurred during
-  // entry rebalancing processing.
-  private final String errorMessage;
-
-
-
   /**
    * Creates a new entry rebalancing result access log message from the provided
    * message string.
@@ -112,25 +84,6 @@ public final class EntryRebalancingResultAccessLogMessage
   public EntryRebalancingResultAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    final Integer rcInteger = getNamedValueAsInteger("resultCode");
-    if (rcInteger == null)
-    {
-      resultCode = null;
-    }
-    else
-    {
-      resultCode = ResultCode.valueOf(rcInteger);
-    }
-
-    adminActionRequired      = getNamedValue("adminActionRequired");
-    entriesAddedToTarget     = getNamedValueAsInteger("entriesAddedToTarget");
-    entriesDeletedFromSource =
-         getNamedValueAsInteger("entriesDeletedFromSource");
-    entriesReadFromSource    = getNamedValueAsInteger("entriesReadFromSource");
-    errorMessage             = getNamedValue("errorMessage");
-    sourceAltered            = getNamedValueAsBoolean("sourceAltered");
-    targetAltered            = getNamedValueAsBoolean("targetAltered");
   }
 
 
@@ -143,7 +96,15 @@ public final class EntryRebalancingResultAccessLogMessage
    */
   public ResultCode getResultCode()
   {
-    return resultCode;
+    final Integer rcInteger = getNamedValueAsInteger("resultCode");
+    if (rcInteger == null)
+    {
+      return null;
+    }
+    else
+    {
+      return ResultCode.valueOf(rcInteger);
+    }
   }
 
 
@@ -158,7 +119,7 @@ public final class EntryRebalancingResultAccessLogMessage
    */
   public String getErrorMessage()
   {
-    return errorMessage;
+    return getNamedValue("errorMessage");
   }
 
 
@@ -176,7 +137,7 @@ public final class EntryRebalancingResultAccessLogMessage
    */
   public String getAdminActionRequired()
   {
-    return adminActionRequired;
+    return getNamedValue("adminActionRequired");
   }
 
 
@@ -193,7 +154,7 @@ public final class EntryRebalancingResultAccessLogMessage
    */
   public Boolean sourceAltered()
   {
-    return sourceAltered;
+    return getNamedValueAsBoolean("sourceAltered");
   }
 
 
@@ -210,7 +171,7 @@ public final class EntryRebalancingResultAccessLogMessage
    */
   public Boolean targetAltered()
   {
-    return targetAltered;
+    return getNamedValueAsBoolean("targetAltered");
   }
 
 
@@ -223,7 +184,7 @@ public final class EntryRebalancingResultAccessLogMessage
    */
   public Integer getEntriesReadFromSource()
   {
-    return entriesReadFromSource;
+    return getNamedValueAsInteger("entriesReadFromSource");
   }
 
 
@@ -236,7 +197,7 @@ public final class EntryRebalancingResultAccessLogMessage
    */
   public Integer getEntriesAddedToTarget()
   {
-    return entriesAddedToTarget;
+    return getNamedValueAsInteger("entriesAddedToTarget");
   }
 
 
@@ -249,7 +210,7 @@ public final class EntryRebalancingResultAccessLogMessage
    */
   public Integer getEntriesDeletedFromSource()
   {
-    return entriesDeletedFromSource;
+    return getNamedValueAsInteger("entriesDeletedFromSource");
   }
 
 
@@ -56,37 +56,6 @@ public final class ErrorLogMessage
 
 
 
-  // The name of the category for this error log message.
-  private final ErrorLogCategory category;
-
-  // The name of the severity for this error log message.
-  private final ErrorLogSeverity severity;
-
-  // The message ID for this error log message.
-  private final Long messageID;
-
-  // The connection ID for the operation currently being processed by the thread
-  // that generated this error log message.
-  private final Long triggeredByConnectionID;
-
-  // The operation ID for the operation currently being processed by the thread
-  // that generated this error log message.
-  private final Long triggeredByOperationID;
-
-  // The Directory Server instance name for this error log message.
-  private final String instanceName;
-
-  // The message string for this error log message.
-  private final String message;
-
-  // The product name for this error log message.
-  private final String productName;
-
-  // The startup ID for this error log message;
-  private final String startupID;
-
-
-
   /**
    * Creates a new error log message from the provided message string.
    *
@@ -111,36 +80,6 @@ public final class ErrorLogMessage
   public ErrorLogMessage(final LogMessage m)
   {
     super(m);
-
-    productName             = getNamedValue("product");
-    instanceName            = getNamedValue("instanceName");
-    startupID               = getNamedValue("startupID");
-    messageID               = getNamedValueAsLong("msgID");
-    message                 = getNamedValue("msg");
-    triggeredByConnectionID = getNamedValueAsLong("triggeredByConn");
-    triggeredByOperationID  = getNamedValueAsLong("triggeredByOp");
-
-    ErrorLogCategory cat = null;
-    try
-    {
-      cat = ErrorLogCategory.valueOf(getNamedValue("category"));
-    }
-    catch (final Exception e)
-    {
-      debugException(e);
-    }
-    category = cat;
-
-    ErrorLogSeverity sev = null;
-    try
-    {
-      sev = ErrorLogSeverity.valueOf(getNamedValue("severity"));
-    }
-    catch (final Exception e)
-    {
-      debugException(e);
-    }
-    severity = sev;
   }
 
 
@@ -153,7 +92,7 @@ public final class ErrorLogMessage
    */
   public String getProductName()
   {
-    return productName;
+    return getNamedValue("product");
   }
 
 
@@ -166,7 +105,7 @@ public final class ErrorLogMessage
    */
   public String getInstanceName()
   {
-    return instanceName;
+    return getNamedValue("instanceName");
   }
 
 
@@ -179,7 +118,7 @@ public final class ErrorLogMessage
    */
   public String getStartupID()
   {
-    return startupID;
+    return getNamedValue("startupID");
   }
 
 
@@ -192,7 +131,21 @@ public final class ErrorLogMessage
    */
   public ErrorLogCategory getCategory()
   {
-    return category;
+    final String categoryName = getNamedValue("category");
+    if (categoryName == null)
+    {
+      return null;
+    }
+
+    try
+    {
+      return ErrorLogCategory.valueOf(categoryName);
+    }
+    catch (final Exception e)
+    {
+      debugException(e);
+      return null;
+    }
   }
 
 
@@ -205,7 +158,21 @@ public final class ErrorLogMessage
    */
   public ErrorLogSeverity getSeverity()
   {
-    return severity;
+    final String severityName = getNamedValue("severity");
+    if (severityName == null)
+    {
+      return null;
+    }
+
+    try
+    {
+      return ErrorLogSeverity.valueOf(severityName);
+    }
+    catch (final Exception e)
+    {
+      debugException(e);
+      return null;
+    }
   }
 
 
@@ -218,7 +185,7 @@ public final class ErrorLogMessage
    */
   public Long getMessageID()
   {
-    return messageID;
+    return getNamedValueAsLong("msgID");
   }
 
 
@@ -233,7 +200,7 @@ public final class ErrorLogMessage
    */
   public Long getTriggeredByConnectionID()
   {
-    return triggeredByConnectionID;
+    return getNamedValueAsLong("triggeredByConn");
   }
 
 
@@ -248,7 +215,7 @@ public final class ErrorLogMessage
    */
   public Long getTriggeredByOperationID()
   {
-    return triggeredByOperationID;
+    return getNamedValueAsLong("triggeredByOp");
   }
 
 
@@ -261,6 +228,6 @@ public final class ErrorLogMessage
    */
   public String getMessage()
   {
-    return message;
+    return getNamedValue("msg");
   }
 }
@@ -57,11 +57,6 @@ public class ExtendedRequestAccessLogMessage
 
 
 
-  // The OID for the extended request.
-  private final String requestOID;
-
-
-
   /**
    * Creates a new extended request access log message from the provided message
    * string.
@@ -90,8 +85,6 @@ public class ExtendedRequestAccessLogMessage
   public ExtendedRequestAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    requestOID = getNamedValue("requestOID");
   }
 
 
@@ -104,7 +97,7 @@ public class ExtendedRequestAccessLogMessage
    */
   public final String getRequestOID()
   {
-    return requestOID;
+    return getNamedValue("requestOID");
   }
 
 
@@ -22,10 +22,7 @@ package com.unboundid.ldap.sdk.unboundidds.logs;
 
 
 
-import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.StringTokenizer;
 
 import com.unboundid.util.NotMutable;
 import com.unboundid.util.ThreadSafety;
@@ -63,18 +60,6 @@ public final class IntermediateResponseAccessLogMessage
   // The operation type for this access log message.
   private final AccessLogOperationType operationType;
 
-  // The list of response control OIDs for the operation.
-  private final List<String> responseControlOIDs;
-
-  // A human-readable version of the intermediate response name.
-  private final String name;
-
-  // The OID of the intermediate response.
-  private final String oid;
-
-  // A human-readable version of the intermediate response value.
-  private final String value;
-
 
 
   /**
@@ -106,26 +91,6 @@ public final class IntermediateResponseAccessLogMessage
   {
     super(m);
 
-    oid   = getNamedValue("oid");
-    name  = getNamedValue("name");
-    value = getNamedValue("value");
-
-    final String controlStr = getNamedValue("responseControls");
-    if (controlStr == null)
-    {
-      responseControlOIDs = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> controlList = new LinkedList<String>();
-      final StringTokenizer t = new StringTokenizer(controlStr, ",");
-      while (t.hasMoreTokens())
-      {
-        controlList.add(t.nextToken());
-      }
-      responseControlOIDs = Collections.unmodifiableList(controlList);
-    }
-
     if (m.hasUnnamedValue(AccessLogOperationType.ADD.getLogIdentifier()))
     {
       operationType = AccessLogOperationType.ADD;
@@ -180,7 +145,7 @@ public final class IntermediateResponseAccessLogMessage
    */
   public String getOID()
   {
-    return oid;
+    return getNamedValue("oid");
   }
 
 
@@ -193,7 +158,7 @@ public final class IntermediateResponseAccessLogMessage
    */
   public String getIntermediateResponseName()
   {
-    return name;
+    return getNamedValue("name");
   }
 
 
@@ -207,7 +172,7 @@ public final class IntermediateResponseAccessLogMessage
    */
   public String getValueString()
   {
-    return value;
+    return getNamedValue("value");
   }
 
 
@@ -220,7 +185,7 @@ public final class IntermediateResponseAccessLogMessage
    */
   public List<String> getResponseControlOIDs()
   {
-    return responseControlOIDs;
+    return getNamedValueAsList("responseControls");
   }
 
 
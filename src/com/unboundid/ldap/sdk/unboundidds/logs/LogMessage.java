@@ -24,10 +24,12 @@ package com.unboundid.ldap.sdk.unboundidds.logs;
 
 import java.io.Serializable;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.Map;
 
@@ -46,6 +48,16 @@ import static com.unboundid.util.StaticUtils.*;
 /**
  * This class provides a data structure that holds information about a log
  * message contained in a Directory Server access or error log file.
+ * <BR><BR>
+ * When a log message is created, the timestamp is parsed and the positions of
+ * the named values within the message string are indexed, but the values
+ * themselves are only extracted (and any escaped characters that they contain
+ * are only decoded) the first time that they are retrieved.  This makes it
+ * relatively inexpensive to create log messages when only a few of their
+ * values will be used.  The subclasses follow the same approach, so each of
+ * their getter methods obtains its value from the message the first time it is
+ * called.  Values converted to other types (like numbers, Boolean values, and
+ * lists) are cached so that they are only converted once.
  * <BR>
  * <BLOCKQUOTE>
  *   <B>NOTE:</B>  This class, and other classes within the
@@ -107,12 +119,30 @@ public class LogMessage
   // The timestamp for this log message.
   private final Date timestamp;
 
-  // The map of named fields contained in this log message.
-  private final Map<String,String> namedValues;
+  // The positions in the message string at which the value for each named
+  // token starts and ends.
+  private final int[] namedValueEnds;
+  private final int[] namedValueStarts;
+
+  // The map of named fields contained in this log message.  It will only be
+  // created if it is requested.
+  private volatile Map<String,String> namedValues;
 
   // The set of unnamed values contained in this log message.
   private final Set<String> unnamedValues;
 
+  // The names of the named tokens in this log message, in the order they
+  // appear.
+  private final String[] names;
+
+  // The values of the named tokens that have already been converted from
+  // strings to other types.
+  private final Object[] convertedValues;
+
+  // The values of the named tokens that have already been extracted from the
+  // message string.
+  private final String[] values;
+
   // The string representation of this log message.
   private final String messageString;
 
@@ -125,10 +155,15 @@ public class LogMessage
    */
   protected LogMessage(final LogMessage m)
   {
-    timestamp     = m.timestamp;
-    unnamedValues = m.unnamedValues;
-    namedValues   = m.namedValues;
-    messageString = m.messageString;
+    timestamp        = m.timestamp;
+    unnamedValues    = m.unnamedValues;
+    names            = m.names;
+    namedValueStarts = m.namedValueStarts;
+    namedValueEnds   = m.namedValueEnds;
+    values           = m.values;
+    convertedValues  = m.convertedValues;
+    namedValues      = m.namedValues;
+    messageString    = m.messageString;
   }
 
 
@@ -192,96 +227,193 @@ public class LogMessage
 
 
     // The remainder of the message should consist of named and unnamed values.
-    final LinkedHashMap<String,String> named =
-         new LinkedHashMap<String,String>();
+    // The unnamed values are extracted right away, but only the positions of
+    // the named values are recorded.
+    final ArrayList<String> nameList = new ArrayList<String>(20);
     final LinkedHashSet<String> unnamed = new LinkedHashSet<String>();
-    parseTokens(s, bracketPos+1, named, unnamed);
+    final int[] positions = indexTokens(s, bracketPos+1, nameList, unnamed);
 
-    namedValues   = Collections.unmodifiableMap(named);
     unnamedValues = Collections.unmodifiableSet(unnamed);
+    names = nameList.toArray(new String[nameList.size()]);
+    namedValueStarts = new int[names.length];
+    namedValueEnds = new int[names.length];
+    values = new String[names.length];
+    convertedValues = new Object[names.length];
+    for (int i=0; i < names.length; i++)
+    {
+      namedValueStarts[i] = positions[2*i];
+      namedValueEnds[i] = positions[(2*i)+1];
+
+      // Values with escaped characters are decoded right away so that any
+      // problems with them will be detected.
+      for (int j=namedValueStarts[i]; j < namedValueEnds[i]; j++)
+      {
+        if (s.charAt(j) == '#')
+        {
+          values[i] = processValue(s, removeQuotes(
+               s.substring(namedValueStarts[i], namedValueEnds[i])));
+          break;
+        }
+      }
+    }
+
+    namedValues = null;
   }
 
 
 
   /**
-   * Parses the set of named and unnamed tokens from the provided message
-   * string.
+   * Identifies the named and unnamed tokens in the provided message string.
+   * Tokens are separated by spaces that are not enclosed in quotes.
    *
-   * @param  s         The complete message string being parsed.
-   * @param  startPos  The position at which to start parsing.
-   * @param  named     The map in which to place the named tokens.
-   * @param  unnamed   The set in which to place the unnamed tokens.
+   * @param  s          The complete message string being parsed.
+   * @param  startPos   The position at which to start parsing.
+   * @param  names      The list to which the names of the named tokens should
+   *                    be added.
+   * @param  unnamed    The set in which to place the unnamed tokens.
    *
-   * @throws  LogException  If a problem occurs while processing the tokens.
+   * @return  An array with the start and end positions of the raw values for
+   *          the named tokens, in the same order as the names.  The start
+   *          position for the value at index i of the names list will be at
+   *          index 2i of the array, and the end position will be at index
+   *          2i+1.  The array may be larger than needed.
    */
-  private static void parseTokens(final String s, final int startPos,
-                                  final Map<String,String> named,
-                                  final Set<String> unnamed)
-          throws LogException
+  private static int[] indexTokens(final String s, final int startPos,
+                                   final List<String> names,
+                                   final Set<String> unnamed)
   {
+    int[] positions = new int[40];
     boolean inQuotes = false;
-    final StringBuilder buffer = new StringBuilder();
+    int tokenStart = -1;
+    int equalPos = -1;
     for (int p=startPos; p < s.length(); p++)
     {
       final char c = s.charAt(p);
       if ((c == ' ') && (! inQuotes))
       {
-        if (buffer.length() > 0)
+        if (tokenStart >= 0)
         {
-          processToken(s, buffer.toString(), named, unnamed);
-          buffer.delete(0, buffer.length());
+          positions = indexToken(s, tokenStart, equalPos, p, names,
+               positions, unnamed);
+          tokenStart = -1;
+          equalPos = -1;
         }
       }
-      else if (c == '"')
-      {
-        inQuotes = (! inQuotes);
-      }
       else
       {
-        buffer.append(c);
+        if (tokenStart < 0)
+        {
+          tokenStart = p;
+        }
+
+        if (c == '"')
+        {
+          inQuotes = (! inQuotes);
+        }
+        else if ((c == '=') && (equalPos < 0))
+        {
+          equalPos = p;
+        }
       }
     }
 
-    if (buffer.length() > 0)
+    if (tokenStart >= 0)
     {
-      processToken(s, buffer.toString(), named, unnamed);
+      positions = indexToken(s, tokenStart, equalPos, s.length(), names,
+           positions, unnamed);
     }
+
+    return positions;
   }
 
 
 
   /**
-   * Processes the provided token and adds it to the appropriate collection.
+   * Records information about the provided token in the appropriate
+   * collection.
    *
-   * @param  s         The complete message string being parsed.
-   * @param  token     The token to be processed.
-   * @param  named     The map in which to place named tokens.
-   * @param  unnamed   The set in which to place unnamed tokens.
+   * @param  s          The complete message string being parsed.
+   * @param  start      The position of the first character of the token.
+   * @param  equalPos   The position of the first equal sign in the token, or
+   *                    -1 if it does not contain an equal sign.
+   * @param  end        The position immediately after the last character of
+   *                    the token.
+   * @param  names      The list to which the name should be added if the token
+   *                    is a named token.
+   * @param  positions  The array in which the start and end positions of the
+   *                    raw value should be stored if the token is a named
+   *                    token, at the indexes that correspond to the position
+   *                    of the name in the names list.
+   * @param  unnamed    The set in which to place the token if it is an unnamed
+   *                    token.
    *
-   * @throws  LogException  If a problem occurs while processing the token.
+   * @return  The array in which the positions were stored.  This will be the
+   *          provided array unless it had to be grown to hold the positions.
    */
-  private static void processToken(final String s, final String token,
-                                   final Map<String,String> named,
-                                   final Set<String> unnamed)
-          throws LogException
+  private static int[] indexToken(final String s, final int start,
+                                  final int equalPos, final int end,
+                                  final List<String> names,
+                                  final int[] positions,
+                                  final Set<String> unnamed)
   {
     // If the token contains an equal sign, then it's a named token.  Otherwise,
-    // it's unnamed.
-    final int equalPos = token.indexOf('=');
+    // it's unnamed.  Quotes are not included in either names or values.
     if (equalPos < 0)
     {
-      // Unnamed tokens should never need any additional processing.
-      unnamed.add(token);
+      final String token = removeQuotes(s.substring(start, end));
+      if (token.length() > 0)
+      {
+        unnamed.add(token);
+      }
+
+      return positions;
+    }
+
+    final int index = 2 * names.size();
+    final int[] a;
+    if (index + 1 < positions.length)
+    {
+      a = positions;
     }
     else
     {
-      // The name of named tokens should never need any additional processing.
-      // The value may need to be processed to remove surrounding quotes and/or
-      // to un-escape any special characters.
-      final String name  = token.substring(0, equalPos);
-      final String value = processValue(s, token.substring(equalPos+1));
-      named.put(name, value);
+      a = new int[positions.length * 2];
+      System.arraycopy(positions, 0, a, 0, positions.length);
+    }
+
+    names.add(removeQuotes(s.substring(start, equalPos)));
+    a[index] = equalPos+1;
+    a[index+1] = end;
+    return a;
+  }
+
+
+
+  /**
+   * Removes any quotation marks from the provided string.
+   *
+   * @param  s  The string from which to remove the quotation marks.
+   *
+   * @return  The provided string without any quotation marks.
+   */
+  private static String removeQuotes(final String s)
+  {
+    if (s.indexOf('"') < 0)
+    {
+      return s;
     }
+
+    final StringBuilder buffer = new StringBuilder(s.length());
+    for (int i=0; i < s.length(); i++)
+    {
+      final char c = s.charAt(i);
+      if (c != '"')
+      {
+        buffer.append(c);
+      }
+    }
+
+    return buffer.toString();
   }
 
 
@@ -435,7 +567,21 @@ public class LogMessage
    */
   public final Map<String,String> getNamedValues()
   {
-    return namedValues;
+    Map<String,String> m = namedValues;
+    if (m == null)
+    {
+      final LinkedHashMap<String,String> named =
+           new LinkedHashMap<String,String>(names.length);
+      for (int i=0; i < names.length; i++)
+      {
+        named.put(names[i], getValue(i));
+      }
+
+      m = Collections.unmodifiableMap(named);
+      namedValues = m;
+    }
+
+    return m;
   }
 
 
@@ -450,7 +596,64 @@ public class LogMessage
    */
   public final String getNamedValue(final String name)
   {
-    return namedValues.get(name);
+    final int i = indexOfName(name);
+    if (i < 0)
+    {
+      return null;
+    }
+    else
+    {
+      return getValue(i);
+    }
+  }
+
+
+
+  /**
+   * Retrieves the position of the named token with the specified name.
+   *
+   * @param  name  The name of the token for which to retrieve the position.
+   *
+   * @return  The position of the named token with the specified name, or -1 if
+   *          there is no token with the specified name.
+   */
+  private int indexOfName(final String name)
+  {
+    // If a name appears more than once, then the last value takes precedence.
+    for (int i=(names.length - 1); i >= 0; i--)
+    {
+      if (names[i].equals(name))
+      {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+
+
+  /**
+   * Retrieves the value of the named token at the specified position,
+   * extracting it from the message string if that has not already been done.
+   *
+   * @param  i  The position of the named token.
+   *
+   * @return  The value of the named token at the specified position.
+   */
+  private String getValue(final int i)
+  {
+    String v = values[i];
+    if (v == null)
+    {
+      // Values with escaped characters will have been processed when the
+      // message was parsed, so only quotes need to be removed.
+      v = removeQuotes(messageString.substring(namedValueStarts[i],
+           namedValueEnds[i]));
+      values[i] = v;
+    }
+
+    return v;
   }
 
 
@@ -467,29 +670,39 @@ public class LogMessage
    */
   public final Boolean getNamedValueAsBoolean(final String name)
   {
-    final String s = namedValues.get(name);
-    if (s == null)
+    final int i = indexOfName(name);
+    if (i < 0)
     {
       return null;
     }
 
-    final String lowerValue = toLowerCase(s);
+    final Object o = convertedValues[i];
+    if (o instanceof Boolean)
+    {
+      return (Boolean) o;
+    }
+
+    final Boolean b;
+    final String lowerValue = toLowerCase(getValue(i));
     if (lowerValue.equals("true") || lowerValue.equals("t") ||
         lowerValue.equals("yes") || lowerValue.equals("y") ||
         lowerValue.equals("on") || lowerValue.equals("1"))
     {
-      return Boolean.TRUE;
+      b = Boolean.TRUE;
     }
     else if (lowerValue.equals("false") || lowerValue.equals("f") ||
              lowerValue.equals("no") || lowerValue.equals("n") ||
              lowerValue.equals("off") || lowerValue.equals("0"))
     {
-      return Boolean.FALSE;
+      b = Boolean.FALSE;
     }
     else
     {
       return null;
     }
+
+    convertedValues[i] = b;
+    return b;
   }
 
 
@@ -506,15 +719,23 @@ public class LogMessage
    */
   public final Double getNamedValueAsDouble(final String name)
   {
-    final String s = namedValues.get(name);
-    if (s == null)
+    final int i = indexOfName(name);
+    if (i < 0)
     {
       return null;
     }
 
+    final Object o = convertedValues[i];
+    if (o instanceof Double)
+    {
+      return (Double) o;
+    }
+
     try
     {
-      return Double.valueOf(s);
+      final Double value = Double.valueOf(getValue(i));
+      convertedValues[i] = value;
+      return value;
     }
     catch (final Exception e)
     {
@@ -538,15 +759,23 @@ public class LogMessage
    */
   public final Integer getNamedValueAsInteger(final String name)
   {
-    final String s = namedValues.get(name);
-    if (s == null)
+    final int i = indexOfName(name);
+    if (i < 0)
     {
       return null;
     }
 
+    final Object o = convertedValues[i];
+    if (o instanceof Integer)
+    {
+      return (Integer) o;
+    }
+
     try
     {
-      return Integer.valueOf(s);
+      final Integer value = Integer.valueOf(getValue(i));
+      convertedValues[i] = value;
+      return value;
     }
     catch (final Exception e)
     {
@@ -568,15 +797,23 @@ public class LogMessage
    */
   public final Long getNamedValueAsLong(final String name)
   {
-    final String s = namedValues.get(name);
-    if (s == null)
+    final int i = indexOfName(name);
+    if (i < 0)
     {
       return null;
     }
 
+    final Object o = convertedValues[i];
+    if (o instanceof Long)
+    {
+      return (Long) o;
+    }
+
     try
     {
-      return Long.valueOf(s);
+      final Long value = Long.valueOf(getValue(i));
+      convertedValues[i] = value;
+      return value;
     }
     catch (final Exception e)
     {
@@ -587,6 +824,99 @@ public class LogMessage
 
 
 
+  /**
+   * Retrieves the value of the token with the specified name as a list of
+   * comma-delimited strings.
+   *
+   * @param  name  The name of the token to retrieve.
+   *
+   * @return  An unmodifiable list of the comma-delimited strings in the value
+   *          of the token with the specified name, or an empty list if there is
+   *          no value with the specified name or the value is empty.
+   */
+  @SuppressWarnings("unchecked")
+  final List<String> getNamedValueAsList(final String name)
+  {
+    final int i = indexOfName(name);
+    if (i < 0)
+    {
+      return Collections.emptyList();
+    }
+
+    final Object o = convertedValues[i];
+    if (o instanceof List)
+    {
+      return (List<String>) o;
+    }
+
+    final String s = getValue(i);
+    final ArrayList<String> l = new ArrayList<String>(10);
+    int startPos = 0;
+    while (startPos < s.length())
+    {
+      int commaPos = s.indexOf(',', startPos);
+      if (commaPos < 0)
+      {
+        commaPos = s.length();
+      }
+
+      if (commaPos > startPos)
+      {
+        l.add(s.substring(startPos, commaPos));
+      }
+
+      startPos = commaPos + 1;
+    }
+
+    final List<String> list = Collections.unmodifiableList(l);
+    convertedValues[i] = list;
+    return list;
+  }
+
+
+
+  /**
+   * Retrieves the value of the token with the specified name as a list of
+   * LDAP URLs.  The URLs are separated by commas, but since an LDAP URL may
+   * itself contain commas, a comma will only be treated as a separator if it
+   * is immediately followed by "ldap".
+   *
+   * @param  name  The name of the token to retrieve.
+   *
+   * @return  An unmodifiable list of the URLs in the value of the token with
+   *          the specified name, or an empty list if there is no value with the
+   *          specified name or the value is empty.
+   */
+  final List<String> getNamedValueAsURLList(final String name)
+  {
+    final String s = getNamedValue(name);
+    if ((s == null) || (s.length() == 0))
+    {
+      return Collections.emptyList();
+    }
+
+    final ArrayList<String> urls = new ArrayList<String>(5);
+    int startPos = 0;
+    while (true)
+    {
+      final int commaPos = s.indexOf(",ldap", startPos);
+      if (commaPos < 0)
+      {
+        urls.add(s.substring(startPos));
+        break;
+      }
+      else
+      {
+        urls.add(s.substring(startPos, commaPos));
+        startPos = commaPos+1;
+      }
+    }
+
+    return Collections.unmodifiableList(urls);
+  }
+
+
+
   /**
    * Retrieves the set of unnamed tokens for this log message.
    *
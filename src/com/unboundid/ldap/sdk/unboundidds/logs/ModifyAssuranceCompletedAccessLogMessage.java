@@ -55,17 +55,6 @@ public final class ModifyAssuranceCompletedAccessLogMessage
 
 
 
-  // Indicates whether the local assurance requirement was satisfied.
-  private final Boolean localAssuranceSatisfied;
-
-  // Indicates whether the remote assurance requirement was satisfied.
-  private final Boolean remoteAssuranceSatisfied;
-
-  // A string with information about the per-server assurance results.
-  private final String serverAssuranceResults;
-
-
-
   /**
    * Creates a new modify assurance complete access log message from the
    * provided message string.
@@ -94,11 +83,6 @@ public final class ModifyAssuranceCompletedAccessLogMessage
   public ModifyAssuranceCompletedAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    localAssuranceSatisfied = getNamedValueAsBoolean("localAssuranceSatisfied");
-    remoteAssuranceSatisfied =
-         getNamedValueAsBoolean("remoteAssuranceSatisfied");
-    serverAssuranceResults = getNamedValue("serverAssuranceResults");
   }
 
 
@@ -113,7 +97,7 @@ public final class ModifyAssuranceCompletedAccessLogMessage
    */
   public Boolean getLocalAssuranceSatisfied()
   {
-    return localAssuranceSatisfied;
+    return getNamedValueAsBoolean("localAssuranceSatisfied");
   }
 
 
@@ -128,7 +112,7 @@ public final class ModifyAssuranceCompletedAccessLogMessage
    */
   public Boolean getRemoteAssuranceSatisfied()
   {
-    return remoteAssuranceSatisfied;
+    return getNamedValueAsBoolean("remoteAssuranceSatisfied");
   }
 
 
@@ -143,7 +127,7 @@ public final class ModifyAssuranceCompletedAccessLogMessage
    */
   public String getServerAssuranceResults()
   {
-    return serverAssuranceResults;
+    return getNamedValue("serverAssuranceResults");
   }
 
 
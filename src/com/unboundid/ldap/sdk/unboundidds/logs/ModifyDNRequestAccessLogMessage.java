@@ -57,20 +57,6 @@ public class ModifyDNRequestAccessLogMessage
 
 
 
-  // Indicates whether to delete the old RDN value(s).
-  private final Boolean deleteOldRDN;
-
-  // The DN of the entry to rename.
-  private final String dn;
-
-  // The new RDN to use for the entry.
-  private final String newRDN;
-
-  // The new superior DN for the entry.
-  private final String newSuperiorDN;
-
-
-
   /**
    * Creates a new modify DN request access log message from the provided
    * message string.
@@ -99,11 +85,6 @@ public class ModifyDNRequestAccessLogMessage
   public ModifyDNRequestAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    dn            = getNamedValue("dn");
-    newRDN        = getNamedValue("newRDN");
-    deleteOldRDN  = getNamedValueAsBoolean("deleteOldRDN");
-    newSuperiorDN = getNamedValue("newSuperior");
   }
 
 
@@ -116,7 +97,7 @@ public class ModifyDNRequestAccessLogMessage
    */
   public final String getDN()
   {
-    return dn;
+    return getNamedValue("dn");
   }
 
 
@@ -129,7 +110,7 @@ public class ModifyDNRequestAccessLogMessage
    */
   public final String getNewRDN()
   {
-    return newRDN;
+    return getNamedValue("newRDN");
   }
 
 
@@ -144,7 +125,7 @@ public class ModifyDNRequestAccessLogMessage
    */
   public final Boolean deleteOldRDN()
   {
-    return deleteOldRDN;
+    return getNamedValueAsBoolean("deleteOldRDN");
   }
 
 
@@ -157,7 +138,7 @@ public class ModifyDNRequestAccessLogMessage
    */
   public final String getNewSuperiorDN()
   {
-    return newSuperiorDN;
+    return getNamedValue("newSuperior");
   }
 
 
@@ -22,10 +22,7 @@ package com.unboundid.ldap.sdk.unboundidds.logs;
 
 
 
-import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.StringTokenizer;
 
 import com.unboundid.ldap.sdk.ResultCode;
 import com.unboundid.ldap.sdk.unboundidds.controls.AssuredReplicationLocalLevel;
@@ -73,84 +70,6 @@ public class ModifyDNResultAccessLogMessage
   // The assured replication level to use for remote servers.
   private final AssuredReplicationRemoteLevel assuredReplicationRemoteLevel;
 
-  // Indicates whether the response was known to be delayed by replication
-  // assurance processing.
-  private final Boolean responseDelayedByAssurance;
-
-  // Indicates whether the any uncached data was accessed in the course of
-  // processing this operation.
-  private final Boolean uncachedDataAccessed;
-
-  // The processing time for the operation.
-  private final Double processingTime;
-
-  // The queue time for the operation.
-  private final Double queueTime;
-
-  // The list of indexes for which keys near the index entry limit were accessed
-  // while processing the operation.
-  private final List<String> indexesWithKeysAccessedNearEntryLimit;
-
-  // The list of indexes for which keys over the index entry limit were accessed
-  // while processing the operation.
-  private final List<String> indexesWithKeysAccessedOverEntryLimit;
-
-  // The list of privileges required for processing the operation that the
-  // requester did not have.
-  private final List<String> missingPrivileges;
-
-  // The list of privileges used during the course of processing the operation
-  // before an alternate authorization identity was assigned.
-  private final List<String> preAuthZUsedPrivileges;
-
-  // The list of referral URLs for the operation.
-  private final List<String> referralURLs;
-
-  // The list of response control OIDs for the operation.
-  private final List<String> responseControlOIDs;
-
-  // The list of servers accessed while processing the operation.
-  private final List<String> serversAccessed;
-
-  // The list of privileges used during the course of processing the operation.
-  private final List<String> usedPrivileges;
-
-  // The assured replication timeout, in milliseconds.
-  private final Long assuredReplicationTimeoutMillis;
-
-  // The number of intermediate response messages returned to the client.
-  private final Long intermediateResponsesReturned;
-
-  // The result code for the operation.
-  private final ResultCode resultCode;
-
-  // Additional information about the operation result.
-  private final String additionalInformation;
-
-  // The alternate authorization DN for the operation.
-  private final String authzDN;
-
-  // The diagnostic message for the operation.
-  private final String diagnosticMessage;
-
-  // The intermediate client result for the operation.
-  private final String intermediateClientResult;
-
-  // The matched DN for the operation.
-  private final String matchedDN;
-
-  // The replication change ID for the operation.
-  private final String replicationChangeID;
-
-  // The port of the backend server to which the request has been forwarded.
-  private final Integer targetPort;
-
-  // The address of the backend server to which the request has been forwarded.
-  private final String targetHost;
-
-  // The protocol used to forward the request to the backend server.
-  private final String targetProtocol;
-
 
 
   /**
@@ -182,93 +101,6 @@ public class ModifyDNResultAccessLogMessage
   {
     super(m);
 
-    diagnosticMessage        = getNamedValue("message");
-    additionalInformation    = getNamedValue("additionalInfo");
-    matchedDN                = getNamedValue("matchedDN");
-    processingTime           = getNamedValueAsDouble("etime");
-    queueTime                = getNamedValueAsDouble("qtime");
-    intermediateClientResult = getNamedValue("from");
-    authzDN                  = getNamedValue("authzDN");
-    replicationChangeID      = getNamedValue("replicationChangeID");
-    targetHost               = getNamedValue("targetHost");
-    targetPort               = getNamedValueAsInteger("targetPort");
-    targetProtocol           = getNamedValue("targetProtocol");
-
-    intermediateResponsesReturned =
-         getNamedValueAsLong("intermediateResponsesReturned");
-
-    final Integer rcInteger = getNamedValueAsInteger("resultCode");
-    if (rcInteger == null)
-    {
-      resultCode = null;
-    }
-    else
-    {
-      resultCode = ResultCode.valueOf(rcInteger);
-    }
-
-    final String refStr = getNamedValue("referralURLs");
-    if ((refStr == null) || (refStr.length() == 0))
-    {
-      referralURLs = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> refs = new LinkedList<String>();
-      int startPos = 0;
-      while (true)
-      {
-        final int commaPos = refStr.indexOf(",ldap", startPos);
-        if (commaPos < 0)
-        {
-          refs.add(refStr.substring(startPos));
-          break;
-        }
-        else
-        {
-          refs.add(refStr.substring(startPos, commaPos));
-          startPos = commaPos+1;
-        }
-      }
-      referralURLs = Collections.unmodifiableList(refs);
-    }
-
-    final String controlStr = getNamedValue("responseControls");
-    if (controlStr == null)
-    {
-      responseControlOIDs = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> controlList = new LinkedList<String>();
-      final StringTokenizer t = new StringTokenizer(controlStr, ",");
-      while (t.hasMoreTokens())
-      {
-        controlList.add(t.nextToken());
-      }
-      responseControlOIDs = Collections.unmodifiableList(controlList);
-    }
-
-    final String serversAccessedStr = getNamedValue("serversAccessed");
-    if ((serversAccessedStr == null) || (serversAccessedStr.length() == 0))
-    {
-      serversAccessed = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> servers = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(serversAccessedStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        servers.add(tokenizer.nextToken());
-      }
-      serversAccessed = Collections.unmodifiableList(servers);
-    }
-
-    uncachedDataAccessed = getNamedValueAsBoolean("uncachedDataAccessed");
-
-
     final String localLevelStr = getNamedValue("localAssuranceLevel");
     if (localLevelStr == null)
     {
@@ -290,102 +122,6 @@ public class ModifyDNResultAccessLogMessage
       assuredReplicationRemoteLevel =
            AssuredReplicationRemoteLevel.valueOf(remoteLevelStr);
     }
-
-    assuredReplicationTimeoutMillis =
-         getNamedValueAsLong("assuranceTimeoutMillis");
-    responseDelayedByAssurance =
-         getNamedValueAsBoolean("responseDelayedByAssurance");
-
-    final String usedPrivilegesStr = getNamedValue("usedPrivileges");
-    if ((usedPrivilegesStr == null) || (usedPrivilegesStr.length() == 0))
-    {
-      usedPrivileges = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> privileges = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(usedPrivilegesStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        privileges.add(tokenizer.nextToken());
-      }
-      usedPrivileges = Collections.unmodifiableList(privileges);
-    }
-
-    final String preAuthZUsedPrivilegesStr =
-         getNamedValue("preAuthZUsedPrivileges");
-    if ((preAuthZUsedPrivilegesStr == null) ||
-        (preAuthZUsedPrivilegesStr.length() == 0))
-    {
-      preAuthZUsedPrivileges = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> privileges = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(preAuthZUsedPrivilegesStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        privileges.add(tokenizer.nextToken());
-      }
-      preAuthZUsedPrivileges = Collections.unmodifiableList(privileges);
-    }
-
-    final String missingPrivilegesStr = getNamedValue("missingPrivileges");
-    if ((missingPrivilegesStr == null) || (missingPrivilegesStr.length() == 0))
-    {
-      missingPrivileges = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> privileges = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(missingPrivilegesStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        privileges.add(tokenizer.nextToken());
-      }
-      missingPrivileges = Collections.unmodifiableList(privileges);
-    }
-
-    final String indexesNearLimitStr =
-         getNamedValue("indexesWithKeysAccessedNearEntryLimit");
-    if ((indexesNearLimitStr == null) || (indexesNearLimitStr.length() == 0))
-    {
-      indexesWithKeysAccessedNearEntryLimit = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> indexes = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(indexesNearLimitStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        indexes.add(tokenizer.nextToken());
-      }
-      indexesWithKeysAccessedNearEntryLimit =
-           Collections.unmodifiableList(indexes);
-    }
-
-    final String indexesOverLimitStr =
-         getNamedValue("indexesWithKeysAccessedExceedingEntryLimit");
-    if ((indexesOverLimitStr == null) || (indexesOverLimitStr.length() == 0))
-    {
-      indexesWithKeysAccessedOverEntryLimit = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> indexes = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(indexesOverLimitStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        indexes.add(tokenizer.nextToken());
-      }
-      indexesWithKeysAccessedOverEntryLimit =
-           Collections.unmodifiableList(indexes);
-    }
   }
 
 
@@ -398,7 +134,15 @@ public class ModifyDNResultAccessLogMessage
    */
   public ResultCode getResultCode()
   {
-    return resultCode;
+    final Integer rcInteger = getNamedValueAsInteger("resultCode");
+    if (rcInteger == null)
+    {
+      return null;
+    }
+    else
+    {
+      return ResultCode.valueOf(rcInteger);
+    }
   }
 
 
@@ -411,7 +155,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public String getDiagnosticMessage()
   {
-    return diagnosticMessage;
+    return getNamedValue("message");
   }
 
 
@@ -426,7 +170,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public String getAdditionalInformation()
   {
-    return additionalInformation;
+    return getNamedValue("additionalInfo");
   }
 
 
@@ -439,7 +183,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public String getMatchedDN()
   {
-    return matchedDN;
+    return getNamedValue("matchedDN");
   }
 
 
@@ -452,7 +196,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public List<String> getReferralURLs()
   {
-    return referralURLs;
+    return getNamedValueAsURLList("referralURLs");
   }
 
 
@@ -467,7 +211,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public Long getIntermediateResponsesReturned()
   {
-    return intermediateResponsesReturned;
+    return getNamedValueAsLong("intermediateResponsesReturned");
   }
 
 
@@ -482,7 +226,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public Double getProcessingTimeMillis()
   {
-    return processingTime;
+    return getNamedValueAsDouble("etime");
   }
 
 
@@ -497,7 +241,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public Double getQueueTimeMillis()
   {
-    return queueTime;
+    return getNamedValueAsDouble("qtime");
   }
 
 
@@ -510,7 +254,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public List<String> getResponseControlOIDs()
   {
-    return responseControlOIDs;
+    return getNamedValueAsList("responseControls");
   }
 
 
@@ -527,7 +271,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public List<String> getServersAccessed()
   {
-    return serversAccessed;
+    return getNamedValueAsList("serversAccessed");
   }
 
 
@@ -544,7 +288,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public Boolean getUncachedDataAccessed()
   {
-    return uncachedDataAccessed;
+    return getNamedValueAsBoolean("uncachedDataAccessed");
   }
 
 
@@ -558,7 +302,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public String getIntermediateClientResult()
   {
-    return intermediateClientResult;
+    return getNamedValue("from");
   }
 
 
@@ -571,7 +315,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public String getAlternateAuthorizationDN()
   {
-    return authzDN;
+    return getNamedValue("authzDN");
   }
 
 
@@ -584,7 +328,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public String getReplicationChangeID()
   {
-    return replicationChangeID;
+    return getNamedValue("replicationChangeID");
   }
 
 
@@ -599,7 +343,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public String getTargetHost()
   {
-    return targetHost;
+    return getNamedValue("targetHost");
   }
 
 
@@ -614,7 +358,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public Integer getTargetPort()
   {
-    return targetPort;
+    return getNamedValueAsInteger("targetPort");
   }
 
 
@@ -627,7 +371,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public String getTargetProtocol()
   {
-    return targetProtocol;
+    return getNamedValue("targetProtocol");
   }
 
 
@@ -677,7 +421,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public Long getAssuredReplicationTimeoutMillis()
   {
-    return assuredReplicationTimeoutMillis;
+    return getNamedValueAsLong("assuranceTimeoutMillis");
   }
 
 
@@ -695,7 +439,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public Boolean getResponseDelayedByAssurance()
   {
-    return responseDelayedByAssurance;
+    return getNamedValueAsBoolean("responseDelayedByAssurance");
   }
 
 
@@ -710,7 +454,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public List<String> getUsedPrivileges()
   {
-    return usedPrivileges;
+    return getNamedValueAsList("usedPrivileges");
   }
 
 
@@ -726,7 +470,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public List<String> getPreAuthorizationUsedPrivileges()
   {
-    return preAuthZUsedPrivileges;
+    return getNamedValueAsList("preAuthZUsedPrivileges");
   }
 
 
@@ -742,7 +486,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public List<String> getMissingPrivileges()
   {
-    return missingPrivileges;
+    return getNamedValueAsList("missingPrivileges");
   }
 
 
@@ -759,7 +503,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public List<String> getIndexesWithKeysAccessedNearEntryLimit()
   {
-    return indexesWithKeysAccessedNearEntryLimit;
+    return getNamedValueAsList("indexesWithKeysAccessedNearEntryLimit");
   }
 
 
@@ -775,7 +519,7 @@ public class ModifyDNResultAccessLogMessage
    */
   public List<String> getIndexesWithKeysAccessedOverEntryLimit()
   {
-    return indexesWithKeysAccessedOverEntryLimit;
+    return getNamedValueAsList("indexesWithKeysAccessedExceedingEntryLimit");
   }
 
 
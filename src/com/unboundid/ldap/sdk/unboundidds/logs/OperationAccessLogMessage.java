@@ -55,24 +55,6 @@ public abstract class OperationAccessLogMessage
 
 
 
-  // The message ID for this access log message.
-  private final Integer messageID;
-
-  // The operation ID for this access log message.
-  private final Long operationID;
-
-  // The connection ID for the operation that triggered the associated
-  // operation.
-  private final Long triggeredByConnectionID;
-
-  // The operation ID for the operation that triggered the associated operation.
-  private final Long triggeredByOperationID;
-
-  // The message origin for this access log message.
-  private final String origin;
-
-
-
   /**
    * Creates a new operation access log message from the provided log message.
    *
@@ -81,12 +63,6 @@ public abstract class OperationAccessLogMessage
   protected OperationAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    messageID               = getNamedValueAsInteger("msgID");
-    operationID             = getNamedValueAsLong("op");
-    triggeredByConnectionID = getNamedValueAsLong("triggeredByConn");
-    triggeredByOperationID  = getNamedValueAsLong("triggeredByOp");
-    origin                  = getNamedValue("origin");
   }
 
 
@@ -99,7 +75,7 @@ public abstract class OperationAccessLogMessage
    */
   public final Long getOperationID()
   {
-    return operationID;
+    return getNamedValueAsLong("op");
   }
 
 
@@ -115,7 +91,7 @@ public abstract class OperationAccessLogMessage
    */
   public final Long getTriggeredByConnectionID()
   {
-    return triggeredByConnectionID;
+    return getNamedValueAsLong("triggeredByConn");
   }
 
 
@@ -131,7 +107,7 @@ public abstract class OperationAccessLogMessage
    */
   public final Long getTriggeredByOperationID()
   {
-    return triggeredByOperationID;
+    return getNamedValueAsLong("triggeredByOp");
   }
 
 
@@ -144,7 +120,7 @@ public abstract class OperationAccessLogMessage
    */
   public final Integer getMessageID()
   {
-    return messageID;
+    return getNamedValueAsInteger("msgID");
   }
 
 
@@ -159,7 +135,7 @@ public abstract class OperationAccessLogMessage
    */
   public final String getOrigin()
   {
-    return origin;
+    return getNamedValue("origin");
   }
 
 
@@ -22,10 +22,7 @@ package com.unboundid.ldap.sdk.unboundidds.logs;
 
 
 
-import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.StringTokenizer;
 
 import com.unboundid.util.NotExtensible;
 import com.unboundid.util.ThreadSafety;
@@ -60,28 +57,6 @@ public abstract class OperationRequestAccessLogMessage
 
 
 
-  // Indicates whether the request is being processed using a worker thread from
-  // the dedicated administrative session pool.
-  private final Boolean usingAdminSessionWorkerThread;
-
-  // The OIDs of the request controls contained in the request.
-  private final List<String> requestControlOIDs;
-
-  // Information from the intermediate client request control contained in the
-  // request.
-  private final String intermediateClientRequest;
-
-  // Information from the operation purpose control contained in the request.
-  private final String operationPurpose;
-
-  // The DN of the user that requested the message.
-  private final String requesterDN;
-
-  // The IP address of the client that requested the message.
-  private final String requesterIP;
-
-
-
   /**
    * Creates a new operation request access log message from the provided log
    * message.
@@ -92,30 +67,6 @@ public abstract class OperationRequestAccessLogMessage
   protected OperationRequestAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    intermediateClientRequest = getNamedValue("via");
-    operationPurpose          = getNamedValue("opPurpose");
-    requesterDN               = getNamedValue("requesterDN");
-    requesterIP               = getNamedValue("requesterIP");
-
-    usingAdminSessionWorkerThread =
-         getNamedValueAsBoolean("usingAdminSessionWorkerThread");
-
-    final String controlStr = getNamedValue("requestControls");
-    if (controlStr == null)
-    {
-      requestControlOIDs = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> controlList = new LinkedList<String>();
-      final StringTokenizer t = new StringTokenizer(controlStr, ",");
-      while (t.hasMoreTokens())
-      {
-        controlList.add(t.nextToken());
-      }
-      requestControlOIDs = Collections.unmodifiableList(controlList);
-    }
   }
 
 
@@ -128,7 +79,7 @@ public abstract class OperationRequestAccessLogMessage
    */
   public final String getRequesterDN()
   {
-    return requesterDN;
+    return getNamedValue("requesterDN");
   }
 
 
@@ -141,7 +92,7 @@ public abstract class OperationRequestAccessLogMessage
    */
   public final String getRequesterIPAddress()
   {
-    return requesterIP;
+    return getNamedValue("requesterIP");
   }
 
 
@@ -156,7 +107,7 @@ public abstract class OperationRequestAccessLogMessage
    */
   public final String getIntermediateClientRequest()
   {
-    return intermediateClientRequest;
+    return getNamedValue("via");
   }
 
 
@@ -171,7 +122,7 @@ public abstract class OperationRequestAccessLogMessage
    */
   public final String getOperationPurpose()
   {
-    return operationPurpose;
+    return getNamedValue("opPurpose");
   }
 
 
@@ -184,7 +135,7 @@ public abstract class OperationRequestAccessLogMessage
    */
   public final List<String> getRequestControlOIDs()
   {
-    return requestControlOIDs;
+    return getNamedValueAsList("requestControls");
   }
 
 
@@ -200,7 +151,7 @@ public abstract class OperationRequestAccessLogMessage
    */
   public final Boolean usingAdminSessionWorkerThread()
   {
-    return usingAdminSessionWorkerThread;
+    return getNamedValueAsBoolean("usingAdminSessionWorkerThread");
   }
 
 
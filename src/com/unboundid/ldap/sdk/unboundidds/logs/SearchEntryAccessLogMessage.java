@@ -22,11 +22,7 @@ package com.unboundid.ldap.sdk.unboundidds.logs;
 
 
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.StringTokenizer;
 
 import com.unboundid.util.NotMutable;
 import com.unboundid.util.ThreadSafety;
@@ -61,17 +57,6 @@ public final class SearchEntryAccessLogMessage
 
 
 
-  // The names of the attributes included in the entry that was returned.
-  private final List<String> attributesReturned;
-
-  // The list of response control OIDs for the operation.
-  private final List<String> responseControlOIDs;
-
-  // The DN of the entry returned.
-  private final String dn;
-
-
-
   /**
    * Creates a new search result entry access log message from the provided
    * message string.
@@ -100,41 +85,6 @@ public final class SearchEntryAccessLogMessage
   public SearchEntryAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    dn = getNamedValue("dn");
-
-    final String controlStr = getNamedValue("responseControls");
-    if (controlStr == null)
-    {
-      responseControlOIDs = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> controlList = new LinkedList<String>();
-      final StringTokenizer t = new StringTokenizer(controlStr, ",");
-      while (t.hasMoreTokens())
-      {
-        controlList.add(t.nextToken());
-      }
-      responseControlOIDs = Collections.unmodifiableList(controlList);
-    }
-
-    final String attrs = getNamedValue("attrsReturned");
-    if (attrs == null)
-    {
-      attributesReturned = null;
-    }
-    else
-    {
-      final ArrayList<String> l = new ArrayList<String>(10);
-      final StringTokenizer tokenizer = new StringTokenizer(attrs, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        l.add(tokenizer.nextToken());
-      }
-
-      attributesReturned = Collections.unmodifiableList(l);
-    }
   }
 
 
@@ -147,7 +97,7 @@ public final class SearchEntryAccessLogMessage
    */
   public String getDN()
   {
-    return dn;
+    return getNamedValue("dn");
   }
 
 
@@ -162,7 +112,14 @@ public final class SearchEntryAccessLogMessage
    */
   public List<String> getAttributesReturned()
   {
-    return attributesReturned;
+    if (getNamedValue("attrsReturned") == null)
+    {
+      return null;
+    }
+    else
+    {
+      return getNamedValueAsList("attrsReturned");
+    }
   }
 
 
@@ -175,7 +132,7 @@ public final class SearchEntryAccessLogMessage
    */
   public List<String> getResponseControlOIDs()
   {
-    return responseControlOIDs;
+    return getNamedValueAsList("responseControls");
   }
 
 
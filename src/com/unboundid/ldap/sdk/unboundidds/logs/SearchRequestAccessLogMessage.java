@@ -23,9 +23,7 @@ package com.unboundid.ldap.sdk.unboundidds.logs;
 
 
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.StringTokenizer;
 
 import com.unboundid.ldap.sdk.DereferencePolicy;
 import com.unboundid.ldap.sdk.Filter;
@@ -67,32 +65,6 @@ public class SearchRequestAccessLogMessage
 
 
 
-  // The typesOnly value for the search request.
-  private final Boolean typesOnly;
-
-  // The alias dereferencing policy for the search request.
-  private final DereferencePolicy derefPolicy;
-
-  // The size limit for the search request.
-  private final Integer sizeLimit;
-
-  // The time limit for the search request.
-  private final Integer timeLimit;
-
-  // The list of requested attributes for the search request.
-  private final List<String> requestedAttributes;
-
-  // The scope for the search request.
-  private final SearchScope scope;
-
-  // The base DN for the search request.
-  private final String baseDN;
-
-  // The string representation of the filter for the search request.
-  private final String filter;
-
-
-
   /**
    * Creates a new search request access log message from the provided message
    * string.
@@ -120,58 +92,6 @@ public class SearchRequestAccessLogMessage
   public SearchRequestAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    baseDN    = getNamedValue("base");
-    filter    = getNamedValue("filter");
-    sizeLimit = getNamedValueAsInteger("sizeLimit");
-    timeLimit = getNamedValueAsInteger("timeLimit");
-    typesOnly = getNamedValueAsBoolean("typesOnly");
-
-    SearchScope ss = null;
-    try
-    {
-      ss = SearchScope.definedValueOf(getNamedValueAsInteger("scope"));
-    }
-    catch (final Exception e)
-    {
-      debugException(e);
-    }
-    scope = ss;
-
-    DereferencePolicy deref = null;
-    final String derefStr = getNamedValue("deref");
-    if (derefStr != null)
-    {
-      for (final DereferencePolicy p : DereferencePolicy.values())
-      {
-        if (p.getName().equalsIgnoreCase(derefStr))
-        {
-          deref = p;
-          break;
-        }
-      }
-    }
-    derefPolicy = deref;
-
-    final String attrStr = getNamedValue("attrs");
-    if (attrStr == null)
-    {
-      requestedAttributes = null;
-    }
-    else if (attrStr.equals("ALL"))
-    {
-      requestedAttributes = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> attrs = new LinkedList<String>();
-      final StringTokenizer st = new StringTokenizer(attrStr, ",", false);
-      while (st.hasMoreTokens())
-      {
-        attrs.add(st.nextToken());
-      }
-      requestedAttributes = Collections.unmodifiableList(attrs);
-    }
   }
 
 
@@ -184,7 +104,7 @@ public class SearchRequestAccessLogMessage
    */
   public final String getBaseDN()
   {
-    return baseDN;
+    return getNamedValue("base");
   }
 
 
@@ -197,7 +117,15 @@ public class SearchRequestAccessLogMessage
    */
   public final SearchScope getScope()
   {
-    return scope;
+    final Integer scopeValue = getNamedValueAsInteger("scope");
+    if (scopeValue == null)
+    {
+      return null;
+    }
+    else
+    {
+      return SearchScope.definedValueOf(scopeValue);
+    }
   }
 
 
@@ -210,7 +138,7 @@ public class SearchRequestAccessLogMessage
    */
   public final String getFilter()
   {
-    return filter;
+    return getNamedValue("filter");
   }
 
 
@@ -224,6 +152,7 @@ public class SearchRequestAccessLogMessage
    */
   public final Filter getParsedFilter()
   {
+    final String filter = getNamedValue("filter");
     try
     {
       if (filter == null)
@@ -253,7 +182,19 @@ public class SearchRequestAccessLogMessage
    */
   public final DereferencePolicy getDereferencePolicy()
   {
-    return derefPolicy;
+    final String derefStr = getNamedValue("deref");
+    if (derefStr != null)
+    {
+      for (final DereferencePolicy p : DereferencePolicy.values())
+      {
+        if (p.getName().equalsIgnoreCase(derefStr))
+        {
+          return p;
+        }
+      }
+    }
+
+    return null;
   }
 
 
@@ -267,7 +208,7 @@ public class SearchRequestAccessLogMessage
    */
   public final Integer getSizeLimit()
   {
-    return sizeLimit;
+    return getNamedValueAsInteger("sizeLimit");
   }
 
 
@@ -281,7 +222,7 @@ public class SearchRequestAccessLogMessage
    */
   public final Integer getTimeLimit()
   {
-    return timeLimit;
+    return getNamedValueAsInteger("timeLimit");
   }
 
 
@@ -296,7 +237,7 @@ public class SearchRequestAccessLogMessage
    */
   public final Boolean typesOnly()
   {
-    return typesOnly;
+    return getNamedValueAsBoolean("typesOnly");
   }
 
 
@@ -310,7 +251,19 @@ public class SearchRequestAccessLogMessage
    */
   public final List<String> getRequestedAttributes()
   {
-    return requestedAttributes;
+    final String attrStr = getNamedValue("attrs");
+    if (attrStr == null)
+    {
+      return null;
+    }
+    else if (attrStr.equals("ALL"))
+    {
+      return Collections.emptyList();
+    }
+    else
+    {
+      return getNamedValueAsList("attrs");
+    }
   }
 
 
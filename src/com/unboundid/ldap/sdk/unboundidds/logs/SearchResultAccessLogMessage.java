@@ -22,10 +22,7 @@ package com.unboundid.ldap.sdk.unboundidds.logs;
 
 
 
-import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.StringTokenizer;
 
 import com.unboundid.ldap.sdk.ResultCode;
 import com.unboundid.util.NotMutable;
@@ -62,82 +59,6 @@ public final class SearchResultAccessLogMessage
 
 
 
-  // Indicates whether the search was unindexed.
-  private final Boolean isUnindexed;
-
-  // Indicates whether the any uncached data was accessed in the course of
-  // processing this operation.
-  private final Boolean uncachedDataAccessed;
-
-  // The processing time for the operation.
-  private final Double processingTime;
-
-  // The queue time for the operation.
-  private final Double queueTime;
-
-  // The list of indexes for which keys near the index entry limit were accessed
-  // while processing the operation.
-  private final List<String> indexesWithKeysAccessedNearEntryLimit;
-
-  // The list of indexes for which keys over the index entry limit were accessed
-  // while processing the operation.
-  private final List<String> indexesWithKeysAccessedOverEntryLimit;
-
-  // The list of privileges required for processing the operation that the
-  // requester did not have.
-  private final List<String> missingPrivileges;
-
-  // The list of privileges used during the course of processing the operation
-  // before an alternate authorization identity was assigned.
-  private final List<String> preAuthZUsedPrivileges;
-
-  // The list of referral URLs for the operation.
-  private final List<String> referralURLs;
-
-  // The list of response control OIDs for the operation.
-  private final List<String> responseControlOIDs;
-
-  // The list of servers accessed while processing the operation.
-  private final List<String> serversAccessed;
-
-  // The list of privileges used during the course of processing the operation.
-  private final List<String> usedPrivileges;
-
-  // The number of entries returned to the client.
-  private final Long entriesReturned;
-
-  // The number of intermediate response messages returned to the client.
-  private final Long intermediateResponsesReturned;
-
-  // The result code for the operation.
-  private final ResultCode resultCode;
-
-  // Additional information about the operation result.
-  private final String additionalInformation;
-
-  // The alternate authorization DN for the operation.
-  private final String authzDN;
-
-  // The diagnostic message for the operation.
-  private final String diagnosticMessage;
-
-  // The intermediate client result for the operation.
-  private final String intermediateClientResult;
-
-  // The matched DN for the operation.
-  private final String matchedDN;
-
-  // The port of the backend server to which the request has been forwarded.
-  private final Integer targetPort;
-
-  // The address of the backend server to which the request has been forwarded.
-  private final String targetHost;
-
-  // The protocol used to forward the request to the backend server.
-  private final String targetProtocol;
-
-
-
   /**
    * Creates a new search result access log message from the provided message
    * string.
@@ -165,184 +86,6 @@ public final class SearchResultAccessLogMessage
   public SearchResultAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    diagnosticMessage = getNamedValue("message");
-    additionalInformation = getNamedValue("additionalInfo");
-    matchedDN = getNamedValue("matchedDN");
-    processingTime = getNamedValueAsDouble("etime");
-    queueTime = getNamedValueAsDouble("qtime");
-    intermediateClientResult = getNamedValue("from");
-    entriesReturned = getNamedValueAsLong("entriesReturned");
-    isUnindexed = getNamedValueAsBoolean("unindexed");
-    authzDN = getNamedValue("authzDN");
-    targetHost = getNamedValue("targetHost");
-    targetPort = getNamedValueAsInteger("targetPort");
-    targetProtocol = getNamedValue("targetProtocol");
-
-    intermediateResponsesReturned =
-         getNamedValueAsLong("intermediateResponsesReturned");
-
-    final Integer rcInteger = getNamedValueAsInteger("resultCode");
-    if (rcInteger == null)
-    {
-      resultCode = null;
-    }
-    else
-    {
-      resultCode = ResultCode.valueOf(rcInteger);
-    }
-
-    final String refStr = getNamedValue("referralURLs");
-    if ((refStr == null) || (refStr.length() == 0))
-    {
-      referralURLs = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> refs = new LinkedList<String>();
-      int startPos = 0;
-      while (true)
-      {
-        final int commaPos = refStr.indexOf(",ldap", startPos);
-        if (commaPos < 0)
-        {
-          refs.add(refStr.substring(startPos));
-          break;
-        }
-        else
-        {
-          refs.add(refStr.substring(startPos, commaPos));
-          startPos = commaPos + 1;
-        }
-      }
-      referralURLs = Collections.unmodifiableList(refs);
-    }
-
-    final String controlStr = getNamedValue("responseControls");
-    if (controlStr == null)
-    {
-      responseControlOIDs = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> controlList = new LinkedList<String>();
-      final StringTokenizer t = new StringTokenizer(controlStr, ",");
-      while (t.hasMoreTokens())
-      {
-        controlList.add(t.nextToken());
-      }
-      responseControlOIDs = Collections.unmodifiableList(controlList);
-    }
-
-    final String serversAccessedStr = getNamedValue("serversAccessed");
-    if ((serversAccessedStr == null) || (serversAccessedStr.length() == 0))
-    {
-      serversAccessed = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> servers = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(serversAccessedStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        servers.add(tokenizer.nextToken());
-      }
-      serversAccessed = Collections.unmodifiableList(servers);
-    }
-
-    uncachedDataAccessed = getNamedValueAsBoolean("uncachedDataAccessed");
-
-    final String usedPrivilegesStr = getNamedValue("usedPrivileges");
-    if ((usedPrivilegesStr == null) || (usedPrivilegesStr.length() == 0))
-    {
-      usedPrivileges = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> privileges = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(usedPrivilegesStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        privileges.add(tokenizer.nextToken());
-      }
-      usedPrivileges = Collections.unmodifiableList(privileges);
-    }
-
-    final String preAuthZUsedPrivilegesStr =
-         getNamedValue("preAuthZUsedPrivileges");
-    if ((preAuthZUsedPrivilegesStr == null) ||
-         (preAuthZUsedPrivilegesStr.length() == 0))
-    {
-      preAuthZUsedPrivileges = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> privileges = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(preAuthZUsedPrivilegesStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        privileges.add(tokenizer.nextToken());
-      }
-      preAuthZUsedPrivileges = Collections.unmodifiableList(privileges);
-    }
-
-    final String missingPrivilegesStr = getNamedValue("missingPrivileges");
-    if ((missingPrivilegesStr == null) || (missingPrivilegesStr.length() == 0))
-    {
-      missingPrivileges = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> privileges = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(missingPrivilegesStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        privileges.add(tokenizer.nextToken());
-      }
-      missingPrivileges = Collections.unmodifiableList(privileges);
-    }
-
-    final String indexesNearLimitStr =
-         getNamedValue("indexesWithKeysAccessedNearEntryLimit");
-    if ((indexesNearLimitStr == null) || (indexesNearLimitStr.length() == 0))
-    {
-      indexesWithKeysAccessedNearEntryLimit = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> indexes = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(indexesNearLimitStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        indexes.add(tokenizer.nextToken());
-      }
-      indexesWithKeysAccessedNearEntryLimit =
-           Collections.unmodifiableList(indexes);
-    }
-
-    final String indexesOverLimitStr =
-         getNamedValue("indexesWithKeysAccessedExceedingEntryLimit");
-    if ((indexesOverLimitStr == null) || (indexesOverLimitStr.length() == 0))
-    {
-      indexesWithKeysAccessedOverEntryLimit = Collections.emptyList();
-    }
-    else
-    {
-      final LinkedList<String> indexes = new LinkedList<String>();
-      final StringTokenizer tokenizer =
-           new StringTokenizer(indexesOverLimitStr, ",");
-      while (tokenizer.hasMoreTokens())
-      {
-        indexes.add(tokenizer.nextToken());
-      }
-      indexesWithKeysAccessedOverEntryLimit =
-           Collections.unmodifiableList(indexes);
-    }
   }
 
 
@@ -355,7 +98,15 @@ public final class SearchResultAccessLogMessage
    */
   public ResultCode getResultCode()
   {
-    return resultCode;
+    final Integer rcInteger = getNamedValueAsInteger("resultCode");
+    if (rcInteger == null)
+    {
+      return null;
+    }
+    else
+    {
+      return ResultCode.valueOf(rcInteger);
+    }
   }
 
 
@@ -368,7 +119,7 @@ public final class SearchResultAccessLogMessage
    */
   public String getDiagnosticMessage()
   {
-    return diagnosticMessage;
+    return getNamedValue("message");
   }
 
 
@@ -383,7 +134,7 @@ public final class SearchResultAccessLogMessage
    */
   public String getAdditionalInformation()
   {
-    return additionalInformation;
+    return getNamedValue("additionalInfo");
   }
 
 
@@ -396,7 +147,7 @@ public final class SearchResultAccessLogMessage
    */
   public String getMatchedDN()
   {
-    return matchedDN;
+    return getNamedValue("matchedDN");
   }
 
 
@@ -409,7 +160,7 @@ public final class SearchResultAccessLogMessage
    */
   public List<String> getReferralURLs()
   {
-    return referralURLs;
+    return getNamedValueAsURLList("referralURLs");
   }
 
 
@@ -424,7 +175,7 @@ public final class SearchResultAccessLogMessage
    */
   public Long getIntermediateResponsesReturned()
   {
-    return intermediateResponsesReturned;
+    return getNamedValueAsLong("intermediateResponsesReturned");
   }
 
 
@@ -439,7 +190,7 @@ public final class SearchResultAccessLogMessage
    */
   public Double getProcessingTimeMillis()
   {
-    return processingTime;
+    return getNamedValueAsDouble("etime");
   }
 
 
@@ -454,7 +205,7 @@ public final class SearchResultAccessLogMessage
    */
   public Double getQueueTimeMillis()
   {
-    return queueTime;
+    return getNamedValueAsDouble("qtime");
   }
 
 
@@ -467,7 +218,7 @@ public final class SearchResultAccessLogMessage
    */
   public List<String> getResponseControlOIDs()
   {
-    return responseControlOIDs;
+    return getNamedValueAsList("responseControls");
   }
 
 
@@ -484,7 +235,7 @@ public final class SearchResultAccessLogMessage
    */
   public List<String> getServersAccessed()
   {
-    return serversAccessed;
+    return getNamedValueAsList("serversAccessed");
   }
 
 
@@ -501,7 +252,7 @@ public final class SearchResultAccessLogMessage
    */
   public Boolean getUncachedDataAccessed()
   {
-    return uncachedDataAccessed;
+    return getNamedValueAsBoolean("uncachedDataAccessed");
   }
 
 
@@ -515,7 +266,7 @@ public final class SearchResultAccessLogMessage
    */
   public String getIntermediateClientResult()
   {
-    return intermediateClientResult;
+    return getNamedValue("from");
   }
 
 
@@ -528,7 +279,7 @@ public final class SearchResultAccessLogMessage
    */
   public Long getEntriesReturned()
   {
-    return entriesReturned;
+    return getNamedValueAsLong("entriesReturned");
   }
 
 
@@ -542,7 +293,7 @@ public final class SearchResultAccessLogMessage
    */
   public Boolean isUnindexed()
   {
-    return isUnindexed;
+    return getNamedValueAsBoolean("unindexed");
   }
 
 
@@ -555,7 +306,7 @@ public final class SearchResultAccessLogMessage
    */
   public String getAlternateAuthorizationDN()
   {
-    return authzDN;
+    return getNamedValue("authzDN");
   }
 
 
@@ -570,7 +321,7 @@ public final class SearchResultAccessLogMessage
    */
   public String getTargetHost()
   {
-    return targetHost;
+    return getNamedValue("targetHost");
   }
 
 
@@ -585,7 +336,7 @@ public final class SearchResultAccessLogMessage
    */
   public Integer getTargetPort()
   {
-    return targetPort;
+    return getNamedValueAsInteger("targetPort");
   }
 
 
@@ -598,7 +349,7 @@ public final class SearchResultAccessLogMessage
    */
   public String getTargetProtocol()
   {
-    return targetProtocol;
+    return getNamedValue("targetProtocol");
   }
 
 
@@ -613,7 +364,7 @@ public final class SearchResultAccessLogMessage
    */
   public List<String> getUsedPrivileges()
   {
-    return usedPrivileges;
+    return getNamedValueAsList("usedPrivileges");
   }
 
 
@@ -629,7 +380,7 @@ public final class SearchResultAccessLogMessage
    */
   public List<String> getPreAuthorizationUsedPrivileges()
   {
-    return preAuthZUsedPrivileges;
+    return getNamedValueAsList("preAuthZUsedPrivileges");
   }
 
 
@@ -645,7 +396,7 @@ public final class SearchResultAccessLogMessage
    */
   public List<String> getMissingPrivileges()
   {
-    return missingPrivileges;
+    return getNamedValueAsList("missingPrivileges");
   }
 
 
@@ -662,7 +413,7 @@ public final class SearchResultAccessLogMessage
    */
   public List<String> getIndexesWithKeysAccessedNearEntryLimit()
   {
-    return indexesWithKeysAccessedNearEntryLimit;
+    return getNamedValueAsList("indexesWithKeysAccessedNearEntryLimit");
   }
 
 
@@ -678,7 +429,7 @@ public final class SearchResultAccessLogMessage
    */
   public List<String> getIndexesWithKeysAccessedOverEntryLimit()
   {
-    return indexesWithKeysAccessedOverEntryLimit;
+    return getNamedValueAsList("indexesWithKeysAccessedExceedingEntryLimit");
   }
 
 
@@ -55,14 +55,6 @@ public final class SecurityNegotiationAccessLogMessage
 
 
 
-  // The negotiated cipher suite.
-  private final String cipher;
-
-  // The negotiated protocol.
-  private final String protocol;
-
-
-
   /**
    * Creates a new security negotiation access log message from the provided
    * message string.
@@ -90,9 +82,6 @@ public final class SecurityNegotiationAccessLogMessage
   public SecurityNegotiationAccessLogMessage(final LogMessage m)
   {
     super(m);
-
-    protocol = getNamedValue("protocol");
-    cipher   = getNamedValue("cipher");
   }
 
 
@@ -104,7 +93,7 @@ public final class SecurityNegotiationAccessLogMessage
    */
   public String getProtocol()
   {
-    return protocol;
+    return getNamedValue("protocol");
   }
 
 
@@ -116,7 +105,7 @@ public final class SecurityNegotiationAccessLogMessage
    */
   public String getCipher()
   {
-    return cipher;
+    return getNamedValue("cipher");
   }
 
 
@@ -0,0 +1,1002 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldif;
+
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.unboundid.asn1.ASN1Buffer;
+import com.unboundid.asn1.ASN1BufferSequence;
+import com.unboundid.asn1.ASN1StreamReader;
+import com.unboundid.asn1.ASN1StreamReaderSequence;
+import com.unboundid.ldap.sdk.Attribute;
+import com.unboundid.ldap.sdk.Entry;
+import com.unboundid.ldap.sdk.EntrySorter;
+import com.unboundid.ldap.sdk.schema.Schema;
+import com.unboundid.util.Debug;
+import com.unboundid.util.LDAPSDKThreadFactory;
+import com.unboundid.util.StaticUtils;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.Validator;
+
+import static com.unboundid.ldif.LDIFMessages.*;
+
+
+
+/**
+ * This class provides a mechanism for sorting a set of entries that may be too
+ * large to hold in memory at the same time, like the entries contained in a
+ * large LDIF file.  Entries are provided to the sorter one at a time with the
+ * {@link #addEntry} method.  Whenever the number of entries held in memory
+ * reaches a specified limit, those entries are sorted and written to a
+ * temporary file as a sorted run.  Once all of the entries have been added,
+ * the {@link #nextEntry} method may be used to retrieve them in sorted order by
+ * merging the runs.  If all of the entries fit in memory, then no temporary
+ * files will be written.
+ * <BR><BR>
+ * Runs are written in a compact binary form (using the same encoding as the
+ * entry in an LDAP search result entry message) rather than as LDIF, so that
+ * they are smaller and faster to read back.  If the sorter is configured to
+ * use multiple threads, then runs will be sorted and written in background
+ * threads while additional entries are being added, and if there are too many
+ * runs to merge at once, then groups of runs will be merged into larger runs
+ * in parallel before the final merge.  Each temporary file is deleted as soon
+ * as all of its entries have been merged, and any that remain are deleted when
+ * the sorter is closed, so the sorter should always be closed once it is no
+ * longer needed.
+ * <BR><BR>
+ * The order of the entries is determined by the comparator provided when the
+ * sorter is created.  An {@link EntrySorter} may be used to sort entries
+ * hierarchically (so that each entry will be returned before any of its
+ * subordinates), or based on the values of a set of attributes.  Entries that
+ * the comparator considers equal will be returned in the order in which they
+ * were added.
+ * <BR><BR>
+ * <H2>Example</H2>
+ * The following example demonstrates the process for reading the entries from
+ * an LDIF file and writing them to another LDIF file so that parent entries
+ * always come before their children:
+ * <PRE>
+ * LDIFEntrySorter sorter = new LDIFEntrySorter(new EntrySorter(), null, null,
+ *      100000, 4);
+ * try
+ * {
+ *   Entry entry = ldifReader.readEntry();
+ *   while (entry != null)
+ *   {
+ *     sorter.addEntry(entry);
+ *     entry = ldifReader.readEntry();
+ *   }
+ *
+ *   entry = sorter.nextEntry();
+ *   while (entry != null)
+ *   {
+ *     ldifWriter.writeEntry(entry);
+ *     entry = sorter.nextEntry();
+ *   }
+ * }
+ * finally
+ * {
+ *   sorter.close();
+ * }
+ * </PRE>
+ */
+@ThreadSafety(level=ThreadSafetyLevel.NOT_THREADSAFE)
+public final class LDIFEntrySorter
+       implements Closeable
+{
+  /**
+   * The default maximum number of entries that will be held in memory at any
+   * time.
+   */
+  public static final int DEFAULT_MAX_ENTRIES_IN_MEMORY = 100000;
+
+
+
+  /**
+   * The maximum number of runs that will be merged at the same time.
+   */
+  static final int MAX_MERGE_FAN_IN = 64;
+
+
+
+  /**
+   * The size in bytes of the buffers used when reading and writing runs.
+   */
+  private static final int BUFFER_SIZE = 65536;
+
+
+
+  // Indicates whether iteration through the sorted entries has started.
+  private boolean iterating;
+
+  // The number of entries to include in each sorted run.
+  private final int runSize;
+
+  // The maximum number of runs that may be sorted and written in the
+  // background at any time.
+  private final int maxPendingRuns;
+
+  // The entries held in memory that have not yet been written to a run.
+  private ArrayList<Entry> entries;
+
+  // The comparator used to order the entries.
+  private final Comparator<Entry> comparator;
+
+  // The executor used to sort, write, and merge runs in the background, if
+  // any.
+  private final ExecutorService executor;
+
+  // The directory in which temporary files should be created.
+  private final File tempDirectory;
+
+  // An iterator used to retrieve the sorted entries if none of them had to be
+  // written to a temporary file.
+  private Iterator<Entry> memoryIterator;
+
+  // The runs that have been completely written, in the order in which they
+  // were created.
+  private List<File> runFiles;
+
+  // The runs that are being sorted and written in the background, in the order
+  // in which they were created.
+  private final List<Future<File>> pendingRuns;
+
+  // The number of entries that have been added.
+  private long numEntries;
+
+  // The number of sorted runs that have been written.
+  private long numRunsWritten;
+
+  // The queue used to merge the runs.
+  private final PriorityQueue<RunReader> mergeQueue;
+
+  // The schema to use when decoding entries read from runs.
+  private final Schema schema;
+
+  // All temporary files that have been created and not yet deleted.
+  private final Set<File> tempFiles;
+
+
+
+  /**
+   * Creates a new LDIF entry sorter that will use the provided comparator with
+   * a default maximum number of entries in memory, temporary files in the
+   * default temporary directory, and a single thread.
+   *
+   * @param  comparator  The comparator that will be used to order the
+   *                     entries.  It must not be {@code null}.
+   */
+  public LDIFEntrySorter(final Comparator<Entry> comparator)
+  {
+    this(comparator, null, null, DEFAULT_MAX_ENTRIES_IN_MEMORY, 1);
+  }
+
+
+
+  /**
+   * Creates a new LDIF entry sorter with the provided information.
+   *
+   * @param  comparator          The comparator that will be used to order the
+   *                             entries.  It must not be {@code null}.
+   * @param  schema              The schema to use when decoding entries read
+   *                             back from temporary files.  It may be
+   *                             {@code null} if no schema is available.
+   * @param  tempDirectory       The directory in which temporary files should
+   *                             be created.  It may be {@code null} if they
+   *                             should be created in the default temporary
+   *                             directory.
+   * @param  maxEntriesInMemory  The maximum number of entries that will be held
+   *                             in memory at any time while entries are being
+   *                             added.  It must be greater than zero.
+   * @param  numThreads          The number of threads to use to sort, write,
+   *                             and merge runs.  If this is greater than one,
+   *                             then runs will be sorted and written in the
+   *                             background, and the limit on the number of
+   *                             entries in memory will be divided among the
+   *                             threads.  It must be greater than zero.
+   */
+  public LDIFEntrySorter(final Comparator<Entry> comparator,
+                         final Schema schema, final File tempDirectory,
+                         final int maxEntriesInMemory, final int numThreads)
+  {
+    Validator.ensureNotNull(comparator);
+    Validator.ensureTrue(maxEntriesInMemory > 0);
+    Validator.ensureTrue(numThreads > 0);
+
+    this.comparator    = comparator;
+    this.schema        = schema;
+    this.tempDirectory = tempDirectory;
+
+    if (numThreads == 1)
+    {
+      runSize        = maxEntriesInMemory;
+      maxPendingRuns = 0;
+      executor       = null;
+    }
+    else
+    {
+      runSize        = Math.max(1, (maxEntriesInMemory / numThreads));
+      maxPendingRuns = numThreads - 1;
+      executor       = Executors.newFixedThreadPool(numThreads,
+           new LDAPSDKThreadFactory("LDIFEntrySorter", true));
+    }
+
+    entries = new ArrayList<Entry>(Math.min(runSize, 10000));
+    runFiles = new ArrayList<File>(10);
+    pendingRuns = new ArrayList<Future<File>>(numThreads);
+    mergeQueue = new PriorityQueue<RunReader>(MAX_MERGE_FAN_IN,
+         new RunReaderComparator(comparator));
+    tempFiles = Collections.synchronizedSet(new HashSet<File>(10));
+
+    iterating      = false;
+    memoryIterator = null;
+    numEntries     = 0L;
+    numRunsWritten = 0L;
+  }
+
+
+
+  /**
+   * Adds the provided entry to the set of entries to be sorted.  This must not
+   * be called once the {@link #nextEntry} method has been called.
+   *
+   * @param  entry  The entry to be added.  It must not be {@code null}.
+   *
+   * @throws  IOException  If a problem occurs while writing a sorted run to a
+   *                       temporary file.
+   */
+  public void addEntry(final Entry entry)
+         throws IOException
+  {
+    Validator.ensureNotNull(entry);
+    Validator.ensureFalse(iterating,
+         ERR_ENTRY_SORTER_ADD_AFTER_ITERATION_STARTED.get());
+
+    entries.add(entry);
+    numEntries++;
+    if (entries.size() >= runSize)
+    {
+      writeRun();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of entries that have been added to this sorter.
+   *
+   * @return  The number of entries that have been added to this sorter.
+   */
+  public long getNumEntries()
+  {
+    return numEntries;
+  }
+
+
+
+  /**
+   * Retrieves the number of sorted runs that have been written to temporary
+   * files.  This does not include any runs created by merging other runs.
+   *
+   * @return  The number of sorted runs that have been written to temporary
+   *          files.
+   */
+  public long getNumRunsWritten()
+  {
+    return numRunsWritten;
+  }
+
+
+
+  /**
+   * Sorts the entries held in memory and writes them to a new temporary file,
+   * either in the current thread or in the background.
+   *
+   * @throws  IOException  If a problem occurs while writing the run, or if a
+   *                       problem occurred while writing a run in the
+   *                       background.
+   */
+  private void writeRun()
+          throws IOException
+  {
+    final List<Entry> runEntries = entries;
+    entries = new ArrayList<Entry>(Math.min(runSize, 10000));
+    numRunsWritten++;
+
+    if (executor == null)
+    {
+      runFiles.add(sortAndWrite(runEntries));
+      return;
+    }
+
+    while (pendingRuns.size() >= maxPendingRuns)
+    {
+      runFiles.add(getResult(pendingRuns.remove(0)));
+    }
+
+    pendingRuns.add(executor.submit(new Callable<File>()
+    {
+      /**
+       * Sorts and writes the run.
+       *
+       * @return  The file to which the run was written.
+       *
+       * @throws  IOException  If a problem occurs while writing the run.
+       */
+      @Override()
+      public File call()
+             throws IOException
+      {
+        return sortAndWrite(runEntries);
+      }
+    }));
+  }
+
+
+
+  /**
+   * Sorts the provided entries and writes them to a new temporary file.
+   *
+   * @param  runEntries  The entries to be sorted and written.
+   *
+   * @return  The file to which the entries were written.
+   *
+   * @throws  IOException  If a problem occurs while writing the file.
+   */
+  private File sortAndWrite(final List<Entry> runEntries)
+          throws IOException
+  {
+    Collections.sort(runEntries, comparator);
+
+    final File f = createTempFile();
+    final OutputStream out =
+         new BufferedOutputStream(new FileOutputStream(f), BUFFER_SIZE);
+    try
+    {
+      final ASN1Buffer buffer = new ASN1Buffer();
+      for (final Entry e : runEntries)
+      {
+        writeEntry(e, buffer, out);
+      }
+    }
+    finally
+    {
+      out.close();
+    }
+
+    return f;
+  }
+
+
+
+  /**
+   * Merges the provided runs into a single run written to a new temporary
+   * file.  The provided runs will be deleted once they have been merged.
+   *
+   * @param  files  The files containing the runs to be merged, in the order in
+   *                which they were created.
+   *
+   * @return  The file to which the merged run was written.
+   *
+   * @throws  IOException  If a problem occurs while reading or writing a run.
+   */
+  private File merge(final List<File> files)
+          throws IOException
+  {
+    final PriorityQueue<RunReader> queue = new PriorityQueue<RunReader>(
+         files.size(), new RunReaderComparator(comparator));
+    final File f = createTempFile();
+    final OutputStream out =
+         new BufferedOutputStream(new FileOutputStream(f), BUFFER_SIZE);
+    try
+    {
+      openRuns(files, queue);
+
+      final ASN1Buffer buffer = new ASN1Buffer();
+      while (true)
+      {
+        final RunReader r = queue.poll();
+        if (r == null)
+        {
+          break;
+        }
+
+        writeEntry(r.getEntry(), buffer, out);
+        if (r.readEntry())
+        {
+          queue.add(r);
+        }
+        else
+        {
+          closeRun(r);
+        }
+      }
+    }
+    finally
+    {
+      for (final RunReader r : queue)
+      {
+        r.close();
+      }
+
+      out.close();
+    }
+
+    return f;
+  }
+
+
+
+  /**
+   * Opens readers for each of the provided runs and adds those that are not
+   * empty to the given queue.
+   *
+   * @param  files  The files containing the runs to open.
+   * @param  queue  The queue to which the readers should be added.
+   *
+   * @throws  IOException  If a problem occurs while reading from a run.
+   */
+  private void openRuns(final List<File> files,
+                        final PriorityQueue<RunReader> queue)
+          throws IOException
+  {
+    int index = 0;
+    for (final File f : files)
+    {
+      final RunReader r = new RunReader(f, index++, schema);
+      if (r.readEntry())
+      {
+        queue.add(r);
+      }
+      else
+      {
+        closeRun(r);
+      }
+    }
+  }
+
+
+
+  /**
+   * Retrieves the next entry in sorted order.  No more entries may be added to
+   * this sorter once this method has been called.
+   *
+   * @return  The next entry in sorted order, or {@code null} if there are no
+   *          more entries.
+   *
+   * @throws  IOException  If a problem occurs while writing, merging, or
+   *                       reading a run.
+   */
+  public Entry nextEntry()
+         throws IOException
+  {
+    if (! iterating)
+    {
+      startIteration();
+    }
+
+    if (memoryIterator != null)
+    {
+      if (memoryIterator.hasNext())
+      {
+        return memoryIterator.next();
+      }
+      else
+      {
+        return null;
+      }
+    }
+
+    final RunReader r = mergeQueue.poll();
+    if (r == null)
+    {
+      return null;
+    }
+
+    final Entry e = r.getEntry();
+    if (r.readEntry())
+    {
+      mergeQueue.add(r);
+    }
+    else
+    {
+      closeRun(r);
+    }
+
+    return e;
+  }
+
+
+
+  /**
+   * Prepares to iterate through the sorted entries.  If any runs have been
+   * written, then this will write the remaining entries to a final run, wait
+   * for any background writes to complete, and merge groups of runs until
+   * there are few enough of them to be merged at once.
+   *
+   * @throws  IOException  If a problem occurs while writing or merging runs.
+   */
+  private void startIteration()
+          throws IOException
+  {
+    iterating = true;
+    if (numRunsWritten == 0L)
+    {
+      Collections.sort(entries, comparator);
+      memoryIterator = entries.iterator();
+      return;
+    }
+
+    if (! entries.isEmpty())
+    {
+      writeRun();
+    }
+
+    while (! pendingRuns.isEmpty())
+    {
+      runFiles.add(getResult(pendingRuns.remove(0)));
+    }
+
+    while (runFiles.size() > MAX_MERGE_FAN_IN)
+    {
+      final ArrayList<List<File>> groups = new ArrayList<List<File>>(
+           (runFiles.size() / MAX_MERGE_FAN_IN) + 1);
+      for (int i=0; i < runFiles.size(); i += MAX_MERGE_FAN_IN)
+      {
+        groups.add(runFiles.subList(i,
+             Math.min(runFiles.size(), (i + MAX_MERGE_FAN_IN))));
+      }
+
+      final ArrayList<File> mergedFiles = new ArrayList<File>(groups.size());
+      if (executor == null)
+      {
+        for (final List<File> group : groups)
+        {
+          mergedFiles.add(merge(group));
+        }
+      }
+      else
+      {
+        final ArrayList<Future<File>> futures =
+             new ArrayList<Future<File>>(groups.size());
+        for (final List<File> group : groups)
+        {
+          futures.add(executor.submit(new Callable<File>()
+          {
+            /**
+             * Merges the group of runs.
+             *
+             * @return  The file to which the merged run was written.
+             *
+             * @throws  IOException  If a problem occurs while merging the
+             *                       runs.
+             */
+            @Override()
+            public File call()
+                   throws IOException
+            {
+              return merge(group);
+            }
+          }));
+        }
+
+        for (final Future<File> f : futures)
+        {
+          mergedFiles.add(getResult(f));
+        }
+      }
+
+      runFiles = mergedFiles;
+    }
+
+    openRuns(runFiles, mergeQueue);
+  }
+
+
+
+  /**
+   * Waits for the provided background task to complete and retrieves the file
+   * that it wrote.
+   *
+   * @param  future  The future for the background task.
+   *
+   * @return  The file written by the background task.
+   *
+   * @throws  IOException  If the background task failed, or if the current
+   *                       thread was interrupted while waiting for it.
+   */
+  private static File getResult(final Future<File> future)
+          throws IOException
+  {
+    try
+    {
+      return future.get();
+    }
+    catch (final ExecutionException ee)
+    {
+      Debug.debugException(ee);
+
+      final Throwable cause = ee.getCause();
+      if (cause instanceof IOException)
+      {
+        throw (IOException) cause;
+      }
+
+      throw new IOException(
+           ERR_ENTRY_SORTER_BACKGROUND_FAILURE.get(
+                StaticUtils.getExceptionMessage(cause)),
+           cause);
+    }
+    catch (final InterruptedException ie)
+    {
+      Debug.debugException(ie);
+      Thread.currentThread().interrupt();
+      throw new IOException(ERR_ENTRY_SORTER_INTERRUPTED.get(), ie);
+    }
+  }
+
+
+
+  /**
+   * Writes the provided entry to the given output stream.
+   *
+   * @param  entry   The entry to be written.
+   * @param  buffer  A buffer that may be used to encode the entry.
+   * @param  out     The output stream to which the entry should be written.
+   *
+   * @throws  IOException  If a problem occurs while writing the entry.
+   */
+  private static void writeEntry(final Entry entry, final ASN1Buffer buffer,
+                                 final OutputStream out)
+          throws IOException
+  {
+    buffer.clear();
+
+    final ASN1BufferSequence entrySequence = buffer.beginSequence();
+    buffer.addOctetString(entry.getDN());
+
+    final ASN1BufferSequence attrSequence = buffer.beginSequence();
+    for (final Attribute a : entry.getAttributes())
+    {
+      a.writeTo(buffer);
+    }
+    attrSequence.end();
+    entrySequence.end();
+
+    buffer.writeTo(out);
+  }
+
+
+
+  /**
+   * Creates a new temporary file that will be deleted when this sorter is
+   * closed, if it has not already been deleted.
+   *
+   * @return  The temporary file that was created.
+   *
+   * @throws  IOException  If a problem occurs while creating the file.
+   */
+  private File createTempFile()
+          throws IOException
+  {
+    final File f =
+         File.createTempFile("ldapsdk-entry-sorter-", ".tmp", tempDirectory);
+    tempFiles.add(f);
+    return f;
+  }
+
+
+
+  /**
+   * Closes the provided run reader, which has reached the end of its run, and
+   * deletes the file containing the run.
+   *
+   * @param  r  The run reader to close.
+   */
+  private void closeRun(final RunReader r)
+  {
+    r.close();
+    deleteTempFile(r.getFile());
+  }
+
+
+
+  /**
+   * Deletes the provided temporary file.
+   *
+   * @param  f  The file to be deleted.
+   */
+  private void deleteTempFile(final File f)
+  {
+    if (! f.delete())
+    {
+      Debug.debugException(new IOException(
+           "Unable to delete temporary file " + f.getAbsolutePath()));
+    }
+
+    tempFiles.remove(f);
+  }
+
+
+
+  /**
+   * Closes this sorter, stopping any background processing and deleting all
+   * temporary files that it has created.
+   */
+  @Override()
+  public void close()
+  {
+    // Wait for any background tasks to finish so that they won't create any
+    // more temporary files.
+    if (executor != null)
+    {
+      executor.shutdownNow();
+      try
+      {
+        executor.awaitTermination(1L, TimeUnit.MINUTES);
+      }
+      catch (final InterruptedException ie)
+      {
+        Debug.debugException(ie);
+        Thread.currentThread().interrupt();
+      }
+    }
+    pendingRuns.clear();
+
+    while (! mergeQueue.isEmpty())
+    {
+      mergeQueue.poll().close();
+    }
+
+    final ArrayList<File> filesToDelete;
+    synchronized (tempFiles)
+    {
+      filesToDelete = new ArrayList<File>(tempFiles);
+    }
+
+    for (final File f : filesToDelete)
+    {
+      deleteTempFile(f);
+    }
+
+    entries.clear();
+    memoryIterator = null;
+  }
+
+
+
+  /**
+   * This class provides a mechanism for reading the entries in a sorted run.
+   */
+  private static final class RunReader
+          implements Closeable
+  {
+    // The current entry, if any.
+    private Entry entry;
+
+    // The position of the run in the order in which the runs were created.
+    private final int index;
+
+    // The reader used to read the run.
+    private final ASN1StreamReader reader;
+
+    // The file containing the run.
+    private final File file;
+
+    // The schema to use when decoding entries.
+    private final Schema schema;
+
+
+
+    /**
+     * Creates a new run reader for the provided file.
+     *
+     * @param  file    The file containing the run.
+     * @param  index   The position of the run in the order in which the runs
+     *                 were created.
+     * @param  schema  The schema to use when decoding entries.  It may be
+     *                 {@code null} if no schema is available.
+     *
+     * @throws  IOException  If a problem occurs while opening the file.
+     */
+    private RunReader(final File file, final int index, final Schema schema)
+            throws IOException
+    {
+      this.file   = file;
+      this.index  = index;
+      this.schema = schema;
+
+      reader = new ASN1StreamReader(new BufferedInputStream(
+           new FileInputStream(file), BUFFER_SIZE));
+      entry = null;
+    }
+
+
+
+    /**
+     * Retrieves the file containing the run.
+     *
+     * @return  The file containing the run.
+     */
+    private File getFile()
+    {
+      return file;
+    }
+
+
+
+    /**
+     * Retrieves the current entry.
+     *
+     * @return  The current entry, or {@code null} if the end of the run has
+     *          been reached.
+     */
+    private Entry getEntry()
+    {
+      return entry;
+    }
+
+
+
+    /**
+     * Retrieves the position of the run in the order in which the runs were
+     * created.
+     *
+     * @return  The position of the run in the order in which the runs were
+     *          created.
+     */
+    private int getIndex()
+    {
+      return index;
+    }
+
+
+
+    /**
+     * Reads the next entry from the run, making it the current entry.
+     *
+     * @return  {@code true} if an entry was read, or {@code false} if the end
+     *          of the run has been reached.
+     *
+     * @throws  IOException  If a problem occurs while reading or decoding the
+     *                       entry.
+     */
+    private boolean readEntry()
+            throws IOException
+    {
+      if (reader.peek() < 0)
+      {
+        entry = null;
+        return false;
+      }
+
+      try
+      {
+        reader.beginSequence();
+        final String dn = reader.readString();
+
+        final ArrayList<Attribute> attrs = new ArrayList<Attribute>(10);
+        final ASN1StreamReaderSequence attrSequence = reader.beginSequence();
+        while (attrSequence.hasMoreElements())
+        {
+          attrs.add(Attribute.readFrom(reader, schema));
+        }
+
+        entry = new Entry(dn, schema, attrs);
+        return true;
+      }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+        throw new IOException(
+             ERR_ENTRY_SORTER_CANNOT_READ_RUN.get(file.getAbsolutePath(),
+                  StaticUtils.getExceptionMessage(e)),
+             e);
+      }
+    }
+
+
+
+    /**
+     * Closes this run reader.
+     */
+    @Override()
+    public void close()
+    {
+      try
+      {
+        reader.close();
+      }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+      }
+    }
+  }
+
+
+
+  /**
+   * This class provides a comparator that orders run readers by their current
+   * entries, and then by the order in which the runs were created so that
+   * entries that compare equal will be returned in the order in which they
+   * were added.
+   */
+  private static final class RunReaderComparator
+          implements Comparator<RunReader>
+  {
+    // The comparator used to order the entries.
+    private final Comparator<Entry> comparator;
+
+
+
+    /**
+     * Creates a new run reader comparator.
+     *
+     * @param  comparator  The comparator used to order the entries.
+     */
+    private RunReaderComparator(final Comparator<Entry> comparator)
+    {
+      this.comparator = comparator;
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    public int compare(final RunReader r1, final RunReader r2)
+    {
+      final int c = comparator.compare(r1.getEntry(), r2.getEntry());
+      if (c != 0)
+      {
+        return c;
+      }
+
+      return (r1.getIndex() - r2.getIndex());
+    }
+  }
+}
@@ -79,6 +79,19 @@ final class BackReferenceValuePatternComponent
 
 
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  void append(final ByteStringBuffer buffer)
+  {
+    // This should never be called.
+    throw new AssertionError(
+         "Unexpected call to BackReferenceValuePatternComponent.append");
+  }
+
+
+
   /**
    * {@inheritDoc}
    */
@@ -55,6 +55,9 @@ final class FileValuePatternComponent
   // Indicates whether to iterate through the file in sequential order.
   private final boolean sequential;
 
+  // The UTF-8 representations of the lines that make up the data file.
+  private final byte[][] lineBytes;
+
   // The lines that make up the data file.
   private final String[] lines;
 
@@ -118,6 +121,12 @@ final class FileValuePatternComponent
 
     lines = new String[lineList.size()];
     lineList.toArray(lines);
+
+    lineBytes = new byte[lines.length][];
+    for (int i=0; i < lines.length; i++)
+    {
+      lineBytes[i] = StaticUtils.getBytes(lines[i]);
+    }
   }
 
 
@@ -128,10 +137,32 @@ final class FileValuePatternComponent
   @Override()
   void append(final StringBuilder buffer)
   {
-    final int index;
+    buffer.append(lines[nextIndex()]);
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  void append(final ByteStringBuffer buffer)
+  {
+    buffer.append(lineBytes[nextIndex()]);
+  }
+
+
+
+  /**
+   * Retrieves the index of the line to use for the next value.
+   *
+   * @return  The index of the line to use for the next value.
+   */
+  private int nextIndex()
+  {
     if (sequential)
     {
-      index = (int) (sequentialCounter.getAndIncrement() % lines.length);
+      return (int) (sequentialCounter.getAndIncrement() % lines.length);
     }
     else
     {
@@ -142,10 +173,8 @@ final class FileValuePatternComponent
         random.set(r);
       }
 
-      index = r.nextInt(lines.length);
+      return r.nextInt(lines.length);
     }
-
-    buffer.append(lines[index]);
   }
 
 
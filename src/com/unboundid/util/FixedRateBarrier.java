@@ -23,12 +23,8 @@ package com.unboundid.util;
 
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.logging.Level;
-
-import static com.unboundid.util.Debug.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 
 
@@ -44,19 +40,20 @@ import static com.unboundid.util.Debug.*;
  * {@code java.util.concurrent.ScheduledThreadPoolExecutor}.  For instance,
  * this does a good job of ensuring that something happens about 10000 times
  * per second, but it's overkill to ensure something happens five times per
- * hour.  This does come at a cost.  In the worst case, a single thread is
- * tied up in a loop doing a small amount of computation followed by a
- * Thread.yield().  Calling Thread.sleep() is not possible because many
- * platforms sleep for a minimum of 10ms, and all platforms require sleeping
- * for at least 1ms.
+ * hour.
  * <p>
- * Testing has shown that this class is accurate for a "no-op"
- * action up to two million per second, which vastly exceeds its
- * typical use in tools such as {@code searchrate} and {@code modrate}.  This
- * class is designed to be called by multiple threads, however, it does not
- * make any fairness guarantee between threads; a single-thread might be
- * released from the {@link #await} method many times before another thread
- * that is blocked in that method.
+ * This class does not use any locks.  Each release is assigned a time that is
+ * evenly spaced after the previous one, and a caller reserves the next release
+ * time (or a batch of consecutive release times, using the
+ * {@link #await(int)} or {@link #awaitScheduledTime(int)} methods) with a
+ * single atomic update, and then parks until that time arrives.  A caller only
+ * spins (calling {@code Thread.yield()}) for the last small fraction of a
+ * millisecond before its release time, since parking is not accurate enough
+ * for very short waits.  Reserving a batch of releases at once amortizes the
+ * cost of waiting across all of them, which can make very high rates (for
+ * example, a million releases per second) practical.  This class is designed
+ * to be called by multiple threads, however, it does not make any fairness
+ * guarantee between threads.
  * <p>
  * This class attempts to smooth out the target per interval throughout each
  * interval.  At a given ratio, R between 0 and 1, through the interval, the
@@ -64,6 +61,16 @@ import static com.unboundid.util.Debug.*;
  * time is R times the target per interval.  That is, 10% of the way through
  * the interval, approximately 10% of the actions have been performed, and
  * 80% of the way through the interval, 80% of the actions have been performed.
+ * If the callers fall behind schedule, then they will be released immediately
+ * until they have caught up, unless they have fallen more than a full interval
+ * behind, in which case the schedule will be restarted from the current time
+ * rather than trying to catch up.  The {@link #getSkippedReleaseCount} method
+ * may be used to determine how many releases have been skipped in that way.
+ * Alternately, a barrier may be created that will never skip missed releases,
+ * so that every action that should have been performed during a stall is
+ * still performed, and its scheduled time still reflects when it should have
+ * been performed.  This may be more appropriate for a barrier that is used to
+ * measure latency from the time that each action should have been performed.
  */
 @ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
 public final class FixedRateBarrier
@@ -72,55 +79,35 @@ public final class FixedRateBarrier
   /**
    * The serial version UID for this serializable class.
    */
-  private static final long serialVersionUID = -3490156685189909611L;
+  private static final long serialVersionUID = 5185219040282398155L;
+
+
 
   /**
-   * The minimum number of milliseconds that Thread.sleep() can handle
-   * accurately.  This varies from platform to platform, so we measure it
-   * once in the static initializer below.  When using a low rate (such as
-   * 100 per second), we can often sleep between iterations instead of having
-   * to spin calling Thread.yield().
+   * The maximum length of time in nanoseconds that a thread will park at once,
+   * so that it can respond to a change in the rate or a shutdown request
+   * without too much delay.
    */
-  private static final long minSleepMillis;
+  private static final long MAX_PARK_NANOS = 10L * 1000L * 1000L;
 
-  static
-  {
-    // Calibrate the minimum number of milliseconds that we can reliably
-    // sleep on this system.  We take several measurements and take the median,
-    // which keeps us from choosing an outlier.
-    //
-    // It varies from system to system.  Testing on three systems, yielded
-    // three different measurements Solaris x86 (10 ms), RedHat Linux (2 ms),
-    // Windows 7 (1 ms).
 
-    final List<Long> minSleepMillisMeasurements = new ArrayList<Long>();
 
-    for (int i = 0; i < 11; i++)
-    {
-      final long timeBefore = System.currentTimeMillis();
-      try
-      {
-        Thread.sleep(1);
-      }
-      catch (final InterruptedException e)
-      {
-        debugException(e);
-      }
-      final long sleepMillis = System.currentTimeMillis() - timeBefore;
-      minSleepMillisMeasurements.add(sleepMillis);
-    }
+  /**
+   * The length of time in nanoseconds before its release time at which a
+   * thread will stop parking and start spinning.  Parking is not accurate for
+   * very short durations on most platforms.
+   */
+  private static final long SPIN_NANOS = 50L * 1000L;
 
-    Collections.sort(minSleepMillisMeasurements);
-    final long medianSleepMillis = minSleepMillisMeasurements.get(
-            minSleepMillisMeasurements.size()/2);
 
-    minSleepMillis = Math.max(medianSleepMillis, 1);
 
-    final String message = "Calibrated FixedRateBarrier to use " +
-          "minSleepMillis=" + minSleepMillis + ".  " +
-          "Minimum sleep measurements = " + minSleepMillisMeasurements;
-    debug(Level.INFO, DebugType.OTHER, message);
-  }
+  // The number of releases that have been skipped because the callers fell
+  // too far behind schedule.
+  private final AtomicLong skippedReleases;
+
+  // Indicates whether the schedule should be restarted, rather than caught up,
+  // when the callers fall more than a full interval behind.
+  private final boolean skipMissedReleases;
 
 
   // This tracks when this class is shut down.  Calls to await() after
@@ -128,33 +115,25 @@ public final class FixedRateBarrier
   // true.
   private volatile boolean shutdownRequested = false;
 
+  // The schedule for the current rate.  A new schedule is created whenever the
+  // rate is changed.
+  private volatile Schedule schedule;
 
-  //
-  // The following class variables are guarded by synchronized(this).
-  //
-
-  // The duration of the target interval in nano-seconds.
-  private long intervalDurationNanos;
-
-  // This tracks the number of milliseconds between each iteration if they
-  // were evenly spaced.
-  //
-  // If intervalDurationMs=1000 and perInterval=100, then this is 100.
-  // If intervalDurationMs=1000 and perInterval=10000, then this is .1.
-  private double millisBetweenIterations;
-
-  // The target number of times to release a thread per interval.
-  private int perInterval;
-
-  // A count of the number of times that await has returned within the current
-  // interval.
-  private long countInThisInterval;
 
-  // The start of this interval in terms of System.nanoTime().
-  private long intervalStartNanos;
 
-  // The end of this interval in terms of System.nanoTime().
-  private long intervalEndNanos;
+  /**
+   * Constructs a new FixedRateBarrier, which is active until
+   * {@link #shutdownRequested} is called.  The barrier will skip missed
+   * releases if the callers fall more than a full interval behind schedule.
+   *
+   * @param  intervalDurationMs  The duration of the interval in milliseconds.
+   * @param  perInterval  The target number of times that {@link #await} should
+   *                      return per interval.
+   */
+  public FixedRateBarrier(final long intervalDurationMs, final int perInterval)
+  {
+    this(intervalDurationMs, perInterval, true);
+  }
 
 
 
@@ -163,11 +142,23 @@ public final class FixedRateBarrier
    * {@link #shutdownRequested} is called.
    *
    * @param  intervalDurationMs  The duration of the interval in milliseconds.
-   * @param  perInterval  The target number of times that {@link #await} should
-   *                      return per interval.
+   * @param  perInterval         The target number of times that
+   *                             {@link #await} should return per interval.
+   * @param  skipMissedReleases  Indicates whether to skip releases that were
+   *                             missed when the callers have fallen more than
+   *                             a full interval behind schedule.  If this is
+   *                             {@code true}, then the schedule will be
+   *                             restarted from the current time in that case.
+   *                             If it is {@code false}, then callers will be
+   *                             released immediately until they have caught
+   *                             up, regardless of how far behind they are.
    */
-  public FixedRateBarrier(final long intervalDurationMs, final int perInterval)
+  public FixedRateBarrier(final long intervalDurationMs, final int perInterval,
+                          final boolean skipMissedReleases)
   {
+    this.skipMissedReleases = skipMissedReleases;
+
+    skippedReleases = new AtomicLong(0L);
     setRate(intervalDurationMs, perInterval);
   }
 
@@ -175,30 +166,21 @@ public final class FixedRateBarrier
 
   /**
    * Updates the rates associated with this FixedRateBarrier.  The new rate
-   * will be in effect when this method returns.
+   * will be in effect when this method returns.  Any threads that are waiting
+   * to be released at the old rate will be rescheduled at the new rate.
    *
    * @param  intervalDurationMs  The duration of the interval in milliseconds.
    * @param  perInterval  The target number of times that {@link #await} should
    *                      return per interval.
    */
-  public synchronized void setRate(final long intervalDurationMs,
-                                   final int perInterval)
+  public void setRate(final long intervalDurationMs, final int perInterval)
   {
     Validator.ensureTrue(intervalDurationMs > 0,
          "FixedRateBarrier.intervalDurationMs must be at least 1.");
     Validator.ensureTrue(perInterval > 0,
          "FixedRateBarrier.perInterval must be at least 1.");
 
-    this.perInterval = perInterval;
-
-    intervalDurationNanos = 1000L * 1000L * intervalDurationMs;
-
-    millisBetweenIterations = (double)intervalDurationMs/(double)perInterval;
-
-    // Reset the intervals and all of the counters.
-    countInThisInterval = 0;
-    intervalStartNanos = 0;
-    intervalEndNanos = 0;
+    schedule = new Schedule(intervalDurationMs, perInterval);
   }
 
 
@@ -212,102 +194,140 @@ public final class FixedRateBarrier
    * @return  {@code true} if shutdown has been requested and {@code} false
    *          otherwise.
    */
-  public synchronized boolean await()
+  public boolean await()
   {
-    // Loop forever until we are requested to shutdown or it is time to perform
-    // the next 'action' in which case we break from the loop.
-    while (!shutdownRequested)
-    {
-      final long now = System.nanoTime();
+    return await(1);
+  }
+
+
+
+  /**
+   * This method reserves the specified number of consecutive 'actions', and
+   * waits until it is time for the first of them to be performed.  The caller
+   * may then perform all of them without waiting again, which allows the cost
+   * of waiting to be shared by all of the actions in the batch.  The overall
+   * rate will still match the target rate, but the actions in each batch will
+   * not be evenly spaced.  This method can be called by multiple threads
+   * simultaneously.  This method returns immediately if shutdown has been
+   * requested.
+   *
+   * @param  permits  The number of actions to reserve.  It must be greater
+   *                  than zero.
+   *
+   * @return  {@code true} if shutdown has been requested and {@code} false
+   *          otherwise.
+   */
+  public boolean await(final int permits)
+  {
+    awaitScheduledTime(permits);
+    return shutdownRequested;
+  }
 
-      if ((intervalStartNanos == 0) ||   // Handles the first time we're called.
-          (now < intervalStartNanos))    // Handles a change in the clock.
+
+
+  /**
+   * Waits until it is time for the next 'action' to be performed in the same
+   * way as the {@link #await} method, and then retrieves the time at which
+   * that action was scheduled to be performed.  If the barrier has fallen
+   * behind schedule (for example, because the threads calling this method were
+   * busy waiting for earlier actions to complete), then the scheduled time will
+   * be earlier than the time that this method returns.  Measuring response
+   * times from the scheduled time rather than from the time the request is
+   * actually sent ensures that any time requests spend waiting to be sent is
+   * reflected in those response times.
+   *
+   * @return  The time, in terms of {@code System.nanoTime()}, at which the
+   *          action was scheduled to be performed, or the current time if
+   *          shutdown has been requested.
+   */
+  public long awaitScheduledTime()
+  {
+    return awaitScheduledTime(1);
+  }
+
+
+
+  /**
+   * Reserves the specified number of consecutive 'actions' and waits until it
+   * is time for the first of them to be performed in the same way as the
+   * {@link #await(int)} method, and then retrieves the time at which that
+   * action was scheduled to be performed.  The remaining actions in the batch
+   * were scheduled to be performed at evenly spaced times after that, at the
+   * target rate.
+   *
+   * @param  permits  The number of actions to reserve.  It must be greater
+   *                  than zero.
+   *
+   * @return  The time, in terms of {@code System.nanoTime()}, at which the
+   *          first action in the batch was scheduled to be performed, or the
+   *          current time if shutdown has been requested.
+   */
+  public long awaitScheduledTime(final int permits)
+  {
+    Validator.ensureTrue(permits > 0,
+         "FixedRateBarrier.permits must be at least 1.");
+
+    while (! shutdownRequested)
+    {
+      final Schedule s = schedule;
+      final long releaseTime =
+           s.reserve(permits, skipMissedReleases, skippedReleases);
+      if (waitUntil(releaseTime, s))
       {
-        intervalStartNanos = now;
-        intervalEndNanos = intervalStartNanos + intervalDurationNanos;
+        return releaseTime;
       }
-      else if (now >= intervalEndNanos)  // End of an interval.
-      {
-        countInThisInterval = 0;
+    }
+
+    return System.nanoTime();
+  }
 
-        if (now < (intervalEndNanos + intervalDurationNanos))
-        {
-          // If we have already passed the end of the next interval, then we
-          // don't try to catch up.  Instead we just reset the start of the
-          // next interval to now.  This could happen if the system clock
-          // was set to the future, we're running in a debugger, or we have
-          // very short intervals and are unable to keep up.
-          intervalStartNanos = now;
-        }
-        else
-        {
-          // Usually we're some small fraction into the next interval, so
-          // we set the start of the current interval to the end of the
-          // previous one.
-          intervalStartNanos = intervalEndNanos;
-        }
-        intervalEndNanos = intervalStartNanos + intervalDurationNanos;
-      }
 
-      final long intervalRemaining = intervalEndNanos - now;
-      if (intervalRemaining <= 0)
+
+  /**
+   * Waits until the specified time, unless shutdown is requested or the rate
+   * is changed first.
+   *
+   * @param  releaseTime  The time, in terms of {@code System.nanoTime()}, until
+   *                      which to wait.
+   * @param  s            The schedule from which the release time was
+   *                      reserved.
+   *
+   * @return  {@code true} if the release time has been reached (or the thread
+   *          was interrupted), or {@code false} if shutdown was requested or
+   *          the rate was changed before that time.
+   */
+  private boolean waitUntil(final long releaseTime, final Schedule s)
+  {
+    while (true)
+    {
+      final long remainingNanos = releaseTime - System.nanoTime();
+      if (remainingNanos <= 0L)
       {
-        // This shouldn't happen, but we're careful not to divide by 0.
-        continue;
+        return true;
       }
 
-      final double intervalFractionRemaining =
-           (double) intervalRemaining / intervalDurationNanos;
+      if (shutdownRequested || (schedule != s))
+      {
+        return false;
+      }
 
-      final double expectedRemaining = intervalFractionRemaining * perInterval;
-      final long actualRemaining = perInterval - countInThisInterval;
+      if (Thread.currentThread().isInterrupted())
+      {
+        // Don't spin while interrupted, since parking would return
+        // immediately.  Just release the caller.
+        return true;
+      }
 
-      if (actualRemaining >= expectedRemaining)
+      if (remainingNanos > SPIN_NANOS)
       {
-        // We are on schedule or behind schedule so let the next 'action'
-        // happen.
-        countInThisInterval++;
-        break;
+        LockSupport.parkNanos(
+             Math.min((remainingNanos - SPIN_NANOS), MAX_PARK_NANOS));
       }
       else
       {
-        // If we can sleep until it's time to leave this barrier, then do
-        // so to keep from spinning on a CPU doing Thread.yield().
-
-        final double gapIterations = expectedRemaining - actualRemaining;
-        final long remainingMillis =
-             (long) Math.floor(millisBetweenIterations * gapIterations);
-
-        if (remainingMillis >= minSleepMillis)
-        {
-          // Cap how long we sleep so that we can respond to a change in the
-          // rate without too much delay.
-          final long waitTime = Math.min(remainingMillis, 10);
-          try
-          {
-            // We need to wait here instead of Thread.sleep so that we don't
-            // block setRate.
-            this.wait(waitTime);
-          }
-          catch (final InterruptedException e)
-          {
-            debugException(e);
-            Thread.currentThread().interrupt();
-            return shutdownRequested;
-          }
-        }
-        else
-        {
-          // We're ahead of schedule so yield to other threads, and then try
-          // again.  Note: this is the most costly part of the algorithm because
-          // we have to busy wait due to the lack of sleeping for very small
-          // amounts of time.
-          Thread.yield();
-        }
+        Thread.yield();
       }
     }
-
-    return shutdownRequested;
   }
 
 
@@ -321,11 +341,23 @@ public final class FixedRateBarrier
    *
    * @return  Information about hte current target rate for this barrier.
    */
-  public synchronized ObjectPair<Long,Integer> getTargetRate()
+  public ObjectPair<Long,Integer> getTargetRate()
+  {
+    return schedule.targetRate;
+  }
+
+
+
+  /**
+   * Retrieves the number of releases that have been skipped because the
+   * callers fell more than a full interval behind schedule.  This will always
+   * be zero unless the barrier was created to skip missed releases.
+   *
+   * @return  The number of releases that have been skipped.
+   */
+  public long getSkippedReleaseCount()
   {
-    return new ObjectPair<Long,Integer>(
-         (intervalDurationNanos / (1000L * 1000L)),
-         perInterval);
+    return skippedReleases.get();
   }
 
 
@@ -350,4 +382,117 @@ public final class FixedRateBarrier
   {
     return shutdownRequested;
   }
+
+
+
+  /**
+   * This class holds the release schedule for a single target rate.  Release
+   * times are kept as fixed-point values relative to the time the schedule was
+   * created, so that rates that do not evenly divide the interval duration
+   * in nanoseconds do not accumulate rounding errors.
+   */
+  private static final class Schedule
+          implements Serializable
+  {
+    /**
+     * The number of fractional bits in the fixed-point release times.  This
+     * allows a schedule to be used for over a year before the release times
+     * would overflow.
+     */
+    private static final int FRACTION_BITS = 8;
+
+
+
+    /**
+     * The serial version UID for this serializable class.
+     */
+    private static final long serialVersionUID = -1638016402932154837L;
+
+
+
+    // The next release time that has not been reserved, as a fixed-point
+    // value relative to the origin.
+    private final AtomicLong nextRelease;
+
+    // The fixed-point length of time between releases.
+    private final long releaseSpacing;
+
+    // The fixed-point length of time that callers may fall behind schedule
+    // before the schedule is restarted, if missed releases are to be skipped.
+    private final long maxLag;
+
+    // The time, in terms of System.nanoTime(), at which the schedule was
+    // created.
+    private final long originNanos;
+
+    // The target rate for this schedule.
+    private final ObjectPair<Long,Integer> targetRate;
+
+
+
+    /**
+     * Creates a new schedule for the specified rate, in which the first
+     * release will occur immediately.
+     *
+     * @param  intervalDurationMs  The duration of the interval in
+     *                             milliseconds.
+     * @param  perInterval         The target number of releases per interval.
+     */
+    Schedule(final long intervalDurationMs, final int perInterval)
+    {
+      final long intervalDurationNanos = 1000L * 1000L * intervalDurationMs;
+
+      maxLag         = intervalDurationNanos << FRACTION_BITS;
+      releaseSpacing = maxLag / perInterval;
+      originNanos    = System.nanoTime();
+      nextRelease    = new AtomicLong(0L);
+      targetRate     =
+           new ObjectPair<Long,Integer>(intervalDurationMs, perInterval);
+    }
+
+
+
+    /**
+     * Reserves the specified number of consecutive releases.
+     *
+     * @param  permits          The number of releases to reserve.
+     * @param  skipMissed       Indicates whether to restart the schedule from
+     *                          the current time if the callers have fallen
+     *                          more than a full interval behind.
+     * @param  skippedReleases  The counter to update with the number of
+     *                          releases skipped when the schedule is
+     *                          restarted.
+     *
+     * @return  The time, in terms of {@code System.nanoTime()}, of the first
+     *          release that was reserved.
+     */
+    long reserve(final int permits, final boolean skipMissed,
+                 final AtomicLong skippedReleases)
+    {
+      final long increment = releaseSpacing * permits;
+      while (true)
+      {
+        final long next = nextRelease.get();
+        final long now = (System.nanoTime() - originNanos) << FRACTION_BITS;
+
+        // Normally, we keep every missed release so that the callers will be
+        // released immediately until they catch up.  If we have been asked to
+        // skip missed releases and have fallen more than a full interval
+        // behind, then we restart the schedule from now instead.  This could
+        // happen if the barrier has been idle for a while, or if the callers
+        // are unable to keep up with the target rate.
+        final boolean restart = skipMissed && ((now - next) > maxLag);
+        final long release = restart ? now : next;
+        if (nextRelease.compareAndSet(next, (release + increment)))
+        {
+          if (restart)
+          {
+            skippedReleases.addAndGet((now - next) / releaseSpacing);
+          }
+
+          return originNanos + (release >> FRACTION_BITS);
+        }
+      }
+    }
+  }
 }
@@ -48,6 +48,9 @@ final class HTTPValuePatternComponent
 
 
 
+  // The UTF-8 representations of the lines that make up the data file.
+  private final byte[][] lineBytes;
+
   // The lines that make up the data file.
   private final String[] lines;
 
@@ -110,6 +113,12 @@ final class HTTPValuePatternComponent
 
     lines = new String[lineList.size()];
     lineList.toArray(lines);
+
+    lineBytes = new byte[lines.length][];
+    for (int i=0; i < lines.length; i++)
+    {
+      lineBytes[i] = StaticUtils.getBytes(lines[i]);
+    }
   }
 
 
@@ -119,6 +128,29 @@ final class HTTPValuePatternComponent
    */
   @Override()
   void append(final StringBuilder buffer)
+  {
+    buffer.append(lines[nextIndex()]);
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  void append(final ByteStringBuffer buffer)
+  {
+    buffer.append(lineBytes[nextIndex()]);
+  }
+
+
+
+  /**
+   * Retrieves the index of the line to use for the next value.
+   *
+   * @return  The index of the line to use for the next value.
+   */
+  private int nextIndex()
   {
     Random r = random.get();
     if (r == null)
@@ -127,7 +159,7 @@ final class HTTPValuePatternComponent
       random.set(r);
     }
 
-    buffer.append(lines[r.nextInt(lines.length)]);
+    return r.nextInt(lines.length);
   }
 
 
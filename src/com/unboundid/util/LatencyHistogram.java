@@ -0,0 +1,635 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util;
+
+
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.unboundid.asn1.ASN1Element;
+import com.unboundid.asn1.ASN1Long;
+import com.unboundid.asn1.ASN1Sequence;
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.ldap.sdk.ResultCode;
+
+import static com.unboundid.util.UtilityMessages.*;
+import static com.unboundid.util.Validator.*;
+
+
+
+/**
+ * This class provides a histogram that may be used to record a large number
+ * of non-negative values (typically latencies in nanoseconds) with a fixed
+ * amount of memory, and to compute percentiles from them.  Values less than
+ * 128 are recorded exactly.  Larger values are recorded in buckets whose width
+ * is at most 1/64 of their lower bound, so any percentile that is computed from
+ * the histogram will be within about 1.6 percent of the actual value.
+ * <BR><BR>
+ * All of the methods in this class may be called concurrently, and recording a
+ * value does not require any locking.  A common usage pattern is for each
+ * thread to record values in its own histogram, and for some other thread to
+ * periodically use the {@link #transferFrom} method to move the values from
+ * each of those histograms into a single histogram for reporting.
+ * <BR><BR>
+ * A histogram may also be encoded as an ASN.1 element so that it can be sent
+ * to another process, and the decoded histogram will be identical to the
+ * original one.  This makes it possible to merge histograms that were recorded
+ * by several processes.
+ */
+@Mutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class LatencyHistogram
+       implements Serializable
+{
+  /**
+   * The number of bits used to select a bucket within each power of two.
+   */
+  private static final int SUB_BUCKET_BITS = 6;
+
+
+
+  /**
+   * The number of buckets for each power of two.
+   */
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+
+
+  /**
+   * The smallest value that will not be recorded exactly.
+   */
+  private static final int LINEAR_LIMIT = 2 * SUB_BUCKET_COUNT;
+
+
+
+  /**
+   * The magnitude (that is, the position of the highest bit set) of the
+   * smallest value that will not be recorded exactly.
+   */
+  private static final int MIN_MAGNITUDE = SUB_BUCKET_BITS + 1;
+
+
+
+  /**
+   * The total number of buckets in the histogram.
+   */
+  private static final int NUM_BUCKETS =
+       LINEAR_LIMIT + ((63 - MIN_MAGNITUDE) * SUB_BUCKET_COUNT);
+
+
+
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = -4382815917470519335L;
+
+
+
+  // The number of values recorded in each bucket.
+  private final AtomicLongArray bucketCounts;
+
+  // The largest value that has been recorded.
+  private final AtomicLong maxValue;
+
+  // The smallest value that has been recorded.
+  private final AtomicLong minValue;
+
+  // The total number of values that have been recorded.
+  private final AtomicLong totalCount;
+
+  // The sum of all of the values that have been recorded.
+  private final AtomicLong totalValue;
+
+
+
+  /**
+   * Creates a new empty histogram.
+   */
+  public LatencyHistogram()
+  {
+    bucketCounts = new AtomicLongArray(NUM_BUCKETS);
+    maxValue     = new AtomicLong(0L);
+    minValue     = new AtomicLong(Long.MAX_VALUE);
+    totalCount   = new AtomicLong(0L);
+    totalValue   = new AtomicLong(0L);
+  }
+
+
+
+  /**
+   * Records the provided value in this histogram.
+   *
+   * @param  value  The value to record.  If it is negative, then a value of
+   *                zero will be recorded.
+   */
+  public void recordValue(final long value)
+  {
+    final long v = Math.max(0L, value);
+
+    bucketCounts.incrementAndGet(getBucketIndex(v));
+    totalCount.incrementAndGet();
+    totalValue.addAndGet(v);
+    updateMinAndMax(v, v);
+  }
+
+
+
+  /**
+   * Adds all of the values recorded in the provided histogram to this
+   * histogram.  The provided histogram will not be altered.
+   *
+   * @param  histogram  The histogram whose values should be added to this
+   *                    histogram.  It must not be {@code null}.
+   */
+  public void add(final LatencyHistogram histogram)
+  {
+    ensureNotNull(histogram);
+
+    long count = 0L;
+    for (int i=0; i < NUM_BUCKETS; i++)
+    {
+      final long c = histogram.bucketCounts.get(i);
+      if (c != 0L)
+      {
+        bucketCounts.addAndGet(i, c);
+        count += c;
+      }
+    }
+
+    if (count > 0L)
+    {
+      totalCount.addAndGet(count);
+      totalValue.addAndGet(histogram.totalValue.get());
+      updateMinAndMax(histogram.minValue.get(), histogram.maxValue.get());
+    }
+  }
+
+
+
+  /**
+   * Moves all of the values recorded in the provided histogram into this
+   * histogram, leaving the provided histogram empty.  Values may continue to be
+   * recorded in the provided histogram while this method is in progress.  Each
+   * of them will end up in exactly one of the histograms, although the minimum,
+   * maximum, and sum for a value recorded concurrently with this method may be
+   * reflected in the other histogram.
+   *
+   * @param  histogram  The histogram whose values should be moved into this
+   *                    histogram.  It must not be {@code null}.
+   */
+  public void transferFrom(final LatencyHistogram histogram)
+  {
+    ensureNotNull(histogram);
+
+    final long min = histogram.minValue.getAndSet(Long.MAX_VALUE);
+    final long max = histogram.maxValue.getAndSet(0L);
+    final long sum = histogram.totalValue.getAndSet(0L);
+
+    long count = 0L;
+    for (int i=0; i < NUM_BUCKETS; i++)
+    {
+      if (histogram.bucketCounts.get(i) != 0L)
+      {
+        final long c = histogram.bucketCounts.getAndSet(i, 0L);
+        bucketCounts.addAndGet(i, c);
+        count += c;
+      }
+    }
+
+    histogram.totalCount.addAndGet(-count);
+    if (count > 0L)
+    {
+      totalCount.addAndGet(count);
+      totalValue.addAndGet(sum);
+      updateMinAndMax(min, max);
+    }
+  }
+
+
+
+  /**
+   * Removes all of the values recorded in this histogram.
+   */
+  public void reset()
+  {
+    for (int i=0; i < NUM_BUCKETS; i++)
+    {
+      bucketCounts.set(i, 0L);
+    }
+
+    totalCount.set(0L);
+    totalValue.set(0L);
+    minValue.set(Long.MAX_VALUE);
+    maxValue.set(0L);
+  }
+
+
+
+  /**
+   * Retrieves the number of values that have been recorded in this histogram.
+   *
+   * @return  The number of values that have been recorded in this histogram.
+   */
+  public long getCount()
+  {
+    return totalCount.get();
+  }
+
+
+
+  /**
+   * Retrieves the smallest value that has been recorded in this histogram.
+   *
+   * @return  The smallest value that has been recorded in this histogram, or
+   *          zero if no values have been recorded.
+   */
+  public long getMinValue()
+  {
+    final long min = minValue.get();
+    if (min == Long.MAX_VALUE)
+    {
+      return 0L;
+    }
+    else
+    {
+      return min;
+    }
+  }
+
+
+
+  /**
+   * Retrieves the largest value that has been recorded in this histogram.
+   *
+   * @return  The largest value that has been recorded in this histogram, or
+   *          zero if no values have been recorded.
+   */
+  public long getMaxValue()
+  {
+    return maxValue.get();
+  }
+
+
+
+  /**
+   * Retrieves the average of the values that have been recorded in this
+   * histogram.
+   *
+   * @return  The average of the values that have been recorded in this
+   *          histogram, or zero if no values have been recorded.
+   */
+  public double getMeanValue()
+  {
+    final long count = totalCount.get();
+    if (count <= 0L)
+    {
+      return 0.0d;
+    }
+    else
+    {
+      return (1.0d * totalValue.get() / count);
+    }
+  }
+
+
+
+  /**
+   * Retrieves an approximation of the value at the specified percentile.  The
+   * value returned will be the largest value that would have been recorded in
+   * the same bucket as the value at that percentile, or the largest value
+   * recorded in the histogram if that is smaller.
+   *
+   * @param  percentile  The percentile to retrieve.  It must be greater than
+   *                     or equal to zero and less than or equal to 100.
+   *
+   * @return  An approximation of the value at the specified percentile, or zero
+   *          if no values have been recorded.
+   */
+  public long getValueAtPercentile(final double percentile)
+  {
+    ensureTrue(((percentile >= 0.0d) && (percentile <= 100.0d)),
+         "LatencyHistogram.getValueAtPercentile.percentile must be between " +
+              "0 and 100.");
+
+    long count = 0L;
+    for (int i=0; i < NUM_BUCKETS; i++)
+    {
+      count += bucketCounts.get(i);
+    }
+
+    if (count <= 0L)
+    {
+      return 0L;
+    }
+
+    final long target =
+         Math.max(1L, (long) Math.ceil(percentile / 100.0d * count));
+
+    long cumulativeCount = 0L;
+    for (int i=0; i < NUM_BUCKETS; i++)
+    {
+      cumulativeCount += bucketCounts.get(i);
+      if (cumulativeCount >= target)
+      {
+        return Math.min(getBucketUpperBound(i), maxValue.get());
+      }
+    }
+
+    return maxValue.get();
+  }
+
+
+
+  /**
+   * Retrieves the number of values recorded in each of the non-empty buckets
+   * in this histogram.
+   *
+   * @return  A map of the number of values recorded in each of the non-empty
+   *          buckets in this histogram, in ascending order.  The key for each
+   *          entry will be the smallest value that would be recorded in that
+   *          bucket.
+   */
+  public Map<Long,Long> getBucketCounts()
+  {
+    final LinkedHashMap<Long,Long> m = new LinkedHashMap<Long,Long>(100);
+    for (int i=0; i < NUM_BUCKETS; i++)
+    {
+      final long c = bucketCounts.get(i);
+      if (c != 0L)
+      {
+        m.put(getBucketLowerBound(i), c);
+      }
+    }
+
+    return Collections.unmodifiableMap(m);
+  }
+
+
+
+  /**
+   * Encodes the values recorded in this histogram as an ASN.1 element.  If
+   * values are recorded concurrently with this method, then they may or may
+   * not be reflected in the encoded histogram.
+   *
+   * @return  The ASN.1 element containing the encoded histogram.
+   */
+  public ASN1Element encode()
+  {
+    final ArrayList<ASN1Element> bucketElements =
+         new ArrayList<ASN1Element>(100);
+    for (int i=0; i < NUM_BUCKETS; i++)
+    {
+      final long c = bucketCounts.get(i);
+      if (c != 0L)
+      {
+        bucketElements.add(new ASN1Long(getBucketLowerBound(i)));
+        bucketElements.add(new ASN1Long(c));
+      }
+    }
+
+    return new ASN1Sequence(
+         new ASN1Long(totalValue.get()),
+         new ASN1Long(minValue.get()),
+         new ASN1Long(maxValue.get()),
+         new ASN1Sequence(bucketElements));
+  }
+
+
+
+  /**
+   * Decodes the provided ASN.1 element as a latency histogram.
+   *
+   * @param  element  The ASN.1 element to be decoded.  It must not be
+   *                  {@code null}.
+   *
+   * @return  The decoded latency histogram.
+   *
+   * @throws  LDAPException  If the provided element cannot be decoded as a
+   *                         latency histogram.
+   */
+  public static LatencyHistogram decode(final ASN1Element element)
+         throws LDAPException
+  {
+    ensureNotNull(element);
+
+    try
+    {
+      final ASN1Element[] elements =
+           ASN1Sequence.decodeAsSequence(element).elements();
+      final ASN1Element[] bucketElements =
+           ASN1Sequence.decodeAsSequence(elements[3]).elements();
+      if ((bucketElements.length % 2) != 0)
+      {
+        throw new LDAPException(ResultCode.DECODING_ERROR,
+             ERR_LATENCY_HISTOGRAM_INVALID_BUCKETS.get());
+      }
+
+      final LatencyHistogram h = new LatencyHistogram();
+      long count = 0L;
+      for (int i=0; i < bucketElements.length; i += 2)
+      {
+        final long lowerBound =
+             ASN1Long.decodeAsLong(bucketElements[i]).longValue();
+        final long c = ASN1Long.decodeAsLong(bucketElements[i+1]).longValue();
+        if ((lowerBound < 0L) || (c < 0L))
+        {
+          throw new LDAPException(ResultCode.DECODING_ERROR,
+               ERR_LATENCY_HISTOGRAM_INVALID_BUCKETS.get());
+        }
+
+        h.bucketCounts.addAndGet(getBucketIndex(lowerBound), c);
+        count += c;
+      }
+
+      h.totalCount.set(count);
+      h.totalValue.set(ASN1Long.decodeAsLong(elements[0]).longValue());
+      h.minValue.set(ASN1Long.decodeAsLong(elements[1]).longValue());
+      h.maxValue.set(ASN1Long.decodeAsLong(elements[2]).longValue());
+      return h;
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      throw le;
+    }
+    catch (final Exception e)
+    {
+      Debug.debugException(e);
+      throw new LDAPException(ResultCode.DECODING_ERROR,
+           ERR_LATENCY_HISTOGRAM_CANNOT_DECODE.get(
+                StaticUtils.getExceptionMessage(e)),
+           e);
+    }
+  }
+
+
+
+  /**
+   * Updates the minimum and maximum values for this histogram, if appropriate.
+   *
+   * @param  min  A value that should be used as the minimum if it is smaller
+   *              than the current minimum.
+   * @param  max  A value that should be used as the maximum if it is larger
+   *              than the current maximum.
+   */
+  private void updateMinAndMax(final long min, final long max)
+  {
+    while (true)
+    {
+      final long currentMin = minValue.get();
+      if ((min >= currentMin) || minValue.compareAndSet(currentMin, min))
+      {
+        break;
+      }
+    }
+
+    while (true)
+    {
+      final long currentMax = maxValue.get();
+      if ((max <= currentMax) || maxValue.compareAndSet(currentMax, max))
+      {
+        break;
+      }
+    }
+  }
+
+
+
+  /**
+   * Retrieves the index of the bucket in which the provided value should be
+   * recorded.
+   *
+   * @param  value  The value for which to retrieve the bucket index.  It must
+   *                not be negative.
+   *
+   * @return  The index of the bucket in which the provided value should be
+   *          recorded.
+   */
+  static int getBucketIndex(final long value)
+  {
+    if (value < LINEAR_LIMIT)
+    {
+      return (int) value;
+    }
+
+    final int magnitude = 63 - Long.numberOfLeadingZeros(value);
+    final int shift = magnitude - SUB_BUCKET_BITS;
+    final int subBucket = (int) ((value >>> shift) & (SUB_BUCKET_COUNT - 1));
+    return LINEAR_LIMIT + ((magnitude - MIN_MAGNITUDE) * SUB_BUCKET_COUNT) +
+         subBucket;
+  }
+
+
+
+  /**
+   * Retrieves the smallest value that would be recorded in the specified
+   * bucket.
+   *
+   * @param  index  The index of the bucket for which to make the
+   *                determination.
+   *
+   * @return  The smallest value that would be recorded in the specified
+   *          bucket.
+   */
+  static long getBucketLowerBound(final int index)
+  {
+    if (index < LINEAR_LIMIT)
+    {
+      return index;
+    }
+
+    final int i = index - LINEAR_LIMIT;
+    final int shift =
+         (MIN_MAGNITUDE + (i / SUB_BUCKET_COUNT)) - SUB_BUCKET_BITS;
+    return (((long) SUB_BUCKET_COUNT) + (i % SUB_BUCKET_COUNT)) << shift;
+  }
+
+
+
+  /**
+   * Retrieves the largest value that would be recorded in the specified
+   * bucket.
+   *
+   * @param  index  The index of the bucket for which to make the
+   *                determination.
+   *
+   * @return  The largest value that would be recorded in the specified bucket.
+   */
+  static long getBucketUpperBound(final int index)
+  {
+    if (index < LINEAR_LIMIT)
+    {
+      return index;
+    }
+
+    final int i = index - LINEAR_LIMIT;
+    final int shift =
+         (MIN_MAGNITUDE + (i / SUB_BUCKET_COUNT)) - SUB_BUCKET_BITS;
+    return getBucketLowerBound(index) + ((1L << shift) - 1L);
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this histogram.
+   *
+   * @return  A string representation of this histogram.
+   */
+  @Override()
+  public String toString()
+  {
+    final StringBuilder buffer = new StringBuilder();
+    toString(buffer);
+    return buffer.toString();
+  }
+
+
+
+  /**
+   * Appends a string representation of this histogram to the provided buffer.
+   *
+   * @param  buffer  The buffer to which the information should be appended.
+   */
+  public void toString(final StringBuilder buffer)
+  {
+    buffer.append("LatencyHistogram(count=");
+    buffer.append(getCount());
+    buffer.append(", min=");
+    buffer.append(getMinValue());
+    buffer.append(", p50=");
+    buffer.append(getValueAtPercentile(50.0d));
+    buffer.append(", p90=");
+    buffer.append(getValueAtPercentile(90.0d));
+    buffer.append(", p99=");
+    buffer.append(getValueAtPercentile(99.0d));
+    buffer.append(", p99.9=");
+    buffer.append(getValueAtPercentile(99.9d));
+    buffer.append(", max=");
+    buffer.append(getMaxValue());
+    buffer.append(')');
+  }
+}
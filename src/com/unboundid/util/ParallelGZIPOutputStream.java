@@ -0,0 +1,462 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util;
+
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import static com.unboundid.util.UtilityMessages.*;
+
+
+
+/**
+ * This class provides an output stream implementation that compresses data
+ * using gzip, with the compression performed in parallel by a number of
+ * background threads.  Data written to this stream is divided into blocks of a
+ * fixed size, and each block is compressed independently into a separate gzip
+ * member.  The compressed members are written to the wrapped output stream in
+ * the same order as the blocks they were created from, and the resulting
+ * output is a valid multi-member gzip stream that can be read with a
+ * {@code java.util.zip.GZIPInputStream} or the gzip command-line utility.
+ * <BR><BR>
+ * Because each block is compressed without any knowledge of the data in the
+ * blocks that preceded it, the compression ratio may be slightly lower than
+ * that of a {@code GZIPOutputStream}, particularly for small block sizes.  The
+ * number of blocks that may be awaiting compression or waiting to be written
+ * is limited, so that writing to this stream will block if the wrapped output
+ * stream is not able to keep up.
+ */
+@ThreadSafety(level=ThreadSafetyLevel.NOT_THREADSAFE)
+public final class ParallelGZIPOutputStream
+       extends OutputStream
+{
+  /**
+   * The default size in bytes for the blocks of data to compress.
+   */
+  public static final int DEFAULT_BLOCK_SIZE = 256 * 1024;
+
+
+
+  // The compressed size of all blocks that have been written.
+  private final AtomicLong compressedBytes;
+
+  // The total time in nanoseconds that the compression threads have spent
+  // compressing data.
+  private final AtomicLong compressionNanos;
+
+  // The buffer holding the data for the current block.
+  private byte[] block;
+
+  // Indicates whether this stream has been closed.
+  private boolean closed;
+
+  // The number of bytes in the current block.
+  private int blockLength;
+
+  // The size of each block of data to compress.
+  private final int blockSize;
+
+  // The maximum number of blocks that may be awaiting compression or waiting to
+  // be written at any time.
+  private final int maxPendingBlocks;
+
+  // The blocks that are being compressed or are waiting to be written, in the
+  // order in which they must be written.
+  private final LinkedList<Future<byte[]>> pendingBlocks;
+
+  // The number of uncompressed bytes that have been written to this stream.
+  private long uncompressedBytes;
+
+  // The number of compressed blocks that have been written.
+  private long numBlocksWritten;
+
+  // The executor used to compress blocks.
+  private final ExecutorService executor;
+
+  // The output stream to which compressed data will be written.
+  private final OutputStream outputStream;
+
+
+
+  /**
+   * Creates a new parallel gzip output stream that will write compressed data
+   * to the provided output stream using the default block size.
+   *
+   * @param  outputStream  The output stream to which compressed data will be
+   *                       written.  It must not be {@code null}.
+   * @param  numThreads    The number of threads to use to compress data.  It
+   *                       must be greater than zero.
+   */
+  public ParallelGZIPOutputStream(final OutputStream outputStream,
+                                  final int numThreads)
+  {
+    this(outputStream, numThreads, DEFAULT_BLOCK_SIZE);
+  }
+
+
+
+  /**
+   * Creates a new parallel gzip output stream that will write compressed data
+   * to the provided output stream.
+   *
+   * @param  outputStream  The output stream to which compressed data will be
+   *                       written.  It must not be {@code null}.
+   * @param  numThreads    The number of threads to use to compress data.  It
+   *                       must be greater than zero.
+   * @param  blockSize     The size in bytes of the blocks of data to compress.
+   *                       It must be greater than zero.
+   */
+  public ParallelGZIPOutputStream(final OutputStream outputStream,
+                                  final int numThreads, final int blockSize)
+  {
+    Validator.ensureNotNull(outputStream);
+    Validator.ensureTrue(numThreads > 0);
+    Validator.ensureTrue(blockSize > 0);
+
+    this.outputStream = outputStream;
+    this.blockSize    = blockSize;
+
+    maxPendingBlocks = 2 * numThreads;
+    pendingBlocks    = new LinkedList<Future<byte[]>>();
+    executor         = Executors.newFixedThreadPool(numThreads,
+         new LDAPSDKThreadFactory("ParallelGZIPOutputStream", true));
+
+    compressedBytes   = new AtomicLong(0L);
+    compressionNanos  = new AtomicLong(0L);
+    block             = new byte[blockSize];
+    blockLength       = 0;
+    uncompressedBytes = 0L;
+    numBlocksWritten  = 0L;
+    closed            = false;
+  }
+
+
+
+  /**
+   * Writes the provided byte to this output stream.
+   *
+   * @param  b  The byte to be written.
+   *
+   * @throws  IOException  If a problem occurs while compressing or writing
+   *                       data.
+   */
+  @Override()
+  public void write(final int b)
+         throws IOException
+  {
+    ensureOpen();
+
+    block[blockLength++] = (byte) b;
+    uncompressedBytes++;
+    if (blockLength == blockSize)
+    {
+      submitBlock();
+    }
+  }
+
+
+
+  /**
+   * Writes the contents of the provided array to this output stream.
+   *
+   * @param  b  The byte array containing the data to be written.
+   *
+   * @throws  IOException  If a problem occurs while compressing or writing
+   *                       data.
+   */
+  @Override()
+  public void write(final byte[] b)
+         throws IOException
+  {
+    write(b, 0, b.length);
+  }
+
+
+
+  /**
+   * Writes the contents of the specified portion of the provided array to this
+   * output stream.
+   *
+   * @param  b    The byte array containing the data to be written.
+   * @param  off  The offset within the array at which the data begins.
+   * @param  len  The number of bytes to be written.
+   *
+   * @throws  IOException  If a problem occurs while compressing or writing
+   *                       data.
+   */
+  @Override()
+  public void write(final byte[] b, final int off, final int len)
+         throws IOException
+  {
+    ensureOpen();
+    if ((off < 0) || (len < 0) || (off + len > b.length))
+    {
+      throw new IndexOutOfBoundsException();
+    }
+
+    int pos = off;
+    int remaining = len;
+    while (remaining > 0)
+    {
+      final int n = Math.min(remaining, (blockSize - blockLength));
+      System.arraycopy(b, pos, block, blockLength, n);
+      blockLength += n;
+      pos += n;
+      remaining -= n;
+
+      if (blockLength == blockSize)
+      {
+        submitBlock();
+      }
+    }
+
+    uncompressedBytes += len;
+  }
+
+
+
+  /**
+   * Compresses any data that has been written but not yet compressed, waits
+   * for all compressed data to be written, and flushes the wrapped output
+   * stream.  Because the data held when this method is called will be
+   * compressed as a separate block, calling it frequently may reduce the
+   * compression ratio.
+   *
+   * @throws  IOException  If a problem occurs while compressing or writing
+   *                       data.
+   */
+  @Override()
+  public void flush()
+         throws IOException
+  {
+    ensureOpen();
+
+    if (blockLength > 0)
+    {
+      submitBlock();
+    }
+
+    while (! pendingBlocks.isEmpty())
+    {
+      writeNextBlock();
+    }
+
+    outputStream.flush();
+  }
+
+
+
+  /**
+   * Compresses and writes any remaining data and closes this output stream and
+   * the wrapped output stream.
+   *
+   * @throws  IOException  If a problem occurs while compressing or writing
+   *                       data, or while closing the wrapped output stream.
+   */
+  @Override()
+  public void close()
+         throws IOException
+  {
+    if (closed)
+    {
+      return;
+    }
+
+    try
+    {
+      // Make sure that at least one gzip member is written, so that the
+      // output is valid even if no data was written.  If any blocks are still
+      // pending, then they will provide that member.
+      if ((blockLength > 0) ||
+          ((numBlocksWritten == 0L) && pendingBlocks.isEmpty()))
+      {
+        submitBlock();
+      }
+
+      while (! pendingBlocks.isEmpty())
+      {
+        writeNextBlock();
+      }
+    }
+    finally
+    {
+      closed = true;
+      executor.shutdownNow();
+      pendingBlocks.clear();
+      outputStream.close();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of uncompressed bytes that have been written to this
+   * output stream.
+   *
+   * @return  The number of uncompressed bytes that have been written to this
+   *          output stream.
+   */
+  public long getUncompressedBytes()
+  {
+    return uncompressedBytes;
+  }
+
+
+
+  /**
+   * Retrieves the number of compressed bytes that have been written to the
+   * wrapped output stream.
+   *
+   * @return  The number of compressed bytes that have been written to the
+   *          wrapped output stream.
+   */
+  public long getCompressedBytes()
+  {
+    return compressedBytes.get();
+  }
+
+
+
+  /**
+   * Retrieves the total length of time in nanoseconds that the compression
+   * threads have spent compressing data.
+   *
+   * @return  The total length of time in nanoseconds that the compression
+   *          threads have spent compressing data.
+   */
+  public long getCompressionNanos()
+  {
+    return compressionNanos.get();
+  }
+
+
+
+  /**
+   * Ensures that this stream has not been closed.
+   *
+   * @throws  IOException  If this stream has been closed.
+   */
+  private void ensureOpen()
+          throws IOException
+  {
+    if (closed)
+    {
+      throw new IOException(ERR_PARALLEL_GZIP_STREAM_CLOSED.get());
+    }
+  }
+
+
+
+  /**
+   * Submits the current block for compression and starts a new block.  If the
+   * maximum number of pending blocks has been reached, then the oldest pending
+   * block will be written first.
+   *
+   * @throws  IOException  If a problem occurs while compressing or writing a
+   *                       block.
+   */
+  private void submitBlock()
+          throws IOException
+  {
+    while (pendingBlocks.size() >= maxPendingBlocks)
+    {
+      writeNextBlock();
+    }
+
+    final byte[] data = block;
+    final int length = blockLength;
+    pendingBlocks.add(executor.submit(new Callable<byte[]>()
+    {
+      /**
+       * Compresses the block.
+       *
+       * @return  The compressed representation of the block.
+       *
+       * @throws  IOException  If a problem occurs while compressing the block.
+       */
+      @Override()
+      public byte[] call()
+             throws IOException
+      {
+        final long startTime = System.nanoTime();
+        final ByteArrayOutputStream buffer =
+             new ByteArrayOutputStream((length / 2) + 64);
+        final GZIPOutputStream gzipStream = new GZIPOutputStream(buffer);
+        gzipStream.write(data, 0, length);
+        gzipStream.close();
+
+        compressionNanos.addAndGet(System.nanoTime() - startTime);
+        return buffer.toByteArray();
+      }
+    }));
+
+    block = new byte[blockSize];
+    blockLength = 0;
+  }
+
+
+
+  /**
+   * Waits for the oldest pending block to be compressed and writes it to the
+   * wrapped output stream.
+   *
+   * @throws  IOException  If a problem occurs while compressing or writing the
+   *                       block.
+   */
+  private void writeNextBlock()
+          throws IOException
+  {
+    final byte[] compressedBlock;
+    try
+    {
+      compressedBlock = pendingBlocks.removeFirst().get();
+    }
+    catch (final ExecutionException ee)
+    {
+      Debug.debugException(ee);
+      throw new IOException(
+           ERR_PARALLEL_GZIP_COMPRESSION_FAILED.get(
+                StaticUtils.getExceptionMessage(ee.getCause())),
+           ee.getCause());
+    }
+    catch (final InterruptedException ie)
+    {
+      Debug.debugException(ie);
+      Thread.currentThread().interrupt();
+      throw new IOException(ERR_PARALLEL_GZIP_INTERRUPTED.get(), ie);
+    }
+
+    outputStream.write(compressedBlock);
+    compressedBytes.addAndGet(compressedBlock.length);
+    numBlocksWritten++;
+  }
+}
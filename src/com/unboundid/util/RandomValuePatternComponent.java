@@ -111,29 +111,75 @@ final class RandomValuePatternComponent
   @Override()
   void append(final StringBuilder buffer)
   {
-    Random r = random.get();
-    if (r == null)
+    final long value = nextNumericValue();
+    if (formatString == null)
     {
-      r = new Random(seedRandom.nextLong());
-      random.set(r);
+      buffer.append(value);
     }
+    else
+    {
+      buffer.append(format(value));
+    }
+  }
+
 
-    final long value = ((r.nextLong() & 0x7FFFFFFF) % span) + lowerBound;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  void append(final ByteStringBuffer buffer)
+  {
+    final long value = nextNumericValue();
     if (formatString == null)
     {
       buffer.append(value);
     }
     else
     {
-      DecimalFormat f = decimalFormat.get();
-      if (f == null)
-      {
-        f = new DecimalFormat(formatString);
-        decimalFormat.set(f);
-      }
-
-      buffer.append(f.format(value));
+      buffer.append(format(value));
+    }
+  }
+
+
+
+  /**
+   * Retrieves the next numeric value for this component.
+   *
+   * @return  The next numeric value for this component.
+   */
+  private long nextNumericValue()
+  {
+    Random r = random.get();
+    if (r == null)
+    {
+      r = new Random(seedRandom.nextLong());
+      random.set(r);
+    }
+
+    return ((r.nextLong() & 0x7FFFFFFF) % span) + lowerBound;
+  }
+
+
+
+  /**
+   * Formats the provided value using the format string for this component,
+   * which must not be {@code null}.
+   *
+   * @param  value  The value to be formatted.
+   *
+   * @return  The formatted value.
+   */
+  private String format(final long value)
+  {
+    DecimalFormat f = decimalFormat.get();
+    if (f == null)
+    {
+      f = new DecimalFormat(formatString);
+      decimalFormat.set(f);
     }
+
+    return f.format(value);
   }
 
 
@@ -1417,7 +1417,10 @@ public final class RateAdjustor extends Thread
   public void shutDown()
   {
     shutDown = true;
-    sleeper.wakeup();
+
+    // Shut down the sleeper rather than just waking it up, so that it will
+    // not sleep if this is called before the adjustor thread starts sleeping.
+    sleeper.shutDown();
   }
 
 
@@ -89,6 +89,19 @@ public final class ResultCodeCounter
    * @param  amount      The amount by which to increment the count.
    */
   public void increment(final ResultCode resultCode, final int amount)
+  {
+    increment(resultCode, (long) amount);
+  }
+
+
+
+  /**
+   * Increments the count for the provided result code by the specified amount.
+   *
+   * @param  resultCode  The result code for which to increment the count.
+   * @param  amount      The amount by which to increment the count.
+   */
+  public void increment(final ResultCode resultCode, final long amount)
   {
     final ConcurrentHashMap<ResultCode,AtomicLong> m = rcMap.get();
 
@@ -123,6 +123,45 @@ final class SequentialValuePatternComponent
    */
   @Override()
   void append(final StringBuilder buffer)
+  {
+    final long value = nextNumericValue();
+    if (formatString == null)
+    {
+      buffer.append(value);
+    }
+    else
+    {
+      buffer.append(format(value));
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  void append(final ByteStringBuffer buffer)
+  {
+    final long value = nextNumericValue();
+    if (formatString == null)
+    {
+      buffer.append(value);
+    }
+    else
+    {
+      buffer.append(format(value));
+    }
+  }
+
+
+
+  /**
+   * Retrieves the next numeric value for this component.
+   *
+   * @return  The next numeric value for this component.
+   */
+  private long nextNumericValue()
   {
     long value = nextValue.getAndAdd(increment);
     if (value > upperBound)
@@ -164,21 +203,29 @@ final class SequentialValuePatternComponent
       }
     }
 
-    if (formatString == null)
+    return value;
+  }
+
+
+
+  /**
+   * Formats the provided value using the format string for this component,
+   * which must not be {@code null}.
+   *
+   * @param  value  The value to be formatted.
+   *
+   * @return  The formatted value.
+   */
+  private String format(final long value)
+  {
+    DecimalFormat f = decimalFormat.get();
+    if (f == null)
     {
-      buffer.append(value);
+      f = new DecimalFormat(formatString);
+      decimalFormat.set(f);
     }
-    else
-    {
-      DecimalFormat f = decimalFormat.get();
-      if (f == null)
-      {
-        f = new DecimalFormat(formatString);
-        decimalFormat.set(f);
-      }
 
-      buffer.append(f.format(value));
-    }
+    return f.format(value);
   }
 
 
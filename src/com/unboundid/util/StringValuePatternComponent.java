@@ -36,6 +36,10 @@ final class StringValuePatternComponent
 
 
 
+  // The UTF-8 representation of the string that will be used by this
+  // component.
+  private final byte[] valueBytes;
+
   // The string that will be used by this component.
   private final String valueString;
 
@@ -49,6 +53,8 @@ final class StringValuePatternComponent
   StringValuePatternComponent(final String valueString)
   {
     this.valueString = valueString;
+
+    valueBytes = StaticUtils.getBytes(valueString);
   }
 
 
@@ -64,6 +70,17 @@ final class StringValuePatternComponent
 
 
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  void append(final ByteStringBuffer buffer)
+  {
+    buffer.append(valueBytes);
+  }
+
+
+
   /**
    * {@inheritDoc}
    */
@@ -142,6 +142,14 @@ import static com.unboundid.util.UtilityMessages.*;
  *       value pattern in which the organization number will be the same as the
  *       randomly-selected user number.</LI>
  * </UL>
+ * <BR>
+ * Values may be obtained either as strings, using the {@link #nextValue()}
+ * method, or appended in UTF-8 form to a caller-supplied buffer, using the
+ * {@link #nextValue(ByteStringBuffer)} method.  The latter does not need to
+ * create any new objects for patterns that contain only static text and numeric
+ * components without format strings, which makes it better suited to
+ * applications that generate values at a very high rate and that need them in
+ * binary form anyway (for example, to include in an encoded LDAP request).
  */
 @NotMutable()
 @ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
@@ -179,6 +187,11 @@ public final class ValuePattern
   // The thread-local string builder that will be used to build values.
   private final ThreadLocal<StringBuilder> buffers;
 
+  // The thread-local array that will be used to hold the start and end
+  // offsets of values for back-references when appending values to a byte
+  // string buffer.
+  private final ThreadLocal<int[]> refOffsetArrays;
+
   // The value pattern components that will be used to generate values.
   private final ValuePatternComponent[] components;
 
@@ -221,6 +234,8 @@ public final class ValuePattern
     refLists = new ThreadLocal<ArrayList<String>>();
     buffers  = new ThreadLocal<StringBuilder>();
 
+    refOffsetArrays = new ThreadLocal<int[]>();
+
     final AtomicBoolean hasRef = new AtomicBoolean(false);
 
     final Random random;
@@ -900,6 +915,68 @@ incrementLoop:
 
 
 
+  /**
+   * Appends the UTF-8 representation of the next value generated from the
+   * value pattern to the provided buffer.  The value will be the same as would
+   * have been returned by the {@link #nextValue()} method, but no string will
+   * be created for it.
+   *
+   * @param  buffer  The buffer to which the value should be appended.  It must
+   *                 not be {@code null}.
+   */
+  public void nextValue(final ByteStringBuffer buffer)
+  {
+    if (! hasBackReference)
+    {
+      for (final ValuePatternComponent c : components)
+      {
+        c.append(buffer);
+      }
+      return;
+    }
+
+    // Keep track of the start and end offsets in the buffer of each value that
+    // may be targeted by a back-reference, so that back-references can be
+    // satisfied by copying those bytes.
+    int[] refOffsets = refOffsetArrays.get();
+    if (refOffsets == null)
+    {
+      refOffsets = new int[2 * components.length];
+      refOffsetArrays.set(refOffsets);
+    }
+
+    int numRefs = 0;
+    for (final ValuePatternComponent c : components)
+    {
+      if (c instanceof BackReferenceValuePatternComponent)
+      {
+        final BackReferenceValuePatternComponent brvpc =
+             (BackReferenceValuePatternComponent) c;
+        final int refPos = 2 * (brvpc.getIndex() - 1);
+        final int startPos = buffer.length();
+        buffer.append(buffer.getBackingArray(), refOffsets[refPos],
+             (refOffsets[refPos+1] - refOffsets[refPos]));
+        refOffsets[2*numRefs] = startPos;
+        refOffsets[2*numRefs+1] = buffer.length();
+        numRefs++;
+      }
+      else if (c.supportsBackReference())
+      {
+        final int startPos = buffer.length();
+        c.append(buffer);
+        refOffsets[2*numRefs] = startPos;
+        refOffsets[2*numRefs+1] = buffer.length();
+        numRefs++;
+      }
+      else
+      {
+        c.append(buffer);
+      }
+    }
+  }
+
+
+
   /**
    * Retrieves a string representation of this value pattern, which will be the
    * original pattern string used to create it.
@@ -52,6 +52,18 @@ abstract class ValuePatternComponent
 
 
 
+  /**
+   * Appends the UTF-8 representation of the next value generated by this
+   * component to the provided buffer.  Implementations should avoid creating
+   * any new objects where possible, since this may be called at a very high
+   * rate.
+   *
+   * @param  buffer  The buffer to which the value should be appended.
+   */
+  abstract void append(ByteStringBuffer buffer);
+
+
+
   /**
    * Indicates whether this value pattern component may be targeted by a back
    * reference.
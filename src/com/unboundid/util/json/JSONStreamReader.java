@@ -0,0 +1,1303 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util.json;
+
+
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import com.unboundid.util.ByteStringBuffer;
+import com.unboundid.util.Debug;
+import com.unboundid.util.StaticUtils;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.Validator;
+
+import static com.unboundid.util.json.JSONMessages.*;
+
+
+
+/**
+ * This class provides a pull-based mechanism for reading JSON data one token at
+ * a time, either from a byte array or from an input stream.  Unlike the
+ * {@link JSONObject#JSONObject(String)} constructor and the
+ * {@link JSONObjectReader}, it does not need to build a complete tree of
+ * {@link JSONValue} objects, which makes it well suited to cases in which only
+ * a small part of a large JSON object is of interest.  Any non-ASCII data is
+ * assumed to be encoded as UTF-8.
+ * <BR><BR>
+ * Each call to the {@link #nextToken} method reads the next token from the
+ * input and returns its type.  The content of a field name or scalar value can
+ * then be obtained with the {@link #getText} method, a complete value
+ * (including any nested objects or arrays) can be decoded with the
+ * {@link #readValue} method, and a value that is not needed can be passed over
+ * with the {@link #skipValue} method.  Strings and numbers in values that are
+ * skipped are checked only for the structure needed to find their end, and are
+ * never decoded.  The {@link #seekField} method can be used to move directly to
+ * a field in the current object, and the static {@link #getValues} methods
+ * provide a convenient way to extract the values at a given path from an
+ * encoded JSON object.
+ * <BR><BR>
+ * When reading from a byte array, the reader works directly on the provided
+ * array without copying it, so the array must not be altered while the reader
+ * is in use.  As with the other JSON parsers in this package, comments that
+ * start with "/*", "//", or "#" will be ignored.
+ * <H2>Example</H2>
+ * The following example demonstrates the process for obtaining the value of
+ * the "name" field from an encoded JSON object without decoding any of its
+ * other fields:
+ * <PRE>
+ * JSONStreamReader reader = new JSONStreamReader(encodedObject);
+ * String name = null;
+ * if ((reader.nextToken() == JSONTokenType.START_OBJECT) &amp;&amp;
+ *     reader.seekField("name") &amp;&amp;
+ *     (reader.nextToken() == JSONTokenType.STRING))
+ * {
+ *   name = reader.getText();
+ * }
+ * </PRE>
+ */
+@ThreadSafety(level=ThreadSafetyLevel.NOT_THREADSAFE)
+public final class JSONStreamReader
+       implements Closeable
+{
+  /**
+   * The size to use for the buffer when reading from an input stream.
+   */
+  private static final int STREAM_BUFFER_SIZE = 8192;
+
+
+
+  /**
+   * The state used for an object in which no field has been read.
+   */
+  private static final int STATE_OBJECT_START = 0;
+
+
+
+  /**
+   * The state used for an object in which a field name has been read and a
+   * colon is expected.
+   */
+  private static final int STATE_OBJECT_AFTER_NAME = 1;
+
+
+
+  /**
+   * The state used for an object in which a field value has been read and a
+   * comma or closing curly brace is expected.
+   */
+  private static final int STATE_OBJECT_AFTER_VALUE = 2;
+
+
+
+  /**
+   * The state used for an array in which no value has been read.
+   */
+  private static final int STATE_ARRAY_START = 3;
+
+
+
+  /**
+   * The state used for an array in which a value has been read and a comma or
+   * closing square bracket is expected.
+   */
+  private static final int STATE_ARRAY_AFTER_VALUE = 4;
+
+
+
+  // The buffer holding the data being read.  When reading from a byte array,
+  // this will be the provided array.
+  private byte[] buffer;
+
+  // A buffer used to hold the raw bytes of strings that can't be decoded in
+  // place.
+  private final ByteStringBuffer stringBytes;
+
+  // Indicates whether the reader is skipping over a value, in which case
+  // strings and numbers will not be decoded.
+  private boolean skipping;
+
+  // The input stream from which data is read, if any.
+  private final InputStream inputStream;
+
+  // The number of objects and arrays currently open.
+  private int depth;
+
+  // The position of the next byte to read from the buffer.
+  private int pos;
+
+  // The position after the last byte of valid data in the buffer.
+  private int limit;
+
+  // The states of the objects and arrays that are currently open.
+  private int[] states;
+
+  // The type of the most recent token.
+  private JSONTokenType currentToken;
+
+  // The number value of the most recent token, if it was a number.
+  private JSONNumber currentNumber;
+
+  // The offset of the first byte of the buffer in the overall input, adjusted
+  // so that adding the buffer position gives the number of bytes read.
+  private long bufferStartOffset;
+
+  // A buffer used to hold the decoded text of strings that contain escapes.
+  private final StringBuilder decodeBuffer;
+
+  // The text of the most recent token, if appropriate.
+  private String currentText;
+
+
+
+  /**
+   * Creates a new JSON stream reader that will read the contents of the
+   * provided byte array.
+   *
+   * @param  data  The byte array containing the JSON data to read.  It must not
+   *               be {@code null}.
+   */
+  public JSONStreamReader(final byte[] data)
+  {
+    this(data, 0, data.length);
+  }
+
+
+
+  /**
+   * Creates a new JSON stream reader that will read a portion of the provided
+   * byte array.
+   *
+   * @param  data    The byte array containing the JSON data to read.  It must
+   *                 not be {@code null}.
+   * @param  offset  The position in the array at which the JSON data starts.
+   * @param  length  The number of bytes of JSON data in the array.
+   */
+  public JSONStreamReader(final byte[] data, final int offset,
+                          final int length)
+  {
+    Validator.ensureNotNull(data);
+    Validator.ensureTrue((offset >= 0) && (length >= 0) &&
+         ((offset + length) <= data.length));
+
+    buffer = data;
+    pos = offset;
+    limit = offset + length;
+    bufferStartOffset = -offset;
+    inputStream = null;
+
+    states = new int[10];
+    stringBytes = new ByteStringBuffer();
+    decodeBuffer = new StringBuilder();
+  }
+
+
+
+  /**
+   * Creates a new JSON stream reader that will read data from the provided
+   * input stream.  The stream will be read in blocks as needed, so it does not
+   * need to be buffered.
+   *
+   * @param  inputStream  The input stream from which to read the JSON data.  It
+   *                      must not be {@code null}.
+   */
+  public JSONStreamReader(final InputStream inputStream)
+  {
+    Validator.ensureNotNull(inputStream);
+
+    this.inputStream = inputStream;
+
+    buffer = new byte[STREAM_BUFFER_SIZE];
+    pos = 0;
+    limit = 0;
+    bufferStartOffset = 0L;
+
+    states = new int[10];
+    stringBytes = new ByteStringBuffer();
+    decodeBuffer = new StringBuilder();
+  }
+
+
+
+  /**
+   * Retrieves the values at the specified path in the provided encoded JSON
+   * object.  The path is processed in the same way as field paths in JSON
+   * object filters:  each element of the path is the name of a field, and if
+   * the value of a field that is not the last element in the path is an array,
+   * then the remainder of the path will be applied to each of the JSON objects
+   * in that array (including objects in nested arrays).  Only the values that
+   * match the path will be decoded.
+   *
+   * @param  jsonObject  The bytes that comprise the UTF-8 encoding of the JSON
+   *                     object to examine.  It must not be {@code null}.
+   * @param  fieldPath   The names of the fields that make up the path.  It must
+   *                     not be {@code null} or empty.
+   *
+   * @return  The values at the specified path, or an empty list if there are
+   *          none.
+   *
+   * @throws  JSONException  If the provided data cannot be parsed as a JSON
+   *                         object.
+   */
+  public static List<JSONValue> getValues(final byte[] jsonObject,
+                                          final String... fieldPath)
+         throws JSONException
+  {
+    return getValues(jsonObject, Arrays.asList(fieldPath));
+  }
+
+
+
+  /**
+   * Retrieves the values at the specified path in the provided encoded JSON
+   * object.  The path is processed in the same way as field paths in JSON
+   * object filters:  each element of the path is the name of a field, and if
+   * the value of a field that is not the last element in the path is an array,
+   * then the remainder of the path will be applied to each of the JSON objects
+   * in that array (including objects in nested arrays).  Only the values that
+   * match the path will be decoded.
+   *
+   * @param  jsonObject  The bytes that comprise the UTF-8 encoding of the JSON
+   *                     object to examine.  It must not be {@code null}.
+   * @param  fieldPath   The names of the fields that make up the path.  It must
+   *                     not be {@code null} or empty.
+   *
+   * @return  The values at the specified path, or an empty list if there are
+   *          none.
+   *
+   * @throws  JSONException  If the provided data cannot be parsed as a JSON
+   *                         object.
+   */
+  public static List<JSONValue> getValues(final byte[] jsonObject,
+                                          final List<String> fieldPath)
+         throws JSONException
+  {
+    Validator.ensureNotNull(jsonObject, fieldPath);
+    Validator.ensureFalse(fieldPath.isEmpty());
+
+    final JSONStreamReader reader = new JSONStreamReader(jsonObject);
+    final JSONTokenType firstToken = reader.nextToken();
+    if (firstToken != JSONTokenType.START_OBJECT)
+    {
+      throw new JSONException(ERR_STREAM_READER_NOT_OBJECT.get(
+           String.valueOf(firstToken)));
+    }
+
+    final ArrayList<JSONValue> values = new ArrayList<JSONValue>(1);
+    reader.getValuesFromObject(fieldPath, 0, values);
+
+    if (reader.nextToken() != null)
+    {
+      throw new JSONException(ERR_STREAM_READER_DATA_BEYOND_END.get(
+           reader.getOffset()));
+    }
+
+    return values;
+  }
+
+
+
+  /**
+   * Retrieves the values at the specified path in the object whose opening
+   * curly brace was the most recent token read, and consumes the remainder of
+   * that object.
+   *
+   * @param  fieldPath  The names of the fields that make up the path.
+   * @param  pathIndex  The index of the path element to look for in the
+   *                    current object.
+   * @param  values     The list to which any matching values will be added.
+   *
+   * @throws  JSONException  If a problem is encountered while reading the
+   *                         object.
+   */
+  private void getValuesFromObject(final List<String> fieldPath,
+                                   final int pathIndex,
+                                   final List<JSONValue> values)
+          throws JSONException
+  {
+    if (seekField(fieldPath.get(pathIndex)))
+    {
+      final JSONTokenType valueToken = nextToken();
+      final int nextIndex = pathIndex + 1;
+      if (nextIndex >= fieldPath.size())
+      {
+        values.add(readValue());
+      }
+      else if (valueToken == JSONTokenType.START_OBJECT)
+      {
+        getValuesFromObject(fieldPath, nextIndex, values);
+      }
+      else if (valueToken == JSONTokenType.START_ARRAY)
+      {
+        getValuesFromArray(fieldPath, nextIndex, values);
+      }
+
+      // Since a JSON object can't have multiple fields with the same name,
+      // nothing else in this object can match.
+      while (nextToken() == JSONTokenType.FIELD_NAME)
+      {
+        nextToken();
+        skipValue();
+      }
+    }
+  }
+
+
+
+  /**
+   * Retrieves the values at the specified path in each of the objects in the
+   * array whose opening square bracket was the most recent token read, and
+   * consumes the remainder of that array.
+   *
+   * @param  fieldPath  The names of the fields that make up the path.
+   * @param  pathIndex  The index of the path element to look for in each object
+   *                    in the array.
+   * @param  values     The list to which any matching values will be added.
+   *
+   * @throws  JSONException  If a problem is encountered while reading the
+   *                         array.
+   */
+  private void getValuesFromArray(final List<String> fieldPath,
+                                  final int pathIndex,
+                                  final List<JSONValue> values)
+          throws JSONException
+  {
+    while (true)
+    {
+      final JSONTokenType t = nextToken();
+      if (t == JSONTokenType.END_ARRAY)
+      {
+        return;
+      }
+      else if (t == JSONTokenType.START_OBJECT)
+      {
+        getValuesFromObject(fieldPath, pathIndex, values);
+      }
+      else if (t == JSONTokenType.START_ARRAY)
+      {
+        getValuesFromArray(fieldPath, pathIndex, values);
+      }
+    }
+  }
+
+
+
+  /**
+   * Reads the next token from the input.
+   *
+   * @return  The type of the token that was read, or {@code null} if the end
+   *          of the input has been reached.  The end of the input will only be
+   *          reported between complete top-level values.
+   *
+   * @throws  JSONException  If the data at the current position is not valid
+   *                         JSON, or if a problem occurs while reading from
+   *                         the input stream.
+   */
+  public JSONTokenType nextToken()
+         throws JSONException
+  {
+    currentText = null;
+    currentNumber = null;
+
+    skipWhitespace();
+    if (depth == 0)
+    {
+      final int b = read();
+      if (b < 0)
+      {
+        currentToken = null;
+        return null;
+      }
+
+      return readValueStart(b);
+    }
+
+    final int b = readRequired();
+    switch (states[depth - 1])
+    {
+      case STATE_OBJECT_START:
+        if (b == '}')
+        {
+          return endContainer(JSONTokenType.END_OBJECT);
+        }
+        else if (b == '"')
+        {
+          return readFieldName();
+        }
+        throw new JSONException(ERR_STREAM_READER_EXPECTED_FIELD_NAME.get(
+             getOffset(), byteToCharString(b)));
+
+      case STATE_OBJECT_AFTER_NAME:
+        if (b != ':')
+        {
+          throw new JSONException(ERR_STREAM_READER_EXPECTED_COLON.get(
+               getOffset(), byteToCharString(b)));
+        }
+        states[depth - 1] = STATE_OBJECT_AFTER_VALUE;
+        skipWhitespace();
+        return readValueStart(readRequired());
+
+      case STATE_OBJECT_AFTER_VALUE:
+        if (b == '}')
+        {
+          return endContainer(JSONTokenType.END_OBJECT);
+        }
+        else if (b == ',')
+        {
+          skipWhitespace();
+          final int nameStart = readRequired();
+          if (nameStart == '"')
+          {
+            return readFieldName();
+          }
+          throw new JSONException(ERR_STREAM_READER_EXPECTED_FIELD_NAME.get(
+               getOffset(), byteToCharString(nameStart)));
+        }
+        throw new JSONException(
+             ERR_STREAM_READER_EXPECTED_COMMA_OR_CLOSE_BRACE.get(getOffset(),
+                  byteToCharString(b)));
+
+      case STATE_ARRAY_START:
+        if (b == ']')
+        {
+          return endContainer(JSONTokenType.END_ARRAY);
+        }
+        states[depth - 1] = STATE_ARRAY_AFTER_VALUE;
+        return readValueStart(b);
+
+      case STATE_ARRAY_AFTER_VALUE:
+      default:
+        if (b == ']')
+        {
+          return endContainer(JSONTokenType.END_ARRAY);
+        }
+        else if (b == ',')
+        {
+          skipWhitespace();
+          return readValueStart(readRequired());
+        }
+        throw new JSONException(
+             ERR_STREAM_READER_EXPECTED_COMMA_OR_CLOSE_BRACKET.get(getOffset(),
+                  byteToCharString(b)));
+    }
+  }
+
+
+
+  /**
+   * Retrieves the type of the most recent token read by the
+   * {@link #nextToken} method.
+   *
+   * @return  The type of the most recent token, or {@code null} if no token has
+   *          been read or the end of the input has been reached.
+   */
+  public JSONTokenType getCurrentToken()
+  {
+    return currentToken;
+  }
+
+
+
+  /**
+   * Retrieves the text of the most recent token.  For a field name, this will
+   * be the name of the field.  For a string value, it will be the decoded
+   * string.  For a number, Boolean, or null value, it will be the string
+   * representation of that value.
+   *
+   * @return  The text of the most recent token, or {@code null} if the most
+   *          recent token was the start or end of an object or array.
+   */
+  public String getText()
+  {
+    return currentText;
+  }
+
+
+
+  /**
+   * Retrieves the number of objects and arrays that are currently open.  This
+   * will be one after reading the opening curly brace of a top-level object,
+   * and zero after reading its closing curly brace.
+   *
+   * @return  The number of objects and arrays that are currently open.
+   */
+  public int getDepth()
+  {
+    return depth;
+  }
+
+
+
+  /**
+   * Retrieves the number of bytes that have been consumed from the input.
+   *
+   * @return  The number of bytes that have been consumed from the input.
+   */
+  public long getOffset()
+  {
+    return bufferStartOffset + pos;
+  }
+
+
+
+  /**
+   * Reads the complete JSON value that starts at the current token.  If the
+   * current token is a field name, then the value of that field will be read.
+   * If the current token is the start of an object or array, then the entire
+   * object or array will be read, and the current token will be its end.
+   *
+   * @return  The JSON value that was read.
+   *
+   * @throws  JSONException  If the current token is not the start of a value,
+   *                         or if a problem is encountered while reading the
+   *                         value.
+   */
+  public JSONValue readValue()
+         throws JSONException
+  {
+    if (currentToken == JSONTokenType.FIELD_NAME)
+    {
+      nextToken();
+    }
+
+    if (currentToken == null)
+    {
+      throw new JSONException(ERR_STREAM_READER_NOT_AT_VALUE.get(getOffset(),
+           "null"));
+    }
+
+    switch (currentToken)
+    {
+      case STRING:
+        return new JSONString(currentText);
+      case NUMBER:
+        return currentNumber;
+      case TRUE:
+        return JSONBoolean.TRUE;
+      case FALSE:
+        return JSONBoolean.FALSE;
+      case NULL:
+        return JSONNull.NULL;
+
+      case START_OBJECT:
+        final LinkedHashMap<String,JSONValue> fields =
+             new LinkedHashMap<String,JSONValue>(10);
+        while (nextToken() == JSONTokenType.FIELD_NAME)
+        {
+          final String fieldName = currentText;
+          if (fields.containsKey(fieldName))
+          {
+            throw new JSONException(ERR_STREAM_READER_DUPLICATE_FIELD.get(
+                 getOffset(), fieldName));
+          }
+
+          nextToken();
+          fields.put(fieldName, readValue());
+        }
+        return new JSONObject(fields, null);
+
+      case START_ARRAY:
+        final ArrayList<JSONValue> values = new ArrayList<JSONValue>(10);
+        while (nextToken() != JSONTokenType.END_ARRAY)
+        {
+          values.add(readValue());
+        }
+        if (values.isEmpty())
+        {
+          return JSONArray.EMPTY_ARRAY;
+        }
+        return new JSONArray(values);
+
+      default:
+        throw new JSONException(ERR_STREAM_READER_NOT_AT_VALUE.get(getOffset(),
+             currentToken.name()));
+    }
+  }
+
+
+
+  /**
+   * Skips over the JSON value that starts at the current token.  If the current
+   * token is a field name, then the value of that field will be skipped.  If
+   * the current token is the start of an object or array, then the remainder
+   * of that object or array will be skipped, and the current token will be its
+   * end.  If the current token is a scalar value, or the end of an object or
+   * array, then this method has no effect.
+   *
+   * @throws  JSONException  If a problem is encountered while skipping the
+   *                         value.
+   */
+  public void skipValue()
+         throws JSONException
+  {
+    if (currentToken == JSONTokenType.FIELD_NAME)
+    {
+      nextToken();
+    }
+
+    if ((currentToken != JSONTokenType.START_OBJECT) &&
+        (currentToken != JSONTokenType.START_ARRAY))
+    {
+      return;
+    }
+
+    final int startDepth = depth;
+    skipping = true;
+    try
+    {
+      while (depth >= startDepth)
+      {
+        nextToken();
+      }
+    }
+    finally
+    {
+      skipping = false;
+    }
+  }
+
+
+
+  /**
+   * Advances to the field with the specified name in the current object,
+   * skipping over the values of any other fields without decoding them.  The
+   * reader must be positioned at the opening curly brace of the object, at a
+   * field name in the object, or at the end of a field value in the object.  If
+   * it is positioned at a field name, then that field will be skipped.
+   *
+   * @param  fieldName  The name of the field to find.  It will be treated in a
+   *                    case-sensitive manner.
+   *
+   * @return  {@code true} if the field was found, in which case the current
+   *          token will be its name and the next token will be the start of
+   *          its value, or {@code false} if the end of the object was reached
+   *          without finding the field, in which case the current token will be
+   *          the end of the object.
+   *
+   * @throws  JSONException  If the reader is not positioned within an object,
+   *                         or if a problem is encountered while reading the
+   *                         object.
+   */
+  public boolean seekField(final String fieldName)
+         throws JSONException
+  {
+    if (currentToken == JSONTokenType.FIELD_NAME)
+    {
+      skipValue();
+    }
+    else if ((depth == 0) || (states[depth - 1] == STATE_ARRAY_START) ||
+         (states[depth - 1] == STATE_ARRAY_AFTER_VALUE))
+    {
+      throw new JSONException(ERR_STREAM_READER_NOT_IN_OBJECT.get(getOffset(),
+           fieldName));
+    }
+
+    while (nextToken() == JSONTokenType.FIELD_NAME)
+    {
+      if (currentText.equals(fieldName))
+      {
+        return true;
+      }
+
+      nextToken();
+      skipValue();
+    }
+
+    return false;
+  }
+
+
+
+  /**
+   * Closes this reader and the underlying input stream, if there is one.
+   *
+   * @throws  IOException  If a problem is encountered while closing the
+   *                       underlying input stream.
+   */
+  @Override()
+  public void close()
+         throws IOException
+  {
+    if (inputStream != null)
+    {
+      inputStream.close();
+    }
+  }
+
+
+
+  /**
+   * Handles the first byte of a JSON value, which has already been read, and
+   * reads the remainder of the value if it is a scalar value.
+   *
+   * @param  b  The first byte of the value.
+   *
+   * @return  The type of the token that was read.
+   *
+   * @throws  JSONException  If a problem is encountered while reading the
+   *                         value.
+   */
+  private JSONTokenType readValueStart(final int b)
+          throws JSONException
+  {
+    switch (b)
+    {
+      case '{':
+        return startContainer(JSONTokenType.START_OBJECT, STATE_OBJECT_START);
+      case '[':
+        return startContainer(JSONTokenType.START_ARRAY, STATE_ARRAY_START);
+
+      case '"':
+        if (skipping)
+        {
+          skipString();
+        }
+        else
+        {
+          currentText = readString();
+        }
+        currentToken = JSONTokenType.STRING;
+        return currentToken;
+
+      case 't':
+        readLiteral("true");
+        currentToken = JSONTokenType.TRUE;
+        return currentToken;
+      case 'f':
+        readLiteral("false");
+        currentToken = JSONTokenType.FALSE;
+        return currentToken;
+      case 'n':
+        readLiteral("null");
+        currentToken = JSONTokenType.NULL;
+        return currentToken;
+
+      case '-':
+      case '0':
+      case '1':
+      case '2':
+      case '3':
+      case '4':
+      case '5':
+      case '6':
+      case '7':
+      case '8':
+      case '9':
+        readNumber(b);
+        currentToken = JSONTokenType.NUMBER;
+        return currentToken;
+
+      default:
+        throw new JSONException(
+             ERR_STREAM_READER_ILLEGAL_FIRST_CHAR_FOR_VALUE.get(getOffset(),
+                  byteToCharString(b)));
+    }
+  }
+
+
+
+  /**
+   * Records the start of an object or array.
+   *
+   * @param  tokenType  The type of token that starts the object or array.
+   * @param  state      The initial state for the object or array.
+   *
+   * @return  The provided token type.
+   */
+  private JSONTokenType startContainer(final JSONTokenType tokenType,
+                                       final int state)
+  {
+    if (depth == states.length)
+    {
+      states = Arrays.copyOf(states, (depth * 2));
+    }
+
+    states[depth++] = state;
+    currentToken = tokenType;
+    return tokenType;
+  }
+
+
+
+  /**
+   * Records the end of an object or array.
+   *
+   * @param  tokenType  The type of token that ends the object or array.
+   *
+   * @return  The provided token type.
+   */
+  private JSONTokenType endContainer(final JSONTokenType tokenType)
+  {
+    depth--;
+    currentToken = tokenType;
+    return tokenType;
+  }
+
+
+
+  /**
+   * Reads a field name.  The opening quotation mark must have already been
+   * read.
+   *
+   * @return  The {@code FIELD_NAME} token type.
+   *
+   * @throws  JSONException  If a problem is encountered while reading the field
+   *                         name.
+   */
+  private JSONTokenType readFieldName()
+          throws JSONException
+  {
+    states[depth - 1] = STATE_OBJECT_AFTER_NAME;
+    if (skipping)
+    {
+      skipString();
+    }
+    else
+    {
+      currentText = readString();
+    }
+
+    currentToken = JSONTokenType.FIELD_NAME;
+    return currentToken;
+  }
+
+
+
+  /**
+   * Reads and decodes a string.  The opening quotation mark must have already
+   * been read.
+   *
+   * @return  The decoded string.
+   *
+   * @throws  JSONException  If a problem is encountered while reading the
+   *                         string.
+   */
+  private String readString()
+          throws JSONException
+  {
+    // If the entire string is in the buffer and doesn't contain any escapes,
+    // then decode it in place.  A closing quotation mark can't be part of a
+    // multi-byte UTF-8 character, so this is safe for non-ASCII data.
+    for (int i=pos; i < limit; i++)
+    {
+      final byte b = buffer[i];
+      if (b == '"')
+      {
+        final String s = StaticUtils.toUTF8String(buffer, pos, (i - pos));
+        pos = i + 1;
+        return s;
+      }
+      else if ((b == '\\') || ((b & 0xFF) <= 0x1F))
+      {
+        break;
+      }
+    }
+
+
+    // Otherwise, collect the raw bytes and decode them as needed.
+    stringBytes.clear();
+    decodeBuffer.setLength(0);
+    while (true)
+    {
+      final int b = readRequired();
+      if (b == '"')
+      {
+        decodeBuffer.append(stringBytes.toString());
+        return decodeBuffer.toString();
+      }
+      else if (b == '\\')
+      {
+        decodeBuffer.append(stringBytes.toString());
+        stringBytes.clear();
+        decodeBuffer.append(readEscapedChar());
+      }
+      else if (b <= 0x1F)
+      {
+        throw new JSONException(ERR_STREAM_READER_UNESCAPED_CONTROL_CHAR.get(
+             getOffset(), byteToCharString(b)));
+      }
+      else
+      {
+        stringBytes.append((byte) b);
+      }
+    }
+  }
+
+
+
+  /**
+   * Reads the character represented by an escape sequence in a string.  The
+   * backslash must have already been read.
+   *
+   * @return  The character represented by the escape sequence.
+   *
+   * @throws  JSONException  If the escape sequence is not valid.
+   */
+  private char readEscapedChar()
+          throws JSONException
+  {
+    final int b = readRequired();
+    switch (b)
+    {
+      case '"':
+      case '\\':
+      case '/':
+        return (char) b;
+      case 'b':
+        return '\b';
+      case 'f':
+        return '\f';
+      case 'n':
+        return '\n';
+      case 'r':
+        return '\r';
+      case 't':
+        return '\t';
+      case 'u':
+        final char[] hexChars =
+        {
+          (char) readRequired(),
+          (char) readRequired(),
+          (char) readRequired(),
+          (char) readRequired()
+        };
+
+        try
+        {
+          return (char) Integer.parseInt(new String(hexChars), 16);
+        }
+        catch (final Exception e)
+        {
+          Debug.debugException(e);
+          throw new JSONException(
+               ERR_STREAM_READER_INVALID_UNICODE_ESCAPE.get(getOffset()), e);
+        }
+      default:
+        throw new JSONException(ERR_STREAM_READER_INVALID_ESCAPED_CHAR.get(
+             getOffset(), byteToCharString(b)));
+    }
+  }
+
+
+
+  /**
+   * Skips over a string without decoding it.  The opening quotation mark must
+   * have already been read.
+   *
+   * @throws  JSONException  If a problem is encountered while skipping the
+   *                         string.
+   */
+  private void skipString()
+          throws JSONException
+  {
+    while (true)
+    {
+      final int b = readRequired();
+      if (b == '"')
+      {
+        return;
+      }
+      else if (b == '\\')
+      {
+        readRequired();
+      }
+      else if (b <= 0x1F)
+      {
+        throw new JSONException(ERR_STREAM_READER_UNESCAPED_CONTROL_CHAR.get(
+             getOffset(), byteToCharString(b)));
+      }
+    }
+  }
+
+
+
+  /**
+   * Reads the remainder of an unquoted literal value.  The first byte must
+   * have already been read.
+   *
+   * @param  literal  The literal that is expected.
+   *
+   * @throws  JSONException  If the data read does not match the literal.
+   */
+  private void readLiteral(final String literal)
+          throws JSONException
+  {
+    for (int i=1; i < literal.length(); i++)
+    {
+      if (readRequired() != literal.charAt(i))
+      {
+        throw new JSONException(ERR_STREAM_READER_INVALID_LITERAL.get(
+             getOffset(), literal));
+      }
+    }
+
+    if (! skipping)
+    {
+      currentText = literal;
+    }
+  }
+
+
+
+  /**
+   * Reads the remainder of a number.  The first byte must have already been
+   * read.
+   *
+   * @param  firstByte  The first byte of the number.
+   *
+   * @throws  JSONException  If the data read cannot be parsed as a number.
+   */
+  private void readNumber(final int firstByte)
+          throws JSONException
+  {
+    stringBytes.clear();
+    stringBytes.append((byte) firstByte);
+    while (true)
+    {
+      final int b = read();
+      switch (b)
+      {
+        case '0':
+        case '1':
+        case '2':
+        case '3':
+        case '4':
+        case '5':
+        case '6':
+        case '7':
+        case '8':
+        case '9':
+        case '-':
+        case '+':
+        case '.':
+        case 'e':
+        case 'E':
+          if (! skipping)
+          {
+            stringBytes.append((byte) b);
+          }
+          break;
+
+        default:
+          // This isn't part of the number, so put it back to be read as part
+          // of the next token.
+          if (b >= 0)
+          {
+            pos--;
+          }
+
+          if (! skipping)
+          {
+            currentText = stringBytes.toString();
+            currentNumber = new JSONNumber(currentText);
+          }
+          return;
+      }
+    }
+  }
+
+
+
+  /**
+   * Skips over any whitespace and comments at the current position.
+   *
+   * @throws  JSONException  If a problem is encountered while skipping
+   *                         whitespace.
+   */
+  private void skipWhitespace()
+          throws JSONException
+  {
+    while (true)
+    {
+      final int b = read();
+      switch (b)
+      {
+        case ' ':
+        case '\t':
+        case '\n':
+        case '\r':
+          break;
+
+        case '/':
+          final int nextByte = readRequired();
+          if (nextByte == '/')
+          {
+            skipToEndOfLine();
+          }
+          else if (nextByte == '*')
+          {
+            int previousByte = -1;
+            while (true)
+            {
+              final int commentByte = readRequired();
+              if ((previousByte == '*') && (commentByte == '/'))
+              {
+                break;
+              }
+              previousByte = commentByte;
+            }
+          }
+          else
+          {
+            throw new JSONException(ERR_STREAM_READER_ILLEGAL_SLASH.get(
+                 getOffset()));
+          }
+          break;
+
+        case '#':
+          skipToEndOfLine();
+          break;
+
+        default:
+          // This is either the end of the input or the start of a token.  If
+          // it's the start of a token, then put it back.
+          if (b >= 0)
+          {
+            pos--;
+          }
+          return;
+      }
+    }
+  }
+
+
+
+  /**
+   * Skips over data until a line break or the end of the input is reached.
+   *
+   * @throws  JSONException  If a problem occurs while reading from the input
+   *                         stream.
+   */
+  private void skipToEndOfLine()
+          throws JSONException
+  {
+    while (true)
+    {
+      final int b = read();
+      if ((b < 0) || (b == '\n') || (b == '\r'))
+      {
+        return;
+      }
+    }
+  }
+
+
+
+  /**
+   * Reads the next byte, which must be available.
+   *
+   * @return  The next byte, as an integer between 0 and 255.
+   *
+   * @throws  JSONException  If the end of the input has been reached, or if a
+   *                         problem occurs while reading from the input stream.
+   */
+  private int readRequired()
+          throws JSONException
+  {
+    final int b = read();
+    if (b < 0)
+    {
+      throw new JSONException(ERR_STREAM_READER_UNEXPECTED_END_OF_INPUT.get(
+           getOffset()));
+    }
+
+    return b;
+  }
+
+
+
+  /**
+   * Reads the next byte, if there is one.  After a byte has been read, it may
+   * be put back by decrementing the buffer position, since the buffer will not
+   * be refilled until all of its data has been read.
+   *
+   * @return  The next byte, as an integer between 0 and 255, or -1 if the end
+   *          of the input has been reached.
+   *
+   * @throws  JSONException  If a problem occurs while reading from the input
+   *                         stream.
+   */
+  private int read()
+          throws JSONException
+  {
+    if (pos >= limit)
+    {
+      if (inputStream == null)
+      {
+        return -1;
+      }
+
+      try
+      {
+        bufferStartOffset += limit;
+        pos = 0;
+        limit = 0;
+
+        final int bytesRead = inputStream.read(buffer, 0, buffer.length);
+        if (bytesRead <= 0)
+        {
+          return -1;
+        }
+
+        limit = bytesRead;
+      }
+      catch (final IOException ioe)
+      {
+        Debug.debugException(ioe);
+        throw new JSONException(StaticUtils.getExceptionMessage(ioe), ioe);
+      }
+    }
+
+    return (buffer[pos++] & 0xFF);
+  }
+
+
+
+  /**
+   * Retrieves a string representation of the provided byte that is intended to
+   * represent a character.  If the provided byte is a printable ASCII
+   * character, then that character will be used.  Otherwise, the string
+   * representation will be "0x" followed by the hexadecimal representation of
+   * the byte.
+   *
+   * @param  b  The byte for which to obtain the string representation.
+   *
+   * @return  A string representation of the provided byte.
+   */
+  private static String byteToCharString(final int b)
+  {
+    if ((b >= ' ') && (b <= '~'))
+    {
+      return String.valueOf((char) b);
+    }
+    else
+    {
+      return "0x" + StaticUtils.toHex((byte) b);
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util.json;
+
+
+
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+
+
+/**
+ * An enum that defines the types of tokens that may be returned by a
+ * {@link JSONStreamReader}.
+ */
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public enum JSONTokenType
+{
+  /**
+   * The token type that indicates the start of a JSON object.
+   */
+  START_OBJECT,
+
+
+
+  /**
+   * The token type that indicates the end of a JSON object.
+   */
+  END_OBJECT,
+
+
+
+  /**
+   * The token type that indicates the start of a JSON array.
+   */
+  START_ARRAY,
+
+
+
+  /**
+   * The token type that indicates the end of a JSON array.
+   */
+  END_ARRAY,
+
+
+
+  /**
+   * The token type that indicates the name of a field in a JSON object.  It
+   * will be followed by the token (or tokens) for the value of that field.
+   */
+  FIELD_NAME,
+
+
+
+  /**
+   * The token type that indicates a JSON string value.
+   */
+  STRING,
+
+
+
+  /**
+   * The token type that indicates a JSON number value.
+   */
+  NUMBER,
+
+
+
+  /**
+   * The token type that indicates the JSON Boolean value {@code true}.
+   */
+  TRUE,
+
+
+
+  /**
+   * The token type that indicates the JSON Boolean value {@code false}.
+   */
+  FALSE,
+
+
+
+  /**
+   * The token type that indicates the JSON null value.
+   */
+  NULL;
+
+
+
+  /**
+   * Indicates whether this token type represents a complete JSON value on its
+   * own, rather than the start or end of an object or array, or a field name.
+   *
+   * @return  {@code true} if this token type represents a complete JSON value,
+   *          or {@code false} if not.
+   */
+  public boolean isScalarValue()
+  {
+    switch (this)
+    {
+      case STRING:
+      case NUMBER:
+      case TRUE:
+      case FALSE:
+      case NULL:
+        return true;
+      default:
+        return false;
+    }
+  }
+}
@@ -0,0 +1,642 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util.metrics;
+
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.unboundid.util.Mutable;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+
+
+/**
+ * This class provides a metrics registry that maintains the metrics published
+ * by the LDAP SDK in memory, without any external dependencies.  Counters are
+ * maintained with {@link StripedCounter} instances so that threads publishing
+ * metrics concurrently will rarely contend with each other.  For each value
+ * metric, the registry maintains the number of observations, the sum of the
+ * observed values, and the largest value observed.
+ * <BR><BR>
+ * Metrics are maintained separately for each scope in which they are
+ * published, and the methods used to retrieve them may either target a single
+ * scope or aggregate the metrics across all scopes.  Metrics for scopes that
+ * are no longer in use (for example, for a connection pool that has been
+ * closed) may be discarded with the {@link #removeScope} method.
+ * <BR><BR>
+ * <H2>Example</H2>
+ * The following example demonstrates the process for installing a default
+ * metrics registry and retrieving the number of bytes that have been read from
+ * directory servers, both in total and for a connection pool named
+ * "my-pool":
+ * <PRE>
+ * DefaultMetricsRegistry registry = new DefaultMetricsRegistry();
+ * MetricsRegistry.setInstalledRegistry(registry);
+ *
+ * // Perform LDAP processing.
+ *
+ * long totalBytesRead = registry.getCounterValue(
+ *      MetricsRegistry.METRIC_CONNECTION_BYTES_READ);
+ * long poolBytesRead = registry.getCounterValue("ldap-connection-pool:my-pool",
+ *      MetricsRegistry.METRIC_CONNECTION_BYTES_READ);
+ * </PRE>
+ */
+@Mutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class DefaultMetricsRegistry
+       extends MetricsRegistry
+{
+  // The counter metrics, indexed by name and then by scope.
+  private final ConcurrentHashMap<String,
+       ConcurrentHashMap<String,StripedCounter>> counters;
+
+  // The value metrics, indexed by name and then by scope.
+  private final ConcurrentHashMap<String,
+       ConcurrentHashMap<String,ValueMetric>> values;
+
+
+
+  /**
+   * Creates a new default metrics registry that does not yet hold any metrics.
+   */
+  public DefaultMetricsRegistry()
+  {
+    counters =
+         new ConcurrentHashMap<String,ConcurrentHashMap<String,StripedCounter>>(
+              16);
+    values =
+         new ConcurrentHashMap<String,ConcurrentHashMap<String,ValueMetric>>(
+              16);
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void incrementCounter(final String scope, final String name,
+                               final long delta)
+  {
+    ConcurrentHashMap<String,StripedCounter> scopeMap = counters.get(name);
+    if (scopeMap == null)
+    {
+      final ConcurrentHashMap<String,StripedCounter> newScopeMap =
+           new ConcurrentHashMap<String,StripedCounter>(16);
+      scopeMap = counters.putIfAbsent(name, newScopeMap);
+      if (scopeMap == null)
+      {
+        scopeMap = newScopeMap;
+      }
+    }
+
+    StripedCounter counter = scopeMap.get(scope);
+    if (counter == null)
+    {
+      final StripedCounter newCounter = new StripedCounter();
+      counter = scopeMap.putIfAbsent(scope, newCounter);
+      if (counter == null)
+      {
+        counter = newCounter;
+      }
+    }
+
+    counter.add(delta);
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void recordValue(final String scope, final String name,
+                          final long value)
+  {
+    ConcurrentHashMap<String,ValueMetric> scopeMap = values.get(name);
+    if (scopeMap == null)
+    {
+      final ConcurrentHashMap<String,ValueMetric> newScopeMap =
+           new ConcurrentHashMap<String,ValueMetric>(16);
+      scopeMap = values.putIfAbsent(name, newScopeMap);
+      if (scopeMap == null)
+      {
+        scopeMap = newScopeMap;
+      }
+    }
+
+    ValueMetric metric = scopeMap.get(scope);
+    if (metric == null)
+    {
+      final ValueMetric newMetric = new ValueMetric();
+      metric = scopeMap.putIfAbsent(scope, newMetric);
+      if (metric == null)
+      {
+        metric = newMetric;
+      }
+    }
+
+    metric.record(value);
+  }
+
+
+
+  /**
+   * Retrieves the names of the counter metrics that have been published to
+   * this registry.
+   *
+   * @return  The names of the counter metrics that have been published to this
+   *          registry, in sorted order.
+   */
+  public Set<String> getCounterNames()
+  {
+    return Collections.unmodifiableSet(new TreeSet<String>(counters.keySet()));
+  }
+
+
+
+  /**
+   * Retrieves the names of the value metrics that have been published to this
+   * registry.
+   *
+   * @return  The names of the value metrics that have been published to this
+   *          registry, in sorted order.
+   */
+  public Set<String> getValueNames()
+  {
+    return Collections.unmodifiableSet(new TreeSet<String>(values.keySet()));
+  }
+
+
+
+  /**
+   * Retrieves the scopes in which metrics have been published to this
+   * registry.
+   *
+   * @return  The scopes in which metrics have been published to this registry,
+   *          in sorted order.
+   */
+  public Set<String> getScopes()
+  {
+    final TreeSet<String> scopes = new TreeSet<String>();
+    for (final Map<String,StripedCounter> m : counters.values())
+    {
+      scopes.addAll(m.keySet());
+    }
+
+    for (final Map<String,ValueMetric> m : values.values())
+    {
+      scopes.addAll(m.keySet());
+    }
+
+    return Collections.unmodifiableSet(scopes);
+  }
+
+
+
+  /**
+   * Retrieves the current value of the specified counter metric, aggregated
+   * across all scopes.
+   *
+   * @param  name  The name of the counter metric to retrieve.
+   *
+   * @return  The current value of the specified counter metric, or zero if it
+   *          has not been published to this registry.
+   */
+  public long getCounterValue(final String name)
+  {
+    return getCounterValue(null, name);
+  }
+
+
+
+  /**
+   * Retrieves the current value of the specified counter metric in the given
+   * scope.
+   *
+   * @param  scope  The scope for which to retrieve the counter value.  It may
+   *                be {@code null} to aggregate the value across all scopes.
+   * @param  name   The name of the counter metric to retrieve.
+   *
+   * @return  The current value of the specified counter metric, or zero if it
+   *          has not been published to this registry in the given scope.
+   */
+  public long getCounterValue(final String scope, final String name)
+  {
+    long value = 0L;
+    for (final StripedCounter counter : getMetrics(counters, scope, name))
+    {
+      value += counter.get();
+    }
+
+    return value;
+  }
+
+
+
+  /**
+   * Retrieves the number of observations that have been recorded for the
+   * specified value metric, aggregated across all scopes.
+   *
+   * @param  name  The name of the value metric to examine.
+   *
+   * @return  The number of observations that have been recorded for the
+   *          specified value metric, or zero if it has not been published to
+   *          this registry.
+   */
+  public long getValueCount(final String name)
+  {
+    return getValueCount(null, name);
+  }
+
+
+
+  /**
+   * Retrieves the number of observations that have been recorded for the
+   * specified value metric in the given scope.
+   *
+   * @param  scope  The scope for which to retrieve the number of observations.
+   *                It may be {@code null} to aggregate across all scopes.
+   * @param  name   The name of the value metric to examine.
+   *
+   * @return  The number of observations that have been recorded for the
+   *          specified value metric, or zero if it has not been published to
+   *          this registry in the given scope.
+   */
+  public long getValueCount(final String scope, final String name)
+  {
+    long count = 0L;
+    for (final ValueMetric metric : getMetrics(values, scope, name))
+    {
+      count += metric.count.get();
+    }
+
+    return count;
+  }
+
+
+
+  /**
+   * Retrieves the sum of all of the observations that have been recorded for
+   * the specified value metric, aggregated across all scopes.
+   *
+   * @param  name  The name of the value metric to examine.
+   *
+   * @return  The sum of all of the observations that have been recorded for
+   *          the specified value metric, or zero if it has not been published
+   *          to this registry.
+   */
+  public long getValueTotal(final String name)
+  {
+    return getValueTotal(null, name);
+  }
+
+
+
+  /**
+   * Retrieves the sum of all of the observations that have been recorded for
+   * the specified value metric in the given scope.
+   *
+   * @param  scope  The scope for which to retrieve the sum of the observations.
+   *                It may be {@code null} to aggregate across all scopes.
+   * @param  name   The name of the value metric to examine.
+   *
+   * @return  The sum of all of the observations that have been recorded for
+   *          the specified value metric, or zero if it has not been published
+   *          to this registry in the given scope.
+   */
+  public long getValueTotal(final String scope, final String name)
+  {
+    long total = 0L;
+    for (final ValueMetric metric : getMetrics(values, scope, name))
+    {
+      total += metric.total.get();
+    }
+
+    return total;
+  }
+
+
+
+  /**
+   * Retrieves the average of the observations that have been recorded for the
+   * specified value metric, aggregated across all scopes.
+   *
+   * @param  name  The name of the value metric to examine.
+   *
+   * @return  The average of the observations that have been recorded for the
+   *          specified value metric, or {@code Double.NaN} if no observations
+   *          have been recorded.
+   */
+  public double getValueAverage(final String name)
+  {
+    return getValueAverage(null, name);
+  }
+
+
+
+  /**
+   * Retrieves the average of the observations that have been recorded for the
+   * specified value metric in the given scope.
+   *
+   * @param  scope  The scope for which to retrieve the average observation.  It
+   *                may be {@code null} to aggregate across all scopes.
+   * @param  name   The name of the value metric to examine.
+   *
+   * @return  The average of the observations that have been recorded for the
+   *          specified value metric, or {@code Double.NaN} if no observations
+   *          have been recorded in the given scope.
+   */
+  public double getValueAverage(final String scope, final String name)
+  {
+    long count = 0L;
+    long total = 0L;
+    for (final ValueMetric metric : getMetrics(values, scope, name))
+    {
+      count += metric.count.get();
+      total += metric.total.get();
+    }
+
+    if (count <= 0L)
+    {
+      return Double.NaN;
+    }
+
+    return (1.0d * total / count);
+  }
+
+
+
+  /**
+   * Retrieves the largest observation that has been recorded for the specified
+   * value metric, across all scopes.
+   *
+   * @param  name  The name of the value metric to examine.
+   *
+   * @return  The largest observation that has been recorded for the specified
+   *          value metric, or {@code Long.MIN_VALUE} if no observations have
+   *          been recorded.
+   */
+  public long getValueMaximum(final String name)
+  {
+    return getValueMaximum(null, name);
+  }
+
+
+
+  /**
+   * Retrieves the largest observation that has been recorded for the specified
+   * value metric in the given scope.
+   *
+   * @param  scope  The scope for which to retrieve the largest observation.  It
+   *                may be {@code null} to examine all scopes.
+   * @param  name   The name of the value metric to examine.
+   *
+   * @return  The largest observation that has been recorded for the specified
+   *          value metric, or {@code Long.MIN_VALUE} if no observations have
+   *          been recorded in the given scope.
+   */
+  public long getValueMaximum(final String scope, final String name)
+  {
+    long max = Long.MIN_VALUE;
+    for (final ValueMetric metric : getMetrics(values, scope, name))
+    {
+      max = Math.max(max, metric.max.get());
+    }
+
+    return max;
+  }
+
+
+
+  /**
+   * Retrieves the metrics with the specified name in the given scope.
+   *
+   * @param  <T>      The type of metric to retrieve.
+   * @param  metrics  The map from which to retrieve the metrics.
+   * @param  scope    The scope for which to retrieve the metrics, or
+   *                  {@code null} to retrieve the metrics for all scopes.
+   * @param  name     The name of the metrics to retrieve.
+   *
+   * @return  The metrics with the specified name in the given scope.  It may be
+   *          empty but will not be {@code null}.
+   */
+  private static <T> Collection<T> getMetrics(
+               final Map<String,ConcurrentHashMap<String,T>> metrics,
+               final String scope, final String name)
+  {
+    final Map<String,T> scopeMap = metrics.get(name);
+    if (scopeMap == null)
+    {
+      return Collections.emptyList();
+    }
+
+    if (scope == null)
+    {
+      return scopeMap.values();
+    }
+
+    final T metric = scopeMap.get(scope);
+    if (metric == null)
+    {
+      return Collections.emptyList();
+    }
+    else
+    {
+      return Collections.singletonList(metric);
+    }
+  }
+
+
+
+  /**
+   * Discards all of the metrics that have been published in the specified
+   * scope.  This may be used to reclaim memory used by metrics for connection
+   * pools and connections that have been closed.  If metrics are published in
+   * the scope after this method has been called, they will start again from
+   * zero.
+   *
+   * @param  scope  The scope for which to discard the metrics.  It must not be
+   *                {@code null}.
+   */
+  public void removeScope(final String scope)
+  {
+    for (final Map<String,StripedCounter> m : counters.values())
+    {
+      m.remove(scope);
+    }
+
+    for (final Map<String,ValueMetric> m : values.values())
+    {
+      m.remove(scope);
+    }
+  }
+
+
+
+  /**
+   * Resets all of the metrics held in this registry.
+   */
+  public void reset()
+  {
+    for (final Map<String,StripedCounter> m : counters.values())
+    {
+      for (final StripedCounter counter : m.values())
+      {
+        counter.reset();
+      }
+    }
+
+    for (final Map<String,ValueMetric> m : values.values())
+    {
+      for (final ValueMetric metric : m.values())
+      {
+        metric.count.reset();
+        metric.total.reset();
+        metric.max.set(Long.MIN_VALUE);
+      }
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void toString(final StringBuilder buffer)
+  {
+    final List<String> counterStrings = new ArrayList<String>(10);
+    for (final Map.Entry<String,ConcurrentHashMap<String,StripedCounter>> e :
+         counters.entrySet())
+    {
+      for (final Map.Entry<String,StripedCounter> se : e.getValue().entrySet())
+      {
+        counterStrings.add(se.getKey() + '/' + e.getKey() + '=' +
+             se.getValue().get());
+      }
+    }
+
+    final List<String> valueStrings = new ArrayList<String>(10);
+    for (final Map.Entry<String,ConcurrentHashMap<String,ValueMetric>> e :
+         values.entrySet())
+    {
+      for (final Map.Entry<String,ValueMetric> se : e.getValue().entrySet())
+      {
+        final ValueMetric metric = se.getValue();
+        valueStrings.add(se.getKey() + '/' + e.getKey() + "=(count=" +
+             metric.count.get() + ", total=" + metric.total.get() +
+             ", max=" + metric.max.get() + ')');
+      }
+    }
+
+    buffer.append("DefaultMetricsRegistry(counters={");
+    appendList(buffer, counterStrings);
+    buffer.append("}, values={");
+    appendList(buffer, valueStrings);
+    buffer.append("})");
+  }
+
+
+
+  /**
+   * Appends the provided strings to the given buffer as a comma-delimited
+   * list.
+   *
+   * @param  buffer   The buffer to which the strings should be appended.
+   * @param  strings  The strings to be appended.
+   */
+  private static void appendList(final StringBuilder buffer,
+                                 final List<String> strings)
+  {
+    final Iterator<String> iterator = strings.iterator();
+    while (iterator.hasNext())
+    {
+      buffer.append(iterator.next());
+      if (iterator.hasNext())
+      {
+        buffer.append(", ");
+      }
+    }
+  }
+
+
+
+  /**
+   * This class holds the information maintained for a value metric.
+   */
+  private static final class ValueMetric
+  {
+    // The largest value that has been observed.
+    private final AtomicLong max;
+
+    // The number of observations that have been recorded.
+    private final StripedCounter count;
+
+    // The sum of all of the observed values.
+    private final StripedCounter total;
+
+
+
+    /**
+     * Creates a new value metric without any observations.
+     */
+    private ValueMetric()
+    {
+      max   = new AtomicLong(Long.MIN_VALUE);
+      count = new StripedCounter();
+      total = new StripedCounter();
+    }
+
+
+
+    /**
+     * Records the provided observation.
+     *
+     * @param  value  The value that was observed.
+     */
+    private void record(final long value)
+    {
+      count.increment();
+      total.add(value);
+
+      while (true)
+      {
+        final long currentMax = max.get();
+        if ((value <= currentMax) || max.compareAndSet(currentMax, value))
+        {
+          return;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util.metrics;
+
+
+
+import com.unboundid.util.Extensible;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+
+
+/**
+ * This class defines an API that may be used to receive metrics published by
+ * the LDAP SDK from performance-sensitive code paths, including LDAP
+ * connections, connection pools, and listeners.  At most one registry may be
+ * installed at any time, using the {@link #setInstalledRegistry} method.  If
+ * no registry is installed (which is the default), then the SDK will not
+ * perform any processing to gather the metrics.
+ * <BR><BR>
+ * Two kinds of metrics are published:
+ * <UL>
+ *   <LI>Counters, which are monotonically increasing totals like the number of
+ *       bytes read from a server.  They are published with the
+ *       {@link #incrementCounter} method.</LI>
+ *   <LI>Values, which are individual observations like the length of time a
+ *       request took to process or the number of operations in progress on a
+ *       connection at a given point in time.  They are published with the
+ *       {@link #recordValue} method.  All durations are expressed in
+ *       nanoseconds.</LI>
+ * </UL>
+ * The names of the metrics published by the SDK are defined as constants in
+ * this class.  Each metric is published with a scope that identifies the
+ * connection pool, connection, or listener to which it applies:
+ * <UL>
+ *   <LI>Metrics for a connection pool, and for connections that are part of
+ *       that pool, use a scope of "ldap-connection-pool:" followed by the name
+ *       of the pool, or followed by "#" and a number that uniquely identifies
+ *       the pool within the JVM if it does not have a name.</LI>
+ *   <LI>Metrics for connections that are not part of a pool use a scope of
+ *       "ldap-connection:" followed by the name of the connection, or followed
+ *       by "#" and the connection ID if it does not have a name.</LI>
+ *   <LI>Metrics for listeners use a scope of "ldap-listener:" followed by the
+ *       port on which the listener accepted the client connection.</LI>
+ * </UL>
+ * Because the methods of the installed registry are invoked
+ * directly on the threads that perform the associated processing, they must be
+ * fast and threadsafe, and they must not throw any exceptions.
+ * <BR><BR>
+ * The {@link DefaultMetricsRegistry} class provides an implementation that
+ * does not have any external dependencies and maintains the metrics in memory.
+ * To publish the metrics to some other metrics system, create a subclass of
+ * this class that forwards the counters and values to that system.
+ */
+@Extensible()
+@ThreadSafety(level=ThreadSafetyLevel.INTERFACE_THREADSAFE)
+public abstract class MetricsRegistry
+{
+  /**
+   * The name of the counter metric that holds the number of bytes read from
+   * directory servers over LDAP connections.
+   */
+  public static final String METRIC_CONNECTION_BYTES_READ =
+       "ldap-connection.bytes-read";
+
+
+
+  /**
+   * The name of the counter metric that holds the number of bytes written to
+   * directory servers over LDAP connections.
+   */
+  public static final String METRIC_CONNECTION_BYTES_WRITTEN =
+       "ldap-connection.bytes-written";
+
+
+
+  /**
+   * The name of the value metric that holds the number of operations in
+   * progress on an LDAP connection, including the operation being sent, as
+   * observed each time a request is sent on a connection that is not operating
+   * in synchronous mode.
+   */
+  public static final String METRIC_CONNECTION_OPERATIONS_IN_FLIGHT =
+       "ldap-connection.operations-in-flight";
+
+
+
+  /**
+   * The name of the value metric that holds the length of time in nanoseconds
+   * that a thread waited for a connection to become available when checking a
+   * connection out of an LDAP connection pool.  It will only be published for
+   * checkout attempts that needed to wait.
+   */
+  public static final String METRIC_POOL_CHECKOUT_WAIT_NANOS =
+       "ldap-connection-pool.checkout-wait-nanos";
+
+
+
+  /**
+   * The name of the counter metric that holds the number of failed attempts to
+   * check out a connection from an LDAP connection pool.
+   */
+  public static final String METRIC_POOL_FAILED_CHECKOUTS =
+       "ldap-connection-pool.failed-checkouts";
+
+
+
+  /**
+   * The name of the counter metric that holds the number of requests received
+   * by LDAP listeners.
+   */
+  public static final String METRIC_LISTENER_REQUESTS =
+       "ldap-listener.requests";
+
+
+
+  /**
+   * The name of the value metric that holds the length of time in nanoseconds
+   * between an LDAP listener reading a request and sending its final response.
+   */
+  public static final String METRIC_LISTENER_REQUEST_LATENCY_NANOS =
+       "ldap-listener.request-latency-nanos";
+
+
+
+  // The registry that is currently installed, if any.
+  private static volatile MetricsRegistry installedRegistry = null;
+
+
+
+  /**
+   * Creates a new instance of this metrics registry.
+   */
+  protected MetricsRegistry()
+  {
+    // No implementation is required.
+  }
+
+
+
+  /**
+   * Retrieves the metrics registry to which the LDAP SDK is currently
+   * publishing metrics.
+   *
+   * @return  The metrics registry to which the LDAP SDK is currently publishing
+   *          metrics, or {@code null} if no registry is installed.
+   */
+  public static MetricsRegistry getInstalledRegistry()
+  {
+    return installedRegistry;
+  }
+
+
+
+  /**
+   * Specifies the metrics registry to which the LDAP SDK should publish
+   * metrics.  Any previously-installed registry will no longer receive
+   * metrics, although threads that were in the process of publishing a metric
+   * when this method was called may still provide it to the previous registry.
+   *
+   * @param  registry  The metrics registry to which the LDAP SDK should publish
+   *                   metrics.  It may be {@code null} if metrics should not be
+   *                   gathered.
+   */
+  public static void setInstalledRegistry(final MetricsRegistry registry)
+  {
+    installedRegistry = registry;
+  }
+
+
+
+  /**
+   * Increments the specified counter metric by the given amount.
+   *
+   * @param  scope  The scope that identifies the connection pool, connection,
+   *                or listener to which the counter applies.  It will not be
+   *                {@code null}.
+   * @param  name   The name of the counter to increment.  It will not be
+   *                {@code null}.
+   * @param  delta  The amount by which to increment the counter.
+   */
+  public abstract void incrementCounter(final String scope, final String name,
+                                        final long delta);
+
+
+
+  /**
+   * Records an observation for the specified value metric.
+   *
+   * @param  scope  The scope that identifies the connection pool, connection,
+   *                or listener to which the metric applies.  It will not be
+   *                {@code null}.
+   * @param  name   The name of the metric for which to record the observation.
+   *                It will not be {@code null}.
+   * @param  value  The value that was observed.
+   */
+  public abstract void recordValue(final String scope, final String name,
+                                   final long value);
+
+
+
+  /**
+   * Retrieves a string representation of this metrics registry.
+   *
+   * @return  A string representation of this metrics registry.
+   */
+  @Override()
+  public final String toString()
+  {
+    final StringBuilder buffer = new StringBuilder();
+    toString(buffer);
+    return buffer.toString();
+  }
+
+
+
+  /**
+   * Appends a string representation of this metrics registry to the provided
+   * buffer.
+   *
+   * @param  buffer  The buffer to which the information should be appended.
+   */
+  public void toString(final StringBuilder buffer)
+  {
+    buffer.append("MetricsRegistry(className='");
+    buffer.append(getClass().getName());
+    buffer.append("')");
+  }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util.metrics;
+
+
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.unboundid.util.Mutable;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+import static com.unboundid.util.Validator.*;
+
+
+
+/**
+ * This class provides a counter that spreads its updates across a number of
+ * separate cells (or stripes) so that threads incrementing the counter
+ * concurrently will rarely contend with each other.  Each thread always updates
+ * the same stripe, and the cells are spaced far enough apart that they should
+ * not share a CPU cache line.  The value of the counter is the sum of all of
+ * the stripes, which makes it more expensive to read than to update, so it is
+ * best suited to values that are updated frequently but read infrequently.
+ */
+@Mutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class StripedCounter
+       implements Serializable
+{
+  /**
+   * The number of array elements between the cells for adjacent stripes.
+   * With eight-byte elements, this should keep each stripe in its own 64-byte
+   * cache line.
+   */
+  private static final int CELL_SPACING = 8;
+
+
+
+  /**
+   * The maximum number of stripes that will be used by default.
+   */
+  private static final int MAX_DEFAULT_STRIPES = 64;
+
+
+
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = 2834471623559102466L;
+
+
+
+  // The array holding the cells for each of the stripes.
+  private final AtomicLongArray cells;
+
+  // The mask used to select a stripe for a thread.
+  private final int stripeMask;
+
+
+
+  /**
+   * Creates a new striped counter with a number of stripes based on the number
+   * of CPUs available to the JVM.
+   */
+  public StripedCounter()
+  {
+    this(Math.min(MAX_DEFAULT_STRIPES,
+         Runtime.getRuntime().availableProcessors()));
+  }
+
+
+
+  /**
+   * Creates a new striped counter with at least the specified number of
+   * stripes.  The number of stripes will be rounded up to the next power of
+   * two.
+   *
+   * @param  numStripes  The minimum number of stripes to use for the counter.
+   *                     It must be greater than zero.
+   */
+  public StripedCounter(final int numStripes)
+  {
+    ensureTrue(numStripes > 0);
+
+    int n = 1;
+    while ((n < numStripes) && (n < (1 << 16)))
+    {
+      n <<= 1;
+    }
+
+    stripeMask = n - 1;
+    cells = new AtomicLongArray(n * CELL_SPACING);
+  }
+
+
+
+  /**
+   * Retrieves the number of stripes used by this counter.
+   *
+   * @return  The number of stripes used by this counter.
+   */
+  public int getNumStripes()
+  {
+    return stripeMask + 1;
+  }
+
+
+
+  /**
+   * Increments the value of this counter by one.
+   */
+  public void increment()
+  {
+    add(1L);
+  }
+
+
+
+  /**
+   * Adds the provided amount to the value of this counter.
+   *
+   * @param  delta  The amount to add to the value of this counter.  It may be
+   *                negative.
+   */
+  public void add(final long delta)
+  {
+    final int stripe = (int) (Thread.currentThread().getId() & stripeMask);
+    cells.addAndGet((stripe * CELL_SPACING), delta);
+  }
+
+
+
+  /**
+   * Retrieves the current value of this counter.  If the counter is being
+   * updated concurrently, then the value may not reflect some of those
+   * updates.
+   *
+   * @return  The current value of this counter.
+   */
+  public long get()
+  {
+    long sum = 0L;
+    for (int i=0; i <= stripeMask; i++)
+    {
+      sum += cells.get(i * CELL_SPACING);
+    }
+
+    return sum;
+  }
+
+
+
+  /**
+   * Resets the value of this counter to zero.  Any updates made concurrently
+   * with the reset may or may not be retained.
+   */
+  public void reset()
+  {
+    for (int i=0; i <= stripeMask; i++)
+    {
+      cells.set((i * CELL_SPACING), 0L);
+    }
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this striped counter.
+   *
+   * @return  A string representation of this striped counter.
+   */
+  @Override()
+  public String toString()
+  {
+    return String.valueOf(get());
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+
+
+
+/**
+ * This package provides an API that may be used to gather metrics from
+ * performance-sensitive parts of the LDAP SDK, like the number of bytes sent
+ * and received over LDAP connections, the length of time spent waiting to check
+ * out connections from connection pools, and the number of requests processed
+ * by LDAP listeners.  Metrics are published to the
+ * {@link com.unboundid.util.metrics.MetricsRegistry} that has been installed,
+ * and they are not gathered at all if no registry is installed.  The
+ * {@link com.unboundid.util.metrics.DefaultMetricsRegistry} class provides an
+ * in-memory implementation, and custom implementations may be used to bridge
+ * the metrics to other monitoring systems.
+ */
+package com.unboundid.util.metrics;
@@ -35,10 +35,12 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.SSLSocket;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.SSLServerSocketFactory;
@@ -117,6 +119,19 @@ import static com.unboundid.util.ssl.SSLMessages.*;
  *
  * connection.close();
  * </PRE>
+ * <BR>
+ * <H2>TLS Session Resumption</H2>
+ * Each SSL context created by this class maintains a client-side cache of TLS
+ * sessions, keyed by the address and port of the server, and connections
+ * created from the same context (including connections in a connection pool
+ * and connections secured with StartTLS) will attempt to resume a cached
+ * session with the same server rather than performing a full handshake.  The
+ * {@link #setDefaultClientSessionCacheSize} and
+ * {@link #setDefaultClientSessionTimeoutSeconds} methods may be used to control
+ * how many sessions are cached and for how long they may be resumed.  Reusing
+ * the same {@code SSLUtil}-created context or socket factory for all
+ * connections to a server is necessary to take advantage of session
+ * resumption.
  */
 @ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
 public final class SSLUtil
@@ -144,6 +159,47 @@ public final class SSLUtil
 
 
 
+  /**
+   * The name of the system property that can be used to specify the initial
+   * value for the maximum number of TLS sessions that will be cached by SSL
+   * contexts created by this class for use in resuming sessions with servers.
+   * This can be overridden via the {@link #setDefaultClientSessionCacheSize}
+   * method.
+   */
+  public static final String PROPERTY_CLIENT_SESSION_CACHE_SIZE =
+       "com.unboundid.util.SSLUtil.clientSessionCacheSize";
+
+
+
+  /**
+   * The name of the system property that can be used to specify the initial
+   * value for the maximum length of time in seconds that a TLS session cached
+   * by an SSL context created by this class may be resumed.  This can be
+   * overridden via the {@link #setDefaultClientSessionTimeoutSeconds} method.
+   */
+  public static final String PROPERTY_CLIENT_SESSION_TIMEOUT_SECONDS =
+       "com.unboundid.util.SSLUtil.clientSessionTimeoutSeconds";
+
+
+
+  /**
+   * The maximum number of TLS sessions that will be cached by SSL contexts
+   * created by this class, or -1 if the JVM default should be used.
+   */
+  private static final AtomicInteger CLIENT_SESSION_CACHE_SIZE =
+       new AtomicInteger(-1);
+
+
+
+  /**
+   * The maximum length of time in seconds that a cached TLS session may be
+   * resumed, or -1 if the JVM default should be used.
+   */
+  private static final AtomicInteger CLIENT_SESSION_TIMEOUT_SECONDS =
+       new AtomicInteger(-1);
+
+
+
   /**
    * The default protocol string that will be used to create SSL contexts when
    * no explicit protocol is specified.
@@ -388,6 +444,7 @@ public final class SSLUtil
 
     final SSLContext sslContext = SSLContext.getInstance(protocol);
     sslContext.init(keyManagers, trustManagers, null);
+    configureClientSessionContext(sslContext);
     return sslContext;
   }
 
@@ -417,6 +474,7 @@ public final class SSLUtil
 
     final SSLContext sslContext = SSLContext.getInstance(protocol, provider);
     sslContext.init(keyManagers, trustManagers, null);
+    configureClientSessionContext(sslContext);
     return sslContext;
   }
 
@@ -562,6 +620,103 @@ public final class SSLUtil
 
 
 
+  /**
+   * Applies the configured client session cache size and timeout, if any, to
+   * the provided SSL context.
+   *
+   * @param  sslContext  The SSL context to configure.
+   */
+  private static void configureClientSessionContext(
+                           final SSLContext sslContext)
+  {
+    final SSLSessionContext sessionContext =
+         sslContext.getClientSessionContext();
+    if (sessionContext == null)
+    {
+      return;
+    }
+
+    final int cacheSize = CLIENT_SESSION_CACHE_SIZE.get();
+    if (cacheSize >= 0)
+    {
+      sessionContext.setSessionCacheSize(cacheSize);
+    }
+
+    final int timeoutSeconds = CLIENT_SESSION_TIMEOUT_SECONDS.get();
+    if (timeoutSeconds >= 0)
+    {
+      sessionContext.setSessionTimeout(timeoutSeconds);
+    }
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of TLS sessions that will be cached by SSL
+   * contexts created by this class for use in resuming sessions with servers.
+   *
+   * @return  The maximum number of TLS sessions that will be cached by SSL
+   *          contexts created by this class, zero if there is no limit, or -1
+   *          if the JVM-default cache size will be used.
+   */
+  public static int getDefaultClientSessionCacheSize()
+  {
+    return CLIENT_SESSION_CACHE_SIZE.get();
+  }
+
+
+
+  /**
+   * Specifies the maximum number of TLS sessions that will be cached by SSL
+   * contexts created by this class for use in resuming sessions with servers.
+   * This will only affect SSL contexts created after this method is called.
+   *
+   * @param  cacheSize  The maximum number of TLS sessions that will be cached.
+   *                    A value of zero indicates that there should be no
+   *                    limit, and a negative value indicates that the
+   *                    JVM-default cache size should be used.
+   */
+  public static void setDefaultClientSessionCacheSize(final int cacheSize)
+  {
+    CLIENT_SESSION_CACHE_SIZE.set(Math.max(-1, cacheSize));
+  }
+
+
+
+  /**
+   * Retrieves the maximum length of time in seconds that a TLS session cached
+   * by an SSL context created by this class may be resumed.
+   *
+   * @return  The maximum length of time in seconds that a cached TLS session
+   *          may be resumed, zero if there is no limit, or -1 if the
+   *          JVM-default timeout will be used.
+   */
+  public static int getDefaultClientSessionTimeoutSeconds()
+  {
+    return CLIENT_SESSION_TIMEOUT_SECONDS.get();
+  }
+
+
+
+  /**
+   * Specifies the maximum length of time in seconds that a TLS session cached
+   * by an SSL context created by this class may be resumed.  This will only
+   * affect SSL contexts created after this method is called.
+   *
+   * @param  timeoutSeconds  The maximum length of time in seconds that a cached
+   *                         TLS session may be resumed.  A value of zero
+   *                         indicates that there should be no limit, and a
+   *                         negative value indicates that the JVM-default
+   *                         timeout should be used.
+   */
+  public static void setDefaultClientSessionTimeoutSeconds(
+                          final int timeoutSeconds)
+  {
+    CLIENT_SESSION_TIMEOUT_SECONDS.set(Math.max(-1, timeoutSeconds));
+  }
+
+
+
   /**
    * Retrieves the SSL protocol string that will be used by calls to
    * {@link #createSSLContext()} that do not explicitly specify which protocol
@@ -920,6 +1075,42 @@ public final class SSLUtil
     }
 
     ENABLED_SSL_PROTOCOLS.set(Collections.unmodifiableSet(enabledProtocols));
+
+    // See if there are system properties that specify the client session cache
+    // size and timeout.
+    CLIENT_SESSION_CACHE_SIZE.set(
+         getIntegerProperty(PROPERTY_CLIENT_SESSION_CACHE_SIZE));
+    CLIENT_SESSION_TIMEOUT_SECONDS.set(
+         getIntegerProperty(PROPERTY_CLIENT_SESSION_TIMEOUT_SECONDS));
+  }
+
+
+
+  /**
+   * Retrieves the non-negative integer value of the specified system property.
+   *
+   * @param  name  The name of the system property to retrieve.
+   *
+   * @return  The integer value of the specified system property, or -1 if it
+   *          is not set or does not have a non-negative integer value.
+   */
+  private static int getIntegerProperty(final String name)
+  {
+    final String value = System.getProperty(name);
+    if ((value == null) || (value.length() == 0))
+    {
+      return -1;
+    }
+
+    try
+    {
+      return Math.max(-1, Integer.parseInt(value));
+    }
+    catch (final Exception e)
+    {
+      Debug.debugException(e);
+      return -1;
+    }
   }
 
 
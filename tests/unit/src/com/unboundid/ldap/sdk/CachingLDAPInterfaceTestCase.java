@@ -0,0 +1,630 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.testng.annotations.Test;
+
+import com.unboundid.asn1.ASN1OctetString;
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.listener.interceptor.InMemoryInterceptedSearchResult;
+import com.unboundid.ldap.listener.interceptor.InMemoryOperationInterceptor;
+import com.unboundid.ldap.sdk.controls.ContentSyncInfoIntermediateResponse;
+import com.unboundid.ldap.sdk.controls.ContentSyncRequestControl;
+import com.unboundid.ldap.sdk.controls.ContentSyncState;
+import com.unboundid.ldap.sdk.controls.ContentSyncStateControl;
+import com.unboundid.ldap.sdk.controls.EntryChangeNotificationControl;
+import com.unboundid.ldap.sdk.controls.ManageDsaITRequestControl;
+import com.unboundid.ldap.sdk.controls.PersistentSearchChangeType;
+import com.unboundid.ldap.sdk.controls.PersistentSearchRequestControl;
+
+
+
+/**
+ * This class provides a set of test cases for the {@code CachingLDAPInterface}
+ * class and its associated statistics and invalidator classes.
+ */
+public class CachingLDAPInterfaceTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Tests the basic caching behavior for searches.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testBasicCaching()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final LDAPConnectionPool pool = ds.getConnectionPool(1);
+
+    final CachingLDAPInterface cache =
+         new CachingLDAPInterface(pool, 10, 0L);
+    assertNotNull(cache.getWrappedInterface());
+    assertEquals(cache.getMaxCachedResults(), 10);
+    assertEquals(cache.getTimeToLiveMillis(), 0L);
+    assertEquals(cache.getMaxEntriesPerResult(),
+         CachingLDAPInterface.DEFAULT_MAX_ENTRIES_PER_RESULT);
+    assertEquals(cache.getCurrentCachedResults(), 0);
+
+    final CachingLDAPInterfaceStatistics stats = cache.getStatistics();
+    assertNotNull(stats);
+    assertEquals(stats.getNumHits(), 0L);
+    assertEquals(stats.getNumMisses(), 0L);
+    assertEquals(stats.getHitRatioPercent(), 0.0d);
+
+    final SearchResult r1 = cache.search("dc=example,dc=com",
+         SearchScope.SUB, "(uid=test.user)", "cn", "sn");
+    assertEquals(r1.getEntryCount(), 1);
+    assertEquals(stats.getNumMisses(), 1L);
+    assertEquals(stats.getNumHits(), 0L);
+    assertEquals(cache.getCurrentCachedResults(), 1);
+
+    // An equivalent search with a different DN and filter representation and
+    // a different attribute order should be a cache hit.
+    final SearchResult r2 = cache.search("DC=Example, DC=Com",
+         SearchScope.SUB, "(UID=Test.User)", "SN", "cn");
+    assertSame(r2, r1);
+    assertEquals(stats.getNumMisses(), 1L);
+    assertEquals(stats.getNumHits(), 1L);
+    assertEquals(stats.getHitRatioPercent(), 50.0d);
+
+    // Searches with a different scope, attribute list, or set of controls
+    // should not be hits.
+    cache.search("dc=example,dc=com", SearchScope.ONE, "(uid=test.user)",
+         "cn", "sn");
+    cache.search("dc=example,dc=com", SearchScope.SUB, "(uid=test.user)",
+         "cn");
+
+    final SearchRequest requestWithControl = new SearchRequest(
+         "dc=example,dc=com", SearchScope.SUB, "(uid=test.user)", "cn", "sn");
+    requestWithControl.addControl(new ManageDsaITRequestControl());
+    cache.search(requestWithControl);
+    assertEquals(stats.getNumMisses(), 4L);
+    assertEquals(stats.getNumHits(), 1L);
+    assertEquals(cache.getCurrentCachedResults(), 4);
+
+    // The getEntry and searchForEntry methods should also use the cache.
+    assertNotNull(cache.getEntry("uid=test.user,ou=People,dc=example,dc=com"));
+    assertNotNull(cache.getEntry("uid=test.user,ou=People,dc=example,dc=com"));
+    assertNotNull(cache.searchForEntry("dc=example,dc=com", SearchScope.SUB,
+         "(uid=test.user)"));
+    assertNotNull(cache.searchForEntry("dc=example,dc=com", SearchScope.SUB,
+         Filter.create("(uid=test.user)")));
+    assertEquals(stats.getNumMisses(), 6L);
+    assertEquals(stats.getNumHits(), 3L);
+
+    // A search that returns no entries should be cached.
+    assertNull(cache.searchForEntry("dc=example,dc=com", SearchScope.SUB,
+         "(uid=missing)"));
+    assertNull(cache.searchForEntry("dc=example,dc=com", SearchScope.SUB,
+         "(uid=missing)"));
+    assertEquals(stats.getNumMisses(), 7L);
+    assertEquals(stats.getNumHits(), 4L);
+
+    // A search for an entry that does not exist should not be cached.
+    assertNull(cache.getEntry("ou=missing,dc=example,dc=com"));
+    assertNull(cache.getEntry("ou=missing,dc=example,dc=com"));
+    assertEquals(stats.getNumMisses(), 9L);
+    assertEquals(stats.getNumHits(), 4L);
+
+    assertNotNull(stats.toString());
+    assertNotNull(cache.toString());
+
+    stats.reset();
+    assertEquals(stats.getNumHits(), 0L);
+    assertEquals(stats.getNumMisses(), 0L);
+
+    cache.invalidateAll();
+    assertEquals(cache.getCurrentCachedResults(), 0);
+    assertTrue(stats.getNumInvalidations() > 0L);
+
+    pool.close();
+  }
+
+
+
+  /**
+   * Tests the behavior for searches that should not be cached.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testUncacheableSearches()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final LDAPConnectionPool pool = ds.getConnectionPool(1);
+
+    final CachingLDAPInterface cache =
+         new CachingLDAPInterface(pool, 10, 0L);
+    final CachingLDAPInterfaceStatistics stats = cache.getStatistics();
+
+    // Searches with a search result listener should not be cached.
+    final TestAsyncListener listener = new TestAsyncListener();
+    cache.search(listener, "dc=example,dc=com", SearchScope.SUB,
+         "(objectClass=*)");
+    cache.search(listener, "dc=example,dc=com", SearchScope.SUB,
+         "(objectClass=*)");
+    assertEquals(stats.getNumUncacheable(), 2L);
+    assertEquals(cache.getCurrentCachedResults(), 0);
+
+    // Searches with more than the maximum number of entries should not be
+    // cached.
+    cache.setMaxEntriesPerResult(2);
+    assertEquals(cache.getMaxEntriesPerResult(), 2);
+    assertEquals(cache.search("dc=example,dc=com", SearchScope.SUB,
+         "(objectClass=*)").getEntryCount(), 3);
+    assertEquals(cache.getCurrentCachedResults(), 0);
+    assertEquals(stats.getNumUncacheable(), 3L);
+
+    cache.setMaxEntriesPerResult(-1);
+    assertEquals(cache.getMaxEntriesPerResult(), 0);
+
+    // Failed searches should not be cached.
+    try
+    {
+      cache.search("ou=missing,dc=example,dc=com", SearchScope.BASE,
+           "(objectClass=*)");
+      fail("Expected an exception for a missing base entry");
+    }
+    catch (final LDAPSearchException lse)
+    {
+      assertEquals(lse.getResultCode(), ResultCode.NO_SUCH_OBJECT);
+    }
+    assertEquals(cache.getCurrentCachedResults(), 0);
+
+    try
+    {
+      cache.search("dc=example,dc=com", SearchScope.SUB, "invalid filter");
+      fail("Expected an exception for an invalid filter");
+    }
+    catch (final LDAPSearchException lse)
+    {
+      assertEquals(lse.getResultCode(), ResultCode.FILTER_ERROR);
+    }
+
+    pool.close();
+  }
+
+
+
+  /**
+   * Tests the eviction and expiration behavior.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testEvictionAndExpiration()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final LDAPConnectionPool pool = ds.getConnectionPool(1);
+
+    final CachingLDAPInterface cache =
+         new CachingLDAPInterface(pool, 2, 0L);
+    final CachingLDAPInterfaceStatistics stats = cache.getStatistics();
+
+    cache.getEntry("dc=example,dc=com");
+    cache.getEntry("ou=People,dc=example,dc=com");
+    assertEquals(cache.getCurrentCachedResults(), 2);
+
+    // Access the first entry so that the second becomes least recently used.
+    cache.getEntry("dc=example,dc=com");
+    assertEquals(stats.getNumHits(), 1L);
+
+    cache.getEntry("uid=test.user,ou=People,dc=example,dc=com");
+    assertEquals(cache.getCurrentCachedResults(), 2);
+    assertEquals(stats.getNumEvictions(), 1L);
+
+    cache.getEntry("dc=example,dc=com");
+    assertEquals(stats.getNumHits(), 2L);
+
+    cache.getEntry("ou=People,dc=example,dc=com");
+    assertEquals(stats.getNumHits(), 2L);
+    assertEquals(stats.getNumEvictions(), 2L);
+
+    cache.invalidateAll();
+    cache.setTimeToLiveMillis(1L);
+    assertEquals(cache.getTimeToLiveMillis(), 1L);
+
+    cache.getEntry("dc=example,dc=com");
+    Thread.sleep(10L);
+    cache.getEntry("dc=example,dc=com");
+    assertEquals(stats.getNumExpirations(), 1L);
+    assertEquals(stats.getNumHits(), 2L);
+
+    pool.close();
+  }
+
+
+
+  /**
+   * Tests the invalidation behavior for writes processed through the caching
+   * interface and for explicit invalidation.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testInvalidation()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final LDAPConnectionPool pool = ds.getConnectionPool(1);
+
+    final CachingLDAPInterface cache =
+         new CachingLDAPInterface(pool, 10, 0L);
+
+    final String userDN = "uid=test.user,ou=People,dc=example,dc=com";
+    assertEquals(cache.getEntry(userDN, "description").getAttributeValue(
+         "description"), null);
+
+    // A change made outside of the cache should not be visible until the
+    // entry has been invalidated.
+    ds.modify(userDN, new Modification(ModificationType.REPLACE,
+         "description", "foo"));
+    assertNull(cache.getEntry(userDN, "description").getAttributeValue(
+         "description"));
+
+    cache.invalidate("dc=example,dc=com");
+    assertNull(cache.getEntry(userDN, "description").getAttributeValue(
+         "description"));
+
+    cache.invalidate(userDN);
+    assertEquals(cache.getEntry(userDN, "description").getAttributeValue(
+         "description"), "foo");
+
+    // A change made through the cache should invalidate it.
+    cache.search("dc=example,dc=com", SearchScope.SUB, "(description=*)");
+    cache.search("ou=People,dc=example,dc=com", SearchScope.ONE,
+         "(description=*)");
+    cache.search("dc=example,dc=com", SearchScope.BASE, "(objectClass=*)");
+    assertEquals(cache.getCurrentCachedResults(), 4);
+
+    cache.modify(userDN, new Modification(ModificationType.REPLACE,
+         "description", "bar"));
+    assertEquals(cache.getCurrentCachedResults(), 1);
+    assertEquals(cache.getEntry(userDN, "description").getAttributeValue(
+         "description"), "bar");
+    assertEquals(cache.search("dc=example,dc=com", SearchScope.SUB,
+         "(description=bar)").getEntryCount(), 1);
+
+    cache.add(
+         "dn: ou=new,dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: organizationalUnit",
+         "ou: new");
+    assertEquals(cache.search("dc=example,dc=com", SearchScope.ONE,
+         "(objectClass=*)").getEntryCount(), 2);
+
+    cache.modifyDN("ou=new,dc=example,dc=com", "ou=renamed", true);
+    assertNull(cache.getEntry("ou=new,dc=example,dc=com"));
+    assertNotNull(cache.getEntry("ou=renamed,dc=example,dc=com"));
+    assertEquals(cache.search("dc=example,dc=com", SearchScope.SUB,
+         "(ou=renamed)").getEntryCount(), 1);
+
+    cache.delete("ou=renamed,dc=example,dc=com");
+    assertNull(cache.getEntry("ou=renamed,dc=example,dc=com"));
+    assertEquals(cache.search("dc=example,dc=com", SearchScope.SUB,
+         "(ou=renamed)").getEntryCount(), 0);
+
+    // Invalidating a subtree should remove results based below it.
+    cache.getEntry(userDN);
+    cache.invalidateSubtree("ou=People,dc=example,dc=com");
+    cache.getEntry(userDN);
+    assertTrue(cache.getStatistics().getNumInvalidations() > 0L);
+
+    // Invalid DNs should cause everything to be invalidated.
+    cache.getEntry(userDN);
+    cache.invalidate("invalid");
+    assertEquals(cache.getCurrentCachedResults(), 0);
+
+    cache.getEntry(userDN);
+    cache.invalidateSubtree("invalid");
+    assertEquals(cache.getCurrentCachedResults(), 0);
+
+    pool.close();
+  }
+
+
+
+  /**
+   * Tests to ensure that a search result will not be cached if the cache is
+   * invalidated while the search is in progress.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testInvalidationDuringSearch()
+         throws Exception
+  {
+    // Create a server that will block the first search after it has been
+    // processed but before the result has been returned.
+    final CountDownLatch searchProcessed = new CountDownLatch(1);
+    final CountDownLatch releaseSearch = new CountDownLatch(1);
+    final InMemoryDirectoryServerConfig config =
+         new InMemoryDirectoryServerConfig("dc=example,dc=com");
+    config.addInMemoryOperationInterceptor(new InMemoryOperationInterceptor()
+    {
+      @Override()
+      public void processSearchResult(
+                       final InMemoryInterceptedSearchResult result)
+      {
+        if (searchProcessed.getCount() > 0L)
+        {
+          searchProcessed.countDown();
+          try
+          {
+            releaseSearch.await(30L, TimeUnit.SECONDS);
+          }
+          catch (final InterruptedException ie)
+          {
+            Thread.currentThread().interrupt();
+          }
+        }
+      }
+    });
+
+    final InMemoryDirectoryServer ds = new InMemoryDirectoryServer(config);
+    ds.startListening();
+    ds.add(
+         "dn: dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: domain",
+         "dc: example");
+
+    final LDAPConnectionPool pool = ds.getConnectionPool(1);
+    final CachingLDAPInterface cache =
+         new CachingLDAPInterface(pool, 10, 0L);
+
+    final AtomicReference<Exception> searchException =
+         new AtomicReference<Exception>();
+    final Thread searchThread = new Thread()
+    {
+      @Override()
+      public void run()
+      {
+        try
+        {
+          cache.search("dc=example,dc=com", SearchScope.BASE,
+               "(objectClass=*)");
+        }
+        catch (final Exception e)
+        {
+          searchException.set(e);
+        }
+      }
+    };
+    searchThread.start();
+
+    try
+    {
+      assertTrue(searchProcessed.await(30L, TimeUnit.SECONDS));
+      cache.invalidate("dc=example,dc=com");
+    }
+    finally
+    {
+      releaseSearch.countDown();
+      searchThread.join(30000L);
+    }
+
+    assertNull(searchException.get());
+    assertEquals(cache.getCurrentCachedResults(), 0);
+    assertEquals(cache.getStatistics().getNumUncacheable(), 1L);
+
+    // A subsequent search should be cached normally.
+    cache.search("dc=example,dc=com", SearchScope.BASE, "(objectClass=*)");
+    assertEquals(cache.getCurrentCachedResults(), 1);
+
+    pool.close();
+    ds.shutDown(true);
+  }
+
+
+
+  /**
+   * Tests the behavior of the invalidator.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testInvalidator()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final LDAPConnectionPool pool = ds.getConnectionPool(1);
+
+    final CachingLDAPInterface cache =
+         new CachingLDAPInterface(pool, 10, 0L);
+    final CachingLDAPInterfaceInvalidator invalidator =
+         new CachingLDAPInterfaceInvalidator(cache);
+    assertSame(invalidator.getCachingInterface(), cache);
+
+    final SearchRequest psearchRequest =
+         invalidator.createPersistentSearchRequest("dc=example,dc=com",
+              SearchScope.SUB);
+    assertSame(psearchRequest.getSearchResultListener(), invalidator);
+    assertTrue(psearchRequest.hasControl(
+         PersistentSearchRequestControl.PERSISTENT_SEARCH_REQUEST_OID));
+
+    final SearchRequest syncRequest =
+         invalidator.createContentSyncSearchRequest("dc=example,dc=com",
+              SearchScope.SUB);
+    assertSame(syncRequest.getSearchResultListener(), invalidator);
+    assertSame(syncRequest.getIntermediateResponseListener(), invalidator);
+    assertTrue(syncRequest.hasControl(
+         ContentSyncRequestControl.SYNC_REQUEST_OID));
+
+    final String userDN = "uid=test.user,ou=People,dc=example,dc=com";
+
+    // A plain entry should invalidate results that include it.
+    cache.getEntry(userDN);
+    cache.getEntry("dc=example,dc=com");
+    invalidator.searchEntryReturned(new SearchResultEntry(userDN,
+         new Attribute[0]));
+    assertEquals(cache.getCurrentCachedResults(), 1);
+
+    // An entry change notification for a modify DN should invalidate the old
+    // and new subtrees.
+    cache.getEntry(userDN);
+    cache.search("ou=People,dc=example,dc=com", SearchScope.SUB,
+         "(objectClass=*)");
+    invalidator.searchEntryReturned(new SearchResultEntry(
+         "ou=Users,dc=example,dc=com", new Attribute[0],
+         new EntryChangeNotificationControl(
+              PersistentSearchChangeType.MODIFY_DN,
+              "ou=People,dc=example,dc=com", -1L)));
+    assertEquals(cache.getCurrentCachedResults(), 1);
+
+    // An entry change notification for a modify should invalidate only the
+    // entry.
+    cache.getEntry(userDN);
+    invalidator.searchEntryReturned(new SearchResultEntry(
+         "dc=example,dc=com", new Attribute[0],
+         new EntryChangeNotificationControl(
+              PersistentSearchChangeType.MODIFY, null, -1L)));
+    assertEquals(cache.getCurrentCachedResults(), 1);
+
+    // References should be ignored.
+    invalidator.searchReferenceReturned(new SearchResultReference(
+         new String[] { "ldap://ds.example.com/dc=example,dc=com" },
+         new Control[0]));
+    assertEquals(cache.getCurrentCachedResults(), 1);
+
+    // A new cookie should have no effect, but a refresh delete should
+    // invalidate everything.
+    invalidator.intermediateResponseReturned(
+         ContentSyncInfoIntermediateResponse.createNewCookieResponse(
+              new ASN1OctetString("cookie")));
+    assertEquals(cache.getCurrentCachedResults(), 1);
+
+    invalidator.intermediateResponseReturned(
+         new IntermediateResponse("1.2.3.4", null));
+    assertEquals(cache.getCurrentCachedResults(), 1);
+
+    invalidator.intermediateResponseReturned(
+         ContentSyncInfoIntermediateResponse.createRefreshDeleteResponse(
+              null, true));
+    assertEquals(cache.getCurrentCachedResults(), 0);
+
+    // The end of the search should invalidate everything.
+    cache.getEntry(userDN);
+    invalidator.searchResultReceived(null,
+         new SearchResult(1, ResultCode.SUCCESS, null, null, null, 0, 0,
+              null));
+    assertEquals(cache.getCurrentCachedResults(), 0);
+
+    pool.close();
+  }
+
+
+
+  /**
+   * Tests the behavior of the invalidator for entries that have been renamed
+   * without an entry change notification control that provides the previous
+   * DN.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testInvalidatorRenameWithoutPreviousDN()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final LDAPConnectionPool pool = ds.getConnectionPool(1);
+
+    final CachingLDAPInterface cache =
+         new CachingLDAPInterface(pool, 10, 0L);
+    final CachingLDAPInterfaceInvalidator invalidator =
+         new CachingLDAPInterfaceInvalidator(cache);
+
+    final String userDN = "uid=test.user,ou=People,dc=example,dc=com";
+    final String renamedDN = "uid=renamed.user,ou=People,dc=example,dc=com";
+
+    // A content synchronization search should reveal the DN for each
+    // entryUUID, without invalidating anything for unchanged entries.
+    final UUID syncUUID = UUID.randomUUID();
+    cache.getEntry(userDN);
+    cache.getEntry("ou=People,dc=example,dc=com");
+    invalidator.searchEntryReturned(new SearchResultEntry(userDN,
+         new Attribute[0],
+         new ContentSyncStateControl(ContentSyncState.PRESENT, syncUUID,
+              null)));
+    assertEquals(cache.getCurrentCachedResults(), 2);
+
+    // A modification to the same entryUUID under a different DN should
+    // invalidate results for the old DN.
+    invalidator.searchEntryReturned(new SearchResultEntry(renamedDN,
+         new Attribute[0],
+         new ContentSyncStateControl(ContentSyncState.MODIFY, syncUUID,
+              null)));
+    assertEquals(cache.getCurrentCachedResults(), 1);
+
+    // A modification to an unknown entryUUID could reflect a rename from
+    // anywhere within the base of the search.
+    invalidator.createContentSyncSearchRequest("ou=People,dc=example,dc=com",
+         SearchScope.SUB);
+    cache.getEntry("dc=example,dc=com");
+    invalidator.searchEntryReturned(new SearchResultEntry(userDN,
+         new Attribute[0],
+         new ContentSyncStateControl(ContentSyncState.MODIFY,
+              UUID.randomUUID(), null)));
+    assertEquals(cache.getCurrentCachedResults(), 1);
+
+    // A persistent search entry with an entryUUID attribute should allow a
+    // later modify DN to be matched up with the old DN.
+    final Attribute uuidAttribute =
+         new Attribute("entryUUID", UUID.randomUUID().toString());
+    cache.getEntry(userDN);
+    invalidator.searchEntryReturned(new SearchResultEntry(userDN,
+         new Attribute[] { uuidAttribute },
+         new EntryChangeNotificationControl(
+              PersistentSearchChangeType.MODIFY, null, -1L)));
+    assertEquals(cache.getCurrentCachedResults(), 1);
+
+    cache.getEntry(userDN);
+    invalidator.searchEntryReturned(new SearchResultEntry(renamedDN,
+         new Attribute[] { uuidAttribute },
+         new EntryChangeNotificationControl(
+              PersistentSearchChangeType.MODIFY_DN, null, -1L)));
+    assertEquals(cache.getCurrentCachedResults(), 1);
+
+    // An invalidator that has not created any searches should invalidate
+    // everything for a modify DN with an unknown previous DN.
+    final CachingLDAPInterfaceInvalidator otherInvalidator =
+         new CachingLDAPInterfaceInvalidator(cache);
+    otherInvalidator.searchEntryReturned(new SearchResultEntry(renamedDN,
+         new Attribute[0],
+         new EntryChangeNotificationControl(
+              PersistentSearchChangeType.MODIFY_DN, null, -1L)));
+    assertEquals(cache.getCurrentCachedResults(), 0);
+
+    pool.close();
+  }
+}
@@ -52,6 +52,39 @@ public final class LDAPConnectionPoolHealthCheckResultTestCase
 
     assertEquals(r.getNumDefunct(), 2);
 
+    assertEquals(r.getNumSkipped(), 0);
+
+    assertEquals(r.getDurationMillis(), 0L);
+
+    assertNotNull(r.toString());
+  }
+
+
+
+  /**
+   * Provides test coverage for a health check result object that includes the
+   * number of skipped connections and the duration.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testHealthCheckResultWithDuration()
+         throws Exception
+  {
+    final LDAPConnectionPoolHealthCheckResult r =
+         new LDAPConnectionPoolHealthCheckResult(5, 1, 2, 3, 1234L);
+    assertNotNull(r);
+
+    assertEquals(r.getNumExamined(), 5);
+
+    assertEquals(r.getNumExpired(), 1);
+
+    assertEquals(r.getNumDefunct(), 2);
+
+    assertEquals(r.getNumSkipped(), 3);
+
+    assertEquals(r.getDurationMillis(), 1234L);
+
     assertNotNull(r.toString());
   }
 }
@@ -0,0 +1,363 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.listener.InMemoryListenerConfig;
+import com.unboundid.ldap.listener.interceptor.
+            InMemoryInterceptedCompareRequest;
+import com.unboundid.ldap.listener.interceptor.InMemoryOperationInterceptor;
+
+
+
+/**
+ * This class provides a set of test cases for the background connection
+ * replenishment capabilities of the {@code LDAPConnectionPool} class.
+ */
+public class LDAPConnectionPoolReplenisherTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Tests the behavior when background replenishment is not enabled.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testReplenishmentDisabled()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS();
+    final LDAPConnectionPool pool = ds.getConnectionPool(2);
+
+    assertFalse(pool.backgroundReplenishmentEnabled());
+    assertEquals(pool.getBackgroundReplenishmentThreads(), 0);
+    assertEquals(pool.getBackgroundReplenishmentMaxConnectsPerSecond(), 0);
+    assertEquals(pool.getPendingReplenishmentConnections(), 0);
+
+    pool.setBackgroundReplenishment(2, 10);
+    assertTrue(pool.backgroundReplenishmentEnabled());
+
+    pool.setBackgroundReplenishment(0, 10);
+    assertFalse(pool.backgroundReplenishmentEnabled());
+    assertEquals(pool.getBackgroundReplenishmentThreads(), 0);
+
+    pool.close();
+
+    pool.setBackgroundReplenishment(2, 10);
+    assertFalse(pool.backgroundReplenishmentEnabled());
+  }
+
+
+
+  /**
+   * Tests that defunct connections are replaced in the background.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testReplaceDefunctConnections()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS();
+    final LDAPConnectionPool pool = ds.getConnectionPool(3);
+    pool.setMaxWaitTimeMillis(10000L);
+    pool.setBackgroundReplenishment(2, 0, 10L, 100L);
+
+    assertTrue(pool.backgroundReplenishmentEnabled());
+    assertEquals(pool.getBackgroundReplenishmentThreads(), 2);
+    assertEquals(pool.getBackgroundReplenishmentMaxConnectsPerSecond(), 0);
+
+    final LDAPConnection c1 = pool.getConnection();
+    final LDAPConnection c2 = pool.getConnection();
+    final LDAPConnection c3 = pool.getConnection();
+    assertEquals(pool.getCurrentAvailableConnections(), 0);
+
+    pool.releaseDefunctConnection(c1);
+    pool.releaseDefunctConnection(c2);
+    pool.releaseDefunctConnection(c3);
+
+    waitForAvailableConnections(pool, 3);
+    assertEquals(pool.getPendingReplenishmentConnections(), 0);
+    assertEquals(
+         pool.getConnectionPoolStatistics().getNumConnectionsClosedDefunct(),
+         3L);
+
+    final LDAPConnection c = pool.getConnection();
+    assertTrue(c.isConnected());
+    assertNotNull(c.getRootDSE());
+    pool.releaseConnection(c);
+
+    pool.close();
+    assertFalse(pool.backgroundReplenishmentEnabled() &&
+         (pool.getPendingReplenishmentConnections() > 0));
+  }
+
+
+
+  /**
+   * Tests that the replenisher will be used to reach the minimum available
+   * connection goal, and that the rate limit will be honored.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testMinimumConnectionGoalWithRateLimit()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS();
+    final LDAPConnectionPool pool =
+         new LDAPConnectionPool(ds.getConnection(), 1, 5);
+    pool.setMinimumAvailableConnectionGoal(3);
+
+    final long startTime = System.currentTimeMillis();
+    pool.setBackgroundReplenishment(3, 2);
+    assertEquals(pool.getBackgroundReplenishmentMaxConnectsPerSecond(), 2);
+
+    waitForAvailableConnections(pool, 3);
+    assertTrue((System.currentTimeMillis() - startTime) >= 500L);
+
+    pool.invokeHealthCheck(null, false, true);
+    assertEquals(pool.getPendingReplenishmentConnections(), 0);
+    assertEquals(pool.getCurrentAvailableConnections(), 3);
+
+    pool.close();
+  }
+
+
+
+  /**
+   * Tests the behavior when the server is unavailable, to ensure that checkouts
+   * wait for the replenisher rather than creating connections themselves, and
+   * that the pool recovers once the server is available again.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testServerUnavailable()
+         throws Exception
+  {
+    final ServerSocket s = new ServerSocket(0);
+    final int port = s.getLocalPort();
+    s.close();
+
+    final InMemoryDirectoryServerConfig cfg =
+         new InMemoryDirectoryServerConfig("dc=example,dc=com");
+    cfg.setListenerConfigs(
+         InMemoryListenerConfig.createLDAPConfig("LDAP", null, port, null));
+
+    final InMemoryDirectoryServer ds = new InMemoryDirectoryServer(cfg);
+    ds.startListening();
+
+    final LDAPConnectionPool pool = ds.getConnectionPool(2);
+    pool.setCreateIfNecessary(true);
+    pool.setMaxWaitTimeMillis(10000L);
+    pool.setBackgroundReplenishment(1, 0, 10L, 50L);
+
+    final LDAPConnection c1 = pool.getConnection();
+    final LDAPConnection c2 = pool.getConnection();
+    while (pool.getPendingReplenishmentConnections() > 0)
+    {
+      Thread.sleep(10L);
+    }
+    pool.setMaxWaitTimeMillis(10L);
+
+    ds.shutDown(true);
+    pool.releaseDefunctConnection(c1);
+    pool.releaseDefunctConnection(c2);
+    assertTrue(pool.getPendingReplenishmentConnections() > 0);
+
+    try
+    {
+      pool.getConnection();
+      fail("Expected an exception when no connections are available");
+    }
+    catch (final LDAPException le)
+    {
+      // This was expected.
+    }
+
+    Thread.sleep(200L);
+    assertEquals(pool.getCurrentAvailableConnections(), 0);
+    assertEquals(pool.getPendingReplenishmentConnections(), 2);
+
+    ds.startListening();
+    waitForAvailableConnections(pool, 2);
+    assertEquals(pool.getPendingReplenishmentConnections(), 0);
+
+    pool.close();
+    ds.shutDown(true);
+  }
+
+
+
+  /**
+   * Tests that when an operation is retried because its connection appears to
+   * be defunct, the replacement connection is created by the replenisher
+   * rather than by the thread processing the operation.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testRetryUsesReplenisher()
+         throws Exception
+  {
+    // Create a server that will reject the first compare request with a result
+    // code indicating that the connection is no longer usable.
+    final AtomicBoolean rejectCompare = new AtomicBoolean(true);
+    final InMemoryDirectoryServerConfig cfg =
+         new InMemoryDirectoryServerConfig("dc=example,dc=com");
+    cfg.addInMemoryOperationInterceptor(new InMemoryOperationInterceptor()
+    {
+      @Override()
+      public void processCompareRequest(
+                       final InMemoryInterceptedCompareRequest request)
+             throws LDAPException
+      {
+        if (rejectCompare.getAndSet(false))
+        {
+          throw new LDAPException(ResultCode.UNAVAILABLE, "unavailable");
+        }
+      }
+    });
+
+    final InMemoryDirectoryServer ds = new InMemoryDirectoryServer(cfg);
+    ds.startListening();
+    ds.add(
+         "dn: dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: domain",
+         "dc: example");
+
+    // Keep track of the threads used to establish connections for the pool.
+    final List<Thread> connectThreads = new CopyOnWriteArrayList<Thread>();
+    final PostConnectProcessor postConnectProcessor = new PostConnectProcessor()
+    {
+      @Override()
+      public void processPreAuthenticatedConnection(
+                       final LDAPConnection connection)
+      {
+        connectThreads.add(Thread.currentThread());
+      }
+
+      @Override()
+      public void processPostAuthenticatedConnection(
+                       final LDAPConnection connection)
+      {
+        // No implementation is required.
+      }
+    };
+
+    final LDAPConnectionPool pool = new LDAPConnectionPool(ds.getConnection(),
+         1, 1, postConnectProcessor);
+    pool.setMaxWaitTimeMillis(10000L);
+    pool.setRetryFailedOperationsDueToInvalidConnections(true);
+    pool.setBackgroundReplenishment(1, 0, 10L, 50L);
+    connectThreads.clear();
+
+    assertTrue(pool.compare("dc=example,dc=com", "dc", "example").
+         compareMatched());
+    assertFalse(rejectCompare.get());
+
+    assertEquals(connectThreads.size(), 1);
+    assertFalse(connectThreads.get(0) == Thread.currentThread());
+    assertEquals(
+         pool.getConnectionPoolStatistics().getNumConnectionsClosedDefunct(),
+         1L);
+
+    pool.close();
+    ds.shutDown(true);
+  }
+
+
+
+  /**
+   * Tests to ensure that replacing a defunct connection creates the replacement
+   * on the calling thread when the pool is allowed to create connections as
+   * needed but is already full, since the replenisher would not be able to add
+   * a connection to it.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testReplaceDefunctConnectionWhenPoolIsFull()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS();
+    final LDAPConnectionPool pool = ds.getConnectionPool(1);
+    pool.setCreateIfNecessary(true);
+    pool.setMaxWaitTimeMillis(0L);
+    pool.setBackgroundReplenishment(1, 0);
+
+    final LDAPConnection pooledConn = pool.getConnection();
+    final LDAPConnection extraConn = pool.getConnection();
+    pool.releaseConnection(pooledConn);
+    assertEquals(pool.getCurrentAvailableConnections(), 1);
+
+    final LDAPConnection replacementConn =
+         pool.replaceDefunctConnection(extraConn);
+    assertNotNull(replacementConn);
+    assertFalse(replacementConn == pooledConn);
+    assertTrue(replacementConn.isConnected());
+    assertEquals(pool.getCurrentAvailableConnections(), 1);
+
+    pool.releaseConnection(replacementConn);
+    pool.close();
+  }
+
+
+
+  /**
+   * Waits for the specified number of connections to be available in the
+   * provided pool.
+   *
+   * @param  pool   The pool to examine.
+   * @param  count  The number of connections to wait for.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private static void waitForAvailableConnections(
+                           final LDAPConnectionPool pool, final int count)
+          throws Exception
+  {
+    final long stopWaitingTime = System.currentTimeMillis() + 30000L;
+    while (System.currentTimeMillis() < stopWaitingTime)
+    {
+      if (pool.getCurrentAvailableConnections() >= count)
+      {
+        return;
+      }
+
+      Thread.sleep(10L);
+    }
+
+    assertEquals(pool.getCurrentAvailableConnections(), count);
+  }
+}
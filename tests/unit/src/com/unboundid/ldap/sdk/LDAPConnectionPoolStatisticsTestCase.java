@@ -145,6 +145,25 @@ public class LDAPConnectionPoolStatisticsTestCase
     stats.incrementNumReleasedValid();
     assertEquals(stats.getNumReleasedValid(), 1L);
 
+    assertEquals(stats.getNumTLSHandshakes(), 0L);
+    assertEquals(stats.getNumTLSSessionsResumed(), 0L);
+    assertEquals(stats.getTLSSessionResumptionPercent(), 0.0d);
+    stats.incrementNumTLSHandshakes(false);
+    stats.incrementNumTLSHandshakes(true);
+    assertEquals(stats.getNumTLSHandshakes(), 2L);
+    assertEquals(stats.getNumTLSSessionsResumed(), 1L);
+    assertEquals(stats.getTLSSessionResumptionPercent(), 50.0d);
+
+    assertEquals(stats.getNumHealthChecks(), 0L);
+    assertEquals(stats.getAverageHealthCheckDurationMillis(), 0.0d);
+    stats.healthCheckCompleted(30L);
+    stats.healthCheckCompleted(10L);
+    assertEquals(stats.getNumHealthChecks(), 2L);
+    assertEquals(stats.getLastHealthCheckDurationMillis(), 10L);
+    assertEquals(stats.getMaxHealthCheckDurationMillis(), 30L);
+    assertEquals(stats.getTotalHealthCheckDurationMillis(), 40L);
+    assertEquals(stats.getAverageHealthCheckDurationMillis(), 20.0d);
+
 
     stats.reset();
 
@@ -160,6 +179,14 @@ public class LDAPConnectionPoolStatisticsTestCase
     assertEquals(stats.getNumFailedCheckouts(), 0L);
 
     assertEquals(stats.getNumReleasedValid(), 0L);
+
+    assertEquals(stats.getNumTLSHandshakes(), 0L);
+    assertEquals(stats.getNumTLSSessionsResumed(), 0L);
+
+    assertEquals(stats.getNumHealthChecks(), 0L);
+    assertEquals(stats.getLastHealthCheckDurationMillis(), 0L);
+    assertEquals(stats.getMaxHealthCheckDurationMillis(), 0L);
+    assertEquals(stats.getTotalHealthCheckDurationMillis(), 0L);
   }
 
 
@@ -25,6 +25,7 @@ package com.unboundid.ldap.sdk;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -3262,4 +3263,182 @@ public class LDAPConnectionPoolTestCase
     pool.close();
     ds.shutDown(true);
   }
+
+
+
+  /**
+   * Tests the ability to examine connections in parallel during a health
+   * check, and to obtain duration metrics for the health check passes.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testParallelHealthCheck()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS();
+    final LDAPConnectionPool pool =
+         new LDAPConnectionPool(ds.getConnection(), 10, 10);
+    assertEquals(pool.getHealthCheckParallelism(), 1);
+
+    final AtomicInteger activeChecks = new AtomicInteger(0);
+    final AtomicInteger maxActiveChecks = new AtomicInteger(0);
+    final LDAPConnectionPoolHealthCheck healthCheck =
+         new LDAPConnectionPoolHealthCheck()
+         {
+           @Override()
+           public void ensureConnectionValidForContinuedUse(
+                            final LDAPConnection connection)
+                  throws LDAPException
+           {
+             final int active = activeChecks.incrementAndGet();
+             synchronized (maxActiveChecks)
+             {
+               if (active > maxActiveChecks.get())
+               {
+                 maxActiveChecks.set(active);
+               }
+             }
+
+             try
+             {
+               Thread.sleep(100L);
+             }
+             catch (final InterruptedException ie)
+             {
+               throw new LDAPException(ResultCode.LOCAL_ERROR, ie);
+             }
+             finally
+             {
+               activeChecks.decrementAndGet();
+             }
+           }
+         };
+
+    pool.setHealthCheckParallelism(0);
+    assertEquals(pool.getHealthCheckParallelism(), 1);
+
+    pool.setHealthCheckParallelism(5);
+    assertEquals(pool.getHealthCheckParallelism(), 5);
+
+    pool.getConnectionPoolStatistics().reset();
+    final LDAPConnectionPoolHealthCheckResult result =
+         pool.invokeHealthCheck(healthCheck, false);
+    assertEquals(result.getNumExamined(), 10);
+    assertEquals(result.getNumDefunct(), 0);
+    assertEquals(result.getNumSkipped(), 0);
+    assertTrue(result.getDurationMillis() >= 200L);
+    assertTrue(result.getDurationMillis() < 1000L);
+    assertTrue(maxActiveChecks.get() > 1);
+    assertTrue(maxActiveChecks.get() <= 5);
+    assertEquals(pool.getCurrentAvailableConnections(), 10);
+
+    final LDAPConnectionPoolStatistics stats =
+         pool.getConnectionPoolStatistics();
+    assertEquals(stats.getNumHealthChecks(), 1L);
+    assertEquals(stats.getLastHealthCheckDurationMillis(),
+         result.getDurationMillis());
+    assertEquals(stats.getMaxHealthCheckDurationMillis(),
+         result.getDurationMillis());
+    assertEquals(stats.getTotalHealthCheckDurationMillis(),
+         result.getDurationMillis());
+
+    final LDAPException continuedUseException =
+         new LDAPException(ResultCode.SERVER_DOWN, "not valid");
+    final LDAPConnectionPoolHealthCheckResult failedResult =
+         pool.invokeHealthCheck(new TestLDAPConnectionPoolHealthCheck(null,
+              null, null, null, continuedUseException, null), false);
+    assertEquals(failedResult.getNumExamined(), 10);
+    assertEquals(failedResult.getNumDefunct(), 10);
+    assertEquals(stats.getNumHealthChecks(), 2L);
+
+    pool.close();
+  }
+
+
+
+  /**
+   * Tests the ability to skip health checking for connections that have been
+   * used recently.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testHealthCheckIdleThreshold()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS();
+    final LDAPConnectionPool pool =
+         new LDAPConnectionPool(ds.getConnection(), 5, 5);
+    assertEquals(pool.getHealthCheckIdleThresholdMillis(), 0L);
+
+    final LDAPException continuedUseException =
+         new LDAPException(ResultCode.SERVER_DOWN, "not valid");
+    final TestLDAPConnectionPoolHealthCheck healthCheck =
+         new TestLDAPConnectionPoolHealthCheck(null, null, null, null,
+              continuedUseException, null);
+
+    pool.setHealthCheckIdleThresholdMillis(-1L);
+    assertEquals(pool.getHealthCheckIdleThresholdMillis(), 0L);
+
+    pool.setHealthCheckIdleThresholdMillis(3600000L);
+    assertEquals(pool.getHealthCheckIdleThresholdMillis(), 3600000L);
+
+    LDAPConnectionPoolHealthCheckResult result =
+         pool.invokeHealthCheck(healthCheck, false);
+    assertEquals(result.getNumExamined(), 5);
+    assertEquals(result.getNumSkipped(), 5);
+    assertEquals(result.getNumDefunct(), 0);
+
+    pool.setHealthCheckIdleThresholdMillis(0L);
+    result = pool.invokeHealthCheck(healthCheck, false);
+    assertEquals(result.getNumExamined(), 5);
+    assertEquals(result.getNumSkipped(), 0);
+    assertEquals(result.getNumDefunct(), 5);
+
+    pool.close();
+  }
+
+
+
+  /**
+   * Tests to ensure that the pool keeps track of TLS handshakes and session
+   * resumption for newly-created connections.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testTLSHandshakeStatistics()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDSWithSSL();
+
+    final SSLUtil sslUtil = new SSLUtil(new TrustAllTrustManager());
+    final SingleServerSet serverSet = new SingleServerSet("localhost",
+         ds.getListenPort("LDAPS"), sslUtil.createSSLSocketFactory());
+    final LDAPConnectionPool pool =
+         new LDAPConnectionPool(serverSet, null, 5, 5);
+
+    final LDAPConnectionPoolStatistics stats =
+         pool.getConnectionPoolStatistics();
+    assertEquals(stats.getNumTLSHandshakes(), 5L);
+    assertTrue(stats.getNumTLSSessionsResumed() >= 1L);
+    assertTrue(stats.getTLSSessionResumptionPercent() > 0.0d);
+
+    final LDAPConnection conn = pool.getConnection();
+    assertNotNull(conn.getSSLSession());
+    pool.releaseDefunctConnection(conn);
+    assertEquals(stats.getNumTLSHandshakes(), 6L);
+
+    pool.close();
+
+
+    // Make sure that nothing is counted for a non-secure pool.
+    final LDAPConnectionPool insecurePool =
+         getTestDS().getConnectionPool(2);
+    insecurePool.releaseDefunctConnection(insecurePool.getConnection());
+    assertEquals(
+         insecurePool.getConnectionPoolStatistics().getNumTLSHandshakes(), 0L);
+    insecurePool.close();
+  }
 }
@@ -0,0 +1,536 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.unboundid.asn1.ASN1Buffer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.protocol.LDAPMessage;
+import com.unboundid.ldap.protocol.ProtocolOp;
+import com.unboundid.ldap.sdk.controls.ProxiedAuthorizationV2RequestControl;
+import com.unboundid.util.ByteStringBuffer;
+import com.unboundid.util.ValuePattern;
+
+
+
+/**
+ * This class provides a set of test cases for the {@code RequestTemplate}
+ * class.
+ */
+public final class RequestTemplateTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Retrieves a set of message IDs to use when testing encoding.  They cover
+   * each of the possible encoded lengths.
+   *
+   * @return  A set of message IDs to use when testing encoding.
+   */
+  @DataProvider(name="messageIDs")
+  public Object[][] getMessageIDs()
+  {
+    return new Object[][]
+    {
+      new Object[] { 1 },
+      new Object[] { 127 },
+      new Object[] { 128 },
+      new Object[] { 255 },
+      new Object[] { 32767 },
+      new Object[] { 32768 },
+      new Object[] { 8388607 },
+      new Object[] { 8388608 },
+      new Object[] { Integer.MAX_VALUE }
+    };
+  }
+
+
+
+  /**
+   * Tests a template for a search request with placeholders in the base DN,
+   * in several kinds of filter components, and in a request control.
+   *
+   * @param  messageID  The message ID to use for the request.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(dataProvider="messageIDs")
+  public void testSearchTemplate(final int messageID)
+         throws Exception
+  {
+    final RequestTemplate template = new RequestTemplate(
+         createSearchRequest("{base}", "{uid}", "{cn}", "{authz}"),
+         "{base}", "{uid}", "{cn}", "{authz}");
+
+    assertEquals(template.getOperationType(), OperationType.SEARCH);
+    assertEquals(template.getNumPlaceholders(), 4);
+    assertEquals(template.getPlaceholders(),
+         Arrays.asList("{base}", "{uid}", "{cn}", "{authz}"));
+    assertNotNull(template.toString());
+
+    final String[][] valueSets =
+    {
+      new String[] { "dc=example,dc=com", "jdoe", "John", "u:jdoe" },
+      new String[] { "", "", "", "" },
+      new String[] { createString(200), createString(127), createString(128),
+           createString(70000) },
+    };
+
+    for (final String[] values : valueSets)
+    {
+      final LDAPRequest expectedRequest =
+           createSearchRequest(values[0], values[1], values[2], values[3]);
+      assertEquals(template.encode(messageID, values),
+           encode(messageID, expectedRequest));
+    }
+  }
+
+
+
+  /**
+   * Tests a template for a modify request in which the same placeholders are
+   * used for more than one modification.
+   *
+   * @param  messageID  The message ID to use for the request.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(dataProvider="messageIDs")
+  public void testModifyTemplate(final int messageID)
+         throws Exception
+  {
+    final RequestTemplate template = new RequestTemplate(
+         createModifyRequest("{dn}", "{value1}", "{value2}"),
+         "{dn}", "{value1}", "{value2}");
+    assertEquals(template.getOperationType(), OperationType.MODIFY);
+
+    final String[] values =
+    {
+      "uid=test.user,ou=People,dc=example,dc=com",
+      createString(300),
+      "foo"
+    };
+
+    assertEquals(template.encode(messageID, values),
+         encode(messageID,
+              createModifyRequest(values[0], values[1], values[2])));
+  }
+
+
+
+  /**
+   * Tests templates for add, delete, and modify DN requests.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testOtherTemplates()
+         throws Exception
+  {
+    final RequestTemplate addTemplate = new RequestTemplate(
+         new AddRequest(
+              "dn: {rdn},dc=example,dc=com",
+              "objectClass: top",
+              "objectClass: organizationalUnit",
+              "ou: {ou}"),
+         "{rdn},dc=example,dc=com", "{ou}");
+    assertEquals(addTemplate.getOperationType(), OperationType.ADD);
+    assertEquals(addTemplate.encode(5, "ou=test,dc=example,dc=com", "test"),
+         encode(5, new AddRequest(
+              "dn: ou=test,dc=example,dc=com",
+              "objectClass: top",
+              "objectClass: organizationalUnit",
+              "ou: test")));
+
+    final RequestTemplate deleteTemplate =
+         new RequestTemplate(new DeleteRequest("{dn}"), "{dn}");
+    assertEquals(deleteTemplate.getOperationType(), OperationType.DELETE);
+    assertEquals(deleteTemplate.encode(1234, "ou=test,dc=example,dc=com"),
+         encode(1234, new DeleteRequest("ou=test,dc=example,dc=com")));
+
+    final RequestTemplate modDNTemplate = new RequestTemplate(
+         new ModifyDNRequest("{dn}", "{newRDN}", true), "{dn}", "{newRDN}");
+    assertEquals(modDNTemplate.getOperationType(), OperationType.MODIFY_DN);
+    assertEquals(
+         modDNTemplate.encode(1, "ou=test,dc=example,dc=com", "ou=test2"),
+         encode(1, new ModifyDNRequest("ou=test,dc=example,dc=com",
+              "ou=test2", true)));
+  }
+
+
+
+  /**
+   * Tests the behavior when trying to create templates that are not valid.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testInvalidTemplates()
+         throws Exception
+  {
+    final SearchRequest searchRequest = new SearchRequest("{base}",
+         SearchScope.SUB, Filter.createEqualityFilter("uid", "user.{id}"));
+
+    final String[][] invalidPlaceholders =
+    {
+      // A placeholder that is only part of a value.
+      new String[] { "{base}", "{id}" },
+
+      // A placeholder that does not appear in the request.
+      new String[] { "{base}", "{missing}" },
+
+      // A duplicate placeholder.
+      new String[] { "{base}", "{base}" },
+
+      // An empty placeholder.
+      new String[] { "" }
+    };
+
+    for (final String[] placeholders : invalidPlaceholders)
+    {
+      try
+      {
+        new RequestTemplate(searchRequest, placeholders);
+        fail("Expected an exception for placeholders " +
+             Arrays.toString(placeholders));
+      }
+      catch (final LDAPException le)
+      {
+        assertEquals(le.getResultCode(), ResultCode.PARAM_ERROR);
+      }
+    }
+
+    try
+    {
+      new RequestTemplate(new CompareRequest("{dn}", "cn", "foo"), "{dn}");
+      fail("Expected an exception for a compare request");
+    }
+    catch (final LDAPException le)
+    {
+      assertEquals(le.getResultCode(), ResultCode.PARAM_ERROR);
+    }
+
+    try
+    {
+      new RequestTemplate(new SimpleBindRequest("{dn}", "password"), "{dn}");
+      fail("Expected an exception for a bind request");
+    }
+    catch (final LDAPException le)
+    {
+      assertEquals(le.getResultCode(), ResultCode.PARAM_ERROR);
+    }
+  }
+
+
+
+  /**
+   * Ensures that changes made to the request after creating a template do not
+   * affect the template.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testTemplateIndependentOfRequest()
+         throws Exception
+  {
+    final DeleteRequest deleteRequest = new DeleteRequest("{dn}");
+    final RequestTemplate template =
+         new RequestTemplate(deleteRequest, "{dn}");
+
+    deleteRequest.addControl(new Control("1.2.3.4"));
+    assertEquals(template.encode(2, "dc=example,dc=com"),
+         encode(2, new DeleteRequest("dc=example,dc=com")));
+  }
+
+
+
+  /**
+   * Tests sending requests created from templates to a directory server.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSendTemplates()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final LDAPConnection conn = ds.getConnection();
+
+    try
+    {
+      final RequestTemplate searchTemplate = new RequestTemplate(
+           new SearchRequest("{base}", SearchScope.SUB,
+                Filter.createEqualityFilter("uid", "{uid}"), "description"),
+           "{base}", "{uid}");
+
+      final ByteStringBuffer values = new ByteStringBuffer();
+      final int[] endOffsets = new int[2];
+      values.append("dc=example,dc=com");
+      endOffsets[0] = values.length();
+      values.append("test.user");
+      endOffsets[1] = values.length();
+
+      final TestAsyncListener searchListener = new TestAsyncListener();
+      final AsyncRequestID searchID = conn.asyncSearchTemplate(searchTemplate,
+           searchListener, values.getBackingArray(), endOffsets);
+      final LDAPResult searchResult = searchID.get(30L, TimeUnit.SECONDS);
+      assertEquals(searchResult.getResultCode(), ResultCode.SUCCESS);
+      assertEquals(searchListener.getSearchEntries(), 1);
+      assertEquals(((SearchResult) searchResult).getEntryCount(), 1);
+
+      final RequestTemplate modifyTemplate = new RequestTemplate(
+           new ModifyRequest("{dn}", new Modification(
+                ModificationType.REPLACE, "description", "{value}")),
+           "{dn}", "{value}");
+
+      final ValuePattern valuePattern = new ValuePattern("value [1-1000]");
+      values.clear();
+      values.append("uid=test.user,ou=People,dc=example,dc=com");
+      endOffsets[0] = values.length();
+      valuePattern.nextValue(values);
+      endOffsets[1] = values.length();
+      final String expectedValue = values.toString().substring(endOffsets[0]);
+
+      final AsyncRequestID modifyID = conn.asyncProcessTemplate(modifyTemplate,
+           null, values.getBackingArray(), endOffsets);
+      assertEquals(modifyID.get(30L, TimeUnit.SECONDS).getResultCode(),
+           ResultCode.SUCCESS);
+
+      assertEquals(conn.getEntry("uid=test.user,ou=People,dc=example,dc=com",
+           "description").getAttributeValue("description"), expectedValue);
+
+      final LDAPConnectionStatistics stats = conn.getConnectionStatistics();
+      assertEquals(stats.getNumSearchRequests(), 2L);
+      assertEquals(stats.getNumModifyRequests(), 1L);
+
+      // Templates must be sent with the method appropriate for their
+      // operation type.
+      try
+      {
+        conn.asyncProcessTemplate(searchTemplate, null,
+             values.getBackingArray(), endOffsets);
+        fail("Expected an exception when processing a search template");
+      }
+      catch (final LDAPException le)
+      {
+        assertEquals(le.getResultCode(), ResultCode.PARAM_ERROR);
+      }
+
+      try
+      {
+        conn.asyncSearchTemplate(modifyTemplate, searchListener,
+             values.getBackingArray(), endOffsets);
+        fail("Expected an exception when searching with a modify template");
+      }
+      catch (final LDAPException le)
+      {
+        assertEquals(le.getResultCode(), ResultCode.PARAM_ERROR);
+      }
+    }
+    finally
+    {
+      conn.close();
+    }
+  }
+
+
+
+  /**
+   * Ensures that requests cannot be sent from templates over connections
+   * operating in synchronous mode.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSendTemplateInSynchronousMode()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS();
+    final LDAPConnectionOptions options = new LDAPConnectionOptions();
+    options.setUseSynchronousMode(true);
+    final LDAPConnection conn = new LDAPConnection(options, "localhost",
+         ds.getListenPort());
+
+    try
+    {
+      final RequestTemplate template =
+           new RequestTemplate(new DeleteRequest("{dn}"), "{dn}");
+      conn.asyncProcessTemplate(template, null, new byte[0], new int[] { 0 });
+      fail("Expected an exception in synchronous mode");
+    }
+    catch (final LDAPException le)
+    {
+      assertEquals(le.getResultCode(), ResultCode.NOT_SUPPORTED);
+    }
+    finally
+    {
+      conn.close();
+    }
+  }
+
+
+
+  /**
+   * Tests that encoding a search request from a template into a buffer, using
+   * values generated from a value pattern, produces exactly the same bytes as
+   * writing the equivalent LDAP message to an ASN.1 buffer.
+   *
+   * @param  messageID  The message ID to use for the requests.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(dataProvider="messageIDs")
+  public void testBufferEncodingMatchesWriteTo(final int messageID)
+         throws Exception
+  {
+    final ValuePattern uidPattern =
+         new ValuePattern("user.[1-1000000]", 1L);
+    final RequestTemplate template = new RequestTemplate(
+         new SearchRequest("dc=example,dc=com", SearchScope.SUB,
+              Filter.createEqualityFilter("uid", "{uid}"), "cn", "mail"),
+         "{uid}");
+
+    final ByteStringBuffer values = new ByteStringBuffer();
+    final int[] endOffsets = new int[1];
+    final ByteStringBuffer templateBuffer = new ByteStringBuffer();
+    final ASN1Buffer asn1Buffer = new ASN1Buffer();
+
+    // In addition to the values generated from the pattern, include some
+    // values whose lengths require different numbers of bytes to encode.
+    final int numGeneratedValues = 100;
+    final int[] longValueLengths = { 127, 128, 70000 };
+    for (int i=0; i < (numGeneratedValues + longValueLengths.length); i++)
+    {
+      values.clear();
+      if (i < numGeneratedValues)
+      {
+        uidPattern.nextValue(values);
+      }
+      else
+      {
+        values.append(createString(longValueLengths[i - numGeneratedValues]));
+      }
+      endOffsets[0] = values.length();
+
+      templateBuffer.clear();
+      template.encode(messageID, values.getBackingArray(), endOffsets,
+           templateBuffer);
+
+      final SearchRequest r = new SearchRequest("dc=example,dc=com",
+           SearchScope.SUB,
+           Filter.createEqualityFilter("uid", values.toByteArray()), "cn",
+           "mail");
+      asn1Buffer.clear();
+      new LDAPMessage(messageID, r, r.getControls()).writeTo(asn1Buffer);
+
+      assertEquals(templateBuffer.toByteArray(), asn1Buffer.toByteArray());
+    }
+  }
+
+
+
+  /**
+   * Creates a search request with the provided values.
+   *
+   * @param  baseDN   The base DN for the request.
+   * @param  uid      The uid value for the filter.
+   * @param  cn       The cn subInitial value for the filter.
+   * @param  authzID  The authorization ID for the proxied authorization
+   *                  control.
+   *
+   * @return  The search request that was created.
+   */
+  private static SearchRequest createSearchRequest(final String baseDN,
+                                                   final String uid,
+                                                   final String cn,
+                                                   final String authzID)
+  {
+    final SearchRequest r = new SearchRequest(baseDN, SearchScope.SUB,
+         Filter.createANDFilter(
+              Filter.createEqualityFilter("objectClass", "person"),
+              Filter.createORFilter(
+                   Filter.createEqualityFilter("uid", uid),
+                   Filter.createSubstringFilter("cn", cn, null, null))),
+         "cn", "mail");
+    r.addControl(new ProxiedAuthorizationV2RequestControl(authzID));
+    return r;
+  }
+
+
+
+  /**
+   * Creates a modify request with the provided values.
+   *
+   * @param  dn      The DN for the request.
+   * @param  value1  The first value to use for each modification.
+   * @param  value2  The second value to use for each modification.
+   *
+   * @return  The modify request that was created.
+   */
+  private static ModifyRequest createModifyRequest(final String dn,
+                                                   final String value1,
+                                                   final String value2)
+  {
+    return new ModifyRequest(dn,
+         new Modification(ModificationType.REPLACE, "description", value1,
+              value2),
+         new Modification(ModificationType.REPLACE, "displayName", value1,
+              value2));
+  }
+
+
+
+  /**
+   * Encodes the provided request as an LDAP message.
+   *
+   * @param  messageID  The message ID to use for the request.
+   * @param  request    The request to be encoded.
+   *
+   * @return  The encoded LDAP message.
+   */
+  private static byte[] encode(final int messageID, final LDAPRequest request)
+  {
+    return new LDAPMessage(messageID, (ProtocolOp) request,
+         request.getControls()).encode().encode();
+  }
+
+
+
+  /**
+   * Creates a string of the specified length.
+   *
+   * @param  length  The length of the string to create.
+   *
+   * @return  The string that was created.
+   */
+  private static String createString(final int length)
+  {
+    final char[] chars = new char[length];
+    Arrays.fill(chars, 'x');
+    return new String(chars);
+  }
+}
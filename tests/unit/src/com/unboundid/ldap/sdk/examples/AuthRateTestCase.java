@@ -26,11 +26,14 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
 import com.unboundid.ldap.sdk.LDAPConnection;
 import com.unboundid.ldap.sdk.LDAPSDKTestCase;
 import com.unboundid.ldap.sdk.ResultCode;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileReader;
 
 
 /**
@@ -991,4 +994,93 @@ public class AuthRateTestCase
     assertEquals(AuthRate.main(args, null, null),
          ResultCode.SUCCESS);
   }
+
+
+
+  /**
+   * Tests the ability to run in open-loop mode against an in-memory directory
+   * server, using a poisson arrival distribution.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testOpenLoopMode()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final File logFile = createTempFile();
+
+    final String[] args =
+    {
+      "-h", "127.0.0.1",
+      "-p", String.valueOf(ds.getListenPort()),
+      "-b", "ou=People,dc=example,dc=com",
+      "-f", "(uid=test.user)",
+      "-C", "password",
+      "-t", "2",
+      "-i", "1",
+      "-I", "2",
+      "-r", "100",
+      "--openLoopThreads", "2",
+      "--arrivalDistribution", "poisson",
+      "--histogramLogFile", logFile.getAbsolutePath()
+    };
+    assertEquals(AuthRate.main(args, null, null), ResultCode.SUCCESS);
+
+    // Operations should have been processed in each of the intervals.
+    final BufferedReader reader = new BufferedReader(new FileReader(logFile));
+    try
+    {
+      int numIntervals = 0;
+      while (true)
+      {
+        final String line = reader.readLine();
+        if (line == null)
+        {
+          break;
+        }
+        else if (line.startsWith("#"))
+        {
+          continue;
+        }
+
+        final String[] fields = line.split(",");
+        assertEquals(fields[1], "bind");
+        assertTrue(Long.parseLong(fields[2]) > 0L, line);
+        numIntervals++;
+      }
+
+      assertEquals(numIntervals, 2);
+    }
+    finally
+    {
+      reader.close();
+    }
+  }
+
+
+
+  /**
+   * Tests that open-loop mode cannot be used without a target rate.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testOpenLoopModeWithoutRate()
+         throws Exception
+  {
+    final String[] args =
+    {
+      "-h", "127.0.0.1",
+      "-p", "389",
+      "-b", "ou=People,dc=example,dc=com",
+      "-f", "(uid=test.user)",
+      "-C", "password",
+      "-t", "2",
+      "-i", "1",
+      "-I", "2",
+      "--openLoopThreads", "2"
+    };
+    assertFalse(AuthRate.main(args, null, null) == ResultCode.SUCCESS);
+  }
 }
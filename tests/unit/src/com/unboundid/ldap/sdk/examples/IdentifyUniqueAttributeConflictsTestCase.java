@@ -22,8 +22,11 @@ package com.unboundid.ldap.sdk.examples;
 
 
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import com.unboundid.ldap.listener.InMemoryDirectoryServer;
@@ -693,4 +696,167 @@ public final class IdentifyUniqueAttributeConflictsTestCase
     conn.close();
     ds.shutDown(true);
   }
+
+
+
+  /**
+   * Tests the batched-search and local-map conflict detection modes, including
+   * a case in which the local map must spill values to temporary files.
+   *
+   * @param  modeArgs  The arguments to use to select the conflict detection
+   *                   mode.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(dataProvider="alternateModeArgs")
+  public void testAlternateConflictDetectionModes(final String... modeArgs)
+         throws Exception
+  {
+    final InMemoryDirectoryServerConfig cfg =
+         new InMemoryDirectoryServerConfig("dc=example,dc=com");
+    final InMemoryDirectoryServer ds = new InMemoryDirectoryServer(cfg);
+    ds.startListening();
+
+    final LDAPConnection conn = ds.getConnection();
+
+    conn.add(
+         "dn: dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: domain",
+         "dc: example");
+
+    conn.add(
+         "dn: ou=People,dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: organizationalUnit",
+         "ou: People");
+
+    for (int i=0; i < 100; i++)
+    {
+      conn.add(
+           "dn: uid=user." + i + ",ou=People,dc=example,dc=com",
+           "objectClass: top",
+           "objectClass: person",
+           "objectClass: organizationalPerson",
+           "objectClass: inetOrgPerson",
+           "uid: user." + i,
+           "givenName: User",
+           "sn: " + i,
+           "cn: User " + i);
+    }
+
+
+    // Verify that there are no conflicts.
+    final ArrayList<String> args = new ArrayList<String>(10);
+    args.add("--port");
+    args.add(String.valueOf(ds.getListenPort()));
+    args.add("--baseDN");
+    args.add("dc=example,dc=com");
+    args.add("--attribute");
+    args.add("uid");
+    args.addAll(Arrays.asList(modeArgs));
+
+    IdentifyUniqueAttributeConflicts tool =
+         new IdentifyUniqueAttributeConflicts(null, null);
+    ResultCode resultCode = tool.runTool(args.toArray(new String[0]));
+    assertEquals(resultCode, ResultCode.SUCCESS);
+
+    assertNotNull(tool.getConflictCounts());
+    assertFalse(tool.getConflictCounts().isEmpty());
+    for (final AtomicLong l : tool.getConflictCounts().values())
+    {
+      assertEquals(l.get(), 0L);
+    }
+
+
+    // Add a new entry with the same uid as an existing entry, differing only
+    // in capitalization, and verify that the conflict is found.
+    conn.add(
+         "dn: cn=Test User,ou=People,dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: person",
+         "objectClass: organizationalPerson",
+         "objectClass: inetOrgPerson",
+         "uid: USER.0",
+         "givenName: Test",
+         "sn: User",
+         "cn: Test User");
+
+    tool = new IdentifyUniqueAttributeConflicts(null, null);
+    resultCode = tool.runTool(args.toArray(new String[0]));
+    assertEquals(resultCode, ResultCode.CONSTRAINT_VIOLATION);
+
+    assertNotNull(tool.getConflictCounts());
+    assertFalse(tool.getConflictCounts().isEmpty());
+    for (final AtomicLong l : tool.getConflictCounts().values())
+    {
+      assertEquals(l.get(), 2L);
+    }
+
+
+    // Verify that the mode can't be used with the unique-in-combination
+    // behavior.
+    args.add("--attribute");
+    args.add("cn");
+    args.add("--multipleAttributeBehavior");
+    args.add("unique-in-combination");
+
+    tool = new IdentifyUniqueAttributeConflicts(null, null);
+    resultCode = tool.runTool(args.toArray(new String[0]));
+    assertEquals(resultCode, ResultCode.PARAM_ERROR);
+
+    conn.close();
+    ds.shutDown(true);
+  }
+
+
+
+  /**
+   * Retrieves sets of arguments that may be used to select alternate conflict
+   * detection modes.
+   *
+   * @return  Sets of arguments that may be used to select alternate conflict
+   *          detection modes.
+   */
+  @DataProvider(name="alternateModeArgs")
+  public Object[][] getAlternateModeArgs()
+  {
+    return new Object[][]
+    {
+      new Object[]
+      {
+        new String[]
+        {
+          "--conflictDetectionMode", "batched-search"
+        }
+      },
+
+      new Object[]
+      {
+        new String[]
+        {
+          "--conflictDetectionMode", "batched-search",
+          "--valuesPerSearch", "7",
+          "--numConcurrentSearches", "3"
+        }
+      },
+
+      new Object[]
+      {
+        new String[]
+        {
+          "--conflictDetectionMode", "local-map"
+        }
+      },
+
+      new Object[]
+      {
+        new String[]
+        {
+          "--conflictDetectionMode", "local-map",
+          "--maxInMemoryValues", "10"
+        }
+      }
+    };
+  }
 }
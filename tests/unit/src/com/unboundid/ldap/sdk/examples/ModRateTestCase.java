@@ -26,11 +26,15 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.sdk.Entry;
 import com.unboundid.ldap.sdk.LDAPConnection;
 import com.unboundid.ldap.sdk.LDAPSDKTestCase;
 import com.unboundid.ldap.sdk.ResultCode;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileReader;
 
 
 /**
@@ -625,4 +629,149 @@ public class ModRateTestCase
 
     assertEquals(modRate.runTool(args), ResultCode.SUCCESS);
   }
+
+
+
+  /**
+   * Tests the ability to run in open-loop mode against an in-memory directory
+   * server, using a constant arrival distribution.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testOpenLoopMode()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final File logFile = createTempFile();
+
+    final String[] args =
+    {
+      "-h", "127.0.0.1",
+      "-p", String.valueOf(ds.getListenPort()),
+      "-D", "cn=Directory Manager",
+      "-w", "password",
+      "-b", "uid=test.user,ou=People,dc=example,dc=com",
+      "-A", "description",
+      "-t", "2",
+      "-i", "1",
+      "-I", "2",
+      "-r", "100",
+      "--openLoopThreads", "2",
+      "--arrivalDistribution", "constant",
+      "--histogramLogFile", logFile.getAbsolutePath()
+    };
+    assertEquals(ModRate.main(args, null, null), ResultCode.SUCCESS);
+
+    // Operations should have been processed in each of the intervals.
+    final BufferedReader reader = new BufferedReader(new FileReader(logFile));
+    try
+    {
+      int numIntervals = 0;
+      while (true)
+      {
+        final String line = reader.readLine();
+        if (line == null)
+        {
+          break;
+        }
+        else if (line.startsWith("#"))
+        {
+          continue;
+        }
+
+        final String[] fields = line.split(",");
+        assertEquals(fields[1], "modify");
+        assertTrue(Long.parseLong(fields[2]) > 0L, line);
+        numIntervals++;
+      }
+
+      assertEquals(numIntervals, 2);
+    }
+    finally
+    {
+      reader.close();
+    }
+  }
+
+
+
+  /**
+   * Tests that open-loop mode cannot be used without a target rate.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testOpenLoopModeWithoutRate()
+         throws Exception
+  {
+    final String[] args =
+    {
+      "-h", "127.0.0.1",
+      "-p", "389",
+      "-D", "cn=Directory Manager",
+      "-w", "password",
+      "-b", "uid=test.user,ou=People,dc=example,dc=com",
+      "-A", "description",
+      "-t", "2",
+      "-i", "1",
+      "-I", "2",
+      "--openLoopThreads", "2"
+    };
+    assertFalse(ModRate.main(args, null, null) == ResultCode.SUCCESS);
+  }
+
+
+
+  /**
+   * Tests the ability to run in open-loop mode with multiple values for each
+   * of multiple attributes, which will be sent from a pre-encoded modify
+   * template.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testOpenLoopModeWithMultipleValues()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+
+    final String[] args =
+    {
+      "-h", "127.0.0.1",
+      "-p", String.valueOf(ds.getListenPort()),
+      "-D", "cn=Directory Manager",
+      "-w", "password",
+      "-b", "uid=test.user,ou=People,dc=example,dc=com",
+      "-A", "description",
+      "-A", "cn",
+      "-C", "abc",
+      "-l", "200",
+      "--valueCount", "3",
+      "-t", "1",
+      "-i", "1",
+      "-I", "1",
+      "-r", "100",
+      "--openLoopThreads", "1"
+    };
+    assertEquals(ModRate.main(args, null, null), ResultCode.SUCCESS);
+
+    // Both attributes should have the same set of generated values.
+    final Entry e = ds.getEntry("uid=test.user,ou=People,dc=example,dc=com");
+    assertNotNull(e);
+
+    final String[] values = e.getAttributeValues("description");
+    assertNotNull(values);
+    assertEquals(values.length, 3);
+    for (final String value : values)
+    {
+      assertTrue(value.matches("[abc]{200}"), value);
+    }
+
+    assertEquals(e.getAttribute("cn").getValues().length, 3);
+    for (final String value : values)
+    {
+      assertTrue(e.hasAttributeValue("cn", value));
+    }
+  }
 }
@@ -0,0 +1,598 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.examples;
+
+
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.sdk.Entry;
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.ldap.sdk.LDAPSDKTestCase;
+import com.unboundid.ldap.sdk.ResultCode;
+import com.unboundid.util.LatencyHistogram;
+import com.unboundid.util.ObjectPair;
+import com.unboundid.util.args.Argument;
+import com.unboundid.util.args.ArgumentParser;
+import com.unboundid.util.args.StringArgument;
+
+
+
+/**
+ * This class provides a set of test cases for the RateToolWorker class and the
+ * coordinator mode of the rate tools, with all of the workers running on the
+ * local system.
+ */
+public class RateToolWorkerTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Provides general test coverage for the tool.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void provideGeneralTestCoverage()
+         throws Exception
+  {
+    final RateToolWorker tool = new RateToolWorker(null, null);
+    assertNotNull(tool.getExampleUsages());
+    assertEquals(tool.getToolName(), "rate-tool-worker");
+    assertNotNull(tool.getToolDescription());
+    assertNotNull(tool.getToolVersion());
+    assertEquals(tool.getListenPort(), -1);
+  }
+
+
+
+  /**
+   * Tests the ability to encode, decode, and merge interval data.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testIntervalData()
+         throws Exception
+  {
+    final LatencyHistogram h1 = new LatencyHistogram();
+    h1.recordValue(1000L);
+    h1.recordValue(5000000L);
+
+    final LatencyHistogram h2 = new LatencyHistogram();
+    h2.recordValue(200L);
+
+    final RateToolIntervalData d1 = RateToolIntervalData.decode(
+         new RateToolIntervalData(1000000000L, false, new long[] { 2L, 7L },
+              new LatencyHistogram[] { h1 },
+              Arrays.asList(
+                   new ObjectPair<ResultCode,Long>(ResultCode.BUSY, 3L),
+                   new ObjectPair<ResultCode,Long>(ResultCode.UNAVAILABLE,
+                        1L))).encode(RateToolWorkerSession.TYPE_INTERVAL));
+    assertEquals(d1.getDurationNanos(), 1000000000L);
+    assertFalse(d1.isWarmUp());
+    assertEquals(d1.getCounter(0), 2L);
+    assertEquals(d1.getCounter(1), 7L);
+    assertEquals(d1.getHistogram(0).getCount(), 2L);
+    assertEquals(d1.getHistogram(0).getMaxValue(), 5000000L);
+    assertEquals(d1.getResultCodeCounts().size(), 2);
+
+    final RateToolIntervalData d2 = new RateToolIntervalData(1001000000L,
+         true, new long[] { 1L, 3L }, new LatencyHistogram[] { h2 },
+         Collections.singletonList(
+              new ObjectPair<ResultCode,Long>(ResultCode.UNAVAILABLE, 4L)));
+
+    final RateToolIntervalData merged =
+         RateToolIntervalData.merge(Arrays.asList(d1, d2));
+    assertEquals(merged.getDurationNanos(), 1001000000L);
+    assertTrue(merged.isWarmUp());
+    assertEquals(merged.getCounter(0), 3L);
+    assertEquals(merged.getCounter(1), 10L);
+    assertEquals(merged.getHistogram(0).getCount(), 3L);
+    assertEquals(merged.getHistogram(0).getMinValue(), 200L);
+    assertEquals(merged.getHistogram(0).getMaxValue(), 5000000L);
+    assertEquals(merged.getResultCodeCounts(),
+         Arrays.asList(
+              new ObjectPair<ResultCode,Long>(ResultCode.UNAVAILABLE, 5L),
+              new ObjectPair<ResultCode,Long>(ResultCode.BUSY, 3L)));
+
+    try
+    {
+      RateToolIntervalData.decode(h1.encode());
+      fail("Expected an exception when decoding a histogram as interval " +
+           "data");
+    }
+    catch (final LDAPException le)
+    {
+      assertEquals(le.getResultCode(), ResultCode.DECODING_ERROR);
+    }
+  }
+
+
+
+  /**
+   * Tests running searchrate as a coordinator with two workers, including
+   * warm-up intervals and a histogram log written by the coordinator.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSearchRateWithTwoWorkers()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+
+    final WorkerThread worker1 = new WorkerThread();
+    final WorkerThread worker2 = new WorkerThread();
+    final File logFile = createTempFile();
+    assertTrue(logFile.delete());
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final String[] args =
+    {
+      "-h", "127.0.0.1",
+      "-p", String.valueOf(ds.getListenPort()),
+      "-D", "cn=Directory Manager",
+      "-w", "password",
+      "-b", "dc=example,dc=com",
+      "-s", "sub",
+      "-f", "(uid=test.user)",
+      "-t", "2",
+      "-i", "1",
+      "-I", "2",
+      "--warmUpIntervals", "1",
+      "--histogramLogFile", logFile.getAbsolutePath(),
+      "--workerAddress", worker1.getAddress(),
+      "--workerAddress", worker2.getAddress()
+    };
+    assertEquals(SearchRate.main(args, out, out), ResultCode.SUCCESS,
+         out.toString("UTF-8"));
+
+    assertEquals(worker1.waitForResult(), ResultCode.SUCCESS);
+    assertEquals(worker2.waitForResult(), ResultCode.SUCCESS);
+
+    final String output = out.toString("UTF-8");
+    assertTrue(output.contains("warming up"), output);
+    assertTrue(output.contains("Warm-up completed"), output);
+
+    // The coordinator, rather than the workers, should have written the log,
+    // with one line for each non-warm-up interval.
+    final List<String> logLines = readDataLines(logFile);
+    assertEquals(logLines.size(), 2, logLines.toString());
+    for (final String line : logLines)
+    {
+      final String[] fields = line.split(",");
+      assertEquals(fields[1], "search");
+      assertTrue(Long.parseLong(fields[2]) > 0L, line);
+    }
+  }
+
+
+
+  /**
+   * Tests running modrate as a coordinator with two workers in open-loop mode,
+   * which requires the sensitive bind password to be sent to the workers.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testModRateWithTwoWorkers()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final String dn = "uid=test.user,ou=People,dc=example,dc=com";
+
+    final WorkerThread worker1 = new WorkerThread();
+    final WorkerThread worker2 = new WorkerThread();
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final String[] args =
+    {
+      "-h", "127.0.0.1",
+      "-p", String.valueOf(ds.getListenPort()),
+      "-D", "cn=Directory Manager",
+      "-w", "password",
+      "-b", dn,
+      "-A", "description",
+      "-t", "1",
+      "-i", "1",
+      "-I", "1",
+      "-r", "50",
+      "--openLoopThreads", "1",
+      "--workerAddress", worker1.getAddress(),
+      "--workerAddress", worker2.getAddress()
+    };
+    assertEquals(ModRate.main(args, out, out), ResultCode.SUCCESS,
+         out.toString("UTF-8"));
+
+    assertEquals(worker1.waitForResult(), ResultCode.SUCCESS);
+    assertEquals(worker2.waitForResult(), ResultCode.SUCCESS);
+
+    final Entry e = ds.getEntry(dn);
+    assertNotNull(e);
+    assertTrue(e.hasAttribute("description"));
+  }
+
+
+
+  /**
+   * Tests running authrate and search-and-mod-rate as coordinators with a
+   * single worker that handles both sessions.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testOtherToolsWithOneWorker()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final WorkerThread worker = new WorkerThread(2);
+
+    String[] args =
+    {
+      "-h", "127.0.0.1",
+      "-p", String.valueOf(ds.getListenPort()),
+      "-D", "cn=Directory Manager",
+      "-w", "password",
+      "-b", "dc=example,dc=com",
+      "-s", "sub",
+      "-f", "(uid=test.user)",
+      "-C", "password",
+      "-t", "1",
+      "-i", "1",
+      "-I", "1",
+      "--workerAddress", worker.getAddress()
+    };
+    assertEquals(AuthRate.main(args, null, null), ResultCode.SUCCESS);
+
+    args = new String[]
+    {
+      "-h", "127.0.0.1",
+      "-p", String.valueOf(ds.getListenPort()),
+      "-D", "cn=Directory Manager",
+      "-w", "password",
+      "-b", "dc=example,dc=com",
+      "-s", "sub",
+      "-f", "(uid=test.user)",
+      "-m", "description",
+      "-t", "1",
+      "-i", "1",
+      "-I", "1",
+      "--workerAddress", worker.getAddress()
+    };
+    assertEquals(SearchAndModRate.main(args, null, null), ResultCode.SUCCESS);
+
+    assertEquals(worker.waitForResult(), ResultCode.SUCCESS);
+  }
+
+
+
+  /**
+   * Tests the behavior when a worker is unable to start the tool because it
+   * cannot connect to the directory server.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testWorkerCannotConnect()
+         throws Exception
+  {
+    final WorkerThread worker = new WorkerThread();
+
+    final String[] args =
+    {
+      "-h", "127.0.0.1",
+      "-p", String.valueOf(getClosedPort()),
+      "-b", "dc=example,dc=com",
+      "-f", "(uid=test.user)",
+      "-t", "1",
+      "-i", "1",
+      "-I", "1",
+      "--workerAddress", worker.getAddress()
+    };
+    assertFalse(SearchRate.main(args, null, null) == ResultCode.SUCCESS);
+    assertEquals(worker.waitForResult(), ResultCode.SUCCESS);
+  }
+
+
+
+  /**
+   * Tests the behavior when the coordinator requests a tool that the worker
+   * does not support, and when no worker is listening at the given address.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testCoordinatorErrors()
+         throws Exception
+  {
+    final WorkerThread worker = new WorkerThread();
+
+    final RateToolCoordinator coordinator = new RateToolCoordinator(
+         "ldapsearch", Collections.<String>emptyList(),
+         Collections.singletonList(worker.getAddress()));
+    assertEquals(coordinator.getNumWorkers(), 1);
+    try
+    {
+      coordinator.start();
+      fail("Expected an exception when starting an unsupported tool");
+    }
+    catch (final LDAPException le)
+    {
+      assertEquals(le.getResultCode(), ResultCode.PARAM_ERROR);
+    }
+    assertEquals(worker.waitForResult(), ResultCode.SUCCESS);
+
+    try
+    {
+      new RateToolCoordinator("searchrate", Collections.<String>emptyList(),
+           Collections.singletonList("127.0.0.1:" + getClosedPort()));
+      fail("Expected an exception when no worker is listening");
+    }
+    catch (final LDAPException le)
+    {
+      assertEquals(le.getResultCode(), ResultCode.CONNECT_ERROR);
+    }
+
+    try
+    {
+      new RateToolCoordinator("searchrate", Collections.<String>emptyList(),
+           Collections.singletonList("no-port"));
+      fail("Expected an exception for a malformed worker address");
+    }
+    catch (final LDAPException le)
+    {
+      assertEquals(le.getResultCode(), ResultCode.CONNECT_ERROR);
+    }
+  }
+
+
+
+  /**
+   * Tests the warning about sensitive argument values that will be sent to
+   * workers that are not on the local system.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSensitiveArgumentWarning()
+         throws Exception
+  {
+    assertTrue(RateToolCoordinator.isLoopbackAddress("127.0.0.1:1234"));
+    assertFalse(RateToolCoordinator.isLoopbackAddress("192.0.2.1:1234"));
+
+    final List<String> localWorkers = Arrays.asList("127.0.0.1:1234");
+    final List<String> remoteWorkers =
+         Arrays.asList("127.0.0.1:1234", "192.0.2.1:1234");
+
+    ArgumentParser parser = createSensitiveArgumentParser();
+    parser.parse(new String[0]);
+    assertNull(RateToolCoordinator.getSensitiveArgumentWarning(parser,
+         remoteWorkers, parser.getNamedArgument("workerAddress")));
+
+    parser = createSensitiveArgumentParser();
+    parser.parse(new String[] { "--bindPassword", "password" });
+    final Argument workerAddress = parser.getNamedArgument("workerAddress");
+    final Argument bindPassword = parser.getNamedArgument("bindPassword");
+    assertNull(RateToolCoordinator.getSensitiveArgumentWarning(parser,
+         localWorkers, workerAddress));
+    assertNull(RateToolCoordinator.getSensitiveArgumentWarning(parser,
+         remoteWorkers, workerAddress, bindPassword));
+
+    final String warning = RateToolCoordinator.getSensitiveArgumentWarning(
+         parser, remoteWorkers, workerAddress);
+    assertNotNull(warning);
+    assertTrue(warning.contains("--bindPassword"));
+  }
+
+
+
+  /**
+   * Creates an argument parser with a sensitive bind password argument and a
+   * worker address argument.
+   *
+   * @return  The argument parser that was created.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private static ArgumentParser createSensitiveArgumentParser()
+          throws Exception
+  {
+    final ArgumentParser parser = new ArgumentParser("test", "test");
+    final StringArgument bindPassword = new StringArgument('w',
+         "bindPassword", false, 1, "{password}", "The bind password.");
+    bindPassword.setSensitive(true);
+    parser.addArgument(bindPassword);
+    parser.addArgument(new StringArgument(null, "workerAddress", false, 0,
+         "{host:port}", "A worker address."));
+    return parser;
+  }
+
+
+
+  /**
+   * Retrieves a port on which nothing should be listening.
+   *
+   * @return  A port on which nothing should be listening.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private static int getClosedPort()
+          throws Exception
+  {
+    final ServerSocket s = new ServerSocket(0);
+    final int port = s.getLocalPort();
+    s.close();
+    return port;
+  }
+
+
+
+  /**
+   * Reads the lines from the provided histogram log file that are not
+   * comments.
+   *
+   * @param  f  The file to read.
+   *
+   * @return  The lines that were read.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private static List<String> readDataLines(final File f)
+          throws Exception
+  {
+    final ArrayList<String> lines = new ArrayList<String>(10);
+    final BufferedReader reader = new BufferedReader(new FileReader(f));
+    try
+    {
+      while (true)
+      {
+        final String line = reader.readLine();
+        if (line == null)
+        {
+          return lines;
+        }
+
+        if (! line.startsWith("#"))
+        {
+          lines.add(line);
+        }
+      }
+    }
+    finally
+    {
+      reader.close();
+    }
+  }
+
+
+
+  /**
+   * This class provides a thread that runs a worker on an automatically
+   * selected port of the loopback interface.
+   */
+  private static final class WorkerThread
+          extends Thread
+  {
+    // The worker run by this thread.
+    private final RateToolWorker worker;
+
+    // The number of sessions that the worker should handle.
+    private final int maxSessions;
+
+    // The result code returned by the worker.
+    private volatile ResultCode resultCode;
+
+
+
+    /**
+     * Creates and starts a worker that will handle a single session.
+     *
+     * @throws  Exception  If an unexpected problem occurs.
+     */
+    private WorkerThread()
+            throws Exception
+    {
+      this(1);
+    }
+
+
+
+    /**
+     * Creates and starts a worker that will handle the specified number of
+     * sessions, and waits for it to start listening.
+     *
+     * @param  maxSessions  The number of sessions that the worker should
+     *                      handle.
+     *
+     * @throws  Exception  If an unexpected problem occurs.
+     */
+    private WorkerThread(final int maxSessions)
+            throws Exception
+    {
+      this.maxSessions = maxSessions;
+
+      worker = new RateToolWorker(null, null);
+      setDaemon(true);
+      start();
+
+      final long stopWaitingTime = System.currentTimeMillis() + 10000L;
+      while ((worker.getListenPort() <= 0) &&
+             (System.currentTimeMillis() < stopWaitingTime))
+      {
+        Thread.sleep(1L);
+      }
+      assertTrue(worker.getListenPort() > 0);
+    }
+
+
+
+    /**
+     * Runs the worker.
+     */
+    @Override()
+    public void run()
+    {
+      resultCode = worker.runTool("--listenPort", "0", "--maxSessions",
+           String.valueOf(maxSessions));
+    }
+
+
+
+    /**
+     * Retrieves the address of the worker, in the form used by the
+     * "--workerAddress" argument.
+     *
+     * @return  The address of the worker.
+     */
+    private String getAddress()
+    {
+      return "127.0.0.1:" + worker.getListenPort();
+    }
+
+
+
+    /**
+     * Waits for the worker to complete and retrieves its result code.
+     *
+     * @return  The result code returned by the worker.
+     *
+     * @throws  Exception  If an unexpected problem occurs.
+     */
+    private ResultCode waitForResult()
+            throws Exception
+    {
+      join(30000L);
+      assertFalse(isAlive());
+      return resultCode;
+    }
+  }
+}
@@ -26,11 +26,14 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
 import com.unboundid.ldap.sdk.LDAPConnection;
 import com.unboundid.ldap.sdk.LDAPSDKTestCase;
 import com.unboundid.ldap.sdk.ResultCode;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileReader;
 
 
 /**
@@ -770,4 +773,183 @@ public class SearchAndModRateTestCase
 
     assertEquals(searchAndModRate.runTool(args), ResultCode.SUCCESS);
   }
+
+
+
+  /**
+   * Tests the ability to write response time histograms for both searches and
+   * modifies to a single histogram log while running against an in-memory
+   * directory server.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testHistogramLogFile()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final File logFile = createTempFile();
+
+    final String[] args =
+    {
+      "-h", "127.0.0.1",
+      "-p", String.valueOf(ds.getListenPort()),
+      "-D", "cn=Directory Manager",
+      "-w", "password",
+      "-b", "dc=example,dc=com",
+      "-s", "base",
+      "-f", "(objectClass=*)",
+      "-m", "description",
+      "-t", "2",
+      "-i", "1",
+      "-I", "2",
+      "-r", "50",
+      "-c",
+      "--histogramLogFile", logFile.getAbsolutePath()
+    };
+    assertEquals(SearchAndModRate.main(args, null, null), ResultCode.SUCCESS);
+
+    final BufferedReader reader = new BufferedReader(new FileReader(logFile));
+    try
+    {
+      int numSearchIntervals = 0;
+      int numModIntervals = 0;
+      while (true)
+      {
+        final String line = reader.readLine();
+        if (line == null)
+        {
+          break;
+        }
+        else if (line.startsWith("#"))
+        {
+          continue;
+        }
+
+        final String[] fields = line.split(",");
+        assertEquals(fields.length, 6, line);
+        if (fields[1].equals("search"))
+        {
+          numSearchIntervals++;
+        }
+        else
+        {
+          assertEquals(fields[1], "modify");
+          numModIntervals++;
+        }
+      }
+
+      assertEquals(numSearchIntervals, 2);
+      assertEquals(numModIntervals, 2);
+    }
+    finally
+    {
+      reader.close();
+    }
+  }
+
+
+
+  /**
+   * Tests the ability to run in open-loop mode against an in-memory directory
+   * server, using a poisson arrival distribution.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testOpenLoopMode()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final File logFile = createTempFile();
+
+    final String[] args =
+    {
+      "-h", "127.0.0.1",
+      "-p", String.valueOf(ds.getListenPort()),
+      "-D", "cn=Directory Manager",
+      "-w", "password",
+      "-b", "uid=test.user,ou=People,dc=example,dc=com",
+      "-s", "base",
+      "-f", "(objectClass=*)",
+      "-m", "description",
+      "-t", "2",
+      "-i", "1",
+      "-I", "2",
+      "-r", "100",
+      "--openLoopThreads", "2",
+      "--arrivalDistribution", "poisson",
+      "--histogramLogFile", logFile.getAbsolutePath()
+    };
+    assertEquals(SearchAndModRate.main(args, null, null), ResultCode.SUCCESS);
+
+    // Both searches and modifies should have been processed in each of the
+    // intervals.
+    final BufferedReader reader = new BufferedReader(new FileReader(logFile));
+    try
+    {
+      int numSearchIntervals = 0;
+      int numModIntervals = 0;
+      while (true)
+      {
+        final String line = reader.readLine();
+        if (line == null)
+        {
+          break;
+        }
+        else if (line.startsWith("#"))
+        {
+          continue;
+        }
+
+        final String[] fields = line.split(",");
+        assertTrue(Long.parseLong(fields[2]) > 0L, line);
+        if (fields[1].equals("search"))
+        {
+          numSearchIntervals++;
+        }
+        else
+        {
+          assertEquals(fields[1], "modify");
+          numModIntervals++;
+        }
+      }
+
+      assertEquals(numSearchIntervals, 2);
+      assertEquals(numModIntervals, 2);
+    }
+    finally
+    {
+      reader.close();
+    }
+  }
+
+
+
+  /**
+   * Tests that open-loop mode cannot be used without a target rate.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testOpenLoopModeWithoutRate()
+         throws Exception
+  {
+    final String[] args =
+    {
+      "-h", "127.0.0.1",
+      "-p", "389",
+      "-D", "cn=Directory Manager",
+      "-w", "password",
+      "-b", "uid=test.user,ou=People,dc=example,dc=com",
+      "-s", "base",
+      "-f", "(objectClass=*)",
+      "-m", "description",
+      "-t", "2",
+      "-i", "1",
+      "-I", "2",
+      "--openLoopThreads", "2"
+    };
+    assertFalse(SearchAndModRate.main(args, null, null) == ResultCode.SUCCESS);
+  }
 }
@@ -24,13 +24,26 @@ package com.unboundid.ldap.sdk.examples;
 
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.sdk.Control;
 import com.unboundid.ldap.sdk.LDAPConnection;
+import com.unboundid.ldap.sdk.LDAPResult;
 import com.unboundid.ldap.sdk.LDAPSDKTestCase;
 import com.unboundid.ldap.sdk.ResultCode;
+import com.unboundid.ldap.sdk.SearchScope;
+import com.unboundid.ldap.sdk.TestAsyncListener;
+import com.unboundid.util.ByteStringBuffer;
+import com.unboundid.util.StaticUtils;
+import com.unboundid.util.ValuePattern;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileReader;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -923,4 +936,339 @@ public class SearchRateTestCase
 
     assertEquals(searchRate.runTool(args), ResultCode.SUCCESS);
   }
+
+
+
+  /**
+   * Tests the ability to write a response time histogram log while running
+   * against an in-memory directory server at a fixed rate.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testHistogramLogFile()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final File logFile = createTempFile();
+
+    final String[] args =
+    {
+      "-h", "127.0.0.1",
+      "-p", String.valueOf(ds.getListenPort()),
+      "-b", "dc=example,dc=com",
+      "-s", "base",
+      "-f", "(objectClass=*)",
+      "-t", "2",
+      "-i", "1",
+      "-I", "2",
+      "-r", "100",
+      "--warmUpIntervals", "1",
+      "--histogramLogFile", logFile.getAbsolutePath()
+    };
+    assertEquals(SearchRate.main(args, null, null), ResultCode.SUCCESS);
+
+    // There should be a line for each of the non-warm-up intervals.
+    final BufferedReader reader = new BufferedReader(new FileReader(logFile));
+    try
+    {
+      int numIntervals = 0;
+      while (true)
+      {
+        final String line = reader.readLine();
+        if (line == null)
+        {
+          break;
+        }
+        else if (line.startsWith("#"))
+        {
+          continue;
+        }
+
+        final String[] fields = line.split(",");
+        assertEquals(fields.length, 6, line);
+        assertEquals(fields[1], "search");
+        assertTrue(Long.parseLong(fields[2]) > 0L, line);
+        numIntervals++;
+      }
+
+      assertEquals(numIntervals, 2);
+    }
+    finally
+    {
+      reader.close();
+    }
+  }
+
+
+
+  /**
+   * Tests the ability to run in open-loop mode against an in-memory directory
+   * server, using a poisson arrival distribution.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testOpenLoopMode()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final File logFile = createTempFile();
+
+    final String[] args =
+    {
+      "-h", "127.0.0.1",
+      "-p", String.valueOf(ds.getListenPort()),
+      "-b", "dc=example,dc=com",
+      "-s", "base",
+      "-f", "(objectClass=*)",
+      "-t", "2",
+      "-i", "1",
+      "-I", "2",
+      "-r", "100",
+      "--openLoopThreads", "2",
+      "--arrivalDistribution", "poisson",
+      "--histogramLogFile", logFile.getAbsolutePath()
+    };
+    assertEquals(SearchRate.main(args, null, null), ResultCode.SUCCESS);
+
+    // Operations should have been processed in each of the intervals.
+    final BufferedReader reader = new BufferedReader(new FileReader(logFile));
+    try
+    {
+      int numIntervals = 0;
+      while (true)
+      {
+        final String line = reader.readLine();
+        if (line == null)
+        {
+          break;
+        }
+        else if (line.startsWith("#"))
+        {
+          continue;
+        }
+
+        final String[] fields = line.split(",");
+        assertEquals(fields[1], "search");
+        assertTrue(Long.parseLong(fields[2]) > 0L, line);
+        numIntervals++;
+      }
+
+      assertEquals(numIntervals, 2);
+    }
+    finally
+    {
+      reader.close();
+    }
+  }
+
+
+
+  /**
+   * Tests that open-loop mode cannot be used without a target rate.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testOpenLoopModeWithoutRate()
+         throws Exception
+  {
+    final String[] args =
+    {
+      "-h", "127.0.0.1",
+      "-p", "389",
+      "-b", "dc=example,dc=com",
+      "-s", "base",
+      "-f", "(objectClass=*)",
+      "-t", "2",
+      "-i", "1",
+      "-I", "2",
+      "--openLoopThreads", "2"
+    };
+    assertFalse(SearchRate.main(args, null, null) == ResultCode.SUCCESS);
+  }
+
+
+
+  /**
+   * Retrieves a set of filter patterns along with an indication of whether
+   * they can be used with a pre-encoded search template.
+   *
+   * @return  A set of filter patterns along with an indication of whether
+   *          they can be used with a pre-encoded search template.
+   */
+  @DataProvider(name="templateFilterPatterns")
+  public Object[][] getTemplateFilterPatterns()
+  {
+    return new Object[][]
+    {
+      new Object[] { "(objectClass=*)", true },
+      new Object[] { "(uid=user.[1-1000000])", true },
+      new Object[] { "(uid=user.[1:1000x5%0000])", true },
+      new Object[] { "(&(objectClass=person)(|(uid=[1-10])(cn=*[1-10]*)))",
+           true },
+      new Object[] { "(!(employeeNumber>=[-10-10]))", true },
+      new Object[] { "(cn:dn:=[1-10])", true },
+      new Object[] { "(uid=[1-10]-[ref:1])", false },
+      new Object[] { "(uid=[file:/does/not/exist])", false },
+      new Object[] { "[file:/does/not/exist]", false },
+      new Object[] { "(uid=[[1-10])", false },
+      new Object[] { "([1-10]=foo)", false },
+      new Object[] { "(uid=[1-10]", false }
+    };
+  }
+
+
+
+  /**
+   * Tests the ability to determine whether a filter pattern can be used with
+   * a pre-encoded search template.
+   *
+   * @param  filterPattern   The filter pattern to test.
+   * @param  expectTemplate  Indicates whether a template should be created.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(dataProvider="templateFilterPatterns")
+  public void testCreateSearchTemplate(final String filterPattern,
+                                       final boolean expectTemplate)
+         throws Exception
+  {
+    final SearchRateTemplate template = SearchRateTemplate.create(
+         new ValuePattern("dc=example,dc=com"), SearchScope.SUB,
+         filterPattern, null, new String[0], null,
+         Collections.<Control>emptyList());
+    assertEquals((template != null), expectTemplate);
+  }
+
+
+
+  /**
+   * Tests sending searches from a pre-encoded search template.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSendFromSearchTemplate()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final SearchRateTemplate template = SearchRateTemplate.create(
+         new ValuePattern("ou=People,dc=[1-1]example,dc=com"),
+         SearchScope.SUB, "(&(uid=test.user)(!(description=[1-100])))", 1L,
+         new String[] { "uid" }, null, Collections.<Control>emptyList());
+    assertNotNull(template);
+    assertEquals(template.getNumValues(), 2);
+
+    final LDAPConnection conn = ds.getConnection();
+    try
+    {
+      final ByteStringBuffer valueBuffer = new ByteStringBuffer();
+      final int[] valueEndOffsets = new int[template.getNumValues()];
+      for (int i=0; i < 5; i++)
+      {
+        final TestAsyncListener listener = new TestAsyncListener();
+        final LDAPResult result = template.sendSearch(conn, listener,
+             valueBuffer, valueEndOffsets).get(30L, TimeUnit.SECONDS);
+        assertEquals(result.getResultCode(), ResultCode.NO_SUCH_OBJECT);
+      }
+
+      final SearchRateTemplate matchingTemplate = SearchRateTemplate.create(
+           new ValuePattern("ou=People,dc=example,dc=com"),
+           SearchScope.SUB, "(&(uid=test.user)(!(description=[1-100])))", 1L,
+           new String[] { "uid" }, null, Collections.<Control>emptyList());
+      final TestAsyncListener listener = new TestAsyncListener();
+      final LDAPResult result = matchingTemplate.sendSearch(conn, listener,
+           valueBuffer, valueEndOffsets).get(30L, TimeUnit.SECONDS);
+      assertEquals(result.getResultCode(), ResultCode.SUCCESS);
+      assertEquals(listener.getSearchEntries(), 1);
+    }
+    finally
+    {
+      conn.close();
+    }
+  }
+
+
+
+  /**
+   * Tests to ensure that when a seed is provided for a search template, the
+   * values generated for different assertions are not correlated with each
+   * other.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSearchTemplateSeedPerAssertion()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final SearchRateTemplate template = SearchRateTemplate.create(
+         new ValuePattern("dc=example,dc=com"), SearchScope.SUB,
+         "(&(uid=user.[1-1000])(employeeNumber=[1-1000]))", 1L,
+         new String[] { "uid" }, null, Collections.<Control>emptyList());
+    assertNotNull(template);
+    assertEquals(template.getNumValues(), 3);
+
+    final LDAPConnection conn = ds.getConnection();
+    try
+    {
+      final ByteStringBuffer valueBuffer = new ByteStringBuffer();
+      final int[] valueEndOffsets = new int[template.getNumValues()];
+      int numDifferent = 0;
+      for (int i=0; i < 20; i++)
+      {
+        final TestAsyncListener listener = new TestAsyncListener();
+        template.sendSearch(conn, listener, valueBuffer,
+             valueEndOffsets).get(30L, TimeUnit.SECONDS);
+
+        final byte[] b = valueBuffer.getBackingArray();
+        final String uidNumber = StaticUtils.toUTF8String(b,
+             (valueEndOffsets[0] + 5),
+             (valueEndOffsets[1] - valueEndOffsets[0] - 5));
+        final String employeeNumber = StaticUtils.toUTF8String(b,
+             valueEndOffsets[1], (valueEndOffsets[2] - valueEndOffsets[1]));
+        if (! uidNumber.equals(employeeNumber))
+        {
+          numDifferent++;
+        }
+      }
+
+      assertTrue(numDifferent > 0);
+    }
+    finally
+    {
+      conn.close();
+    }
+  }
+
+
+
+  /**
+   * Tests the ability to run in asynchronous mode with a filter pattern that
+   * will be sent from a pre-encoded search template.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testAsynchronousModeWithSearchTemplate()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+
+    final String[] args =
+    {
+      "-h", "127.0.0.1",
+      "-p", String.valueOf(ds.getListenPort()),
+      "-b", "dc=example,dc=com",
+      "-f", "(&(uid=test.user)(!(description=value [1:1000])))",
+      "-t", "2",
+      "-i", "1",
+      "-I", "1",
+      "-a",
+      "-O", "10"
+    };
+    assertEquals(SearchRate.main(args, null, null), ResultCode.SUCCESS);
+  }
 }
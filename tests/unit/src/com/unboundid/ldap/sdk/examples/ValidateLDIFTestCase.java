@@ -25,6 +25,8 @@ package com.unboundid.ldap.sdk.examples;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.zip.GZIPOutputStream;
 
 import com.unboundid.ldap.sdk.schema.EntryValidator;
@@ -36,6 +38,8 @@ import com.unboundid.ldap.sdk.Entry;
 import com.unboundid.ldap.sdk.LDAPConnection;
 import com.unboundid.ldap.sdk.LDAPSDKTestCase;
 import com.unboundid.ldap.sdk.ResultCode;
+import com.unboundid.ldap.sdk.schema.Schema;
+import com.unboundid.ldif.LDIFReader;
 import com.unboundid.ldif.LDIFWriter;
 
 
@@ -674,4 +678,97 @@ public class ValidateLDIFTestCase
     assertEquals(entryValidator
             .getEntriesWithMultipleStructuralObjectClasses(), 2);
   }
+
+
+
+  /**
+   * Tests the behavior when validating entries with multiple threads, and
+   * ensures that rejected entries are written in the order in which they
+   * appear in the LDIF file when requested.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testMultipleThreadsWithPreservedRejectOrder()
+         throws Exception
+  {
+    final File standardSchemaDir = createTempDir();
+    final LDIFWriter schemaWriter =
+         new LDIFWriter(new File(standardSchemaDir, "00-core.ldif"));
+    schemaWriter.writeEntry(
+         Schema.getDefaultStandardSchema().getSchemaEntry());
+    schemaWriter.close();
+
+    final File ldifFile = createTempFile();
+    final LDIFWriter ldifWriter = new LDIFWriter(ldifFile);
+    ldifWriter.writeEntry(new Entry(
+         "dn: dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: domain",
+         "dc: example"));
+
+    final List<String> expectedRejectDNs = new ArrayList<String>();
+    for (int i=0; i < 1000; i++)
+    {
+      final String dn = "ou=test." + i + ",dc=example,dc=com";
+      if ((i % 3) == 0)
+      {
+        expectedRejectDNs.add(dn);
+        ldifWriter.writeEntry(new Entry(
+             "dn: " + dn,
+             "objectClass: top",
+             "objectClass: organizationalUnit",
+             "objectClass: undefined",
+             "ou: test." + i));
+      }
+      else
+      {
+        ldifWriter.writeEntry(new Entry(
+             "dn: " + dn,
+             "objectClass: top",
+             "objectClass: organizationalUnit",
+             "ou: test." + i));
+      }
+    }
+    ldifWriter.close();
+
+    final File rejectFile = createTempFile();
+    assertTrue(rejectFile.delete());
+
+    final String[] args =
+    {
+      "--schemaDirectory", standardSchemaDir.getAbsolutePath(),
+      "--ldifFile", ldifFile.getAbsolutePath(),
+      "--rejectFile", rejectFile.getAbsolutePath(),
+      "--numThreads", "4",
+      "--preserveRejectOrder"
+    };
+
+    final ValidateLDIF validateLDIF = new ValidateLDIF(null, null);
+    assertEquals(validateLDIF.runTool(args),
+         ResultCode.OBJECT_CLASS_VIOLATION);
+
+    final EntryValidator entryValidator = validateLDIF.getEntryValidator();
+    assertEquals(entryValidator.getEntriesExamined(), 1001L);
+    assertEquals(entryValidator.getInvalidEntries(),
+         expectedRejectDNs.size());
+    assertEquals(entryValidator.getTotalUndefinedObjectClasses(),
+         expectedRejectDNs.size());
+
+    final List<String> rejectDNs = new ArrayList<String>();
+    final LDIFReader rejectReader = new LDIFReader(rejectFile);
+    while (true)
+    {
+      final Entry e = rejectReader.readEntry();
+      if (e == null)
+      {
+        break;
+      }
+
+      rejectDNs.add(e.getDN());
+    }
+    rejectReader.close();
+
+    assertEquals(rejectDNs, expectedRejectDNs);
+  }
 }
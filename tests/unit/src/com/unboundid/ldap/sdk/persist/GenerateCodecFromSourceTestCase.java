@@ -0,0 +1,318 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.persist;
+
+
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.sdk.DN;
+import com.unboundid.ldap.sdk.Entry;
+import com.unboundid.ldap.sdk.LDAPSDKTestCase;
+import com.unboundid.ldap.sdk.ResultCode;
+import com.unboundid.util.StaticUtils;
+
+
+
+/**
+ * This class provides a number of test cases for the
+ * {@code GenerateCodecFromSource} tool and the use of generated codecs by the
+ * persistence framework.
+ */
+public final class GenerateCodecFromSourceTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Provides general test coverage for the tool.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void provideGeneralTestCoverage()
+         throws Exception
+  {
+    final GenerateCodecFromSource tool =
+         new GenerateCodecFromSource(null, null);
+    assertNotNull(tool.getExampleUsages());
+
+    assertTrue(tool.supportsInteractiveMode());
+    assertTrue(tool.defaultsToInteractiveMode());
+  }
+
+
+
+  /**
+   * Tests that the tool generates the same source code as the checked-in
+   * codec for the {@code TestCodecObject} class.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testGeneratedSource()
+         throws Exception
+  {
+    final File outputDir = createTempDir();
+
+    final String[] args =
+    {
+      "--javaClass", TestCodecObject.class.getName(),
+      "--outputDirectory", outputDir.getAbsolutePath()
+    };
+    assertEquals(GenerateCodecFromSource.main(args, null, null),
+         ResultCode.SUCCESS);
+
+    final File generatedFile =
+         new File(outputDir, "TestCodecObjectLDAPCodec.java");
+    assertTrue(generatedFile.exists());
+
+    final File checkedInFile = new File(System.getProperty("basedir"),
+         "tests/unit/src/com/unboundid/ldap/sdk/persist/" +
+              "TestCodecObjectLDAPCodec.java");
+    final String checkedInSource = new String(
+         Files.readAllBytes(checkedInFile.toPath()), "UTF-8");
+    final String generatedSource = new String(
+         Files.readAllBytes(generatedFile.toPath()), "UTF-8");
+
+    // The checked-in file has a license header that isn't generated.
+    assertEquals(generatedSource,
+         checkedInSource.substring(checkedInSource.indexOf("package ")));
+  }
+
+
+
+  /**
+   * Tests the behavior of the tool with a class that cannot be loaded.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testMissingClass()
+         throws Exception
+  {
+    final String[] args =
+    {
+      "--javaClass", "com.example.MissingClass",
+      "--outputDirectory", createTempDir().getAbsolutePath()
+    };
+    assertEquals(GenerateCodecFromSource.main(args, null, null),
+         ResultCode.PARAM_ERROR);
+  }
+
+
+
+  /**
+   * Tests that the codec is found for the class from which it was generated,
+   * and not for other classes.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testGetCodec()
+         throws Exception
+  {
+    assertEquals(LDAPObjectCodec.getCodecClassName(TestCodecObject.class),
+         TestCodecObjectLDAPCodec.class.getName());
+
+    assertTrue(LDAPObjectCodec.getCodec(TestCodecObject.class) instanceof
+         TestCodecObjectLDAPCodec);
+    assertNull(LDAPObjectCodec.getCodec(TestOrganizationalUnit.class));
+
+    assertNotNull(new LDAPObjectHandler<TestCodecObject>(
+         TestCodecObject.class).getCodec());
+    assertNull(new LDAPObjectHandler<TestCodecObject>(
+         TestCodecObject.class, false).getCodec());
+  }
+
+
+
+  /**
+   * Tests that objects are encoded and decoded in the same way with and
+   * without the codec.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testEncodeAndDecode()
+         throws Exception
+  {
+    final LDAPObjectHandler<TestCodecObject> codecHandler =
+         new LDAPObjectHandler<TestCodecObject>(TestCodecObject.class);
+    final LDAPObjectHandler<TestCodecObject> reflectionHandler =
+         new LDAPObjectHandler<TestCodecObject>(TestCodecObject.class, false);
+
+    final Date now = new Date();
+    final Entry e = new Entry(
+         "dn: cn=test,dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: testCodecObject",
+         "cn: test",
+         "description: first",
+         "description: second",
+         "enabled: true",
+         "locked: FALSE",
+         "count: 5",
+         "limit: 10",
+         "size: 1234567890123",
+         "quota: 42",
+         "created: " + StaticUtils.encodeGeneralizedTime(now),
+         "manager: uid=manager,dc=example,dc=com",
+         "data: binary",
+         "privateValue: private",
+         "ratio: 0.5",
+         "level: 3",
+         "mail: test@example.com");
+
+    final TestCodecObject c = codecHandler.decode(e);
+    final TestCodecObject r = reflectionHandler.decode(e);
+    for (final TestCodecObject o : Arrays.asList(c, r))
+    {
+      assertEquals(o.cn, "test");
+      assertEquals(o.description, new String[] { "first", "second" });
+      assertTrue(o.enabled);
+      assertEquals(o.locked, Boolean.FALSE);
+      assertEquals(o.count, 5);
+      assertEquals(o.limit, Integer.valueOf(10));
+      assertEquals(o.size, 1234567890123L);
+      assertEquals(o.quota, Long.valueOf(42L));
+      assertEquals(o.created, now);
+      assertEquals(o.manager, new DN("uid=manager,dc=example,dc=com"));
+      assertEquals(o.data, StaticUtils.getBytes("binary"));
+      assertEquals(o.getPrivateValue(), "private");
+      assertEquals(o.ratio, Double.valueOf(0.5d));
+      assertEquals(o.getLevel(), 3);
+      assertEquals(o.getMail(), "test@example.com");
+    }
+
+    final Entry codecEntry = codecHandler.encode(c, "dc=example,dc=com");
+    final Entry reflectionEntry =
+         reflectionHandler.encode(r, "dc=example,dc=com");
+    assertEquals(codecEntry, reflectionEntry);
+
+    // Decoding an entry without the attributes should clear the values.
+    final Entry minimalEntry = new Entry(
+         "dn: cn=test,dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: testCodecObject",
+         "cn: test");
+    codecHandler.decode(c, minimalEntry);
+    reflectionHandler.decode(r, minimalEntry);
+    for (final TestCodecObject o : Arrays.asList(c, r))
+    {
+      assertNull(o.description);
+      assertFalse(o.enabled);
+      assertNull(o.locked);
+      assertEquals(o.count, 0);
+      assertNull(o.limit);
+      assertEquals(o.size, 0L);
+      assertNull(o.quota);
+      assertNull(o.created);
+      assertNull(o.manager);
+      assertNull(o.data);
+      assertNull(o.getPrivateValue());
+      assertNull(o.ratio);
+      assertEquals(o.getLevel(), 0);
+      assertNull(o.getMail());
+    }
+
+    assertEquals(codecHandler.encode(c, "dc=example,dc=com"),
+         reflectionHandler.encode(r, "dc=example,dc=com"));
+  }
+
+
+
+  /**
+   * Tests that invalid values are reported in the same way with and without
+   * the codec.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testInvalidValues()
+         throws Exception
+  {
+    final LDAPObjectHandler<TestCodecObject> codecHandler =
+         new LDAPObjectHandler<TestCodecObject>(TestCodecObject.class);
+    final LDAPObjectHandler<TestCodecObject> reflectionHandler =
+         new LDAPObjectHandler<TestCodecObject>(TestCodecObject.class, false);
+
+    final Entry e = new Entry(
+         "dn: cn=test,dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: testCodecObject",
+         "cn: test",
+         "enabled: maybe",
+         "count: notAnInteger",
+         "size: notALong",
+         "created: notATimestamp",
+         "manager: notADN",
+         "level: notAnInteger");
+
+    String codecMessage = null;
+    try
+    {
+      codecHandler.decode(e);
+      fail("Expected an exception when decoding invalid values");
+    }
+    catch (final LDAPPersistException lpe)
+    {
+      codecMessage = lpe.getMessage();
+    }
+
+    String reflectionMessage = null;
+    try
+    {
+      reflectionHandler.decode(e);
+      fail("Expected an exception when decoding invalid values");
+    }
+    catch (final LDAPPersistException lpe)
+    {
+      reflectionMessage = lpe.getMessage();
+    }
+
+    // The messages may include stack traces that differ, so just make sure
+    // that each of the problems is reported in both cases.
+    for (final String value :
+         Arrays.asList("maybe", "notAnInteger", "notALong", "notATimestamp",
+              "notADN"))
+    {
+      assertTrue(codecMessage.contains(value), codecMessage);
+      assertTrue(reflectionMessage.contains(value), reflectionMessage);
+    }
+
+
+    // The codec should also honor the requiredForEncode flag.
+    final TestCodecObject o = new TestCodecObject();
+    try
+    {
+      codecHandler.encode(o, "dc=example,dc=com");
+      fail("Expected an exception when encoding without a required value");
+    }
+    catch (final LDAPPersistException lpe)
+    {
+      // This was expected.
+    }
+  }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.persist;
+
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.sdk.Attribute;
+import com.unboundid.ldap.sdk.Entry;
+import com.unboundid.ldap.sdk.LDAPConnectionPool;
+import com.unboundid.ldap.sdk.LDAPResult;
+import com.unboundid.ldap.sdk.LDAPSDKTestCase;
+import com.unboundid.ldap.sdk.Modification;
+import com.unboundid.ldap.sdk.ModificationType;
+import com.unboundid.ldap.sdk.ResultCode;
+
+
+
+/**
+ * This class provides a set of test cases for tracking modifications to
+ * persisted objects, and for adding and modifying objects in bulk.
+ */
+public final class ModificationTrackingTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Tests that only the attributes that have changed since an object was read
+   * from the directory are included in modifications.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testTrackDecodedObject()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, false);
+    ds.add(
+         "dn: ou=tracked,dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: organizationalUnit",
+         "ou: tracked",
+         "description: original",
+         "l: Austin");
+
+    final LDAPPersister<TestTrackedObject> persister =
+         LDAPPersister.getInstance(TestTrackedObject.class);
+
+    final LDAPConnectionPool pool = ds.getConnectionPool(1);
+    try
+    {
+      final TestTrackedObject o =
+           persister.get("ou=tracked,dc=example,dc=com", ds);
+      assertNotNull(o);
+      assertTrue(persister.getModifications(o, true).isEmpty());
+      assertNull(persister.modify(o, pool, null, true));
+
+      o.setDescription("updated");
+      List<Modification> mods = persister.getModifications(o, true);
+      assertEquals(mods.size(), 1);
+      assertEquals(mods.get(0).getModificationType(),
+           ModificationType.REPLACE);
+      assertEquals(mods.get(0).getAttributeName(), "description");
+      assertEquals(mods.get(0).getValues(), new String[] { "updated" });
+
+      assertTrue(persister.getModifications(o, true, "l").isEmpty());
+
+      o.setLocality(null);
+      assertEquals(persister.getModifications(o, false).size(), 1);
+
+      mods = persister.getModifications(o, true);
+      assertEquals(mods.size(), 2);
+      assertEquals(mods.get(1).getAttributeName(), "l");
+      assertEquals(mods.get(1).getValues().length, 0);
+
+      final LDAPResult result = persister.modify(o, pool, null, true);
+      assertNotNull(result);
+      assertEquals(result.getResultCode(), ResultCode.SUCCESS);
+      assertTrue(persister.getModifications(o, true).isEmpty());
+
+      final Entry e = ds.getEntry("ou=tracked,dc=example,dc=com");
+      assertEquals(e.getAttributeValue("description"), "updated");
+      assertFalse(e.hasAttribute("l"));
+
+      // A separately-decoded object that is equal to the first should be
+      // tracked separately.
+      final TestTrackedObject o2 =
+           persister.get("ou=tracked,dc=example,dc=com", ds);
+      o2.setLocality("Dallas");
+      assertEquals(persister.getModifications(o2, true).size(), 1);
+      assertTrue(persister.getModifications(o, true).isEmpty());
+    }
+    finally
+    {
+      pool.close();
+    }
+  }
+
+
+
+  /**
+   * Tests the methods used to add and modify objects in bulk.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testAddAllAndModifyAll()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, false);
+
+    final LDAPPersister<TestTrackedObject> persister =
+         LDAPPersister.getInstance(TestTrackedObject.class);
+
+    final ArrayList<TestTrackedObject> objects =
+         new ArrayList<TestTrackedObject>(50);
+    for (int i=0; i < 50; i++)
+    {
+      objects.add(new TestTrackedObject("bulk-" + i, "original " + i));
+    }
+
+    final LDAPConnectionPool pool = ds.getConnectionPool(1);
+    try
+    {
+      List<LDAPResult> results = persister.addAll(objects, pool, null, 8);
+      assertEquals(results.size(), 50);
+      for (final LDAPResult r : results)
+      {
+        assertEquals(r.getResultCode(), ResultCode.SUCCESS);
+      }
+      assertEquals(ds.countEntriesBelow("dc=example,dc=com"), 51);
+
+      // Adding the same objects again should fail for each of them, without
+      // an exception.
+      results = persister.addAll(objects, pool, null, 8);
+      assertEquals(results.size(), 50);
+      for (final LDAPResult r : results)
+      {
+        assertEquals(r.getResultCode(), ResultCode.ENTRY_ALREADY_EXISTS);
+      }
+
+      // Only the objects that have changed should be updated.
+      for (int i=0; i < 50; i += 2)
+      {
+        objects.get(i).setDescription("updated " + i);
+      }
+
+      results = persister.modifyAll(objects, pool, true, 8);
+      assertEquals(results.size(), 50);
+      for (int i=0; i < 50; i++)
+      {
+        if ((i % 2) == 0)
+        {
+          assertEquals(results.get(i).getResultCode(), ResultCode.SUCCESS);
+          assertEquals(
+               ds.getEntry(objects.get(i).getDN()).getAttributeValue(
+                    "description"),
+               "updated " + i);
+        }
+        else
+        {
+          assertNull(results.get(i));
+        }
+      }
+
+      results = persister.modifyAll(objects, pool, true, 8);
+      for (final LDAPResult r : results)
+      {
+        assertNull(r);
+      }
+    }
+    finally
+    {
+      pool.close();
+    }
+  }
+
+
+
+  /**
+   * Tests the behavior when trying to modify an object whose DN can't be
+   * determined in bulk.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions = { LDAPPersistException.class })
+  public void testModifyAllNoDN()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, false);
+
+    final LDAPPersister<TestTrackedObject> persister =
+         LDAPPersister.getInstance(TestTrackedObject.class);
+
+    final LDAPConnectionPool pool = ds.getConnectionPool(1);
+    try
+    {
+      persister.modifyAll(
+           Collections.singletonList(new TestTrackedObject("no-dn", "desc")),
+           pool, true, 1);
+    }
+    finally
+    {
+      pool.close();
+    }
+  }
+
+
+
+  /**
+   * Tests the modification tracker directly.
+   */
+  @Test()
+  public void testModificationTracker()
+  {
+    final ModificationTracker tracker = new ModificationTracker();
+    assertEquals(tracker.size(), 0);
+
+    final String o1 = new String("object");
+    final String o2 = new String("object");
+    assertNull(tracker.getSnapshot(o1));
+
+    tracker.setSnapshot(o1, Collections.singletonMap("description",
+         new Attribute("description", "a")));
+    assertNotNull(tracker.getSnapshot(o1));
+    assertNull(tracker.getSnapshot(o2));
+    assertEquals(tracker.size(), 1);
+
+    tracker.updateSnapshot(o2, Collections.singletonList("description"),
+         Collections.<String,Attribute>emptyMap());
+    assertEquals(tracker.size(), 1);
+
+    tracker.updateSnapshot(o1, Collections.singletonList("description"),
+         Collections.<String,Attribute>emptyMap());
+    assertTrue(tracker.getSnapshot(o1).isEmpty());
+    assertEquals(tracker.size(), 1);
+
+    tracker.removeSnapshot(o1);
+    assertNull(tracker.getSnapshot(o1));
+    assertEquals(tracker.size(), 0);
+  }
+}
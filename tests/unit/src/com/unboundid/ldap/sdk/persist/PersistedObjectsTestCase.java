@@ -0,0 +1,271 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.persist;
+
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.sdk.DereferencePolicy;
+import com.unboundid.ldap.sdk.Filter;
+import com.unboundid.ldap.sdk.LDAPConnection;
+import com.unboundid.ldap.sdk.LDAPSDKTestCase;
+import com.unboundid.ldap.sdk.SearchScope;
+
+
+
+/**
+ * This class provides a set of test cases for the {@code PersistedObjects}
+ * class, including decoding search result entries in parallel.
+ */
+public final class PersistedObjectsTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Tests that decoding entries in parallel returns the same objects, in the
+   * same order, as decoding them in the calling thread.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testParallelDecodePreservesOrder()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, false);
+    addOrganizationalUnits(ds, 1500);
+
+    final LDAPPersister<TestOrganizationalUnit> persister =
+         LDAPPersister.getInstance(TestOrganizationalUnit.class);
+
+    final LDAPConnection conn = ds.getConnection();
+    try
+    {
+      final List<String> serialNames = getNames(persister, conn, 0);
+      assertEquals(serialNames.size(), 1500);
+
+      final List<String> parallelNames = getNames(persister, conn, 4);
+      assertEquals(parallelNames, serialNames);
+    }
+    finally
+    {
+      conn.close();
+    }
+  }
+
+
+
+  /**
+   * Tests that an entry that can't be decoded is reported at the right point
+   * in the results when decoding in parallel, and that it is possible to keep
+   * reading objects after that.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testParallelDecodeFailure()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, false);
+    addOrganizationalUnits(ds, 10);
+
+    // The test object requires a description, so this entry can't be decoded.
+    ds.add(
+         "dn: ou=test-0010,dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: organizationalUnit",
+         "ou: test-0010");
+    ds.add(
+         "dn: ou=test-0011,dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: organizationalUnit",
+         "ou: test-0011",
+         "description: test-0011");
+
+    final LDAPPersister<TestOrganizationalUnit> persister =
+         LDAPPersister.getInstance(TestOrganizationalUnit.class);
+
+    final LDAPConnection conn = ds.getConnection();
+    try
+    {
+      final PersistedObjects<TestOrganizationalUnit> results =
+           persister.search(conn, "dc=example,dc=com", SearchScope.ONE,
+                DereferencePolicy.NEVER, 0, 0,
+                Filter.createPresenceFilter("objectClass"), 2);
+
+      for (int i=0; i < 10; i++)
+      {
+        assertEquals(results.next().getName(), getName(i));
+      }
+
+      try
+      {
+        results.next();
+        fail("Expected an exception for an entry that can't be decoded");
+      }
+      catch (final LDAPPersistException lpe)
+      {
+        // This was expected.
+      }
+
+      assertEquals(results.next().getName(), getName(11));
+      assertNull(results.next());
+      assertNull(results.next());
+      results.close();
+      assertNotNull(results.getSearchResult());
+    }
+    finally
+    {
+      conn.close();
+    }
+  }
+
+
+
+  /**
+   * Tests closing the results before all of the objects have been read when
+   * decoding in parallel.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testParallelDecodeCloseEarly()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, false);
+    addOrganizationalUnits(ds, 1500);
+
+    final LDAPPersister<TestOrganizationalUnit> persister =
+         LDAPPersister.getInstance(TestOrganizationalUnit.class);
+
+    final LDAPConnection conn = ds.getConnection();
+    try
+    {
+      final PersistedObjects<TestOrganizationalUnit> results =
+           persister.search(conn, "dc=example,dc=com", SearchScope.ONE,
+                DereferencePolicy.NEVER, 0, 0,
+                Filter.createPresenceFilter("objectClass"), 4);
+
+      assertEquals(results.next().getName(), getName(0));
+      assertEquals(results.next().getName(), getName(1));
+      results.close();
+      assertNull(results.next());
+      assertNull(results.next());
+
+      // Make sure that the connection is still usable.
+      assertNotNull(conn.getRootDSE());
+    }
+    finally
+    {
+      conn.close();
+    }
+  }
+
+
+
+  /**
+   * Adds the specified number of organizational unit entries below
+   * "dc=example,dc=com".
+   *
+   * @param  ds          The directory server to which the entries should be
+   *                     added.
+   * @param  numEntries  The number of entries to add.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private static void addOrganizationalUnits(final InMemoryDirectoryServer ds,
+                                             final int numEntries)
+          throws Exception
+  {
+    for (int i=0; i < numEntries; i++)
+    {
+      final String name = getName(i);
+      ds.add(
+           "dn: ou=" + name + ",dc=example,dc=com",
+           "objectClass: top",
+           "objectClass: organizationalUnit",
+           "ou: " + name,
+           "description: " + name);
+    }
+  }
+
+
+
+  /**
+   * Retrieves the name of the organizational unit with the specified index.
+   *
+   * @param  i  The index of the organizational unit.
+   *
+   * @return  The name of the organizational unit with the specified index.
+   */
+  private static String getName(final int i)
+  {
+    return String.format("test-%04d", i);
+  }
+
+
+
+  /**
+   * Retrieves the names of all of the organizational units below
+   * "dc=example,dc=com", in the order that they were returned.
+   *
+   * @param  persister         The persister to use for the search.
+   * @param  conn              The connection to use for the search.
+   * @param  numDecodeThreads  The number of threads to use to decode entries.
+   *
+   * @return  The names of the organizational units that were returned.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private static List<String> getNames(
+               final LDAPPersister<TestOrganizationalUnit> persister,
+               final LDAPConnection conn, final int numDecodeThreads)
+          throws Exception
+  {
+    final List<String> names = new ArrayList<String>();
+    final PersistedObjects<TestOrganizationalUnit> results =
+         persister.search(conn, "dc=example,dc=com", SearchScope.ONE,
+              DereferencePolicy.NEVER, 0, 0,
+              Filter.createPresenceFilter("objectClass"), numDecodeThreads);
+    try
+    {
+      while (true)
+      {
+        final TestOrganizationalUnit ou = results.next();
+        if (ou == null)
+        {
+          break;
+        }
+
+        names.add(ou.getName());
+      }
+    }
+    finally
+    {
+      results.close();
+    }
+
+    return names;
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.persist;
+
+
+
+import java.util.Date;
+
+import com.unboundid.ldap.sdk.DN;
+
+
+
+/**
+ * This class provides an object with the {@code LDAPObject} annotation that
+ * has a mix of fields and methods that can and cannot be accessed by a
+ * generated codec.  The {@code TestCodecObjectLDAPCodec} class was generated
+ * from this class by the {@code GenerateCodecFromSource} tool, and must be
+ * regenerated if this class is changed.
+ */
+@LDAPObject(structuralClass="testCodecObject")
+public class TestCodecObject
+{
+  /**
+   * The RDN attribute value.
+   */
+  @LDAPField(inRDN=true, filterUsage=FilterUsage.ALWAYS_ALLOWED,
+       requiredForEncode=true)
+  String cn;
+
+  /**
+   * A multivalued string field.
+   */
+  @LDAPField() String[] description;
+
+  /**
+   * A primitive boolean field.
+   */
+  @LDAPField() boolean enabled;
+
+  /**
+   * A boxed Boolean field.
+   */
+  @LDAPField() Boolean locked;
+
+  /**
+   * A primitive int field.
+   */
+  @LDAPField() int count;
+
+  /**
+   * A boxed Integer field.
+   */
+  @LDAPField() Integer limit;
+
+  /**
+   * A primitive long field.
+   */
+  @LDAPField() long size;
+
+  /**
+   * A boxed Long field.
+   */
+  @LDAPField() Long quota;
+
+  /**
+   * A Date field.
+   */
+  @LDAPField() Date created;
+
+  /**
+   * A DN field.
+   */
+  @LDAPField() DN manager;
+
+  /**
+   * A byte array field.
+   */
+  @LDAPField() byte[] data;
+
+  /**
+   * A private field, which cannot be accessed by the codec.
+   */
+  @LDAPField() private String privateValue;
+
+  /**
+   * A field with a type that is not supported by the codec.
+   */
+  @LDAPField() Double ratio;
+
+  /**
+   * The level, which is accessed through a getter and setter.
+   */
+  private int level;
+
+  /**
+   * The mail address, which is accessed through a getter and setter.
+   */
+  private String mail;
+
+
+
+  /**
+   * Creates a new instance of this object.
+   */
+  public TestCodecObject()
+  {
+  }
+
+
+
+  /**
+   * Retrieves the private value.
+   *
+   * @return  The private value.
+   */
+  String getPrivateValue()
+  {
+    return privateValue;
+  }
+
+
+
+  /**
+   * Specifies the private value.
+   *
+   * @param  privateValue  The private value.
+   */
+  void setPrivateValue(final String privateValue)
+  {
+    this.privateValue = privateValue;
+  }
+
+
+
+  /**
+   * Retrieves the level.
+   *
+   * @return  The level.
+   */
+  @LDAPGetter(attribute="level")
+  int getLevel()
+  {
+    return level;
+  }
+
+
+
+  /**
+   * Specifies the level.
+   *
+   * @param  level  The level.
+   */
+  @LDAPSetter(attribute="level")
+  void setLevel(final int level)
+  {
+    this.level = level;
+  }
+
+
+
+  /**
+   * Retrieves the mail address.
+   *
+   * @return  The mail address.
+   */
+  @LDAPGetter(attribute="mail")
+  String getMail()
+  {
+    return mail;
+  }
+
+
+
+  /**
+   * Specifies the mail address.
+   *
+   * @param  mail  The mail address.
+   */
+  @LDAPSetter(attribute="mail")
+  void setMail(final String mail)
+  {
+    this.mail = mail;
+  }
+}
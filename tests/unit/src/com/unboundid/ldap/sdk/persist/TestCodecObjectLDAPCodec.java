@@ -0,0 +1,361 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.persist;
+
+
+
+import java.util.Date;
+
+import com.unboundid.ldap.sdk.Attribute;
+import com.unboundid.ldap.sdk.DN;
+
+
+
+/**
+ * This class provides a codec that the LDAP persistence framework may use to
+ * access objects of the following type without the use of reflection:
+ * {@code com.unboundid.ldap.sdk.persist.TestCodecObject}.
+ * It was generated by the generate-codec-from-source tool, and it should be
+ * regenerated rather than edited if that class is updated.
+ */
+public final class TestCodecObjectLDAPCodec
+       extends LDAPObjectCodec<TestCodecObject>
+{
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = 1L;
+
+
+
+  /**
+   * The names of the fields that may be accessed by this codec.
+   */
+  private static final String[] FIELD_NAMES =
+  {
+    "cn",
+    "count",
+    "created",
+    "data",
+    "description",
+    "enabled",
+    "limit",
+    "locked",
+    "manager",
+    "quota",
+    "size"
+  };
+
+
+
+  /**
+   * The names of the getter methods that may be accessed by this codec.
+   */
+  private static final String[] GETTER_NAMES =
+  {
+    "getLevel",
+    "getMail"
+  };
+
+
+
+  /**
+   * The names of the setter methods that may be accessed by this codec.
+   */
+  private static final String[] SETTER_NAMES =
+  {
+    "setLevel",
+    "setMail"
+  };
+
+
+
+  /**
+   * Creates a new instance of this codec.
+   */
+  public TestCodecObjectLDAPCodec()
+  {
+    // No implementation is required.
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public Class<TestCodecObject> getType()
+  {
+    return TestCodecObject.class;
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public TestCodecObject newInstance()
+  {
+    return new TestCodecObject();
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public String[] getFieldNames()
+  {
+    return FIELD_NAMES.clone();
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public String[] getGetterNames()
+  {
+    return GETTER_NAMES.clone();
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public String[] getSetterNames()
+  {
+    return SETTER_NAMES.clone();
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public Attribute encodeField(final TestCodecObject o, final int index,
+         final String attributeName)
+         throws LDAPPersistException
+  {
+    switch (index)
+    {
+      case 0:
+      {
+        final String v = o.cn;
+        if (v == null)
+        {
+          return null;
+        }
+        return encodeString(attributeName, v);
+      }
+      case 1:
+      {
+        final int v = o.count;
+        return encodeString(attributeName, String.valueOf(v));
+      }
+      case 2:
+      {
+        final Date v = o.created;
+        if (v == null)
+        {
+          return null;
+        }
+        return encodeDate(attributeName, v);
+      }
+      case 3:
+      {
+        final byte[] v = o.data;
+        if (v == null)
+        {
+          return null;
+        }
+        return encodeBytes(attributeName, v);
+      }
+      case 4:
+      {
+        final String[] v = o.description;
+        if (v == null)
+        {
+          return null;
+        }
+        return encodeStrings(attributeName, v);
+      }
+      case 5:
+      {
+        final boolean v = o.enabled;
+        return encodeBoolean(attributeName, v);
+      }
+      case 6:
+      {
+        final Integer v = o.limit;
+        if (v == null)
+        {
+          return null;
+        }
+        return encodeString(attributeName, String.valueOf(v));
+      }
+      case 7:
+      {
+        final Boolean v = o.locked;
+        if (v == null)
+        {
+          return null;
+        }
+        return encodeBoolean(attributeName, v);
+      }
+      case 8:
+      {
+        final DN v = o.manager;
+        if (v == null)
+        {
+          return null;
+        }
+        return encodeString(attributeName, String.valueOf(v));
+      }
+      case 9:
+      {
+        final Long v = o.quota;
+        if (v == null)
+        {
+          return null;
+        }
+        return encodeString(attributeName, String.valueOf(v));
+      }
+      case 10:
+      {
+        final long v = o.size;
+        return encodeString(attributeName, String.valueOf(v));
+      }
+      default:
+        throw new IndexOutOfBoundsException(String.valueOf(index));
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void decodeField(final TestCodecObject o, final int index,
+         final Attribute a)
+         throws LDAPPersistException
+  {
+    switch (index)
+    {
+      case 0:
+        o.cn = (a == null) ? null : decodeString(a);
+        break;
+      case 1:
+        o.count = (a == null) ? 0 : decodeInteger(a);
+        break;
+      case 2:
+        o.created = (a == null) ? null : decodeDate(a);
+        break;
+      case 3:
+        o.data = (a == null) ? null : decodeBytes(a);
+        break;
+      case 4:
+        o.description = (a == null) ? null : decodeStrings(a);
+        break;
+      case 5:
+        o.enabled = (a != null) && decodeBoolean(a);
+        break;
+      case 6:
+        o.limit = (a == null) ? null : decodeInteger(a);
+        break;
+      case 7:
+        o.locked = (a == null) ? null : decodeBoolean(a);
+        break;
+      case 8:
+        o.manager = (a == null) ? null : decodeDN(a);
+        break;
+      case 9:
+        o.quota = (a == null) ? null : decodeLong(a);
+        break;
+      case 10:
+        o.size = (a == null) ? 0L : decodeLong(a);
+        break;
+      default:
+        throw new IndexOutOfBoundsException(String.valueOf(index));
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public Attribute invokeGetter(final TestCodecObject o, final int index,
+         final String attributeName)
+         throws LDAPPersistException
+  {
+    switch (index)
+    {
+      case 0:
+      {
+        final int v = o.getLevel();
+        return encodeString(attributeName, String.valueOf(v));
+      }
+      case 1:
+      {
+        final String v = o.getMail();
+        if (v == null)
+        {
+          return null;
+        }
+        return encodeString(attributeName, v);
+      }
+      default:
+        throw new IndexOutOfBoundsException(String.valueOf(index));
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void invokeSetter(final TestCodecObject o, final int index,
+         final Attribute a)
+         throws LDAPPersistException
+  {
+    switch (index)
+    {
+      case 0:
+        o.setLevel((a == null) ? 0 : decodeInteger(a));
+        break;
+      case 1:
+        o.setMail((a == null) ? null : decodeString(a));
+        break;
+      default:
+        throw new IndexOutOfBoundsException(String.valueOf(index));
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.persist;
+
+
+
+/**
+ * This class provides an implementation of an object that can be used to
+ * represent organizationalUnit objects in the directory, with modifications
+ * tracked by the persister.  It is intended only for testing purposes.
+ */
+@LDAPObject(structuralClass="organizationalUnit",
+     defaultParentDN="dc=example,dc=com", trackModifications=true)
+public class TestTrackedObject
+{
+  // The DN of the entry associated with this object.
+  @LDAPDNField()
+  private String dn;
+
+  // The description for the organizational unit.
+  @LDAPField(attribute="description")
+  private String description;
+
+  // The locality for the organizational unit.
+  @LDAPField(attribute="l")
+  private String locality;
+
+  // The name for the organizational unit.
+  @LDAPField(attribute="ou", inRDN=true, filterUsage=FilterUsage.ALWAYS_ALLOWED,
+       requiredForDecode=true, requiredForEncode=true)
+  private String name;
+
+
+
+  /**
+   * Creates a new organizational unit object without any fields set.
+   */
+  public TestTrackedObject()
+  {
+    // No implementation required.
+  }
+
+
+
+  /**
+   * Creates a new organizational unit object with the provided name and
+   * description.
+   *
+   * @param  name         The name for this organizational unit.
+   * @param  description  The description for this organizational unit.
+   */
+  public TestTrackedObject(final String name, final String description)
+  {
+    this.name        = name;
+    this.description = description;
+  }
+
+
+
+  /**
+   * Retrieves the DN of the entry associated with this object, if it is
+   * available.
+   *
+   * @return  The DN of the entry associated with this object, or {@code null}
+   *          if it is not available.
+   */
+  public String getDN()
+  {
+    return dn;
+  }
+
+
+
+  /**
+   * Retrieves the name for this organizational unit.
+   *
+   * @return  The name for this organizational unit.
+   */
+  public String getName()
+  {
+    return name;
+  }
+
+
+
+  /**
+   * Retrieves the description for this organizational unit.
+   *
+   * @return  The description for this organizational unit.
+   */
+  public String getDescription()
+  {
+    return description;
+  }
+
+
+
+  /**
+   * Sets the description for this organizational unit.
+   *
+   * @param  description  The description for this organizational unit.
+   */
+  public void setDescription(final String description)
+  {
+    this.description = description;
+  }
+
+
+
+  /**
+   * Retrieves the locality for this organizational unit.
+   *
+   * @return  The locality for this organizational unit.
+   */
+  public String getLocality()
+  {
+    return locality;
+  }
+
+
+
+  /**
+   * Sets the locality for this organizational unit.
+   *
+   * @param  locality  The locality for this organizational unit.
+   */
+  public void setLocality(final String locality)
+  {
+    this.locality = locality;
+  }
+}
@@ -1772,6 +1772,132 @@ public class EntryValidatorTestCase
 
 
 
+  /**
+   * Tests that the validation plans cached for an entry's object classes and
+   * attributes yield the same results when they are reused, and that changes
+   * to the validator configuration made after the plans are cached still take
+   * effect.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testCachedValidationPlans()
+         throws Exception
+  {
+    final EntryValidator validator = new EntryValidator(testSchema);
+
+    final Entry e = new Entry(
+         "dn: a1=foo",
+         "objectClass: top",
+         "objectClass: o1",
+         "objectClass: o3",
+         "objectClass: o5",
+         "objectClass: undefined",
+         "a1: foo",
+         "a3: not allowed by the DIT content rule",
+         "a5: baz",
+         "a6: abc",
+         "a7: abc",
+         "a9: 11");
+
+    final LinkedList<String> firstReasons = new LinkedList<String>();
+    assertFalse(validator.entryIsValid(e, firstReasons));
+    assertFalse(firstReasons.isEmpty());
+
+    for (int i=0; i < 5; i++)
+    {
+      final LinkedList<String> reasons = new LinkedList<String>();
+      assertFalse(validator.entryIsValid(e, reasons));
+      assertEquals(reasons, firstReasons);
+    }
+
+    assertEquals(validator.getEntriesExamined(), 6L);
+    assertEquals(validator.getInvalidEntries(), 6L);
+    assertEquals(validator.getTotalUndefinedObjectClasses(), 12L);
+    assertEquals(validator.getAttributesViolatingSyntax().get("a5"),
+         Long.valueOf(6L));
+    assertEquals(validator.getAttributesViolatingSyntax().get("a6"),
+         Long.valueOf(6L));
+    assertEquals(validator.getAttributesViolatingSyntax().get("a7"),
+         Long.valueOf(6L));
+    assertEquals(validator.getAttributesViolatingSyntax().get("a9"),
+         Long.valueOf(6L));
+
+
+    // Disabling all of the checks should allow the entry to be considered
+    // valid even though the plans for it have already been cached.
+    validator.resetCounts();
+    validator.setCheckUndefinedObjectClasses(false);
+    validator.setCheckMissingSuperiorObjectClasses(false);
+    validator.setCheckProhibitedObjectClasses(false);
+    validator.setCheckProhibitedAttributes(false);
+    validator.setCheckAttributeSyntax(false);
+
+    final LinkedList<String> reasons = new LinkedList<String>();
+    assertTrue(validator.entryIsValid(e, reasons),
+         e.getDN() + " invalid reasons:\n" + listToString(reasons));
+    assertEquals(validator.getTotalUndefinedObjectClasses(), 0L);
+    assertTrue(validator.getInvalidEntrySummary(true).isEmpty());
+
+
+    // Re-enabling the checks should cause the same problems to be reported.
+    validator.setCheckUndefinedObjectClasses(true);
+    validator.setCheckMissingSuperiorObjectClasses(true);
+    validator.setCheckProhibitedObjectClasses(true);
+    validator.setCheckProhibitedAttributes(true);
+    validator.setCheckAttributeSyntax(true);
+
+    reasons.clear();
+    assertFalse(validator.entryIsValid(e, reasons));
+    assertEquals(reasons, firstReasons);
+  }
+
+
+
+  /**
+   * Tests the methods used to duplicate an entry validator and to merge the
+   * counts from one validator into another.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testDuplicateAndMergeCounts()
+         throws Exception
+  {
+    final EntryValidator validator = new EntryValidator(testSchema);
+    validator.setCheckAttributeSyntax(false);
+
+    final EntryValidator duplicate = validator.duplicate();
+    assertFalse(duplicate.checkAttributeSyntax());
+    assertTrue(duplicate.checkUndefinedObjectClasses());
+
+    final Entry e = new Entry(
+         "dn: a1=foo",
+         "objectClass: top",
+         "objectClass: o1",
+         "objectClass: undefined",
+         "a1: foo",
+         "a5: baz");
+
+    assertFalse(validator.entryIsValid(e, null));
+    assertFalse(duplicate.entryIsValid(e, null));
+    assertFalse(duplicate.entryIsValid(e, null));
+    assertEquals(validator.getEntriesExamined(), 1L);
+    assertEquals(duplicate.getEntriesExamined(), 2L);
+    assertTrue(duplicate.getAttributesViolatingSyntax().isEmpty());
+
+    validator.mergeCounts(duplicate);
+    assertEquals(validator.getEntriesExamined(), 3L);
+    assertEquals(validator.getInvalidEntries(), 3L);
+    assertEquals(validator.getUndefinedObjectClasses().get("undefined"),
+         Long.valueOf(3L));
+    assertEquals(duplicate.getEntriesExamined(), 2L);
+    assertEquals(duplicate.getUndefinedObjectClasses().get("undefined"),
+         Long.valueOf(2L));
+  }
+
+
+
   /**
    * Creates a single string from the provided list of strings.
    *
@@ -38,6 +38,7 @@ import java.util.zip.GZIPOutputStream;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import com.unboundid.ldap.sdk.DN;
 import com.unboundid.ldap.sdk.Entry;
 import com.unboundid.ldap.sdk.LDAPSDKTestCase;
 import com.unboundid.ldap.sdk.ResultCode;
@@ -2018,6 +2019,257 @@ public final class TransformLDIFTestCase
 
 
 
+  /**
+   * Tests the ability to sort entries hierarchically, using a small enough
+   * number of entries in memory that temporary files will be needed.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSortEntriesHierarchically()
+         throws Exception
+  {
+    // Create an LDIF file in which every entry comes before its parent.
+    final ArrayList<String> lines = new ArrayList<String>(1000);
+    for (int i=49; i >= 0; i--)
+    {
+      lines.add("dn: uid=user." + i + ",ou=People,dc=example,dc=com");
+      lines.add("objectClass: top");
+      lines.add("objectClass: person");
+      lines.add("uid: user." + i);
+      lines.add("cn: User " + i);
+      lines.add("sn: " + i);
+      lines.add("userPassword: password");
+      lines.add("");
+    }
+
+    lines.add("dn: ou=People,dc=example,dc=com");
+    lines.add("objectClass: top");
+    lines.add("objectClass: organizationalUnit");
+    lines.add("ou: People");
+    lines.add("");
+    lines.add("dn: dc=example,dc=com");
+    lines.add("objectClass: top");
+    lines.add("objectClass: domain");
+    lines.add("dc: example");
+
+    final String[] lineArray = new String[lines.size()];
+    lines.toArray(lineArray);
+    final File sourceLDIFFile = createTempFile(lineArray);
+
+    final File sortTempDir = createTempDir();
+    final File outputFile = runTool(
+         "--sourceLDIF", sourceLDIFFile.getAbsolutePath(),
+         "--excludeAttribute", "userPassword",
+         "--sortEntries",
+         "--sortMaxEntriesInMemory", "4",
+         "--sortTempDirectory", sortTempDir.getAbsolutePath(),
+         "--numThreads", "2");
+
+    final LDIFReader reader = new LDIFReader(outputFile);
+
+    Entry e = reader.readEntry();
+    assertNotNull(e);
+    assertDNsEqual(e.getDN(), "dc=example,dc=com");
+
+    e = reader.readEntry();
+    assertNotNull(e);
+    assertDNsEqual(e.getDN(), "ou=People,dc=example,dc=com");
+
+    int numUsers = 0;
+    while (true)
+    {
+      e = reader.readEntry();
+      if (e == null)
+      {
+        break;
+      }
+
+      assertEquals(e.getParsedDN().getParent(),
+           new DN("ou=People,dc=example,dc=com"));
+      assertFalse(e.hasAttribute("userPassword"));
+      numUsers++;
+    }
+
+    assertEquals(numUsers, 50);
+    reader.close();
+
+    // Make sure that all of the temporary files were removed.
+    assertEquals(sortTempDir.list().length, 0);
+  }
+
+
+
+  /**
+   * Tests the ability to sort entries using a specified sort order.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSortEntriesWithSortOrder()
+         throws Exception
+  {
+    final ArrayList<String> lines = new ArrayList<String>(500);
+    for (int i=0; i < 30; i++)
+    {
+      lines.add("dn: uid=user." + i + ",ou=People,dc=example,dc=com");
+      lines.add("objectClass: top");
+      lines.add("objectClass: person");
+      lines.add("uid: user." + i);
+      lines.add("cn: User " + i);
+      lines.add("sn: " + ((char) ('a' + (i % 26))));
+      lines.add("userPassword: password");
+      lines.add("");
+    }
+
+    final String[] lineArray = new String[lines.size()];
+    lines.toArray(lineArray);
+    final File sourceLDIFFile = createTempFile(lineArray);
+
+    final File outputFile = runTool(
+         "--sourceLDIF", sourceLDIFFile.getAbsolutePath(),
+         "--excludeAttribute", "userPassword",
+         "--sortEntries",
+         "--sortOrder", "-sn,uid",
+         "--sortMaxEntriesInMemory", "7");
+
+    final LDIFReader reader = new LDIFReader(outputFile);
+
+    String lastSN = null;
+    String lastUID = null;
+    int numEntries = 0;
+    while (true)
+    {
+      final Entry e = reader.readEntry();
+      if (e == null)
+      {
+        break;
+      }
+
+      final String sn = e.getAttributeValue("sn");
+      final String uid = e.getAttributeValue("uid");
+      if (lastSN != null)
+      {
+        final int c = sn.compareTo(lastSN);
+        assertTrue(c <= 0);
+        if (c == 0)
+        {
+          assertTrue(uid.compareTo(lastUID) > 0);
+        }
+      }
+
+      lastSN = sn;
+      lastUID = uid;
+      numEntries++;
+    }
+
+    assertEquals(numEntries, 30);
+    reader.close();
+  }
+
+
+
+  /**
+   * Tests the behavior when trying to sort entries with an invalid sort order.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSortEntriesInvalidSortOrder()
+         throws Exception
+  {
+    final File sourceLDIFFile = createTempFile(
+         "dn: dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: domain",
+         "dc: example");
+
+    final File outputFile = createTempFile();
+    assertTrue(outputFile.delete());
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final ResultCode resultCode = TransformLDIF.main(out, out,
+         "--sourceLDIF", sourceLDIFFile.getAbsolutePath(),
+         "--targetLDIF", outputFile.getAbsolutePath(),
+         "--excludeAttribute", "userPassword",
+         "--sortEntries",
+         "--sortOrder", "+,-");
+    assertEquals(resultCode, ResultCode.PARAM_ERROR);
+    assertFalse(outputFile.exists());
+  }
+
+
+
+  /**
+   * Tests the behavior when using a sequential counter with multiple threads
+   * and a number of entries that spans multiple processing batches, to ensure
+   * that the counter values are assigned in the order in which the entries
+   * were read.  It also ensures that the output can be compressed with
+   * multiple threads and that stage statistics can be displayed.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSequentialCounterWithMultipleThreads()
+         throws Exception
+  {
+    final int numEntries = 2500;
+    final ArrayList<String> lines = new ArrayList<String>(numEntries * 7);
+    for (int i=0; i < numEntries; i++)
+    {
+      lines.add("dn: uid=user." + i + ",ou=People,dc=example,dc=com");
+      lines.add("objectClass: top");
+      lines.add("objectClass: person");
+      lines.add("objectClass: organizationalPerson");
+      lines.add("objectClass: inetOrgPerson");
+      lines.add("uid: user." + i);
+      lines.add("givenName: User");
+      lines.add("sn: " + i);
+      lines.add("cn: User " + i);
+      lines.add("employeeNumber: 0");
+      lines.add("userPassword: password");
+      lines.add("");
+    }
+
+    final String[] lineArray = new String[lines.size()];
+    lines.toArray(lineArray);
+    final File sourceLDIFFile = createTempFile(lineArray);
+
+    final File outputFile = createTempFile();
+    assertTrue(outputFile.delete());
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final ResultCode resultCode = TransformLDIF.main(out, out,
+         "--sourceLDIF", sourceLDIFFile.getAbsolutePath(),
+         "--targetLDIF", outputFile.getAbsolutePath(),
+         "--sequentialAttribute", "employeeNumber",
+         "--excludeAttribute", "userPassword",
+         "--numThreads", "4",
+         "--compressTarget",
+         "--numCompressionThreads", "3",
+         "--displayStageStatistics");
+    assertEquals(resultCode, ResultCode.SUCCESS,
+         StaticUtils.toUTF8String(out.toByteArray()));
+
+    final LDIFReader reader =
+         new LDIFReader(new GZIPInputStream(new FileInputStream(outputFile)));
+    for (int i=0; i < numEntries; i++)
+    {
+      final Entry e = reader.readEntry();
+      assertNotNull(e);
+
+      assertDNsEqual(e.getDN(),
+           "uid=user." + i + ",ou=People,dc=example,dc=com");
+      assertTrue(e.hasAttributeValue("employeeNumber", String.valueOf(i)));
+      assertFalse(e.hasAttribute("userPassword"));
+    }
+
+    assertNull(reader.readEntry());
+    reader.close();
+  }
+
+
+
   /**
    * Invokes the tool with the provided set of arguments.  The --targetLDIF
    * argument should not be included, as it will be added by this method.  The
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.unboundidds.examples;
+
+
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.sdk.LDAPSDKTestCase;
+import com.unboundid.util.StaticUtils;
+
+
+
+/**
+ * This class provides a set of test cases for the {@code LogFileFollower}
+ * class.
+ */
+public final class LogFileFollowerTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Tests following a file as content is appended to it, including partial
+   * lines, and as it is truncated and rotated.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testFollow()
+         throws Exception
+  {
+    final File file = createTempFile("existing");
+
+    final LogFileFollower follower = new LogFileFollower(file, false, 10L);
+    assertTrue(follower.isOpen());
+    assertNull(follower.readLine(50L));
+
+    append(file, "first\nsec");
+    assertEquals(follower.readLine(50L), "first");
+    assertNull(follower.readLine(50L));
+
+    append(file, "ond\r\nthird\n");
+    assertEquals(follower.readLine(50L), "second");
+    assertEquals(follower.readLine(50L), "third");
+    assertNull(follower.readLine(50L));
+    assertEquals(follower.getNumRotations(), 0L);
+
+    // Truncate the file and write new content to it.
+    final FileOutputStream outputStream = new FileOutputStream(file, false);
+    outputStream.write(StaticUtils.getBytes("new\n"));
+    outputStream.close();
+    assertEquals(follower.readLine(50L), "new");
+    assertEquals(follower.getNumRotations(), 1L);
+
+    // Rotate the file so that the old content is moved aside and a new file
+    // is created in its place.
+    append(file, "before rotation\n");
+    final File rotatedFile = new File(file.getAbsolutePath() + ".1");
+    assertTrue(file.renameTo(rotatedFile));
+    assertEquals(follower.readLine(50L), "before rotation");
+    assertNull(follower.readLine(50L));
+
+    append(file, "after rotation\n");
+    assertEquals(follower.readLine(1000L), "after rotation");
+    assertEquals(follower.getNumRotations(), 2L);
+
+    follower.close();
+    assertFalse(follower.isOpen());
+    assertTrue(rotatedFile.delete());
+  }
+
+
+
+  /**
+   * Tests following a file that does not exist when the follower is created.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testFileCreatedLater()
+         throws Exception
+  {
+    final File file = createTempFile();
+    assertTrue(file.delete());
+
+    final LogFileFollower follower = new LogFileFollower(file, false, 10L);
+    assertFalse(follower.isOpen());
+    assertNull(follower.readLine(50L));
+
+    append(file, "created\n");
+    assertEquals(follower.readLine(1000L), "created");
+    assertTrue(follower.isOpen());
+
+    follower.close();
+  }
+
+
+
+  /**
+   * Tests reading the existing contents of a file.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testFromBeginning()
+         throws Exception
+  {
+    final File file = createTempFile("line 1", "line 2");
+
+    final LogFileFollower follower = new LogFileFollower(file, true, 10L);
+    assertEquals(follower.readLine(50L), "line 1");
+    assertEquals(follower.readLine(50L), "line 2");
+    assertNull(follower.readLine(50L));
+
+    follower.close();
+  }
+
+
+
+  /**
+   * Appends the provided text to the specified file.
+   *
+   * @param  file  The file to which the text should be appended.
+   * @param  text  The text to append.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private static void append(final File file, final String text)
+          throws Exception
+  {
+    final FileOutputStream outputStream = new FileOutputStream(file, true);
+    try
+    {
+      outputStream.write(StaticUtils.getBytes(text));
+    }
+    finally
+    {
+      outputStream.close();
+    }
+  }
+}
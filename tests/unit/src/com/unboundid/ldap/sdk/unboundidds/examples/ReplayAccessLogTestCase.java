@@ -0,0 +1,398 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.unboundidds.examples;
+
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedHashMap;
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.sdk.Entry;
+import com.unboundid.ldap.sdk.LDAPSDKTestCase;
+import com.unboundid.ldap.sdk.ResultCode;
+
+
+
+/**
+ * This class provides a set of test cases for the {@code ReplayAccessLog}
+ * class.
+ */
+public final class ReplayAccessLogTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * The DN of the test user entry.
+   */
+  private static final String USER_DN =
+       "uid=test.user,ou=People,dc=example,dc=com";
+
+
+
+  /**
+   * Provides test coverage for the methods used to obtain general information
+   * about the tool.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void provideGeneralTestCoverage()
+         throws Exception
+  {
+    final ReplayAccessLog tool = new ReplayAccessLog(null, null);
+
+    assertNotNull(tool.getToolName());
+    assertEquals(tool.getToolName(), "replay-access-log");
+
+    assertNotNull(tool.getToolDescription());
+
+    assertNotNull(tool.getToolVersion());
+
+    assertEquals(tool.getMinTrailingArguments(), 1);
+
+    assertEquals(tool.getMaxTrailingArguments(), -1);
+
+    assertNotNull(tool.getTrailingArgumentsPlaceholder());
+
+    assertTrue(tool.supportsInteractiveMode());
+
+    assertTrue(tool.defaultsToInteractiveMode());
+
+    assertTrue(tool.supportsPropertiesFile());
+
+    final LinkedHashMap<String[],String> examples = tool.getExampleUsages();
+    assertNotNull(examples);
+    assertFalse(examples.isEmpty());
+
+    assertEquals(ReplayAccessLog.main(new String[] { "--help" }, null, null),
+         ResultCode.SUCCESS);
+  }
+
+
+
+  /**
+   * Tests replaying a log as quickly as possible.  The log includes messages
+   * in both the default format and the format with the request and result
+   * combined on the same line, as well as operations that cannot be replayed.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testReplayAsFastAsPossible()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final File logFile = createLogFile(System.currentTimeMillis(), 0L);
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final ResultCode resultCode = ReplayAccessLog.main(
+         new String[]
+         {
+           "--hostname", "localhost",
+           "--port", String.valueOf(ds.getListenPort()),
+           "--bindDN", "cn=Directory Manager",
+           "--bindPassword", "password",
+           "--numThreads", "2",
+           "--asFastAsPossible",
+           "--replayBindPassword", "password",
+           "--modifyValuePattern", "replayed-[1-1]",
+           logFile.getAbsolutePath()
+         },
+         out, out);
+    assertEquals(resultCode, ResultCode.SUCCESS, out.toString("UTF-8"));
+
+    final String output = out.toString("UTF-8");
+    assertTrue(output.contains("replayed 4 operations"), output);
+    assertTrue(output.contains("2 operations could not be replayed"), output);
+    assertTrue(output.contains("Search"), output);
+    assertTrue(output.contains("Bind"), output);
+    assertTrue(output.contains("Modify"), output);
+
+    final Entry e = ds.getEntry(USER_DN);
+    assertNotNull(e);
+    assertEquals(e.getAttributeValue("description"), "replayed-1");
+  }
+
+
+
+  /**
+   * Tests replaying only a subset of the operation types, without replaying
+   * binds because no replay bind password is provided.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testReplaySelectedOperationTypes()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final File logFile = createLogFile(System.currentTimeMillis(), 0L);
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final ResultCode resultCode = ReplayAccessLog.main(
+         new String[]
+         {
+           "--hostname", "localhost",
+           "--port", String.valueOf(ds.getListenPort()),
+           "--bindDN", "cn=Directory Manager",
+           "--bindPassword", "password",
+           "--asFastAsPossible",
+           "--operationType", "search",
+           "--operationType", "bind",
+           logFile.getAbsolutePath()
+         },
+         out, out);
+    assertEquals(resultCode, ResultCode.SUCCESS, out.toString("UTF-8"));
+
+    final String output = out.toString("UTF-8");
+    assertTrue(output.contains("Binds will not be replayed"), output);
+    assertTrue(output.contains("replayed 2 operations"), output);
+    assertFalse(output.contains("Modify"), output);
+
+    final Entry e = ds.getEntry(USER_DN);
+    assertNotNull(e);
+    assertFalse(e.hasAttribute("description"));
+  }
+
+
+
+  /**
+   * Tests replaying a log at a scaled speed, and ensures that the replay is
+   * paced according to the timestamps in the log.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testReplayAtScaledSpeed()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+
+    // The messages in the log span about three seconds, so replaying them at
+    // three times their original speed should take about one second.
+    final File logFile = createLogFile(System.currentTimeMillis(), 300L);
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final long startTime = System.currentTimeMillis();
+    final ResultCode resultCode = ReplayAccessLog.main(
+         new String[]
+         {
+           "--hostname", "localhost",
+           "--port", String.valueOf(ds.getListenPort()),
+           "--bindDN", "cn=Directory Manager",
+           "--bindPassword", "password",
+           "--speedPercent", "300",
+           logFile.getAbsolutePath()
+         },
+         out, out);
+    final long elapsedTime = System.currentTimeMillis() - startTime;
+    assertEquals(resultCode, ResultCode.SUCCESS, out.toString("UTF-8"));
+
+    assertTrue(elapsedTime >= 500L, String.valueOf(elapsedTime));
+  }
+
+
+
+  /**
+   * Tests replaying a log in which the operations from several client
+   * connections share a single replay connection, and in which some requests
+   * never have a corresponding result.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testReplayInterleavedConnectionsWithoutResults()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+
+    final SimpleDateFormat dateFormat =
+         new SimpleDateFormat("'['dd/MMM/yyyy:HH:mm:ss.SSS Z']'");
+    final long startTime = System.currentTimeMillis();
+    final String[] lines = new String[20];
+    for (int i=0; i < lines.length; i++)
+    {
+      lines[i] = dateFormat.format(new Date(startTime + (10L * i))) +
+           " SEARCH REQUEST conn=" + (i % 5) + " op=" + i + " msgID=" +
+           (i+1) + " base=\"dc=example,dc=com\" scope=2 " +
+           "filter=\"(objectClass=*)\" attrs=\"ALL\"";
+    }
+    final File logFile = createTempFile(lines);
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final ResultCode resultCode = ReplayAccessLog.main(
+         new String[]
+         {
+           "--hostname", "localhost",
+           "--port", String.valueOf(ds.getListenPort()),
+           "--bindDN", "cn=Directory Manager",
+           "--bindPassword", "password",
+           "--numThreads", "1",
+           logFile.getAbsolutePath()
+         },
+         out, out);
+    assertEquals(resultCode, ResultCode.SUCCESS, out.toString("UTF-8"));
+
+    final String output = out.toString("UTF-8");
+    assertTrue(output.contains("replayed 20 operations"), output);
+    assertFalse(output.contains("could not be replayed"), output);
+  }
+
+
+
+  /**
+   * Tests the behavior when the speed percent and as-fast-as-possible
+   * arguments are both provided.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testConflictingSpeedArguments()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final File logFile = createLogFile(System.currentTimeMillis(), 0L);
+
+    final ResultCode resultCode = ReplayAccessLog.main(
+         new String[]
+         {
+           "--hostname", "localhost",
+           "--port", String.valueOf(ds.getListenPort()),
+           "--speedPercent", "200",
+           "--asFastAsPossible",
+           logFile.getAbsolutePath()
+         },
+         null, null);
+    assertEquals(resultCode, ResultCode.PARAM_ERROR);
+  }
+
+
+
+  /**
+   * Tests the behavior when the log file does not exist.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testMissingLogFile()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final File logFile = createTempFile();
+    assertTrue(logFile.delete());
+
+    final ResultCode resultCode = ReplayAccessLog.main(
+         new String[]
+         {
+           "--hostname", "localhost",
+           "--port", String.valueOf(ds.getListenPort()),
+           logFile.getAbsolutePath()
+         },
+         null, null);
+    assertEquals(resultCode, ResultCode.LOCAL_ERROR);
+  }
+
+
+
+  /**
+   * Tests the behavior when the modify value pattern cannot be parsed.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testInvalidModifyValuePattern()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final File logFile = createLogFile(System.currentTimeMillis(), 0L);
+
+    final ResultCode resultCode = ReplayAccessLog.main(
+         new String[]
+         {
+           "--hostname", "localhost",
+           "--port", String.valueOf(ds.getListenPort()),
+           "--modifyValuePattern", "[invalid",
+           logFile.getAbsolutePath()
+         },
+         null, null);
+    assertEquals(resultCode, ResultCode.PARAM_ERROR);
+  }
+
+
+
+  /**
+   * Creates an access log file with a set of messages to replay.
+   *
+   * @param  startTime     The timestamp to use for the first message.
+   * @param  spacingMillis  The number of milliseconds between the timestamps
+   *                        of consecutive messages.
+   *
+   * @return  The access log file that was created.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private static File createLogFile(final long startTime,
+                                    final long spacingMillis)
+          throws Exception
+  {
+    final SimpleDateFormat dateFormat =
+         new SimpleDateFormat("'['dd/MMM/yyyy:HH:mm:ss.SSS Z']'");
+    final String[] messages =
+    {
+      "CONNECT conn=1 from=\"1.2.3.4\" to=\"5.6.7.8\" protocol=\"LDAP\"",
+      "SEARCH REQUEST conn=1 op=1 msgID=2 base=\"dc=example,dc=com\" " +
+           "scope=2 filter=\"(objectClass=*)\" attrs=\"ALL\"",
+      "SEARCH RESULT conn=1 op=1 msgID=2 resultCode=0 etime=0.500 " +
+           "entriesReturned=3",
+      "BIND REQUEST conn=1 op=2 msgID=3 version=3 dn=\"" + USER_DN + "\" " +
+           "authType=\"SIMPLE\"",
+      "BIND RESULT conn=1 op=2 msgID=3 resultCode=0 etime=0.200",
+      "MODIFY REQUEST conn=1 op=3 msgID=4 dn=\"" + USER_DN + "\" " +
+           "attrs=\"description\"",
+      "MODIFY RESULT conn=1 op=3 msgID=4 resultCode=0 etime=1.000",
+      "BIND REQUEST conn=1 op=4 msgID=5 version=3 dn=\"\" " +
+           "authType=\"SASL\" saslMechanism=\"EXTERNAL\"",
+      "BIND RESULT conn=1 op=4 msgID=5 resultCode=49 etime=0.100",
+      "DISCONNECT conn=1 reason=\"Client Unbind\"",
+      "This line cannot be parsed",
+      "SEARCH RESULT conn=2 op=1 msgID=2 base=\"" + USER_DN + "\" " +
+           "scope=0 filter=\"(objectClass=person)\" attrs=\"uid,cn\" " +
+           "resultCode=0 etime=0.300 entriesReturned=1",
+      "SEARCH RESULT conn=2 op=2 msgID=3 base=\"dc=example,dc=com\" " +
+           "scope=2 filter=\"invalid\" attrs=\"ALL\" resultCode=87 " +
+           "etime=0.010 entriesReturned=0"
+    };
+
+    final String[] lines = new String[messages.length];
+    for (int i=0; i < messages.length; i++)
+    {
+      final Date d = new Date(startTime + (i * spacingMillis));
+      lines[i] = dateFormat.format(d) + ' ' + messages[i];
+    }
+
+    return createTempFile(lines);
+  }
+}
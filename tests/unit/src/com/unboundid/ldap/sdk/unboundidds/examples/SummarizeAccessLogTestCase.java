@@ -22,6 +22,7 @@ package com.unboundid.ldap.sdk.unboundidds.examples;
 
 
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.PrintStream;
@@ -520,6 +521,137 @@ public class SummarizeAccessLogTestCase
 
 
 
+  /**
+   * Tests the summarize-access-log tool with multiple files examined in
+   * parallel, and ensures that the summary is the same as when the files are
+   * examined sequentially.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testMultipleFilesInParallel()
+         throws Exception
+  {
+    final ByteArrayOutputStream sequentialOut = new ByteArrayOutputStream();
+    ResultCode rc = SummarizeAccessLog.main(
+         new String[]
+         {
+           dataFile1.getAbsolutePath(),
+           dataFile2.getAbsolutePath(),
+           longFilterFile.getAbsolutePath()
+         },
+         sequentialOut, null);
+    assertEquals(rc, ResultCode.SUCCESS);
+
+    final ByteArrayOutputStream parallelOut = new ByteArrayOutputStream();
+    rc = SummarizeAccessLog.main(
+         new String[]
+         {
+           "--numThreads", "3",
+           dataFile1.getAbsolutePath(),
+           dataFile2.getAbsolutePath(),
+           longFilterFile.getAbsolutePath()
+         },
+         parallelOut, null);
+    assertEquals(rc, ResultCode.SUCCESS);
+
+    // The files may be examined in a different order, so ignore the lines
+    // that indicate which file is being examined.
+    final String sequentialSummary =
+         removeExaminingLines(sequentialOut.toString("UTF-8"));
+    final String parallelSummary =
+         removeExaminingLines(parallelOut.toString("UTF-8"));
+    assertTrue(sequentialSummary.contains("Total operations examined"));
+    assertEquals(parallelSummary, sequentialSummary);
+  }
+
+
+
+  /**
+   * Tests the summarize-access-log tool with multiple files examined in
+   * parallel when the request and result messages for an operation were
+   * written to different files, and the result message also includes the
+   * request details.  The search should only be counted once.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testRequestAndResultInDifferentFiles()
+         throws Exception
+  {
+    final String searchDetails = "base=\"dc=example,dc=com\" scope=2 " +
+         "filter=\"(uid=test.user)\" attrs=\"ALL\"";
+
+    final File requestFile = createTempFile(
+         ts() + " CONNECT conn=1 from=\"1.2.3.4\" to=\"5.6.7.8\" " +
+              "protocol=\"LDAP\"",
+         ts() + " SEARCH REQUEST conn=1 op=1 msgID=2 " + searchDetails);
+
+    // The first message in the second file is a search that is not related
+    // to the one that was requested in the first file.
+    final File resultFile = createTempFile(
+         ts() + " SEARCH REQUEST conn=2 op=1 msgID=2 " + searchDetails,
+         ts() + " SEARCH RESULT conn=2 op=1 msgID=2 " + searchDetails +
+              " resultCode=0 etime=0.500 entriesReturned=1",
+         ts() + " SEARCH RESULT conn=1 op=1 msgID=2 " + searchDetails +
+              " resultCode=0 etime=2500.000 entriesReturned=1");
+
+    final ByteArrayOutputStream sequentialOut = new ByteArrayOutputStream();
+    ResultCode rc = SummarizeAccessLog.main(
+         new String[]
+         {
+           requestFile.getAbsolutePath(),
+           resultFile.getAbsolutePath()
+         },
+         sequentialOut, null);
+    assertEquals(rc, ResultCode.SUCCESS);
+
+    final ByteArrayOutputStream parallelOut = new ByteArrayOutputStream();
+    rc = SummarizeAccessLog.main(
+         new String[]
+         {
+           "--numThreads", "2",
+           requestFile.getAbsolutePath(),
+           resultFile.getAbsolutePath()
+         },
+         parallelOut, null);
+    assertEquals(rc, ResultCode.SUCCESS);
+
+    final String sequentialSummary =
+         removeExaminingLines(sequentialOut.toString("UTF-8"));
+    final String parallelSummary =
+         removeExaminingLines(parallelOut.toString("UTF-8"));
+    assertTrue(sequentialSummary.contains("SUB:  2 (100"),
+         sequentialSummary);
+    assertEquals(parallelSummary, sequentialSummary);
+  }
+
+
+
+  /**
+   * Tests the summarize-access-log tool with multiple files examined in
+   * parallel when one of them does not exist.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testMultipleFilesInParallelWithMissingFile()
+         throws Exception
+  {
+    String[] args =
+    {
+      "--numThreads", "2",
+      dataFile1.getAbsolutePath(),
+      dataFile1.getAbsolutePath() + ".missing",
+      dataFile2.getAbsolutePath()
+    };
+
+    ResultCode rc = SummarizeAccessLog.main(args, null, null);
+    assertEquals(rc, ResultCode.LOCAL_ERROR);
+  }
+
+
+
   /**
    * Provides test coverage for the summarize-access-log tool with a compressed
    * file.
@@ -580,6 +712,32 @@ public class SummarizeAccessLogTestCase
 
 
 
+  /**
+   * Removes the lines that indicate which access log file is being examined
+   * from the provided tool output.
+   *
+   * @param  output  The tool output to process.
+   *
+   * @return  The tool output without the lines that indicate which access log
+   *          file is being examined.
+   */
+  private static String removeExaminingLines(final String output)
+  {
+    final StringBuilder buffer = new StringBuilder();
+    for (final String line : output.split("\\r?\\n"))
+    {
+      if (! line.startsWith("Examining access log "))
+      {
+        buffer.append(line);
+        buffer.append('\n');
+      }
+    }
+
+    return buffer.toString();
+  }
+
+
+
   /**
    * Provides test coverage for the {@code getExampleUsages} method.
    *
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.unboundidds.examples;
+
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.LinkedHashMap;
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.sdk.LDAPSDKTestCase;
+import com.unboundid.ldap.sdk.ResultCode;
+
+
+
+/**
+ * This class provides a set of test cases for the {@code TailAccessLog}
+ * class.
+ */
+public final class TailAccessLogTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Provides test coverage for the methods used to obtain general information
+   * about the tool.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void provideGeneralTestCoverage()
+         throws Exception
+  {
+    final TailAccessLog tool = new TailAccessLog(null, null);
+
+    assertNotNull(tool.getToolName());
+    assertEquals(tool.getToolName(), "tail-access-log");
+
+    assertNotNull(tool.getToolDescription());
+
+    assertNotNull(tool.getToolVersion());
+
+    assertEquals(tool.getMinTrailingArguments(), 1);
+
+    assertEquals(tool.getMaxTrailingArguments(), 1);
+
+    assertNotNull(tool.getTrailingArgumentsPlaceholder());
+
+    assertTrue(tool.supportsPropertiesFile());
+
+    final LinkedHashMap<String[],String> examples = tool.getExampleUsages();
+    assertNotNull(examples);
+    assertFalse(examples.isEmpty());
+
+    assertEquals(TailAccessLog.main(new String[] { "--help" }, null, null),
+         ResultCode.SUCCESS);
+  }
+
+
+
+  /**
+   * Tests processing the existing contents of a log file.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testFromBeginning()
+         throws Exception
+  {
+    final String t = "[01/Jan/2017:00:00:00.000 -0600] ";
+    final File logFile = createTempFile(
+         t + "CONNECT conn=1 from=\"1.2.3.4:1234\" to=\"5.6.7.8:389\" " +
+              "protocol=\"LDAP\"",
+         t + "CONNECT conn=2 from=\"[::1]:5678\" to=\"[::1]:389\" " +
+              "protocol=\"LDAP\"",
+         t + "SEARCH REQUEST conn=1 op=1 msgID=2 base=\"dc=example,dc=com\" " +
+              "scope=2 filter=\"(objectClass=*)\" attrs=\"ALL\"",
+         t + "SEARCH ENTRY conn=1 op=1 msgID=2 dn=\"dc=example,dc=com\"",
+         t + "SEARCH RESULT conn=1 op=1 msgID=2 resultCode=0 etime=0.500 " +
+              "entriesReturned=1",
+         t + "SEARCH RESULT conn=1 op=2 msgID=3 base=\"dc=example,dc=com\" " +
+              "scope=0 filter=\"(objectClass=*)\" attrs=\"ALL\" " +
+              "resultCode=0 etime=1.500 entriesReturned=1",
+         t + "BIND RESULT conn=2 op=1 msgID=2 resultCode=49 etime=0.100",
+         t + "DISCONNECT conn=2 reason=\"Client Unbind\"",
+         "This line cannot be parsed");
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final ResultCode resultCode = TailAccessLog.main(
+         new String[]
+         {
+           "--fromBeginning",
+           "--intervalDuration", "1",
+           "--numIntervals", "1",
+           "--numTopClients", "2",
+           "--showResultCodes",
+           logFile.getAbsolutePath()
+         },
+         out, out);
+    assertEquals(resultCode, ResultCode.SUCCESS, out.toString("UTF-8"));
+
+    final String output = out.toString("UTF-8");
+    assertTrue(output.contains("Search/s"), output);
+    assertTrue(output.contains("Result codes:  0 (success): 2, " +
+         "49 (invalid credentials): 1"), output);
+    assertTrue(output.contains("Top clients:  1.2.3.4: 2, ::1: 1"), output);
+    assertTrue(output.contains("1 lines could not be parsed"), output);
+  }
+
+
+
+  /**
+   * Tests the behavior when following a file that is written after the tool
+   * starts, so that the existing content is not processed.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testExistingContentSkipped()
+         throws Exception
+  {
+    final File logFile = createTempFile(
+         "[01/Jan/2017:00:00:00.000 -0600] BIND RESULT conn=1 op=1 msgID=2 " +
+              "resultCode=49 etime=0.100");
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final ResultCode resultCode = TailAccessLog.main(
+         new String[]
+         {
+           "--intervalDuration", "1",
+           "--numIntervals", "1",
+           "--showResultCodes",
+           logFile.getAbsolutePath()
+         },
+         out, out);
+    assertEquals(resultCode, ResultCode.SUCCESS, out.toString("UTF-8"));
+
+    final String output = out.toString("UTF-8");
+    assertFalse(output.contains("Result codes"), output);
+  }
+
+
+
+  /**
+   * Tests the behavior when following a file that does not exist.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testMissingFile()
+         throws Exception
+  {
+    final File logFile = createTempFile();
+    assertTrue(logFile.delete());
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final ResultCode resultCode = TailAccessLog.main(
+         new String[]
+         {
+           "--intervalDuration", "1",
+           "--numIntervals", "1",
+           logFile.getAbsolutePath()
+         },
+         out, out);
+    assertEquals(resultCode, ResultCode.SUCCESS, out.toString("UTF-8"));
+
+    final String output = out.toString("UTF-8");
+    assertTrue(output.contains("Waiting for it to be created"), output);
+  }
+
+
+
+  /**
+   * Tests the method used to obtain a client address from a source address.
+   */
+  @Test()
+  public void testGetClientAddress()
+  {
+    assertEquals(TailAccessLog.getClientAddress("1.2.3.4:1234"), "1.2.3.4");
+    assertEquals(TailAccessLog.getClientAddress("1.2.3.4"), "1.2.3.4");
+    assertEquals(TailAccessLog.getClientAddress("[::1]:1234"), "::1");
+    assertEquals(TailAccessLog.getClientAddress("::1"), "::1");
+    assertEquals(TailAccessLog.getClientAddress("fe80::1:2"), "fe80::1:2");
+    assertEquals(TailAccessLog.getClientAddress("host:port"), "host:port");
+  }
+}
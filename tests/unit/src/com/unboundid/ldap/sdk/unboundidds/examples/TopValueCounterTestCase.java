@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.unboundidds.examples;
+
+
+
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.sdk.LDAPSDKTestCase;
+import com.unboundid.util.ObjectPair;
+
+
+
+/**
+ * This class provides a set of test cases for the {@code TopValueCounter}
+ * class.
+ */
+public final class TopValueCounterTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Tests the behavior of the counter when there are more distinct values than
+   * it can track.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testCounter()
+         throws Exception
+  {
+    final TopValueCounter counter = new TopValueCounter(2);
+    assertTrue(counter.getTopValues(10).isEmpty());
+
+    counter.increment("a");
+    counter.increment("a");
+    counter.increment("a");
+    counter.increment("b");
+    counter.increment("c");
+    assertEquals(counter.getTotalCount(), 5L);
+
+    // The value "c" replaces "b" and inherits its count.
+    List<ObjectPair<String,Long>> values = counter.getTopValues(10);
+    assertEquals(values.size(), 2);
+    assertEquals(values.get(0).getFirst(), "a");
+    assertEquals(values.get(0).getSecond(), Long.valueOf(3L));
+    assertEquals(values.get(1).getFirst(), "c");
+    assertEquals(values.get(1).getSecond(), Long.valueOf(2L));
+
+    values = counter.getTopValues(1);
+    assertEquals(values.size(), 1);
+    assertEquals(values.get(0).getFirst(), "a");
+
+    counter.reset();
+    assertEquals(counter.getTotalCount(), 0L);
+    assertTrue(counter.getTopValues(10).isEmpty());
+  }
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.unboundidds.jsonfilter;
+
+
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.sdk.LDAPSDKTestCase;
+import com.unboundid.util.StaticUtils;
+import com.unboundid.util.json.JSONException;
+import com.unboundid.util.json.JSONObject;
+
+
+
+/**
+ * This class provides a set of test cases for compiled JSON object filters.
+ */
+public final class CompiledJSONObjectFilterTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * The JSON objects against which each of the filters will be evaluated.
+   */
+  private static final String[] OBJECTS =
+  {
+    "{ }",
+    "{ \"a\" : \"Value\" }",
+    "{ \"a\" : \"value\", \"b\" : 5 }",
+    "{ \"a\" : [ \"other\", \"VALUE\", 3 ], \"b\" : [ 1, 7 ] }",
+    "{ \"a\" : { \"b\" : \"Value\" }, \"b\" : \"x\" }",
+    "{ \"a\" : [ { \"b\" : \"abcdef\" }, [ { \"b\" : \"zzz\" } ], 1 ] }",
+    "{ \"a\" : null, \"b\" : true, \"c\" : [ ], \"d\" : { \"e\" : [ 1 ] } }",
+    "{ \"c\" : [ { \"type\" : \"home\", \"email\" : \"j@example.com\" }, " +
+         "{ \"type\" : \"WORK\" } ], \"a\" : \"Stra\u00DFe \u03A3\" }",
+    "{ \"skip\" : { \"deep\" : [ \"}\", \"]\", { \"x\" : \"\\\"\" } ] }, " +
+         "\"a\" : \"\u00C9t\u00E9\" }"
+  };
+
+
+
+  /**
+   * Retrieves a set of filters to test.
+   *
+   * @return  A set of filters to test.
+   */
+  @DataProvider(name="filters")
+  public Object[][] getFilters()
+  {
+    return new Object[][]
+    {
+      new Object[] { "{ \"filterType\" : \"equals\", \"field\" : \"a\", " +
+           "\"value\" : \"value\" }" },
+      new Object[] { "{ \"filterType\" : \"equals\", \"field\" : \"a\", " +
+           "\"value\" : \"value\", \"caseSensitive\" : true }" },
+      new Object[] { "{ \"filterType\" : \"equals\", \"field\" : \"b\", " +
+           "\"value\" : 7 }" },
+      new Object[] { "{ \"filterType\" : \"equals\", " +
+           "\"field\" : [ \"a\", \"b\" ], \"value\" : \"VALUE\" }" },
+      new Object[] { "{ \"filterType\" : \"equals\", " +
+           "\"field\" : [ \"a\", \"b\" ], \"value\" : \"ZZZ\" }" },
+      new Object[] { "{ \"filterType\" : \"equals\", \"field\" : \"a\", " +
+           "\"value\" : \"\u00E9T\u00C9\" }" },
+      new Object[] { "{ \"filterType\" : \"equalsAny\", \"field\" : \"a\", " +
+           "\"values\" : [ \"other\", \"nothing\" ] }" },
+      new Object[] { "{ \"filterType\" : \"equalsAny\", \"field\" : \"a\", " +
+           "\"values\" : [ \"VALUE\", \"x\" ], \"caseSensitive\" : true }" },
+      new Object[] { "{ \"filterType\" : \"equalsAny\", \"field\" : \"a\", " +
+           "\"values\" : [ \"STRASSE\", \"stra\u00DFe \u03C2\" ] }" },
+      new Object[] { "{ \"filterType\" : \"equalsAny\", \"field\" : \"b\", " +
+           "\"values\" : [ 5, \"x\", true ] }" },
+      new Object[] { "{ \"filterType\" : \"containsField\", " +
+           "\"field\" : \"a\" }" },
+      new Object[] { "{ \"filterType\" : \"containsField\", " +
+           "\"field\" : \"c\", \"expectedType\" : \"empty-array\" }" },
+      new Object[] { "{ \"filterType\" : \"containsField\", " +
+           "\"field\" : [ \"d\", \"e\" ] }" },
+      new Object[] { "{ \"filterType\" : \"substring\", " +
+           "\"field\" : [ \"a\", \"b\" ], \"startsWith\" : \"ab\", " +
+           "\"contains\" : [ \"c\", \"d\" ], \"endsWith\" : \"ef\" }" },
+      new Object[] { "{ \"filterType\" : \"substring\", " +
+           "\"field\" : \"a\", \"startsWith\" : \"VAL\" }" },
+      new Object[] { "{ \"filterType\" : \"substring\", " +
+           "\"field\" : \"a\", \"contains\" : \"lu\", " +
+           "\"endsWith\" : \"lue\", \"caseSensitive\" : true }" },
+      new Object[] { "{ \"filterType\" : \"regularExpression\", " +
+           "\"field\" : \"a\", \"regularExpression\" : \"^[vV]al.*$\" }" },
+      new Object[] { "{ \"filterType\" : \"regularExpression\", " +
+           "\"field\" : \"a\", \"regularExpression\" : \"^[a-zA-Z]+$\", " +
+           "\"matchAllElements\" : true }" },
+      new Object[] { "{ \"filterType\" : \"greaterThan\", " +
+           "\"field\" : \"b\", \"value\" : 5, \"allowEquals\" : true }" },
+      new Object[] { "{ \"filterType\" : \"lessThan\", " +
+           "\"field\" : \"b\", \"value\" : 6, \"matchAllElements\" : true }" },
+      new Object[] { "{ \"filterType\" : \"objectMatches\", " +
+           "\"field\" : \"c\", \"filter\" : { \"filterType\" : \"and\", " +
+           "\"andFilters\" : [ { \"filterType\" : \"equals\", " +
+           "\"field\" : \"type\", \"value\" : \"home\" }, " +
+           "{ \"filterType\" : \"containsField\", " +
+           "\"field\" : \"email\" } ] } }" },
+      new Object[] { "{ \"filterType\" : \"and\", \"andFilters\" : [ ] }" },
+      new Object[] { "{ \"filterType\" : \"or\", \"orFilters\" : [ ] }" },
+      new Object[] { "{ \"filterType\" : \"and\", \"andFilters\" : [ " +
+           "{ \"filterType\" : \"containsField\", \"field\" : \"a\" }, " +
+           "{ \"filterType\" : \"negate\", \"negateFilter\" : " +
+           "{ \"filterType\" : \"equals\", \"field\" : \"b\", " +
+           "\"value\" : \"x\" } } ] }" },
+      new Object[] { "{ \"filterType\" : \"or\", \"orFilters\" : [ " +
+           "{ \"filterType\" : \"equals\", \"field\" : \"a\", " +
+           "\"value\" : \"value\" }, " +
+           "{ \"filterType\" : \"equals\", \"field\" : [ \"a\", \"b\" ], " +
+           "\"value\" : \"value\" }, " +
+           "{ \"filterType\" : \"containsField\", \"field\" : \"b\" } ], " +
+           "\"exclusive\" : true }" }
+    };
+  }
+
+
+
+  /**
+   * Tests that a compiled filter gives the same results as the filter from
+   * which it was compiled, both for decoded and for encoded objects.
+   *
+   * @param  filterString  The string representation of the filter to test.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(dataProvider="filters")
+  public void testCompiledFilterMatchesUncompiled(final String filterString)
+         throws Exception
+  {
+    final JSONObjectFilter filter =
+         JSONObjectFilter.decode(new JSONObject(filterString));
+    final CompiledJSONObjectFilter compiled = filter.compile();
+    assertNotNull(compiled.getFilter());
+    assertEquals(compiled.getFilter(), filter);
+    assertEquals(compiled.toString(), filter.toString());
+
+    for (final String objectString : OBJECTS)
+    {
+      final JSONObject o = new JSONObject(objectString);
+      final boolean expected = filter.matchesJSONObject(o);
+      assertEquals(compiled.matchesJSONObject(o), expected,
+           "Filter " + filterString + " object " + objectString);
+      assertEquals(
+           compiled.matchesJSONObject(StaticUtils.getBytes(objectString)),
+           expected, "Filter " + filterString + " object " + objectString);
+    }
+  }
+
+
+
+  /**
+   * Tests that changes to a filter after it has been compiled do not affect
+   * the compiled filter.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testCompiledFilterUnaffectedByChanges()
+         throws Exception
+  {
+    final EqualsJSONObjectFilter filter =
+         new EqualsJSONObjectFilter("a", "value");
+    final CompiledJSONObjectFilter compiled = filter.compile();
+
+    filter.setCaseSensitive(true);
+
+    final JSONObject o = new JSONObject("{ \"a\" : \"VALUE\" }");
+    assertFalse(filter.matchesJSONObject(o));
+    assertTrue(compiled.matchesJSONObject(o));
+  }
+
+
+
+  /**
+   * Tests the behavior when trying to evaluate a compiled filter against data
+   * that is not a single valid JSON object.
+   *
+   * @param  data  The data to use in the test.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(dataProvider="invalidData",
+        expectedExceptions={ JSONException.class })
+  public void testMatchInvalidData(final String data)
+         throws Exception
+  {
+    final CompiledJSONObjectFilter compiled =
+         new ContainsFieldJSONObjectFilter("a").compile();
+    compiled.matchesJSONObject(StaticUtils.getBytes(data));
+  }
+
+
+
+  /**
+   * Tests the behavior when trying to evaluate a compiled filter against a
+   * JSON object with multiple fields of the same name that are targeted by the
+   * filter.  The same data should be rejected when decoding the full object.
+   *
+   * @param  filterString  The string representation of the filter to use.
+   * @param  data          The data to use in the test.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(dataProvider="duplicateFieldData")
+  public void testMatchDuplicateTargetedField(final String filterString,
+                                              final String data)
+         throws Exception
+  {
+    try
+    {
+      new JSONObject(data);
+      fail("Expected an exception when decoding " + data);
+    }
+    catch (final JSONException je)
+    {
+      // This was expected.
+    }
+
+    final CompiledJSONObjectFilter compiled =
+         JSONObjectFilter.decode(new JSONObject(filterString)).compile();
+    try
+    {
+      compiled.matchesJSONObject(StaticUtils.getBytes(data));
+      fail("Expected an exception when evaluating " + filterString +
+           " against " + data);
+    }
+    catch (final JSONException je)
+    {
+      // This was expected.
+    }
+  }
+
+
+
+  /**
+   * Retrieves a set of filters and JSON objects with duplicate fields targeted
+   * by those filters.
+   *
+   * @return  A set of filters and JSON objects with duplicate fields targeted
+   *          by those filters.
+   */
+  @DataProvider(name="duplicateFieldData")
+  public Object[][] getDuplicateFieldData()
+  {
+    return new Object[][]
+    {
+      new Object[]
+      {
+        "{ \"filterType\" : \"equals\", \"field\" : \"a\", " +
+             "\"value\" : \"b\" }",
+        "{\"a\":\"b\",\"a\":\"c\"}"
+      },
+      new Object[]
+      {
+        "{ \"filterType\" : \"equals\", \"field\" : [ \"a\", \"b\" ], " +
+             "\"value\" : 1 }",
+        "{ \"a\" : { \"b\" : 1 }, \"x\" : 2, \"a\" : { \"b\" : 2 } }"
+      },
+      new Object[]
+      {
+        "{ \"filterType\" : \"equals\", \"field\" : [ \"a\", \"b\" ], " +
+             "\"value\" : 1 }",
+        "{ \"a\" : [ { \"b\" : 1, \"b\" : 2 } ] }"
+      }
+    };
+  }
+
+
+
+  /**
+   * Retrieves a set of strings that are not single valid JSON objects.
+   *
+   * @return  A set of strings that are not single valid JSON objects.
+   */
+  @DataProvider(name="invalidData")
+  public Object[][] getInvalidData()
+  {
+    return new Object[][]
+    {
+      new Object[] { "" },
+      new Object[] { "[ ]" },
+      new Object[] { "{ \"a\" : 1" },
+      new Object[] { "{ \"b\" : [ 1, { ] }" },
+      new Object[] { "{ \"a\" : 1 } { }" }
+    };
+  }
+
+
+
+  /**
+   * Tests the foldCase method.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testFoldCase()
+         throws Exception
+  {
+    final String[][] equalPairs =
+    {
+      new String[] { "", "" },
+      new String[] { "Test", "tEST" },
+      new String[] { "\u00C9t\u00E9", "\u00E9T\u00C9" },
+      new String[] { "\u03A3", "\u03C2" }
+    };
+
+    for (final String[] pair : equalPairs)
+    {
+      assertTrue(pair[0].equalsIgnoreCase(pair[1]));
+      assertEquals(CompiledJSONObjectFilter.foldCase(pair[0]),
+           CompiledJSONObjectFilter.foldCase(pair[1]));
+    }
+
+    assertFalse(CompiledJSONObjectFilter.foldCase("a").equals(
+         CompiledJSONObjectFilter.foldCase("b")));
+  }
+}
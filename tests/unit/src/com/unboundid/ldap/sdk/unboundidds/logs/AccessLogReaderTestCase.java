@@ -28,6 +28,7 @@ import java.io.FileReader;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.EnumSet;
 import java.util.Iterator;
 
 import org.testng.annotations.Test;
@@ -5903,4 +5904,85 @@ public class AccessLogReaderTestCase
 
     reader.close();
   }
+
+
+
+  /**
+   * Tests the ability to determine the type of an access log message without
+   * parsing it.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testGetMessageType()
+         throws Exception
+  {
+    final String t = "[01/Jan/2017:00:00:00 -0600] ";
+
+    assertEquals(AccessLogReader.getMessageType(t + "CONNECT conn=1"),
+         AccessLogMessageType.CONNECT);
+    assertEquals(AccessLogReader.getMessageType(t + "DISCONNECT conn=1"),
+         AccessLogMessageType.DISCONNECT);
+    assertEquals(AccessLogReader.getMessageType(t + "SEARCH REQUEST conn=1"),
+         AccessLogMessageType.REQUEST);
+    assertEquals(AccessLogReader.getMessageType(t + "SEARCH RESULT conn=1"),
+         AccessLogMessageType.RESULT);
+    assertEquals(AccessLogReader.getMessageType(t + "SEARCH RESULT ENTRY"),
+         AccessLogMessageType.RESULT);
+    assertEquals(AccessLogReader.getMessageType(t + "SEARCH RESULT ENTRY a=b"),
+         AccessLogMessageType.RESULT);
+    assertEquals(AccessLogReader.getMessageType(t + "SEARCH ENTRY conn=1"),
+         AccessLogMessageType.ENTRY);
+    assertEquals(
+         AccessLogReader.getMessageType(t + "EXTENDED INTERMEDIATE-RESPONSE"),
+         AccessLogMessageType.INTERMEDIATE_RESPONSE);
+
+    // Message types that appear in a value should not be considered.
+    assertNull(AccessLogReader.getMessageType(t + "SEARCH a=\"RESULT\""));
+    assertNull(AccessLogReader.getMessageType(t + "SEARCH conn=1 RESULT"));
+    assertNull(AccessLogReader.getMessageType(t));
+    assertNull(AccessLogReader.getMessageType("no timestamp"));
+    assertNull(AccessLogReader.getMessageType(""));
+  }
+
+
+
+  /**
+   * Tests the ability to read only messages of specified types.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testReadWithMessageTypes()
+         throws Exception
+  {
+    final String t = "[01/Jan/2017:00:00:00 -0600] ";
+    File file = createTempFile(
+         t + "CONNECT conn=1 from=\"1.2.3.4:1234\" to=\"5.6.7.8:389\" " +
+              "protocol=\"LDAP\"",
+         t + "SEARCH REQUEST conn=1 op=1 msgID=2 base=\"\" scope=0 " +
+              "filter=\"(objectClass=*)\" attrs=\"ALL\"",
+         "",
+         "# comment",
+         t + "SEARCH ENTRY conn=1 op=1 msgID=2 dn=\"\"",
+         t + "SEARCH RESULT conn=1 op=1 msgID=2 resultCode=0 etime=1.0 " +
+              "entriesReturned=1",
+         t + "DISCONNECT conn=1 reason=\"Client Unbind\"");
+
+    AccessLogReader reader = new AccessLogReader(file);
+
+    AccessLogMessage m = reader.read(EnumSet.of(AccessLogMessageType.ENTRY,
+         AccessLogMessageType.DISCONNECT));
+    assertNotNull(m);
+    assertTrue(m instanceof SearchEntryAccessLogMessage);
+
+    m = reader.read(EnumSet.of(AccessLogMessageType.ENTRY,
+         AccessLogMessageType.DISCONNECT));
+    assertNotNull(m);
+    assertTrue(m instanceof DisconnectAccessLogMessage);
+
+    assertNull(reader.read(EnumSet.of(AccessLogMessageType.ENTRY)));
+
+    reader.close();
+  }
 }
@@ -23,8 +23,10 @@ package com.unboundid.ldap.sdk.unboundidds.logs;
 
 
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.GregorianCalendar;
 import java.util.Date;
+import java.util.List;
 
 import org.testng.annotations.Test;
 
@@ -503,4 +505,116 @@ public class LogMessageTestCase
     assertEquals(d, d2, "Timestamps are unexpectedly not equal");
   }
 
+
+
+  /**
+   * Tests that named values are extracted correctly on demand, including
+   * quoted values, escaped values, and names that appear more than once.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testNamedValuesOnDemand()
+         throws Exception
+  {
+    SimpleDateFormat f = new SimpleDateFormat("'['dd/MMM/yyyy:HH:mm:ss Z']'");
+    String s = f.format(new Date()) + " UNNAMED a=1 b=\"quoted value\" " +
+         "c=\"escaped#20value\" a=2 d=\"\"";
+
+    LogMessage m = new LogMessage(s);
+
+    assertTrue(m.hasUnnamedValue("UNNAMED"));
+    assertEquals(m.getUnnamedValues().size(), 1);
+
+    assertEquals(m.getNamedValue("b"), "quoted value");
+    assertEquals(m.getNamedValue("b"), "quoted value");
+    assertEquals(m.getNamedValue("c"), "escaped value");
+    assertEquals(m.getNamedValue("a"), "2");
+    assertEquals(m.getNamedValueAsInteger("a"), Integer.valueOf(2));
+    assertEquals(m.getNamedValue("d"), "");
+    assertNull(m.getNamedValue("e"));
+
+    assertEquals(m.getNamedValues().size(), 4);
+    assertEquals(m.getNamedValues().get("a"), "2");
+    assertEquals(m.getNamedValues().get("b"), "quoted value");
+    assertEquals(m.getNamedValues().get("c"), "escaped value");
+    assertEquals(m.getNamedValues().get("d"), "");
+
+    LogMessage copy = new LogMessage(m);
+    assertEquals(copy.getNamedValues(), m.getNamedValues());
+    assertEquals(copy.getNamedValue("b"), "quoted value");
+    assertEquals(copy.toString(), s);
+  }
+
+
+
+  /**
+   * Tests a message with more named values than the initial capacity used to
+   * record their positions.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testManyNamedValues()
+         throws Exception
+  {
+    SimpleDateFormat f = new SimpleDateFormat("'['dd/MMM/yyyy:HH:mm:ss Z']'");
+    StringBuilder buffer = new StringBuilder(f.format(new Date()));
+    for (int i=0; i < 100; i++)
+    {
+      buffer.append(" name");
+      buffer.append(i);
+      buffer.append("=\"value ");
+      buffer.append(i);
+      buffer.append('"');
+    }
+
+    LogMessage m = new LogMessage(buffer.toString());
+
+    assertEquals(m.getNamedValues().size(), 100);
+    for (int i=0; i < 100; i++)
+    {
+      assertEquals(m.getNamedValue("name" + i), "value " + i);
+    }
+  }
+
+
+
+  /**
+   * Tests that converted values are cached and are shared with copies of the
+   * message, and that a value can still be retrieved as a different type
+   * after it has been converted.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testConvertedValuesCached()
+         throws Exception
+  {
+    SimpleDateFormat f = new SimpleDateFormat("'['dd/MMM/yyyy:HH:mm:ss Z']'");
+    String s = f.format(new Date()) +
+         " conn=1234567890123 etime=1.5 flag=yes list=\"a,,b,c\" empty=\"\"";
+    LogMessage m = new LogMessage(s);
+
+    Long conn = m.getNamedValueAsLong("conn");
+    assertEquals(conn, Long.valueOf(1234567890123L));
+    assertSame(m.getNamedValueAsLong("conn"), conn);
+    assertNull(m.getNamedValueAsInteger("conn"));
+    assertSame(m.getNamedValueAsLong("conn"), conn);
+
+    LogMessage copy = new LogMessage(m);
+    assertSame(copy.getNamedValueAsLong("conn"), conn);
+
+    assertEquals(m.getNamedValueAsDouble("etime"), Double.valueOf(1.5d));
+    assertEquals(m.getNamedValueAsBoolean("flag"), Boolean.TRUE);
+    assertEquals(m.getNamedValue("flag"), "yes");
+
+    List<String> l = m.getNamedValueAsList("list");
+    assertEquals(l, Arrays.asList("a", "b", "c"));
+    assertSame(m.getNamedValueAsList("list"), l);
+    assertEquals(m.getNamedValue("list"), "a,,b,c");
+
+    assertTrue(m.getNamedValueAsList("empty").isEmpty());
+    assertTrue(m.getNamedValueAsList("missing").isEmpty());
+  }
 }
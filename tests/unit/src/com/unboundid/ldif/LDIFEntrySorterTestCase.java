@@ -0,0 +1,385 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldif;
+
+
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.sdk.DN;
+import com.unboundid.ldap.sdk.Entry;
+import com.unboundid.ldap.sdk.EntrySorter;
+import com.unboundid.ldap.sdk.controls.SortKey;
+import com.unboundid.util.LDAPSDKUsageException;
+
+
+
+/**
+ * This class provides a set of test cases for the LDIFEntrySorter class.
+ */
+public class LDIFEntrySorterTestCase
+       extends LDIFTestCase
+{
+  /**
+   * Retrieves combinations of the maximum number of entries in memory and the
+   * number of threads to use for testing.
+   *
+   * @return  Combinations of the maximum number of entries in memory and the
+   *          number of threads to use for testing.
+   */
+  @DataProvider(name="sorterSettings")
+  public Object[][] getSorterSettings()
+  {
+    return new Object[][]
+    {
+      new Object[] { 1000, 1 },
+      new Object[] { 1000, 4 },
+      new Object[] { 7, 1 },
+      new Object[] { 7, 3 },
+      new Object[] { 1, 1 },
+      new Object[] { 2, 2 }
+    };
+  }
+
+
+
+  /**
+   * Tests sorting entries hierarchically.
+   *
+   * @param  maxEntriesInMemory  The maximum number of entries to hold in
+   *                             memory.
+   * @param  numThreads          The number of threads to use.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(dataProvider="sorterSettings")
+  public void testSortHierarchically(final int maxEntriesInMemory,
+                                     final int numThreads)
+         throws Exception
+  {
+    final File tempDir = createTempDir();
+    final LDIFEntrySorter sorter = new LDIFEntrySorter(new EntrySorter(),
+         null, tempDir, maxEntriesInMemory, numThreads);
+
+    // Add the entries so that each one comes before its parent.
+    final ArrayList<Entry> entries = new ArrayList<Entry>(200);
+    for (int i=0; i < 10; i++)
+    {
+      for (int j=0; j < 20; j++)
+      {
+        entries.add(new Entry(
+             "dn: uid=user." + j + ",ou=" + i + ",dc=example,dc=com",
+             "objectClass: top",
+             "objectClass: person",
+             "uid: user." + j,
+             "cn: User " + j,
+             "sn: " + j,
+             "description;binary:: AAEC"));
+      }
+
+      entries.add(new Entry(
+           "dn: ou=" + i + ",dc=example,dc=com",
+           "objectClass: top",
+           "objectClass: organizationalUnit",
+           "ou: " + i));
+    }
+
+    entries.add(new Entry(
+         "dn: dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: domain",
+         "dc: example"));
+
+    for (final Entry e : entries)
+    {
+      sorter.addEntry(e);
+    }
+
+    assertEquals(sorter.getNumEntries(), entries.size());
+    if (maxEntriesInMemory >= entries.size())
+    {
+      assertEquals(sorter.getNumRunsWritten(), 0L);
+    }
+    else
+    {
+      assertTrue(sorter.getNumRunsWritten() > 0L);
+    }
+
+    final ArrayList<Entry> sortedEntries = new ArrayList<Entry>(200);
+    while (true)
+    {
+      final Entry e = sorter.nextEntry();
+      if (e == null)
+      {
+        break;
+      }
+
+      sortedEntries.add(e);
+    }
+
+    assertNull(sorter.nextEntry());
+    assertEquals(sortedEntries.size(), entries.size());
+    assertDNsEqual(sortedEntries.get(0).getDN(), "dc=example,dc=com");
+
+    // Each run should have been deleted as soon as it was fully merged.
+    assertEquals(tempDir.list().length, 0);
+
+    final ArrayList<DN> seenDNs = new ArrayList<DN>(200);
+    for (final Entry e : sortedEntries)
+    {
+      assertTrue(entries.contains(e));
+
+      final DN parentDN = e.getParsedDN().getParent();
+      if (! seenDNs.isEmpty())
+      {
+        assertTrue(seenDNs.contains(parentDN));
+      }
+      seenDNs.add(e.getParsedDN());
+    }
+
+    sorter.close();
+    assertEquals(tempDir.list().length, 0);
+  }
+
+
+
+  /**
+   * Tests sorting entries with a comparator that considers some entries to be
+   * equal, to ensure that those entries are returned in the order in which
+   * they were added.
+   *
+   * @param  maxEntriesInMemory  The maximum number of entries to hold in
+   *                             memory.
+   * @param  numThreads          The number of threads to use.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(dataProvider="sorterSettings")
+  public void testSortIsStable(final int maxEntriesInMemory,
+                               final int numThreads)
+         throws Exception
+  {
+    final Comparator<Entry> comparator = new Comparator<Entry>()
+    {
+      @Override()
+      public int compare(final Entry e1, final Entry e2)
+      {
+        return e1.getAttributeValue("sn").compareTo(
+             e2.getAttributeValue("sn"));
+      }
+    };
+
+    final LDIFEntrySorter sorter = new LDIFEntrySorter(comparator, null,
+         null, maxEntriesInMemory, numThreads);
+    try
+    {
+      for (int i=0; i < 300; i++)
+      {
+        sorter.addEntry(new Entry(
+             "dn: uid=user." + i + ",dc=example,dc=com",
+             "objectClass: top",
+             "objectClass: person",
+             "uid: user." + i,
+             "cn: User " + i,
+             "sn: " + (char) ('z' - (i % 5))));
+      }
+
+      String lastSN = null;
+      int lastIndex = -1;
+      int numEntries = 0;
+      while (true)
+      {
+        final Entry e = sorter.nextEntry();
+        if (e == null)
+        {
+          break;
+        }
+
+        final String sn = e.getAttributeValue("sn");
+        final int index =
+             Integer.parseInt(e.getAttributeValue("uid").substring(5));
+        if (lastSN != null)
+        {
+          final int c = sn.compareTo(lastSN);
+          assertTrue(c >= 0);
+          if (c == 0)
+          {
+            assertTrue(index > lastIndex);
+          }
+        }
+
+        lastSN = sn;
+        lastIndex = index;
+        numEntries++;
+      }
+
+      assertEquals(numEntries, 300);
+    }
+    finally
+    {
+      sorter.close();
+    }
+  }
+
+
+
+  /**
+   * Tests sorting entries based on a set of sort keys.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSortWithSortKeys()
+         throws Exception
+  {
+    final LDIFEntrySorter sorter = new LDIFEntrySorter(
+         new EntrySorter(false, new SortKey("sn", true),
+              new SortKey("givenName")),
+         null, null, 3, 2);
+    try
+    {
+      final String[][] names =
+      {
+        new String[] { "b", "2" },
+        new String[] { "a", "1" },
+        new String[] { "b", "1" },
+        new String[] { "c", "1" },
+        new String[] { "a", "2" },
+        new String[] { "c", "2" },
+        new String[] { "a", "3" }
+      };
+
+      for (final String[] name : names)
+      {
+        sorter.addEntry(new Entry(
+             "dn: cn=" + name[0] + name[1] + ",dc=example,dc=com",
+             "objectClass: top",
+             "objectClass: person",
+             "sn: " + name[0],
+             "givenName: " + name[1],
+             "cn: " + name[0] + name[1]));
+      }
+
+      final List<String> expectedCNs = new ArrayList<String>(7);
+      expectedCNs.add("c1");
+      expectedCNs.add("c2");
+      expectedCNs.add("b1");
+      expectedCNs.add("b2");
+      expectedCNs.add("a1");
+      expectedCNs.add("a2");
+      expectedCNs.add("a3");
+
+      final List<String> sortedCNs = new ArrayList<String>(7);
+      while (true)
+      {
+        final Entry e = sorter.nextEntry();
+        if (e == null)
+        {
+          break;
+        }
+
+        sortedCNs.add(e.getAttributeValue("cn"));
+      }
+
+      assertEquals(sortedCNs, expectedCNs);
+    }
+    finally
+    {
+      sorter.close();
+    }
+  }
+
+
+
+  /**
+   * Tests the behavior of a sorter to which no entries have been added.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testNoEntries()
+         throws Exception
+  {
+    final LDIFEntrySorter sorter = new LDIFEntrySorter(new EntrySorter());
+    assertEquals(sorter.getNumEntries(), 0L);
+    assertNull(sorter.nextEntry());
+    assertNull(sorter.nextEntry());
+    sorter.close();
+  }
+
+
+
+  /**
+   * Tests the behavior when trying to add an entry after iteration has
+   * started.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions = { LDAPSDKUsageException.class })
+  public void testAddAfterIterationStarted()
+         throws Exception
+  {
+    final LDIFEntrySorter sorter = new LDIFEntrySorter(new EntrySorter());
+    try
+    {
+      sorter.addEntry(new Entry("dc=example,dc=com"));
+      assertNotNull(sorter.nextEntry());
+      sorter.addEntry(new Entry("ou=People,dc=example,dc=com"));
+    }
+    finally
+    {
+      sorter.close();
+    }
+  }
+
+
+
+  /**
+   * Tests that closing a sorter before all of the entries have been read
+   * removes all of its temporary files.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testCloseBeforeIterationComplete()
+         throws Exception
+  {
+    final File tempDir = createTempDir();
+    final LDIFEntrySorter sorter = new LDIFEntrySorter(new EntrySorter(),
+         null, tempDir, 2, 3);
+    for (int i=0; i < 20; i++)
+    {
+      sorter.addEntry(new Entry("uid=user." + i + ",dc=example,dc=com"));
+    }
+
+    assertNotNull(sorter.nextEntry());
+    assertTrue(tempDir.list().length > 0);
+
+    sorter.close();
+    assertEquals(tempDir.list().length, 0);
+  }
+}
@@ -81,6 +81,252 @@ public class FixedRateBarrierTestCase
 
 
 
+  /**
+   * Tests the {@code awaitScheduledTime} method.
+   */
+  @Test()
+  public void testAwaitScheduledTime()
+  {
+    final FixedRateBarrier barrier = new FixedRateBarrier(1000L, 10);
+
+    // The barrier will fall behind schedule while sleeping, so the times at
+    // which the subsequent actions were scheduled should be in the past, and
+    // spaced 100 milliseconds apart.
+    final long firstScheduledTime = barrier.awaitScheduledTime();
+    try
+    {
+      Thread.sleep(500L);
+    }
+    catch (final InterruptedException ie)
+    {
+      fail("Interrupted while sleeping", ie);
+    }
+
+    final long secondScheduledTime = barrier.awaitScheduledTime();
+    final long thirdScheduledTime = barrier.awaitScheduledTime();
+    final long now = System.nanoTime();
+
+    assertTrue(secondScheduledTime > firstScheduledTime);
+    assertEquals((thirdScheduledTime - secondScheduledTime), 100000000L);
+    assertTrue((now - thirdScheduledTime) >= 200000000L,
+         "now=" + now + ", thirdScheduledTime=" + thirdScheduledTime);
+
+    barrier.shutdownRequested();
+    assertTrue(barrier.awaitScheduledTime() >= now);
+  }
+
+
+
+  /**
+   * Tests that a barrier created to keep missed releases releases callers
+   * immediately after falling well behind schedule until it catches up.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testCatchUpAfterStall()
+         throws Exception
+  {
+    final FixedRateBarrier barrier = new FixedRateBarrier(100L, 100, false);
+    final long firstScheduledTime = barrier.awaitScheduledTime();
+    Thread.sleep(300L);
+
+    // At least 299 releases were missed during the stall, which is several
+    // intervals, and all of them should be released without waiting.
+    final long startNanos = System.nanoTime();
+    long scheduledTime = firstScheduledTime;
+    for (int i=1; i < 250; i++)
+    {
+      final long t = barrier.awaitScheduledTime();
+      assertEquals((t - scheduledTime), 1000000L);
+      scheduledTime = t;
+    }
+
+    final long elapsedNanos = System.nanoTime() - startNanos;
+    assertTrue(elapsedNanos < 100000000L, "elapsedNanos=" + elapsedNanos);
+    assertTrue(scheduledTime < startNanos);
+    assertEquals(barrier.getSkippedReleaseCount(), 0L);
+  }
+
+
+
+  /**
+   * Tests that a barrier created with the default settings skips missed
+   * releases by restarting its schedule after a stall, and counts the
+   * releases that were skipped.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSkipMissedReleases()
+         throws Exception
+  {
+    final FixedRateBarrier barrier = new FixedRateBarrier(100L, 100);
+    final long firstScheduledTime = barrier.awaitScheduledTime();
+    assertEquals(barrier.getSkippedReleaseCount(), 0L);
+
+    // Falling less than a full interval behind should not skip anything.
+    Thread.sleep(50L);
+    assertEquals((barrier.awaitScheduledTime() - firstScheduledTime),
+         1000000L);
+    assertEquals(barrier.getSkippedReleaseCount(), 0L);
+
+    Thread.sleep(300L);
+    final long beforeNanos = System.nanoTime();
+    final long restartedTime = barrier.awaitScheduledTime();
+    assertTrue(restartedTime >= beforeNanos);
+
+    final long skipped = barrier.getSkippedReleaseCount();
+    assertTrue(skipped >= 298L, "skipped=" + skipped);
+    assertTrue(skipped <= ((restartedTime - firstScheduledTime) / 1000000L),
+         "skipped=" + skipped);
+
+    // The next release should be scheduled after the restarted one.
+    assertEquals((barrier.awaitScheduledTime() - restartedTime), 1000000L);
+  }
+
+
+
+  /**
+   * Tests the methods used to reserve a batch of actions at once.
+   */
+  @Test()
+  public void testAwaitBatch()
+  {
+    final FixedRateBarrier barrier = new FixedRateBarrier(1000L, 100);
+
+    // Each batch of ten actions should be scheduled 100 milliseconds after the
+    // previous one.
+    final long firstScheduledTime = barrier.awaitScheduledTime(10);
+    final long secondScheduledTime = barrier.awaitScheduledTime(10);
+    assertEquals((secondScheduledTime - firstScheduledTime), 100000000L);
+    assertTrue(System.nanoTime() >= secondScheduledTime);
+
+    assertFalse(barrier.await(5));
+    final long thirdScheduledTime = barrier.awaitScheduledTime();
+    assertEquals((thirdScheduledTime - secondScheduledTime), 150000000L);
+
+    barrier.shutdownRequested();
+    assertTrue(barrier.await(10));
+  }
+
+
+
+  /**
+   * Tests that a thread waiting to be released at a very slow rate will be
+   * rescheduled when the rate is increased.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSetRateReschedulesWaitingThreads()
+         throws Exception
+  {
+    final FixedRateBarrier barrier = new FixedRateBarrier(100000L, 1);
+    assertFalse(barrier.await());
+
+    final Thread t = new UpdateRateInFuture(barrier, 100L, 1000L, 1000);
+    t.start();
+
+    final long startMS = System.currentTimeMillis();
+    assertFalse(barrier.await());
+    final long durationMS = System.currentTimeMillis() - startMS;
+    assertTrue(durationMS < 10000L, "durationMS=" + durationMS);
+
+    assertEquals(barrier.getTargetRate().getFirst().longValue(), 1000L);
+    assertEquals(barrier.getTargetRate().getSecond().intValue(), 1000);
+    t.join();
+  }
+
+
+
+  /**
+   * Tests the barrier at a high target rate, with several threads reserving
+   * either one action or a batch of actions at a time.  It ensures that the
+   * actions were not released faster than the target rate, and that the
+   * barrier sustained the target rate.
+   *
+   * @param  targetPerSecond  The target number of actions per second.
+   * @param  batchSize        The number of actions that each thread should
+   *                          reserve at a time.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(dataProvider = "getHighRateParams")
+  public void testHighRate(final int targetPerSecond, final int batchSize)
+         throws Exception
+  {
+    final int numThreads = 4;
+    final int totalActions = targetPerSecond / 2;
+    final long spacingNanos = 1000000000L / targetPerSecond;
+
+    // The schedule starts when the barrier is created, so the elapsed time
+    // must be measured from then.
+    final long startNanos = System.nanoTime();
+    final FixedRateBarrier barrier =
+         new FixedRateBarrier(1000L, targetPerSecond);
+
+    final Thread[] threads = new Thread[numThreads];
+    for (int i=0; i < numThreads; i++)
+    {
+      threads[i] = new Thread()
+      {
+        @Override()
+        public void run()
+        {
+          for (int j=0; j < (totalActions / numThreads); j += batchSize)
+          {
+            barrier.await(batchSize);
+          }
+        }
+      };
+    }
+
+    for (final Thread t : threads)
+    {
+      t.start();
+    }
+
+    for (final Thread t : threads)
+    {
+      t.join();
+    }
+    final long elapsedNanos = System.nanoTime() - startNanos;
+
+    // The last batch is released as soon as it has been reserved, so the
+    // elapsed time must cover all of the releases before it.
+    final long minElapsedNanos = spacingNanos * (totalActions - batchSize);
+    assertTrue(elapsedNanos >= minElapsedNanos,
+         "elapsedNanos=" + elapsedNanos);
+
+    // Since callers that fall behind are released immediately until they
+    // catch up, the overall rate should match the target.  Allow for a short
+    // startup delay and the time needed to start and join the threads.
+    final long maxElapsedNanos = (minElapsedNanos * 11L / 10L) + 100000000L;
+    assertTrue(elapsedNanos <= maxElapsedNanos,
+         "elapsedNanos=" + elapsedNanos);
+  }
+
+
+
+  /**
+   * Constructs the parameters to use for the {@code testHighRate} method.
+   *
+   * @return  A set of test cases that can be used to call
+   *          {@code testHighRate}.
+   */
+  @DataProvider
+  public Object[][] getHighRateParams()
+  {
+    return new Object[][]
+    {
+      new Object[] { 100000, 1 },
+      new Object[] { 1000000, 100 }
+    };
+  }
+
+
+
   /**
    * Constructs the parameters to use for the {@code testAwait} method.
    *
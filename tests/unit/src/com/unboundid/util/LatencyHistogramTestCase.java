@@ -0,0 +1,406 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util;
+
+
+
+import java.util.Iterator;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.unboundid.asn1.ASN1Long;
+import com.unboundid.asn1.ASN1OctetString;
+import com.unboundid.asn1.ASN1Sequence;
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.ldap.sdk.ResultCode;
+
+
+
+/**
+ * This class provides a set of test cases for the {@code LatencyHistogram}
+ * class.
+ */
+public final class LatencyHistogramTestCase
+       extends UtilTestCase
+{
+  /**
+   * Tests the behavior of an empty histogram.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testEmptyHistogram()
+         throws Exception
+  {
+    final LatencyHistogram h = new LatencyHistogram();
+
+    assertEquals(h.getCount(), 0L);
+    assertEquals(h.getMinValue(), 0L);
+    assertEquals(h.getMaxValue(), 0L);
+    assertEquals(h.getMeanValue(), 0.0d);
+    assertEquals(h.getValueAtPercentile(50.0d), 0L);
+    assertEquals(h.getValueAtPercentile(100.0d), 0L);
+    assertTrue(h.getBucketCounts().isEmpty());
+
+    assertNotNull(h.toString());
+  }
+
+
+
+  /**
+   * Tests the behavior when recording small values, which should be tracked
+   * exactly.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSmallValues()
+         throws Exception
+  {
+    final LatencyHistogram h = new LatencyHistogram();
+    for (int i=1; i <= 100; i++)
+    {
+      h.recordValue(i);
+    }
+
+    assertEquals(h.getCount(), 100L);
+    assertEquals(h.getMinValue(), 1L);
+    assertEquals(h.getMaxValue(), 100L);
+    assertEquals(h.getMeanValue(), 50.5d);
+    assertEquals(h.getValueAtPercentile(0.0d), 1L);
+    assertEquals(h.getValueAtPercentile(50.0d), 50L);
+    assertEquals(h.getValueAtPercentile(90.0d), 90L);
+    assertEquals(h.getValueAtPercentile(99.0d), 99L);
+    assertEquals(h.getValueAtPercentile(99.9d), 100L);
+    assertEquals(h.getValueAtPercentile(100.0d), 100L);
+    assertEquals(h.getBucketCounts().size(), 100);
+
+    h.recordValue(-5L);
+    assertEquals(h.getCount(), 101L);
+    assertEquals(h.getMinValue(), 0L);
+  }
+
+
+
+  /**
+   * Tests the behavior when recording large values, which should be tracked
+   * with a bounded relative error.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testLargeValues()
+         throws Exception
+  {
+    final LatencyHistogram h = new LatencyHistogram();
+    for (long i=1L; i <= 1000L; i++)
+    {
+      h.recordValue(i * 1000000L);
+    }
+
+    assertEquals(h.getCount(), 1000L);
+    assertEquals(h.getMinValue(), 1000000L);
+    assertEquals(h.getMaxValue(), 1000000000L);
+
+    assertPercentile(h, 50.0d, 500000000L);
+    assertPercentile(h, 90.0d, 900000000L);
+    assertPercentile(h, 99.0d, 990000000L);
+    assertPercentile(h, 99.9d, 999000000L);
+    assertEquals(h.getValueAtPercentile(100.0d), 1000000000L);
+
+    h.recordValue(Long.MAX_VALUE);
+    assertEquals(h.getMaxValue(), Long.MAX_VALUE);
+    assertEquals(h.getValueAtPercentile(100.0d), Long.MAX_VALUE);
+  }
+
+
+
+  /**
+   * Tests the methods used to compute bucket boundaries.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testBucketBoundaries()
+         throws Exception
+  {
+    final long[] values =
+    {
+      0L, 1L, 127L, 128L, 129L, 255L, 256L, 1000L, 123456789L,
+      (1L << 40) + 12345L, Long.MAX_VALUE
+    };
+
+    for (final long v : values)
+    {
+      final int index = LatencyHistogram.getBucketIndex(v);
+      final long lower = LatencyHistogram.getBucketLowerBound(index);
+      final long upper = LatencyHistogram.getBucketUpperBound(index);
+
+      assertTrue((lower <= v) && (v <= upper),
+           "value=" + v + ", lower=" + lower + ", upper=" + upper);
+      assertEquals(LatencyHistogram.getBucketIndex(lower), index);
+      assertEquals(LatencyHistogram.getBucketIndex(upper), index);
+      if (upper < Long.MAX_VALUE)
+      {
+        assertEquals(LatencyHistogram.getBucketIndex(upper + 1L), index + 1);
+      }
+
+      // The width of each bucket must not exceed about 1.6% of its values.
+      assertTrue((upper - lower) <= (lower / 64L),
+           "value=" + v + ", lower=" + lower + ", upper=" + upper);
+    }
+  }
+
+
+
+  /**
+   * Tests the methods used to combine histograms.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testAddAndTransfer()
+         throws Exception
+  {
+    final LatencyHistogram h1 = new LatencyHistogram();
+    h1.recordValue(10L);
+    h1.recordValue(20L);
+
+    final LatencyHistogram h2 = new LatencyHistogram();
+    h2.recordValue(5L);
+    h2.recordValue(1000L);
+
+    final LatencyHistogram sum = new LatencyHistogram();
+    sum.add(h1);
+    sum.add(h2);
+    sum.add(new LatencyHistogram());
+    assertEquals(sum.getCount(), 4L);
+    assertEquals(sum.getMinValue(), 5L);
+    assertEquals(sum.getMaxValue(), 1000L);
+    assertEquals(sum.getMeanValue(), 258.75d);
+    assertEquals(h1.getCount(), 2L);
+    assertEquals(h2.getCount(), 2L);
+
+    final LatencyHistogram transferred = new LatencyHistogram();
+    transferred.transferFrom(h1);
+    transferred.transferFrom(h2);
+    assertEquals(transferred.getCount(), 4L);
+    assertEquals(transferred.getMinValue(), 5L);
+    assertEquals(transferred.getMaxValue(), 1000L);
+    assertEquals(transferred.getBucketCounts(), sum.getBucketCounts());
+
+    assertEquals(h1.getCount(), 0L);
+    assertEquals(h1.getMinValue(), 0L);
+    assertEquals(h1.getMaxValue(), 0L);
+    assertTrue(h1.getBucketCounts().isEmpty());
+    assertEquals(h2.getCount(), 0L);
+
+    final Iterator<Map.Entry<Long,Long>> iterator =
+         transferred.getBucketCounts().entrySet().iterator();
+    assertEquals(iterator.next().getKey(), Long.valueOf(5L));
+    assertEquals(iterator.next().getKey(), Long.valueOf(10L));
+    assertEquals(iterator.next().getKey(), Long.valueOf(20L));
+    assertEquals(iterator.next().getKey(),
+         Long.valueOf(LatencyHistogram.getBucketLowerBound(
+              LatencyHistogram.getBucketIndex(1000L))));
+    assertFalse(iterator.hasNext());
+
+    transferred.reset();
+    assertEquals(transferred.getCount(), 0L);
+    assertEquals(transferred.getMaxValue(), 0L);
+    assertTrue(transferred.getBucketCounts().isEmpty());
+  }
+
+
+
+  /**
+   * Tests the behavior when values are recorded concurrently with transfers
+   * into another histogram.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testConcurrentRecordAndTransfer()
+         throws Exception
+  {
+    final LatencyHistogram source = new LatencyHistogram();
+    final LatencyHistogram target = new LatencyHistogram();
+
+    final Thread[] threads = new Thread[4];
+    for (int i=0; i < threads.length; i++)
+    {
+      threads[i] = new Thread()
+      {
+        @Override()
+        public void run()
+        {
+          for (int j=0; j < 10000; j++)
+          {
+            source.recordValue(j);
+          }
+        }
+      };
+      threads[i].start();
+    }
+
+    boolean running = true;
+    while (running)
+    {
+      target.transferFrom(source);
+
+      running = false;
+      for (final Thread t : threads)
+      {
+        running |= t.isAlive();
+      }
+    }
+
+    for (final Thread t : threads)
+    {
+      t.join();
+    }
+
+    target.transferFrom(source);
+    assertEquals(target.getCount(), 40000L);
+    assertEquals(source.getCount(), 0L);
+
+    long bucketTotal = 0L;
+    for (final Long c : target.getBucketCounts().values())
+    {
+      bucketTotal += c;
+    }
+    assertEquals(bucketTotal, 40000L);
+  }
+
+
+
+  /**
+   * Tests the ability to encode and decode histograms.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testEncodeAndDecode()
+         throws Exception
+  {
+    final LatencyHistogram empty =
+         LatencyHistogram.decode(new LatencyHistogram().encode());
+    assertEquals(empty.getCount(), 0L);
+    assertEquals(empty.getMinValue(), 0L);
+    assertEquals(empty.getMaxValue(), 0L);
+    assertTrue(empty.getBucketCounts().isEmpty());
+
+    final LatencyHistogram h = new LatencyHistogram();
+    for (long v=1L; v <= 1000000000L; v *= 3L)
+    {
+      h.recordValue(v);
+      h.recordValue(v + 7L);
+    }
+
+    final LatencyHistogram decoded = LatencyHistogram.decode(h.encode());
+    assertEquals(decoded.getCount(), h.getCount());
+    assertEquals(decoded.getMinValue(), h.getMinValue());
+    assertEquals(decoded.getMaxValue(), h.getMaxValue());
+    assertEquals(decoded.getMeanValue(), h.getMeanValue());
+    assertEquals(decoded.getBucketCounts(), h.getBucketCounts());
+    assertEquals(decoded.getValueAtPercentile(99.0d),
+         h.getValueAtPercentile(99.0d));
+
+    // Decoded histograms should be able to be merged like any other.
+    final LatencyHistogram merged = new LatencyHistogram();
+    merged.add(decoded);
+    merged.add(LatencyHistogram.decode(h.encode()));
+    assertEquals(merged.getCount(), 2L * h.getCount());
+    assertEquals(merged.getMaxValue(), h.getMaxValue());
+  }
+
+
+
+  /**
+   * Tests the behavior when trying to decode elements that do not represent
+   * valid histograms.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testDecodeInvalid()
+         throws Exception
+  {
+    try
+    {
+      LatencyHistogram.decode(new ASN1OctetString("foo"));
+      fail("Expected an exception when decoding a non-sequence");
+    }
+    catch (final LDAPException le)
+    {
+      assertEquals(le.getResultCode(), ResultCode.DECODING_ERROR);
+    }
+
+    try
+    {
+      LatencyHistogram.decode(new ASN1Sequence(
+           new ASN1Long(0L),
+           new ASN1Long(0L),
+           new ASN1Long(0L),
+           new ASN1Sequence(new ASN1Long(5L))));
+      fail("Expected an exception for an odd number of bucket elements");
+    }
+    catch (final LDAPException le)
+    {
+      assertEquals(le.getResultCode(), ResultCode.DECODING_ERROR);
+    }
+
+    try
+    {
+      LatencyHistogram.decode(new ASN1Sequence(
+           new ASN1Long(0L),
+           new ASN1Long(0L),
+           new ASN1Long(0L),
+           new ASN1Sequence(new ASN1Long(5L), new ASN1Long(-1L))));
+      fail("Expected an exception for a negative bucket count");
+    }
+    catch (final LDAPException le)
+    {
+      assertEquals(le.getResultCode(), ResultCode.DECODING_ERROR);
+    }
+  }
+
+
+
+  /**
+   * Ensures that the provided percentile is within the expected precision of
+   * the given value.
+   *
+   * @param  h           The histogram to examine.
+   * @param  percentile  The percentile to retrieve.
+   * @param  expected    The expected value at that percentile.
+   */
+  private static void assertPercentile(final LatencyHistogram h,
+                                       final double percentile,
+                                       final long expected)
+  {
+    final long actual = h.getValueAtPercentile(percentile);
+    assertTrue(Math.abs(actual - expected) <= (expected / 50L),
+         "percentile=" + percentile + ", expected=" + expected +
+              ", actual=" + actual);
+  }
+}
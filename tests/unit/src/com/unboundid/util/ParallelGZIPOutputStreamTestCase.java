@@ -0,0 +1,255 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util;
+
+
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+
+
+/**
+ * This class provides a set of test cases for the
+ * {@code ParallelGZIPOutputStream} class.
+ */
+public class ParallelGZIPOutputStreamTestCase
+       extends UtilTestCase
+{
+  /**
+   * Retrieves a set of data sizes, thread counts, and block sizes to use for
+   * testing.
+   *
+   * @return  A set of data sizes, thread counts, and block sizes to use for
+   *          testing.
+   */
+  @DataProvider(name="testSizes")
+  public Object[][] getTestSizes()
+  {
+    return new Object[][]
+    {
+      new Object[] { 0, 1, 1024 },
+      new Object[] { 1, 2, 1024 },
+      new Object[] { 1023, 2, 1024 },
+      new Object[] { 1024, 2, 1024 },
+      new Object[] { 1025, 2, 1024 },
+      new Object[] { 100000, 3, 1024 },
+      new Object[] { 100000, 8, 100 },
+      new Object[] { 1000000, 4,
+           ParallelGZIPOutputStream.DEFAULT_BLOCK_SIZE }
+    };
+  }
+
+
+
+  /**
+   * Tests that data written in a single call can be decompressed with a
+   * standard gzip input stream.
+   *
+   * @param  dataSize    The number of bytes of data to write.
+   * @param  numThreads  The number of compression threads to use.
+   * @param  blockSize   The block size to use.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(dataProvider="testSizes")
+  public void testWriteArray(final int dataSize, final int numThreads,
+                             final int blockSize)
+         throws Exception
+  {
+    final byte[] data = generateData(dataSize);
+
+    final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    final ParallelGZIPOutputStream outputStream =
+         new ParallelGZIPOutputStream(compressed, numThreads, blockSize);
+    outputStream.write(data);
+    outputStream.close();
+
+    assertEquals(decompress(compressed.toByteArray()), data);
+    assertEquals(outputStream.getUncompressedBytes(), dataSize);
+    assertEquals(outputStream.getCompressedBytes(), compressed.size());
+    assertTrue(outputStream.getCompressionNanos() >= 0L);
+  }
+
+
+
+  /**
+   * Tests that data written a byte at a time and in varying chunks, with
+   * intermediate flushes, can be decompressed with a standard gzip input
+   * stream.
+   *
+   * @param  dataSize    The number of bytes of data to write.
+   * @param  numThreads  The number of compression threads to use.
+   * @param  blockSize   The block size to use.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(dataProvider="testSizes")
+  public void testWriteChunksWithFlush(final int dataSize,
+                                       final int numThreads,
+                                       final int blockSize)
+         throws Exception
+  {
+    final byte[] data = generateData(dataSize);
+
+    final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    final ParallelGZIPOutputStream outputStream =
+         new ParallelGZIPOutputStream(compressed, numThreads, blockSize);
+
+    final Random random = new Random(dataSize);
+    int pos = 0;
+    while (pos < dataSize)
+    {
+      if (random.nextInt(10) == 0)
+      {
+        outputStream.write(data[pos++]);
+      }
+      else
+      {
+        final int len = Math.min((dataSize - pos), random.nextInt(5000));
+        outputStream.write(data, pos, len);
+        pos += len;
+      }
+
+      if (random.nextInt(20) == 0)
+      {
+        outputStream.flush();
+      }
+    }
+
+    outputStream.flush();
+    outputStream.close();
+
+    // Closing the stream a second time should have no effect.
+    outputStream.close();
+
+    assertEquals(decompress(compressed.toByteArray()), data);
+  }
+
+
+
+  /**
+   * Tests that writing exactly one block of data produces a single gzip member,
+   * without an additional empty member when the stream is closed.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSingleFullBlock()
+         throws Exception
+  {
+    final byte[] data = generateData(1024);
+
+    final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    final ParallelGZIPOutputStream outputStream =
+         new ParallelGZIPOutputStream(compressed, 2, 1024);
+    outputStream.write(data);
+    outputStream.close();
+
+    final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    final GZIPOutputStream gzipStream = new GZIPOutputStream(expected);
+    gzipStream.write(data);
+    gzipStream.close();
+
+    assertEquals(compressed.toByteArray(), expected.toByteArray());
+    assertEquals(decompress(compressed.toByteArray()), data);
+  }
+
+
+
+  /**
+   * Tests that an attempt to write to the stream after it has been closed
+   * will fail.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions = { IOException.class })
+  public void testWriteAfterClose()
+         throws Exception
+  {
+    final ParallelGZIPOutputStream outputStream =
+         new ParallelGZIPOutputStream(new ByteArrayOutputStream(), 2);
+    outputStream.close();
+    outputStream.write(new byte[1]);
+  }
+
+
+
+  /**
+   * Generates compressible data of the specified size.
+   *
+   * @param  size  The number of bytes of data to generate.
+   *
+   * @return  The data that was generated.
+   */
+  private static byte[] generateData(final int size)
+  {
+    final Random random = new Random(size);
+    final byte[] data = new byte[size];
+    for (int i=0; i < size; i++)
+    {
+      data[i] = (byte) ('a' + random.nextInt(4));
+    }
+
+    return data;
+  }
+
+
+
+  /**
+   * Decompresses the provided gzip data, which may contain multiple members.
+   *
+   * @param  compressedData  The data to decompress.
+   *
+   * @return  The decompressed data.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private static byte[] decompress(final byte[] compressedData)
+          throws Exception
+  {
+    final InputStream inputStream =
+         new GZIPInputStream(new ByteArrayInputStream(compressedData));
+    final ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+    final byte[] buffer = new byte[8192];
+    while (true)
+    {
+      final int bytesRead = inputStream.read(buffer);
+      if (bytesRead < 0)
+      {
+        break;
+      }
+
+      decompressed.write(buffer, 0, bytesRead);
+    }
+
+    inputStream.close();
+    return decompressed.toByteArray();
+  }
+}
@@ -110,6 +110,27 @@ public class ResultCodeCounterTestCase
 
 
 
+  /**
+   * Tests the ability to increment a count by an amount that is too large to
+   * fit in an int.
+   */
+  @Test()
+  public void testIncrementByLong()
+  {
+    ResultCodeCounter c = new ResultCodeCounter();
+
+    long amount = Integer.MAX_VALUE + 10L;
+    c.increment(ResultCode.BUSY, amount);
+    c.increment(ResultCode.BUSY, amount);
+
+    List<ObjectPair<ResultCode,Long>> counts = c.getCounts(false);
+    assertEquals(counts.size(), 1);
+    assertEquals(counts.get(0).getFirst(), ResultCode.BUSY);
+    assertEquals(counts.get(0).getSecond(), Long.valueOf(2L * amount));
+  }
+
+
+
   /**
    * Performs a set of multithreaded tests to see if we can hit trigger any of
    * the race conditions that should be handled properly by the code.
@@ -1420,4 +1420,69 @@ public class ValuePatternTestCase
          new BackReferenceValuePatternComponent(1);
     c.append(new StringBuilder());
   }
+
+
+
+  /**
+   * Tests the ability to append values to a byte string buffer, ensuring that
+   * they match the values that would have been generated as strings.
+   *
+   * @param  pattern  The value pattern string to test.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(dataProvider = "byteStringBufferPatterns")
+  public void testNextValueByteStringBuffer(final String pattern)
+         throws Exception
+  {
+    final ValuePattern stringPattern = new ValuePattern(pattern, 1234L);
+    final ValuePattern bytesPattern = new ValuePattern(pattern, 1234L);
+
+    final ByteStringBuffer buffer = new ByteStringBuffer(1);
+    for (int i=0; i < 100; i++)
+    {
+      // Any existing content in the buffer must be preserved.
+      buffer.clear();
+      buffer.append("prefix:");
+      bytesPattern.nextValue(buffer);
+
+      assertEquals(buffer.toString(),
+           "prefix:" + stringPattern.nextValue());
+    }
+  }
+
+
+
+  /**
+   * Retrieves a set of value patterns that may be used to test the ability to
+   * append values to a byte string buffer.
+   *
+   * @return  A set of value patterns that may be used to test the ability to
+   *          append values to a byte string buffer.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @DataProvider(name = "byteStringBufferPatterns")
+  public Object[][] getByteStringBufferPatterns()
+         throws Exception
+  {
+    final File f = createTempFile("first", "second", "\u00e9l\u00e8ve");
+
+    return new Object[][]
+    {
+      new Object[] { "" },
+      new Object[] { "dc=example,dc=com" },
+      new Object[] { "caf\u00e9" },
+      new Object[] { "[0:10]" },
+      new Object[] { "[10:0x3]" },
+      new Object[] { "[1-1000000]" },
+      new Object[] { "[1:100%00000]" },
+      new Object[] { "[1-100%00000]" },
+      new Object[] { "(uid=user.[1-1000000])" },
+      new Object[] { "uid=user.[1-1000000],ou=org[ref:1],dc=example,dc=com" },
+      new Object[] { "[1-10]-[1-100]-[ref:2]-[ref:1]-[ref:3]" },
+      new Object[] { "[file:" + f.getAbsolutePath() + ']' },
+      new Object[] { "[sequentialfile:" + f.getAbsolutePath() + "]/[ref:1]" }
+    };
+  }
 }
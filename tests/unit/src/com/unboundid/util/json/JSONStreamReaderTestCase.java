@@ -0,0 +1,478 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util.json;
+
+
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.sdk.LDAPSDKTestCase;
+import com.unboundid.util.StaticUtils;
+
+
+
+/**
+ * This class provides a set of test cases for the JSON stream reader class.
+ */
+public final class JSONStreamReaderTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * A JSON object that will be used in a number of tests.
+   */
+  private static final String TEST_OBJECT =
+       "{ // A comment\n" +
+       "  \"name\" : \"Jos\\u00e9 \\\"Pepe\\\" Garc\u00eda\",\n" +
+       "  \"count\" : -12.5e3,\n" +
+       "  \"flags\" : [ true, false, null ],\n" +
+       "  \"empty\" : { },\n" +
+       "  \"emptyArray\" : [ ],\n" +
+       "  # Another comment\n" +
+       "  \"nested\" : { \"a\" : { \"b\" : \"inner\" }, \"c\" : [ 1, 2 ] },\n" +
+       "  \"list\" : [ { \"id\" : 1 }, [ { \"id\" : 2 } ], 3, { \"other\" : " +
+            "\"}]\" } ],\n" +
+       "  \"emoji\" : \"\\ud83d\\ude00\" /* trailing */\n" +
+       "}";
+
+
+
+  /**
+   * Tests reading the test object one token at a time from a byte array.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testTokensFromByteArray()
+         throws Exception
+  {
+    final JSONStreamReader reader =
+         new JSONStreamReader(StaticUtils.getBytes(TEST_OBJECT));
+    assertNull(reader.getCurrentToken());
+    assertEquals(reader.getDepth(), 0);
+
+    assertEquals(reader.nextToken(), JSONTokenType.START_OBJECT);
+    assertEquals(reader.getDepth(), 1);
+    assertNull(reader.getText());
+
+    assertEquals(reader.nextToken(), JSONTokenType.FIELD_NAME);
+    assertEquals(reader.getText(), "name");
+    assertEquals(reader.nextToken(), JSONTokenType.STRING);
+    assertEquals(reader.getText(), "Jos\u00e9 \"Pepe\" Garc\u00eda");
+
+    assertEquals(reader.nextToken(), JSONTokenType.FIELD_NAME);
+    assertEquals(reader.getText(), "count");
+    assertEquals(reader.nextToken(), JSONTokenType.NUMBER);
+    assertEquals(reader.getText(), "-12.5e3");
+    assertEquals(reader.readValue(), new JSONNumber(-12500L));
+
+    assertEquals(reader.nextToken(), JSONTokenType.FIELD_NAME);
+    assertEquals(reader.nextToken(), JSONTokenType.START_ARRAY);
+    assertEquals(reader.getDepth(), 2);
+    assertEquals(reader.nextToken(), JSONTokenType.TRUE);
+    assertEquals(reader.getText(), "true");
+    assertTrue(reader.getCurrentToken().isScalarValue());
+    assertEquals(reader.nextToken(), JSONTokenType.FALSE);
+    assertEquals(reader.nextToken(), JSONTokenType.NULL);
+    assertEquals(reader.nextToken(), JSONTokenType.END_ARRAY);
+    assertFalse(reader.getCurrentToken().isScalarValue());
+    assertEquals(reader.getDepth(), 1);
+
+    assertEquals(reader.nextToken(), JSONTokenType.FIELD_NAME);
+    assertEquals(reader.nextToken(), JSONTokenType.START_OBJECT);
+    assertEquals(reader.nextToken(), JSONTokenType.END_OBJECT);
+
+    assertEquals(reader.nextToken(), JSONTokenType.FIELD_NAME);
+    assertEquals(reader.nextToken(), JSONTokenType.START_ARRAY);
+    assertEquals(reader.nextToken(), JSONTokenType.END_ARRAY);
+
+    assertEquals(reader.nextToken(), JSONTokenType.FIELD_NAME);
+    assertEquals(reader.getText(), "nested");
+    reader.skipValue();
+    assertEquals(reader.getCurrentToken(), JSONTokenType.END_OBJECT);
+    assertEquals(reader.getDepth(), 1);
+
+    assertEquals(reader.nextToken(), JSONTokenType.FIELD_NAME);
+    assertEquals(reader.getText(), "list");
+    assertEquals(reader.nextToken(), JSONTokenType.START_ARRAY);
+    reader.skipValue();
+    assertEquals(reader.getCurrentToken(), JSONTokenType.END_ARRAY);
+
+    assertEquals(reader.nextToken(), JSONTokenType.FIELD_NAME);
+    assertEquals(reader.nextToken(), JSONTokenType.STRING);
+    assertEquals(reader.getText(), "\ud83d\ude00");
+
+    assertEquals(reader.nextToken(), JSONTokenType.END_OBJECT);
+    assertEquals(reader.getDepth(), 0);
+    assertNull(reader.nextToken());
+    assertNull(reader.nextToken());
+    assertEquals(reader.getOffset(),
+         StaticUtils.getBytes(TEST_OBJECT).length);
+
+    reader.close();
+  }
+
+
+
+  /**
+   * Tests that reading a complete value from a byte array and from an input
+   * stream yields the same result as parsing the object as a string.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testReadValue()
+         throws Exception
+  {
+    final JSONObject expected = new JSONObject(TEST_OBJECT);
+    final byte[] bytes = StaticUtils.getBytes(TEST_OBJECT);
+
+    JSONStreamReader reader = new JSONStreamReader(bytes);
+    assertEquals(reader.nextToken(), JSONTokenType.START_OBJECT);
+    assertEquals(reader.readValue(), expected);
+    assertEquals(reader.getCurrentToken(), JSONTokenType.END_OBJECT);
+    assertNull(reader.nextToken());
+
+    // Use a stream that only returns one byte at a time so that every string
+    // will span multiple reads.
+    final InputStream inputStream = new ByteArrayInputStream(bytes)
+    {
+      @Override()
+      public synchronized int read(final byte[] b, final int off,
+                                   final int len)
+      {
+        return super.read(b, off, Math.min(len, 1));
+      }
+    };
+
+    reader = new JSONStreamReader(inputStream);
+    assertEquals(reader.nextToken(), JSONTokenType.START_OBJECT);
+    assertEquals(reader.readValue(), expected);
+    assertNull(reader.nextToken());
+    reader.close();
+
+    // Make sure that a portion of a larger array can be read.
+    final byte[] padded = new byte[bytes.length + 10];
+    Arrays.fill(padded, (byte) 'x');
+    System.arraycopy(bytes, 0, padded, 5, bytes.length);
+    reader = new JSONStreamReader(padded, 5, bytes.length);
+    assertEquals(reader.nextToken(), JSONTokenType.START_OBJECT);
+    assertEquals(reader.readValue(), expected);
+    assertNull(reader.nextToken());
+  }
+
+
+
+  /**
+   * Tests reading multiple top-level values from an input stream.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testMultipleTopLevelValues()
+         throws Exception
+  {
+    final JSONStreamReader reader = new JSONStreamReader(
+         new ByteArrayInputStream(StaticUtils.getBytes(
+              "{ \"a\" : 1 }\n{ \"b\" : 2 }\n\"c\" 3")));
+
+    assertEquals(reader.nextToken(), JSONTokenType.START_OBJECT);
+    assertEquals(reader.readValue(),
+         new JSONObject(new JSONField("a", 1)));
+    assertEquals(reader.nextToken(), JSONTokenType.START_OBJECT);
+    assertEquals(reader.readValue(),
+         new JSONObject(new JSONField("b", 2)));
+    assertEquals(reader.nextToken(), JSONTokenType.STRING);
+    assertEquals(reader.readValue(), new JSONString("c"));
+    assertEquals(reader.nextToken(), JSONTokenType.NUMBER);
+    assertEquals(reader.readValue(), new JSONNumber(3L));
+    assertNull(reader.nextToken());
+    reader.close();
+  }
+
+
+
+  /**
+   * Tests the behavior of the seekField method.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSeekField()
+         throws Exception
+  {
+    JSONStreamReader reader =
+         new JSONStreamReader(StaticUtils.getBytes(TEST_OBJECT));
+    assertEquals(reader.nextToken(), JSONTokenType.START_OBJECT);
+
+    assertTrue(reader.seekField("flags"));
+    assertEquals(reader.getCurrentToken(), JSONTokenType.FIELD_NAME);
+    assertEquals(reader.readValue(),
+         new JSONArray(JSONBoolean.TRUE, JSONBoolean.FALSE, JSONNull.NULL));
+
+    assertTrue(reader.seekField("nested"));
+    assertEquals(reader.nextToken(), JSONTokenType.START_OBJECT);
+    assertTrue(reader.seekField("c"));
+    assertEquals(reader.readValue(),
+         new JSONArray(new JSONNumber(1L), new JSONNumber(2L)));
+    assertFalse(reader.seekField("a"));
+    assertEquals(reader.getCurrentToken(), JSONTokenType.END_OBJECT);
+
+    // Seeking from a field name should skip that field.
+    assertEquals(reader.nextToken(), JSONTokenType.FIELD_NAME);
+    assertEquals(reader.getText(), "list");
+    assertTrue(reader.seekField("emoji"));
+    assertFalse(reader.seekField("name"));
+    assertEquals(reader.getDepth(), 0);
+
+    // Seeking outside of an object should fail.
+    try
+    {
+      reader.seekField("name");
+      fail("Expected an exception when seeking outside of an object");
+    }
+    catch (final JSONException e)
+    {
+      // This was expected.
+    }
+
+    reader = new JSONStreamReader(StaticUtils.getBytes("[ 1, 2 ]"));
+    assertEquals(reader.nextToken(), JSONTokenType.START_ARRAY);
+    try
+    {
+      reader.seekField("name");
+      fail("Expected an exception when seeking within an array");
+    }
+    catch (final JSONException e)
+    {
+      // This was expected.
+    }
+  }
+
+
+
+  /**
+   * Tests the behavior of the readValue method when the reader is not
+   * positioned at the start of a value.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testReadValueNotAtValue()
+         throws Exception
+  {
+    final JSONStreamReader reader =
+         new JSONStreamReader(StaticUtils.getBytes("[ ]"));
+    try
+    {
+      reader.readValue();
+      fail("Expected an exception before reading any tokens");
+    }
+    catch (final JSONException e)
+    {
+      // This was expected.
+    }
+
+    assertEquals(reader.nextToken(), JSONTokenType.START_ARRAY);
+    assertEquals(reader.nextToken(), JSONTokenType.END_ARRAY);
+    try
+    {
+      reader.readValue();
+      fail("Expected an exception at the end of an array");
+    }
+    catch (final JSONException e)
+    {
+      // This was expected.
+    }
+  }
+
+
+
+  /**
+   * Tests the getValues method with a variety of paths.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testGetValues()
+         throws Exception
+  {
+    final byte[] bytes = StaticUtils.getBytes(TEST_OBJECT);
+
+    assertEquals(JSONStreamReader.getValues(bytes, "name"),
+         Arrays.<JSONValue>asList(
+              new JSONString("Jos\u00e9 \"Pepe\" Garc\u00eda")));
+    assertEquals(JSONStreamReader.getValues(bytes, "nested", "a", "b"),
+         Arrays.<JSONValue>asList(new JSONString("inner")));
+    assertEquals(JSONStreamReader.getValues(bytes, "nested", "c"),
+         Arrays.<JSONValue>asList(
+              new JSONArray(new JSONNumber(1L), new JSONNumber(2L))));
+    assertEquals(JSONStreamReader.getValues(bytes, "list", "id"),
+         Arrays.<JSONValue>asList(new JSONNumber(1L), new JSONNumber(2L)));
+    assertEquals(JSONStreamReader.getValues(bytes, "list", "other"),
+         Arrays.<JSONValue>asList(new JSONString("}]")));
+
+    assertTrue(JSONStreamReader.getValues(bytes, "missing").isEmpty());
+    assertTrue(JSONStreamReader.getValues(bytes, "name", "x").isEmpty());
+    assertTrue(JSONStreamReader.getValues(bytes, "NAME").isEmpty());
+    assertTrue(JSONStreamReader.getValues(bytes, "nested", "b").isEmpty());
+  }
+
+
+
+  /**
+   * Tests the getValues method with data that isn't a single valid JSON
+   * object.
+   *
+   * @param  data  The invalid data to use.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(dataProvider="invalidObjects",
+        expectedExceptions={ JSONException.class })
+  public void testGetValuesInvalidObject(final String data)
+         throws Exception
+  {
+    JSONStreamReader.getValues(StaticUtils.getBytes(data), "a");
+  }
+
+
+
+  /**
+   * Tests that a reader that reads the provided invalid data one token at a
+   * time will throw an exception.
+   *
+   * @param  data  The invalid data to use.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(dataProvider="invalidObjects")
+  public void testReadTokensInvalidObject(final String data)
+         throws Exception
+  {
+    final JSONStreamReader reader = new JSONStreamReader(
+         new ByteArrayInputStream(StaticUtils.getBytes(data)));
+    try
+    {
+      if (reader.nextToken() != JSONTokenType.START_OBJECT)
+      {
+        // This is expected for data that doesn't start with an object.
+        return;
+      }
+
+      while (reader.getDepth() > 0)
+      {
+        reader.nextToken();
+      }
+
+      assertNotNull(reader.nextToken(),
+           "Expected an exception or trailing data for " + data);
+    }
+    catch (final JSONException e)
+    {
+      // This was expected.
+    }
+    finally
+    {
+      reader.close();
+    }
+  }
+
+
+
+  /**
+   * Retrieves a set of strings that can't be parsed as a single JSON object.
+   *
+   * @return  A set of strings that can't be parsed as a single JSON object.
+   */
+  @DataProvider(name="invalidObjects")
+  public Object[][] getInvalidObjects()
+  {
+    return new Object[][]
+    {
+      new Object[] { "" },
+      new Object[] { "[ ]" },
+      new Object[] { "{" },
+      new Object[] { "{ \"a\" }" },
+      new Object[] { "{ \"a\" : }" },
+      new Object[] { "{ \"a\" : 1, }" },
+      new Object[] { "{ \"a\" : 1 \"b\" : 2 }" },
+      new Object[] { "{ a : 1 }" },
+      new Object[] { "{ \"a\" : tru }" },
+      new Object[] { "{ \"a\" : nul }" },
+      new Object[] { "{ \"a\" : falsy }" },
+      new Object[] { "{ \"a\" : 1.2.3 }" },
+      new Object[] { "{ \"a\" : \"unterminated }" },
+      new Object[] { "{ \"a\" : \"bad \\q escape\" }" },
+      new Object[] { "{ \"a\" : \"bad \\u12G4 escape\" }" },
+      new Object[] { "{ \"a\" : \"control \t char\" }" },
+      new Object[] { "{ \"a\" : [ 1 2 ] }" },
+      new Object[] { "{ \"a\" : [ 1, ] }" },
+      new Object[] { "{ / \"a\" : 1 }" },
+      new Object[] { "{ \"a\" : 1 /* unclosed }" },
+      new Object[] { "{ \"a\" : 1 } { }" },
+      new Object[] { "{ \"b\" : { \"x\" : 1 \"y\" : 2 } }" }
+    };
+  }
+
+
+
+  /**
+   * Tests that reading a complete object fails if it contains duplicate
+   * fields.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions={ JSONException.class })
+  public void testReadValueDuplicateField()
+         throws Exception
+  {
+    final JSONStreamReader reader = new JSONStreamReader(
+         StaticUtils.getBytes("{ \"a\" : 1, \"a\" : 2 }"));
+    reader.nextToken();
+    reader.readValue();
+  }
+
+
+
+  /**
+   * Tests that skipping a value doesn't decode the strings and numbers that it
+   * contains.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSkipValueDoesNotDecode()
+         throws Exception
+  {
+    // The number in the skipped array isn't valid, but the reader shouldn't
+    // try to parse it.
+    final byte[] bytes = StaticUtils.getBytes(
+         "{ \"skipped\" : [ 1-2-3, \"\\u00e9\" ], \"kept\" : 4 }");
+    final List<JSONValue> values = JSONStreamReader.getValues(bytes, "kept");
+    assertEquals(values, Arrays.<JSONValue>asList(new JSONNumber(4L)));
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util.metrics;
+
+
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.sdk.LDAPSDKTestCase;
+
+
+
+/**
+ * This class provides a set of test cases for the
+ * {@code DefaultMetricsRegistry} class.
+ */
+public final class DefaultMetricsRegistryTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Tests the behavior of a registry that does not hold any metrics.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testEmptyRegistry()
+         throws Exception
+  {
+    final DefaultMetricsRegistry registry = new DefaultMetricsRegistry();
+
+    assertTrue(registry.getCounterNames().isEmpty());
+    assertTrue(registry.getValueNames().isEmpty());
+    assertTrue(registry.getScopes().isEmpty());
+
+    assertEquals(registry.getCounterValue("undefined"), 0L);
+    assertEquals(registry.getCounterValue("scope", "undefined"), 0L);
+    assertEquals(registry.getValueCount("undefined"), 0L);
+    assertEquals(registry.getValueTotal("undefined"), 0L);
+    assertEquals(registry.getValueMaximum("undefined"), Long.MIN_VALUE);
+    assertTrue(Double.isNaN(registry.getValueAverage("undefined")));
+
+    assertNotNull(registry.toString());
+    assertEquals(registry.toString(),
+         "DefaultMetricsRegistry(counters={}, values={})");
+  }
+
+
+
+  /**
+   * Tests the behavior of the registry for counter metrics.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testCounters()
+         throws Exception
+  {
+    final DefaultMetricsRegistry registry = new DefaultMetricsRegistry();
+
+    registry.incrementCounter("s1", "b", 1L);
+    registry.incrementCounter("s1", "a", 5L);
+    registry.incrementCounter("s2", "b", 2L);
+
+    assertEquals(registry.getCounterNames().size(), 2);
+    assertEquals(registry.getCounterNames().iterator().next(), "a");
+    assertTrue(registry.getValueNames().isEmpty());
+
+    assertEquals(registry.getCounterValue("a"), 5L);
+    assertEquals(registry.getCounterValue("b"), 3L);
+    assertEquals(registry.getCounterValue("s1", "b"), 1L);
+    assertEquals(registry.getCounterValue("s2", "b"), 2L);
+    assertEquals(registry.getCounterValue("s2", "a"), 0L);
+    assertTrue(registry.toString().contains("s2/b=2"));
+
+    registry.reset();
+    assertEquals(registry.getCounterNames().size(), 2);
+    assertEquals(registry.getCounterValue("a"), 0L);
+    assertEquals(registry.getCounterValue("b"), 0L);
+  }
+
+
+
+  /**
+   * Tests the behavior of the registry for value metrics.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testValues()
+         throws Exception
+  {
+    final DefaultMetricsRegistry registry = new DefaultMetricsRegistry();
+
+    registry.recordValue("s1", "latency", 10L);
+    registry.recordValue("s2", "latency", 30L);
+    registry.recordValue("s1", "latency", 20L);
+
+    assertTrue(registry.getCounterNames().isEmpty());
+    assertEquals(registry.getValueNames().size(), 1);
+    assertTrue(registry.getValueNames().contains("latency"));
+
+    assertEquals(registry.getValueCount("latency"), 3L);
+    assertEquals(registry.getValueTotal("latency"), 60L);
+    assertEquals(registry.getValueMaximum("latency"), 30L);
+    assertEquals(registry.getValueAverage("latency"), 20.0d);
+    assertEquals(registry.getValueCount("s1", "latency"), 2L);
+    assertEquals(registry.getValueTotal("s1", "latency"), 30L);
+    assertEquals(registry.getValueMaximum("s1", "latency"), 20L);
+    assertEquals(registry.getValueAverage("s1", "latency"), 15.0d);
+    assertTrue(registry.toString().contains(
+         "s1/latency=(count=2, total=30, max=20)"));
+
+    registry.reset();
+    assertEquals(registry.getValueCount("latency"), 0L);
+    assertEquals(registry.getValueTotal("latency"), 0L);
+    assertEquals(registry.getValueMaximum("latency"), Long.MIN_VALUE);
+    assertTrue(Double.isNaN(registry.getValueAverage("latency")));
+  }
+
+
+
+  /**
+   * Tests the behavior of the registry when discarding the metrics for a
+   * scope.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testRemoveScope()
+         throws Exception
+  {
+    final DefaultMetricsRegistry registry = new DefaultMetricsRegistry();
+
+    registry.incrementCounter("s1", "count", 1L);
+    registry.incrementCounter("s2", "count", 2L);
+    registry.recordValue("s1", "latency", 10L);
+    registry.recordValue("s2", "latency", 20L);
+    assertEquals(registry.getScopes().size(), 2);
+
+    registry.removeScope("s1");
+    assertEquals(registry.getScopes().size(), 1);
+    assertTrue(registry.getScopes().contains("s2"));
+    assertEquals(registry.getCounterValue("count"), 2L);
+    assertEquals(registry.getCounterValue("s1", "count"), 0L);
+    assertEquals(registry.getValueCount("latency"), 1L);
+    assertEquals(registry.getValueMaximum("s1", "latency"), Long.MIN_VALUE);
+
+    registry.incrementCounter("s1", "count", 4L);
+    assertEquals(registry.getCounterValue("s1", "count"), 4L);
+    assertEquals(registry.getCounterValue("count"), 6L);
+  }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util.metrics;
+
+
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.sdk.LDAPConnection;
+import com.unboundid.ldap.sdk.LDAPConnectionPool;
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.ldap.sdk.LDAPSDKTestCase;
+import com.unboundid.ldap.sdk.SearchScope;
+
+
+
+/**
+ * This class provides a set of test cases for the {@code MetricsRegistry}
+ * class, including the metrics published by the LDAP SDK.
+ */
+public final class MetricsRegistryTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Ensures that no registry remains installed after each test.
+   */
+  @AfterMethod()
+  public void uninstallRegistry()
+  {
+    MetricsRegistry.setInstalledRegistry(null);
+  }
+
+
+
+  /**
+   * Tests the methods used to install a registry.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testInstallRegistry()
+         throws Exception
+  {
+    assertNull(MetricsRegistry.getInstalledRegistry());
+
+    final DefaultMetricsRegistry registry = new DefaultMetricsRegistry();
+    MetricsRegistry.setInstalledRegistry(registry);
+    assertSame(MetricsRegistry.getInstalledRegistry(), registry);
+
+    MetricsRegistry.setInstalledRegistry(null);
+    assertNull(MetricsRegistry.getInstalledRegistry());
+  }
+
+
+
+  /**
+   * Tests the metrics published for LDAP connections and listeners.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testConnectionAndListenerMetrics()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, true);
+    final DefaultMetricsRegistry registry = new DefaultMetricsRegistry();
+
+    final LDAPConnection conn = ds.getConnection();
+    try
+    {
+      conn.getRootDSE();
+      assertTrue(registry.getCounterNames().isEmpty());
+      assertTrue(registry.getValueNames().isEmpty());
+
+      MetricsRegistry.setInstalledRegistry(registry);
+      assertEquals(conn.search("dc=example,dc=com", SearchScope.SUB,
+           "(objectClass=*)").getEntryCount(), 3);
+      MetricsRegistry.setInstalledRegistry(null);
+
+      assertTrue(registry.getCounterValue(
+           MetricsRegistry.METRIC_CONNECTION_BYTES_READ) > 0L);
+      assertTrue(registry.getCounterValue(
+           MetricsRegistry.METRIC_CONNECTION_BYTES_WRITTEN) > 0L);
+      assertEquals(registry.getValueCount(
+           MetricsRegistry.METRIC_CONNECTION_OPERATIONS_IN_FLIGHT), 1L);
+      assertEquals(registry.getValueMaximum(
+           MetricsRegistry.METRIC_CONNECTION_OPERATIONS_IN_FLIGHT), 1L);
+      assertEquals(registry.getCounterValue(
+           MetricsRegistry.METRIC_LISTENER_REQUESTS), 1L);
+
+      // The connection and listener metrics should be published in their own
+      // scopes.
+      final String connectionScope =
+           "ldap-connection:#" + conn.getConnectionID();
+      final String listenerScope = "ldap-listener:" + ds.getListenPort();
+      assertEquals(registry.getScopes().size(), 2);
+      assertTrue(registry.getScopes().contains(connectionScope));
+      assertTrue(registry.getScopes().contains(listenerScope));
+      assertEquals(
+           registry.getCounterValue(connectionScope,
+                MetricsRegistry.METRIC_CONNECTION_BYTES_READ),
+           registry.getCounterValue(
+                MetricsRegistry.METRIC_CONNECTION_BYTES_READ));
+      assertEquals(registry.getCounterValue(listenerScope,
+           MetricsRegistry.METRIC_LISTENER_REQUESTS), 1L);
+      assertEquals(registry.getCounterValue(connectionScope,
+           MetricsRegistry.METRIC_LISTENER_REQUESTS), 0L);
+
+      // Metrics should not be gathered once the registry is uninstalled.  The
+      // connection reader may still publish metrics for the first response it
+      // reads after that, since it was already waiting for that response.
+      conn.getRootDSE();
+      final long bytesRead = registry.getCounterValue(
+           MetricsRegistry.METRIC_CONNECTION_BYTES_READ);
+      conn.getRootDSE();
+      assertEquals(registry.getCounterValue(
+           MetricsRegistry.METRIC_CONNECTION_BYTES_READ), bytesRead);
+      assertEquals(registry.getCounterValue(
+           MetricsRegistry.METRIC_LISTENER_REQUESTS), 1L);
+
+      // The listener records the latency after the response has been sent, so
+      // it is only guaranteed to be available once a subsequent request on the
+      // same connection has been processed.
+      assertEquals(registry.getValueCount(
+           MetricsRegistry.METRIC_LISTENER_REQUEST_LATENCY_NANOS), 1L);
+      assertTrue(registry.getValueTotal(
+           MetricsRegistry.METRIC_LISTENER_REQUEST_LATENCY_NANOS) > 0L);
+    }
+    finally
+    {
+      conn.close();
+    }
+  }
+
+
+
+  /**
+   * Tests the metrics published for LDAP connection pools.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testConnectionPoolMetrics()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS();
+    final LDAPConnectionPool pool = ds.getConnectionPool(1);
+    pool.setConnectionPoolName("metrics-test");
+    pool.setCreateIfNecessary(false);
+    pool.setMaxWaitTimeMillis(10L);
+
+    final DefaultMetricsRegistry registry = new DefaultMetricsRegistry();
+    MetricsRegistry.setInstalledRegistry(registry);
+
+    final LDAPConnection conn = pool.getConnection();
+    try
+    {
+      pool.getConnection();
+      fail("Expected an exception when no connections are available");
+    }
+    catch (final LDAPException le)
+    {
+      // This was expected.
+    }
+    finally
+    {
+      pool.releaseConnection(conn);
+      pool.close();
+    }
+
+    assertEquals(registry.getCounterValue(
+         MetricsRegistry.METRIC_POOL_FAILED_CHECKOUTS), 1L);
+    assertEquals(registry.getValueCount(
+         MetricsRegistry.METRIC_POOL_CHECKOUT_WAIT_NANOS), 1L);
+    assertTrue(registry.getValueMaximum(
+         MetricsRegistry.METRIC_POOL_CHECKOUT_WAIT_NANOS) >= 5000000L);
+
+    assertTrue(registry.getScopes().contains(
+         "ldap-connection-pool:metrics-test"));
+    assertEquals(
+         registry.getCounterValue("ldap-connection-pool:metrics-test",
+              MetricsRegistry.METRIC_POOL_FAILED_CHECKOUTS),
+         1L);
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2017 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright (C) 2017 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util.metrics;
+
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.sdk.LDAPSDKTestCase;
+import com.unboundid.util.LDAPSDKUsageException;
+
+
+
+/**
+ * This class provides a set of test cases for the {@code StripedCounter}
+ * class.
+ */
+public final class StripedCounterTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Tests the basic behavior of a counter created with the default number of
+   * stripes.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testDefaultStripes()
+         throws Exception
+  {
+    final StripedCounter counter = new StripedCounter();
+    assertTrue(counter.getNumStripes() >= 1);
+    assertEquals(Integer.bitCount(counter.getNumStripes()), 1);
+    assertEquals(counter.get(), 0L);
+
+    counter.increment();
+    assertEquals(counter.get(), 1L);
+
+    counter.add(10L);
+    assertEquals(counter.get(), 11L);
+
+    counter.add(-5L);
+    assertEquals(counter.get(), 6L);
+    assertEquals(counter.toString(), "6");
+
+    counter.reset();
+    assertEquals(counter.get(), 0L);
+  }
+
+
+
+  /**
+   * Tests that the number of stripes is rounded up to a power of two.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testNumStripes()
+         throws Exception
+  {
+    assertEquals(new StripedCounter(1).getNumStripes(), 1);
+    assertEquals(new StripedCounter(2).getNumStripes(), 2);
+    assertEquals(new StripedCounter(3).getNumStripes(), 4);
+    assertEquals(new StripedCounter(17).getNumStripes(), 32);
+  }
+
+
+
+  /**
+   * Tests that a counter cannot be created without any stripes.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions = { LDAPSDKUsageException.class })
+  public void testZeroStripes()
+         throws Exception
+  {
+    new StripedCounter(0);
+  }
+
+
+
+  /**
+   * Tests that no updates are lost when the counter is updated by multiple
+   * threads concurrently.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testConcurrentUpdates()
+         throws Exception
+  {
+    final StripedCounter counter = new StripedCounter(2);
+
+    final List<Thread> threads = new ArrayList<Thread>(8);
+    for (int i=0; i < 8; i++)
+    {
+      final Thread t = new Thread()
+      {
+        @Override()
+        public void run()
+        {
+          for (int j=0; j < 10000; j++)
+          {
+            counter.increment();
+          }
+        }
+      };
+      threads.add(t);
+      t.start();
+    }
+
+    for (final Thread t : threads)
+    {
+      t.join();
+    }
+
+    assertEquals(counter.get(), 80000L);
+  }
+}
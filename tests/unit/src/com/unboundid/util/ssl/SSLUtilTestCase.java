@@ -1135,4 +1135,49 @@ public class SSLUtilTestCase
       s.close();
     }
   }
+
+
+
+  /**
+   * Tests the methods used to configure the client session cache for SSL
+   * contexts created by this class.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testClientSessionCacheSettings()
+         throws Exception
+  {
+    final int originalCacheSize = SSLUtil.getDefaultClientSessionCacheSize();
+    final int originalTimeout = SSLUtil.getDefaultClientSessionTimeoutSeconds();
+
+    try
+    {
+      SSLUtil.setDefaultClientSessionCacheSize(123);
+      SSLUtil.setDefaultClientSessionTimeoutSeconds(456);
+      assertEquals(SSLUtil.getDefaultClientSessionCacheSize(), 123);
+      assertEquals(SSLUtil.getDefaultClientSessionTimeoutSeconds(), 456);
+
+      final SSLUtil sslUtil = new SSLUtil(new TrustAllTrustManager());
+      SSLContext sslContext = sslUtil.createSSLContext();
+      assertEquals(sslContext.getClientSessionContext().getSessionCacheSize(),
+           123);
+      assertEquals(sslContext.getClientSessionContext().getSessionTimeout(),
+           456);
+
+      SSLUtil.setDefaultClientSessionCacheSize(-5);
+      SSLUtil.setDefaultClientSessionTimeoutSeconds(-5);
+      assertEquals(SSLUtil.getDefaultClientSessionCacheSize(), -1);
+      assertEquals(SSLUtil.getDefaultClientSessionTimeoutSeconds(), -1);
+
+      sslContext = sslUtil.createSSLContext();
+      assertFalse(
+           sslContext.getClientSessionContext().getSessionCacheSize() == 123);
+    }
+    finally
+    {
+      SSLUtil.setDefaultClientSessionCacheSize(originalCacheSize);
+      SSLUtil.setDefaultClientSessionTimeoutSeconds(originalTimeout);
+    }
+  }
 }